@@ -68,65 +68,40 @@ public class BatchImporter {
     checkState(!blocks.isEmpty(), "Batch has no blocks to import");
     return asyncRunner.runAsync(
         () -> {
-          final SignedBeaconBlock firstBlock = blocks.get(0);
-          SafeFuture<BlockImportResult> importResult =
-              storeBlobsSidecarAndImportBlock(
-                  Optional.ofNullable(blobsSidecarsBySlot.get(firstBlock.getSlot())),
-                  firstBlock,
-                  source.orElseThrow());
-          for (int i = 1; i < blocks.size(); i++) {
-            final SignedBeaconBlock block = blocks.get(i);
-            importResult =
-                importResult.thenCompose(
-                    previousResult -> {
-                      if (previousResult.isSuccessful()) {
-                        return storeBlobsSidecarAndImportBlock(
-                            Optional.ofNullable(blobsSidecarsBySlot.get(block.getSlot())),
-                            block,
-                            source.orElseThrow());
-                      } else {
-                        return SafeFuture.completedFuture(previousResult);
-                      }
-                    });
-          }
-          return importResult.thenApply(
-              lastBlockImportResult -> {
-                if (lastBlockImportResult.isSuccessful()) {
-                  return BatchImportResult.IMPORTED_ALL_BLOCKS;
-                } else if (lastBlockImportResult.hasFailedExecutingExecutionPayload()) {
-                  return BatchImportResult.SERVICE_OFFLINE;
-                }
-                LOG.debug(
-                    "Failed to import batch {}: {}",
-                    batch,
-                    lastBlockImportResult.getFailureReason(),
-                    lastBlockImportResult.getFailureCause().orElse(null));
-                return BatchImportResult.IMPORT_FAILED;
-              });
+          return blockImporter
+              .importBlocks(
+                  blocks,
+                  asyncRunner,
+                  block ->
+                      Optional.ofNullable(blobsSidecarsBySlot.get(block.getSlot()))
+                          .ifPresent(blobsSidecarManager::storeUnconfirmedBlobsSidecar))
+              .thenApply(
+                  results -> {
+                    final BlockImportResult lastBlockImportResult = results.get(results.size() - 1);
+                    if (lastBlockImportResult.isSuccessful()) {
+                      return BatchImportResult.IMPORTED_ALL_BLOCKS;
+                    } else if (lastBlockImportResult.hasFailedExecutingExecutionPayload()) {
+                      return BatchImportResult.SERVICE_OFFLINE;
+                    } else if (lastBlockImportResult.getFailureReason()
+                        == BlockImportResult.FailureReason.FAILED_WEAK_SUBJECTIVITY_CHECKS) {
+                      disconnectSource(source.orElseThrow(), lastBlockImportResult);
+                    }
+                    LOG.debug(
+                        "Failed to import batch {}: {}",
+                        batch,
+                        lastBlockImportResult.getFailureReason(),
+                        lastBlockImportResult.getFailureCause().orElse(null));
+                    return BatchImportResult.IMPORT_FAILED;
+                  });
         });
   }
 
-  private SafeFuture<BlockImportResult> storeBlobsSidecarAndImportBlock(
-      final Optional<BlobsSidecar> blobsSidecar,
-      final SignedBeaconBlock block,
-      final SyncSource source) {
-    blobsSidecar.ifPresent(blobsSidecarManager::storeUnconfirmedBlobsSidecar);
-    return blockImporter
-        .importBlock(block)
-        .thenApply(
-            result -> {
-              if (result.getFailureReason()
-                  == BlockImportResult.FailureReason.FAILED_WEAK_SUBJECTIVITY_CHECKS) {
-                LOG.warn(
-                    "Disconnecting source ({}) for sending block that failed weak subjectivity checks: {}",
-                    source,
-                    result);
-                source
-                    .disconnectCleanly(DisconnectReason.REMOTE_FAULT)
-                    .ifExceptionGetsHereRaiseABug();
-              }
-              return result;
-            });
+  private void disconnectSource(final SyncSource source, final BlockImportResult result) {
+    LOG.warn(
+        "Disconnecting source ({}) for sending block that failed weak subjectivity checks: {}",
+        source,
+        result);
+    source.disconnectCleanly(DisconnectReason.REMOTE_FAULT).ifExceptionGetsHereRaiseABug();
   }
 
   public enum BatchImportResult {
@@ -15,6 +15,7 @@ package tech.pegasys.teku.beacon.sync.forward.multipeer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -28,8 +29,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import tech.pegasys.teku.beacon.sync.forward.multipeer.BatchImporter.BatchImportResult;
 import tech.pegasys.teku.beacon.sync.forward.multipeer.batches.Batch;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
@@ -54,6 +57,8 @@ class BatchImporterTest {
   private final Batch batch = mock(Batch.class);
   final SyncSource syncSource = mock(SyncSource.class);
 
+  private final SafeFuture<List<BlockImportResult>> importResult = new SafeFuture<>();
+
   private final BatchImporter importer =
       new BatchImporter(blockImporter, blobsSidecarManager, asyncRunner);
 
@@ -61,6 +66,7 @@ class BatchImporterTest {
   public void setup() {
     when(batch.getSource()).thenReturn(Optional.of(syncSource));
     when(batch.getBlobsSidecarsBySlot()).thenReturn(Collections.emptyMap());
+    when(blockImporter.importBlocks(any(), any(), any())).thenReturn(importResult);
   }
 
   @Test
@@ -68,14 +74,8 @@ class BatchImporterTest {
     final SignedBeaconBlock block1 = dataStructureUtil.randomSignedBeaconBlock(1);
     final SignedBeaconBlock block2 = dataStructureUtil.randomSignedBeaconBlock(2);
     final SignedBeaconBlock block3 = dataStructureUtil.randomSignedBeaconBlock(3);
-    final SafeFuture<BlockImportResult> importResult1 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult2 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult3 = new SafeFuture<>();
     final List<SignedBeaconBlock> blocks = new ArrayList<>(List.of(block1, block2, block3));
     when(batch.getBlocks()).thenReturn(blocks);
-    when(blockImporter.importBlock(block1)).thenReturn(importResult1);
-    when(blockImporter.importBlock(block2)).thenReturn(importResult2);
-    when(blockImporter.importBlock(block3)).thenReturn(importResult3);
 
     final SafeFuture<BatchImportResult> result = importer.importBatch(batch);
 
@@ -90,11 +90,17 @@ class BatchImporterTest {
 
     asyncRunner.executeQueuedActions();
 
-    blockImportedSuccessfully(block1, importResult1);
-    assertThat(result).isNotDone();
-    blockImportedSuccessfully(block2, importResult2);
+    final Consumer<SignedBeaconBlock> beforeBlockImport = verifyBlocksImported(blocks);
+    beforeBlockImport.accept(block1);
+    beforeBlockImport.accept(block2);
+    beforeBlockImport.accept(block3);
     assertThat(result).isNotDone();
-    blockImportedSuccessfully(block3, importResult3);
+
+    importResult.complete(
+        List.of(
+            BlockImportResult.successful(block1),
+            BlockImportResult.successful(block2),
+            BlockImportResult.successful(block3)));
     assertThat(result).isCompletedWithValue(BatchImportResult.IMPORTED_ALL_BLOCKS);
 
     // no blobs sidecars processing is expected
@@ -114,10 +120,6 @@ class BatchImporterTest {
     final BlobsSidecar blobsSidecar2 = dataStructureUtil.randomBlobsSidecarForBlock(block2);
     final BlobsSidecar blobsSidecar3 = dataStructureUtil.randomBlobsSidecarForBlock(block3);
 
-    final SafeFuture<BlockImportResult> importResult1 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult2 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult3 = new SafeFuture<>();
-
     final List<SignedBeaconBlock> blocks = new ArrayList<>(List.of(block1, block2, block3));
     final Map<UInt64, BlobsSidecar> blobsSidecarsBySlot =
         Map.of(
@@ -131,14 +133,11 @@ class BatchImporterTest {
     when(batch.getBlocks()).thenReturn(blocks);
     when(batch.getBlobsSidecarsBySlot()).thenReturn(blobsSidecarsBySlot);
 
-    when(blockImporter.importBlock(block1)).thenReturn(importResult1);
-    when(blockImporter.importBlock(block2)).thenReturn(importResult2);
-    when(blockImporter.importBlock(block3)).thenReturn(importResult3);
-
     final SafeFuture<BatchImportResult> result = importer.importBatch(batch);
 
     // Should not be started on the calling thread
     verifyNoInteractions(blockImporter);
+    verifyNoInteractions(blobsSidecarManager);
 
     // We should have copied the blocks and blobs sidecars to avoid accessing the Batch data from
     // other threads
@@ -148,14 +147,23 @@ class BatchImporterTest {
 
     asyncRunner.executeQueuedActions();
 
-    blobsSidecarImportedSuccessfully(blobsSidecar1);
-    blockImportedSuccessfully(block1, importResult1);
-    assertThat(result).isNotDone();
-    blobsSidecarImportedSuccessfully(blobsSidecar2);
-    blockImportedSuccessfully(block2, importResult2);
+    final Consumer<SignedBeaconBlock> beforeBlockImport = verifyBlocksImported(blocks);
+    // Blobs sidecars are only stored as the import of their block starts
+    verifyNoInteractions(blobsSidecarManager);
+
+    beforeBlockImport.accept(block1);
+    blobsSidecarStored(blobsSidecar1);
+    beforeBlockImport.accept(block2);
+    blobsSidecarStored(blobsSidecar2);
+    beforeBlockImport.accept(block3);
+    blobsSidecarStored(blobsSidecar3);
     assertThat(result).isNotDone();
-    blobsSidecarImportedSuccessfully(blobsSidecar3);
-    blockImportedSuccessfully(block3, importResult3);
+
+    importResult.complete(
+        List.of(
+            BlockImportResult.successful(block1),
+            BlockImportResult.successful(block2),
+            BlockImportResult.successful(block3)));
     assertThat(result).isCompletedWithValue(BatchImportResult.IMPORTED_ALL_BLOCKS);
 
     // And check we didn't touch the batch from a different thread
@@ -167,13 +175,22 @@ class BatchImporterTest {
     final SignedBeaconBlock block1 = dataStructureUtil.randomSignedBeaconBlock(1);
     final SignedBeaconBlock block2 = dataStructureUtil.randomSignedBeaconBlock(2);
     final SignedBeaconBlock block3 = dataStructureUtil.randomSignedBeaconBlock(3);
-    final SafeFuture<BlockImportResult> importResult1 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult2 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult3 = new SafeFuture<>();
-    when(batch.getBlocks()).thenReturn(List.of(block1, block2, block3));
-    when(blockImporter.importBlock(block1)).thenReturn(importResult1);
-    when(blockImporter.importBlock(block2)).thenReturn(importResult2);
-    when(blockImporter.importBlock(block3)).thenReturn(importResult3);
+
+    final BlobsSidecar blobsSidecar1 = dataStructureUtil.randomBlobsSidecarForBlock(block1);
+    final BlobsSidecar blobsSidecar2 = dataStructureUtil.randomBlobsSidecarForBlock(block2);
+    final BlobsSidecar blobsSidecar3 = dataStructureUtil.randomBlobsSidecarForBlock(block3);
+
+    final List<SignedBeaconBlock> blocks = List.of(block1, block2, block3);
+    when(batch.getBlocks()).thenReturn(blocks);
+    when(batch.getBlobsSidecarsBySlot())
+        .thenReturn(
+            Map.of(
+                block1.getSlot(),
+                blobsSidecar1,
+                block2.getSlot(),
+                blobsSidecar2,
+                block3.getSlot(),
+                blobsSidecar3));
 
     final SafeFuture<BatchImportResult> result = importer.importBatch(batch);
 
@@ -182,15 +199,24 @@ class BatchImporterTest {
 
     asyncRunner.executeQueuedActions();
 
-    blockImportedSuccessfully(block1, importResult1);
+    // The import pipeline starts block1 and block2 but stops once block2 fails
+    final Consumer<SignedBeaconBlock> beforeBlockImport = verifyBlocksImported(blocks);
+    beforeBlockImport.accept(block1);
+    blobsSidecarStored(blobsSidecar1);
+    beforeBlockImport.accept(block2);
+    blobsSidecarStored(blobsSidecar2);
     assertThat(result).isNotDone();
 
-    ignoreFuture(verify(blockImporter).importBlock(block2));
-    verifyNoMoreInteractions(blockImporter);
-
-    importResult2.complete(
-        BlockImportResult.failedStateTransition(new Exception("Naughty block!")));
+    importResult.complete(
+        List.of(
+            BlockImportResult.successful(block1),
+            BlockImportResult.failedStateTransition(new Exception("Naughty block!"))));
     assertThat(result).isCompletedWithValue(BatchImportResult.IMPORT_FAILED);
+    verify(syncSource, never()).disconnectCleanly(any());
+
+    // The blobs sidecar for the block after the failure is never stored
+    verify(blobsSidecarManager, never()).storeUnconfirmedBlobsSidecar(blobsSidecar3);
+    verifyNoMoreInteractions(blobsSidecarManager);
     verifyNoMoreInteractions(blockImporter);
   }
 
@@ -200,11 +226,8 @@ class BatchImporterTest {
 
     final SignedBeaconBlock block1 = dataStructureUtil.randomSignedBeaconBlock(1);
     final SignedBeaconBlock block2 = dataStructureUtil.randomSignedBeaconBlock(2);
-    final SafeFuture<BlockImportResult> importResult1 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult2 = new SafeFuture<>();
-    when(batch.getBlocks()).thenReturn(List.of(block1, block2));
-    when(blockImporter.importBlock(block1)).thenReturn(importResult1);
-    when(blockImporter.importBlock(block2)).thenReturn(importResult2);
+    final List<SignedBeaconBlock> blocks = List.of(block1, block2);
+    when(batch.getBlocks()).thenReturn(blocks);
 
     final SafeFuture<BatchImportResult> result = importer.importBatch(batch);
 
@@ -213,14 +236,14 @@ class BatchImporterTest {
 
     asyncRunner.executeQueuedActions();
 
-    blockImportedSuccessfully(block1, importResult1);
+    verifyBlocksImported(blocks);
     assertThat(result).isNotDone();
 
-    ignoreFuture(verify(blockImporter).importBlock(block2));
-    verifyNoMoreInteractions(blockImporter);
-
     // Import bad block
-    importResult2.complete(BlockImportResult.FAILED_WEAK_SUBJECTIVITY_CHECKS);
+    importResult.complete(
+        List.of(
+            BlockImportResult.successful(block1),
+            BlockImportResult.FAILED_WEAK_SUBJECTIVITY_CHECKS));
     assertThat(result).isCompletedWithValue(BatchImportResult.IMPORT_FAILED);
     verify(batch).getSource();
     verify(syncSource).disconnectCleanly(DisconnectReason.REMOTE_FAULT);
@@ -234,11 +257,8 @@ class BatchImporterTest {
 
     final SignedBeaconBlock block1 = dataStructureUtil.randomSignedBeaconBlock(1);
     final SignedBeaconBlock block2 = dataStructureUtil.randomSignedBeaconBlock(2);
-    final SafeFuture<BlockImportResult> importResult1 = new SafeFuture<>();
-    final SafeFuture<BlockImportResult> importResult2 = new SafeFuture<>();
-    when(batch.getBlocks()).thenReturn(List.of(block1, block2));
-    when(blockImporter.importBlock(block1)).thenReturn(importResult1);
-    when(blockImporter.importBlock(block2)).thenReturn(importResult2);
+    final List<SignedBeaconBlock> blocks = List.of(block1, block2);
+    when(batch.getBlocks()).thenReturn(blocks);
 
     final SafeFuture<BatchImportResult> result = importer.importBatch(batch);
 
@@ -247,14 +267,14 @@ class BatchImporterTest {
 
     asyncRunner.executeQueuedActions();
 
-    blockImportedSuccessfully(block1, importResult1);
+    verifyBlocksImported(blocks);
     assertThat(result).isNotDone();
 
-    ignoreFuture(verify(blockImporter).importBlock(block2));
-    verifyNoMoreInteractions(blockImporter);
-
     // Import failed due to service being offline
-    importResult2.complete(BlockImportResult.failedExecutionPayloadExecution(new Error()));
+    importResult.complete(
+        List.of(
+            BlockImportResult.successful(block1),
+            BlockImportResult.failedExecutionPayloadExecution(new Error())));
     assertThat(result).isCompletedWithValue(BatchImportResult.SERVICE_OFFLINE);
     verify(batch).getSource();
     verify(syncSource, never()).disconnectCleanly(any());
@@ -262,16 +282,19 @@ class BatchImporterTest {
     verifyNoMoreInteractions(blockImporter);
   }
 
-  private void blobsSidecarImportedSuccessfully(final BlobsSidecar blobsSidecar) {
-    verify(blobsSidecarManager).storeUnconfirmedBlobsSidecar(blobsSidecar);
-    verifyNoMoreInteractions(blobsSidecarManager);
-  }
-
-  private void blockImportedSuccessfully(
-      final SignedBeaconBlock block, final SafeFuture<BlockImportResult> importResult1) {
-    ignoreFuture(verify(blockImporter).importBlock(block));
+  @SuppressWarnings("unchecked")
+  private Consumer<SignedBeaconBlock> verifyBlocksImported(final List<SignedBeaconBlock> blocks) {
+    final ArgumentCaptor<Consumer<SignedBeaconBlock>> beforeBlockImport =
+        ArgumentCaptor.forClass(Consumer.class);
+    ignoreFuture(
+        verify(blockImporter)
+            .importBlocks(eq(blocks), eq(asyncRunner), beforeBlockImport.capture()));
     verifyNoMoreInteractions(blockImporter);
+    return beforeBlockImport.getValue();
+  }
 
-    importResult1.complete(BlockImportResult.successful(block));
+  private void blobsSidecarStored(final BlobsSidecar blobsSidecar) {
+    verify(blobsSidecarManager).storeUnconfirmedBlobsSidecar(blobsSidecar);
+    verifyNoMoreInteractions(blobsSidecarManager);
   }
 }
@@ -18,6 +18,7 @@ import static org.mockito.Mockito.mock;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import org.apache.tuweni.bytes.Bytes;
@@ -29,7 +30,11 @@ import tech.pegasys.teku.benchmarks.gen.BlsKeyPairIO;
 import tech.pegasys.teku.bls.BLSKeyPair;
 import tech.pegasys.teku.bls.BLSPublicKey;
 import tech.pegasys.teku.bls.BLSTestUtil;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
+import tech.pegasys.teku.infrastructure.async.AsyncRunnerFactory;
+import tech.pegasys.teku.infrastructure.async.MetricTrackingExecutorFactory;
 import tech.pegasys.teku.infrastructure.async.eventthread.InlineEventThread;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -149,6 +154,99 @@ public class ProfilingRun {
     }
   }
 
+  /**
+   * Replays the same segment of blocks through sequential and pipelined import, as used when
+   * syncing, and compares throughput.
+   */
+  @Disabled
+  @Test
+  public void importBlocksPipelined() throws Exception {
+
+    AbstractBlockProcessor.blsVerifyDeposit = false;
+
+    int validatorsCount = 32 * 1024;
+    int batchSize = 64;
+
+    String blocksFile =
+        "/blocks/blocks_epoch_"
+            + spec.getSlotsPerEpoch(UInt64.ZERO)
+            + "_validators_"
+            + validatorsCount
+            + ".ssz.gz";
+
+    System.out.println("Generating keypairs...");
+
+    List<BLSKeyPair> validatorKeys =
+        BlsKeyPairIO.createReaderForResource("/bls-key-pairs/bls-key-pairs-200k-seed-0.txt.gz")
+            .readAll(validatorsCount);
+
+    BeaconState initialState =
+        new GenesisStateBuilder()
+            .spec(spec)
+            .signDeposits(false)
+            .addValidators(validatorKeys)
+            .build();
+
+    final List<SignedBeaconBlock> blocks = new ArrayList<>();
+    try (Reader blockReader = BlockIO.createResourceReader(spec, blocksFile)) {
+      blockReader.forEach(blocks::add);
+    }
+    final AsyncRunnerFactory asyncRunnerFactory =
+        AsyncRunnerFactory.createDefault(
+            new MetricTrackingExecutorFactory(new StubMetricsSystem()));
+    final AsyncRunner asyncRunner =
+        asyncRunnerFactory.create("pipelined_import", Runtime.getRuntime().availableProcessors());
+
+    while (true) {
+      BlockImporter blockImporter = createBlockImporter(initialState, validatorKeys, blocks);
+      long s = System.currentTimeMillis();
+      for (SignedBeaconBlock block : blocks) {
+        blockImporter.importBlock(block).join();
+      }
+      double sequentialRate = blocks.size() / ((System.currentTimeMillis() - s) / 1000.0);
+
+      blockImporter = createBlockImporter(initialState, validatorKeys, blocks);
+      s = System.currentTimeMillis();
+      for (int i = 0; i < blocks.size(); i += batchSize) {
+        final List<SignedBeaconBlock> batch =
+            blocks.subList(i, Math.min(i + batchSize, blocks.size()));
+        blockImporter.importBlocks(batch, asyncRunner).join();
+      }
+      double pipelinedRate = blocks.size() / ((System.currentTimeMillis() - s) / 1000.0);
+
+      System.out.printf(
+          "############# Sequential: %.2f blocks/sec, pipelined: %.2f blocks/sec\n",
+          sequentialRate, pipelinedRate);
+    }
+  }
+
+  private BlockImporter createBlockImporter(
+      final BeaconState initialState,
+      final List<BLSKeyPair> validatorKeys,
+      final List<SignedBeaconBlock> blocks) {
+    RecentChainData recentChainData = MemoryOnlyRecentChainData.create(spec);
+    recentChainData.initializeFromGenesis(initialState, UInt64.ZERO);
+    final MergeTransitionBlockValidator transitionBlockValidator =
+        new MergeTransitionBlockValidator(spec, recentChainData, ExecutionLayerChannel.NOOP);
+    ForkChoice forkChoice =
+        new ForkChoice(
+            spec,
+            new InlineEventThread(),
+            recentChainData,
+            BlobsSidecarManager.NOOP,
+            new StubForkChoiceNotifier(),
+            transitionBlockValidator);
+    BeaconChainUtil.create(spec, recentChainData, validatorKeys, false)
+        .setSlot(blocks.get(blocks.size() - 1).getSlot());
+    return new BlockImporter(
+        spec,
+        mock(BlockImportNotifications.class),
+        recentChainData,
+        forkChoice,
+        WeakSubjectivityFactory.lenientValidator(),
+        ExecutionLayerChannel.NOOP);
+  }
+
   public static void main(String[] args) throws Exception {
     new ProfilingRun().importBlocksMemProfiling();
   }
@@ -13,13 +13,27 @@
 
 package tech.pegasys.teku.benchmarks;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 import tech.pegasys.teku.infrastructure.ssz.SimpleOffsetSerializable;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszMutableUInt64List;
+import tech.pegasys.teku.infrastructure.ssz.tree.ParallelTreeHasher;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.TestSpecFactory;
 import tech.pegasys.teku.spec.datastructures.execution.ExecutionPayload;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.versions.altair.MutableBeaconStateAltair;
 import tech.pegasys.teku.spec.util.DataStructureUtil;
 
 public class SSZBenchmark {
@@ -42,4 +56,70 @@ public class SSZBenchmark {
   public void ExecutionPayloadIsDefault() {
     executionPayload.isDefault();
   }
+
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 2, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void BeaconStateHashTreeRoot(ModifiedLargeState largeState, Blackhole bh) {
+    if (largeState.pool == null) {
+      bh.consume(largeState.modifiedState.hashTreeRoot());
+    } else {
+      bh.consume(
+          ParallelTreeHasher.hashTreeRoot(
+              largeState.modifiedState.getBackingNode(),
+              largeState.pool,
+              ParallelTreeHasher.DEFAULT_SPLIT_DEPTH));
+    }
+  }
+
+  /**
+   * Mainnet sized state where all balances and inactivity scores are modified before every
+   * invocation, as it happens on epoch transition. Parallelism 0 means sequential hashing
+   */
+  @State(Scope.Benchmark)
+  public static class ModifiedLargeState {
+
+    @Param({"0", "1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"500000"})
+    int validatorsCount;
+
+    BeaconState state;
+    BeaconState modifiedState;
+    ForkJoinPool pool;
+    int iteration;
+
+    @Setup(Level.Trial)
+    public void init() {
+      final DataStructureUtil util = new DataStructureUtil(TestSpecFactory.createMainnetAltair());
+      state = util.randomBeaconState(validatorsCount);
+      state.hashTreeRoot();
+      pool = parallelism == 0 ? null : new ForkJoinPool(parallelism);
+    }
+
+    @Setup(Level.Invocation)
+    public void modifyState() {
+      final UInt64 delta = UInt64.valueOf(++iteration);
+      modifiedState =
+          state.updated(
+              mutableState -> {
+                final SszMutableUInt64List balances = mutableState.getBalances();
+                final SszMutableUInt64List inactivityScores =
+                    MutableBeaconStateAltair.required(mutableState).getInactivityScores();
+                for (int i = 0; i < balances.size(); i++) {
+                  balances.setElement(i, balances.getElement(i).plus(delta));
+                  inactivityScores.setElement(i, inactivityScores.getElement(i).plus(delta));
+                }
+              });
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
 }
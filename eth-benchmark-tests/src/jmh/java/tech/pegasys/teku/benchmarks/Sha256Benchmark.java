@@ -13,17 +13,28 @@
 
 package tech.pegasys.teku.benchmarks;
 
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.bytes.MutableBytes;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
 import tech.pegasys.teku.infrastructure.crypto.Hash;
+import tech.pegasys.teku.infrastructure.crypto.Sha256Batch;
+import tech.pegasys.teku.infrastructure.ssz.tree.BatchTreeHasher;
+import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeUtil;
 
 @State(Scope.Thread)
 public class Sha256Benchmark {
@@ -51,4 +62,52 @@ public class Sha256Benchmark {
     byte[] hash = Hash.sha256(dataArray).toArrayUnsafe();
     bh.consume(hash);
   }
+
+  @Benchmark
+  @Warmup(iterations = 2, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void validatorRegistryRehashPerPair(ValidatorRegistryTree registry, Blackhole bh) {
+    bh.consume(registry.tree.hashTreeRoot());
+  }
+
+  @Benchmark
+  @Warmup(iterations = 2, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void validatorRegistryRehashBatched(ValidatorRegistryTree registry, Blackhole bh) {
+    bh.consume(BatchTreeHasher.hashTreeRoot(registry.tree));
+  }
+
+  @Benchmark
+  @Warmup(iterations = 2, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void validatorRegistryRehashBatchedScalar(ValidatorRegistryTree registry, Blackhole bh) {
+    bh.consume(BatchTreeHasher.hashTreeRoot(registry.tree, Sha256Batch.createScalar()));
+  }
+
+  /**
+   * Mainnet sized validator registry: a list tree of validator roots with the validator list limit
+   * depth. The tree is recreated before every invocation so all branch nodes need to be rehashed
+   */
+  @State(Scope.Thread)
+  public static class ValidatorRegistryTree {
+    private static final int VALIDATOR_COUNT = 1_000_000;
+    private static final int VALIDATOR_LIST_DEPTH = 40;
+
+    private List<LeafNode> validatorRoots;
+    private TreeNode tree;
+
+    @Setup(Level.Trial)
+    public void createValidatorRoots() {
+      final Random random = new Random(1);
+      validatorRoots =
+          IntStream.range(0, VALIDATOR_COUNT)
+              .mapToObj(__ -> LeafNode.create(Bytes32.random(random)))
+              .collect(Collectors.toList());
+    }
+
+    @Setup(Level.Invocation)
+    public void createTree() {
+      tree = TreeUtil.createTree(validatorRoots, VALIDATOR_LIST_DEPTH);
+    }
+  }
 }
@@ -22,15 +22,22 @@ import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Warmup;
 import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.TestSpecFactory;
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
 import tech.pegasys.teku.spec.util.DataStructureUtil;
+import tech.pegasys.teku.storage.store.VoteTrackerColumns;
 
 public class VoteTrackerSerialize {
 
   private static Spec spec = TestSpecFactory.createDefault();
   private static VoteTracker votes = new DataStructureUtil(spec).randomVoteTracker();
   private static Bytes votesSerialized = Bytes.wrap(VOTE_TRACKER_SERIALIZER.serialize(votes));
+  private static VoteTrackerColumns voteColumns = new VoteTrackerColumns();
+
+  static {
+    voteColumns.put(UInt64.ZERO, votes);
+  }
 
   @Benchmark
   @Warmup(iterations = 2, time = 100, timeUnit = TimeUnit.MILLISECONDS)
@@ -48,6 +55,22 @@ public class VoteTrackerSerialize {
     checkEpoch(VOTE_TRACKER_SERIALIZER.deserialize(votesSerialized.toArrayUnsafe()));
   }
 
+  @Benchmark
+  @Warmup(iterations = 2, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void voteTrackerColumnsWrite() {
+    voteColumns.put(UInt64.ZERO, votes);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 2, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void voteTrackerColumnsRead() {
+    checkEpoch(voteColumns.get(UInt64.ZERO));
+  }
+
   private boolean checkSize(final Bytes serialize) {
     return serialize.size() == votesSerialized.size();
   }
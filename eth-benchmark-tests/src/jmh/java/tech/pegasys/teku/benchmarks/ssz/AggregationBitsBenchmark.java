@@ -0,0 +1,116 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.benchmarks.ssz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.collections.MutableBitlist;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszBitlist;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+/**
+ * Aggregation pool scenario: 64 committees of 512 validators, each committee with one single bit
+ * attestation per validator plus a few partial aggregates. Compares greedy aggregation through
+ * immutable {@link SszBitlist#or(SszBitlist)} with in place {@link MutableBitlist} updates.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class AggregationBitsBenchmark {
+  private static final int COMMITTEES_COUNT = 64;
+  private static final int COMMITTEE_SIZE = 512;
+  private static final int AGGREGATES_PER_COMMITTEE = 16;
+  private static final SszBitlistSchema<SszBitlist> BITLIST_SCHEMA = SszBitlistSchema.create(2048);
+
+  private final List<List<SszBitlist>> committeesAttestations = createAttestations();
+
+  private static List<List<SszBitlist>> createAttestations() {
+    final Random random = new Random(1);
+    final List<List<SszBitlist>> committees = new ArrayList<>();
+    for (int c = 0; c < COMMITTEES_COUNT; c++) {
+      final List<SszBitlist> attestations = new ArrayList<>();
+      for (int i = 0; i < AGGREGATES_PER_COMMITTEE; i++) {
+        final int[] bits = random.ints(COMMITTEE_SIZE / 4, 0, COMMITTEE_SIZE).distinct().toArray();
+        attestations.add(BITLIST_SCHEMA.ofBits(COMMITTEE_SIZE, bits));
+      }
+      for (int i = 0; i < COMMITTEE_SIZE; i++) {
+        attestations.add(BITLIST_SCHEMA.ofBits(COMMITTEE_SIZE, i));
+      }
+      committees.add(attestations);
+    }
+    return committees;
+  }
+
+  @Benchmark
+  public void aggregateImmutable(Blackhole bh) {
+    for (List<SszBitlist> attestations : committeesAttestations) {
+      SszBitlist aggregate = BITLIST_SCHEMA.ofBits(COMMITTEE_SIZE);
+      for (SszBitlist attestation : attestations) {
+        if (!aggregate.intersects(attestation)) {
+          aggregate = aggregate.or(attestation);
+        }
+      }
+      bh.consume(aggregate.getBitCount());
+    }
+  }
+
+  @Benchmark
+  public void aggregateInPlace(Blackhole bh) {
+    for (List<SszBitlist> attestations : committeesAttestations) {
+      final MutableBitlist aggregate = MutableBitlist.create(BITLIST_SCHEMA, COMMITTEE_SIZE);
+      for (SszBitlist attestation : attestations) {
+        if (!aggregate.intersects(attestation)) {
+          aggregate.or(attestation);
+        }
+      }
+      bh.consume(aggregate.getBitCount());
+    }
+  }
+
+  @Benchmark
+  public void filterIncludedImmutable(Blackhole bh) {
+    for (List<SszBitlist> attestations : committeesAttestations) {
+      SszBitlist included = BITLIST_SCHEMA.ofBits(COMMITTEE_SIZE);
+      for (SszBitlist attestation : attestations) {
+        if (!included.isSuperSetOf(attestation)) {
+          included = included.or(attestation);
+        }
+      }
+      bh.consume(included);
+    }
+  }
+
+  @Benchmark
+  public void filterIncludedInPlace(Blackhole bh) {
+    for (List<SszBitlist> attestations : committeesAttestations) {
+      final MutableBitlist included = MutableBitlist.create(BITLIST_SCHEMA, COMMITTEE_SIZE);
+      for (SszBitlist attestation : attestations) {
+        if (!included.isSuperSetOf(attestation)) {
+          included.or(attestation);
+        }
+      }
+      bh.consume(included);
+    }
+  }
+}
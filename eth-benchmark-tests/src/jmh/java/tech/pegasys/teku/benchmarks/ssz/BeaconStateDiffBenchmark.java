@@ -0,0 +1,94 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.benchmarks.ssz;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeDiff;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+/**
+ * Measures {@link TreeDiff} on two consecutive epoch states (the second one is derived from the
+ * first by processing slots up to the next epoch) against the full state serialization
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class BeaconStateDiffBenchmark {
+
+  @Param({"100000"})
+  int validatorsCount;
+
+  private BeaconState baseState;
+  private BeaconState nextEpochState;
+  private TreeDiff diff;
+  private Bytes serializedDiff;
+
+  @Setup
+  public void setup() throws Exception {
+    final Spec spec = TestSpecFactory.createMainnetAltair();
+    baseState = new DataStructureUtil(1, spec).randomBeaconState(validatorsCount);
+    final UInt64 nextEpochSlot =
+        spec.computeStartSlotAtEpoch(spec.computeEpochAtSlot(baseState.getSlot()).plus(1));
+    nextEpochState = spec.processSlots(baseState, nextEpochSlot);
+    baseState.hashTreeRoot();
+    nextEpochState.hashTreeRoot();
+
+    diff = TreeDiff.create(baseState.getBackingNode(), nextEpochState.getBackingNode());
+    serializedDiff = diff.serialize();
+    System.out.printf(
+        "%nFull state: %d bytes, diff: %d bytes (%d changed nodes)%n",
+        nextEpochState.sszSerialize().size(),
+        serializedDiff.size(),
+        diff.getChangedNodesCount());
+  }
+
+  @Benchmark
+  public void createDiff(Blackhole bh) {
+    bh.consume(TreeDiff.create(baseState.getBackingNode(), nextEpochState.getBackingNode()));
+  }
+
+  @Benchmark
+  public void serializeDiff(Blackhole bh) {
+    bh.consume(diff.serialize());
+  }
+
+  @Benchmark
+  public void deserializeAndApplyDiff(Blackhole bh) {
+    bh.consume(
+        baseState
+            .getSchema()
+            .createFromBackingNode(
+                TreeDiff.deserialize(serializedDiff).apply(baseState.getBackingNode())));
+  }
+
+  @Benchmark
+  public void serializeFullState(Blackhole bh) {
+    bh.consume(nextEpochState.sszSerialize());
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.benchmarks.ssz;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.sos.SszOutputStreamWriter;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+/**
+ * Compares full state export approaches: serializing to a single byte array and writing it,
+ * writing every leaf to the stream directly and streaming through a bounded buffer. Run with
+ * <code>-prof gc</code> to compare allocation rates.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class BeaconStateSerializeBenchmark {
+
+  private static final Spec SPEC = TestSpecFactory.createMainnetAltair();
+  private static final BeaconState STATE =
+      new DataStructureUtil(1, SPEC).randomBeaconState(64 * 1024);
+
+  private final CountingOutputStream out = new CountingOutputStream();
+  private final WritableByteChannel channel = Channels.newChannel(out);
+
+  @Benchmark
+  public void serializeToArray(Blackhole bh) throws IOException {
+    out.write(STATE.sszSerialize().toArrayUnsafe());
+    bh.consume(out.count);
+  }
+
+  @Benchmark
+  public void streamUnbuffered(Blackhole bh) {
+    bh.consume(STATE.sszSerialize(new SszOutputStreamWriter(out)));
+  }
+
+  @Benchmark
+  public void streamBuffered(Blackhole bh) {
+    bh.consume(STATE.sszSerialize(channel));
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+}
@@ -20,6 +20,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.collections.MutableBitlist;
 import tech.pegasys.teku.infrastructure.ssz.collections.SszBitlist;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
 
@@ -49,6 +50,22 @@ public class BitlistBenchmark {
     bh.consume(target);
   }
 
+  @Benchmark
+  @Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void setAllBitsInPlace(Blackhole bh) {
+    final MutableBitlist target = MutableBitlist.create(BITLIST_SCHEMA, BITLIST_SIZE);
+    target.or(MANY_BITS_SET);
+    bh.consume(target);
+  }
+
+  @Benchmark
+  @Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+  public void isSuperSetOf(Blackhole bh) {
+    bh.consume(MANY_BITS_SET.isSuperSetOf(LAST_BIT_SET));
+  }
+
   @Benchmark
   @Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
   @Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
@@ -0,0 +1,93 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.benchmarks.ssz;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.sos.SszLazyView;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.BeaconBlockFields;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlockFields;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlockSchema;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconStateSchema;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.common.BeaconStateFields;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+/** Compares full deserialization with {@link SszLazyView} when only a single field is needed */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class SszLazyViewBenchmark {
+
+  private static final Spec SPEC = TestSpecFactory.createMainnetAltair();
+  private static final DataStructureUtil DATA_STRUCTURE_UTIL = new DataStructureUtil(1, SPEC);
+
+  private static final SignedBeaconBlockSchema BLOCK_SCHEMA =
+      SPEC.getGenesisSchemaDefinitions().getSignedBeaconBlockSchema();
+  private static final Bytes BLOCK_SSZ =
+      DATA_STRUCTURE_UTIL.randomSignedBeaconBlock(100, DATA_STRUCTURE_UTIL.randomBytes32(), true)
+          .sszSerialize();
+
+  private static final BeaconStateSchema<?, ?> STATE_SCHEMA =
+      SPEC.getGenesisSchemaDefinitions().getBeaconStateSchema();
+  private static final Bytes STATE_SSZ =
+      DATA_STRUCTURE_UTIL.randomBeaconState(32 * 1024).sszSerialize();
+
+  @Benchmark
+  public void blockParentRootDeserialize(Blackhole bh) {
+    bh.consume(BLOCK_SCHEMA.sszDeserialize(BLOCK_SSZ).getMessage().getParentRoot());
+  }
+
+  @Benchmark
+  public void blockParentRootLazy(Blackhole bh) {
+    bh.consume(
+        SszLazyView.wrap(BLOCK_SCHEMA, BLOCK_SSZ)
+            .getView(SignedBeaconBlockFields.MESSAGE)
+            .get(BeaconBlockFields.PARENT_ROOT));
+  }
+
+  @Benchmark
+  public void blockSlotAndParentRootLazy(Blackhole bh) {
+    final SszLazyView message =
+        SszLazyView.wrap(BLOCK_SCHEMA, BLOCK_SSZ).getView(SignedBeaconBlockFields.MESSAGE);
+    bh.consume(message.get(BeaconBlockFields.SLOT));
+    bh.consume(message.get(BeaconBlockFields.PARENT_ROOT));
+  }
+
+  @Benchmark
+  public void stateLatestBlockHeaderDeserialize(Blackhole bh) {
+    bh.consume(STATE_SCHEMA.sszDeserialize(STATE_SSZ).getLatestBlockHeader());
+  }
+
+  @Benchmark
+  public void stateLatestBlockHeaderLazy(Blackhole bh) {
+    bh.consume(
+        SszLazyView.wrap(STATE_SCHEMA, STATE_SSZ).get(BeaconStateFields.LATEST_BLOCK_HEADER));
+  }
+
+  @Benchmark
+  public void stateSingleBalanceLazy(Blackhole bh) {
+    bh.consume(
+        SszLazyView.wrap(STATE_SCHEMA, STATE_SSZ).getView(BeaconStateFields.BALANCES).get(1000));
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.benchmarks.ssz;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszMutableUInt64List;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszUInt64List;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszUInt64ListSchema;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+
+/**
+ * Compares the regular tree backed <code>uint64</code> list (<code>packedNodeDepth = 0</code>)
+ * with the list backed by {@link
+ * tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node}s on a mainnet sized balances
+ * list. Run with <code>-prof gc</code> to compare allocation rates.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class UInt64ListBenchmark {
+
+  private static final long MAX_LIST_SIZE = 1L << 40; // Max Validators on Mainnet
+  private static final int LIST_SIZE = 1 << 19; // ~500K, MainNet balances
+
+  @Param({"0", "8", "12"})
+  int packedNodeDepth;
+
+  private SszUInt64ListSchema<?> listSchema;
+  private Bytes listSsz;
+  private SszUInt64List list;
+
+  @Setup
+  public void setup() {
+    listSchema =
+        packedNodeDepth == 0
+            ? SszUInt64ListSchema.create(MAX_LIST_SIZE)
+            : SszUInt64ListSchema.create(
+                MAX_LIST_SIZE, SszSchemaHints.sszPackedUInt64Node(packedNodeDepth));
+    final byte[] ssz = new byte[LIST_SIZE * Long.BYTES];
+    for (int i = 0; i < LIST_SIZE; i++) {
+      ssz[i * Long.BYTES] = (byte) i;
+      ssz[i * Long.BYTES + 4] = 7; // ~32 ETH in Gwei
+    }
+    listSsz = Bytes.wrap(ssz);
+    list = listSchema.sszDeserialize(listSsz);
+    list.hashTreeRoot();
+  }
+
+  @Benchmark
+  public void deserialize(Blackhole bh) {
+    bh.consume(listSchema.sszDeserialize(listSsz));
+  }
+
+  /** Roughly what epoch processing does to balances: every element is updated and rehashed */
+  @Benchmark
+  public void updateAllAndHash(Blackhole bh) {
+    final SszMutableUInt64List mutableList = list.createWritableCopy();
+    for (int i = 0; i < LIST_SIZE; i++) {
+      mutableList.setElement(i, mutableList.getElement(i).plus(UInt64.ONE));
+    }
+    final SszUInt64List updated = mutableList.commitChanges();
+    bh.consume(updated.hashTreeRoot());
+  }
+
+  /** Roughly what block processing does to balances: a few scattered elements are updated */
+  @Benchmark
+  public void updateSparseAndHash(Blackhole bh) {
+    final SszMutableUInt64List mutableList = list.createWritableCopy();
+    for (int i = 0; i < LIST_SIZE; i += LIST_SIZE / 128) {
+      mutableList.setElement(i, mutableList.getElement(i).plus(UInt64.ONE));
+    }
+    final SszUInt64List updated = mutableList.commitChanges();
+    bh.consume(updated.hashTreeRoot());
+  }
+
+  @Benchmark
+  public void iterate(Blackhole bh) {
+    for (int i = 0; i < LIST_SIZE; i++) {
+      bh.consume(list.getElement(i));
+    }
+  }
+}
@@ -55,12 +55,12 @@ public class CachingTaskQueue<K, V> {
       final MetricsSystem metricsSystem,
       final String metricsPrefix,
       final IntSupplier activeTaskLimit,
-      final int maxCacheSize) {
+      final Map<K, V> cache) {
     this.asyncRunner = asyncRunner;
     this.metricsSystem = metricsSystem;
     this.metricsPrefix = metricsPrefix;
     this.activeTaskLimit = activeTaskLimit;
-    this.cache = LimitedMap.createSoft(maxCacheSize);
+    this.cache = cache;
 
     final LabelledMetric<Counter> labelledCounter =
         metricsSystem.createLabelledCounter(
@@ -79,12 +79,24 @@ public class CachingTaskQueue<K, V> {
       final MetricsSystem metricsSystem,
       final String metricsPrefix,
       final int maxCacheSize) {
+    return create(asyncRunner, metricsSystem, metricsPrefix, LimitedMap.createSoft(maxCacheSize));
+  }
+
+  /**
+   * Creates a task queue which caches results in the supplied map. The map is responsible for
+   * limiting its size and must be thread safe.
+   */
+  public static <K, V> CachingTaskQueue<K, V> create(
+      final AsyncRunner asyncRunner,
+      final MetricsSystem metricsSystem,
+      final String metricsPrefix,
+      final Map<K, V> cache) {
     return new CachingTaskQueue<>(
         asyncRunner,
         metricsSystem,
         metricsPrefix,
         () -> Math.max(2, Runtime.getRuntime().availableProcessors()),
-        maxCacheSize);
+        cache);
   }
 
   public void startMetrics() {
@@ -25,6 +25,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.dataproviders.generators.CachingTaskQueue.CacheableTask;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.infrastructure.collections.LimitedMap;
 import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
 import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 
@@ -36,7 +37,11 @@ class CachingTaskQueueTest {
 
   private final CachingTaskQueue<Integer, String> taskQueue =
       new CachingTaskQueue<>(
-          SYNC_RUNNER, metricsSystem, METRICS_PREFIX, () -> MAX_CONCURRENT_TASKS, MAX_CACHE_SIZE);
+          SYNC_RUNNER,
+          metricsSystem,
+          METRICS_PREFIX,
+          () -> MAX_CONCURRENT_TASKS,
+          LimitedMap.createSoft(MAX_CACHE_SIZE));
 
   @BeforeEach
   void setUp() {
@@ -50,6 +50,7 @@ public class Eth2NetworkConfiguration {
   public static final boolean DEFAULT_FORK_CHOICE_UPDATE_HEAD_ON_BLOCK_IMPORT_ENABLED = true;
   public static final ProgressiveBalancesMode DEFAULT_PROGRESSIVE_BALANCES_MODE =
       ProgressiveBalancesMode.USED;
+  public static final boolean DEFAULT_PARALLEL_HASHING_ENABLED = false;
 
   public static final String INITIAL_STATE_URL_PATH = "eth/v2/debug/beacon/states/finalized";
 
@@ -234,6 +235,7 @@ public class Eth2NetworkConfiguration {
     private Optional<UInt64> eth1DepositContractDeployBlock = Optional.empty();
     private Optional<String> trustedSetup = Optional.empty();
     private ProgressiveBalancesMode progressiveBalancesMode = DEFAULT_PROGRESSIVE_BALANCES_MODE;
+    private boolean parallelHashingEnabled = DEFAULT_PARALLEL_HASHING_ENABLED;
     private Optional<UInt64> altairForkEpoch = Optional.empty();
     private Optional<UInt64> bellatrixForkEpoch = Optional.empty();
     private Optional<UInt64> capellaForkEpoch = Optional.empty();
@@ -260,6 +262,7 @@ public class Eth2NetworkConfiguration {
                 constants,
                 builder -> {
                   builder.progressiveBalancesMode(progressiveBalancesMode);
+                  builder.parallelHashingEnabled(parallelHashingEnabled);
                   altairForkEpoch.ifPresent(
                       forkEpoch ->
                           builder.altairBuilder(
@@ -407,6 +410,11 @@ public class Eth2NetworkConfiguration {
       return this;
     }
 
+    public Builder parallelHashingEnabled(final boolean parallelHashingEnabled) {
+      this.parallelHashingEnabled = parallelHashingEnabled;
+      return this;
+    }
+
     public Builder forkChoiceUpdateHeadOnBlockImportEnabled(
         final boolean forkChoiceUpdateHeadOnBlockImportEnabled) {
       this.forkChoiceUpdateHeadOnBlockImportEnabled = forkChoiceUpdateHeadOnBlockImportEnabled;
@@ -500,6 +508,7 @@ public class Eth2NetworkConfiguration {
       eth1DepositContractDeployBlock = Optional.empty();
       trustedSetup = Optional.empty();
       progressiveBalancesMode = DEFAULT_PROGRESSIVE_BALANCES_MODE;
+      parallelHashingEnabled = DEFAULT_PARALLEL_HASHING_ENABLED;
       return this;
     }
 
@@ -301,6 +301,11 @@ public class DelegatingSpecConfig implements SpecConfig {
     return specConfig.getProgressiveBalancesMode();
   }
 
+  @Override
+  public boolean isParallelHashingEnabled() {
+    return specConfig.isParallelHashingEnabled();
+  }
+
   @Override
   public int getProposerScoreBoost() {
     return specConfig.getProposerScoreBoost();
@@ -144,6 +144,8 @@ public interface SpecConfig {
 
   ProgressiveBalancesMode getProgressiveBalancesMode();
 
+  boolean isParallelHashingEnabled();
+
   default int getMinEpochsForBlockRequests() {
     return getMinValidatorWithdrawabilityDelay() + getChurnLimitQuotient() / 2;
   }
@@ -103,6 +103,7 @@ public class SpecConfigBuilder {
   private Eth1Address depositContractAddress;
 
   private ProgressiveBalancesMode progressiveBalancesMode = ProgressiveBalancesMode.USED;
+  private boolean parallelHashingEnabled = false;
 
   private final BuilderChain<SpecConfig, SpecConfigEip4844> builderChain =
       BuilderChain.create(new AltairBuilder())
@@ -170,7 +171,8 @@ public class SpecConfigBuilder {
             depositChainId,
             depositNetworkId,
             depositContractAddress,
-            progressiveBalancesMode);
+            progressiveBalancesMode,
+            parallelHashingEnabled);
 
     return builderChain.build(config);
   }
@@ -542,6 +544,11 @@ public class SpecConfigBuilder {
     return this;
   }
 
+  public SpecConfigBuilder parallelHashingEnabled(final boolean parallelHashingEnabled) {
+    this.parallelHashingEnabled = parallelHashingEnabled;
+    return this;
+  }
+
   public SpecConfigBuilder altairBuilder(final Consumer<AltairBuilder> consumer) {
     builderChain.withBuilder(AltairBuilder.class, consumer);
     return this;
@@ -13,6 +13,7 @@
 
 package tech.pegasys.teku.spec.datastructures.forkchoice;
 
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.List;
 import java.util.Optional;
 import org.apache.tuweni.bytes.Bytes32;
@@ -27,6 +28,15 @@ public interface VoteUpdater {
 
   void putVote(UInt64 validatorIndex, VoteTracker vote);
 
+  /**
+   * Returns the indices of all validators whose vote has changed since it was last applied to fork
+   * choice, if tracked. When empty, every validator up to {@link #getHighestVotedValidatorIndex()}
+   * has to be checked for changes.
+   */
+  default Optional<IntSet> getValidatorsWithPendingVotes() {
+    return Optional.empty();
+  }
+
   Bytes32 applyForkChoiceScoreChanges(
       UInt64 currentEpoch,
       Checkpoint finalizedCheckpoint,
@@ -165,7 +165,9 @@ public enum BeaconStateFields implements SszFieldName {
             BeaconStateFields.BALANCES,
             () ->
                 SszListSchema.create(
-                    SszPrimitiveSchemas.UINT64_SCHEMA, specConfig.getValidatorRegistryLimit()));
+                    SszPrimitiveSchemas.UINT64_SCHEMA,
+                    specConfig.getValidatorRegistryLimit(),
+                    SszSchemaHints.sszPackedUInt64Node(8)));
     SszField randaoMixesField =
         new SszField(
             13,
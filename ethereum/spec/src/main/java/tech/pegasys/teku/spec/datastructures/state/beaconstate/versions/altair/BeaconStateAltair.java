@@ -23,6 +23,7 @@ import tech.pegasys.teku.infrastructure.ssz.collections.SszUInt64List;
 import tech.pegasys.teku.infrastructure.ssz.primitive.SszByte;
 import tech.pegasys.teku.infrastructure.ssz.primitive.SszBytes32;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBytes32VectorSchema;
+import tech.pegasys.teku.infrastructure.ssz.tree.MerkleProofCache;
 import tech.pegasys.teku.infrastructure.ssz.tree.MerkleUtil;
 import tech.pegasys.teku.spec.datastructures.state.SyncCommittee;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
@@ -62,16 +63,25 @@ public interface BeaconStateAltair extends BeaconState {
   }
 
   default SszBytes32Vector createCurrentSyncCommitteeProof() {
-    final List<Bytes32> currentSyncCommitteeProof =
+    return toProofVector(
         MerkleUtil.constructMerkleProof(
-            getBackingNode(),
-            getSchema()
-                .getChildGeneralizedIndex(
-                    getSchema().getFieldIndex(BeaconStateFields.CURRENT_SYNC_COMMITTEE)));
-
-    return SszBytes32VectorSchema.create(currentSyncCommitteeProof.size())
-        .createFromElements(
-            currentSyncCommitteeProof.stream().map(SszBytes32::of).collect(Collectors.toList()));
+            getBackingNode(), getCurrentSyncCommitteeGeneralizedIndex()));
+  }
+
+  default SszBytes32Vector createCurrentSyncCommitteeProof(final MerkleProofCache proofCache) {
+    return toProofVector(
+        proofCache.getProof(getBackingNode(), getCurrentSyncCommitteeGeneralizedIndex()));
+  }
+
+  private long getCurrentSyncCommitteeGeneralizedIndex() {
+    return getSchema()
+        .getChildGeneralizedIndex(
+            getSchema().getFieldIndex(BeaconStateFields.CURRENT_SYNC_COMMITTEE));
+  }
+
+  private static SszBytes32Vector toProofVector(final List<Bytes32> proof) {
+    return SszBytes32VectorSchema.create(proof.size())
+        .createFromElements(proof.stream().map(SszBytes32::of).collect(Collectors.toList()));
   }
 
   default SyncCommittee getNextSyncCommittee() {
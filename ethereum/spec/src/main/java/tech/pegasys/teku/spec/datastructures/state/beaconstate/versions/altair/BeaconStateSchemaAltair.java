@@ -20,6 +20,7 @@ import java.util.List;
 import tech.pegasys.teku.infrastructure.ssz.primitive.SszByte;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszListSchema;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszPrimitiveListSchema;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszUInt64ListSchema;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszField;
@@ -69,7 +70,8 @@ public class BeaconStateSchemaAltair
         new SszField(
             INACTIVITY_SCORES_FIELD_INDEX,
             BeaconStateFields.INACTIVITY_SCORES,
-            SszUInt64ListSchema.create(specConfig.getValidatorRegistryLimit()));
+            SszUInt64ListSchema.create(
+                specConfig.getValidatorRegistryLimit(), SszSchemaHints.sszPackedUInt64Node(8)));
     final SszField currentSyncCommitteeField =
         new SszField(
             CURRENT_SYNC_COMMITTEE_FIELD_INDEX,
@@ -85,7 +85,7 @@ public class StateTransition {
 
   private BeaconState processSlot(final SpecVersion spec, final BeaconState preState) {
     // Cache state root
-    Bytes32 previousStateRoot = preState.hashTreeRoot();
+    Bytes32 previousStateRoot = spec.miscHelpers().computeStateRoot(preState);
     return preState.updated(
         state -> {
           int index = state.getSlot().mod(spec.getSlotsPerHistoricalRoot()).intValue();
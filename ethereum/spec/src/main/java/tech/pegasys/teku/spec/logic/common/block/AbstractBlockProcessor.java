@@ -274,7 +274,7 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
   @CheckReturnValue
   private BlockValidationResult validatePostState(
       final BeaconState postState, final SignedBeaconBlock block) {
-    if (!block.getMessage().getStateRoot().equals(postState.hashTreeRoot())) {
+    if (!block.getMessage().getStateRoot().equals(miscHelpers.computeStateRoot(postState))) {
       return BlockValidationResult.failed(
           "Block state root does NOT match the calculated state root!\n"
               + "Block state root: "
@@ -29,6 +29,7 @@ import tech.pegasys.teku.infrastructure.crypto.Sha256;
 import tech.pegasys.teku.infrastructure.ssz.Merkleizable;
 import tech.pegasys.teku.infrastructure.ssz.collections.SszByteVector;
 import tech.pegasys.teku.infrastructure.ssz.primitive.SszUInt64;
+import tech.pegasys.teku.infrastructure.ssz.tree.ParallelTreeHasher;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.kzg.KZGCommitment;
 import tech.pegasys.teku.spec.config.SpecConfig;
@@ -216,6 +217,17 @@ public class MiscHelpers {
     }
   }
 
+  /**
+   * Calculates the state root, splitting the hashing of modified subtrees across threads when
+   * parallel hashing is enabled
+   */
+  public Bytes32 computeStateRoot(final BeaconState state) {
+    if (specConfig.isParallelHashingEnabled()) {
+      return ParallelTreeHasher.hashTreeRoot(state.getBackingNode());
+    }
+    return state.hashTreeRoot();
+  }
+
   public Bytes computeSigningRoot(Merkleizable object, Bytes32 domain) {
     return new SigningData(object.hashTreeRoot(), domain).hashTreeRoot();
   }
@@ -14,6 +14,7 @@
 package tech.pegasys.teku.spec.logic.common.util;
 
 import tech.pegasys.teku.infrastructure.ssz.collections.SszBytes32Vector;
+import tech.pegasys.teku.infrastructure.ssz.tree.MerkleProofCache;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.datastructures.blocks.BeaconBlockHeader;
 import tech.pegasys.teku.spec.datastructures.lightclient.LightClientBootstrap;
@@ -24,10 +25,13 @@ import tech.pegasys.teku.spec.logic.versions.altair.helpers.BeaconStateAccessors
 import tech.pegasys.teku.spec.schemas.SchemaDefinitionsAltair;
 
 public class LightClientUtil {
+  // Bootstraps are requested for a few recent checkpoint states only
+  private static final int PROOF_CACHE_SIZE = 16;
 
   private final BeaconStateAccessorsAltair beaconStateAccessors;
   private final SyncCommitteeUtil syncCommitteeUtil;
   private final SchemaDefinitionsAltair schemaDefinitionsAltair;
+  private final MerkleProofCache proofCache = new MerkleProofCache(PROOF_CACHE_SIZE);
 
   public LightClientUtil(
       final BeaconStateAccessorsAltair beaconStateAccessors,
@@ -49,7 +53,7 @@ public class LightClientUtil {
         syncCommitteeUtil.getSyncCommittee(state, currentEpoch);
 
     final SszBytes32Vector currentSyncCommitteeProof =
-        BeaconStateAltair.required(state).createCurrentSyncCommitteeProof();
+        BeaconStateAltair.required(state).createCurrentSyncCommitteeProof(proofCache);
 
     return schemaDefinitionsAltair
         .getLightClientBootstrapSchema()
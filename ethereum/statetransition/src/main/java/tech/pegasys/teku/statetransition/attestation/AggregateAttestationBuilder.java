@@ -20,7 +20,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 import tech.pegasys.teku.bls.BLS;
-import tech.pegasys.teku.infrastructure.ssz.collections.SszBitlist;
+import tech.pegasys.teku.infrastructure.ssz.collections.MutableBitlist;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.datastructures.attestation.ValidateableAttestation;
 import tech.pegasys.teku.spec.datastructures.operations.Attestation;
@@ -34,7 +34,7 @@ class AggregateAttestationBuilder {
   private final Spec spec;
   private final Set<ValidateableAttestation> includedAttestations = new HashSet<>();
   private final AttestationData attestationData;
-  private SszBitlist currentAggregateBits;
+  private MutableBitlist currentAggregateBits;
 
   AggregateAttestationBuilder(final Spec spec, final AttestationData attestationData) {
     this.spec = spec;
@@ -54,10 +54,10 @@ class AggregateAttestationBuilder {
   public void aggregate(final ValidateableAttestation attestation) {
     includedAttestations.add(attestation);
     if (currentAggregateBits == null) {
-      currentAggregateBits = attestation.getAttestation().getAggregationBits();
-    } else {
       currentAggregateBits =
-          currentAggregateBits.or(attestation.getAttestation().getAggregationBits());
+          MutableBitlist.copyOf(attestation.getAttestation().getAggregationBits());
+    } else {
+      currentAggregateBits.or(attestation.getAttestation().getAggregationBits());
     }
   }
 
@@ -69,7 +69,7 @@ class AggregateAttestationBuilder {
             .getSchemaDefinitions()
             .getAttestationSchema()
             .create(
-                currentAggregateBits,
+                currentAggregateBits.toSszBitlist(),
                 attestationData,
                 BLS.aggregate(
                     includedAttestations.stream()
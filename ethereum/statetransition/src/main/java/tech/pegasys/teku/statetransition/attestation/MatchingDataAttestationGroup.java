@@ -24,6 +24,7 @@ import java.util.TreeMap;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.ssz.collections.MutableBitlist;
 import tech.pegasys.teku.infrastructure.ssz.collections.SszBitlist;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
@@ -66,8 +67,11 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
    */
   private final NavigableMap<UInt64, SszBitlist> includedValidatorsBySlot = new TreeMap<>();
 
-  /** Precalculated combined list of included validators across all blocks. */
-  private SszBitlist includedValidators;
+  /**
+   * Precalculated combined list of included validators across all blocks. Updated in place to
+   * avoid copying the bits for every attestation included in a block.
+   */
+  private final MutableBitlist includedValidators;
 
   public MatchingDataAttestationGroup(final Spec spec, final AttestationData attestationData) {
     this.spec = spec;
@@ -75,11 +79,12 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
     this.includedValidators = createEmptyAggregationBits();
   }
 
-  private SszBitlist createEmptyAggregationBits() {
-    return spec.atSlot(attestationData.getSlot())
-        .getSchemaDefinitions()
-        .getAttestationSchema()
-        .createEmptyAggregationBits();
+  private MutableBitlist createEmptyAggregationBits() {
+    return MutableBitlist.copyOf(
+        spec.atSlot(attestationData.getSlot())
+            .getSchemaDefinitions()
+            .getAttestationSchema()
+            .createEmptyAggregationBits());
   }
 
   public AttestationData getAttestationData() {
@@ -157,7 +162,7 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
       // We've already seen and filtered out all of these bits, nothing to do
       return 0;
     }
-    includedValidators = includedValidators.or(attestation.getAggregationBits());
+    includedValidators.or(attestation.getAggregationBits());
 
     final Collection<Set<ValidateableAttestation>> attestationSets =
         attestationsByValidatorCount.values();
@@ -189,9 +194,8 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
     removedSlots.clear();
     // Recalculate totalSeenAggregationBits as validators may have been seen in multiple blocks so
     // can't do a simple remove
-    includedValidators =
-        includedValidatorsBySlot.values().stream()
-            .reduce(createEmptyAggregationBits(), SszBitlist::or);
+    includedValidators.clear();
+    includedValidatorsBySlot.values().forEach(includedValidators::or);
   }
 
   public boolean matchesCommitteeShufflingSeed(final Set<Bytes32> validSeeds) {
@@ -199,7 +203,8 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
   }
 
   private class AggregatingIterator implements Iterator<ValidateableAttestation> {
-    private SszBitlist includedValidators = MatchingDataAttestationGroup.this.includedValidators;
+    private final MutableBitlist includedValidators =
+        MatchingDataAttestationGroup.this.includedValidators.copy();
 
     @Override
     public boolean hasNext() {
@@ -217,7 +222,7 @@ class MatchingDataAttestationGroup implements Iterable<ValidateableAttestation>
                     candidate.getAttestation().getAggregationBits();
                 if (builder.canAggregate(candidate)) {
                   builder.aggregate(candidate);
-                  includedValidators = includedValidators.or(candidateAggregationBits);
+                  includedValidators.or(candidateAggregationBits);
                 }
               });
       return builder.buildAggregate();
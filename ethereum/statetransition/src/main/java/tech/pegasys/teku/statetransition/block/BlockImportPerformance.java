@@ -28,6 +28,7 @@ public class BlockImportPerformance {
   public static final String ARRIVAL_EVENT_LABEL = "arrival";
   public static final String PRESTATE_RETRIEVED_EVENT_LABEL = "pre-state_retrieved";
   public static final String PROCESSED_EVENT_LABEL = "processed";
+  public static final String SIGNATURES_VERIFIED_EVENT_LABEL = "signatures_verified";
   public static final String TRANSACTION_PREPARED_EVENT_LABEL = "transaction_prepared";
   public static final String TRANSACTION_COMMITTED_EVENT_LABEL = "transaction_committed";
   public static final String COMPLETED_EVENT_LABEL = "completed";
@@ -61,6 +62,16 @@ public class BlockImportPerformance {
     performanceTracker.addEvent(ARRIVAL_EVENT_LABEL);
   }
 
+  /**
+   * Starts tracking a block imported from a synced batch. Timings start when its import begins
+   * rather than at the start of its slot, which has usually long passed, so it is never logged as
+   * a late import.
+   */
+  public void syncArrival() {
+    timeAtSlotStartTimeStamp = performanceTracker.addEvent(ARRIVAL_EVENT_LABEL);
+    timeWarningLimitTimeStamp = UInt64.MAX_VALUE;
+  }
+
   public void preStateRetrieved() {
     performanceTracker.addEvent(PRESTATE_RETRIEVED_EVENT_LABEL);
   }
@@ -69,6 +80,10 @@ public class BlockImportPerformance {
     performanceTracker.addEvent(PROCESSED_EVENT_LABEL);
   }
 
+  public void signaturesVerified() {
+    performanceTracker.addEvent(SIGNATURES_VERIFIED_EVENT_LABEL);
+  }
+
   public void transactionReady() {
     performanceTracker.addEvent(TRANSACTION_PREPARED_EVENT_LABEL);
   }
@@ -14,39 +14,54 @@
 package tech.pegasys.teku.statetransition.block;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.annotation.CheckReturnValue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
 import tech.pegasys.teku.infrastructure.logging.EventLogger;
 import tech.pegasys.teku.infrastructure.ssz.SszList;
 import tech.pegasys.teku.infrastructure.subscribers.Subscribers;
+import tech.pegasys.teku.infrastructure.time.SystemTimeProvider;
+import tech.pegasys.teku.infrastructure.time.TimeProvider;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
 import tech.pegasys.teku.spec.datastructures.forkchoice.ReadOnlyForkChoiceStrategy;
 import tech.pegasys.teku.spec.datastructures.operations.Attestation;
 import tech.pegasys.teku.spec.datastructures.operations.AttesterSlashing;
 import tech.pegasys.teku.spec.datastructures.operations.ProposerSlashing;
 import tech.pegasys.teku.spec.datastructures.operations.SignedVoluntaryExit;
 import tech.pegasys.teku.spec.datastructures.state.CheckpointState;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
 import tech.pegasys.teku.spec.executionlayer.ExecutionLayerChannel;
 import tech.pegasys.teku.spec.logic.common.statetransition.results.BlockImportResult;
 import tech.pegasys.teku.statetransition.forkchoice.ForkChoice;
+import tech.pegasys.teku.statetransition.forkchoice.PipelinedBlockImport;
 import tech.pegasys.teku.storage.client.RecentChainData;
 import tech.pegasys.teku.weaksubjectivity.WeakSubjectivityValidator;
 
 public class BlockImporter {
   private static final Logger LOG = LogManager.getLogger();
+  // Limits how far pipelined state transitions can run ahead of the blocks being committed, which
+  // also bounds the number of blocks having their signatures verified concurrently
+  private static final int MAX_BLOCKS_IN_FLIGHT = 8;
   private final Spec spec;
   private final BlockImportNotifications blockImportNotifications;
   private final RecentChainData recentChainData;
   private final ForkChoice forkChoice;
   private final WeakSubjectivityValidator weakSubjectivityValidator;
   private final ExecutionLayerChannel executionLayer;
+  private final TimeProvider timeProvider;
+  private final Optional<BlockImportMetrics> blockImportMetrics;
 
   private final Subscribers<VerifiedBlockAttestationListener> attestationSubscribers =
       Subscribers.create(true);
@@ -67,12 +82,38 @@ public class BlockImporter {
       final ForkChoice forkChoice,
       final WeakSubjectivityValidator weakSubjectivityValidator,
       final ExecutionLayerChannel executionLayer) {
+    this(
+        spec,
+        blockImportNotifications,
+        recentChainData,
+        forkChoice,
+        weakSubjectivityValidator,
+        executionLayer,
+        new SystemTimeProvider(),
+        Optional.empty());
+  }
+
+  /**
+   * @param timeProvider used to time the blocks imported by {@link #importBlocks}
+   * @param blockImportMetrics the metrics to record the import performance of synced blocks in
+   */
+  public BlockImporter(
+      final Spec spec,
+      final BlockImportNotifications blockImportNotifications,
+      final RecentChainData recentChainData,
+      final ForkChoice forkChoice,
+      final WeakSubjectivityValidator weakSubjectivityValidator,
+      final ExecutionLayerChannel executionLayer,
+      final TimeProvider timeProvider,
+      final Optional<BlockImportMetrics> blockImportMetrics) {
     this.spec = spec;
     this.blockImportNotifications = blockImportNotifications;
     this.recentChainData = recentChainData;
     this.forkChoice = forkChoice;
     this.weakSubjectivityValidator = weakSubjectivityValidator;
     this.executionLayer = executionLayer;
+    this.timeProvider = timeProvider;
+    this.blockImportMetrics = blockImportMetrics;
   }
 
   @CheckReturnValue
@@ -85,51 +126,99 @@ public class BlockImporter {
       final SignedBeaconBlock block,
       final Optional<BlockImportPerformance> blockImportPerformance) {
 
+    final Optional<BlockImportResult> preProcessingResult = checkBeforeProcessing(block);
+    if (preProcessingResult.isPresent()) {
+      return SafeFuture.completedFuture(preProcessingResult.get());
+    }
+
+    return validateWeakSubjectivityPeriod()
+        .thenCompose(__ -> forkChoice.onBlock(block, blockImportPerformance, executionLayer))
+        .thenApply(result -> onImportCompleted(block, result))
+        .exceptionally(error -> onImportError(block, error));
+  }
+
+  @CheckReturnValue
+  public SafeFuture<List<BlockImportResult>> importBlocks(
+      final List<SignedBeaconBlock> blocks, final AsyncRunner asyncRunner) {
+    return importBlocks(blocks, asyncRunner, block -> {});
+  }
+
+  /**
+   * Import a chain of blocks where each block is the child of the one before it, as received
+   * during sync.
+   *
+   * <p>The blocks are pipelined so the state transition of each block, performed on the parent's
+   * unverified post-state, overlaps with the signature verification, execution payload validation
+   * and commit of its parent. Blocks are still committed to fork choice in order and no block is
+   * committed unless its parent was.
+   *
+   * @param blocks the blocks to import
+   * @param asyncRunner the runner to perform state transitions and signature verification on
+   * @param beforeBlockImport called with each block as the pipeline starts importing it. Not
+   *     called for blocks after the first block which failed to import.
+   * @return the result for each block up to and including the first block which failed to import
+   */
+  @CheckReturnValue
+  public SafeFuture<List<BlockImportResult>> importBlocks(
+      final List<SignedBeaconBlock> blocks,
+      final AsyncRunner asyncRunner,
+      final Consumer<SignedBeaconBlock> beforeBlockImport) {
+    if (blocks.isEmpty()) {
+      return SafeFuture.completedFuture(List.of());
+    }
+    final BlockImportPipeline pipeline =
+        new BlockImportPipeline(blocks.iterator(), asyncRunner, beforeBlockImport);
+    return validateWeakSubjectivityPeriod()
+        .thenCompose(__ -> SafeFuture.asyncDoWhile(pipeline::importNextBlock))
+        .thenCompose(__ -> pipeline.getResults())
+        .exceptionally(error -> List.of(onImportError(blocks.get(0), error)));
+  }
+
+  private Optional<BlockImportResult> checkBeforeProcessing(final SignedBeaconBlock block) {
     final Optional<Boolean> knownOptimistic = recentChainData.isBlockOptimistic(block.getRoot());
     if (knownOptimistic.isPresent()) {
       LOG.trace(
           "Importing known block {}.  Return successful result without re-processing.",
           block::toLogString);
-      return SafeFuture.completedFuture(BlockImportResult.knownBlock(block, knownOptimistic.get()));
+      return Optional.of(BlockImportResult.knownBlock(block, knownOptimistic.get()));
     }
 
     if (!weakSubjectivityValidator.isBlockValid(block, getForkChoiceStrategy())) {
       EventLogger.EVENT_LOG.weakSubjectivityFailedEvent(block.getRoot(), block.getSlot());
-      return SafeFuture.completedFuture(BlockImportResult.FAILED_WEAK_SUBJECTIVITY_CHECKS);
+      return Optional.of(BlockImportResult.FAILED_WEAK_SUBJECTIVITY_CHECKS);
     }
+    return Optional.empty();
+  }
 
-    return validateWeakSubjectivityPeriod()
-        .thenCompose(__ -> forkChoice.onBlock(block, blockImportPerformance, executionLayer))
-        .thenApply(
-            result -> {
-              if (!result.isSuccessful()) {
-                LOG.trace(
-                    "Failed to import block for reason {}: {}",
-                    result::getFailureReason,
-                    block::toLogString);
-                return result;
-              }
-              LOG.trace("Successfully imported block {}", block::toLogString);
+  private BlockImportResult onImportCompleted(
+      final SignedBeaconBlock block, final BlockImportResult result) {
+    if (!result.isSuccessful()) {
+      LOG.trace(
+          "Failed to import block for reason {}: {}",
+          result::getFailureReason,
+          block::toLogString);
+      return result;
+    }
+    LOG.trace("Successfully imported block {}", block::toLogString);
 
-              blockImportNotifications.onBlockImported(block);
+    blockImportNotifications.onBlockImported(block);
 
-              // Notify operation pools to remove operations only
-              // if the block is on our canonical chain
-              if (result.isBlockOnCanonicalChain()) {
-                notifyBlockOperationSubscribers(block);
-              }
+    // Notify operation pools to remove operations only
+    // if the block is on our canonical chain
+    if (result.isBlockOnCanonicalChain()) {
+      notifyBlockOperationSubscribers(block);
+    }
 
-              return result;
-            })
-        .exceptionally(
-            (e) -> {
-              final String internalErrorMessage =
-                  String.format(
-                      "Internal error while importing block: %s. Block content: %s",
-                      block.toLogString(), getBlockContent(block));
-              LOG.error(internalErrorMessage, e);
-              return BlockImportResult.internalError(e);
-            });
+    return result;
+  }
+
+  private BlockImportResult onImportError(final SignedBeaconBlock block, final Throwable error) {
+    final String internalErrorMessage =
+        String.format(
+            "Internal error while importing block: %s. Block content: %s",
+            block.toLogString(), getBlockContent(block));
+    LOG.error(internalErrorMessage, error);
+    return BlockImportResult.internalError(error);
   }
 
   private SafeFuture<?> validateWeakSubjectivityPeriod() {
@@ -226,6 +315,150 @@ public class BlockImporter {
                     "Attempting to perform fork choice operations before store has been initialized"));
   }
 
+  private class BlockImportPipeline {
+    private final Iterator<SignedBeaconBlock> blocks;
+    private final AsyncRunner asyncRunner;
+    private final Consumer<SignedBeaconBlock> beforeBlockImport;
+    private final List<SafeFuture<BlockImportResult>> results = new ArrayList<>();
+    private Optional<PipelinedBlockImport> previousBlockImport = Optional.empty();
+    private boolean failed = false;
+
+    private BlockImportPipeline(
+        final Iterator<SignedBeaconBlock> blocks,
+        final AsyncRunner asyncRunner,
+        final Consumer<SignedBeaconBlock> beforeBlockImport) {
+      this.blocks = blocks;
+      this.asyncRunner = asyncRunner;
+      this.beforeBlockImport = beforeBlockImport;
+    }
+
+    /** Starts importing the next block, returning true if there may be more blocks to start. */
+    private SafeFuture<Boolean> importNextBlock() {
+      if (failed || !blocks.hasNext() || hasPreviousImportFailed()) {
+        return SafeFuture.completedFuture(false);
+      }
+      final SignedBeaconBlock block = blocks.next();
+      beforeBlockImport.accept(block);
+      final SafeFuture<?> parentImported = getPreviousResult();
+
+      final Optional<BlockImportResult> preProcessingResult = checkBeforeProcessing(block);
+      if (preProcessingResult.isPresent()) {
+        final BlockImportResult result = preProcessingResult.get();
+        results.add(parentImported.handle((__, error) -> result));
+        previousBlockImport = Optional.empty();
+        failed = !result.isSuccessful();
+        return SafeFuture.completedFuture(!failed);
+      }
+
+      final Optional<BlockImportPerformance> blockImportPerformance =
+          createBlockImportPerformance();
+      return waitForCapacity()
+          .thenCompose(
+              __ ->
+                  asyncRunner.runAsync(
+                      () ->
+                          retrieveBlockSlotState(block, parentImported)
+                              .thenApply(
+                                  blockSlotState -> {
+                                    blockImportPerformance.ifPresent(
+                                        BlockImportPerformance::preStateRetrieved);
+                                    return forkChoice.onPipelinedBlock(
+                                        block,
+                                        blockSlotState,
+                                        parentImported,
+                                        asyncRunner,
+                                        blockImportPerformance,
+                                        executionLayer);
+                                  })))
+          .handle(
+              (blockImport, error) -> {
+                if (error != null) {
+                  results.add(
+                      parentImported.handle((__, parentError) -> onImportError(block, error)));
+                  failed = true;
+                  return false;
+                }
+                results.add(
+                    blockImport
+                        .getImportResult()
+                        .thenApply(result -> onImportCompleted(block, result))
+                        .exceptionally(importError -> onImportError(block, importError))
+                        .thenPeek(
+                            result ->
+                                blockImportPerformance.ifPresent(
+                                    performance ->
+                                        performance.processingComplete(
+                                            EventLogger.EVENT_LOG, block, result))));
+                previousBlockImport = Optional.of(blockImport);
+                failed = blockImport.getPostState().isEmpty();
+                return !failed;
+              });
+    }
+
+    private Optional<BlockImportPerformance> createBlockImportPerformance() {
+      return blockImportMetrics.map(
+          metrics -> {
+            final BlockImportPerformance performance =
+                new BlockImportPerformance(timeProvider, metrics);
+            performance.syncArrival();
+            return performance;
+          });
+    }
+
+    private SafeFuture<Optional<BeaconState>> retrieveBlockSlotState(
+        final SignedBeaconBlock block, final SafeFuture<?> parentImported) {
+      final Optional<BeaconState> parentPostState =
+          previousBlockImport
+              .filter(previous -> previous.getBlock().getRoot().equals(block.getParentRoot()))
+              .flatMap(PipelinedBlockImport::getPostState);
+      if (parentPostState.isPresent()) {
+        return SafeFuture.of(
+            () -> Optional.of(spec.processSlots(parentPostState.get(), block.getSlot())));
+      }
+      // Not building on the block we just processed so the parent state has to come from the store
+      return parentImported
+          .handle((__, error) -> null)
+          .thenCompose(
+              __ ->
+                  recentChainData.retrieveStateAtSlot(
+                      new SlotAndBlockRoot(block.getSlot(), block.getParentRoot())));
+    }
+
+    private SafeFuture<Void> waitForCapacity() {
+      if (results.size() < MAX_BLOCKS_IN_FLIGHT) {
+        return SafeFuture.COMPLETE;
+      }
+      return results.get(results.size() - MAX_BLOCKS_IN_FLIGHT).toVoid();
+    }
+
+    private boolean hasPreviousImportFailed() {
+      if (results.isEmpty()) {
+        return false;
+      }
+      final SafeFuture<BlockImportResult> previousResult = results.get(results.size() - 1);
+      return previousResult.isDone() && !previousResult.join().isSuccessful();
+    }
+
+    private SafeFuture<?> getPreviousResult() {
+      return results.isEmpty() ? SafeFuture.COMPLETE : results.get(results.size() - 1);
+    }
+
+    private SafeFuture<List<BlockImportResult>> getResults() {
+      return SafeFuture.collectAll(results.stream())
+          .thenApply(
+              allResults -> {
+                final List<BlockImportResult> resultsUntilFailure = new ArrayList<>();
+                for (BlockImportResult result : allResults) {
+                  resultsUntilFailure.add(result);
+                  if (!result.isSuccessful()) {
+                    break;
+                  }
+                }
+                return resultsUntilFailure;
+              });
+    }
+  }
+
   public interface VerifiedBlockAttestationListener {
     void onOperationsFromBlock(UInt64 slot, SszList<Attestation> attestations);
   }
@@ -26,6 +26,7 @@ import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
 import tech.pegasys.teku.infrastructure.async.ExceptionThrowingRunnable;
 import tech.pegasys.teku.infrastructure.async.ExceptionThrowingSupplier;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
@@ -54,6 +55,7 @@ import tech.pegasys.teku.spec.datastructures.util.AttestationProcessingResult.St
 import tech.pegasys.teku.spec.executionlayer.ExecutionLayerChannel;
 import tech.pegasys.teku.spec.executionlayer.ForkChoiceState;
 import tech.pegasys.teku.spec.executionlayer.PayloadStatus;
+import tech.pegasys.teku.spec.logic.common.statetransition.blockvalidator.BatchSignatureVerifier;
 import tech.pegasys.teku.spec.logic.common.statetransition.exceptions.StateTransitionException;
 import tech.pegasys.teku.spec.logic.common.statetransition.results.BlockImportResult;
 import tech.pegasys.teku.spec.logic.common.statetransition.results.BlockImportResult.FailureReason;
@@ -289,23 +291,20 @@ public class ForkChoice implements ForkChoiceUpdatedResultSubscriber {
     final CapturingIndexedAttestationCache indexedAttestationCache =
         IndexedAttestationCache.capturing();
 
-    final KzgCommitmentsProcessor kzgCommitmentsProcessor =
-        KzgCommitmentsProcessor.create(specVersion.miscHelpers());
-
     final BlobsSidecarAvailabilityChecker blobsSidecarAvailabilityChecker =
         blobsSidecarManager.createAvailabilityChecker(block);
 
+    final BatchSignatureVerifier signatureVerifier = new BatchSignatureVerifier();
     final BeaconState postState;
     try {
       postState =
-          spec.getBlockProcessor(block.getSlot())
-              .processAndValidateBlock(
-                  block,
-                  blockSlotState.get(),
-                  indexedAttestationCache,
-                  Optional.of(payloadExecutor),
-                  kzgCommitmentsProcessor,
-                  blobsSidecarAvailabilityChecker);
+          processBlock(
+              block,
+              blockSlotState.get(),
+              indexedAttestationCache,
+              signatureVerifier,
+              payloadExecutor,
+              blobsSidecarAvailabilityChecker);
     } catch (final StateTransitionException e) {
       final BlockImportResult result = BlockImportResult.failedStateTransition(e);
       reportInvalidBlock(block, result);
@@ -313,6 +312,13 @@ public class ForkChoice implements ForkChoiceUpdatedResultSubscriber {
     }
     blockImportPerformance.ifPresent(BlockImportPerformance::postStateCreated);
 
+    if (!signatureVerifier.batchVerify()) {
+      final BlockImportResult result = signatureVerificationFailed(block);
+      reportInvalidBlock(block, result);
+      return SafeFuture.completedFuture(result);
+    }
+    blockImportPerformance.ifPresent(BlockImportPerformance::signaturesVerified);
+
     return payloadExecutor
         .getExecutionResult()
         .thenPeek(
@@ -332,6 +338,166 @@ public class ForkChoice implements ForkChoiceUpdatedResultSubscriber {
             forkChoiceExecutor);
   }
 
+  /**
+   * Import a block whose parent may still be being imported, typically because it is the previous
+   * block in a batch being synced. The supplied blockSlotState must already have empty slots
+   * processed to the same slot as the block.
+   *
+   * <p>Only the state transition is performed on the calling thread. Signatures are verified on
+   * the supplied runner and the execution payload is validated by the execution layer while the
+   * caller moves on to the state transition of the next block. The block is committed to fork
+   * choice on the fork choice thread once {@code parentImported} has completed, so blocks are
+   * always committed in order.
+   */
+  public PipelinedBlockImport onPipelinedBlock(
+      final SignedBeaconBlock block,
+      final Optional<BeaconState> blockSlotState,
+      final SafeFuture<?> parentImported,
+      final AsyncRunner signatureVerificationRunner,
+      final Optional<BlockImportPerformance> blockImportPerformance,
+      final ExecutionLayerChannel executionLayer) {
+    final SafeFuture<Void> parentCompleted = parentImported.handle((__, error) -> null);
+    if (blockSlotState.isEmpty()) {
+      return PipelinedBlockImport.failed(
+          block, parentCompleted.thenApply(__ -> BlockImportResult.FAILED_UNKNOWN_PARENT));
+    }
+    checkArgument(
+        block.getSlot().equals(blockSlotState.get().getSlot()),
+        "State must have processed slots up to the block slot. Block slot %s, state slot %s",
+        block.getSlot(),
+        blockSlotState.get().getSlot());
+
+    final ForkChoiceUtil forkChoiceUtil = spec.atSlot(block.getSlot()).getForkChoiceUtil();
+    final ForkChoicePayloadExecutor payloadExecutor =
+        ForkChoicePayloadExecutor.createPipelined(
+            spec, recentChainData, block, executionLayer, parentCompleted);
+    final CapturingIndexedAttestationCache indexedAttestationCache =
+        IndexedAttestationCache.capturing();
+    final BlobsSidecarAvailabilityChecker blobsSidecarAvailabilityChecker =
+        blobsSidecarManager.createAvailabilityChecker(block);
+
+    final BatchSignatureVerifier signatureVerifier = new BatchSignatureVerifier();
+    final BeaconState postState;
+    try {
+      postState =
+          processBlock(
+              block,
+              blockSlotState.get(),
+              indexedAttestationCache,
+              signatureVerifier,
+              payloadExecutor,
+              blobsSidecarAvailabilityChecker);
+    } catch (final StateTransitionException e) {
+      final BlockImportResult result = BlockImportResult.failedStateTransition(e);
+      reportInvalidBlock(block, result);
+      return PipelinedBlockImport.failed(block, parentCompleted.thenApply(__ -> result));
+    }
+    blockImportPerformance.ifPresent(BlockImportPerformance::postStateCreated);
+
+    final SafeFuture<Boolean> signaturesValid =
+        signatureVerificationRunner
+            .runAsync(signatureVerifier::batchVerify)
+            .thenPeek(
+                valid -> {
+                  if (valid) {
+                    blockImportPerformance.ifPresent(BlockImportPerformance::signaturesVerified);
+                  }
+                });
+    final SafeFuture<PayloadValidationResult> payloadResult =
+        payloadExecutor
+            .getExecutionResult()
+            .thenPeek(
+                __ ->
+                    blockImportPerformance.ifPresent(
+                        BlockImportPerformance::executionResultReceived));
+    final SafeFuture<BlobsSidecarAndValidationResult> blobsSidecarResult =
+        blobsSidecarAvailabilityChecker.getAvailabilityCheckResult();
+
+    final SafeFuture<BlockImportResult> importResult =
+        SafeFuture.allOf(parentCompleted, signaturesValid, payloadResult, blobsSidecarResult)
+            .thenApplyAsync(
+                __ ->
+                    importPipelinedBlockAndState(
+                        block,
+                        blockSlotState.get(),
+                        blockImportPerformance,
+                        forkChoiceUtil,
+                        indexedAttestationCache,
+                        postState,
+                        signaturesValid.join(),
+                        payloadResult.join(),
+                        blobsSidecarResult.join()),
+                forkChoiceExecutor);
+    return new PipelinedBlockImport(block, Optional.of(postState), importResult);
+  }
+
+  private BeaconState processBlock(
+      final SignedBeaconBlock block,
+      final BeaconState blockSlotState,
+      final IndexedAttestationCache indexedAttestationCache,
+      final BatchSignatureVerifier signatureVerifier,
+      final ForkChoicePayloadExecutor payloadExecutor,
+      final BlobsSidecarAvailabilityChecker blobsSidecarAvailabilityChecker)
+      throws StateTransitionException {
+    final KzgCommitmentsProcessor kzgCommitmentsProcessor =
+        KzgCommitmentsProcessor.create(spec.atSlot(block.getSlot()).miscHelpers());
+    return spec.getBlockProcessor(block.getSlot())
+        .processAndValidateBlock(
+            block,
+            blockSlotState,
+            indexedAttestationCache,
+            signatureVerifier,
+            Optional.of(payloadExecutor),
+            kzgCommitmentsProcessor,
+            blobsSidecarAvailabilityChecker);
+  }
+
+  private BlockImportResult importPipelinedBlockAndState(
+      final SignedBeaconBlock block,
+      final BeaconState blockSlotState,
+      final Optional<BlockImportPerformance> blockImportPerformance,
+      final ForkChoiceUtil forkChoiceUtil,
+      final CapturingIndexedAttestationCache indexedAttestationCache,
+      final BeaconState postState,
+      final boolean signaturesValid,
+      final PayloadValidationResult payloadValidationResult,
+      final BlobsSidecarAndValidationResult blobsSidecarAndValidationResult) {
+    if (!recentChainData.containsBlock(block.getParentRoot())) {
+      // The parent failed to import so there's nothing to attach this block to
+      return BlockImportResult.FAILED_UNKNOWN_PARENT;
+    }
+
+    // These checks need the parent to be in fork choice, so couldn't be done before processing
+    final BlockImportResult preconditionCheckResult =
+        forkChoiceUtil.checkOnBlockConditions(block, blockSlotState, recentChainData.getStore());
+    if (!preconditionCheckResult.isSuccessful()) {
+      reportInvalidBlock(block, preconditionCheckResult);
+      return preconditionCheckResult;
+    }
+
+    if (!signaturesValid) {
+      final BlockImportResult result = signatureVerificationFailed(block);
+      reportInvalidBlock(block, result);
+      return result;
+    }
+
+    return importBlockAndState(
+        block,
+        blockSlotState,
+        blockImportPerformance,
+        forkChoiceUtil,
+        indexedAttestationCache,
+        postState,
+        payloadValidationResult,
+        blobsSidecarAndValidationResult);
+  }
+
+  private BlockImportResult signatureVerificationFailed(final SignedBeaconBlock block) {
+    return BlockImportResult.failedStateTransition(
+        new StateTransitionException(
+            "Batch signature verification failed for block " + block.toLogString()));
+  }
+
   private BlockImportResult importBlockAndState(
       final SignedBeaconBlock block,
       final BeaconState blockSlotState,
@@ -32,15 +32,25 @@ class ForkChoicePayloadExecutor implements OptimisticExecutionPayloadExecutor {
   private final ExecutionLayerChannel executionLayer;
   private final SignedBeaconBlock block;
   private final MergeTransitionBlockValidator transitionBlockValidator;
+  private final SafeFuture<?> parentImported;
   private Optional<SafeFuture<PayloadValidationResult>> result = Optional.empty();
 
   ForkChoicePayloadExecutor(
       final SignedBeaconBlock block,
       final ExecutionLayerChannel executionLayer,
       final MergeTransitionBlockValidator transitionBlockValidator) {
+    this(block, executionLayer, transitionBlockValidator, SafeFuture.COMPLETE);
+  }
+
+  ForkChoicePayloadExecutor(
+      final SignedBeaconBlock block,
+      final ExecutionLayerChannel executionLayer,
+      final MergeTransitionBlockValidator transitionBlockValidator,
+      final SafeFuture<?> parentImported) {
     this.block = block;
     this.transitionBlockValidator = transitionBlockValidator;
     this.executionLayer = executionLayer;
+    this.parentImported = parentImported;
   }
 
   public static ForkChoicePayloadExecutor create(
@@ -54,6 +64,24 @@ class ForkChoicePayloadExecutor implements OptimisticExecutionPayloadExecutor {
         new MergeTransitionBlockValidator(spec, recentChainData, executionLayer));
   }
 
+  /**
+   * Creates an executor for a block whose parent may not have been imported yet. The payload is
+   * still sent to the execution layer immediately but verifying the transition block, which looks
+   * up the parent in fork choice, waits until {@code parentImported} completes.
+   */
+  public static ForkChoicePayloadExecutor createPipelined(
+      final Spec spec,
+      final RecentChainData recentChainData,
+      final SignedBeaconBlock block,
+      final ExecutionLayerChannel executionLayer,
+      final SafeFuture<?> parentImported) {
+    return new ForkChoicePayloadExecutor(
+        block,
+        executionLayer,
+        new MergeTransitionBlockValidator(spec, recentChainData, executionLayer),
+        parentImported);
+  }
+
   public SafeFuture<PayloadValidationResult> getExecutionResult() {
     return result.orElse(
         SafeFuture.completedFuture(new PayloadValidationResult(PayloadStatus.VALID)));
@@ -77,8 +105,10 @@ class ForkChoicePayloadExecutor implements OptimisticExecutionPayloadExecutor {
                 .thenCompose(
                     result -> {
                       if (result.hasValidStatus()) {
-                        return transitionBlockValidator.verifyTransitionBlock(
-                            latestExecutionPayloadHeader, block);
+                        return parentImported.thenCompose(
+                            __ ->
+                                transitionBlockValidator.verifyTransitionBlock(
+                                    latestExecutionPayloadHeader, block));
                       } else {
                         return SafeFuture.completedFuture(new PayloadValidationResult(result));
                       }
@@ -0,0 +1,66 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.statetransition.forkchoice;
+
+import java.util.Optional;
+import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.logic.common.statetransition.results.BlockImportResult;
+
+/**
+ * A block which has completed its state transition but may still be waiting for its signatures,
+ * execution payload and parent to be verified before it is committed to fork choice.
+ *
+ * <p>The post-state is available as soon as the state transition completes so the next block can
+ * begin processing while this one is still being verified.
+ */
+public class PipelinedBlockImport {
+  private final SignedBeaconBlock block;
+  private final Optional<BeaconState> postState;
+  private final SafeFuture<BlockImportResult> importResult;
+
+  PipelinedBlockImport(
+      final SignedBeaconBlock block,
+      final Optional<BeaconState> postState,
+      final SafeFuture<BlockImportResult> importResult) {
+    this.block = block;
+    this.postState = postState;
+    this.importResult = importResult;
+  }
+
+  static PipelinedBlockImport failed(
+      final SignedBeaconBlock block, final SafeFuture<BlockImportResult> importResult) {
+    return new PipelinedBlockImport(block, Optional.empty(), importResult);
+  }
+
+  public SignedBeaconBlock getBlock() {
+    return block;
+  }
+
+  /**
+   * Returns the unverified post-state of the block, or empty if the state transition failed.
+   *
+   * <p>Blocks built on this state must not be committed until {@link #getImportResult()} has
+   * completed successfully.
+   */
+  public Optional<BeaconState> getPostState() {
+    return postState;
+  }
+
+  /** Completes when the block has been committed to fork choice or has failed to import. */
+  public SafeFuture<BlockImportResult> getImportResult() {
+    return importResult;
+  }
+}
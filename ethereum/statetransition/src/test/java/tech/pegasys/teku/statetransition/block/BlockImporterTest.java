@@ -16,12 +16,15 @@ package tech.pegasys.teku.statetransition.block;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static tech.pegasys.teku.infrastructure.async.SafeFutureAssert.safeJoin;
+import static tech.pegasys.teku.infrastructure.async.SyncAsyncRunner.SYNC_RUNNER;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,6 +39,7 @@ import tech.pegasys.teku.bls.BLSKeyPair;
 import tech.pegasys.teku.bls.BLSTestUtil;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
 import tech.pegasys.teku.infrastructure.async.eventthread.InlineEventThread;
+import tech.pegasys.teku.infrastructure.time.StubTimeProvider;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -637,6 +641,100 @@ public class BlockImporterTest {
     assertThat(result.join().getRoot()).isEqualTo(newFinalizedBlock.getRoot());
   }
 
+  @Test
+  public void importBlocks_success() throws Exception {
+    final List<SignedBeaconBlock> blocks = createOtherChainBlocks(3);
+    localChain.setSlot(UInt64.valueOf(3));
+
+    final List<BlockImportResult> results = blockImporter.importBlocks(blocks, SYNC_RUNNER).get();
+
+    assertThat(results).hasSize(3);
+    results.forEach(this::assertSuccessfulResult);
+    blocks.forEach(block -> assertThat(recentChainData.containsBlock(block.getRoot())).isTrue());
+  }
+
+  @Test
+  public void importBlocks_shouldStopAtFirstInvalidStateTransition() throws Exception {
+    final List<SignedBeaconBlock> blocks = new ArrayList<>(createOtherChainBlocks(3));
+    final SignedBeaconBlock block2 = blocks.get(1);
+    blocks.set(
+        1,
+        SignedBeaconBlock.create(
+            spec, block2.getMessage().withStateRoot(Bytes32.ZERO), block2.getSignature()));
+    localChain.setSlot(UInt64.valueOf(3));
+    final List<SignedBeaconBlock> startedBlocks = new ArrayList<>();
+
+    final List<BlockImportResult> results =
+        blockImporter.importBlocks(blocks, SYNC_RUNNER, startedBlocks::add).get();
+
+    assertThat(results).hasSize(2);
+    assertSuccessfulResult(results.get(0));
+    assertImportFailed(results.get(1), FailureReason.FAILED_STATE_TRANSITION);
+    assertThat(recentChainData.containsBlock(blocks.get(2).getRoot())).isFalse();
+    // Blocks after the failure are never started
+    assertThat(startedBlocks).containsExactly(blocks.get(0), blocks.get(1));
+  }
+
+  @Test
+  public void importBlocks_shouldNotImportChildrenOfBlockWithInvalidSignature() throws Exception {
+    final List<SignedBeaconBlock> blocks = new ArrayList<>(createOtherChainBlocks(3));
+    blocks.set(
+        1,
+        SignedBeaconBlock.create(
+            spec, blocks.get(1).getMessage(), BLSTestUtil.randomSignature(1)));
+    localChain.setSlot(UInt64.valueOf(3));
+
+    final List<BlockImportResult> results = blockImporter.importBlocks(blocks, SYNC_RUNNER).get();
+
+    assertThat(results).hasSize(2);
+    assertSuccessfulResult(results.get(0));
+    assertImportFailed(results.get(1), FailureReason.FAILED_STATE_TRANSITION);
+    assertThat(results.get(1).getFailureCause().orElseThrow()).hasMessageContaining("signature");
+    assertThat(recentChainData.containsBlock(blocks.get(1).getRoot())).isFalse();
+    assertThat(recentChainData.containsBlock(blocks.get(2).getRoot())).isFalse();
+  }
+
+  @Test
+  public void importBlocks_shouldRecordImportPerformanceOfEachBlock() throws Exception {
+    final BlockImportMetrics blockImportMetrics = mock(BlockImportMetrics.class);
+    final BlockImporter blockImporter =
+        new BlockImporter(
+            spec,
+            blockImportNotifications,
+            recentChainData,
+            forkChoice,
+            weakSubjectivityValidator,
+            ExecutionLayerChannel.NOOP,
+            StubTimeProvider.withTimeInSeconds(0),
+            Optional.of(blockImportMetrics));
+    final List<SignedBeaconBlock> blocks = createOtherChainBlocks(3);
+    localChain.setSlot(UInt64.valueOf(3));
+
+    final List<BlockImportResult> results = blockImporter.importBlocks(blocks, SYNC_RUNNER).get();
+
+    results.forEach(this::assertSuccessfulResult);
+    for (String event :
+        List.of(
+            BlockImportPerformance.ARRIVAL_EVENT_LABEL,
+            BlockImportPerformance.PRESTATE_RETRIEVED_EVENT_LABEL,
+            BlockImportPerformance.PROCESSED_EVENT_LABEL,
+            BlockImportPerformance.SIGNATURES_VERIFIED_EVENT_LABEL,
+            BlockImportPerformance.TRANSACTION_COMMITTED_EVENT_LABEL,
+            BlockImportPerformance.COMPLETED_EVENT_LABEL)) {
+      verify(blockImportMetrics, times(3))
+          .recordValue(
+              any(), eq(event), eq(BlockImportPerformance.SUCCESS_RESULT_METRIC_LABEL_VALUE));
+    }
+  }
+
+  private List<SignedBeaconBlock> createOtherChainBlocks(final int count) throws Exception {
+    final List<SignedBeaconBlock> blocks = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      blocks.add(otherChain.createAndImportBlockAtSlot(UInt64.valueOf(i)));
+    }
+    return blocks;
+  }
+
   private void assertImportFailed(
       final BlockImportResult result, final BlockImportResult.FailureReason expectedReason) {
     assertThat(result.isSuccessful()).isFalse();
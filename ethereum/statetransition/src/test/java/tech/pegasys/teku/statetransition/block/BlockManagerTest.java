@@ -33,6 +33,7 @@ import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.COM
 import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.EXECUTION_PAYLOAD_RESULT_RECEIVED_LABEL;
 import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.PRESTATE_RETRIEVED_EVENT_LABEL;
 import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.PROCESSED_EVENT_LABEL;
+import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.SIGNATURES_VERIFIED_EVENT_LABEL;
 import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.TRANSACTION_COMMITTED_EVENT_LABEL;
 import static tech.pegasys.teku.statetransition.block.BlockImportPerformance.TRANSACTION_PREPARED_EVENT_LABEL;
 
@@ -608,6 +609,8 @@ public class BlockManagerTest {
                 + " +3000ms, "
                 + PROCESSED_EVENT_LABEL
                 + " +0ms, "
+                + SIGNATURES_VERIFIED_EVENT_LABEL
+                + " +0ms, "
                 + EXECUTION_PAYLOAD_RESULT_RECEIVED_LABEL
                 + " +0ms, "
                 + BEGIN_IMPORTING_LABEL
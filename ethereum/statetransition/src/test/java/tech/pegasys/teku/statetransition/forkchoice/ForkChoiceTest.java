@@ -26,6 +26,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static tech.pegasys.teku.infrastructure.async.SyncAsyncRunner.SYNC_RUNNER;
 import static tech.pegasys.teku.infrastructure.unsigned.UInt64.ONE;
 import static tech.pegasys.teku.infrastructure.unsigned.UInt64.ZERO;
 import static tech.pegasys.teku.networks.Eth2NetworkConfiguration.DEFAULT_FORK_CHOICE_UPDATE_HEAD_ON_BLOCK_IMPORT_ENABLED;
@@ -236,6 +237,45 @@ class ForkChoiceTest {
     assertThat(recentChainData.getHeadSlot()).isEqualTo(blockAndState.getSlot());
   }
 
+  @Test
+  void onPipelinedBlock_shouldNotCommitBlockUntilParentImportCompletes() throws Exception {
+    final SignedBlockAndState block1 = chainBuilder.generateBlockAtSlot(ONE);
+    final SignedBlockAndState block2 = chainBuilder.generateBlockAtSlot(2);
+    storageSystem.chainUpdater().advanceCurrentSlotToAtLeast(block2.getSlot());
+    final SafeFuture<Void> genesisImported = new SafeFuture<>();
+
+    final PipelinedBlockImport import1 =
+        forkChoice.onPipelinedBlock(
+            block1.getBlock(),
+            Optional.of(spec.processSlots(genesis.getState(), block1.getSlot())),
+            genesisImported,
+            SYNC_RUNNER,
+            Optional.empty(),
+            executionLayer);
+    assertThat(import1.getPostState()).isPresent();
+
+    // The child can be processed on the unverified post-state of its parent
+    final PipelinedBlockImport import2 =
+        forkChoice.onPipelinedBlock(
+            block2.getBlock(),
+            Optional.of(spec.processSlots(import1.getPostState().get(), block2.getSlot())),
+            import1.getImportResult(),
+            SYNC_RUNNER,
+            Optional.empty(),
+            executionLayer);
+    assertThat(import2.getPostState()).isPresent();
+    assertThat(import1.getImportResult()).isNotDone();
+    assertThat(import2.getImportResult()).isNotDone();
+    assertThat(recentChainData.containsBlock(block1.getRoot())).isFalse();
+
+    genesisImported.complete(null);
+
+    assertBlockImportedSuccessfully(import1.getImportResult(), false);
+    assertBlockImportedSuccessfully(import2.getImportResult(), false);
+    assertThat(recentChainData.getHeadBlock().map(MinimalBeaconBlockSummary::getRoot))
+        .contains(block2.getRoot());
+  }
+
   @Test
   void onBlock_shouldNotTriggerReorgWhenSelectingChildOfChainHeadWhenForkChoiceSlotHasAdvanced() {
     // Advance the current head
@@ -0,0 +1,85 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Approximate count of how often keys have been seen recently, used to decide whether a new entry
+ * is worth admitting to a cache in place of an existing one.
+ *
+ * <p>A count-min sketch with four rows of saturating 4 bit counters, stored one per byte for
+ * simplicity. Once the number of increments reaches ten times the width, every counter is halved
+ * so that the counts favour recent history.
+ */
+class FrequencySketch {
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0xb2a9c81d, 0x5c1e7f3b, 0x8f4a6d21};
+
+  private final byte[][] counters;
+  private final int mask;
+  private final int sampleSize;
+  private int additions = 0;
+
+  FrequencySketch(final int width) {
+    checkArgument(width > 0 && Integer.bitCount(width) == 1, "Width must be a power of two");
+    this.counters = new byte[ROWS][width];
+    this.mask = width - 1;
+    this.sampleSize = width * 10;
+  }
+
+  int frequency(final Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      frequency = Math.min(frequency, counters[row][index(hash, row)]);
+    }
+    return frequency;
+  }
+
+  void increment(final Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      final int index = index(hash, row);
+      if (counters[row][index] < MAX_COUNT) {
+        counters[row][index]++;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (byte[] row : counters) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = (byte) (row[i] >>> 1);
+      }
+    }
+    additions /= 2;
+  }
+
+  private int index(final int hash, final int row) {
+    final int rowHash = (hash ^ SEEDS[row]) * 0x9E3779B1;
+    return (rowHash ^ (rowHash >>> 16)) & mask;
+  }
+
+  private static int spread(final int hash) {
+    final int mixed = hash * 0x85EBCA6B;
+    return mixed ^ (mixed >>> 15);
+  }
+}
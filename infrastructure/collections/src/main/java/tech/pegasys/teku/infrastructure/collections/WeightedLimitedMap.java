@@ -0,0 +1,366 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.collections;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A map which limits the total estimated weight, typically memory in bytes, of its values rather
+ * than the number of entries. The returned map is safe for all forms of concurrent access, with
+ * iteration working on a snapshot.
+ *
+ * <p>Eviction follows W-TinyLFU. New entries are held in a small LRU window. Entries leaving the
+ * window are only admitted to the main space, which is a segmented LRU, if they have been used
+ * more often than the entries they would replace according to a {@link FrequencySketch}. This
+ * protects frequently used entries from being flushed out by a burst of entries used only once.
+ *
+ * <p>Weights are calculated when an entry is added, outside the lock, and are not updated later.
+ */
+public class WeightedLimitedMap<K, V> extends AbstractMap<K, V> {
+  // Larger than a typical W-TinyLFU window as the store caches are recency biased
+  static final int WINDOW_PERCENT = 20;
+  static final int PROTECTED_PERCENT = 80;
+  private static final int SKETCH_WIDTH = 1024;
+
+  private final long maxWeight;
+  private final long maxWindowWeight;
+  private final long maxProtectedWeight;
+  private final ToLongBiFunction<K, V> weigher;
+  private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+
+  private final Map<K, Node<K, V>> data = new HashMap<>();
+  private final AccessOrder<K, V> window = new AccessOrder<>();
+  private final AccessOrder<K, V> probation = new AccessOrder<>();
+  private final AccessOrder<K, V> protectedSpace = new AccessOrder<>();
+
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  private WeightedLimitedMap(final long maxWeight, final ToLongBiFunction<K, V> weigher) {
+    this.maxWeight = maxWeight;
+    this.maxWindowWeight = maxWeight * WINDOW_PERCENT / 100;
+    this.maxProtectedWeight = (maxWeight - maxWindowWeight) * PROTECTED_PERCENT / 100;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Creates a weight limited map.
+   *
+   * @param maxWeight The maximum total weight of the values to keep in the map.
+   * @param weigher Calculates the weight of an entry, called without holding the map's lock.
+   * @param <K> The key type of the map.
+   * @param <V> The value type of the map.
+   * @return A map that will evict elements when the max weight is exceeded.
+   */
+  public static <K, V> WeightedLimitedMap<K, V> create(
+      final long maxWeight, final ToLongBiFunction<K, V> weigher) {
+    checkArgument(maxWeight > 0, "Max weight must be positive");
+    return new WeightedLimitedMap<>(maxWeight, weigher);
+  }
+
+  @Override
+  public synchronized V get(final Object key) {
+    sketch.increment(key);
+    final Node<K, V> node = data.get(key);
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    onAccess(node);
+    return node.value;
+  }
+
+  /** Returns the value for the key without counting as a use of the entry. */
+  public synchronized V peek(final K key) {
+    final Node<K, V> node = data.get(key);
+    return node == null ? null : node.value;
+  }
+
+  @Override
+  public synchronized boolean containsKey(final Object key) {
+    return data.containsKey(key);
+  }
+
+  @Override
+  public V put(final K key, final V value) {
+    final long weight = weigher.applyAsLong(key, value);
+    checkArgument(weight >= 0, "Weight must not be negative");
+    synchronized (this) {
+      final Node<K, V> existing = data.get(key);
+      if (existing != null) {
+        final V previous = existing.value;
+        final AccessOrder<K, V> queue = existing.queue;
+        queue.remove(existing);
+        existing.value = value;
+        existing.weight = weight;
+        queue.addLast(existing);
+        onAccess(existing);
+        evict();
+        return previous;
+      }
+      sketch.increment(key);
+      final Node<K, V> node = new Node<>(key, value, weight);
+      data.put(key, node);
+      window.addLast(node);
+      evict();
+      return null;
+    }
+  }
+
+  @Override
+  public synchronized V remove(final Object key) {
+    final Node<K, V> node = data.remove(key);
+    if (node == null) {
+      return null;
+    }
+    node.queue.remove(node);
+    return node.value;
+  }
+
+  @Override
+  public synchronized void clear() {
+    data.clear();
+    window.clear();
+    probation.clear();
+    protectedSpace.clear();
+  }
+
+  @Override
+  public synchronized int size() {
+    return data.size();
+  }
+
+  /** Returns the total weight of the entries currently held. */
+  public synchronized long getWeight() {
+    return window.weight + probation.weight + protectedSpace.weight;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /** Returns the proportion of lookups which found a value, or 0 if there have been none. */
+  public synchronized double getHitRatio() {
+    final long lookups = hitCount + missCount;
+    return lookups == 0 ? 0 : (double) hitCount / lookups;
+  }
+
+  @Override
+  public synchronized Set<Entry<K, V>> entrySet() {
+    final List<Entry<K, V>> snapshot = new ArrayList<>(data.size());
+    data.values().forEach(node -> snapshot.add(new SimpleImmutableEntry<>(node.key, node.value)));
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        final Iterator<Entry<K, V>> iterator = snapshot.iterator();
+        return new Iterator<>() {
+          private Entry<K, V> current;
+
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+
+          @Override
+          public Entry<K, V> next() {
+            current = iterator.next();
+            return current;
+          }
+
+          @Override
+          public void remove() {
+            iterator.remove();
+            WeightedLimitedMap.this.remove(current.getKey());
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return snapshot.size();
+      }
+    };
+  }
+
+  private void onAccess(final Node<K, V> node) {
+    if (node.queue == probation) {
+      // Used again while on probation so move to the protected space
+      probation.remove(node);
+      protectedSpace.addLast(node);
+      while (protectedSpace.weight > maxProtectedWeight && protectedSpace.size() > 1) {
+        probation.addLast(protectedSpace.removeFirst());
+      }
+    } else {
+      node.queue.moveToEnd(node);
+    }
+  }
+
+  private void evict() {
+    // Always keep the newest entry in the window, even if it alone exceeds the window size
+    while (window.weight > maxWindowWeight && window.size() > 1) {
+      admit(window.removeFirst());
+    }
+    while (getWeight() > maxWeight) {
+      final AccessOrder<K, V> queue =
+          !probation.isEmpty() ? probation : !protectedSpace.isEmpty() ? protectedSpace : window;
+      data.remove(queue.removeFirst().key);
+    }
+  }
+
+  /** Moves a candidate from the window to the main space if it is used more than the victims */
+  private void admit(final Node<K, V> candidate) {
+    final long maxMainWeight = maxWeight - maxWindowWeight;
+    final long required =
+        probation.weight + protectedSpace.weight + candidate.weight - maxMainWeight;
+    if (required > 0) {
+      final int candidateFrequency = sketch.frequency(candidate.key);
+      final List<Node<K, V>> victims = new ArrayList<>();
+      long freed = 0;
+      // Victims are taken from the least recently used end of probation, then protected
+      Node<K, V> victim = probation.first();
+      boolean searchedProtected = false;
+      while (freed < required) {
+        if (victim == null) {
+          if (searchedProtected) {
+            break;
+          }
+          searchedProtected = true;
+          victim = protectedSpace.first();
+          continue;
+        }
+        if (sketch.frequency(victim.key) >= candidateFrequency) {
+          break;
+        }
+        victims.add(victim);
+        freed += victim.weight;
+        victim = victim.next;
+      }
+      if (freed < required) {
+        data.remove(candidate.key);
+        return;
+      }
+      for (Node<K, V> evicted : victims) {
+        evicted.queue.remove(evicted);
+        data.remove(evicted.key);
+      }
+    }
+    probation.addLast(candidate);
+  }
+
+  private static class Node<K, V> {
+    private final K key;
+    private V value;
+    private long weight;
+    private AccessOrder<K, V> queue;
+    private Node<K, V> previous;
+    private Node<K, V> next;
+
+    private Node(final K key, final V value, final long weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /** Doubly linked list of nodes from least to most recently used, tracking their weight */
+  private static class AccessOrder<K, V> {
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private int size = 0;
+    private long weight = 0;
+
+    Node<K, V> first() {
+      return head;
+    }
+
+    boolean isEmpty() {
+      return head == null;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void addLast(final Node<K, V> node) {
+      node.queue = this;
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+      weight += node.weight;
+    }
+
+    void remove(final Node<K, V> node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      node.queue = null;
+      size--;
+      weight -= node.weight;
+    }
+
+    Node<K, V> removeFirst() {
+      final Node<K, V> node = head;
+      remove(node);
+      return node;
+    }
+
+    void moveToEnd(final Node<K, V> node) {
+      if (node != tail) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void clear() {
+      head = null;
+      tail = null;
+      size = 0;
+      weight = 0;
+    }
+  }
+}
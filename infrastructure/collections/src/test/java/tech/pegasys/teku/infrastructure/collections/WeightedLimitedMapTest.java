@@ -0,0 +1,121 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class WeightedLimitedMapTest {
+
+  private final WeightedLimitedMap<Integer, Integer> map =
+      WeightedLimitedMap.create(100, (key, value) -> value);
+
+  @Test
+  public void create_shouldRejectNonPositiveMaxWeight() {
+    assertThatThrownBy(() -> WeightedLimitedMap.create(0, (key, value) -> 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void put_shouldEvictToStayWithinMaxWeight() {
+    for (int i = 0; i < 20; i++) {
+      map.put(i, 15);
+      assertThat(map.getWeight()).isLessThanOrEqualTo(100);
+    }
+    assertThat(map.size()).isEqualTo(6);
+    // Newest entry is always kept
+    assertThat(map.containsKey(19)).isTrue();
+  }
+
+  @Test
+  public void put_shouldNotRetainValueHeavierThanMaxWeight() {
+    map.put(1, 101);
+
+    assertThat(map).isEmpty();
+    assertThat(map.getWeight()).isZero();
+  }
+
+  @Test
+  public void put_shouldUpdateWeightWhenReplacingValue() {
+    map.put(1, 10);
+    assertThat(map.put(1, 30)).isEqualTo(10);
+
+    assertThat(map.getWeight()).isEqualTo(30);
+    assertThat(map.get(1)).isEqualTo(30);
+  }
+
+  @Test
+  public void put_shouldKeepFrequentlyUsedEntryWhenScanningNewEntries() {
+    map.put(1, 10);
+    for (int i = 0; i < 5; i++) {
+      map.get(1);
+    }
+
+    // Each of these is only used once so shouldn't be admitted in place of entry 1
+    for (int i = 2; i < 100; i++) {
+      map.put(i, 10);
+    }
+
+    assertThat(map.containsKey(1)).isTrue();
+    assertThat(map.getWeight()).isLessThanOrEqualTo(100);
+  }
+
+  @Test
+  public void remove_shouldReleaseWeight() {
+    map.put(1, 10);
+    map.put(2, 20);
+
+    assertThat(map.remove(1)).isEqualTo(10);
+    assertThat(map.getWeight()).isEqualTo(20);
+    assertThat(map.remove(1)).isNull();
+  }
+
+  @Test
+  public void entrySetIteratorRemove_shouldRemoveFromMap() {
+    map.put(1, 10);
+    map.put(2, 20);
+
+    map.keySet().removeIf(key -> key == 1);
+
+    assertThat(map.containsKey(1)).isFalse();
+    assertThat(map.getWeight()).isEqualTo(20);
+  }
+
+  @Test
+  public void getHitRatio_shouldTrackLookups() {
+    assertThat(map.getHitRatio()).isZero();
+    map.put(1, 10);
+
+    map.get(1);
+    map.get(2);
+    map.get(1);
+    map.get(3);
+
+    assertThat(map.getHitCount()).isEqualTo(2);
+    assertThat(map.getMissCount()).isEqualTo(2);
+    assertThat(map.getHitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void peek_shouldNotCountAsLookup() {
+    map.put(1, 10);
+
+    assertThat(map.peek(1)).isEqualTo(10);
+    assertThat(map.peek(2)).isNull();
+    assertThat(map.getHitCount()).isZero();
+    assertThat(map.getMissCount()).isZero();
+  }
+}
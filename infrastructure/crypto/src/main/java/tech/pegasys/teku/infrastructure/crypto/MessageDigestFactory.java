@@ -38,6 +38,14 @@ public class MessageDigestFactory {
     }
   }
 
+  /**
+   * Returns true if SHA-256 digests are computed by the SUN provider, whose implementation is
+   * replaced by CPU intrinsics on supported JVMs and platforms.
+   */
+  public static boolean isSha256Intrinsic() {
+    return "SUN".equals(SHA_256_SECURITY_PROVIDER.getName());
+  }
+
   @SuppressWarnings("DoNotInvokeMessageDigestDirectly")
   public static MessageDigest createKeccak256() {
     try {
@@ -0,0 +1,213 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.crypto;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+/**
+ * Hashes many 64-byte inputs (pairs of 32-byte child roots) into 32-byte outputs in a single call.
+ *
+ * <p>Inputs and outputs are flat byte arrays so no intermediate {@code Bytes} or digest arrays are
+ * allocated per hash. When the SHA-256 provider is backed by JVM intrinsics (the SUN provider) it
+ * is driven directly over the flat arrays. Otherwise a scalar pure-Java kernel is used which
+ * exploits the fact that a 64-byte input always consists of exactly one data block followed by one
+ * constant padding block: the message schedule of the padding block (with round constants already
+ * added) is precomputed once, so only the data block schedule is expanded per input.
+ *
+ * <p>Instances are not thread safe but may be reused.
+ */
+public class Sha256Batch {
+  public static final int INPUT_SIZE = 64;
+  public static final int OUTPUT_SIZE = 32;
+
+  private static final int[] K = {
+    0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+    0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+    0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+    0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+    0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+    0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+    0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+    0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+  };
+
+  private static final int[] IV = {
+    0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+  };
+
+  /** Message schedule of the padding block for a 64-byte message, with K[t] already added */
+  private static final int[] PADDING_SCHEDULE_PLUS_K = computePaddingSchedule();
+
+  private final MessageDigest messageDigest;
+  private final int[] w = new int[64];
+  private final int[] state = new int[8];
+
+  private Sha256Batch(final MessageDigest messageDigest) {
+    this.messageDigest = messageDigest;
+  }
+
+  /** Creates a batch hasher using the fastest implementation available on this JVM */
+  public static Sha256Batch create() {
+    return MessageDigestFactory.isSha256Intrinsic()
+        ? new Sha256Batch(MessageDigestFactory.createSha256())
+        : new Sha256Batch(null);
+  }
+
+  /** Creates a batch hasher which always uses the scalar pure-Java kernel */
+  public static Sha256Batch createScalar() {
+    return new Sha256Batch(null);
+  }
+
+  private static int[] computePaddingSchedule() {
+    final int[] schedule = new int[64];
+    schedule[0] = 0x80000000;
+    // message length in bits (512) in the last word
+    schedule[15] = INPUT_SIZE * 8;
+    expandSchedule(schedule);
+    for (int t = 0; t < 64; t++) {
+      schedule[t] += K[t];
+    }
+    return schedule;
+  }
+
+  private static void expandSchedule(final int[] w) {
+    for (int t = 16; t < 64; t++) {
+      final int w15 = w[t - 15];
+      final int w2 = w[t - 2];
+      final int s0 = Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3);
+      final int s1 = Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10);
+      w[t] = w[t - 16] + s0 + w[t - 7] + s1;
+    }
+  }
+
+  /**
+   * Hashes {@code count} consecutive 64-byte inputs from {@code input} and writes the resulting
+   * 32-byte digests consecutively to {@code output}
+   */
+  public void digestPairs(final byte[] input, final int count, final byte[] output) {
+    digestPairs(input, 0, count, output, 0);
+  }
+
+  public void digestPairs(
+      final byte[] input,
+      final int inputOffset,
+      final int count,
+      final byte[] output,
+      final int outputOffset) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Negative count: " + count);
+    }
+    if (inputOffset < 0 || input.length - inputOffset < (long) count * INPUT_SIZE) {
+      throw new IllegalArgumentException("Input array is too small");
+    }
+    if (outputOffset < 0 || output.length - outputOffset < (long) count * OUTPUT_SIZE) {
+      throw new IllegalArgumentException("Output array is too small");
+    }
+    if (messageDigest != null) {
+      digestPairsWithMessageDigest(input, inputOffset, count, output, outputOffset);
+    } else {
+      for (int i = 0; i < count; i++) {
+        digestPair(input, inputOffset + i * INPUT_SIZE, output, outputOffset + i * OUTPUT_SIZE);
+      }
+    }
+  }
+
+  private void digestPairsWithMessageDigest(
+      final byte[] input,
+      final int inputOffset,
+      final int count,
+      final byte[] output,
+      final int outputOffset) {
+    try {
+      for (int i = 0; i < count; i++) {
+        messageDigest.update(input, inputOffset + i * INPUT_SIZE, INPUT_SIZE);
+        messageDigest.digest(output, outputOffset + i * OUTPUT_SIZE, OUTPUT_SIZE);
+      }
+    } catch (final DigestException e) {
+      throw new IllegalStateException("Failed to compute SHA-256 digest", e);
+    }
+  }
+
+  private void digestPair(
+      final byte[] input, final int inputOffset, final byte[] output, final int outputOffset) {
+    final int[] w = this.w;
+    final int[] state = this.state;
+    for (int t = 0; t < 16; t++) {
+      final int off = inputOffset + (t << 2);
+      w[t] =
+          (input[off] << 24)
+              | ((input[off + 1] & 0xff) << 16)
+              | ((input[off + 2] & 0xff) << 8)
+              | (input[off + 3] & 0xff);
+    }
+    expandSchedule(w);
+    for (int t = 0; t < 64; t++) {
+      w[t] += K[t];
+    }
+
+    System.arraycopy(IV, 0, state, 0, 8);
+    compress(state, w);
+    compress(state, PADDING_SCHEDULE_PLUS_K);
+
+    for (int i = 0; i < 8; i++) {
+      final int off = outputOffset + (i << 2);
+      final int v = state[i];
+      output[off] = (byte) (v >>> 24);
+      output[off + 1] = (byte) (v >>> 16);
+      output[off + 2] = (byte) (v >>> 8);
+      output[off + 3] = (byte) v;
+    }
+  }
+
+  /** Runs 64 rounds over a schedule which already includes the round constants */
+  private static void compress(final int[] state, final int[] scheduleWithK) {
+    int a = state[0];
+    int b = state[1];
+    int c = state[2];
+    int d = state[3];
+    int e = state[4];
+    int f = state[5];
+    int g = state[6];
+    int h = state[7];
+
+    for (int t = 0; t < 64; t++) {
+      final int s1 =
+          Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+      final int ch = (e & f) ^ (~e & g);
+      final int temp1 = h + s1 + ch + scheduleWithK[t];
+      final int s0 =
+          Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+      final int maj = (a & b) ^ (a & c) ^ (b & c);
+      final int temp2 = s0 + maj;
+      h = g;
+      g = f;
+      f = e;
+      e = d + temp1;
+      d = c;
+      c = b;
+      b = a;
+      a = temp1 + temp2;
+    }
+
+    state[0] += a;
+    state[1] += b;
+    state[2] += c;
+    state[3] += d;
+    state[4] += e;
+    state[5] += f;
+    state[6] += g;
+    state[7] += h;
+  }
+}
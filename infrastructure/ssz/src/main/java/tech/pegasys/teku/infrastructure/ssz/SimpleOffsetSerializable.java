@@ -14,6 +14,7 @@
 package tech.pegasys.teku.infrastructure.ssz;
 
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import org.apache.tuweni.bytes.Bytes;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszWriter;
 
@@ -35,4 +36,12 @@ public interface SimpleOffsetSerializable {
   int sszSerialize(SszWriter writer);
 
   int sszSerialize(OutputStream out);
+
+  /**
+   * SSZ serializes this data to supplied {@code channel} through a bounded buffer without
+   * materializing the whole serialization in memory
+   *
+   * @return number of bytes written
+   */
+  int sszSerialize(WritableByteChannel channel);
 }
@@ -14,10 +14,12 @@
 package tech.pegasys.teku.infrastructure.ssz;
 
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
-import tech.pegasys.teku.infrastructure.ssz.sos.SszOutputStreamWriter;
+import tech.pegasys.teku.infrastructure.ssz.sos.SszChannelWriter;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszWriter;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 
@@ -65,6 +67,14 @@ public interface SszData extends Merkleizable, SimpleOffsetSerializable {
 
   @Override
   default int sszSerialize(OutputStream out) {
-    return sszSerialize(new SszOutputStreamWriter(out));
+    return sszSerialize(Channels.newChannel(out));
+  }
+
+  @Override
+  default int sszSerialize(WritableByteChannel channel) {
+    final SszChannelWriter writer = new SszChannelWriter(channel);
+    final int size = sszSerialize(writer);
+    writer.flush();
+    return size;
   }
 }
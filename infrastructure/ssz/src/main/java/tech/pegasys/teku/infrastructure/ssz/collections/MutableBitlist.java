@@ -0,0 +1,73 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.collections;
+
+import tech.pegasys.teku.infrastructure.ssz.collections.impl.MutableBitlistImpl;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+/**
+ * Mutable bit list for accumulating {@link SszBitlist} instances (like attestation aggregation
+ * bits) in place.
+ *
+ * <p>Unlike {@link SszBitlist#or(SszBitlist)}, none of the operations here allocate. The {@link
+ * SszBitlist} form (and its backing tree) is only created by {@link #toSszBitlist()} when the
+ * result needs to be hashed or serialized.
+ *
+ * <p>Implementations are not thread safe.
+ */
+public interface MutableBitlist {
+
+  /** Creates an empty bit list of the specified {@code size} */
+  static MutableBitlist create(final SszBitlistSchema<?> schema, final int size) {
+    return MutableBitlistImpl.create(schema, size);
+  }
+
+  /** Creates a bit list with the same schema, size and set bits as the {@code bitlist} */
+  static MutableBitlist copyOf(final SszBitlist bitlist) {
+    return MutableBitlistImpl.copyOf(bitlist);
+  }
+
+  MutableBitlist copy();
+
+  /**
+   * Sets all bits which are set in {@code other}
+   *
+   * @throws IllegalArgumentException if {@code other.size() > this.size()}
+   */
+  void or(SszBitlist other);
+
+  /** Clears all bits which are not set in {@code other} */
+  void and(SszBitlist other);
+
+  /** Clears all bits */
+  void clear();
+
+  void setBit(int i);
+
+  boolean getBit(int i);
+
+  /** Returns the number of set bits */
+  int getBitCount();
+
+  /** Returns {@code true} if any bit set in {@code other} is also set in this bit list */
+  boolean intersects(SszBitlist other);
+
+  /** Returns {@code true} if all bits set in {@code other} are also set in this bit list */
+  boolean isSuperSetOf(SszBitlist other);
+
+  int size();
+
+  /** Creates an immutable {@link SszBitlist} snapshot of the current bits */
+  SszBitlist toSszBitlist();
+}
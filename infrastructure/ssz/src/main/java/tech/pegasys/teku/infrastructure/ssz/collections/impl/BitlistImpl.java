@@ -18,11 +18,16 @@ import static com.google.common.base.Preconditions.checkElementIndex;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
-import java.util.BitSet;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.stream.IntStream;
 import org.apache.tuweni.bytes.Bytes;
 
+/**
+ * Immutable bit list backed by a {@code long[]} of little-endian ordered words. Bits at indices
+ * equal to or above {@link #getCurrentSize()} are always cleared, so bitwise operations between
+ * lists of different sizes can be done word by word without extra bounds checks.
+ */
 class BitlistImpl {
 
   public static int sszSerializationLength(final int size) {
@@ -31,11 +36,28 @@ class BitlistImpl {
 
   public static BitlistImpl fromSszBytes(Bytes bytes, long maxSize) {
     int bitlistSize = SszBitlistImpl.sszGetLengthAndValidate(bytes);
-    BitSet bitSet = BitSet.valueOf(bytes.toArrayUnsafe()).get(0, bitlistSize);
-    return new BitlistImpl(bitlistSize, bitSet, maxSize);
+    byte[] array = bytes.toArrayUnsafe();
+    long[] words = new long[wordsCount(bitlistSize)];
+    int dataBytesCount = (bitlistSize + 7) / 8;
+    for (int i = 0; i < dataBytesCount; i++) {
+      words[i >>> 3] |= (array[i] & 0xFFL) << ((i & 7) * 8);
+    }
+    // clear the end marker bit if it shares the last word with data bits
+    clearBitsAbove(words, bitlistSize);
+    return new BitlistImpl(bitlistSize, words, maxSize);
+  }
+
+  static int wordsCount(final int size) {
+    return (size + 63) >>> 6;
+  }
+
+  static void clearBitsAbove(final long[] words, final int size) {
+    if ((size & 63) != 0) {
+      words[words.length - 1] &= (1L << size) - 1;
+    }
   }
 
-  private final BitSet data;
+  private final long[] words;
   private final int size;
   private final long maxSize;
 
@@ -43,17 +65,17 @@ class BitlistImpl {
     checkArgument(size >= 0, "Negative size");
     checkArgument(maxSize >= size, "maxSize should be >= size");
     this.size = size;
-    this.data = new BitSet(size);
+    this.words = new long[wordsCount(size)];
     this.maxSize = maxSize;
     for (int bitIndex : bitIndices) {
       checkElementIndex(bitIndex, size);
-      data.set(bitIndex);
+      words[bitIndex >>> 6] |= 1L << bitIndex;
     }
   }
 
-  private BitlistImpl(int size, BitSet data, long maxSize) {
+  BitlistImpl(int size, long[] words, long maxSize) {
     this.size = size;
-    this.data = data;
+    this.words = words;
     this.maxSize = maxSize;
   }
 
@@ -64,45 +86,93 @@ class BitlistImpl {
    *     of this BitlistImpl
    */
   public BitlistImpl or(BitlistImpl other) {
-    if (other.getCurrentSize() > getCurrentSize()) {
+    checkOrSize(other.getCurrentSize(), getCurrentSize());
+    long[] newWords = words.clone();
+    or(newWords, other.words);
+    return new BitlistImpl(size, newWords, maxSize);
+  }
+
+  static void checkOrSize(final int otherSize, final int size) {
+    if (otherSize > size) {
       throw new IllegalArgumentException(
-          "Argument bitfield size is greater: "
-              + other.getCurrentSize()
-              + " > "
-              + getCurrentSize());
+          "Argument bitfield size is greater: " + otherSize + " > " + size);
+    }
+  }
+
+  static void or(final long[] target, final long[] other) {
+    for (int i = 0; i < other.length; i++) {
+      target[i] |= other[i];
     }
-    BitSet newData = (BitSet) this.data.clone();
-    newData.or(other.data);
-    return new BitlistImpl(size, newData, maxSize);
   }
 
   public boolean getBit(int i) {
     checkElementIndex(i, size);
-    return data.get(i);
+    return (words[i >>> 6] & (1L << i)) != 0;
   }
 
   public int getBitCount() {
-    return data.cardinality();
+    return bitCount(words);
+  }
+
+  static int bitCount(final long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
   }
 
   public boolean intersects(BitlistImpl other) {
-    return data.intersects(other.data);
+    return intersects(words, other.words);
+  }
+
+  static boolean intersects(final long[] words, final long[] otherWords) {
+    final int commonLength = Math.min(words.length, otherWords.length);
+    for (int i = 0; i < commonLength; i++) {
+      if ((words[i] & otherWords[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public boolean isSuperSetOf(final BitlistImpl other) {
-    return other.streamAllSetBits().allMatch(idx -> idx < getCurrentSize() && getBit(idx));
+    return isSuperSetOf(words, other.words);
+  }
+
+  static boolean isSuperSetOf(final long[] words, final long[] otherWords) {
+    for (int i = 0; i < otherWords.length; i++) {
+      final long word = i < words.length ? words[i] : 0;
+      if ((otherWords[i] & ~word) != 0) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public IntList getAllSetBits() {
-    final IntList setBits = new IntArrayList();
-    for (int i = data.nextSetBit(0); i >= 0; i = data.nextSetBit(i + 1)) {
-      setBits.add(i);
+    return IntArrayList.wrap(getSetBitsArray());
+  }
+
+  public IntStream streamAllSetBits() {
+    return Arrays.stream(getSetBitsArray());
+  }
+
+  private int[] getSetBitsArray() {
+    final int[] setBits = new int[getBitCount()];
+    int pos = 0;
+    for (int i = 0; i < words.length; i++) {
+      long word = words[i];
+      while (word != 0) {
+        setBits[pos++] = (i << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
     }
     return setBits;
   }
 
-  public IntStream streamAllSetBits() {
-    return data.stream();
+  long[] getWords() {
+    return words;
   }
 
   public long getMaxSize() {
@@ -113,13 +183,18 @@ class BitlistImpl {
     return size;
   }
 
-  @SuppressWarnings("NarrowingCompoundAssignment")
   public Bytes serialize() {
-    int len = size;
-    byte[] array = new byte[sszSerializationLength(len)];
-    IntStream.range(0, len).forEach(i -> array[i / 8] |= ((data.get(i) ? 1 : 0) << (i % 8)));
-    array[len / 8] |= 1 << (len % 8);
-    return Bytes.wrap(array);
+    return Bytes.wrap(serialize(words, size));
+  }
+
+  static byte[] serialize(final long[] words, final int size) {
+    byte[] array = new byte[sszSerializationLength(size)];
+    int dataBytesCount = (size + 7) / 8;
+    for (int i = 0; i < dataBytesCount; i++) {
+      array[i] = (byte) (words[i >>> 3] >>> ((i & 7) * 8));
+    }
+    array[size / 8] |= (byte) (1 << (size % 8));
+    return array;
   }
 
   @Override
@@ -131,12 +206,14 @@ class BitlistImpl {
       return false;
     }
     final BitlistImpl bitlist = (BitlistImpl) o;
-    return size == bitlist.size && maxSize == bitlist.maxSize && Objects.equals(data, bitlist.data);
+    return size == bitlist.size
+        && maxSize == bitlist.maxSize
+        && Arrays.equals(words, bitlist.words);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(data, size, maxSize);
+    return Objects.hash(Arrays.hashCode(words), size, maxSize);
   }
 
   @Override
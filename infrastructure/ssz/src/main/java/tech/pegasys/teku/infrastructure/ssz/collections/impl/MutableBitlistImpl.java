@@ -0,0 +1,121 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.collections.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.Arrays;
+import tech.pegasys.teku.infrastructure.ssz.collections.MutableBitlist;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszBitlist;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+/** {@code long[]} backed {@link MutableBitlist} sharing the word layout of {@link BitlistImpl} */
+public class MutableBitlistImpl implements MutableBitlist {
+
+  private final SszBitlistSchema<?> schema;
+  private final int size;
+  private final long[] words;
+
+  private MutableBitlistImpl(final SszBitlistSchema<?> schema, final int size, final long[] words) {
+    this.schema = schema;
+    this.size = size;
+    this.words = words;
+  }
+
+  /** Creates an empty bit list of the specified {@code size} */
+  public static MutableBitlistImpl create(final SszBitlistSchema<?> schema, final int size) {
+    checkArgument(size >= 0, "Negative size");
+    checkArgument(schema.getMaxLength() >= size, "maxSize should be >= size");
+    return new MutableBitlistImpl(schema, size, new long[BitlistImpl.wordsCount(size)]);
+  }
+
+  /** Creates a bit list with the same schema, size and set bits as the {@code bitlist} */
+  public static MutableBitlistImpl copyOf(final SszBitlist bitlist) {
+    final BitlistImpl value = toBitlistImpl(bitlist);
+    return new MutableBitlistImpl(
+        bitlist.getSchema(), value.getCurrentSize(), value.getWords().clone());
+  }
+
+  @Override
+  public MutableBitlistImpl copy() {
+    return new MutableBitlistImpl(schema, size, words.clone());
+  }
+
+  @Override
+  public void or(final SszBitlist other) {
+    final BitlistImpl otherValue = toBitlistImpl(other);
+    BitlistImpl.checkOrSize(otherValue.getCurrentSize(), size);
+    BitlistImpl.or(words, otherValue.getWords());
+  }
+
+  @Override
+  public void and(final SszBitlist other) {
+    final long[] otherWords = toBitlistImpl(other).getWords();
+    for (int i = 0; i < words.length; i++) {
+      words[i] &= i < otherWords.length ? otherWords[i] : 0;
+    }
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(words, 0);
+  }
+
+  @Override
+  public void setBit(final int i) {
+    checkElementIndex(i, size);
+    words[i >>> 6] |= 1L << i;
+  }
+
+  @Override
+  public boolean getBit(final int i) {
+    checkElementIndex(i, size);
+    return (words[i >>> 6] & (1L << i)) != 0;
+  }
+
+  @Override
+  public int getBitCount() {
+    return BitlistImpl.bitCount(words);
+  }
+
+  @Override
+  public boolean intersects(final SszBitlist other) {
+    return BitlistImpl.intersects(words, toBitlistImpl(other).getWords());
+  }
+
+  @Override
+  public boolean isSuperSetOf(final SszBitlist other) {
+    return BitlistImpl.isSuperSetOf(words, toBitlistImpl(other).getWords());
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public SszBitlist toSszBitlist() {
+    return new SszBitlistImpl(schema, new BitlistImpl(size, words.clone(), schema.getMaxLength()));
+  }
+
+  private static BitlistImpl toBitlistImpl(final SszBitlist bitlist) {
+    return ((SszBitlistImpl) bitlist).getValue();
+  }
+
+  @Override
+  public String toString() {
+    return "MutableBitlistImpl{size=" + size + ", bitCount=" + getBitCount() + "}";
+  }
+}
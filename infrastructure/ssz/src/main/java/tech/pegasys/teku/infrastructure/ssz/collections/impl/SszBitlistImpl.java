@@ -99,6 +99,10 @@ public class SszBitlistImpl extends SszListImpl<SszBit> implements SszBitlist {
     return ((SszBitlistImpl) bl).value;
   }
 
+  BitlistImpl getValue() {
+    return value;
+  }
+
   @Override
   public SszBitlist or(SszBitlist other) {
     return new SszBitlistImpl(getSchema(), value.or(toBitlistImpl(other)));
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node;
 import tech.pegasys.teku.infrastructure.ssz.tree.SszSuperNode;
 
 /**
@@ -54,6 +55,26 @@ public class SszSchemaHints {
     }
   }
 
+  /**
+   * Hint to use {@link SszPackedUInt64Node} for lists of <code>uint64</code> to save the memory
+   * and speed up hashTreeRoot recalculation when the list content is frequently updated
+   *
+   * <p>The <code>depth</code> parameter specifies the maximum number (<code>2 ^ depth</code>) of
+   * 32-byte chunks (4 <code>uint64</code> values each) a single node can contain. Increasing this
+   * parameter saves memory but makes every update copy a larger array
+   */
+  public static final class SszPackedUInt64NodeHint extends SszSchemaHint {
+    private final int depth;
+
+    public SszPackedUInt64NodeHint(int depth) {
+      this.depth = depth;
+    }
+
+    public int getDepth() {
+      return depth;
+    }
+  }
+
   public static SszSchemaHints of(SszSchemaHint... hints) {
     return new SszSchemaHints(Arrays.asList(hints));
   }
@@ -66,6 +87,10 @@ public class SszSchemaHints {
     return of(new SszSuperNodeHint(superNodeDepth));
   }
 
+  public static SszSchemaHints sszPackedUInt64Node(int packedNodeDepth) {
+    return of(new SszPackedUInt64NodeHint(packedNodeDepth));
+  }
+
   private final List<SszSchemaHint> hints;
 
   private SszSchemaHints(List<SszSchemaHint> hints) {
@@ -17,6 +17,7 @@ import tech.pegasys.teku.infrastructure.ssz.SszPrimitive;
 import tech.pegasys.teku.infrastructure.ssz.collections.SszPrimitiveList;
 import tech.pegasys.teku.infrastructure.ssz.collections.impl.SszPrimitiveListImpl;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszPrimitiveListSchema;
 import tech.pegasys.teku.infrastructure.ssz.schema.impl.AbstractSszListSchema;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
@@ -33,6 +34,13 @@ public class SszPrimitiveListSchemaImpl<
     super(elementSchema, maxLength);
   }
 
+  public SszPrimitiveListSchemaImpl(
+      SszPrimitiveSchema<ElementT, SszElementT> elementSchema,
+      long maxLength,
+      SszSchemaHints hints) {
+    super(elementSchema, maxLength, hints);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public SszListT createFromBackingNode(TreeNode node) {
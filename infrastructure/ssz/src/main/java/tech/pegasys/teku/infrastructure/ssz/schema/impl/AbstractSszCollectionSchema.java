@@ -30,8 +30,10 @@ import tech.pegasys.teku.infrastructure.ssz.SszCollection;
 import tech.pegasys.teku.infrastructure.ssz.SszData;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszCompositeSchema;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints.SszPackedUInt64NodeHint;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints.SszSuperNodeHint;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszType;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszDeserializeException;
@@ -39,6 +41,7 @@ import tech.pegasys.teku.infrastructure.ssz.sos.SszReader;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszWriter;
 import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.SszNodeTemplate;
+import tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node;
 import tech.pegasys.teku.infrastructure.ssz.tree.SszSuperNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeUtil;
@@ -179,6 +182,10 @@ public abstract class AbstractSszCollectionSchema<
 
   protected DeserializedData sszDeserializeVector(SszReader reader) {
     if (getElementSchema().isFixedSize()) {
+      Optional<Integer> packedNodeDepth = getPackedUInt64NodeDepth();
+      if (packedNodeDepth.isPresent()) {
+        return sszDeserializePackedUInt64(reader, packedNodeDepth.get());
+      }
       Optional<SszSuperNodeHint> sszSuperNodeHint = getHints().getHint(SszSuperNodeHint.class);
       return sszSuperNodeHint
           .map(superNodeHint -> sszDeserializeSupernode(reader, superNodeHint.getDepth()))
@@ -213,6 +220,27 @@ public abstract class AbstractSszCollectionSchema<
     return new DeserializedData(tree, elementsCount);
   }
 
+  private DeserializedData sszDeserializePackedUInt64(SszReader reader, int packedNodeDepth) {
+    int sszSize = reader.getAvailableBytes();
+    checkSsz(sszSize % Long.BYTES == 0, "SSZ sequence length is not multiple of uint64 size");
+    int elementsCount = sszSize / Long.BYTES;
+    checkSsz(elementsCount <= getMaxLength(), "SSZ sequence length exceeds max type length");
+    int chunkSize = (SszPackedUInt64Node.VALUES_PER_CHUNK << packedNodeDepth) * Long.BYTES;
+    int bytesRemain = sszSize;
+    List<SszPackedUInt64Node> nodes = new ArrayList<>(bytesRemain / chunkSize + 1);
+    while (bytesRemain > 0) {
+      int toRead = min(bytesRemain, chunkSize);
+      bytesRemain -= toRead;
+      nodes.add(SszPackedUInt64Node.fromSsz(packedNodeDepth, reader.read(toRead)));
+    }
+    TreeNode tree =
+        TreeUtil.createTree(
+            nodes,
+            new SszPackedUInt64Node(packedNodeDepth, new long[0]),
+            treeDepth() - packedNodeDepth);
+    return new DeserializedData(tree, elementsCount);
+  }
+
   private DeserializedData sszDeserializeFixed(SszReader reader) {
     int bytesSize = reader.getAvailableBytes();
     checkSsz(
@@ -305,6 +333,20 @@ public abstract class AbstractSszCollectionSchema<
     return hints;
   }
 
+  /**
+   * Returns the depth of {@link SszPackedUInt64Node}s backing this collection if the {@link
+   * SszPackedUInt64NodeHint} is specified. The hint is applicable to <code>uint64</code> elements
+   * only and is ignored otherwise
+   */
+  protected Optional<Integer> getPackedUInt64NodeDepth() {
+    if (!getElementSchema().equals(SszPrimitiveSchemas.UINT64_SCHEMA)) {
+      return Optional.empty();
+    }
+    return getHints()
+        .getHint(SszPackedUInt64NodeHint.class)
+        .map(SszPackedUInt64NodeHint::getDepth);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -29,6 +29,7 @@ import java.util.Queue;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes;
 import tech.pegasys.teku.infrastructure.json.types.DeserializableTypeDefinition;
 import tech.pegasys.teku.infrastructure.ssz.SszContainer;
 import tech.pegasys.teku.infrastructure.ssz.SszData;
@@ -88,6 +89,8 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
   private final TreeNode defaultTree;
   private final long treeWidth;
   private final int fixedPartSize;
+  private final boolean fixedSize;
+  private final long[] childrenGeneralizedIndices;
   private final DeserializableTypeDefinition<C> jsonTypeDefinition;
 
   protected AbstractSszContainerSchema(String name, List<NamedSchema<?>> childrenSchemas) {
@@ -106,6 +109,8 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
     this.defaultTree = createDefaultTree();
     this.treeWidth = SszContainerSchema.super.treeWidth();
     this.fixedPartSize = calcSszFixedPartSize();
+    this.fixedSize = calcIsFixedSize();
+    this.childrenGeneralizedIndices = calcChildrenGeneralizedIndices();
     this.jsonTypeDefinition = SszContainerTypeDefinition.createFor(this);
   }
 
@@ -120,6 +125,8 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
     this.defaultTree = createDefaultTree();
     this.treeWidth = SszContainerSchema.super.treeWidth();
     this.fixedPartSize = calcSszFixedPartSize();
+    this.fixedSize = calcIsFixedSize();
+    this.childrenGeneralizedIndices = calcChildrenGeneralizedIndices();
     this.jsonTypeDefinition = SszContainerTypeDefinition.createFor(this);
   }
 
@@ -204,8 +211,28 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
     return Objects.hash(childrenSchemas);
   }
 
+  @Override
+  public long getChildGeneralizedIndex(long elementIndex) {
+    if (elementIndex >= 0 && elementIndex < childrenGeneralizedIndices.length) {
+      return childrenGeneralizedIndices[(int) elementIndex];
+    }
+    return SszContainerSchema.super.getChildGeneralizedIndex(elementIndex);
+  }
+
+  private long[] calcChildrenGeneralizedIndices() {
+    final long[] gIndices = new long[getFieldsCount()];
+    for (int i = 0; i < gIndices.length; i++) {
+      gIndices[i] = SszContainerSchema.super.getChildGeneralizedIndex(i);
+    }
+    return gIndices;
+  }
+
   @Override
   public boolean isFixedSize() {
+    return fixedSize;
+  }
+
+  private boolean calcIsFixedSize() {
     for (int i = 0; i < getFieldsCount(); i++) {
       if (!getChildSchema(i).isFixedSize()) {
         return false;
@@ -251,6 +278,9 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
 
   @Override
   public int sszSerializeTree(TreeNode node, SszWriter writer) {
+    if (fixedSize) {
+      return sszSerializeFixedSizeTree(node, writer);
+    }
     int variableChildOffset = getSszFixedPartSize();
     int[] variableSizes = new int[getFieldsCount()];
     for (int i = 0; i < getFieldsCount(); i++) {
@@ -277,8 +307,28 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
     return variableChildOffset;
   }
 
+  /**
+   * Fixed size containers have all the field offsets known upfront so fields are written one by
+   * one without computing offsets or variable part sizes
+   */
+  private int sszSerializeFixedSizeTree(TreeNode node, SszWriter writer) {
+    int size = 0;
+    for (int i = 0; i < childrenGeneralizedIndices.length; i++) {
+      final TreeNode childSubtree = node.get(childrenGeneralizedIndices[i]);
+      size += childrenSchemas.get(i).sszSerializeTree(childSubtree, writer);
+    }
+    return size;
+  }
+
   @Override
   public TreeNode sszDeserializeTree(SszReader reader) {
+    if (fixedSize) {
+      final Bytes ssz = reader.read(fixedPartSize);
+      if (reader.getAvailableBytes() > 0) {
+        throw new SszDeserializeException("Invalid SSZ: unread bytes for fixed size container");
+      }
+      return sszDeserializeFixedSizeTree(ssz, 0);
+    }
     int endOffset = reader.getAvailableBytes();
     int childCount = getFieldsCount();
     Queue<TreeNode> fixedChildrenSubtrees = new ArrayDeque<>(childCount);
@@ -336,6 +386,36 @@ public abstract class AbstractSszContainerSchema<C extends SszContainer>
     return TreeUtil.createTree(childrenSubtrees);
   }
 
+  /**
+   * Deserializes a fixed size container located at {@code offset} of the {@code ssz} bytes. Every
+   * field is at a known offset, so primitive and nested fixed size container fields are decoded
+   * straight from the same bytes without slicing a reader per field
+   */
+  private TreeNode sszDeserializeFixedSizeTree(final Bytes ssz, final int offset) {
+    final List<TreeNode> childrenSubtrees = new ArrayList<>(childrenSchemas.size());
+    int childOffset = offset;
+    for (SszSchema<?> childType : childrenSchemas) {
+      final int childSize = childType.getSszFixedPartSize();
+      final TreeNode childNode;
+      if (childType instanceof AbstractSszPrimitiveSchema) {
+        childNode =
+            ((AbstractSszPrimitiveSchema<?, ?>) childType)
+                .createNodeFromSszBytes(ssz.slice(childOffset, childSize));
+      } else if (childType instanceof AbstractSszContainerSchema) {
+        childNode =
+            ((AbstractSszContainerSchema<?>) childType)
+                .sszDeserializeFixedSizeTree(ssz, childOffset);
+      } else {
+        try (SszReader sszReader = SszReader.fromBytes(ssz.slice(childOffset, childSize))) {
+          childNode = childType.sszDeserializeTree(sszReader);
+        }
+      }
+      childrenSubtrees.add(childNode);
+      childOffset += childSize;
+    }
+    return TreeUtil.createTree(childrenSubtrees);
+  }
+
   @Override
   public SszLengthBounds getSszLengthBounds() {
     return sszLengthBounds.get();
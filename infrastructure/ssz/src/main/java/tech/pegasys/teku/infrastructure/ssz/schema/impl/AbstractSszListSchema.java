@@ -14,9 +14,13 @@
 package tech.pegasys.teku.infrastructure.ssz.schema.impl;
 
 import static com.google.common.base.Preconditions.checkState;
+import static tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node.VALUES_PER_CHUNK;
 import static tech.pegasys.teku.infrastructure.ssz.tree.TreeUtil.bitsCeilToBytes;
 
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.infrastructure.json.types.DeserializableArrayTypeDefinition;
@@ -35,7 +39,9 @@ import tech.pegasys.teku.infrastructure.ssz.sos.SszReader;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszWriter;
 import tech.pegasys.teku.infrastructure.ssz.tree.BranchNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil;
+import tech.pegasys.teku.infrastructure.ssz.tree.LeafDataNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node;
 import tech.pegasys.teku.infrastructure.ssz.tree.SszSuperNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource;
@@ -206,6 +212,11 @@ public abstract class AbstractSszListSchema<
         targetDepthNodeHandler);
   }
 
+  /**
+   * Returns the depth of the {@link SszSuperNode}s backing this list or 0 if the list is stored as
+   * regular leaf nodes. Lists backed by {@link SszPackedUInt64Node}s are stored with the regular
+   * layout so that the hint can be switched on without migrating existing data
+   */
   private int getSuperNodeDepth() {
     return getHints().getHint(SszSuperNodeHint.class).map(SszSuperNodeHint::getDepth).orElse(0);
   }
@@ -274,9 +285,43 @@ public abstract class AbstractSszListSchema<
             compatibleVectorSchema.getDefault().getBackingNode(),
             lastUsefulGIndex,
             childLoader);
+    final Optional<Integer> packedNodeDepth = getPackedUInt64NodeDepth();
+    if (packedNodeDepth.isPresent()) {
+      return BranchNode.create(
+          toPackedUInt64Nodes(vectorNode, length, packedNodeDepth.get()), toLengthNode(length));
+    }
     return BranchNode.create(vectorNode, toLengthNode(length));
   }
 
+  /** Converts the vector tree loaded with the regular layout to {@link SszPackedUInt64Node}s */
+  private TreeNode toPackedUInt64Nodes(
+      final TreeNode vectorNode, final int length, final int packedNodeDepth) {
+    final int nodesDepth = compatibleVectorSchema.treeDepth() - packedNodeDepth;
+    final int valuesPerNode = VALUES_PER_CHUNK << packedNodeDepth;
+    final int nodesCount = (length + valuesPerNode - 1) / valuesPerNode;
+    final List<TreeNode> packedNodes = new ArrayList<>(nodesCount);
+    for (int nodeIndex = 0; nodeIndex < nodesCount; nodeIndex++) {
+      final TreeNode subtree =
+          vectorNode.get(
+              GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, nodeIndex, nodesDepth));
+      final long[] values = new long[Math.min(valuesPerNode, length - nodeIndex * valuesPerNode)];
+      for (int chunkIndex = 0; chunkIndex * VALUES_PER_CHUNK < values.length; chunkIndex++) {
+        final long chunkGIndex =
+            GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, chunkIndex, packedNodeDepth);
+        final Bytes chunk = ((LeafDataNode) subtree.get(chunkGIndex)).getData();
+        final int chunkStart = chunkIndex * VALUES_PER_CHUNK;
+        final int chunkEnd = Math.min(values.length, chunkStart + VALUES_PER_CHUNK);
+        for (int i = chunkStart; i < chunkEnd; i++) {
+          final int offset = (i - chunkStart) * Long.BYTES;
+          values[i] = offset < chunk.size() ? chunk.getLong(offset, ByteOrder.LITTLE_ENDIAN) : 0;
+        }
+      }
+      packedNodes.add(new SszPackedUInt64Node(packedNodeDepth, values));
+    }
+    return TreeUtil.createTree(
+        packedNodes, new SszPackedUInt64Node(packedNodeDepth, new long[0]), nodesDepth);
+  }
+
   private static TreeNode toLengthNode(int length) {
     return length == 0
         ? LeafNode.ZERO_LEAVES[8]
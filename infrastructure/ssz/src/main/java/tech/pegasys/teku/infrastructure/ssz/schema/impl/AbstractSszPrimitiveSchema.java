@@ -81,7 +81,7 @@ public abstract class AbstractSszPrimitiveSchema<
       return LeafNode.ZERO_LEAVES[sszSize];
     } else {
       final Bytes data = nodeSource.loadLeafNode(rootHash, rootGIndex);
-      return LeafNode.create(data.slice(0, sszSize));
+      return nodeSource.createLeafNode(data.slice(0, sszSize));
     }
   }
 
@@ -38,6 +38,7 @@ import tech.pegasys.teku.infrastructure.ssz.sos.SszReader;
 import tech.pegasys.teku.infrastructure.ssz.sos.SszWriter;
 import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil;
 import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node;
 import tech.pegasys.teku.infrastructure.ssz.tree.SszSuperNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource;
@@ -88,6 +89,13 @@ public abstract class AbstractSszVectorSchema<
   @Override
   protected TreeNode createDefaultTree() {
     if (isListBacking) {
+      Optional<Integer> packedNodeDepth = getPackedUInt64NodeDepth();
+      if (packedNodeDepth.isPresent()) {
+        SszPackedUInt64Node defaultPackedNode =
+            new SszPackedUInt64Node(packedNodeDepth.get(), new long[0]);
+        return TreeUtil.createTree(
+            emptyList(), defaultPackedNode, treeDepth() - packedNodeDepth.get());
+      }
       Optional<SszSuperNodeHint> sszSuperNodeHint = getHints().getHint(SszSuperNodeHint.class);
       if (sszSuperNodeHint.isPresent()) {
         int superNodeDepth = sszSuperNodeHint.get().getDepth();
@@ -186,34 +186,34 @@ public class LoadingUtil {
     if (elementSchema.isPrimitive()) {
       final Bytes data = childNodeSource.loadLeafNode(childHash, childGIndex);
       if (data.size() > Bytes32.SIZE) {
-        return LeafNode.create(data);
+        return childNodeSource.createLeafNode(data);
       } else {
         // Potentially need to trim the data
         final int fullNodeCount = length / elementsPerChunk;
         int lastNodeElementCount = length % elementsPerChunk;
         if (lastNodeElementCount == 0) {
-          return createLeaf(data);
+          return createLeaf(childNodeSource, data);
         }
         final long lastNodeGIndex =
             GIndexUtil.gIdxChildGIndex(childGIndex >>> treeDepth, fullNodeCount, treeDepth);
         if (lastNodeGIndex != childGIndex) {
-          return createLeaf(data);
+          return createLeaf(childNodeSource, data);
         }
         // Need to trim the data
         final int bitsSize = ((SszPrimitiveSchema<?, ?>) elementSchema).getBitsSize();
         int lastNodeSizeBytes = bitsCeilToBytes(lastNodeElementCount * bitsSize);
-        return createLeaf(data.slice(0, lastNodeSizeBytes));
+        return createLeaf(childNodeSource, data.slice(0, lastNodeSizeBytes));
       }
     } else {
       return elementSchema.loadBackingNodes(childNodeSource, childHash, childGIndex);
     }
   }
 
-  static LeafNode createLeaf(final Bytes data) {
+  static LeafNode createLeaf(final TreeNodeSource nodeSource, final Bytes data) {
     if (data.size() < Bytes32.SIZE && data.isZero()) {
       return LeafNode.ZERO_LEAVES[data.size()];
     } else {
-      return LeafNode.create(data);
+      return nodeSource.createLeafNode(data);
     }
   }
 
@@ -0,0 +1,92 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.sos;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * {@link SszWriter} which streams data to a {@link WritableByteChannel} through a bounded buffer.
+ * Allows writing large structures (like {@code BeaconState}) without materializing the whole
+ * serialization in memory and without issuing a channel write for every tree leaf.
+ *
+ * <p>Buffered data is written to the channel only on {@link #flush()} or when the buffer is full,
+ * so {@link #flush()} must be called once serialization is complete. The channel itself is
+ * neither flushed nor closed by this writer.
+ */
+public class SszChannelWriter implements SszWriter, Flushable {
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+
+  public SszChannelWriter(final WritableByteChannel channel) {
+    this(channel, DEFAULT_BUFFER_SIZE);
+  }
+
+  public SszChannelWriter(final WritableByteChannel channel, final int bufferSize) {
+    checkArgument(bufferSize > 0, "Buffer size should be positive: %s", bufferSize);
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  @Override
+  public void write(final Bytes bytes) {
+    if (bytes.size() > buffer.remaining()) {
+      flush();
+      if (bytes.size() > buffer.capacity()) {
+        writeFully(ByteBuffer.wrap(bytes.toArrayUnsafe()));
+        return;
+      }
+    }
+    // copies straight into the buffer without allocating an intermediate array for slices
+    bytes.appendTo(buffer);
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) {
+    if (length > buffer.remaining()) {
+      flush();
+      if (length > buffer.capacity()) {
+        writeFully(ByteBuffer.wrap(bytes, offset, length));
+        return;
+      }
+    }
+    buffer.put(bytes, offset, length);
+  }
+
+  /** Writes all buffered data to the channel */
+  @Override
+  public void flush() {
+    buffer.flip();
+    writeFully(buffer);
+    buffer.clear();
+  }
+
+  private void writeFully(final ByteBuffer src) {
+    try {
+      while (src.hasRemaining()) {
+        channel.write(src);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
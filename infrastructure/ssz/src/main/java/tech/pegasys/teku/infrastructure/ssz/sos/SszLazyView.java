@@ -0,0 +1,354 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.sos;
+
+import static tech.pegasys.teku.infrastructure.ssz.schema.SszType.SSZ_LENGTH_SIZE;
+
+import java.nio.ByteBuffer;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.ssz.SszComposite;
+import tech.pegasys.teku.infrastructure.ssz.SszData;
+import tech.pegasys.teku.infrastructure.ssz.SszMutableData;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszCollectionSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszCompositeSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszContainerSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszFieldName;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszListSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszType;
+
+/**
+ * Read-only view over SSZ serialized data which decodes only the parts which are actually
+ * accessed.
+ *
+ * <p>Unlike {@link SszSchema#sszDeserialize(Bytes)} the view doesn't build the backing tree
+ * upfront: it just wraps the SSZ bytes (without copying) and on {@link #get(int)} or {@link
+ * #getView(int)} locates the child bytes via the SSZ fixed part layout and offsets. Only the
+ * accessed child is deserialized. This is handy when a caller needs a single field (e.g. <code>
+ * slot</code> or <code>parent_root</code> of a block) from a large serialized structure.
+ *
+ * <p>The view is validated lazily: only the offsets on the path to accessed children are checked,
+ * so an invalid SSZ may be detected later (or not detected at all) compared to a regular
+ * deserialization. When the full structure is required ({@link #hashTreeRoot()}, {@link
+ * #createWritableCopy()}) it is materialized with the regular (validating) deserialization and
+ * memoized, so all subsequent accesses are served by the materialized instance.
+ *
+ * <p>Instances are thread safe.
+ */
+public class SszLazyView {
+
+  private final SszSchema<?> schema;
+  private final Bytes ssz;
+  private volatile SszData materialized;
+  /** Lazily computed [start, end) bounds of variable size children */
+  private volatile int[] childBounds;
+
+  private SszLazyView(final SszSchema<?> schema, final Bytes ssz) {
+    this.schema = schema;
+    this.ssz = ssz;
+  }
+
+  /** Creates a view over {@code ssz} bytes of the {@code schema} type. The bytes are not copied */
+  public static SszLazyView wrap(final SszSchema<?> schema, final Bytes ssz) {
+    final SszLengthBounds bounds = schema.getSszLengthBounds();
+    if (ssz.size() < bounds.getMinBytes() || ssz.size() > bounds.getMaxBytes()) {
+      throw new SszDeserializeException(
+          "SSZ length " + ssz.size() + " is out of bounds " + bounds + " for " + schema);
+    }
+    return new SszLazyView(schema, ssz);
+  }
+
+  /**
+   * Creates a view over remaining bytes of the {@code buffer}. The buffer content is not copied, so
+   * it must not be modified while the view is in use
+   */
+  public static SszLazyView wrap(final SszSchema<?> schema, final ByteBuffer buffer) {
+    return wrap(schema, Bytes.wrapByteBuffer(buffer));
+  }
+
+  public SszSchema<?> getSchema() {
+    return schema;
+  }
+
+  /** Returns the wrapped SSZ bytes */
+  public Bytes sszSerialize() {
+    return ssz;
+  }
+
+  /** Returns the number of children (container fields or collection elements) */
+  public int size() {
+    final SszCompositeSchema<?> compositeSchema = getCompositeSchema();
+    if (!(compositeSchema instanceof SszListSchema)) {
+      return (int) compositeSchema.getMaxLength();
+    }
+    if (isBitPacked()) {
+      return ((SszComposite<?>) materialize()).size();
+    }
+    final SszSchema<?> elementSchema = getElementSchema();
+    if (elementSchema.isFixedSize()) {
+      final int elementSize = elementSchema.getSszFixedPartSize();
+      if (ssz.size() % elementSize != 0) {
+        throw new SszDeserializeException(
+            "SSZ sequence length is not multiple of fixed element size");
+      }
+      return ssz.size() / elementSize;
+    }
+    if (ssz.isEmpty()) {
+      return 0;
+    }
+    // The first offset points just past the offsets of all elements so determines the count
+    final int firstOffset = readOffset(0);
+    if (firstOffset % SSZ_LENGTH_SIZE != 0) {
+      throw new SszDeserializeException("Invalid SSZ: first offset is not multiple of 4");
+    }
+    final int count = firstOffset / SSZ_LENGTH_SIZE;
+    if (count == 0 || count > compositeSchema.getMaxLength()) {
+      throw new SszDeserializeException(
+          "Invalid SSZ: element count "
+              + count
+              + " is out of bounds for list with max length "
+              + compositeSchema.getMaxLength());
+    }
+    return count;
+  }
+
+  /**
+   * Deserializes the child at {@code index} without deserializing its siblings
+   *
+   * @throws IndexOutOfBoundsException if the index is out of bounds
+   * @throws SszDeserializeException if the SSZ of the child is invalid
+   */
+  public SszData get(final int index) {
+    final SszData materialized = this.materialized;
+    if (materialized != null || isBitPacked()) {
+      return ((SszComposite<?>) materialize()).get(index);
+    }
+    return getChildSchema(index).sszDeserialize(getChildSsz(index));
+  }
+
+  /** The same as {@link #get(int)} but resolves the container field by its name */
+  public SszData get(final String fieldName) {
+    return get(getFieldIndex(fieldName));
+  }
+
+  public SszData get(final SszFieldName fieldName) {
+    return get(fieldName.getSszFieldName());
+  }
+
+  /**
+   * Returns a lazy view of the child at {@code index}. Useful to access nested structures without
+   * deserializing them
+   *
+   * @throws IllegalStateException if this is a bitlist or bitvector view
+   */
+  public SszLazyView getView(final int index) {
+    if (isBitPacked()) {
+      throw new IllegalStateException(
+          "Bit packed elements have no SSZ of their own, use get(index) instead: " + schema);
+    }
+    return new SszLazyView(getChildSchema(index), getChildSsz(index));
+  }
+
+  /** The same as {@link #getView(int)} but resolves the container field by its name */
+  public SszLazyView getView(final String fieldName) {
+    return getView(getFieldIndex(fieldName));
+  }
+
+  public SszLazyView getView(final SszFieldName fieldName) {
+    return getView(fieldName.getSszFieldName());
+  }
+
+  /** Materializes the full backing tree (if not yet) and returns its root */
+  public Bytes32 hashTreeRoot() {
+    return materialize().hashTreeRoot();
+  }
+
+  /** Materializes the full backing tree (if not yet) and returns a mutable copy of it */
+  public SszMutableData createWritableCopy() {
+    return materialize().createWritableCopy();
+  }
+
+  /**
+   * Fully deserializes the wrapped SSZ. The result is memoized
+   *
+   * @throws SszDeserializeException if the SSZ is invalid
+   */
+  public SszData materialize() {
+    SszData materialized = this.materialized;
+    if (materialized == null) {
+      materialized = schema.sszDeserialize(ssz);
+      this.materialized = materialized;
+    }
+    return materialized;
+  }
+
+  private int getFieldIndex(final String fieldName) {
+    final SszCompositeSchema<?> compositeSchema = getCompositeSchema();
+    if (!(compositeSchema instanceof SszContainerSchema)) {
+      throw new IllegalStateException("Not a container schema: " + schema);
+    }
+    final int index = ((SszContainerSchema<?>) compositeSchema).getFieldIndex(fieldName);
+    if (index < 0) {
+      throw new IllegalArgumentException("Unknown field " + fieldName + " for " + schema);
+    }
+    return index;
+  }
+
+  private SszCompositeSchema<?> getCompositeSchema() {
+    if (!(schema instanceof SszCompositeSchema)) {
+      throw new IllegalStateException("Not a composite schema: " + schema);
+    }
+    return (SszCompositeSchema<?>) schema;
+  }
+
+  private SszSchema<?> getElementSchema() {
+    return ((SszCollectionSchema<?, ?>) schema).getElementSchema();
+  }
+
+  private SszSchema<?> getChildSchema(final int index) {
+    return getCompositeSchema().getChildSchema(index);
+  }
+
+  /** Bit packed collections (bitlists and bitvectors) are always materialized */
+  private boolean isBitPacked() {
+    if (!(getCompositeSchema() instanceof SszCollectionSchema)) {
+      return false;
+    }
+    final SszSchema<?> elementSchema = getElementSchema();
+    return elementSchema.isPrimitive()
+        && ((SszPrimitiveSchema<?, ?>) elementSchema).getBitsSize() < 8;
+  }
+
+  private Bytes getChildSsz(final int index) {
+    final int size = size();
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          "Invalid index " + index + " for " + schema + " of size " + size);
+    }
+    if (getCompositeSchema() instanceof SszCollectionSchema) {
+      final SszSchema<?> elementSchema = getElementSchema();
+      if (elementSchema.isFixedSize()) {
+        final int elementSize = elementSchema.getSszFixedPartSize();
+        return ssz.slice(index * elementSize, elementSize);
+      }
+    } else {
+      final SszSchema<?> fieldSchema = getChildSchema(index);
+      if (fieldSchema.isFixedSize()) {
+        // fixed size fields don't depend on offsets so are located without checking them
+        return ssz.slice(getFixedPartPosition(index), fieldSchema.getSszFixedPartSize());
+      }
+    }
+    final int[] bounds = getChildBounds();
+    final int start = bounds[2 * index];
+    final int end = bounds[2 * index + 1];
+    return ssz.slice(start, end - start);
+  }
+
+  private int getFixedPartPosition(final int fieldIndex) {
+    int position = 0;
+    for (int i = 0; i < fieldIndex; i++) {
+      final SszSchema<?> fieldSchema = getChildSchema(i);
+      position += fieldSchema.isFixedSize() ? fieldSchema.getSszFixedPartSize() : SSZ_LENGTH_SIZE;
+    }
+    return position;
+  }
+
+  private int[] getChildBounds() {
+    int[] childBounds = this.childBounds;
+    if (childBounds == null) {
+      childBounds =
+          getCompositeSchema() instanceof SszContainerSchema
+              ? computeContainerFieldBounds()
+              : computeVariableElementBounds();
+      this.childBounds = childBounds;
+    }
+    return childBounds;
+  }
+
+  private int[] computeContainerFieldBounds() {
+    final SszContainerSchema<?> containerSchema = (SszContainerSchema<?>) schema;
+    final int fieldsCount = containerSchema.getFieldsCount();
+    final int[] bounds = new int[2 * fieldsCount];
+    final int[] variableFields = new int[fieldsCount];
+    int variableFieldsCount = 0;
+    int fixedPartPosition = 0;
+    for (int i = 0; i < fieldsCount; i++) {
+      final SszSchema<?> fieldSchema = containerSchema.getChildSchema(i);
+      if (fieldSchema.isFixedSize()) {
+        bounds[2 * i] = fixedPartPosition;
+        fixedPartPosition += fieldSchema.getSszFixedPartSize();
+        bounds[2 * i + 1] = fixedPartPosition;
+      } else {
+        bounds[2 * i] = readOffset(fixedPartPosition);
+        fixedPartPosition += SSZ_LENGTH_SIZE;
+        variableFields[variableFieldsCount++] = i;
+      }
+    }
+    if (fixedPartPosition > ssz.size()) {
+      throw new SszDeserializeException("Invalid SSZ: fixed part exceeds the data size");
+    }
+    int prevOffset = fixedPartPosition;
+    for (int j = 0; j < variableFieldsCount; j++) {
+      final int field = variableFields[j];
+      final int start = bounds[2 * field];
+      final int end =
+          j + 1 < variableFieldsCount ? bounds[2 * variableFields[j + 1]] : ssz.size();
+      checkVariablePartBounds(j == 0, prevOffset, start, end);
+      bounds[2 * field + 1] = end;
+      prevOffset = start;
+    }
+    return bounds;
+  }
+
+  private int[] computeVariableElementBounds() {
+    final int count = size();
+    final int[] bounds = new int[2 * count];
+    for (int i = 0; i < count; i++) {
+      bounds[2 * i] = readOffset(i * SSZ_LENGTH_SIZE);
+    }
+    int prevOffset = count * SSZ_LENGTH_SIZE;
+    for (int i = 0; i < count; i++) {
+      final int start = bounds[2 * i];
+      final int end = i + 1 < count ? bounds[2 * i + 2] : ssz.size();
+      checkVariablePartBounds(i == 0, prevOffset, start, end);
+      bounds[2 * i + 1] = end;
+      prevOffset = start;
+    }
+    return bounds;
+  }
+
+  private void checkVariablePartBounds(
+      final boolean first, final int prevOffset, final int start, final int end) {
+    if (first && start != prevOffset) {
+      throw new SszDeserializeException("Invalid SSZ: first offset doesn't match fixed part size");
+    }
+    if (start < prevOffset || start > end || end > ssz.size()) {
+      throw new SszDeserializeException("Invalid SSZ: wrong child offsets");
+    }
+  }
+
+  private int readOffset(final int position) {
+    if (position + SSZ_LENGTH_SIZE > ssz.size()) {
+      throw new SszDeserializeException("Invalid SSZ: trying to read more bytes than available");
+    }
+    return SszType.sszBytesToLength(ssz.slice(position, SSZ_LENGTH_SIZE));
+  }
+
+  @Override
+  public String toString() {
+    return "SszLazyView{schema=" + schema + ", size=" + ssz.size() + "}";
+  }
+}
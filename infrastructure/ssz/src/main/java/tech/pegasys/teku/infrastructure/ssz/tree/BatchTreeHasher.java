@@ -0,0 +1,104 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.crypto.Sha256Batch;
+
+/**
+ * Calculates the hash tree root of a tree level by level instead of recursively node by node.
+ *
+ * <p>All {@link SimpleBranchNode}s without a cached hash (dirty nodes) are first collected and
+ * grouped by their height above the lowest dirty node. Every group is then hashed with a single
+ * {@link Sha256Batch} call starting from the lowest one, so that child roots of every group are
+ * already known when it is hashed. Calculated hashes are memoized in the nodes exactly as {@link
+ * SimpleBranchNode#hashTreeRoot()} does. Other node types (leaves, {@link SszSuperNode}, {@link
+ * LazyBranchNode}) are hashed with their own {@link TreeNode#hashTreeRoot()} implementation.
+ */
+public class BatchTreeHasher {
+
+  private final Sha256Batch sha256Batch;
+  private final Map<SimpleBranchNode, Integer> dirtyNodeHeights = new IdentityHashMap<>();
+  private final List<List<SimpleBranchNode>> dirtyNodesByHeight = new ArrayList<>();
+
+  private BatchTreeHasher(final Sha256Batch sha256Batch) {
+    this.sha256Batch = sha256Batch;
+  }
+
+  public static Bytes32 hashTreeRoot(final TreeNode root) {
+    return hashTreeRoot(root, Sha256Batch.create());
+  }
+
+  public static Bytes32 hashTreeRoot(final TreeNode root, final Sha256Batch sha256Batch) {
+    if (!TreeUtil.isUnhashedBranch(root)) {
+      return root.hashTreeRoot();
+    }
+    final BatchTreeHasher hasher = new BatchTreeHasher(sha256Batch);
+    hasher.collectDirtyNodes(root);
+    hasher.hashCollectedNodes();
+    return root.hashTreeRoot();
+  }
+
+  /** Returns the height of the node above its lowest dirty descendant or -1 if it's not dirty */
+  private int collectDirtyNodes(final TreeNode node) {
+    if (!TreeUtil.isUnhashedBranch(node)) {
+      return -1;
+    }
+    final SimpleBranchNode branchNode = (SimpleBranchNode) node;
+    final Integer knownHeight = dirtyNodeHeights.get(branchNode);
+    if (knownHeight != null) {
+      // the same node instance may be referenced more than once (e.g. default subtrees)
+      return knownHeight;
+    }
+    final int height =
+        Math.max(collectDirtyNodes(branchNode.left()), collectDirtyNodes(branchNode.right())) + 1;
+    dirtyNodeHeights.put(branchNode, height);
+    while (dirtyNodesByHeight.size() <= height) {
+      dirtyNodesByHeight.add(new ArrayList<>());
+    }
+    dirtyNodesByHeight.get(height).add(branchNode);
+    return height;
+  }
+
+  private void hashCollectedNodes() {
+    for (List<SimpleBranchNode> nodes : dirtyNodesByHeight) {
+      final int count = nodes.size();
+      final byte[] input = new byte[count * Sha256Batch.INPUT_SIZE];
+      final byte[] output = new byte[count * Sha256Batch.OUTPUT_SIZE];
+      for (int i = 0; i < count; i++) {
+        final SimpleBranchNode node = nodes.get(i);
+        final int offset = i * Sha256Batch.INPUT_SIZE;
+        copyRoot(node.left().hashTreeRoot(), input, offset);
+        copyRoot(node.right().hashTreeRoot(), input, offset + Bytes32.SIZE);
+      }
+      sha256Batch.digestPairs(input, count, output);
+      for (int i = 0; i < count; i++) {
+        final int offset = i * Sha256Batch.OUTPUT_SIZE;
+        nodes
+            .get(i)
+            .setCachedHash(
+                Bytes32.wrap(Arrays.copyOfRange(output, offset, offset + Sha256Batch.OUTPUT_SIZE)));
+      }
+    }
+  }
+
+  private static void copyRoot(final Bytes32 root, final byte[] target, final int offset) {
+    System.arraycopy(root.toArrayUnsafe(), 0, target, offset, Bytes32.SIZE);
+  }
+}
@@ -13,7 +13,6 @@
 
 package tech.pegasys.teku.infrastructure.ssz.tree;
 
-import com.google.common.base.Suppliers;
 import java.security.MessageDigest;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.Pair;
@@ -25,28 +24,27 @@ public class LazyBranchNode implements BranchNode {
   private final Bytes32 leftRoot;
   private final Bytes32 rightRoot;
 
-  private final Supplier<TreeNode> leftLoader;
-  private final Supplier<TreeNode> rightLoader;
+  private final ChildLoader leftLoader;
+  private final ChildLoader rightLoader;
 
   private LazyBranchNode(
       final Bytes32 hashTreeRoot,
       final Bytes32 leftRoot,
       final Bytes32 rightRoot,
-      final Supplier<TreeNode> leftLoader,
-      final Supplier<TreeNode> rightLoader) {
+      final ChildLoader leftLoader,
+      final ChildLoader rightLoader) {
     this.cachedHash = hashTreeRoot;
     this.leftRoot = leftRoot;
     this.rightRoot = rightRoot;
-
-    this.leftLoader = Suppliers.memoize(leftLoader::get);
-    this.rightLoader = Suppliers.memoize(rightLoader::get);
+    this.leftLoader = leftLoader;
+    this.rightLoader = rightLoader;
   }
 
   private LazyBranchNode(
       final Bytes32 leftRoot,
       final Bytes32 rightRoot,
-      final Supplier<TreeNode> leftLoader,
-      final Supplier<TreeNode> rightLoader) {
+      final ChildLoader leftLoader,
+      final ChildLoader rightLoader) {
     this.leftRoot = leftRoot;
     this.rightRoot = rightRoot;
     this.leftLoader = leftLoader;
@@ -59,7 +57,12 @@ public class LazyBranchNode implements BranchNode {
       final Bytes32 rightRoot,
       final Supplier<TreeNode> leftLoader,
       final Supplier<TreeNode> rightLoader) {
-    return new LazyBranchNode(hashTreeRoot, leftRoot, rightRoot, leftLoader, rightLoader);
+    return new LazyBranchNode(
+        hashTreeRoot,
+        leftRoot,
+        rightRoot,
+        new ChildLoader(leftLoader),
+        new ChildLoader(rightLoader));
   }
 
   public static LazyBranchNode createWithUnknownHash(
@@ -68,10 +71,7 @@ public class LazyBranchNode implements BranchNode {
       final Supplier<TreeNode> leftLoader,
       final Supplier<TreeNode> rightLoader) {
     return new LazyBranchNode(
-        leftRoot,
-        rightRoot,
-        Suppliers.memoize(leftLoader::get),
-        Suppliers.memoize(rightLoader::get));
+        leftRoot, rightRoot, new ChildLoader(leftLoader), new ChildLoader(rightLoader));
   }
 
   @Override
@@ -84,11 +84,23 @@ public class LazyBranchNode implements BranchNode {
     return rightLoader.get();
   }
 
+  /** Returns the left child if it was already loaded or {@code null} otherwise */
+  TreeNode getLoadedLeft() {
+    return leftLoader.getIfLoaded();
+  }
+
+  /** Returns the right child if it was already loaded or {@code null} otherwise */
+  TreeNode getLoadedRight() {
+    return rightLoader.getIfLoaded();
+  }
+
   @Override
   public BranchNode rebind(final boolean left, final TreeNode newNode) {
     return left
-        ? new LazyBranchNode(newNode.hashTreeRoot(), rightRoot, () -> newNode, rightLoader)
-        : new LazyBranchNode(leftRoot, newNode.hashTreeRoot(), leftLoader, () -> newNode);
+        ? new LazyBranchNode(
+            newNode.hashTreeRoot(), rightRoot, ChildLoader.loaded(newNode), rightLoader)
+        : new LazyBranchNode(
+            leftRoot, newNode.hashTreeRoot(), leftLoader, ChildLoader.loaded(newNode));
   }
 
   @Override
@@ -125,4 +137,39 @@ public class LazyBranchNode implements BranchNode {
           left().updated(children.getLeft()), right().updated(children.getRight()));
     }
   }
+
+  /** Memoizing child supplier which can tell whether the child was already loaded */
+  private static class ChildLoader implements Supplier<TreeNode> {
+    private final Supplier<TreeNode> loader;
+    private volatile TreeNode node;
+
+    private ChildLoader(final Supplier<TreeNode> loader) {
+      this.loader = loader;
+    }
+
+    static ChildLoader loaded(final TreeNode node) {
+      final ChildLoader childLoader = new ChildLoader(() -> node);
+      childLoader.node = node;
+      return childLoader;
+    }
+
+    @Override
+    public TreeNode get() {
+      TreeNode node = this.node;
+      if (node == null) {
+        synchronized (this) {
+          node = this.node;
+          if (node == null) {
+            node = loader.get();
+            this.node = node;
+          }
+        }
+      }
+      return node;
+    }
+
+    TreeNode getIfLoaded() {
+      return node;
+    }
+  }
 }
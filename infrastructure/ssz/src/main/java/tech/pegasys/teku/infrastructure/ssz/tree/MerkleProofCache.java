@@ -0,0 +1,79 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.collections.cache.Cache;
+import tech.pegasys.teku.infrastructure.collections.cache.LRUCache;
+
+/**
+ * LRU cache of merkle multiproofs keyed by the tree root and the set of proven generalized indices.
+ * Trees are immutable so the same root and indices always yield the same proof, and repeated
+ * requests for the same state (e.g. light client bootstraps) don't need to walk the tree again.
+ */
+public class MerkleProofCache {
+
+  private final Cache<ProofKey, List<Bytes32>> cache;
+
+  public MerkleProofCache(final int capacity) {
+    this.cache = LRUCache.create(capacity);
+  }
+
+  /** Returns the same as {@link MerkleUtil#constructMerkleProof(TreeNode, long)} */
+  public List<Bytes32> getProof(final TreeNode root, final long generalizedIndex) {
+    return getMultiproof(root, LongList.of(generalizedIndex));
+  }
+
+  /** Returns the same as {@link MerkleUtil#constructMerkleMultiproof(TreeNode, LongCollection)} */
+  public List<Bytes32> getMultiproof(final TreeNode root, final LongCollection generalizedIndices) {
+    final long[] sortedIndices = new LongOpenHashSet(generalizedIndices).toLongArray();
+    Arrays.sort(sortedIndices);
+    return cache.get(
+        new ProofKey(root.hashTreeRoot(), sortedIndices),
+        __ -> MerkleUtil.constructMerkleMultiproof(root, generalizedIndices));
+  }
+
+  private static class ProofKey {
+    private final Bytes32 root;
+    private final long[] sortedIndices;
+
+    private ProofKey(final Bytes32 root, final long[] sortedIndices) {
+      this.root = root;
+      this.sortedIndices = sortedIndices;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final ProofKey proofKey = (ProofKey) o;
+      return root.equals(proofKey.root) && Arrays.equals(sortedIndices, proofKey.sortedIndices);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hash(root) + Arrays.hashCode(sortedIndices);
+    }
+  }
+}
@@ -13,14 +13,28 @@
 
 package tech.pegasys.teku.infrastructure.ssz.tree;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Queue;
+import java.util.TreeMap;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.crypto.Hash;
 
 public class MerkleUtil {
 
@@ -34,29 +48,165 @@ public class MerkleUtil {
       // Nothing to prove or invalid index.
       return Collections.emptyList();
     }
-    // Path represented by generalized indices.
-    List<Long> rootToLeafPath = getPathToNode(leafGeneralizedIndex);
-
-    // The sibling of every node along the path is part of the proof.
-    List<Bytes32> proof = new ArrayList<>();
-
-    for (int i = 0; i < rootToLeafPath.size() - 1; i++) {
-      long currentNodeIndex = rootToLeafPath.get(i);
-      long nextNodeIndex = rootToLeafPath.get(i + 1);
-
-      if (GIndexUtil.gIdxLeftGIndex(currentNodeIndex) == nextNodeIndex) {
-        // Next node is left, so the right node is in the proof.
-        proof.add(root.get(GIndexUtil.gIdxRightGIndex(currentNodeIndex)).hashTreeRoot());
-      } else if (GIndexUtil.gIdxRightGIndex(currentNodeIndex) == nextNodeIndex) {
-        // Next node is right, so the left node is in the proof.
-        proof.add(root.get(GIndexUtil.gIdxLeftGIndex(currentNodeIndex)).hashTreeRoot());
+    // For a single leaf the multiproof helpers are exactly the siblings along the path ordered
+    // from the leaf to the root
+    return constructMerkleMultiproof(root, LongList.of(leafGeneralizedIndex));
+  }
+
+  /**
+   * Returns the merkle multiproof for the nodes at the given generalized indices, i.e. the roots of
+   * the helper nodes in the order of {@link #getHelperIndices(LongCollection)}. See
+   * https://github.com/ethereum/consensus-specs/blob/dev/ssz/merkle-proofs.md#merkle-multiproofs
+   *
+   * <p>The tree is walked once, descending only along the paths to the requested nodes. Helper
+   * roots are taken from the tree nodes so already hashed subtrees are not rehashed.
+   */
+  public static List<Bytes32> constructMerkleMultiproof(
+      TreeNode root, LongCollection generalizedIndices) {
+    checkArgument(
+        generalizedIndices.longStream().allMatch(idx -> idx >= GIndexUtil.SELF_G_INDEX),
+        "Invalid generalized indices: %s",
+        generalizedIndices);
+    final NavigableMap<Long, Bytes32> helpers = new TreeMap<>(Comparator.reverseOrder());
+    collectMultiproofHelpers(
+        root, GIndexUtil.SELF_G_INDEX, new LongArrayList(generalizedIndices), helpers);
+    return List.copyOf(helpers.values());
+  }
+
+  private static void collectMultiproofHelpers(
+      TreeNode node, long nodeIndex, LongList targetIndices, Map<Long, Bytes32> helpers) {
+    final int nodeDepth = GIndexUtil.gIdxGetDepth(nodeIndex);
+    final LongList leftTargets = new LongArrayList();
+    final LongList rightTargets = new LongArrayList();
+    for (int i = 0; i < targetIndices.size(); i++) {
+      final long targetIndex = targetIndices.getLong(i);
+      final int targetDepth = GIndexUtil.gIdxGetDepth(targetIndex);
+      if (targetDepth == nodeDepth) {
+        // this node itself is proven
+        continue;
+      }
+      final long childIndex = targetIndex >>> (targetDepth - nodeDepth - 1);
+      if (childIndex == GIndexUtil.gIdxLeftGIndex(nodeIndex)) {
+        leftTargets.add(targetIndex);
       } else {
-        throw new IllegalArgumentException("Invalid path from root to leaf: " + rootToLeafPath);
+        rightTargets.add(targetIndex);
+      }
+    }
+    if (leftTargets.isEmpty() && rightTargets.isEmpty()) {
+      return;
+    }
+    collectChildMultiproofHelpers(
+        node.get(GIndexUtil.LEFT_CHILD_G_INDEX),
+        GIndexUtil.gIdxLeftGIndex(nodeIndex),
+        leftTargets,
+        helpers);
+    collectChildMultiproofHelpers(
+        node.get(GIndexUtil.RIGHT_CHILD_G_INDEX),
+        GIndexUtil.gIdxRightGIndex(nodeIndex),
+        rightTargets,
+        helpers);
+  }
+
+  private static void collectChildMultiproofHelpers(
+      TreeNode child, long childIndex, LongList targetIndices, Map<Long, Bytes32> helpers) {
+    if (targetIndices.isEmpty()) {
+      // the sibling of a node on a proven path which is not on a proven path itself
+      helpers.put(childIndex, child.hashTreeRoot());
+    } else {
+      collectMultiproofHelpers(child, childIndex, targetIndices, helpers);
+    }
+  }
+
+  /**
+   * Returns the generalized indices of the helper nodes required to prove the nodes at the given
+   * generalized indices, sorted in descending order
+   */
+  public static LongList getHelperIndices(LongCollection generalizedIndices) {
+    final LongSet helperIndices = new LongOpenHashSet();
+    final LongSet pathIndices = new LongOpenHashSet();
+    generalizedIndices.forEach(
+        (long index) -> {
+          for (long idx = index; idx > GIndexUtil.SELF_G_INDEX; idx >>>= 1) {
+            helperIndices.add(idx ^ 1);
+            pathIndices.add(idx);
+          }
+        });
+    helperIndices.removeAll(pathIndices);
+    return sortDescending(helperIndices);
+  }
+
+  private static LongList sortDescending(LongCollection indices) {
+    final long[] sortedIndices = indices.toLongArray();
+    Arrays.sort(sortedIndices);
+    final LongList result = new LongArrayList(sortedIndices.length);
+    for (int i = sortedIndices.length - 1; i >= 0; i--) {
+      result.add(sortedIndices[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Calculates the root of the tree from the proven nodes (leaves) at the given generalized indices
+   * and the multiproof helper nodes as returned by {@link #constructMerkleMultiproof(TreeNode,
+   * LongCollection)}
+   *
+   * @throws IllegalArgumentException if the proof doesn't match the generalized indices
+   */
+  public static Bytes32 calculateMultiMerkleRoot(
+      List<Bytes32> leaves, List<Bytes32> proof, LongList generalizedIndices) {
+    checkArgument(
+        leaves.size() == generalizedIndices.size(),
+        "Leaves count %s doesn't match indices count %s",
+        leaves.size(),
+        generalizedIndices.size());
+    final LongList helperIndices = getHelperIndices(generalizedIndices);
+    checkArgument(
+        proof.size() == helperIndices.size(),
+        "Proof size %s doesn't match helper indices count %s",
+        proof.size(),
+        helperIndices.size());
+
+    final Map<Long, Bytes32> nodes = new HashMap<>();
+    for (int i = 0; i < generalizedIndices.size(); i++) {
+      nodes.put(generalizedIndices.getLong(i), leaves.get(i));
+    }
+    for (int i = 0; i < helperIndices.size(); i++) {
+      nodes.put(helperIndices.getLong(i), proof.get(i));
+    }
+    final LongList keys = sortDescending(new LongArrayList(nodes.keySet()));
+    for (int pos = 0; pos < keys.size(); pos++) {
+      final long index = keys.getLong(pos);
+      final long parentIndex = index >>> 1;
+      if (index > GIndexUtil.SELF_G_INDEX
+          && nodes.containsKey(index ^ 1)
+          && !nodes.containsKey(parentIndex)) {
+        final long leftIndex = index & ~1L;
+        nodes.put(parentIndex, Hash.sha256(nodes.get(leftIndex), nodes.get(leftIndex | 1)));
+        keys.add(parentIndex);
       }
     }
+    final Bytes32 root = nodes.get(GIndexUtil.SELF_G_INDEX);
+    checkArgument(root != null, "Insufficient nodes to calculate the root");
+    return root;
+  }
 
-    Collections.reverse(proof);
-    return Collections.unmodifiableList(proof);
+  /**
+   * Verifies the merkle multiproof of the nodes (leaves) at the given generalized indices against
+   * the expected tree root. A malformed proof (e.g. truncated or with invalid indices) is reported
+   * as not verified rather than throwing
+   */
+  public static boolean verifyMerkleMultiproof(
+      List<Bytes32> leaves, List<Bytes32> proof, LongList generalizedIndices, Bytes32 root) {
+    if (generalizedIndices.isEmpty()
+        || leaves.size() != generalizedIndices.size()
+        || proof.size() != getHelperIndices(generalizedIndices).size()) {
+      return false;
+    }
+    try {
+      return calculateMultiMerkleRoot(leaves, proof, generalizedIndices).equals(root);
+    } catch (final IllegalArgumentException e) {
+      return false;
+    }
   }
 
   /**
@@ -0,0 +1,92 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Calculates the hash tree root of a tree splitting dirty subtrees across a {@link ForkJoinPool}.
+ *
+ * <p>Descending from the root, every branch node whose both children are dirty (i.e. their hashes
+ * are not calculated yet) forks hashing of the left subtree and hashes the right one in the
+ * current task. A node with a single dirty child doesn't consume the split budget, so the dirty
+ * path is followed down to the point where the modified subtrees actually diverge. Once {@code
+ * splitDepth} forks were made on a path the remaining subtree is hashed sequentially.
+ *
+ * <p>Hashes are memoized in the tree nodes exactly as with sequential {@link
+ * TreeNode#hashTreeRoot()}, so the result is shared with any later callers.
+ */
+public class ParallelTreeHasher {
+
+  /** Allows up to 2^N concurrent subtree tasks which is enough to saturate typical CPU counts */
+  public static final int DEFAULT_SPLIT_DEPTH = 6;
+
+  public static Bytes32 hashTreeRoot(final TreeNode root) {
+    return hashTreeRoot(root, ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+  }
+
+  public static Bytes32 hashTreeRoot(
+      final TreeNode root, final ForkJoinPool pool, final int splitDepth) {
+    checkArgument(splitDepth >= 0, "Split depth should be non-negative: %s", splitDepth);
+    if (splitDepth > 0 && TreeUtil.isUnhashedBranch(root)) {
+      pool.invoke(new HashTask(root, splitDepth));
+    }
+    return root.hashTreeRoot();
+  }
+
+  private static class HashTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient TreeNode node;
+    private final int remainingSplits;
+
+    private HashTask(final TreeNode node, final int remainingSplits) {
+      this.node = node;
+      this.remainingSplits = remainingSplits;
+    }
+
+    @Override
+    protected void compute() {
+      hash(node, remainingSplits);
+    }
+
+    @SuppressWarnings("ReferenceComparison")
+    private static void hash(final TreeNode node, final int remainingSplits) {
+      if (remainingSplits > 0 && TreeUtil.isUnhashedBranch(node)) {
+        final BranchNode branchNode = (BranchNode) node;
+        final TreeNode left = branchNode.left();
+        final TreeNode right = branchNode.right();
+        final boolean leftDirty = TreeUtil.isUnhashedBranch(left);
+        final boolean rightDirty = TreeUtil.isUnhashedBranch(right);
+        if (leftDirty && rightDirty && left != right) {
+          final HashTask leftTask = new HashTask(left, remainingSplits - 1);
+          leftTask.fork();
+          hash(right, remainingSplits - 1);
+          leftTask.join();
+        } else if (leftDirty) {
+          hash(left, remainingSplits);
+        } else if (rightDirty) {
+          hash(right, remainingSplits);
+        }
+      }
+      // children are already hashed here (unless the split budget is exhausted),
+      // so this calculates and memoizes only the hash of the node itself
+      node.hashTreeRoot();
+    }
+  }
+}
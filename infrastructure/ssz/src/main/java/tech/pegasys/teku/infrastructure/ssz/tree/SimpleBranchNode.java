@@ -76,6 +76,15 @@ class SimpleBranchNode implements BranchNode, TreeNode {
     return cachedHash;
   }
 
+  /** Returns the memoized hash or {@code null} if it was not calculated yet */
+  Bytes32 getCachedHash() {
+    return cachedHash;
+  }
+
+  void setCachedHash(final Bytes32 hash) {
+    this.cachedHash = hash;
+  }
+
   @Override
   @SuppressWarnings("ReferenceComparison")
   public String toString() {
@@ -0,0 +1,374 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.nio.ByteOrder;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.jetbrains.annotations.NotNull;
+import tech.pegasys.teku.infrastructure.crypto.MessageDigestFactory;
+import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil.NodeRelation;
+
+/**
+ * Stores consecutive packed <code>uint64</code> values as a plain <code>long[]</code> array
+ * instead of a subtree of {@link LeafNode}s (4 values per leaf) and {@link BranchNode}s.
+ *
+ * <p>This node represents a subtree of binary merkle tree with <code>2 ^ depth</code> leaf chunks,
+ * i.e. up to <code>4 * 2 ^ depth</code> values. If the node contains less values, the remaining
+ * ones are treated as zero leaves (what matches the SSZ merkleization of a list).
+ *
+ * <p>Hashes of the internal branches are calculated lazily and kept in a flat byte array. On update
+ * the values and the cached hashes are copied and only the hashes on paths from the updated chunks
+ * to the node root are invalidated, so a subsequent {@link #hashTreeRoot()} only rehashes those
+ * paths.
+ *
+ * <p>Unlike {@link SszSuperNode} this node favors frequently updated structures with small
+ * elements (e.g. Eth2 <code>BeaconState.balances</code> and <code>inactivity_scores</code>)
+ */
+public class SszPackedUInt64Node implements TreeNode, LeafDataNode {
+  public static final int VALUES_PER_CHUNK = 4;
+  private static final int VALUE_SIZE = Long.BYTES;
+  private static final int HASH_SIZE = Bytes32.SIZE;
+
+  private final int depth;
+  private final long[] values;
+  /**
+   * Hashes of internal branch nodes indexed by their local generalized index (1 ..
+   * 2^depth-1). All-zero entry means the hash is not calculated yet. Guarded by {@code this}
+   */
+  private final byte[] branchHashes;
+
+  private volatile Bytes32 cachedHash;
+
+  public SszPackedUInt64Node(final int depth, final long[] values) {
+    this(depth, values, null);
+  }
+
+  private SszPackedUInt64Node(final int depth, final long[] values, final byte[] branchHashes) {
+    checkArgument(depth >= 0 && depth < 24, "Invalid depth: %s", depth);
+    checkArgument(
+        values.length <= getMaxValues(depth),
+        "Too many values (%s) for node of depth %s",
+        values.length,
+        depth);
+    this.depth = depth;
+    this.values = values;
+    this.branchHashes =
+        branchHashes != null ? branchHashes : new byte[((1 << depth) - 1) * HASH_SIZE];
+  }
+
+  /** Creates the node from the SSZ bytes of consecutive little-endian uint64 values */
+  public static SszPackedUInt64Node fromSsz(final int depth, final Bytes ssz) {
+    checkArgument(ssz.size() % VALUE_SIZE == 0, "SSZ size is not multiple of uint64 size");
+    final long[] values = new long[ssz.size() / VALUE_SIZE];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = ssz.getLong(i * VALUE_SIZE, ByteOrder.LITTLE_ENDIAN);
+    }
+    return new SszPackedUInt64Node(depth, values);
+  }
+
+  private static int getMaxValues(final int depth) {
+    return VALUES_PER_CHUNK << depth;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getValuesCount() {
+    return values.length;
+  }
+
+  public long getValue(final int index) {
+    return values[index];
+  }
+
+  @Override
+  public Bytes32 hashTreeRoot() {
+    Bytes32 cachedHash = this.cachedHash;
+    if (cachedHash == null) {
+      cachedHash = calcHashTreeRoot(MessageDigestFactory.createSha256());
+      this.cachedHash = cachedHash;
+    }
+    return cachedHash;
+  }
+
+  @Override
+  public Bytes32 hashTreeRoot(final MessageDigest messageDigest) {
+    Bytes32 cachedHash = this.cachedHash;
+    if (cachedHash == null) {
+      cachedHash = calcHashTreeRoot(messageDigest);
+      this.cachedHash = cachedHash;
+    }
+    return cachedHash;
+  }
+
+  private synchronized Bytes32 calcHashTreeRoot(final MessageDigest messageDigest) {
+    if (depth == 0) {
+      return Bytes32.wrap(chunkBytes(0));
+    }
+    final byte[] scratch = new byte[2 * HASH_SIZE];
+    try {
+      hashBranch(1, 0, messageDigest, scratch);
+    } catch (final DigestException e) {
+      throw new IllegalStateException("Failed to calculate SHA-256 digest", e);
+    }
+    return Bytes32.wrap(Arrays.copyOf(branchHashes, HASH_SIZE));
+  }
+
+  /**
+   * Ensures the hash of the internal node with local generalized index {@code gIndex} at {@code
+   * level} (0 is the node root) is calculated
+   */
+  private void hashBranch(
+      final int gIndex, final int level, final MessageDigest messageDigest, final byte[] scratch)
+      throws DigestException {
+    final int hashOffset = (gIndex - 1) * HASH_SIZE;
+    if (!isZero(branchHashes, hashOffset)) {
+      return;
+    }
+    final int subtreeDepth = depth - level;
+    final int firstChunkIndex = (gIndex - (1 << level)) << subtreeDepth;
+    if (firstChunkIndex * VALUES_PER_CHUNK >= values.length) {
+      // the whole subtree is beyond the stored values
+      System.arraycopy(
+          TreeUtil.ZERO_TREES[subtreeDepth].hashTreeRoot().toArrayUnsafe(),
+          0,
+          branchHashes,
+          hashOffset,
+          HASH_SIZE);
+      return;
+    }
+    final int leftGIndex = gIndex << 1;
+    if (subtreeDepth == 1) {
+      // children are leaf chunks
+      writeChunk(firstChunkIndex, scratch, 0);
+      writeChunk(firstChunkIndex + 1, scratch, HASH_SIZE);
+    } else {
+      hashBranch(leftGIndex, level + 1, messageDigest, scratch);
+      hashBranch(leftGIndex + 1, level + 1, messageDigest, scratch);
+      System.arraycopy(branchHashes, (leftGIndex - 1) * HASH_SIZE, scratch, 0, 2 * HASH_SIZE);
+    }
+    messageDigest.update(scratch, 0, 2 * HASH_SIZE);
+    messageDigest.digest(branchHashes, hashOffset, HASH_SIZE);
+  }
+
+  private static boolean isZero(final byte[] bytes, final int offset) {
+    for (int i = offset; i < offset + HASH_SIZE; i++) {
+      if (bytes[i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Writes the chunk as a zero right padded 32 bytes little-endian leaf */
+  private void writeChunk(final int chunkIndex, final byte[] target, final int offset) {
+    Arrays.fill(target, offset, offset + HASH_SIZE, (byte) 0);
+    final int start = chunkIndex * VALUES_PER_CHUNK;
+    final int end = Math.min(start + VALUES_PER_CHUNK, values.length);
+    for (int i = start; i < end; i++) {
+      writeLittleEndian(values[i], target, offset + (i - start) * VALUE_SIZE);
+    }
+  }
+
+  private static void writeLittleEndian(final long value, final byte[] target, final int offset) {
+    for (int i = 0; i < VALUE_SIZE; i++) {
+      target[offset + i] = (byte) (value >>> (i * 8));
+    }
+  }
+
+  private int getChunkValuesCount(final int chunkIndex) {
+    return Math.max(0, Math.min(VALUES_PER_CHUNK, values.length - chunkIndex * VALUES_PER_CHUNK));
+  }
+
+  private byte[] chunkBytes(final int chunkIndex) {
+    final byte[] chunk = new byte[HASH_SIZE];
+    writeChunk(chunkIndex, chunk, 0);
+    return chunk;
+  }
+
+  private LeafNode getChunkLeaf(final int chunkIndex) {
+    final int count = getChunkValuesCount(chunkIndex);
+    if (count == 0) {
+      return LeafNode.EMPTY_LEAF;
+    }
+    return LeafNode.create(Bytes.wrap(chunkBytes(chunkIndex), 0, count * VALUE_SIZE));
+  }
+
+  @NotNull
+  @Override
+  public TreeNode get(final long generalizedIndex) {
+    if (GIndexUtil.gIdxIsSelf(generalizedIndex)) {
+      return this;
+    }
+    final int targetDepth = GIndexUtil.gIdxGetDepth(generalizedIndex);
+    if (targetDepth >= depth) {
+      final int chunkIndex = GIndexUtil.gIdxGetChildIndex(generalizedIndex, depth);
+      return getChunkLeaf(chunkIndex)
+          .get(GIndexUtil.gIdxGetRelativeGIndex(generalizedIndex, depth));
+    }
+    // internal node: return a packed node of the corresponding subrange
+    final int subDepth = depth - targetDepth;
+    final int subIndex = GIndexUtil.gIdxGetChildIndex(generalizedIndex, targetDepth);
+    final int start = Math.min(values.length, subIndex * getMaxValues(subDepth));
+    final int end = Math.min(values.length, start + getMaxValues(subDepth));
+    return new SszPackedUInt64Node(
+        subDepth,
+        Arrays.copyOfRange(values, start, end),
+        copySubtreeBranchHashes((int) generalizedIndex, subDepth));
+  }
+
+  /**
+   * Copies the hashes of the internal branches of the subtree with the local generalized index
+   * {@code subtreeGIndex} so the returned node doesn't need to rehash what is already calculated
+   */
+  private synchronized byte[] copySubtreeBranchHashes(
+      final int subtreeGIndex, final int subtreeDepth) {
+    final byte[] subtreeHashes = new byte[((1 << subtreeDepth) - 1) * HASH_SIZE];
+    for (int level = 0; level < subtreeDepth; level++) {
+      final int levelWidth = 1 << level;
+      System.arraycopy(
+          branchHashes,
+          ((subtreeGIndex << level) - 1) * HASH_SIZE,
+          subtreeHashes,
+          (levelWidth - 1) * HASH_SIZE,
+          levelWidth * HASH_SIZE);
+    }
+    return subtreeHashes;
+  }
+
+  @Override
+  public boolean iterate(
+      final long thisGeneralizedIndex,
+      final long startGeneralizedIndex,
+      final TreeVisitor visitor) {
+    if (GIndexUtil.gIdxCompare(thisGeneralizedIndex, startGeneralizedIndex) == NodeRelation.LEFT) {
+      return true;
+    } else {
+      return visitor.visit(this, thisGeneralizedIndex);
+    }
+  }
+
+  @Override
+  public TreeNode updated(final TreeUpdates newNodes) {
+    if (newNodes.isEmpty()) {
+      return this;
+    }
+    for (int i = 0; i < newNodes.size(); i++) {
+      if (GIndexUtil.gIdxGetDepth(newNodes.getRelativeGIndex(i)) != depth
+          || !(newNodes.getNode(i) instanceof LeafDataNode)) {
+        // not a chunk update: fall back to the regular tree representation
+        return toBinaryTree().updated(newNodes);
+      }
+    }
+
+    final Int2IntMap updatedChunkValues = new Int2IntOpenHashMap(newNodes.size());
+    int newValuesCount = values.length;
+    for (int i = 0; i < newNodes.size(); i++) {
+      final int chunkIndex = GIndexUtil.gIdxGetChildIndex(newNodes.getRelativeGIndex(i), depth);
+      final int chunkValues =
+          ((LeafDataNode) newNodes.getNode(i)).getData().size() / VALUE_SIZE;
+      updatedChunkValues.put(chunkIndex, chunkValues);
+      if (chunkValues > 0) {
+        newValuesCount = Math.max(newValuesCount, chunkIndex * VALUES_PER_CHUNK + chunkValues);
+      }
+    }
+    newValuesCount = trimTrailingChunks(newValuesCount, updatedChunkValues);
+
+    final long[] newValues = Arrays.copyOf(values, newValuesCount);
+    final byte[] newBranchHashes;
+    synchronized (this) {
+      newBranchHashes = branchHashes.clone();
+    }
+    for (int i = 0; i < newNodes.size(); i++) {
+      final long relativeGIndex = newNodes.getRelativeGIndex(i);
+      final int chunkIndex = GIndexUtil.gIdxGetChildIndex(relativeGIndex, depth);
+      final Bytes data = ((LeafDataNode) newNodes.getNode(i)).getData();
+      checkArgument(data.size() % VALUE_SIZE == 0, "Invalid uint64 chunk size: %s", data.size());
+      final int start = chunkIndex * VALUES_PER_CHUNK;
+      for (int j = 0; j < VALUES_PER_CHUNK; j++) {
+        if (start + j < newValuesCount) {
+          newValues[start + j] =
+              j * VALUE_SIZE < data.size()
+                  ? data.getLong(j * VALUE_SIZE, ByteOrder.LITTLE_ENDIAN)
+                  : 0;
+        }
+      }
+      invalidatePath((int) relativeGIndex, newBranchHashes);
+    }
+    return new SszPackedUInt64Node(depth, newValues, newBranchHashes);
+  }
+
+  /**
+   * Drops the trailing values which were cut off by updated chunks (e.g. when the list is
+   * truncated the last chunks are replaced with shorter or empty leaves)
+   */
+  private static int trimTrailingChunks(int valuesCount, final Int2IntMap updatedChunkValues) {
+    while (valuesCount > 0) {
+      final int lastChunkIndex = (valuesCount - 1) / VALUES_PER_CHUNK;
+      if (!updatedChunkValues.containsKey(lastChunkIndex)) {
+        break;
+      }
+      final int chunkEnd =
+          lastChunkIndex * VALUES_PER_CHUNK + updatedChunkValues.get(lastChunkIndex);
+      if (chunkEnd >= valuesCount) {
+        break;
+      }
+      valuesCount = chunkEnd;
+    }
+    return valuesCount;
+  }
+
+  private static void invalidatePath(final int leafLocalGIndex, final byte[] branchHashes) {
+    for (int gIndex = leafLocalGIndex >>> 1; gIndex >= 1; gIndex >>>= 1) {
+      final int offset = (gIndex - 1) * HASH_SIZE;
+      Arrays.fill(branchHashes, offset, offset + HASH_SIZE, (byte) 0);
+    }
+  }
+
+  /** Converts this node to the equivalent subtree of regular branch and leaf nodes */
+  public TreeNode toBinaryTree() {
+    final int chunksCount = (values.length + VALUES_PER_CHUNK - 1) / VALUES_PER_CHUNK;
+    final List<LeafNode> leaves = new ArrayList<>(chunksCount);
+    for (int i = 0; i < chunksCount; i++) {
+      leaves.add(getChunkLeaf(i));
+    }
+    return TreeUtil.createTree(leaves, depth);
+  }
+
+  /** Returns SSZ bytes of contained values */
+  @Override
+  public Bytes getData() {
+    final byte[] ssz = new byte[values.length * VALUE_SIZE];
+    for (int i = 0; i < values.length; i++) {
+      writeLittleEndian(values[i], ssz, i * VALUE_SIZE);
+    }
+    return Bytes.wrap(ssz);
+  }
+
+  @Override
+  public String toString() {
+    return "SszPackedUInt64Node{depth=" + depth + ", values=" + Arrays.toString(values) + "}";
+  }
+}
@@ -58,6 +58,11 @@ public class SszSuperNode implements TreeNode, LeafDataNode {
     checkArgument(getElementsCount() <= getMaxElements());
   }
 
+  /** Returns the node with the same depth and element template but with another content */
+  SszSuperNode withSsz(Bytes newSsz) {
+    return new SszSuperNode(depth, elementTemplate, newSsz);
+  }
+
   private int getMaxElements() {
     return 1 << depth;
   }
@@ -0,0 +1,267 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The compact difference between two trees of the same structure (e.g. two states of the same
+ * schema): the list of changed data nodes ({@link LeafNode}s, {@link SszSuperNode}s and {@link
+ * SszPackedUInt64Node}s) with their generalized indices and new content.
+ *
+ * <p>The diff is created by walking both trees simultaneously and skipping the shared subtrees, so
+ * the diff between trees sharing most of their nodes (e.g. a state and a state derived from it) is
+ * cheap to compute. Subtrees are compared by identity and leaves by their data rather than by hash:
+ * equal hashes don't imply equal leaf data (e.g. when a zero element is appended to a list the last
+ * chunk hash stays the same while its data grows). Applying the diff updates just the changed
+ * nodes, so the result shares all unchanged subtrees with the base tree.
+ *
+ * <p>The type of the data node to be created on {@link #apply(TreeNode)} is taken from the node
+ * which is replaced in the base tree, so the diff doesn't need to carry any schema information.
+ */
+public class TreeDiff {
+  private static final int ROOTS_SIZE = 2 * Bytes32.SIZE;
+  private static final int ENTRY_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+
+  private final Bytes32 baseRoot;
+  private final Bytes32 targetRoot;
+  private final LongList gIndices;
+  private final List<Bytes> nodesData;
+
+  private TreeDiff(
+      final Bytes32 baseRoot,
+      final Bytes32 targetRoot,
+      final LongList gIndices,
+      final List<Bytes> nodesData) {
+    checkArgument(gIndices.size() == nodesData.size(), "Indices and data sizes don't match");
+    this.baseRoot = baseRoot;
+    this.targetRoot = targetRoot;
+    this.gIndices = gIndices;
+    this.nodesData = nodesData;
+  }
+
+  /**
+   * Creates the diff which transforms the {@code base} tree into the {@code target} tree
+   *
+   * @throws IllegalArgumentException if the trees have different structure
+   */
+  public static TreeDiff create(final TreeNode base, final TreeNode target) {
+    final LongList gIndices = new LongArrayList();
+    final List<Bytes> nodesData = new ArrayList<>();
+    collectDiff(base, target, GIndexUtil.SELF_G_INDEX, gIndices, nodesData);
+    return new TreeDiff(base.hashTreeRoot(), target.hashTreeRoot(), gIndices, nodesData);
+  }
+
+  private static void collectDiff(
+      final TreeNode base,
+      final TreeNode target,
+      final long gIndex,
+      final LongList gIndices,
+      final List<Bytes> nodesData) {
+    if (base == target) {
+      return;
+    }
+    if (base instanceof BranchNode && target instanceof BranchNode) {
+      final BranchNode baseBranch = (BranchNode) base;
+      final BranchNode targetBranch = (BranchNode) target;
+      collectDiff(
+          baseBranch.left(),
+          targetBranch.left(),
+          GIndexUtil.gIdxLeftGIndex(gIndex),
+          gIndices,
+          nodesData);
+      collectDiff(
+          baseBranch.right(),
+          targetBranch.right(),
+          GIndexUtil.gIdxRightGIndex(gIndex),
+          gIndices,
+          nodesData);
+    } else if (isSameDataNodeType(base, target)) {
+      final Bytes targetData = ((LeafDataNode) target).getData();
+      if (!((LeafDataNode) base).getData().equals(targetData)) {
+        gIndices.add(gIndex);
+        nodesData.add(targetData);
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Trees have different structure at generalized index " + gIndex);
+    }
+  }
+
+  private static boolean isSameDataNodeType(final TreeNode base, final TreeNode target) {
+    return (base instanceof LeafNode && target instanceof LeafNode)
+        || (base instanceof SszSuperNode && target instanceof SszSuperNode)
+        || (base instanceof SszPackedUInt64Node
+            && target instanceof SszPackedUInt64Node
+            && ((SszPackedUInt64Node) base).getDepth()
+                == ((SszPackedUInt64Node) target).getDepth());
+  }
+
+  /**
+   * Applies this diff to the {@code base} tree
+   *
+   * @throws IllegalArgumentException if the {@code base} root doesn't match the diff base root
+   */
+  public TreeNode apply(final TreeNode base) {
+    checkArgument(
+        base.hashTreeRoot().equals(baseRoot),
+        "Base tree root %s doesn't match the diff base root %s",
+        base.hashTreeRoot(),
+        baseRoot);
+    // TreeUpdates requires all the updated nodes to be on the same level
+    final Map<Integer, List<TreeUpdates.Update>> updatesByDepth = new TreeMap<>();
+    for (int i = 0; i < gIndices.size(); i++) {
+      final long gIndex = gIndices.getLong(i);
+      final TreeNode newNode = createDataNode(base.get(gIndex), nodesData.get(i));
+      updatesByDepth
+          .computeIfAbsent(GIndexUtil.gIdxGetDepth(gIndex), __ -> new ArrayList<>())
+          .add(new TreeUpdates.Update(gIndex, newNode));
+    }
+    TreeNode result = base;
+    for (List<TreeUpdates.Update> updates : updatesByDepth.values()) {
+      updates.sort((u1, u2) -> Long.compare(u1.getGeneralizedIndex(), u2.getGeneralizedIndex()));
+      result = result.updated(new TreeUpdates(updates));
+    }
+    return result;
+  }
+
+  private static TreeNode createDataNode(final TreeNode baseNode, final Bytes data) {
+    if (baseNode instanceof LeafNode) {
+      return LeafNode.create(data);
+    } else if (baseNode instanceof SszSuperNode) {
+      return ((SszSuperNode) baseNode).withSsz(data);
+    } else if (baseNode instanceof SszPackedUInt64Node) {
+      return SszPackedUInt64Node.fromSsz(((SszPackedUInt64Node) baseNode).getDepth(), data);
+    } else {
+      throw new IllegalArgumentException("Base tree has no data node to update: " + baseNode);
+    }
+  }
+
+  public Bytes32 getBaseRoot() {
+    return baseRoot;
+  }
+
+  public Bytes32 getTargetRoot() {
+    return targetRoot;
+  }
+
+  /** Returns the number of data nodes changed by this diff */
+  public int getChangedNodesCount() {
+    return gIndices.size();
+  }
+
+  public boolean isEmpty() {
+    return gIndices.isEmpty();
+  }
+
+  /**
+   * Serializes this diff in the following format (all numbers are little endian):
+   *
+   * <pre>
+   * base root (32 bytes) | target root (32 bytes) | nodes count (4 bytes) |
+   *   [generalized index (8 bytes) | data length (4 bytes) | data]...
+   * </pre>
+   */
+  public Bytes serialize() {
+    int size = ROOTS_SIZE + Integer.BYTES;
+    for (Bytes data : nodesData) {
+      size += ENTRY_HEADER_SIZE + data.size();
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    baseRoot.appendTo(buffer);
+    targetRoot.appendTo(buffer);
+    buffer.putInt(gIndices.size());
+    for (int i = 0; i < gIndices.size(); i++) {
+      final Bytes data = nodesData.get(i);
+      buffer.putLong(gIndices.getLong(i));
+      buffer.putInt(data.size());
+      data.appendTo(buffer);
+    }
+    return Bytes.wrap(buffer.array());
+  }
+
+  /**
+   * Deserializes the diff serialized with {@link #serialize()}
+   *
+   * @throws IllegalArgumentException if the data is malformed
+   */
+  public static TreeDiff deserialize(final Bytes bytes) {
+    checkArgument(bytes.size() >= ROOTS_SIZE + Integer.BYTES, "Tree diff data is too short");
+    final Bytes32 baseRoot = Bytes32.wrap(bytes.slice(0, Bytes32.SIZE));
+    final Bytes32 targetRoot = Bytes32.wrap(bytes.slice(Bytes32.SIZE, Bytes32.SIZE));
+    final int count = bytes.getInt(ROOTS_SIZE, ByteOrder.LITTLE_ENDIAN);
+    checkArgument(count >= 0, "Invalid tree diff nodes count: %s", count);
+    final LongList gIndices = new LongArrayList(count);
+    final List<Bytes> nodesData = new ArrayList<>(count);
+    int offset = ROOTS_SIZE + Integer.BYTES;
+    for (int i = 0; i < count; i++) {
+      checkArgument(offset + ENTRY_HEADER_SIZE <= bytes.size(), "Tree diff data is truncated");
+      final long gIndex = bytes.getLong(offset, ByteOrder.LITTLE_ENDIAN);
+      final int dataSize = bytes.getInt(offset + Long.BYTES, ByteOrder.LITTLE_ENDIAN);
+      offset += ENTRY_HEADER_SIZE;
+      checkArgument(gIndex >= GIndexUtil.SELF_G_INDEX, "Invalid generalized index: %s", gIndex);
+      checkArgument(
+          dataSize >= 0 && offset + dataSize <= bytes.size(), "Tree diff data is truncated");
+      gIndices.add(gIndex);
+      nodesData.add(bytes.slice(offset, dataSize));
+      offset += dataSize;
+    }
+    checkArgument(offset == bytes.size(), "Extra bytes after tree diff data");
+    return new TreeDiff(baseRoot, targetRoot, gIndices, nodesData);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TreeDiff treeDiff = (TreeDiff) o;
+    return baseRoot.equals(treeDiff.baseRoot)
+        && targetRoot.equals(treeDiff.targetRoot)
+        && gIndices.equals(treeDiff.gIndices)
+        && nodesData.equals(treeDiff.nodesData);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(baseRoot, targetRoot, gIndices, nodesData);
+  }
+
+  @Override
+  public String toString() {
+    return "TreeDiff{"
+        + "baseRoot="
+        + baseRoot
+        + ", targetRoot="
+        + targetRoot
+        + ", changedNodesCount="
+        + gIndices.size()
+        + '}';
+  }
+}
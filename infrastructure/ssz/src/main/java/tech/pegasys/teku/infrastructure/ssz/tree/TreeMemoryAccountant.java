@@ -0,0 +1,188 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Estimates the heap memory retained by a set of trees, distinguishing nodes owned by a single
+ * root from nodes shared between several roots (e.g. consecutive {@code BeaconState} instances
+ * which share most of their tree).
+ *
+ * <p>Nodes are compared by identity. Global zero trees are never counted and lazily loaded
+ * children which were not loaded yet are not visited, so measuring never triggers loading. Sizes
+ * are estimates for a 64-bit JVM with compressed oops and assume the node hash is cached.
+ *
+ * <p>The walk is proportional to the number of distinct nodes so it is relatively expensive for
+ * full states and shouldn't be run on hot paths.
+ */
+public class TreeMemoryAccountant {
+  private static final int SHARED = -1;
+
+  private static final int OBJECT_SIZE = 16;
+  private static final int ARRAY_HEADER_SIZE = 16;
+  private static final int BYTES_WRAPPER_SIZE = 24;
+  private static final int HASH_SIZE = BYTES_WRAPPER_SIZE + ARRAY_HEADER_SIZE + Bytes32.SIZE;
+  private static final int BRANCH_NODE_SIZE = OBJECT_SIZE + 8 + HASH_SIZE;
+  private static final int LAZY_BRANCH_NODE_SIZE = OBJECT_SIZE + 24 + 3 * HASH_SIZE + 2 * 24;
+  private static final int LEAF_NODE_SIZE = OBJECT_SIZE + 8;
+
+  private static final Set<TreeNode> STATIC_NODES = createStaticNodes();
+
+  private final Map<TreeNode, Integer> owners = new IdentityHashMap<>();
+
+  private TreeMemoryAccountant() {}
+
+  private static Set<TreeNode> createStaticNodes() {
+    final Set<TreeNode> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    nodes.addAll(Arrays.asList(TreeUtil.ZERO_TREES));
+    nodes.addAll(Arrays.asList(LeafNode.ZERO_LEAVES));
+    return nodes;
+  }
+
+  /**
+   * Measures memory retained by the trees with the specified roots
+   *
+   * @param roots tree roots, the returned usage is reported in the same order
+   */
+  public static TreeMemoryUsage measure(final Collection<? extends TreeNode> roots) {
+    final TreeMemoryAccountant accountant = new TreeMemoryAccountant();
+    int rootIndex = 0;
+    for (TreeNode root : roots) {
+      accountant.visit(root, rootIndex, false);
+      rootIndex++;
+    }
+    return accountant.createUsage(roots.size());
+  }
+
+  /**
+   * Estimates the memory retained by the tree at {@code root} which isn't shared with the tree at
+   * {@code base}. Only nodes at the same position in both trees are compared, so the walk is
+   * proportional to the differences between the trees rather than their size. This makes it cheap
+   * for trees derived from each other, such as a state and the state it was processed from, but
+   * nodes which moved to a different position are counted as not shared.
+   */
+  public static long measureAdditional(final TreeNode root, final TreeNode base) {
+    final TreeMemoryAccountant accountant = new TreeMemoryAccountant();
+    accountant.visitDifferences(root, base);
+    return accountant.createUsage(1).getTotalBytes();
+  }
+
+  private void visitDifferences(final TreeNode node, final TreeNode baseNode) {
+    if (node == baseNode || STATIC_NODES.contains(node) || owners.containsKey(node)) {
+      return;
+    }
+    // Don't compare the children of lazy nodes as that would load them
+    if (isEagerBranch(node) && isEagerBranch(baseNode)) {
+      owners.put(node, 0);
+      final BranchNode branchNode = (BranchNode) node;
+      final BranchNode baseBranchNode = (BranchNode) baseNode;
+      visitDifferences(branchNode.left(), baseBranchNode.left());
+      visitDifferences(branchNode.right(), baseBranchNode.right());
+    } else {
+      visit(node, 0, false);
+    }
+  }
+
+  private static boolean isEagerBranch(final TreeNode node) {
+    return node instanceof BranchNode && !(node instanceof LazyBranchNode);
+  }
+
+  private void visit(final TreeNode node, final int rootIndex, final boolean parentShared) {
+    if (STATIC_NODES.contains(node)) {
+      return;
+    }
+    final Integer owner = owners.get(node);
+    final boolean shared;
+    if (owner == null) {
+      shared = parentShared;
+    } else if (owner == SHARED || (owner == rootIndex && !parentShared)) {
+      // already accounted together with the whole subtree
+      return;
+    } else {
+      // reachable from another root or through a shared parent
+      shared = true;
+    }
+    owners.put(node, shared ? SHARED : rootIndex);
+
+    if (node instanceof LazyBranchNode) {
+      final LazyBranchNode lazyNode = (LazyBranchNode) node;
+      visitIfLoaded(lazyNode.getLoadedLeft(), rootIndex, shared);
+      visitIfLoaded(lazyNode.getLoadedRight(), rootIndex, shared);
+    } else if (node instanceof BranchNode) {
+      final BranchNode branchNode = (BranchNode) node;
+      visit(branchNode.left(), rootIndex, shared);
+      visit(branchNode.right(), rootIndex, shared);
+    }
+  }
+
+  private void visitIfLoaded(final TreeNode node, final int rootIndex, final boolean shared) {
+    if (node != null) {
+      visit(node, rootIndex, shared);
+    }
+  }
+
+  private TreeMemoryUsage createUsage(final int rootsCount) {
+    final long[] uniqueBytes = new long[rootsCount];
+    long sharedBytes = 0;
+    for (Map.Entry<TreeNode, Integer> entry : owners.entrySet()) {
+      final long size = estimateSize(entry.getKey());
+      final int owner = entry.getValue();
+      if (owner == SHARED) {
+        sharedBytes += size;
+      } else {
+        uniqueBytes[owner] += size;
+      }
+    }
+    return new TreeMemoryUsage(uniqueBytes, sharedBytes, owners.size());
+  }
+
+  /** Estimates the shallow size of the node including its own data and cached hashes */
+  static long estimateSize(final TreeNode node) {
+    if (node instanceof LazyBranchNode) {
+      return LAZY_BRANCH_NODE_SIZE;
+    } else if (node instanceof BranchNode) {
+      return BRANCH_NODE_SIZE;
+    } else if (node instanceof SszPackedUInt64Node) {
+      final SszPackedUInt64Node packedNode = (SszPackedUInt64Node) node;
+      final long internalHashesSize = ((1L << packedNode.getDepth()) - 1) * Bytes32.SIZE;
+      return OBJECT_SIZE
+          + 16
+          + ARRAY_HEADER_SIZE
+          + align((long) packedNode.getValuesCount() * Long.BYTES)
+          + ARRAY_HEADER_SIZE
+          + internalHashesSize
+          + HASH_SIZE;
+    } else if (node instanceof LeafDataNode) {
+      final int dataSize = ((LeafDataNode) node).getData().size();
+      if (dataSize == Bytes32.SIZE) {
+        // 32 byte leaves keep the data as the cached hash
+        return LEAF_NODE_SIZE + HASH_SIZE;
+      }
+      final long nodeSize = node instanceof LeafNode ? LEAF_NODE_SIZE : OBJECT_SIZE + 16;
+      return nodeSize + BYTES_WRAPPER_SIZE + ARRAY_HEADER_SIZE + align(dataSize) + HASH_SIZE;
+    } else {
+      return OBJECT_SIZE + HASH_SIZE;
+    }
+  }
+
+  private static long align(final long size) {
+    return (size + 7) & ~7L;
+  }
+}
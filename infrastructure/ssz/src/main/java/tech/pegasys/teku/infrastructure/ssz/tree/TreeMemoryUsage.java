@@ -0,0 +1,63 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+
+/** Result of {@link TreeMemoryAccountant#measure} */
+public class TreeMemoryUsage {
+  private final long[] uniqueBytes;
+  private final long sharedBytes;
+  private final int nodeCount;
+
+  TreeMemoryUsage(final long[] uniqueBytes, final long sharedBytes, final int nodeCount) {
+    this.uniqueBytes = uniqueBytes;
+    this.sharedBytes = sharedBytes;
+    this.nodeCount = nodeCount;
+  }
+
+  /** Returns the estimated bytes retained only by the tree at {@code rootIndex} */
+  public long getUniqueBytes(final int rootIndex) {
+    return uniqueBytes[rootIndex];
+  }
+
+  /** Returns the estimated bytes retained only by a single tree summed over all trees */
+  public long getTotalUniqueBytes() {
+    return Arrays.stream(uniqueBytes).sum();
+  }
+
+  /** Returns the estimated bytes of nodes reachable from more than one root */
+  public long getSharedBytes() {
+    return sharedBytes;
+  }
+
+  /** Returns the estimated bytes retained by all the trees together */
+  public long getTotalBytes() {
+    return getTotalUniqueBytes() + sharedBytes;
+  }
+
+  /** Returns the number of distinct nodes visited */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("uniqueBytes", Arrays.toString(uniqueBytes))
+        .add("sharedBytes", sharedBytes)
+        .add("nodeCount", nodeCount)
+        .toString();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource.CompressedBranchInfo;
+
+/**
+ * Deduplicates identical leaf nodes created while loading trees, so that reloading the same (or
+ * similar) states shares leaves with the states which are already in memory instead of holding
+ * another copy.
+ *
+ * <p>Leaves are matched by their data (which includes the data length, so differently trimmed
+ * leaves with the same hash are never mixed up). Interned leaves are weakly referenced and are
+ * dropped from the interner once no tree references them anymore.
+ *
+ * <p>Loaded branches share the child hashes of identical stored branches. The lazy branch nodes
+ * themselves aren't shared: their children are loaded relative to the schema and position in the
+ * tree, and two branches with the same hash may still hold differently trimmed leaves. The child
+ * hashes are what each lazy branch node retains, so sharing them covers most of the duplicate
+ * branch memory.
+ */
+public class TreeNodeInterner {
+  private final Interner<LeafNode> leafInterner = Interners.newWeakInterner();
+  private final Interner<Bytes32> branchHashInterner = Interners.newWeakInterner();
+  private final LongAdder internedCount = new LongAdder();
+  private final LongAdder reusedCount = new LongAdder();
+  private final LongAdder internedBranchCount = new LongAdder();
+  private final LongAdder reusedBranchHashCount = new LongAdder();
+
+  /**
+   * Returns a leaf node with the specified data, reusing the existing identical leaf node if any
+   */
+  public LeafNode internLeaf(final Bytes data) {
+    if (data.size() < Bytes32.SIZE && data.isZero()) {
+      return LeafNode.ZERO_LEAVES[data.size()];
+    }
+    return internLeaf(LeafNode.create(data));
+  }
+
+  /** Returns the existing leaf node identical to the {@code leaf} or the {@code leaf} itself */
+  public LeafNode internLeaf(final LeafNode leaf) {
+    final LeafNode canonical = leafInterner.intern(leaf);
+    internedCount.increment();
+    if (canonical != leaf) {
+      reusedCount.increment();
+    }
+    return canonical;
+  }
+
+  /**
+   * Returns a branch with the same depth and child hashes as {@code branch}, reusing the existing
+   * identical child hash instances if any
+   */
+  public CompressedBranchInfo internBranch(final CompressedBranchInfo branch) {
+    final Bytes32[] children = branch.getChildren();
+    final Bytes32[] internedChildren = new Bytes32[children.length];
+    for (int i = 0; i < children.length; i++) {
+      internedChildren[i] = branchHashInterner.intern(children[i]);
+      if (internedChildren[i] != children[i]) {
+        reusedBranchHashCount.increment();
+      }
+    }
+    internedBranchCount.increment();
+    return new CompressedBranchInfo(branch.getDepth(), internedChildren);
+  }
+
+  /** Returns the total number of leaves passed through this interner */
+  public long getInternedCount() {
+    return internedCount.sum();
+  }
+
+  /** Returns the number of interned leaves which were replaced with an existing identical leaf */
+  public long getReusedCount() {
+    return reusedCount.sum();
+  }
+
+  /** Returns the total number of branches passed through this interner */
+  public long getInternedBranchCount() {
+    return internedBranchCount.sum();
+  }
+
+  /** Returns the number of branch child hashes replaced with an existing identical hash */
+  public long getReusedBranchHashCount() {
+    return reusedBranchHashCount.sum();
+  }
+}
@@ -24,6 +24,14 @@ public interface TreeNodeSource {
 
   Bytes loadLeafNode(Bytes32 rootHash, long gIndex);
 
+  /**
+   * Creates the node for leaf data loaded from this source. Sources may override this to share
+   * identical leaves between loaded trees (see {@link TreeNodeInterner})
+   */
+  default LeafNode createLeafNode(final Bytes data) {
+    return LeafNode.create(data);
+  }
+
   class CompressedBranchInfo {
     private final int depth;
     private final Bytes32[] children;
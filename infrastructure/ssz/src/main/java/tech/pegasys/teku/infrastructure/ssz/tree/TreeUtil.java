@@ -152,6 +152,11 @@ public class TreeUtil {
     }
   }
 
+  /** Returns true if the node is a branch node whose hash was not calculated and memoized yet */
+  static boolean isUnhashedBranch(final TreeNode node) {
+    return node instanceof SimpleBranchNode && ((SimpleBranchNode) node).getCachedHash() == null;
+  }
+
   public static long nextPowerOf2(long x) {
     return x <= 1 ? 1 : Long.highestOneBit(x - 1) << 1;
   }
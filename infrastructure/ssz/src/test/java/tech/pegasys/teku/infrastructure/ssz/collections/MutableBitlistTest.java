@@ -0,0 +1,98 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+class MutableBitlistTest {
+  private static final SszBitlistSchema<SszBitlist> SCHEMA = SszBitlistSchema.create(200);
+
+  @Test
+  void or_shouldSetBitsInPlace() {
+    final MutableBitlist bitlist = MutableBitlist.create(SCHEMA, 130);
+
+    bitlist.or(SCHEMA.ofBits(130, 0, 64, 129));
+    bitlist.or(SCHEMA.ofBits(70, 1, 69));
+
+    assertThat(bitlist.getBitCount()).isEqualTo(5);
+    assertThat(bitlist.toSszBitlist()).isEqualTo(SCHEMA.ofBits(130, 0, 1, 64, 69, 129));
+  }
+
+  @Test
+  void or_shouldRejectLargerBitlist() {
+    final MutableBitlist bitlist = MutableBitlist.create(SCHEMA, 10);
+
+    assertThatThrownBy(() -> bitlist.or(SCHEMA.ofBits(11, 10)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void and_shouldClearBitsNotSetInOther() {
+    final MutableBitlist bitlist = MutableBitlist.copyOf(SCHEMA.ofBits(130, 1, 2, 100, 129));
+
+    bitlist.and(SCHEMA.ofBits(101, 2, 100));
+
+    assertThat(bitlist.toSszBitlist()).isEqualTo(SCHEMA.ofBits(130, 2, 100));
+  }
+
+  @Test
+  void isSuperSetOf_shouldMatchSszBitlist() {
+    final SszBitlist bits = SCHEMA.ofBits(130, 3, 65, 128);
+    final MutableBitlist bitlist = MutableBitlist.copyOf(bits);
+
+    assertThat(bitlist.isSuperSetOf(SCHEMA.ofBits(130, 3, 128))).isTrue();
+    assertThat(bitlist.isSuperSetOf(SCHEMA.ofBits(66, 3, 65))).isTrue();
+    assertThat(bitlist.isSuperSetOf(SCHEMA.ofBits(130, 3, 129))).isFalse();
+    assertThat(bitlist.isSuperSetOf(SCHEMA.ofBits(140, 3, 139))).isFalse();
+  }
+
+  @Test
+  void intersects_shouldMatchSszBitlist() {
+    final MutableBitlist bitlist = MutableBitlist.copyOf(SCHEMA.ofBits(130, 3, 65, 128));
+
+    assertThat(bitlist.intersects(SCHEMA.ofBits(130, 1, 128))).isTrue();
+    assertThat(bitlist.intersects(SCHEMA.ofBits(130, 1, 129))).isFalse();
+    assertThat(bitlist.intersects(SCHEMA.ofBits(10, 1))).isFalse();
+  }
+
+  @Test
+  void copy_shouldNotShareBits() {
+    final MutableBitlist bitlist = MutableBitlist.create(SCHEMA, 10);
+    final MutableBitlist copy = bitlist.copy();
+
+    copy.setBit(5);
+
+    assertThat(bitlist.getBit(5)).isFalse();
+    assertThat(copy.getBit(5)).isTrue();
+  }
+
+  @Test
+  void toSszBitlist_shouldNotChangeWhenUpdated() {
+    final MutableBitlist bitlist = MutableBitlist.create(SCHEMA, 10);
+    bitlist.setBit(1);
+    final SszBitlist snapshot = bitlist.toSszBitlist();
+
+    bitlist.setBit(2);
+    bitlist.clear();
+
+    assertThat(snapshot).isEqualTo(SCHEMA.ofBits(10, 1));
+    assertThat(snapshot.sszSerialize()).isEqualTo(SCHEMA.ofBits(10, 1).sszSerialize());
+    assertThat(snapshot.hashTreeRoot()).isEqualTo(SCHEMA.ofBits(10, 1).hashTreeRoot());
+    assertThat(bitlist.getBitCount()).isZero();
+  }
+}
@@ -16,7 +16,9 @@ package tech.pegasys.teku.infrastructure.ssz.collections;
 import java.util.stream.Stream;
 import tech.pegasys.teku.infrastructure.ssz.RandomSszDataGenerator;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
 import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszPrimitiveListSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszUInt64ListSchema;
 
 public class SszPrimitiveListTest implements SszMutablePrimitiveListTestBase {
 
@@ -40,6 +42,9 @@ public class SszPrimitiveListTest implements SszMutablePrimitiveListTestBase {
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 16),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 17),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 300),
+        SszUInt64ListSchema.create(17, SszSchemaHints.sszPackedUInt64Node(1)),
+        SszUInt64ListSchema.create(300, SszSchemaHints.sszPackedUInt64Node(2)),
+        SszUInt64ListSchema.create(300, SszSchemaHints.sszPackedUInt64Node(7)),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 0),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 1),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 31),
@@ -13,13 +13,27 @@
 
 package tech.pegasys.teku.infrastructure.ssz.schema;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
 import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tech.pegasys.teku.infrastructure.ssz.RandomSszDataGenerator;
+import tech.pegasys.teku.infrastructure.ssz.SszContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestByteVectorContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestDoubleSuperContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestLargeContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestSmallContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestSubContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.VariableSizeContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.WritableContainer;
 import tech.pegasys.teku.infrastructure.ssz.TestContainers.WritableSubContainer;
+import tech.pegasys.teku.infrastructure.ssz.sos.SszDeserializeException;
+import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil;
 
 public class SszContainerSchemaTest extends SszCompositeSchemaTestBase {
 
@@ -33,8 +47,57 @@ public class SszContainerSchemaTest extends SszCompositeSchemaTestBase {
         WritableSubContainer.SSZ_SCHEMA);
   }
 
+  static Stream<SszContainerSchema<?>> nestedContainerSchemas() {
+    return Stream.concat(
+        testContainerSchemas(),
+        Stream.of(
+            TestContainer.SSZ_SCHEMA,
+            TestByteVectorContainer.SSZ_SCHEMA,
+            TestDoubleSuperContainer.SSZ_SCHEMA));
+  }
+
   @Override
   public Stream<SszContainerSchema<?>> testSchemas() {
     return testContainerSchemas();
   }
+
+  @ParameterizedTest
+  @MethodSource("nestedContainerSchemas")
+  void sszDeserialize_shouldRoundtrip(final SszContainerSchema<?> schema) {
+    new RandomSszDataGenerator()
+        .randomDataStream(schema)
+        .limit(10)
+        .forEach(
+            data -> {
+              final Bytes ssz = data.sszSerialize();
+              final SszContainer deserialized = schema.sszDeserialize(ssz);
+              assertThat(deserialized).isEqualTo(data);
+              assertThat(deserialized.sszSerialize()).isEqualTo(ssz);
+            });
+  }
+
+  @ParameterizedTest
+  @MethodSource("nestedContainerSchemas")
+  void getChildGeneralizedIndex_shouldMatchTreeDepth(final SszContainerSchema<?> schema) {
+    for (int i = 0; i < schema.getFieldsCount(); i++) {
+      assertThat(schema.getChildGeneralizedIndex(i))
+          .isEqualTo(GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, i, schema.treeDepth()));
+    }
+  }
+
+  @Test
+  void sszDeserialize_fixedSizeContainerShouldRejectExtraBytes() {
+    final Bytes ssz = TestContainer.SSZ_SCHEMA.getDefault().sszSerialize();
+
+    assertThatThrownBy(() -> TestContainer.SSZ_SCHEMA.sszDeserialize(Bytes.wrap(ssz, Bytes.of(0))))
+        .isInstanceOf(SszDeserializeException.class);
+    assertThatThrownBy(() -> TestContainer.SSZ_SCHEMA.sszDeserialize(ssz.slice(1)))
+        .isInstanceOf(SszDeserializeException.class);
+  }
+
+  @Test
+  void sszDeserialize_fixedSizeContainerShouldValidatePrimitiveFields() {
+    assertThatThrownBy(() -> TestSmallContainer.SSZ_SCHEMA.sszDeserialize(Bytes.of(2)))
+        .isInstanceOf(SszDeserializeException.class);
+  }
 }
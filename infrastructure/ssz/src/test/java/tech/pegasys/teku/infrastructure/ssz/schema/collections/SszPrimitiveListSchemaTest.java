@@ -21,8 +21,14 @@ import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.infrastructure.ssz.collections.SszPrimitiveVector;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszUInt64List;
 import tech.pegasys.teku.infrastructure.ssz.primitive.SszUInt64;
+import tech.pegasys.teku.infrastructure.ssz.schema.InMemoryStoringTreeNodeStore;
 import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
+import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil;
+import tech.pegasys.teku.infrastructure.ssz.tree.SszPackedUInt64Node;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 
 public class SszPrimitiveListSchemaTest extends SszListSchemaTestBase {
@@ -54,11 +60,45 @@ public class SszPrimitiveListSchemaTest extends SszListSchemaTestBase {
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 3),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 4),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 5),
+        SszPrimitiveListSchema.create(
+            SszPrimitiveSchemas.UINT64_SCHEMA, 4, SszSchemaHints.sszPackedUInt64Node(0)),
+        SszPrimitiveListSchema.create(
+            SszPrimitiveSchemas.UINT64_SCHEMA, 300, SszSchemaHints.sszPackedUInt64Node(2)),
+        SszPrimitiveListSchema.create(
+            SszPrimitiveSchemas.UINT64_SCHEMA, 1L << 16, SszSchemaHints.sszPackedUInt64Node(8)),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 0),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 1),
         SszPrimitiveListSchema.create(SszPrimitiveSchemas.BYTES32_SCHEMA, 10));
   }
 
+  @Test
+  void loadBackingNodes_shouldUseSameLayoutForPackedUInt64Nodes() {
+    final SszUInt64ListSchema<SszUInt64List> regularSchema = SszUInt64ListSchema.create(300);
+    final SszUInt64ListSchema<SszUInt64List> packedSchema =
+        SszUInt64ListSchema.create(300, SszSchemaHints.sszPackedUInt64Node(2));
+    final List<UInt64> values =
+        LongStream.range(0, 70).mapToObj(UInt64::valueOf).collect(Collectors.toList());
+    final SszUInt64List packedList = packedSchema.of(values);
+    final SszUInt64List regularList = regularSchema.of(values);
+
+    final InMemoryStoringTreeNodeStore packedStore = new InMemoryStoringTreeNodeStore();
+    packedSchema.storeBackingNodes(packedStore, 5, 1, packedList.getBackingNode());
+    final InMemoryStoringTreeNodeStore regularStore = new InMemoryStoringTreeNodeStore();
+    regularSchema.storeBackingNodes(regularStore, 5, 1, regularList.getBackingNode());
+
+    assertThat(packedStore.getStoredBranchRoots())
+        .containsExactlyInAnyOrderElementsOf(regularStore.getStoredBranchRoots());
+    assertThat(packedStore.getStoredLeafNodeCount())
+        .isEqualTo(regularStore.getStoredLeafNodeCount());
+    final TreeNode loaded =
+        packedSchema.loadBackingNodes(regularStore, regularList.hashTreeRoot(), 1);
+    // 75 chunks give the vector tree depth of 7 so the packed nodes of depth 2 are at depth 5
+    assertThat(loaded.get(GIndexUtil.gIdxChildGIndex(GIndexUtil.LEFT_CHILD_G_INDEX, 0, 5)))
+        .isInstanceOf(SszPackedUInt64Node.class);
+    assertThat(packedSchema.createFromBackingNode(loaded).asListUnboxed())
+        .containsExactlyElementsOf(values);
+  }
+
   @Test
   void sanityTest() {
     SszPrimitiveVectorSchema<UInt64, SszUInt64, ?> schema =
@@ -0,0 +1,117 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.sos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import tech.pegasys.teku.infrastructure.ssz.RandomSszDataGenerator;
+import tech.pegasys.teku.infrastructure.ssz.SszData;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.VariableSizeContainer;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszListSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+public class SszChannelWriterTest {
+
+  private static final RandomSszDataGenerator GENERATOR = new RandomSszDataGenerator();
+
+  static Stream<Arguments> testParameters() {
+    return Stream.of(
+            TestContainer.SSZ_SCHEMA,
+            VariableSizeContainer.SSZ_SCHEMA,
+            SszListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 1000),
+            SszListSchema.create(VariableSizeContainer.SSZ_SCHEMA, 10),
+            SszBitlistSchema.create(1000))
+        .flatMap(
+            schema ->
+                Stream.of(1, 7, 32, SszChannelWriter.DEFAULT_BUFFER_SIZE)
+                    .map(bufferSize -> Arguments.of(schema, bufferSize)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("testParameters")
+  void write_shouldMatchSszSerialize(final SszSchema<?> schema, final int bufferSize) {
+    GENERATOR
+        .randomDataStream(schema)
+        .limit(10)
+        .forEach(
+            data -> {
+              final ByteArrayOutputStream out = new ByteArrayOutputStream();
+              final SszChannelWriter writer =
+                  new SszChannelWriter(Channels.newChannel(out), bufferSize);
+
+              final int size = data.sszSerialize(writer);
+              writer.flush();
+
+              final Bytes expected = data.sszSerialize();
+              assertThat(size).isEqualTo(expected.size());
+              assertThat(Bytes.wrap(out.toByteArray())).isEqualTo(expected);
+            });
+  }
+
+  @Test
+  void write_shouldNotWriteToChannelUntilBufferIsFull() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final SszChannelWriter writer = new SszChannelWriter(Channels.newChannel(out), 4);
+
+    writer.write(Bytes.of(1, 2, 3));
+    assertThat(out.size()).isZero();
+
+    writer.write(Bytes.of(4, 5));
+    assertThat(out.toByteArray()).containsExactly(1, 2, 3);
+
+    writer.flush();
+    assertThat(out.toByteArray()).containsExactly(1, 2, 3, 4, 5);
+  }
+
+  @Test
+  void sszSerialize_shouldStreamToOutputStream() {
+    final SszData data = GENERATOR.randomData(VariableSizeContainer.SSZ_SCHEMA);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    final int size = data.sszSerialize(out);
+
+    assertThat(size).isEqualTo(out.size());
+    assertThat(Bytes.wrap(out.toByteArray())).isEqualTo(data.sszSerialize());
+  }
+
+  @Test
+  void flush_shouldWrapIOException() {
+    final OutputStream failingStream =
+        new OutputStream() {
+          @Override
+          public void write(final int b) throws IOException {
+            throw new IOException("Failed");
+          }
+        };
+    final SszChannelWriter writer = new SszChannelWriter(Channels.newChannel(failingStream));
+    writer.write(Bytes.of(1));
+
+    assertThatThrownBy(writer::flush).isInstanceOf(UncheckedIOException.class);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.sos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tech.pegasys.teku.infrastructure.ssz.RandomSszDataGenerator;
+import tech.pegasys.teku.infrastructure.ssz.SszComposite;
+import tech.pegasys.teku.infrastructure.ssz.SszList;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestDoubleSuperContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestSubContainer;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.VariableSizeContainer;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszListSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszPrimitiveSchemas;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszVectorSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszBitlistSchema;
+
+public class SszLazyViewTest {
+
+  private static final RandomSszDataGenerator GENERATOR = new RandomSszDataGenerator();
+
+  static Stream<SszSchema<?>> testSchemas() {
+    return Stream.of(
+        TestContainer.SSZ_SCHEMA,
+        TestDoubleSuperContainer.SSZ_SCHEMA,
+        VariableSizeContainer.SSZ_SCHEMA,
+        SszListSchema.create(SszPrimitiveSchemas.UINT64_SCHEMA, 100),
+        SszListSchema.create(TestContainer.SSZ_SCHEMA, 10),
+        SszListSchema.create(VariableSizeContainer.SSZ_SCHEMA, 10),
+        SszVectorSchema.create(VariableSizeContainer.SSZ_SCHEMA, 3),
+        SszBitlistSchema.create(100));
+  }
+
+  @ParameterizedTest
+  @MethodSource("testSchemas")
+  void get_shouldMatchDeserializedData(final SszSchema<?> schema) {
+    GENERATOR
+        .randomDataStream(schema)
+        .limit(10)
+        .forEach(
+            data -> {
+              final SszComposite<?> composite = (SszComposite<?>) data;
+              final SszLazyView view = SszLazyView.wrap(schema, data.sszSerialize());
+
+              assertThat(view.size()).isEqualTo(composite.size());
+              for (int i = 0; i < composite.size(); i++) {
+                assertThat(view.get(i)).isEqualTo(composite.get(i));
+              }
+              assertThatThrownBy(() -> view.get(composite.size()))
+                  .isInstanceOf(IndexOutOfBoundsException.class);
+              assertThat(view.hashTreeRoot()).isEqualTo(data.hashTreeRoot());
+            });
+  }
+
+  @Test
+  void getView_shouldAccessNestedFields() {
+    final VariableSizeContainer container =
+        GENERATOR.randomData(VariableSizeContainer.SSZ_SCHEMA);
+    final SszLazyView view =
+        SszLazyView.wrap(
+            VariableSizeContainer.SSZ_SCHEMA, ByteBuffer.wrap(container.sszSerialize().toArray()));
+
+    final SszLazyView listView = view.getView("list");
+    final SszList<?> list = (SszList<?>) container.get(1);
+    assertThat(listView.size()).isEqualTo(list.size());
+    for (int i = 0; i < list.size(); i++) {
+      assertThat(listView.get(i)).isEqualTo(list.get(i));
+    }
+    final TestSubContainer subContainer = (TestSubContainer) container.get(0);
+    assertThat(view.getView("sub").get("long1")).isEqualTo(subContainer.get(0));
+    assertThat(view.getView("sub").get("bytes1")).isEqualTo(subContainer.get(1));
+  }
+
+  @Test
+  void get_shouldValidateOnlyAccessedOffsets() {
+    final VariableSizeContainer container =
+        GENERATOR.randomData(VariableSizeContainer.SSZ_SCHEMA);
+    final byte[] ssz = container.sszSerialize().toArray();
+    final int listOffsetPosition = TestSubContainer.SSZ_SCHEMA.getSszFixedPartSize();
+    ssz[listOffsetPosition] = (byte) 0xFF;
+    ssz[listOffsetPosition + 1] = (byte) 0xFF;
+    final SszLazyView view = SszLazyView.wrap(VariableSizeContainer.SSZ_SCHEMA, Bytes.wrap(ssz));
+
+    assertThat(view.get("sub")).isEqualTo(container.get(0));
+    assertThat(view.get("long")).isEqualTo(container.get(2));
+    assertThatThrownBy(() -> view.get("list")).isInstanceOf(SszDeserializeException.class);
+    assertThatThrownBy(view::hashTreeRoot).isInstanceOf(SszDeserializeException.class);
+  }
+
+  @Test
+  void size_shouldThrowIfFirstOffsetIsNotMultipleOfOffsetSize() {
+    final SszLazyView view =
+        SszLazyView.wrap(
+            SszListSchema.create(VariableSizeContainer.SSZ_SCHEMA, 10),
+            Bytes.fromHexString("0x0500000000"));
+
+    assertThatThrownBy(view::size).isInstanceOf(SszDeserializeException.class);
+    assertThatThrownBy(() -> view.get(0)).isInstanceOf(SszDeserializeException.class);
+  }
+
+  @Test
+  void size_shouldThrowIfElementCountExceedsMaxLength() {
+    // First offset of 12 implies 3 elements
+    final SszLazyView view =
+        SszLazyView.wrap(
+            SszListSchema.create(VariableSizeContainer.SSZ_SCHEMA, 2),
+            Bytes.fromHexString("0x0C0000000C0000000C000000"));
+
+    assertThatThrownBy(view::size).isInstanceOf(SszDeserializeException.class);
+    assertThatThrownBy(() -> view.get(0)).isInstanceOf(SszDeserializeException.class);
+  }
+
+  @Test
+  void size_shouldThrowIfFirstOffsetIsZero() {
+    final SszLazyView view =
+        SszLazyView.wrap(
+            SszListSchema.create(VariableSizeContainer.SSZ_SCHEMA, 10),
+            Bytes.fromHexString("0x00000000"));
+
+    assertThatThrownBy(view::size).isInstanceOf(SszDeserializeException.class);
+  }
+
+  @Test
+  void getView_shouldThrowForBitPackedElements() {
+    final SszBitlistSchema<?> schema = SszBitlistSchema.create(100);
+    final SszLazyView view = SszLazyView.wrap(schema, GENERATOR.randomData(schema).sszSerialize());
+
+    assertThatThrownBy(() -> view.getView(0)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void wrap_shouldThrowIfSizeIsOutOfBounds() {
+    assertThatThrownBy(() -> SszLazyView.wrap(TestContainer.SSZ_SCHEMA, Bytes.wrap(new byte[3])))
+        .isInstanceOf(SszDeserializeException.class);
+  }
+}
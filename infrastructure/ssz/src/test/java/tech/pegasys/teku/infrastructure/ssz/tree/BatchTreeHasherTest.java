@@ -0,0 +1,96 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.crypto.Hash;
+import tech.pegasys.teku.infrastructure.crypto.Sha256Batch;
+
+public class BatchTreeHasherTest {
+
+  private static TreeNode createTestTree(final int leafCount) {
+    final List<LeafNode> leaves =
+        IntStream.range(0, leafCount).mapToObj(TreeTest::newTestLeaf).collect(Collectors.toList());
+    return TreeUtil.createTree(leaves, 10);
+  }
+
+  @Test
+  void hashTreeRoot_shouldMatchRecursiveHash() {
+    final Bytes32 expected = createTestTree(777).hashTreeRoot();
+
+    assertThat(BatchTreeHasher.hashTreeRoot(createTestTree(777))).isEqualTo(expected);
+    assertThat(BatchTreeHasher.hashTreeRoot(createTestTree(777), Sha256Batch.createScalar()))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void hashTreeRoot_shouldMemoizeHashesOfAllBranchNodes() {
+    final TreeNode tree = createTestTree(100);
+    BatchTreeHasher.hashTreeRoot(tree);
+
+    tree.iterateAll(
+        node -> {
+          if (node instanceof SimpleBranchNode) {
+            assertThat(((SimpleBranchNode) node).getCachedHash()).isNotNull();
+          }
+        });
+  }
+
+  @Test
+  void hashTreeRoot_shouldOnlyRehashUpdatedPath() {
+    final TreeNode tree = createTestTree(300);
+    BatchTreeHasher.hashTreeRoot(tree);
+
+    final long leafGIndex = GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, 123, 10);
+    final TreeNode updated = tree.updated(leafGIndex, TreeTest.newTestLeaf(100_000));
+    final Bytes32 expected =
+        createTestTree(300).updated(leafGIndex, TreeTest.newTestLeaf(100_000)).hashTreeRoot();
+
+    assertThat(BatchTreeHasher.hashTreeRoot(updated)).isEqualTo(expected);
+  }
+
+  @Test
+  void hashTreeRoot_shouldHandleSharedDirtySubtrees() {
+    final TreeNode subtree = createTestTree(3);
+    final TreeNode tree = BranchNode.create(subtree, subtree);
+    final Bytes32 expected = BranchNode.create(createTestTree(3), createTestTree(3)).hashTreeRoot();
+
+    assertThat(BatchTreeHasher.hashTreeRoot(tree)).isEqualTo(expected);
+  }
+
+  @Test
+  void sha256Batch_scalarShouldMatchMessageDigest() {
+    final int count = 50;
+    final byte[] input = new byte[count * Sha256Batch.INPUT_SIZE];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = (byte) (i * 31 + 7);
+    }
+    final byte[] output = new byte[count * Sha256Batch.OUTPUT_SIZE];
+
+    Sha256Batch.createScalar().digestPairs(input, count, output);
+
+    for (int i = 0; i < count; i++) {
+      final Bytes pair = Bytes.wrap(input, i * Sha256Batch.INPUT_SIZE, Sha256Batch.INPUT_SIZE);
+      assertThat(Bytes.wrap(output, i * Sha256Batch.OUTPUT_SIZE, Sha256Batch.OUTPUT_SIZE))
+          .isEqualTo(Hash.sha256(pair));
+    }
+  }
+}
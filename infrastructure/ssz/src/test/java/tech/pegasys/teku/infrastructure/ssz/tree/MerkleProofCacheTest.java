@@ -0,0 +1,57 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import it.unimi.dsi.fastutil.longs.LongList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+public class MerkleProofCacheTest {
+
+  private final MerkleProofCache cache = new MerkleProofCache(2);
+
+  @Test
+  void getMultiproof_shouldReturnSameProofAsMerkleUtil() {
+    final TreeNode root = createTree(0, 16);
+    final LongList indices = LongList.of(0b10011, 0b1010, 0b111);
+
+    assertThat(cache.getMultiproof(root, indices))
+        .isEqualTo(MerkleUtil.constructMerkleMultiproof(root, indices));
+    assertThat(cache.getProof(root, 0b10011))
+        .isEqualTo(MerkleUtil.constructMerkleProof(root, 0b10011));
+  }
+
+  @Test
+  void getMultiproof_shouldReuseProofForSameRootAndIndexSet() {
+    final List<Bytes32> proof = cache.getMultiproof(createTree(0, 16), LongList.of(0b10011, 0b111));
+
+    // an equal tree with different node instances and the same indices in a different order
+    assertThat(cache.getMultiproof(createTree(0, 16), LongList.of(0b111, 0b10011, 0b111)))
+        .isSameAs(proof);
+    assertThat(cache.getMultiproof(createTree(1, 16), LongList.of(0b10011, 0b111)))
+        .isNotSameAs(proof);
+  }
+
+  private static TreeNode createTree(final int firstLeaf, final int leafCount) {
+    return TreeUtil.createTree(
+        IntStream.range(firstLeaf, firstLeaf + leafCount)
+            .mapToObj(TreeTest::newTestLeaf)
+            .collect(Collectors.toList()));
+  }
+}
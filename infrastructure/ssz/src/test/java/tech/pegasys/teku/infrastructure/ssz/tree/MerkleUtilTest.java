@@ -16,9 +16,13 @@ package tech.pegasys.teku.infrastructure.ssz.tree;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import it.unimi.dsi.fastutil.longs.LongList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.Test;
 
@@ -87,6 +91,127 @@ public class MerkleUtilTest {
     assertThat(proofActual).isEqualTo(proofExpected);
   }
 
+  @Test
+  void testProofDeepLeaf() {
+    TreeNode root = createTree(128);
+    long leafIndex = GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, 77, 7);
+
+    List<Bytes32> proof = MerkleUtil.constructMerkleProof(root, leafIndex);
+
+    assertThat(proof).hasSize(7);
+    assertThat(proof.get(0)).isEqualTo(root.get(leafIndex ^ 1).hashTreeRoot());
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                List.of(root.get(leafIndex).hashTreeRoot()),
+                proof,
+                LongList.of(leafIndex),
+                root.hashTreeRoot()))
+        .isTrue();
+  }
+
+  @Test
+  void testHelperIndices() {
+    assertThat(MerkleUtil.getHelperIndices(LongList.of(0b1010, 0b1100)))
+        .containsExactly(0b1101L, 0b1011L, 0b111L, 0b100L);
+  }
+
+  @Test
+  void testMultiproof() {
+    TreeNode root = createTree(5);
+
+    List<Bytes32> proofExpected =
+        Arrays.asList(
+            root.get(0b1101).hashTreeRoot(),
+            root.get(0b1011).hashTreeRoot(),
+            root.get(0b111).hashTreeRoot(),
+            root.get(0b100).hashTreeRoot());
+    List<Bytes32> proofActual =
+        MerkleUtil.constructMerkleMultiproof(root, LongList.of(0b1010, 0b1100));
+
+    assertThat(proofActual).isEqualTo(proofExpected);
+  }
+
+  @Test
+  void testMultiproofOfNodesAtDifferentDepths() {
+    TreeNode root = createTree(16);
+    LongList indices = LongList.of(0b10011, 0b1010, 0b111, 0b11000);
+
+    List<Bytes32> proof = MerkleUtil.constructMerkleMultiproof(root, indices);
+    List<Bytes32> leaves = getNodeRoots(root, indices);
+
+    assertThat(proof).hasSize(MerkleUtil.getHelperIndices(indices).size());
+    assertThat(MerkleUtil.calculateMultiMerkleRoot(leaves, proof, indices))
+        .isEqualTo(root.hashTreeRoot());
+    assertThat(MerkleUtil.verifyMerkleMultiproof(leaves, proof, indices, root.hashTreeRoot()))
+        .isTrue();
+  }
+
+  @Test
+  void testMultiproofInvalidLeaf() {
+    TreeNode root = createTree(16);
+    LongList indices = LongList.of(0b10001, 0b11110);
+
+    List<Bytes32> proof = MerkleUtil.constructMerkleMultiproof(root, indices);
+    List<Bytes32> leaves = List.of(root.get(0b10001).hashTreeRoot(), Bytes32.ZERO);
+
+    assertThat(MerkleUtil.verifyMerkleMultiproof(leaves, proof, indices, root.hashTreeRoot()))
+        .isFalse();
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                getNodeRoots(root, indices),
+                proof.subList(1, proof.size()),
+                indices,
+                root.hashTreeRoot()))
+        .isFalse();
+  }
+
+  @Test
+  void testMultiproofMalformedProof() {
+    TreeNode root = createTree(16);
+    LongList indices = LongList.of(0b10001, 0b11110);
+
+    List<Bytes32> proof = MerkleUtil.constructMerkleMultiproof(root, indices);
+    List<Bytes32> leaves = getNodeRoots(root, indices);
+
+    // truncated proof
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                leaves, proof.subList(0, proof.size() - 1), indices, root.hashTreeRoot()))
+        .isFalse();
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                leaves, Collections.emptyList(), indices, root.hashTreeRoot()))
+        .isFalse();
+    // proof with extra nodes
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                leaves,
+                Stream.concat(proof.stream(), Stream.of(Bytes32.ZERO)).collect(Collectors.toList()),
+                indices,
+                root.hashTreeRoot()))
+        .isFalse();
+    // invalid generalized index from which the root can't be calculated
+    assertThat(
+            MerkleUtil.verifyMerkleMultiproof(
+                List.of(Bytes32.ZERO),
+                Collections.emptyList(),
+                LongList.of(0),
+                root.hashTreeRoot()))
+        .isFalse();
+  }
+
+  private static TreeNode createTree(int leafCount) {
+    return TreeUtil.createTree(
+        IntStream.range(0, leafCount).mapToObj(TreeTest::newTestLeaf).collect(Collectors.toList()));
+  }
+
+  private static List<Bytes32> getNodeRoots(TreeNode root, LongList indices) {
+    return indices
+        .longStream()
+        .mapToObj(idx -> root.get(idx).hashTreeRoot())
+        .collect(Collectors.toList());
+  }
+
   @Test
   void testPathInvalidIndex() {
     assertThatThrownBy(
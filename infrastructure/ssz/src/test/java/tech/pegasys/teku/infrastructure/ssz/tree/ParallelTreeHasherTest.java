@@ -0,0 +1,83 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class ParallelTreeHasherTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  private static TreeNode createTestTree(final int leafCount) {
+    final List<LeafNode> leaves =
+        IntStream.range(0, leafCount).mapToObj(TreeTest::newTestLeaf).collect(Collectors.toList());
+    return TreeUtil.createTree(leaves, 12);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 3, 8, 20})
+  void hashTreeRoot_shouldMatchSequentialHash(final int splitDepth) {
+    final Bytes32 expected = createTestTree(3001).hashTreeRoot();
+
+    assertThat(ParallelTreeHasher.hashTreeRoot(createTestTree(3001), pool, splitDepth))
+        .isEqualTo(expected);
+  }
+
+  @Test
+  void hashTreeRoot_shouldMemoizeHashesOfAllBranchNodes() {
+    final TreeNode tree = createTestTree(500);
+    ParallelTreeHasher.hashTreeRoot(tree, pool, 4);
+
+    tree.iterateAll(node -> assertThat(TreeUtil.isUnhashedBranch(node)).isFalse());
+  }
+
+  @Test
+  void hashTreeRoot_shouldHashUpdatedTree() {
+    final TreeNode tree = createTestTree(1000);
+    ParallelTreeHasher.hashTreeRoot(tree, pool, 4);
+
+    TreeNode updated = tree;
+    TreeNode expectedTree = createTestTree(1000);
+    for (int i = 0; i < 1000; i += 97) {
+      final long gIndex = GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, i, 12);
+      updated = updated.updated(gIndex, TreeTest.newTestLeaf(i + 5000));
+      expectedTree = expectedTree.updated(gIndex, TreeTest.newTestLeaf(i + 5000));
+    }
+
+    assertThat(ParallelTreeHasher.hashTreeRoot(updated, pool, 4))
+        .isEqualTo(expectedTree.hashTreeRoot());
+  }
+
+  @Test
+  void hashTreeRoot_shouldRejectNegativeSplitDepth() {
+    assertThatThrownBy(() -> ParallelTreeHasher.hashTreeRoot(createTestTree(10), pool, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
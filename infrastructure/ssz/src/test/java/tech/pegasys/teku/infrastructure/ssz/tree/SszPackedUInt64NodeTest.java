@@ -0,0 +1,191 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class SszPackedUInt64NodeTest {
+  private static final int DEPTH = 4;
+
+  private final Random random = new Random(1);
+
+  private long[] randomValues(final int count) {
+    return IntStream.range(0, count).mapToLong(__ -> random.nextLong()).toArray();
+  }
+
+  private static TreeNode createBinaryTree(final long[] values, final int depth) {
+    final Bytes ssz =
+        Bytes.wrap(
+            IntStream.range(0, values.length)
+                .mapToObj(i -> Bytes.ofUnsignedLong(values[i], ByteOrder.LITTLE_ENDIAN))
+                .toArray(Bytes[]::new));
+    final List<LeafNode> leaves =
+        IntStream.range(0, (ssz.size() + 31) / 32)
+            .mapToObj(i -> LeafNode.create(ssz.slice(i * 32, Math.min(32, ssz.size() - i * 32))))
+            .collect(Collectors.toList());
+    return TreeUtil.createTree(leaves, depth);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 3, 4, 5, 17, 63, 64})
+  void hashTreeRoot_shouldMatchBinaryTree(final int valuesCount) {
+    final long[] values = randomValues(valuesCount);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+
+    assertThat(node.hashTreeRoot()).isEqualTo(createBinaryTree(values, DEPTH).hashTreeRoot());
+  }
+
+  @Test
+  void getData_shouldReturnSszOfValues() {
+    final long[] values = randomValues(7);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+
+    assertThat(node.getData())
+        .isEqualTo(TreeUtil.concatenateLeavesData(createBinaryTree(values, DEPTH)));
+    assertThat(SszPackedUInt64Node.fromSsz(DEPTH, node.getData()).hashTreeRoot())
+        .isEqualTo(node.hashTreeRoot());
+  }
+
+  @Test
+  void get_shouldReturnEquivalentSubtrees() {
+    final long[] values = randomValues(37);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+    final TreeNode binaryTree = createBinaryTree(values, DEPTH);
+
+    for (long gIndex = 1; gIndex < (2L << DEPTH); gIndex++) {
+      assertThat(node.get(gIndex).hashTreeRoot())
+          .isEqualTo(binaryTree.get(gIndex).hashTreeRoot());
+    }
+  }
+
+  @Test
+  void updated_shouldMatchBinaryTreeAfterChunkUpdates() {
+    final long[] values = randomValues(30);
+    TreeNode node = new SszPackedUInt64Node(DEPTH, values);
+    TreeNode binaryTree = createBinaryTree(values, DEPTH);
+    // warm up the hash cache of the original node
+    node.hashTreeRoot();
+
+    for (int chunkIndex : new int[] {0, 3, 7, 8, 9}) {
+      final long gIndex = GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, chunkIndex, DEPTH);
+      final LeafNode newLeaf = createBinaryTreeLeaf(randomValues(4));
+      node = node.updated(gIndex, newLeaf);
+      binaryTree = binaryTree.updated(gIndex, newLeaf);
+
+      assertThat(node).isInstanceOf(SszPackedUInt64Node.class);
+      assertThat(node.hashTreeRoot()).isEqualTo(binaryTree.hashTreeRoot());
+      assertThat(((LeafDataNode) node).getData())
+          .isEqualTo(TreeUtil.concatenateLeavesData(binaryTree));
+    }
+  }
+
+  @Test
+  void updated_shouldNotModifyOriginalNode() {
+    final long[] values = randomValues(20);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values.clone());
+    final TreeNode expected = createBinaryTree(values, DEPTH);
+    node.hashTreeRoot();
+
+    node.updated(GIndexUtil.gIdxChildGIndex(1, 2, DEPTH), createBinaryTreeLeaf(randomValues(4)));
+
+    assertThat(node.hashTreeRoot()).isEqualTo(expected.hashTreeRoot());
+    assertThat(node.getData()).isEqualTo(TreeUtil.concatenateLeavesData(expected));
+  }
+
+  @Test
+  void updated_shouldDropValuesOfTruncatedChunks() {
+    final long[] values = randomValues(30);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+    node.hashTreeRoot();
+
+    // truncate to 17 values: chunk 4 keeps a single value, chunks 5..7 are cleared
+    final TreeUpdates updates =
+        new TreeUpdates(
+            List.of(
+                new TreeUpdates.Update(
+                    GIndexUtil.gIdxChildGIndex(1, 4, DEPTH),
+                    createBinaryTreeLeaf(new long[] {values[16]})),
+                new TreeUpdates.Update(
+                    GIndexUtil.gIdxChildGIndex(1, 5, DEPTH), LeafNode.EMPTY_LEAF),
+                new TreeUpdates.Update(
+                    GIndexUtil.gIdxChildGIndex(1, 6, DEPTH), LeafNode.EMPTY_LEAF),
+                new TreeUpdates.Update(
+                    GIndexUtil.gIdxChildGIndex(1, 7, DEPTH), LeafNode.EMPTY_LEAF)));
+    final TreeNode updated = node.updated(updates);
+
+    final long[] expectedValues = Arrays.copyOf(values, 17);
+    assertThat(updated).isInstanceOf(SszPackedUInt64Node.class);
+    assertThat(((SszPackedUInt64Node) updated).getValuesCount()).isEqualTo(17);
+    assertThat(updated.hashTreeRoot())
+        .isEqualTo(createBinaryTree(expectedValues, DEPTH).hashTreeRoot());
+    assertThat(((LeafDataNode) updated).getData())
+        .isEqualTo(new SszPackedUInt64Node(DEPTH, expectedValues).getData());
+  }
+
+  @Test
+  void updated_shouldNotShrinkWhenOnlyInnerChunksAreCleared() {
+    final long[] values = randomValues(30);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+
+    final TreeNode updated =
+        node.updated(GIndexUtil.gIdxChildGIndex(1, 2, DEPTH), LeafNode.EMPTY_LEAF);
+
+    assertThat(((SszPackedUInt64Node) updated).getValuesCount()).isEqualTo(30);
+  }
+
+  @Test
+  void get_shouldReuseCalculatedHashesInSubtrees() {
+    final long[] values = randomValues(37);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+    final TreeNode binaryTree = createBinaryTree(values, DEPTH);
+    node.hashTreeRoot();
+
+    for (long gIndex = 2; gIndex < (1L << DEPTH); gIndex++) {
+      final TreeNode subtree = node.get(gIndex);
+      assertThat(subtree).isInstanceOf(SszPackedUInt64Node.class);
+      assertThat(subtree.hashTreeRoot()).isEqualTo(binaryTree.get(gIndex).hashTreeRoot());
+      assertThat(subtree.get(GIndexUtil.LEFT_CHILD_G_INDEX).hashTreeRoot())
+          .isEqualTo(binaryTree.get(GIndexUtil.gIdxLeftGIndex(gIndex)).hashTreeRoot());
+    }
+  }
+
+  @Test
+  void updated_shouldFallbackToBinaryTreeForNonChunkUpdates() {
+    final long[] values = randomValues(20);
+    final SszPackedUInt64Node node = new SszPackedUInt64Node(DEPTH, values);
+    final TreeNode binaryTree = createBinaryTree(values, DEPTH);
+    final TreeNode newSubtree = createBinaryTree(randomValues(8), 1);
+
+    final TreeNode updated = node.updated(GIndexUtil.gIdxChildGIndex(1, 1, DEPTH - 1), newSubtree);
+    final TreeNode expected =
+        binaryTree.updated(GIndexUtil.gIdxChildGIndex(1, 1, DEPTH - 1), newSubtree);
+
+    assertThat(updated.hashTreeRoot()).isEqualTo(expected.hashTreeRoot());
+  }
+
+  private static LeafNode createBinaryTreeLeaf(final long[] chunkValues) {
+    return (LeafNode) createBinaryTree(chunkValues, 0);
+  }
+}
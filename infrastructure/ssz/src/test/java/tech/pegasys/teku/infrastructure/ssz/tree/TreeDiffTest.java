@@ -0,0 +1,147 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tech.pegasys.teku.infrastructure.ssz.RandomSszDataGenerator;
+import tech.pegasys.teku.infrastructure.ssz.SszList;
+import tech.pegasys.teku.infrastructure.ssz.SszMutableList;
+import tech.pegasys.teku.infrastructure.ssz.TestContainers.TestSubContainer;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszMutableUInt64List;
+import tech.pegasys.teku.infrastructure.ssz.collections.SszUInt64List;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszListSchema;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchemaHints;
+import tech.pegasys.teku.infrastructure.ssz.schema.collections.SszUInt64ListSchema;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+
+public class TreeDiffTest {
+
+  private static final RandomSszDataGenerator GENERATOR = new RandomSszDataGenerator();
+
+  static Stream<SszUInt64ListSchema<?>> uint64ListSchemas() {
+    return Stream.of(
+        SszUInt64ListSchema.create(1024),
+        SszUInt64ListSchema.create(1024, SszSchemaHints.sszPackedUInt64Node(3)));
+  }
+
+  private static SszUInt64List createUInt64List(final SszUInt64ListSchema<?> schema) {
+    final SszMutableUInt64List list = schema.getDefault().createWritableCopy();
+    for (int i = 0; i < 100; i++) {
+      list.appendElement(UInt64.valueOf(i * 1000L));
+    }
+    return list.commitChanges();
+  }
+
+  @ParameterizedTest
+  @MethodSource("uint64ListSchemas")
+  void apply_shouldProduceTargetTree(final SszUInt64ListSchema<?> schema) {
+    final SszUInt64List base = createUInt64List(schema);
+    final SszMutableUInt64List mutableList = base.createWritableCopy();
+    mutableList.setElement(3, UInt64.valueOf(777));
+    mutableList.setElement(70, UInt64.valueOf(888));
+    mutableList.appendElement(UInt64.valueOf(999));
+    final SszUInt64List target = mutableList.commitChanges();
+
+    final TreeDiff diff = TreeDiff.create(base.getBackingNode(), target.getBackingNode());
+    final SszUInt64List result = schema.createFromBackingNode(diff.apply(base.getBackingNode()));
+
+    assertThat(diff.getBaseRoot()).isEqualTo(base.hashTreeRoot());
+    assertThat(diff.getTargetRoot()).isEqualTo(target.hashTreeRoot());
+    assertThat(result.hashTreeRoot()).isEqualTo(target.hashTreeRoot());
+    assertThat(result.sszSerialize()).isEqualTo(target.sszSerialize());
+  }
+
+  @ParameterizedTest
+  @MethodSource("uint64ListSchemas")
+  void apply_shouldHandleAppendedZeroElement(final SszUInt64ListSchema<?> schema) {
+    final SszUInt64List base = createUInt64List(schema);
+    final SszMutableUInt64List mutableList = base.createWritableCopy();
+    mutableList.appendElement(UInt64.ZERO);
+    final SszUInt64List target = mutableList.commitChanges();
+
+    final TreeDiff diff = TreeDiff.create(base.getBackingNode(), target.getBackingNode());
+    final SszUInt64List result = schema.createFromBackingNode(diff.apply(base.getBackingNode()));
+
+    assertThat(result.size()).isEqualTo(target.size());
+    assertThat(result.sszSerialize()).isEqualTo(target.sszSerialize());
+  }
+
+  @Test
+  void apply_shouldUpdateSuperNodes() {
+    final SszListSchema<TestSubContainer, ?> schema =
+        SszListSchema.create(TestSubContainer.SSZ_SCHEMA, 1024, SszSchemaHints.sszSuperNode(2));
+    final SszList<TestSubContainer> base = GENERATOR.randomData(schema);
+    final SszMutableList<TestSubContainer> mutableList = base.createWritableCopy();
+    mutableList.set(0, GENERATOR.randomData(TestSubContainer.SSZ_SCHEMA));
+    mutableList.append(GENERATOR.randomData(TestSubContainer.SSZ_SCHEMA));
+    final SszList<TestSubContainer> target = mutableList.commitChanges();
+
+    final TreeDiff diff = TreeDiff.create(base.getBackingNode(), target.getBackingNode());
+    final SszList<TestSubContainer> result =
+        schema.createFromBackingNode(diff.apply(base.getBackingNode()));
+
+    assertThat(result.hashTreeRoot()).isEqualTo(target.hashTreeRoot());
+    assertThat(result.sszSerialize()).isEqualTo(target.sszSerialize());
+  }
+
+  @Test
+  void create_shouldSkipSharedSubtrees() {
+    final SszUInt64ListSchema<?> schema = SszUInt64ListSchema.create(1024);
+    final SszUInt64List base = createUInt64List(schema);
+    final SszMutableUInt64List mutableList = base.createWritableCopy();
+    mutableList.setElement(10, UInt64.valueOf(1));
+    final SszUInt64List target = mutableList.commitChanges();
+
+    assertThat(TreeDiff.create(base.getBackingNode(), base.getBackingNode()).isEmpty()).isTrue();
+    final TreeDiff diff = TreeDiff.create(base.getBackingNode(), target.getBackingNode());
+    assertThat(diff.getChangedNodesCount()).isEqualTo(1);
+  }
+
+  @Test
+  void serialize_shouldRoundtrip() {
+    final SszUInt64ListSchema<?> schema = SszUInt64ListSchema.create(1024);
+    final SszUInt64List base = createUInt64List(schema);
+    final SszMutableUInt64List mutableList = base.createWritableCopy();
+    mutableList.setElement(10, UInt64.valueOf(1));
+    mutableList.appendElement(UInt64.valueOf(2));
+    final TreeDiff diff =
+        TreeDiff.create(base.getBackingNode(), mutableList.commitChanges().getBackingNode());
+
+    final Bytes serialized = diff.serialize();
+
+    assertThat(TreeDiff.deserialize(serialized)).isEqualTo(diff);
+    assertThatThrownBy(() -> TreeDiff.deserialize(serialized.slice(0, serialized.size() - 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void apply_shouldThrowIfBaseDoesNotMatch() {
+    final SszUInt64ListSchema<?> schema = SszUInt64ListSchema.create(1024);
+    final SszUInt64List base = createUInt64List(schema);
+    final SszMutableUInt64List mutableList = base.createWritableCopy();
+    mutableList.setElement(10, UInt64.valueOf(1));
+    final SszUInt64List target = mutableList.commitChanges();
+    final TreeDiff diff = TreeDiff.create(base.getBackingNode(), target.getBackingNode());
+
+    assertThatThrownBy(() -> diff.apply(target.getBackingNode()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
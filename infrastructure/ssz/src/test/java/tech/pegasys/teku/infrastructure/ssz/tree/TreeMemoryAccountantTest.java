@@ -0,0 +1,99 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+
+public class TreeMemoryAccountantTest {
+
+  private final TreeNode sharedSubtree =
+      BranchNode.create(LeafNode.create(Bytes.of(1)), LeafNode.create(Bytes.of(2)));
+
+  @Test
+  void measure_shouldSplitSharedAndUniqueNodes() {
+    final TreeNode tree1 = BranchNode.create(LeafNode.create(Bytes.of(3)), sharedSubtree);
+    final TreeNode tree2 = BranchNode.create(LeafNode.create(Bytes.random(20)), sharedSubtree);
+
+    final TreeMemoryUsage usage = TreeMemoryAccountant.measure(List.of(tree1, tree2));
+
+    assertThat(usage.getNodeCount()).isEqualTo(7);
+    assertThat(usage.getSharedBytes())
+        .isEqualTo(TreeMemoryAccountant.measure(List.of(sharedSubtree)).getTotalBytes());
+    assertThat(usage.getUniqueBytes(0)).isPositive();
+    assertThat(usage.getUniqueBytes(1)).isGreaterThan(usage.getUniqueBytes(0));
+    assertThat(usage.getTotalBytes())
+        .isEqualTo(usage.getUniqueBytes(0) + usage.getUniqueBytes(1) + usage.getSharedBytes());
+  }
+
+  @Test
+  void measure_shouldMarkSubtreeSharedWhenReachedFromLaterRoot() {
+    final TreeNode tree1 = BranchNode.create(LeafNode.create(Bytes.of(3)), sharedSubtree);
+
+    final TreeMemoryUsage usage = TreeMemoryAccountant.measure(List.of(tree1, sharedSubtree));
+
+    assertThat(usage.getNodeCount()).isEqualTo(5);
+    assertThat(usage.getUniqueBytes(1)).isZero();
+    assertThat(usage.getSharedBytes())
+        .isEqualTo(TreeMemoryAccountant.measure(List.of(sharedSubtree)).getTotalBytes());
+  }
+
+  @Test
+  void measure_shouldNotCountSameTreeTwiceAsShared() {
+    final TreeMemoryUsage usage =
+        TreeMemoryAccountant.measure(List.of(BranchNode.create(sharedSubtree, sharedSubtree)));
+
+    assertThat(usage.getNodeCount()).isEqualTo(4);
+    assertThat(usage.getSharedBytes()).isZero();
+  }
+
+  @Test
+  void measure_shouldIgnoreZeroTrees() {
+    final TreeNode tree = BranchNode.create(TreeUtil.ZERO_TREES[10], LeafNode.ZERO_LEAVES[8]);
+
+    final TreeMemoryUsage usage = TreeMemoryAccountant.measure(List.of(tree));
+
+    assertThat(usage.getNodeCount()).isEqualTo(1);
+  }
+
+  @Test
+  void measureAdditional_shouldOnlyCountNodesNotSharedWithBase() {
+    final LeafNode changedLeaf = LeafNode.create(Bytes.random(20));
+    final TreeNode base = BranchNode.create(LeafNode.create(Bytes.of(3)), sharedSubtree);
+    final TreeNode tree = BranchNode.create(changedLeaf, sharedSubtree);
+
+    assertThat(TreeMemoryAccountant.measureAdditional(tree, base))
+        .isEqualTo(
+            TreeMemoryAccountant.estimateSize(tree)
+                + TreeMemoryAccountant.estimateSize(changedLeaf));
+  }
+
+  @Test
+  void measureAdditional_shouldBeZeroForSameTree() {
+    final TreeNode tree = BranchNode.create(LeafNode.create(Bytes.of(3)), sharedSubtree);
+
+    assertThat(TreeMemoryAccountant.measureAdditional(tree, tree)).isZero();
+  }
+
+  @Test
+  void measureAdditional_shouldCountWholeSubtreeWhenStructureDiffers() {
+    final TreeNode base = LeafNode.create(Bytes.of(3));
+    final TreeNode tree = BranchNode.create(LeafNode.create(Bytes.of(4)), sharedSubtree);
+
+    assertThat(TreeMemoryAccountant.measureAdditional(tree, base))
+        .isEqualTo(TreeMemoryAccountant.measure(List.of(tree)).getTotalBytes());
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.infrastructure.ssz.tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource.CompressedBranchInfo;
+
+public class TreeNodeInternerTest {
+
+  private final TreeNodeInterner interner = new TreeNodeInterner();
+
+  @Test
+  void internLeaf_shouldReuseLeafWithSameData() {
+    final LeafNode leaf1 = interner.internLeaf(Bytes.of(1, 2, 3));
+    final LeafNode leaf2 = interner.internLeaf(Bytes.of(1, 2, 3));
+
+    assertThat(leaf2).isSameAs(leaf1);
+    assertThat(interner.getInternedCount()).isEqualTo(2);
+    assertThat(interner.getReusedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void internLeaf_shouldNotReuseLeafWithSameHashButDifferentData() {
+    // both leaves hash to the zero-padded data
+    final LeafNode leaf1 = interner.internLeaf(Bytes.of(1, 0));
+    final LeafNode leaf2 = interner.internLeaf(Bytes.of(1));
+
+    assertThat(leaf1.hashTreeRoot()).isEqualTo(leaf2.hashTreeRoot());
+    assertThat(leaf2).isNotSameAs(leaf1);
+    assertThat(leaf2.getData()).isEqualTo(Bytes.of(1));
+  }
+
+  @Test
+  void internBranch_shouldReuseChildHashesOfIdenticalBranch() {
+    final CompressedBranchInfo branch1 =
+        interner.internBranch(
+            new CompressedBranchInfo(
+                1, new Bytes32[] {Bytes32.fromHexString("0x01"), Bytes32.fromHexString("0x02")}));
+    final CompressedBranchInfo branch2 =
+        interner.internBranch(
+            new CompressedBranchInfo(
+                1, new Bytes32[] {Bytes32.fromHexString("0x01"), Bytes32.fromHexString("0x03")}));
+
+    assertThat(branch2.getDepth()).isEqualTo(1);
+    assertThat(branch2.getChildren())
+        .containsExactly(Bytes32.fromHexString("0x01"), Bytes32.fromHexString("0x03"));
+    assertThat(branch2.getChildren()[0]).isSameAs(branch1.getChildren()[0]);
+    assertThat(interner.getInternedBranchCount()).isEqualTo(2);
+    assertThat(interner.getReusedBranchHashCount()).isEqualTo(1);
+  }
+
+  @Test
+  void internLeaf_shouldReturnStaticZeroLeaf() {
+    assertThat(interner.internLeaf(Bytes.wrap(new byte[8]))).isSameAs(LeafNode.ZERO_LEAVES[8]);
+    assertThat(interner.internLeaf(Bytes32.ZERO).getData()).isEqualTo(Bytes32.ZERO);
+  }
+}
@@ -28,13 +28,13 @@ public class PerformanceTracker {
     this.timeProvider = timeProvider;
   }
 
-  public UInt64 addEvent(final String label) {
+  public synchronized UInt64 addEvent(final String label) {
     final UInt64 timestamp = timeProvider.getTimeInMillis();
     events.add(Pair.of(label, timestamp));
     return timestamp;
   }
 
-  public void report(
+  public synchronized void report(
       final UInt64 startTime,
       final boolean isLateEvent,
       final EventReporter eventReporter,
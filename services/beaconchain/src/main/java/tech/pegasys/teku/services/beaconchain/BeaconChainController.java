@@ -201,6 +201,7 @@ public class BeaconChainController extends Service implements BeaconChainControl
   protected volatile ForkChoice forkChoice;
   protected volatile ForkChoiceTrigger forkChoiceTrigger;
   protected volatile BlockImporter blockImporter;
+  protected volatile Optional<BlockImportMetrics> blockImportMetrics = Optional.empty();
 
   protected volatile DataProvider dataProvider;
   protected volatile RecentChainData recentChainData;
@@ -934,6 +935,10 @@ public class BeaconChainController extends Service implements BeaconChainControl
 
   public void initBlockImporter() {
     LOG.debug("BeaconChainController.initBlockImporter()");
+    blockImportMetrics =
+        beaconConfig.getMetricsConfig().isBlockPerformanceEnabled()
+            ? Optional.of(BlockImportMetrics.create(metricsSystem))
+            : Optional.empty();
     blockImporter =
         new BlockImporter(
             spec,
@@ -941,7 +946,9 @@ public class BeaconChainController extends Service implements BeaconChainControl
             recentChainData,
             forkChoice,
             weakSubjectivityValidator,
-            executionLayer);
+            executionLayer,
+            timeProvider,
+            blockImportMetrics);
   }
 
   public void initBlockManager() {
@@ -949,10 +956,6 @@ public class BeaconChainController extends Service implements BeaconChainControl
     final FutureItems<SignedBeaconBlock> futureBlocks =
         FutureItems.create(SignedBeaconBlock::getSlot, futureItemsMetric, "blocks");
     final BlockValidator blockValidator = new BlockValidator(spec, recentChainData);
-    final Optional<BlockImportMetrics> importMetrics =
-        beaconConfig.getMetricsConfig().isBlockPerformanceEnabled()
-            ? Optional.of(BlockImportMetrics.create(metricsSystem))
-            : Optional.empty();
 
     blockManager =
         new BlockManager(
@@ -964,7 +967,7 @@ public class BeaconChainController extends Service implements BeaconChainControl
             blockValidator,
             timeProvider,
             EVENT_LOG,
-            importMetrics);
+            blockImportMetrics);
     if (spec.isMilestoneSupported(SpecMilestone.BELLATRIX)) {
       final FailedExecutionPool failedExecutionPool =
           new FailedExecutionPool(blockManager, beaconAsyncRunner);
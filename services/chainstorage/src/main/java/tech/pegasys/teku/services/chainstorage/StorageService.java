@@ -28,26 +28,38 @@ import tech.pegasys.teku.spec.SpecMilestone;
 import tech.pegasys.teku.storage.api.CombinedStorageChannel;
 import tech.pegasys.teku.storage.api.Eth1DepositStorageChannel;
 import tech.pegasys.teku.storage.api.FinalizedCheckpointChannel;
+import tech.pegasys.teku.storage.api.StorageUpdateChannel;
 import tech.pegasys.teku.storage.api.VoteUpdateChannel;
 import tech.pegasys.teku.storage.server.BatchingVoteUpdateChannel;
 import tech.pegasys.teku.storage.server.ChainStorage;
 import tech.pegasys.teku.storage.server.CombinedStorageChannelSplitter;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.DepositStorage;
+import tech.pegasys.teku.storage.server.GroupCommitStorageUpdateChannel;
 import tech.pegasys.teku.storage.server.RetryingStorageUpdateChannel;
+import tech.pegasys.teku.storage.server.SecondaryDatabaseFollower;
 import tech.pegasys.teku.storage.server.StorageConfiguration;
 import tech.pegasys.teku.storage.server.VersionedDatabaseFactory;
 import tech.pegasys.teku.storage.server.pruner.BlobsPruner;
 import tech.pegasys.teku.storage.server.pruner.BlockPruner;
+import tech.pegasys.teku.storage.server.pruner.FinalizedStateRetierer;
 
 public class StorageService extends Service implements StorageServiceFacade {
+  private static final int STORAGE_SERIALIZATION_PARALLELISM = 2;
+
   private final StorageConfiguration config;
   private volatile ChainStorage chainStorage;
   private final ServiceConfig serviceConfig;
   private volatile Database database;
   private volatile BatchingVoteUpdateChannel batchingVoteUpdateChannel;
   private volatile Optional<BlockPruner> blockPruner = Optional.empty();
+  private volatile Optional<GroupCommitStorageUpdateChannel> groupCommitStorageUpdateChannel =
+      Optional.empty();
+  private volatile Optional<AsyncRunnerEventThread> storageWriteThread = Optional.empty();
   private volatile Optional<BlobsPruner> blobsPruner = Optional.empty();
+  private volatile Optional<FinalizedStateRetierer> stateRetierer = Optional.empty();
+  private volatile Optional<SecondaryDatabaseFollower> secondaryDatabaseFollower =
+      Optional.empty();
   private final boolean depositSnapshotStorageEnabled;
 
   public StorageService(
@@ -78,7 +90,17 @@ public class StorageService extends Service implements StorageServiceFacade {
 
               database.migrate();
 
-              if (!config.getDataStorageMode().storesAllBlocks()) {
+              // Pruning and retiering write to the database so are left to the primary
+              final boolean writable = !config.isSecondary();
+              if (config.isSecondary()) {
+                secondaryDatabaseFollower =
+                    Optional.of(
+                        new SecondaryDatabaseFollower(
+                            database,
+                            storagePrunerAsyncRunner,
+                            config.getSecondaryCatchUpInterval()));
+              }
+              if (writable && !config.getDataStorageMode().storesAllBlocks()) {
                 blockPruner =
                     Optional.of(
                         new BlockPruner(
@@ -87,7 +109,7 @@ public class StorageService extends Service implements StorageServiceFacade {
                             storagePrunerAsyncRunner,
                             config.getBlockPruningInterval()));
               }
-              if (config.getSpec().isMilestoneSupported(SpecMilestone.EIP4844)) {
+              if (writable && config.getSpec().isMilestoneSupported(SpecMilestone.EIP4844)) {
                 blobsPruner =
                     Optional.of(
                         new BlobsPruner(
@@ -98,8 +120,19 @@ public class StorageService extends Service implements StorageServiceFacade {
                             config.getBlobsPruningInterval(),
                             config.getBlobsPruningLimit()));
               }
+              if (writable
+                  && config.isStateTieringEnabled()
+                  && config.getDataStorageMode().storesFinalizedStates()) {
+                stateRetierer =
+                    Optional.of(
+                        new FinalizedStateRetierer(
+                            database,
+                            storagePrunerAsyncRunner,
+                            StorageConfiguration.DEFAULT_STATE_RETIERING_INTERVAL));
+              }
               final EventChannels eventChannels = serviceConfig.getEventChannels();
-              chainStorage = ChainStorage.create(database, config.getSpec());
+              chainStorage =
+                  ChainStorage.create(database, config.getSpec(), serviceConfig.getMetricsSystem());
               final DepositStorage depositStorage =
                   DepositStorage.create(
                       eventChannels.getPublisher(Eth1EventsChannel.class),
@@ -112,14 +145,40 @@ public class StorageService extends Service implements StorageServiceFacade {
                       new AsyncRunnerEventThread(
                           "batch-vote-updater", serviceConfig.getAsyncRunnerFactory()));
 
-              eventChannels.subscribe(
-                  CombinedStorageChannel.class,
-                  new CombinedStorageChannelSplitter(
-                      serviceConfig.createAsyncRunner(
-                          "storage_query", STORAGE_QUERY_CHANNEL_PARALLELISM),
-                      new RetryingStorageUpdateChannel(
-                          chainStorage, serviceConfig.getTimeProvider()),
-                      chainStorage));
+              final StorageUpdateChannel retryingStorageUpdateChannel =
+                  new RetryingStorageUpdateChannel(chainStorage, serviceConfig.getTimeProvider());
+              final AsyncRunner storageQueryAsyncRunner =
+                  serviceConfig.createAsyncRunner(
+                      "storage_query", STORAGE_QUERY_CHANNEL_PARALLELISM);
+              if (config.isGroupCommitEnabled()) {
+                final AsyncRunnerEventThread writeThread =
+                    new AsyncRunnerEventThread(
+                        "storage-writer", serviceConfig.getAsyncRunnerFactory());
+                writeThread.start();
+                final GroupCommitStorageUpdateChannel groupCommitChannel =
+                    new GroupCommitStorageUpdateChannel(
+                        retryingStorageUpdateChannel,
+                        database::prepareUpdate,
+                        serviceConfig.createAsyncRunner(
+                            "storage_serialization", STORAGE_SERIALIZATION_PARALLELISM),
+                        writeThread,
+                        serviceConfig.getMetricsSystem(),
+                        serviceConfig.getTimeProvider());
+                storageWriteThread = Optional.of(writeThread);
+                groupCommitStorageUpdateChannel = Optional.of(groupCommitChannel);
+                eventChannels.subscribe(
+                    CombinedStorageChannel.class,
+                    new CombinedStorageChannelSplitter(
+                        storageQueryAsyncRunner,
+                        groupCommitChannel,
+                        chainStorage,
+                        groupCommitChannel::awaitQueuedWrites));
+              } else {
+                eventChannels.subscribe(
+                    CombinedStorageChannel.class,
+                    new CombinedStorageChannelSplitter(
+                        storageQueryAsyncRunner, retryingStorageUpdateChannel, chainStorage));
+              }
 
               eventChannels
                   .subscribe(Eth1DepositStorageChannel.class, depositStorage)
@@ -137,6 +196,16 @@ public class StorageService extends Service implements StorageServiceFacade {
             __ ->
                 blobsPruner
                     .map(BlobsPruner::start)
+                    .orElseGet(() -> SafeFuture.completedFuture(null)))
+        .thenCompose(
+            __ ->
+                stateRetierer
+                    .map(FinalizedStateRetierer::start)
+                    .orElseGet(() -> SafeFuture.completedFuture(null)))
+        .thenCompose(
+            __ ->
+                secondaryDatabaseFollower
+                    .map(SecondaryDatabaseFollower::start)
                     .orElseGet(() -> SafeFuture.completedFuture(null)));
   }
 
@@ -145,7 +214,26 @@ public class StorageService extends Service implements StorageServiceFacade {
     return blockPruner
         .map(BlockPruner::stop)
         .orElseGet(() -> SafeFuture.completedFuture(null))
-        .thenCompose(__ -> SafeFuture.fromRunnable(database::close));
+        .thenCompose(
+            __ ->
+                stateRetierer
+                    .map(FinalizedStateRetierer::stop)
+                    .orElseGet(() -> SafeFuture.completedFuture(null)))
+        .thenCompose(
+            __ ->
+                secondaryDatabaseFollower
+                    .map(SecondaryDatabaseFollower::stop)
+                    .orElseGet(() -> SafeFuture.completedFuture(null)))
+        .thenCompose(
+            __ ->
+                SafeFuture.fromRunnable(
+                    () -> {
+                      // Let queued writes complete before closing the database
+                      groupCommitStorageUpdateChannel.ifPresent(
+                          GroupCommitStorageUpdateChannel::awaitCompletion);
+                      storageWriteThread.ifPresent(AsyncRunnerEventThread::stop);
+                      database.close();
+                    }));
   }
 
   @Override
@@ -17,6 +17,7 @@ import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assumptions.assumeThat;
 import static org.mockito.Mockito.mock;
 import static tech.pegasys.teku.infrastructure.async.SafeFutureAssert.assertThatSafeFuture;
 import static tech.pegasys.teku.infrastructure.unsigned.UInt64.ONE;
@@ -81,6 +82,7 @@ import tech.pegasys.teku.storage.api.WeakSubjectivityUpdate;
 import tech.pegasys.teku.storage.client.RecentChainData;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.DatabaseContext;
+import tech.pegasys.teku.storage.server.DatabaseVersion;
 import tech.pegasys.teku.storage.server.ShuttingDownException;
 import tech.pegasys.teku.storage.server.StateStorageMode;
 import tech.pegasys.teku.storage.server.TestDatabaseContext;
@@ -747,6 +749,62 @@ public class DatabaseTest {
     assertFinalizedStatesAvailable(expectedFinalizedStates);
   }
 
+  @TestTemplate
+  public void exportAndImport_shouldRecreateDatabaseContents(final DatabaseContext context)
+      throws IOException {
+    // Export is only supported by the combined database formats
+    assumeThat(context.getDatabaseVersion())
+        .isNotIn(DatabaseVersion.V4, DatabaseVersion.V5, DatabaseVersion.LEVELDB1);
+    initialize(context);
+
+    final UInt64 finalizedEpoch = UInt64.valueOf(2);
+    final UInt64 finalizedSlot = spec.computeStartSlotAtEpoch(finalizedEpoch);
+    chainBuilder.generateBlocksUpToSlot(finalizedSlot.plus(3));
+    final List<SignedBlockAndState> allBlocks =
+        chainBuilder.streamBlocksAndStates(genesisBlockAndState.getSlot()).collect(toList());
+    add(allBlocks);
+    final SignedBlockAndState finalizedBlock = chainBuilder.getBlockAndStateAtSlot(finalizedSlot);
+    justifyAndFinalizeEpoch(finalizedEpoch, finalizedBlock);
+
+    final Database originalDatabase = database;
+    final UpdatableStore originalStore = recentChainData.getStore();
+    final Map<String, Long> originalColumnCounts =
+        ((KvStoreDatabase) originalDatabase).dao.getColumnCounts();
+    final Path exportDir = Files.createTempDirectory("export");
+    tmpDirectories.add(exportDir.toFile());
+    ((KvStoreDatabase) originalDatabase).exportDatabase(exportDir, message -> {});
+
+    // Import into a fresh, empty database
+    createStorageSystem(context, storageMode, StoreConfig.createDefault(), false);
+    assertThat(database).isNotSameAs(originalDatabase);
+    ((KvStoreDatabase) database).importDatabase(exportDir, message -> {});
+
+    assertThat(((KvStoreDatabase) database).dao.getColumnCounts()).isEqualTo(originalColumnCounts);
+    assertThat(database.getGenesisTime()).isEqualTo(originalDatabase.getGenesisTime());
+    assertThat(database.getAnchor()).isEqualTo(originalDatabase.getAnchor());
+    assertThat(database.getJustifiedCheckpoint())
+        .isEqualTo(originalDatabase.getJustifiedCheckpoint());
+    assertThat(database.getFinalizedCheckpoint())
+        .isEqualTo(originalDatabase.getFinalizedCheckpoint());
+
+    final List<SignedBeaconBlock> finalizedBlocks =
+        chainBuilder
+            .streamBlocksAndStates(genesisBlockAndState.getSlot(), finalizedSlot)
+            .map(SignedBlockAndState::getBlock)
+            .collect(toList());
+    assertBlocksFinalized(finalizedBlocks);
+    assertBlocksAvailable(allBlocks.stream().map(SignedBlockAndState::getBlock).collect(toList()));
+    assertFinalizedStatesAvailable(
+        Map.of(
+            genesisBlockAndState.getRoot(),
+            genesisBlockAndState.getState(),
+            finalizedBlock.getRoot(),
+            finalizedBlock.getState()));
+
+    final UpdatableStore importedStore = recreateStore();
+    assertStoresMatch(importedStore, originalStore);
+  }
+
   @TestTemplate
   public void shouldRecordOptimisticTransitionExecutionPayloadWhenFinalized_singleTransaction(
       final DatabaseContext context) throws IOException {
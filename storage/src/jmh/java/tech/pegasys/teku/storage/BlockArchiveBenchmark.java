@@ -0,0 +1,152 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.blockarchive.BlockArchive;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer;
+import tech.pegasys.teku.storage.server.rocksdb.RocksDbInstanceFactory;
+
+/**
+ * Compares the block archive with a RocksDB column for the finalized block access patterns: bulk
+ * historical import and streaming a slot range as done when serving BeaconBlocksByRange.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class BlockArchiveBenchmark {
+  private static final int BLOCK_COUNT = 32 * 1024;
+  private static final int BLOCK_SIZE = 2048;
+  private static final int IMPORT_BATCH_SIZE = 512;
+  // Maximum BeaconBlocksByRange request size
+  private static final int RANGE_SIZE = 1024;
+
+  private static final KvStoreColumn<UInt64, Bytes> BLOCKS_COLUMN =
+      KvStoreColumn.create(
+          1, KvStoreSerializer.UINT64_SERIALIZER, KvStoreSerializer.BYTES_SERIALIZER);
+
+  private static final List<Bytes> BLOCKS;
+
+  static {
+    final Random random = new Random(1);
+    BLOCKS =
+        IntStream.range(0, BLOCK_COUNT)
+            .mapToObj(
+                __ -> {
+                  final byte[] block = new byte[BLOCK_SIZE];
+                  random.nextBytes(block);
+                  return Bytes.wrap(block);
+                })
+            .collect(Collectors.toList());
+  }
+
+  private final Random random = new Random(2);
+  private Path tempDirectory;
+  private BlockArchive archive;
+  private KvStoreAccessor kvStore;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    tempDirectory = Files.createTempDirectory(getClass().getSimpleName());
+    archive = BlockArchive.open(tempDirectory.resolve("archive"));
+    kvStore =
+        RocksDbInstanceFactory.create(
+            new NoOpMetricsSystem(),
+            TekuMetricCategory.STORAGE_FINALIZED_DB,
+            KvStoreConfiguration.v6SingleDefaults().withDatabaseDir(tempDirectory.resolve("db")),
+            List.of(BLOCKS_COLUMN),
+            List.of());
+    importToArchive();
+    importToKvStore();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    archive.close();
+    kvStore.close();
+    FileUtils.deleteDirectory(tempDirectory.toFile());
+  }
+
+  @Benchmark
+  public void importToArchive() {
+    for (int batchStart = 0; batchStart < BLOCK_COUNT; batchStart += IMPORT_BATCH_SIZE) {
+      final BlockArchive.Updater updater = archive.updater();
+      for (int slot = batchStart; slot < batchStart + IMPORT_BATCH_SIZE; slot++) {
+        updater.put(UInt64.valueOf(slot), BLOCKS.get(slot));
+      }
+      updater.commit();
+    }
+  }
+
+  @Benchmark
+  public void importToKvStore() {
+    for (int batchStart = 0; batchStart < BLOCK_COUNT; batchStart += IMPORT_BATCH_SIZE) {
+      try (final KvStoreTransaction transaction = kvStore.startTransaction()) {
+        for (int slot = batchStart; slot < batchStart + IMPORT_BATCH_SIZE; slot++) {
+          transaction.put(BLOCKS_COLUMN, UInt64.valueOf(slot), BLOCKS.get(slot));
+        }
+        transaction.commit();
+      }
+    }
+  }
+
+  @Benchmark
+  public void streamRangeFromArchive(final Blackhole bh) {
+    final UInt64 startSlot = randomRangeStart();
+    try (final Stream<?> blocks = archive.stream(startSlot, startSlot.plus(RANGE_SIZE - 1))) {
+      blocks.forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void streamRangeFromKvStore(final Blackhole bh) {
+    final UInt64 startSlot = randomRangeStart();
+    try (final Stream<ColumnEntry<UInt64, Bytes>> blocks =
+        kvStore.stream(BLOCKS_COLUMN, startSlot, startSlot.plus(RANGE_SIZE - 1))) {
+      blocks.forEach(bh::consume);
+    }
+  }
+
+  private UInt64 randomRangeStart() {
+    return UInt64.valueOf(random.nextInt(BLOCK_COUNT - RANGE_SIZE));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage;
+
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES32_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.UINT64_SERIALIZER;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumnProfile;
+import tech.pegasys.teku.storage.server.rocksdb.RocksDbInstanceFactory;
+
+/**
+ * Replays a day of block import writes and REST API reads against RocksDB columns laid out like
+ * the V6 schema, with and without per column tuning profiles. Each slot imports a block, updates
+ * votes and serves block lookups by root. Each epoch stores a state, finalizes the epoch's blocks
+ * and serves a range of finalized blocks by slot.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ColumnProfileBenchmark {
+  private static final int SLOTS_PER_DAY = 7200;
+  private static final int SLOTS_PER_EPOCH = 32;
+  private static final int BLOCK_SIZE = 16 * 1024;
+  private static final int STATE_SIZE = 1024 * 1024;
+  private static final int VOTE_SIZE = 80;
+  private static final int VOTES_PER_SLOT = 512;
+  private static final int VALIDATOR_COUNT = 500_000;
+  private static final int BLOCK_READS_PER_SLOT = 4;
+  private static final int FINALIZED_RANGE_SIZE = 64;
+
+  private static final KvStoreColumn<Bytes32, Bytes> HOT_BLOCKS_BY_ROOT =
+      KvStoreColumn.create(
+          1, BYTES32_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.POINT_LOOKUP);
+  private static final KvStoreColumn<UInt64, Bytes> VOTES =
+      KvStoreColumn.create(3, UINT64_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.SEQUENTIAL);
+  private static final KvStoreColumn<Bytes32, Bytes> HOT_STATES_BY_ROOT =
+      KvStoreColumn.create(
+          6, BYTES32_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.LARGE_VALUE);
+  private static final KvStoreColumn<Bytes32, UInt64> SLOTS_BY_FINALIZED_ROOT =
+      KvStoreColumn.create(
+          129, BYTES32_SERIALIZER, UINT64_SERIALIZER, KvStoreColumnProfile.POINT_LOOKUP);
+  private static final KvStoreColumn<UInt64, Bytes> FINALIZED_BLOCKS_BY_SLOT =
+      KvStoreColumn.create(
+          130, UINT64_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.SEQUENTIAL);
+  private static final KvStoreColumn<UInt64, Bytes> FINALIZED_STATES_BY_SLOT =
+      KvStoreColumn.create(
+          131, UINT64_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.LARGE_VALUE);
+
+  @Param({"true", "false"})
+  private boolean columnProfilesEnabled;
+
+  private final Random random = new Random(1);
+  private final List<Bytes32> blockRoots = new ArrayList<>();
+  private Bytes block;
+  private Bytes state;
+  private Bytes vote;
+  private Path tempDirectory;
+  private KvStoreAccessor db;
+
+  @Setup(Level.Iteration)
+  public void setup() throws Exception {
+    block = randomBytes(BLOCK_SIZE);
+    state = randomBytes(STATE_SIZE);
+    vote = randomBytes(VOTE_SIZE);
+    blockRoots.clear();
+    tempDirectory = Files.createTempDirectory(getClass().getSimpleName());
+    db =
+        RocksDbInstanceFactory.create(
+            new NoOpMetricsSystem(),
+            TekuMetricCategory.STORAGE,
+            KvStoreConfiguration.v6SingleDefaults()
+                .withDatabaseDir(tempDirectory)
+                .withColumnProfilesEnabled(columnProfilesEnabled),
+            List.of(
+                HOT_BLOCKS_BY_ROOT,
+                VOTES,
+                HOT_STATES_BY_ROOT,
+                SLOTS_BY_FINALIZED_ROOT,
+                FINALIZED_BLOCKS_BY_SLOT,
+                FINALIZED_STATES_BY_SLOT),
+            List.of());
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws Exception {
+    db.close();
+    FileUtils.deleteDirectory(tempDirectory.toFile());
+  }
+
+  @Benchmark
+  public void replayDay(final Blackhole bh) {
+    for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+      importBlock(slot);
+      for (int i = 0; i < BLOCK_READS_PER_SLOT; i++) {
+        readBlockByRoot(bh);
+      }
+      if ((slot + 1) % SLOTS_PER_EPOCH == 0) {
+        finalizeEpoch(slot + 1 - SLOTS_PER_EPOCH);
+        readFinalizedRange(bh, slot);
+      }
+    }
+  }
+
+  private void importBlock(final int slot) {
+    final Bytes32 root = Bytes32.random(random);
+    blockRoots.add(root);
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.put(HOT_BLOCKS_BY_ROOT, root, block);
+      for (int i = 0; i < VOTES_PER_SLOT; i++) {
+        transaction.put(VOTES, UInt64.valueOf(random.nextInt(VALIDATOR_COUNT)), vote);
+      }
+      if (slot % SLOTS_PER_EPOCH == 0) {
+        transaction.put(HOT_STATES_BY_ROOT, root, state);
+      }
+      transaction.commit();
+    }
+  }
+
+  private void finalizeEpoch(final int epochStartSlot) {
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      for (int slot = epochStartSlot; slot < epochStartSlot + SLOTS_PER_EPOCH; slot++) {
+        final Bytes32 root = blockRoots.get(slot);
+        transaction.put(SLOTS_BY_FINALIZED_ROOT, root, UInt64.valueOf(slot));
+        transaction.put(FINALIZED_BLOCKS_BY_SLOT, UInt64.valueOf(slot), block);
+        transaction.delete(HOT_BLOCKS_BY_ROOT, root);
+      }
+      final Bytes32 epochRoot = blockRoots.get(epochStartSlot);
+      transaction.put(FINALIZED_STATES_BY_SLOT, UInt64.valueOf(epochStartSlot), state);
+      transaction.delete(HOT_STATES_BY_ROOT, epochRoot);
+      transaction.commit();
+    }
+  }
+
+  private void readBlockByRoot(final Blackhole bh) {
+    // REST requests are mostly for recent blocks, either still hot or recently finalized
+    final int slot = Math.max(0, blockRoots.size() - 1 - random.nextInt(4 * SLOTS_PER_EPOCH));
+    final Bytes32 root = blockRoots.get(slot);
+    bh.consume(
+        db.get(HOT_BLOCKS_BY_ROOT, root)
+            .or(() -> db.get(SLOTS_BY_FINALIZED_ROOT, root).flatMap(this::getFinalizedBlock)));
+  }
+
+  private void readFinalizedRange(final Blackhole bh, final int headSlot) {
+    final int startSlot = random.nextInt(Math.max(1, headSlot - FINALIZED_RANGE_SIZE));
+    try (final Stream<?> blocks =
+        db.stream(
+            FINALIZED_BLOCKS_BY_SLOT,
+            UInt64.valueOf(startSlot),
+            UInt64.valueOf(startSlot + FINALIZED_RANGE_SIZE - 1))) {
+      blocks.forEach(bh::consume);
+    }
+  }
+
+  private Optional<Bytes> getFinalizedBlock(final UInt64 slot) {
+    return db.get(FINALIZED_BLOCKS_BY_SLOT, slot);
+  }
+
+  private Bytes randomBytes(final int size) {
+    final byte[] bytes = new byte[size];
+    random.nextBytes(bytes);
+    return Bytes.wrap(bytes);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage;
+
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES32_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.storage.server.hotlog.HotLogKvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.rocksdb.RocksDbInstanceFactory;
+
+/**
+ * Compares RocksDB with the hot log for hot blocks and states through a period of non-finality
+ * followed by finalization catching up one epoch at a time.
+ *
+ * <p>Besides the total time, reports the time spent finalizing and the bytes the process passed
+ * to write calls ({@code wchar} in {@code /proc/self/io}) against the bytes of data committed.
+ * Dividing the two gives the write amplification, including RocksDB's WAL, flushes and
+ * compactions. The store is closed at the end of each run so deferred writes are counted.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class HotLogBenchmark {
+  private static final int SLOTS_PER_EPOCH = 32;
+  private static final int BLOCK_SIZE = 64 * 1024;
+  private static final int STATE_SIZE = 2 * 1024 * 1024;
+  private static final long HOT_LOG_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+  private static final KvStoreColumn<Bytes32, Bytes> HOT_BLOCKS_BY_ROOT =
+      KvStoreColumn.create(1, BYTES32_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreColumn<Bytes32, Bytes> HOT_STATES_BY_ROOT =
+      KvStoreColumn.create(6, BYTES32_SERIALIZER, BYTES_SERIALIZER);
+
+  @Param({"rocksdb", "hotlog"})
+  private String engine;
+
+  @Param({"16", "128"})
+  private int epochsWithoutFinality;
+
+  private final Random random = new Random(1);
+  private final List<Bytes32> blockRoots = new ArrayList<>();
+  private Bytes block;
+  private Bytes state;
+  private Path tempDirectory;
+  private KvStoreAccessor db;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class WriteCounters {
+    public long logicalBytes;
+    public long physicalBytes;
+    public long finalizeMillis;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      logicalBytes = 0;
+      physicalBytes = 0;
+      finalizeMillis = 0;
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setup() throws Exception {
+    block = randomBytes(BLOCK_SIZE);
+    state = randomBytes(STATE_SIZE);
+    blockRoots.clear();
+    tempDirectory = Files.createTempDirectory(getClass().getSimpleName());
+    if (engine.equals("hotlog")) {
+      db = HotLogKvStoreAccessor.open(tempDirectory, HOT_LOG_SEGMENT_BYTES);
+    } else {
+      db =
+          RocksDbInstanceFactory.create(
+              new NoOpMetricsSystem(),
+              TekuMetricCategory.STORAGE,
+              KvStoreConfiguration.v6SingleDefaults().withDatabaseDir(tempDirectory),
+              List.of(HOT_BLOCKS_BY_ROOT, HOT_STATES_BY_ROOT),
+              List.of());
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws Exception {
+    db.close();
+    FileUtils.deleteDirectory(tempDirectory.toFile());
+  }
+
+  @Benchmark
+  public void nonFinalityThenFinalize(final WriteCounters counters) throws Exception {
+    final long initialWrittenBytes = readProcessWrittenBytes();
+    final int slots = epochsWithoutFinality * SLOTS_PER_EPOCH;
+    for (int slot = 0; slot < slots; slot++) {
+      counters.logicalBytes += importBlock(slot);
+    }
+
+    final long finalizeStart = System.nanoTime();
+    for (int epoch = 0; epoch < epochsWithoutFinality; epoch++) {
+      finalizeEpoch(epoch * SLOTS_PER_EPOCH);
+    }
+    counters.finalizeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - finalizeStart);
+
+    db.close();
+    counters.physicalBytes = readProcessWrittenBytes() - initialWrittenBytes;
+  }
+
+  private long importBlock(final int slot) {
+    final Bytes32 root = Bytes32.random(random);
+    blockRoots.add(root);
+    long bytes = Bytes32.SIZE + block.size();
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.put(HOT_BLOCKS_BY_ROOT, root, block);
+      if (slot % SLOTS_PER_EPOCH == 0) {
+        transaction.put(HOT_STATES_BY_ROOT, root, state);
+        bytes += Bytes32.SIZE + state.size();
+      }
+      transaction.commit();
+    }
+    return bytes;
+  }
+
+  private void finalizeEpoch(final int epochStartSlot) {
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      for (int slot = epochStartSlot; slot < epochStartSlot + SLOTS_PER_EPOCH; slot++) {
+        transaction.delete(HOT_BLOCKS_BY_ROOT, blockRoots.get(slot));
+      }
+      transaction.delete(HOT_STATES_BY_ROOT, blockRoots.get(epochStartSlot));
+      transaction.commit();
+    }
+  }
+
+  private static long readProcessWrittenBytes() throws IOException {
+    for (String line : Files.readAllLines(Path.of("/proc/self/io"))) {
+      if (line.startsWith("wchar:")) {
+        return Long.parseLong(line.substring("wchar:".length()).trim());
+      }
+    }
+    throw new IOException("No wchar entry in /proc/self/io");
+  }
+
+  private Bytes randomBytes(final int size) {
+    final byte[] bytes = new byte[size];
+    random.nextBytes(bytes);
+    return Bytes.wrap(bytes);
+  }
+}
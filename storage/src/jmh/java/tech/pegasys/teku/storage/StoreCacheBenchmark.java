@@ -0,0 +1,135 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pegasys.teku.infrastructure.collections.LimitedMap;
+import tech.pegasys.teku.infrastructure.collections.WeightedLimitedMap;
+
+/**
+ * Replays a reorg heavy sequence of slots against an entry count limited LRU cache and a weight
+ * limited cache with the same memory budget, reporting the hits and misses of each.
+ *
+ * <p>States are simulated by the bytes they add over their parent state, with epoch transitions
+ * changing far more of the state than other slots. Each slot builds on the head or, for a reorg,
+ * an earlier block and looks up the parent state and the current checkpoint state.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class StoreCacheBenchmark {
+  private static final int SLOTS_PER_EPOCH = 32;
+  private static final long SLOT_STATE_BYTES = 512 * 1024;
+  private static final long EPOCH_STATE_BYTES = 24 * 1024 * 1024;
+  private static final long MAX_BYTES = 256 * 1024 * 1024;
+  private static final int REORG_PERCENT = 15;
+  private static final int MAX_REORG_DEPTH = 6;
+
+  @Param({"count", "weighted"})
+  private String cacheType;
+
+  private final Random random = new Random(1);
+  private final Map<Long, Long> parents = new HashMap<>();
+  private final List<Long> recentBlocks = new ArrayList<>();
+  private Map<Long, Long> cache;
+  private long slot;
+  private long head;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class CacheCounters {
+    public long hits;
+    public long misses;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (cacheType.equals("weighted")) {
+      cache = WeightedLimitedMap.create(MAX_BYTES, (key, weight) -> weight);
+    } else {
+      final long averageBytes =
+          ((SLOTS_PER_EPOCH - 1) * SLOT_STATE_BYTES + EPOCH_STATE_BYTES) / SLOTS_PER_EPOCH;
+      cache = LimitedMap.createSynchronized((int) (MAX_BYTES / averageBytes));
+    }
+    slot = 0;
+    head = 0;
+    cache.put(head, EPOCH_STATE_BYTES);
+    recentBlocks.add(head);
+  }
+
+  @Benchmark
+  public void replaySlot(final CacheCounters counters) {
+    slot++;
+    long parent = head;
+    if (random.nextInt(100) < REORG_PERCENT) {
+      final int depth = 1 + random.nextInt(Math.min(MAX_REORG_DEPTH, recentBlocks.size()));
+      parent = recentBlocks.get(recentBlocks.size() - depth);
+    }
+    lookup(parent, counters);
+
+    // Checkpoint state for the start of the current epoch on this chain
+    final long epochStartSlot = parent - parent % SLOTS_PER_EPOCH;
+    long checkpoint = parent;
+    while (checkpoint > epochStartSlot) {
+      checkpoint = parents.get(checkpoint);
+    }
+    lookup(checkpoint, counters);
+
+    parents.put(slot, parent);
+    // Ancestors are never needed beyond the start of the previous epoch
+    parents.remove(slot - 4 * SLOTS_PER_EPOCH);
+    cache.put(slot, weigh(slot));
+    head = slot;
+    recentBlocks.add(slot);
+    if (recentBlocks.size() > MAX_REORG_DEPTH) {
+      recentBlocks.remove(0);
+    }
+  }
+
+  private void lookup(final long key, final CacheCounters counters) {
+    if (cache.get(key) != null) {
+      counters.hits++;
+    } else {
+      // Regenerating the state would cache it again
+      counters.misses++;
+      cache.put(key, weigh(key));
+    }
+  }
+
+  private static long weigh(final long slot) {
+    return slot % SLOTS_PER_EPOCH == 0 ? EPOCH_STATE_BYTES : SLOT_STATE_BYTES;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.protoarray;
+
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.tuweni.bytes.Bytes32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.BlockCheckpoints;
+import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
+import tech.pegasys.teku.spec.datastructures.forkchoice.VoteUpdater;
+import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
+import tech.pegasys.teku.storage.store.VoteTrackerColumns;
+
+/**
+ * Applies a slot's worth of changed votes from a large validator set to a large block tree and
+ * finds the new head, which is the work done by fork choice on every attestation batch.
+ *
+ * <p>With {@code trackPendingVotes} disabled every validator's vote is checked for changes, as it
+ * is when the vote store can't report which votes changed.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ForkChoiceStrategyBenchmark {
+  private static final int VALIDATOR_COUNT = 1_000_000;
+  private static final int NODE_COUNT = 10_000;
+  // Every 10th block forks off an earlier block so the tree has plenty of competing branches
+  private static final int FORK_INTERVAL = 10;
+  private static final int FORK_DEPTH = 5;
+  private static final int VOTES_PER_SLOT = VALIDATOR_COUNT / 32;
+  private static final UInt64 EFFECTIVE_BALANCE = UInt64.valueOf(32_000_000_000L);
+
+  private final Spec spec = TestSpecFactory.createMinimalPhase0();
+  private final Random random = new Random(1);
+  private final Bytes32[] blockRoots = new Bytes32[NODE_COUNT];
+  private final ColumnsVoteUpdater voteUpdater = new ColumnsVoteUpdater();
+  private final List<UInt64> balances = Collections.nCopies(VALIDATOR_COUNT, EFFECTIVE_BALANCE);
+
+  @Param({"true", "false"})
+  private boolean trackPendingVotes;
+
+  private Checkpoint checkpoint;
+  private ForkChoiceStrategy forkChoiceStrategy;
+  private int nextValidator = 0;
+
+  @Setup
+  public void setup() {
+    blockRoots[0] = ProtoArrayTestUtil.getHash(0);
+    checkpoint = new Checkpoint(UInt64.ZERO, blockRoots[0]);
+    final BlockCheckpoints blockCheckpoints =
+        new BlockCheckpoints(checkpoint, checkpoint, checkpoint, checkpoint);
+    final ProtoArray protoArray =
+        ProtoArray.builder()
+            .currentEpoch(UInt64.ZERO)
+            .justifiedCheckpoint(checkpoint)
+            .finalizedCheckpoint(checkpoint)
+            .progressiveBalancesMode(spec.getGenesisSpecConfig().getProgressiveBalancesMode())
+            .build();
+    forkChoiceStrategy = ForkChoiceStrategy.initialize(spec, protoArray);
+    forkChoiceStrategy.processBlock(
+        UInt64.ZERO, blockRoots[0], Bytes32.ZERO, Bytes32.ZERO, blockCheckpoints, Bytes32.ZERO);
+    for (int i = 1; i < NODE_COUNT; i++) {
+      final int parent = i % FORK_INTERVAL == 0 ? Math.max(0, i - FORK_DEPTH) : i - 1;
+      blockRoots[i] = ProtoArrayTestUtil.getHash(i);
+      forkChoiceStrategy.processBlock(
+          UInt64.valueOf(i),
+          blockRoots[i],
+          blockRoots[parent],
+          Bytes32.ZERO,
+          blockCheckpoints,
+          Bytes32.ZERO);
+    }
+
+    // Give every validator an initial vote so each run only changes a slot's worth of votes
+    for (int i = 0; i < VALIDATOR_COUNT; i++) {
+      voteUpdater.putVote(
+          UInt64.valueOf(i), new VoteTracker(Bytes32.ZERO, randomRoot(), UInt64.ZERO));
+    }
+    applyPendingVotes();
+  }
+
+  @Benchmark
+  public Bytes32 applyPendingVotesAndFindHead() {
+    for (int i = 0; i < VOTES_PER_SLOT; i++) {
+      final UInt64 validatorIndex = UInt64.valueOf(nextValidator);
+      final VoteTracker vote = voteUpdater.getVote(validatorIndex);
+      voteUpdater.putVote(
+          validatorIndex, new VoteTracker(vote.getCurrentRoot(), randomRoot(), UInt64.ZERO));
+      nextValidator = (nextValidator + 1) % VALIDATOR_COUNT;
+    }
+    return applyPendingVotes();
+  }
+
+  private Bytes32 applyPendingVotes() {
+    return forkChoiceStrategy.applyPendingVotes(
+        voteUpdater, Optional.empty(), UInt64.ZERO, checkpoint, checkpoint, balances, UInt64.ZERO);
+  }
+
+  private Bytes32 randomRoot() {
+    return blockRoots[random.nextInt(NODE_COUNT)];
+  }
+
+  private class ColumnsVoteUpdater implements VoteUpdater {
+    private final VoteTrackerColumns votes = new VoteTrackerColumns(VALIDATOR_COUNT);
+
+    @Override
+    public VoteTracker getVote(final UInt64 validatorIndex) {
+      return votes.get(validatorIndex);
+    }
+
+    @Override
+    public UInt64 getHighestVotedValidatorIndex() {
+      return votes.getHighestVotedValidatorIndex();
+    }
+
+    @Override
+    public void putVote(final UInt64 validatorIndex, final VoteTracker vote) {
+      votes.put(validatorIndex, vote);
+    }
+
+    @Override
+    public Optional<IntSet> getValidatorsWithPendingVotes() {
+      return trackPendingVotes
+          ? Optional.of(votes.getValidatorsWithPendingVotes())
+          : Optional.empty();
+    }
+
+    @Override
+    public Bytes32 applyForkChoiceScoreChanges(
+        final UInt64 currentEpoch,
+        final Checkpoint finalizedCheckpoint,
+        final Checkpoint justifiedCheckpoint,
+        final List<UInt64> justifiedCheckpointEffectiveBalances,
+        final Optional<Bytes32> proposerBoostRoot,
+        final UInt64 proposerScoreBoostAmount) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void commit() {}
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.protoarray;
+
+import static tech.pegasys.teku.storage.protoarray.ProtoNodeArrays.NO_INDEX;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
+import tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeData;
+import tech.pegasys.teku.spec.datastructures.forkchoice.ReadOnlyForkChoiceStrategy;
+import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
+import tech.pegasys.teku.spec.executionlayer.ForkChoiceState;
+import tech.pegasys.teku.storage.protoarray.BlockMetadataStore.HaltableNodeProcessor;
+import tech.pegasys.teku.storage.protoarray.BlockMetadataStore.NodeProcessor;
+
+/**
+ * An immutable copy of the fork choice protoarray, published by {@link ForkChoiceStrategy} after
+ * each batch of changes so that reads don't need to take the protoarray lock and are never blocked
+ * by a slow update.
+ *
+ * <p>Every read from a single snapshot sees the same consistent state, even if newer snapshots
+ * have since been published.
+ */
+public class ForkChoiceSnapshot implements ReadOnlyForkChoiceStrategy {
+  private final ProtoArray protoArray;
+  private final long publishedTimeNanos;
+
+  ForkChoiceSnapshot(final ProtoArray protoArray, final long publishedTimeNanos) {
+    this.protoArray = protoArray;
+    this.publishedTimeNanos = publishedTimeNanos;
+  }
+
+  /** Returns the value of {@link System#nanoTime()} when this snapshot was published. */
+  public long getPublishedTimeNanos() {
+    return publishedTimeNanos;
+  }
+
+  /**
+   * Returns true if the head for the supplied checkpoints can be found from this snapshot. When
+   * the checkpoints have changed, the best descendants need to be updated in the protoarray first.
+   */
+  boolean canFindHead(
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint) {
+    return protoArray.hasBestDescendantsFor(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+  }
+
+  SlotAndBlockRoot findHead(
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint) {
+    final ProtoNode bestNode =
+        protoArray.findOptimisticHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+    return new SlotAndBlockRoot(bestNode.getBlockSlot(), bestNode.getBlockRoot());
+  }
+
+  ForkChoiceState getForkChoiceState(
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint) {
+    final ProtoNode headNode =
+        protoArray.findOptimisticHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+    final Bytes32 headExecutionBlockHash = headNode.getExecutionBlockHash();
+    final Bytes32 justifiedExecutionHash =
+        protoArray
+            .getProtoNode(justifiedCheckpoint.getRoot())
+            .map(ProtoNode::getExecutionBlockHash)
+            .orElse(Bytes32.ZERO);
+    final Bytes32 finalizedExecutionHash =
+        protoArray
+            .getProtoNode(finalizedCheckpoint.getRoot())
+            .map(ProtoNode::getExecutionBlockHash)
+            .orElse(Bytes32.ZERO);
+    return new ForkChoiceState(
+        headNode.getBlockRoot(),
+        headNode.getBlockSlot(),
+        headExecutionBlockHash,
+        justifiedExecutionHash,
+        finalizedExecutionHash,
+        headNode.isOptimistic() || !protoArray.nodeIsViableForHead(headNode));
+  }
+
+  @Override
+  public List<ProtoNodeData> getChainHeads(final boolean includeNonViableHeads) {
+    final List<ProtoNodeData> chainHeads = new ArrayList<>();
+    for (int i = 0; i < protoArray.getTotalTrackedNodeCount(); i++) {
+      if (!protoArray.hasBestChild(i)
+          && (includeNonViableHeads || protoArray.nodeIsViableForHead(i))) {
+        chainHeads.add(protoArray.getNodeByIndex(i).getBlockData());
+      }
+    }
+    return chainHeads;
+  }
+
+  @Override
+  public Optional<Bytes32> getOptimisticallySyncedTransitionBlockRoot(final Bytes32 head) {
+    return protoArray
+        .findOptimisticallySyncedMergeTransitionBlock(head)
+        .map(ProtoNode::getBlockRoot);
+  }
+
+  public int getTotalTrackedNodeCount() {
+    return protoArray.getTotalTrackedNodeCount();
+  }
+
+  @Override
+  public boolean contains(final Bytes32 blockRoot) {
+    return protoArray.contains(blockRoot);
+  }
+
+  @Override
+  public Optional<UInt64> blockSlot(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::getBlockSlot);
+  }
+
+  @Override
+  public Optional<Bytes32> executionBlockHash(final Bytes32 beaconBlockRoot) {
+    return getProtoNode(beaconBlockRoot).map(ProtoNode::getExecutionBlockHash);
+  }
+
+  @Override
+  public Optional<Bytes32> blockParentRoot(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::getParentRoot);
+  }
+
+  @Override
+  public boolean isFullyValidated(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::isFullyValidated).orElse(false);
+  }
+
+  @Override
+  public Optional<ProtoNodeData> getBlockData(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::getBlockData);
+  }
+
+  @Override
+  public Optional<UInt64> getWeight(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::getWeight);
+  }
+
+  @Override
+  public Optional<Boolean> isOptimistic(final Bytes32 blockRoot) {
+    return getProtoNode(blockRoot).map(ProtoNode::isOptimistic);
+  }
+
+  @Override
+  public Optional<Bytes32> getAncestor(final Bytes32 blockRoot, final UInt64 slot) {
+    // Note: This code could be more succinct if currentNode were an Optional and we used flatMap
+    // and map but during long periods of finality this becomes a massive hot spot in the code and
+    // our performance is dominated by the time taken to create Optional instances within the map
+    // calls.
+    int currentIndex = protoArray.getNodeIndex(blockRoot);
+    if (currentIndex == NO_INDEX) {
+      return Optional.empty();
+    }
+    while (protoArray.compareBlockSlot(currentIndex, slot) > 0) {
+      currentIndex = protoArray.getParentIndex(currentIndex);
+      if (currentIndex == NO_INDEX) {
+        return Optional.empty();
+      }
+    }
+    return Optional.of(protoArray.getBlockRoot(currentIndex));
+  }
+
+  @Override
+  public List<Bytes32> getBlockRootsAtSlot(final UInt64 slot) {
+    final List<Bytes32> blockRoots = new ArrayList<>();
+    for (int i = 0; i < protoArray.getTotalTrackedNodeCount(); i++) {
+      if (protoArray.compareBlockSlot(i, slot) == 0) {
+        blockRoots.add(protoArray.getBlockRoot(i));
+      }
+    }
+    return blockRoots;
+  }
+
+  /**
+   * Process roots in the chain defined by {@code head}. Stops processing when {@code
+   * nodeProcessor} returns false.
+   */
+  public void processHashesInChainWhile(
+      final Bytes32 head, final HaltableNodeProcessor nodeProcessor) {
+    int currentIndex = protoArray.getNodeIndex(head);
+    if (currentIndex == NO_INDEX) {
+      throw new IllegalArgumentException("Unknown root supplied: " + head);
+    }
+
+    Bytes32 currentRoot = protoArray.getBlockRoot(currentIndex);
+    while (protoArray.contains(currentRoot)) {
+      final boolean shouldContinue =
+          nodeProcessor.process(
+              currentRoot,
+              protoArray.getBlockSlot(currentIndex),
+              protoArray.getParentRoot(currentIndex),
+              protoArray.getExecutionBlockHash(currentIndex));
+      currentIndex = protoArray.getParentIndex(currentIndex);
+      if (!shouldContinue || currentIndex == NO_INDEX) {
+        break;
+      }
+      currentRoot = protoArray.getBlockRoot(currentIndex);
+    }
+  }
+
+  /** Process all known nodes, with each parent processed before its children. */
+  public void processAllInOrder(final NodeProcessor nodeProcessor) {
+    for (int i = 0; i < protoArray.getTotalTrackedNodeCount(); i++) {
+      final Bytes32 blockRoot = protoArray.getBlockRoot(i);
+      // Filter out nodes that could be pruned but are still in the protoarray
+      if (protoArray.contains(blockRoot)) {
+        nodeProcessor.process(blockRoot, protoArray.getBlockSlot(i), protoArray.getParentRoot(i));
+      }
+    }
+  }
+
+  @Override
+  public List<ProtoNodeData> getBlockData() {
+    return protoArray.getNodes().stream()
+        .map(ProtoNode::getBlockData)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<SlotAndBlockRoot> findCommonAncestor(final Bytes32 root1, final Bytes32 root2) {
+    int chainHead1 = protoArray.getNodeIndex(root1);
+    int chainHead2 = protoArray.getNodeIndex(root2);
+    while (chainHead1 != NO_INDEX && chainHead2 != NO_INDEX) {
+      final int slotComparison = protoArray.compareBlockSlots(chainHead1, chainHead2);
+      if (slotComparison > 0) {
+        // Chain 1 is longer than chain 2 so need to move further up chain 2
+        chainHead1 = protoArray.getParentIndex(chainHead1);
+      } else if (slotComparison < 0) {
+        // Chain 2 is longer than chain 1 so need to move further up chain 1
+        chainHead2 = protoArray.getParentIndex(chainHead2);
+      } else {
+        // At the same slot, check if this is the common ancestor
+        if (chainHead1 == chainHead2) {
+          return Optional.of(
+              new SlotAndBlockRoot(
+                  protoArray.getBlockSlot(chainHead1), protoArray.getBlockRoot(chainHead1)));
+        }
+        // Nope, need to move further up both chains
+        chainHead1 = protoArray.getParentIndex(chainHead1);
+        chainHead2 = protoArray.getParentIndex(chainHead2);
+      }
+    }
+    // Reached the start of protoarray without finding a common ancestor
+    return Optional.empty();
+  }
+
+  private Optional<ProtoNode> getProtoNode(final Bytes32 blockRoot) {
+    return protoArray.getProtoNode(blockRoot);
+  }
+}
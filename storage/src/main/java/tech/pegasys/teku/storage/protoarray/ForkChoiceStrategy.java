@@ -15,19 +15,22 @@ package tech.pegasys.teku.storage.protoarray;
 
 import com.google.common.annotations.VisibleForTesting;
 import it.unimi.dsi.fastutil.longs.LongList;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import tech.pegasys.teku.infrastructure.metrics.MetricsHistogram;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.datastructures.blocks.BlockAndCheckpoints;
@@ -55,35 +58,85 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
   private Optional<Bytes32> proposerBoostRoot = Optional.empty();
   private UInt64 proposerBoostAmount = UInt64.ZERO;
 
+  /**
+   * The latest copy of the protoarray, which all reads are served from. Only published while
+   * holding the protoarray write lock, after each batch of changes is applied.
+   */
+  private volatile ForkChoiceSnapshot snapshot;
+
+  private volatile Optional<MetricsHistogram> updateTimeHistogram = Optional.empty();
+
   private ForkChoiceStrategy(Spec spec, ProtoArray protoArray, List<UInt64> balances) {
     this.spec = spec;
     this.protoArray = protoArray;
     this.balances = balances;
+    publishSnapshot();
   }
 
   public static ForkChoiceStrategy initialize(final Spec spec, final ProtoArray protoArray) {
     return new ForkChoiceStrategy(spec, protoArray, new ArrayList<>());
   }
 
+  public void startMetrics(final MetricsSystem metricsSystem) {
+    updateTimeHistogram =
+        Optional.of(
+            MetricsHistogram.create(
+                TekuMetricCategory.BEACON,
+                metricsSystem,
+                "fork_choice_update_time",
+                "Time taken by each phase of applying pending votes to fork choice in microseconds",
+                3,
+                List.of("phase")));
+    metricsSystem.createGauge(
+        TekuMetricCategory.BEACON,
+        "fork_choice_snapshot_age",
+        "Time since the fork choice snapshot used to serve reads was published in milliseconds",
+        () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - snapshot.getPublishedTimeNanos()));
+  }
+
+  /**
+   * Returns the latest published snapshot. Reads from the returned snapshot are consistent with
+   * each other but won't reflect any later changes.
+   */
+  public ForkChoiceSnapshot getSnapshot() {
+    return snapshot;
+  }
+
   public SlotAndBlockRoot findHead(
       final UInt64 currentEpoch,
       final Checkpoint justifiedCheckpoint,
       final Checkpoint finalizedCheckpoint) {
-    protoArrayLock.readLock().lock();
-    try {
-      return findHeadImpl(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return getSnapshot(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)
+        .findHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
   }
 
-  private SlotAndBlockRoot findHeadImpl(
+  /**
+   * Returns a snapshot which can find the head for the supplied checkpoints. If the checkpoints
+   * have changed since the last snapshot was published, the best descendants are updated and a new
+   * snapshot published.
+   */
+  private ForkChoiceSnapshot getSnapshot(
       final UInt64 currentEpoch,
       final Checkpoint justifiedCheckpoint,
       final Checkpoint finalizedCheckpoint) {
-    final ProtoNode bestNode =
-        protoArray.findOptimisticHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
-    return new SlotAndBlockRoot(bestNode.getBlockSlot(), bestNode.getBlockRoot());
+    final ForkChoiceSnapshot currentSnapshot = snapshot;
+    if (currentSnapshot.canFindHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)) {
+      return currentSnapshot;
+    }
+    protoArrayLock.writeLock().lock();
+    try {
+      protoArray.updateBestDescendants(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+      return publishSnapshot();
+    } finally {
+      protoArrayLock.writeLock().unlock();
+    }
+  }
+
+  private ForkChoiceSnapshot publishSnapshot() {
+    final ForkChoiceSnapshot newSnapshot =
+        new ForkChoiceSnapshot(protoArray.copy(), System.nanoTime());
+    snapshot = newSnapshot;
+    return newSnapshot;
   }
 
   /**
@@ -107,14 +160,17 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
       final Checkpoint justifiedCheckpoint,
       final List<UInt64> justifiedStateEffectiveBalances,
       final UInt64 proposerBoostAmount) {
+    final long lockStartTime = System.nanoTime();
     protoArrayLock.writeLock().lock();
     votesLock.writeLock().lock();
     balancesLock.writeLock().lock();
     try {
+      final long computeDeltasStartTime = recordPhase("lock_wait", lockStartTime);
       LongList deltas =
           ProtoArrayScoreCalculator.computeDeltas(
+              ForkJoinPool.commonPool(),
               voteUpdater,
-              getTotalTrackedNodeCount(),
+              protoArray.getTotalTrackedNodeCount(),
               protoArray::getIndexByRoot,
               balances,
               justifiedStateEffectiveBalances,
@@ -123,12 +179,21 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
               this.proposerBoostAmount,
               proposerBoostAmount);
 
+      final long applyScoreChangesStartTime = recordPhase("compute_deltas", computeDeltasStartTime);
       protoArray.applyScoreChanges(deltas, currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
       balances = justifiedStateEffectiveBalances;
       this.proposerBoostRoot = proposerBoostRoot;
       this.proposerBoostAmount = proposerBoostAmount;
 
-      return findHeadImpl(currentEpoch, justifiedCheckpoint, finalizedCheckpoint).getBlockRoot();
+      final long findHeadStartTime = recordPhase("apply_score_changes", applyScoreChangesStartTime);
+      final Bytes32 head =
+          protoArray
+              .findOptimisticHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)
+              .getBlockRoot();
+      final long publishStartTime = recordPhase("find_head", findHeadStartTime);
+      publishSnapshot();
+      recordPhase("publish_snapshot", publishStartTime);
+      return head;
     } finally {
       protoArrayLock.writeLock().unlock();
       votesLock.writeLock().unlock();
@@ -168,61 +233,20 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
 
   @Override
   public List<ProtoNodeData> getChainHeads(final boolean includeNonViableHeads) {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray.getNodes().stream()
-          .filter(
-              protoNode ->
-                  protoNode.getBestChildIndex().isEmpty()
-                      && (includeNonViableHeads || protoArray.nodeIsViableForHead(protoNode)))
-          .map(ProtoNode::getBlockData)
-          .collect(Collectors.toList());
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getChainHeads(includeNonViableHeads);
   }
 
   public ForkChoiceState getForkChoiceState(
       final UInt64 currentEpoch,
       final Checkpoint justifiedCheckpoint,
       final Checkpoint finalizedCheckpoint) {
-    protoArrayLock.readLock().lock();
-    try {
-      final ProtoNode headNode =
-          protoArray.findOptimisticHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
-      final Bytes32 headExecutionBlockHash = headNode.getExecutionBlockHash();
-      final Bytes32 justifiedExecutionHash =
-          protoArray
-              .getProtoNode(justifiedCheckpoint.getRoot())
-              .map(ProtoNode::getExecutionBlockHash)
-              .orElse(Bytes32.ZERO);
-      final Bytes32 finalizedExecutionHash =
-          protoArray
-              .getProtoNode(finalizedCheckpoint.getRoot())
-              .map(ProtoNode::getExecutionBlockHash)
-              .orElse(Bytes32.ZERO);
-      return new ForkChoiceState(
-          headNode.getBlockRoot(),
-          headNode.getBlockSlot(),
-          headExecutionBlockHash,
-          justifiedExecutionHash,
-          finalizedExecutionHash,
-          headNode.isOptimistic() || !protoArray.nodeIsViableForHead(headNode));
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return getSnapshot(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)
+        .getForkChoiceState(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
   }
 
   @Override
   public Optional<Bytes32> getOptimisticallySyncedTransitionBlockRoot(final Bytes32 head) {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray
-          .findOptimisticallySyncedMergeTransitionBlock(head)
-          .map(ProtoNode::getBlockRoot);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getOptimisticallySyncedTransitionBlockRoot(head);
   }
 
   void processAttestation(
@@ -249,131 +273,57 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
   }
 
   public int getTotalTrackedNodeCount() {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray.getTotalTrackedNodeCount();
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getTotalTrackedNodeCount();
   }
 
   @Override
   public boolean contains(Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray.contains(blockRoot);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.contains(blockRoot);
   }
 
   @Override
   public Optional<UInt64> blockSlot(Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::getBlockSlot);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.blockSlot(blockRoot);
   }
 
   @Override
   public Optional<Bytes32> executionBlockHash(final Bytes32 beaconBlockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(beaconBlockRoot).map(ProtoNode::getExecutionBlockHash);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.executionBlockHash(beaconBlockRoot);
   }
 
   @Override
   public Optional<Bytes32> blockParentRoot(Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::getParentRoot);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.blockParentRoot(blockRoot);
   }
 
   @Override
   public boolean isFullyValidated(final Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::isFullyValidated).orElse(false);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.isFullyValidated(blockRoot);
   }
 
   @Override
   public Optional<ProtoNodeData> getBlockData(final Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::getBlockData);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getBlockData(blockRoot);
   }
 
   @Override
   public Optional<UInt64> getWeight(final Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::getWeight);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getWeight(blockRoot);
   }
 
   @Override
   public Optional<Boolean> isOptimistic(final Bytes32 blockRoot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return getProtoNode(blockRoot).map(ProtoNode::isOptimistic);
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.isOptimistic(blockRoot);
   }
 
   @Override
   public Optional<Bytes32> getAncestor(final Bytes32 blockRoot, final UInt64 slot) {
-    protoArrayLock.readLock().lock();
-    try {
-      // Note: This code could be more succinct if currentNode were an Optional and we used flatMap
-      // and map but during long periods of finality this becomes a massive hot spot in the code and
-      // our performance is dominated by the time taken to create Optional instances within the map
-      // calls.
-      final Optional<ProtoNode> startingNode = getProtoNode(blockRoot);
-      if (startingNode.isEmpty()) {
-        return Optional.empty();
-      }
-      ProtoNode currentNode = startingNode.get();
-      while (currentNode.getBlockSlot().isGreaterThan(slot)) {
-        final Optional<Integer> parentIndex = currentNode.getParentIndex();
-        if (parentIndex.isEmpty()) {
-          return Optional.empty();
-        }
-        currentNode = protoArray.getNodes().get(parentIndex.get());
-      }
-      return Optional.of(currentNode.getBlockRoot());
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getAncestor(blockRoot, slot);
   }
 
   @Override
   public List<Bytes32> getBlockRootsAtSlot(final UInt64 slot) {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray.getNodes().stream()
-          .filter(protoNode -> protoNode.getBlockSlot().equals(slot))
-          .map(ProtoNode::getBlockRoot)
-          .collect(Collectors.toList());
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getBlockRootsAtSlot(slot);
   }
 
   /**
@@ -397,58 +347,17 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
    */
   @Override
   public void processHashesInChainWhile(final Bytes32 head, HaltableNodeProcessor nodeProcessor) {
-    protoArrayLock.readLock().lock();
-    try {
-      final Optional<ProtoNode> startingNode = getProtoNode(head);
-      if (startingNode.isEmpty()) {
-        throw new IllegalArgumentException("Unknown root supplied: " + head);
-      }
-      ProtoNode currentNode = startingNode.orElseThrow();
-
-      while (protoArray.contains(currentNode.getBlockRoot())) {
-        final boolean shouldContinue =
-            nodeProcessor.process(
-                currentNode.getBlockRoot(),
-                currentNode.getBlockSlot(),
-                currentNode.getParentRoot(),
-                currentNode.getExecutionBlockHash());
-        if (!shouldContinue || currentNode.getParentIndex().isEmpty()) {
-          break;
-        }
-        currentNode = protoArray.getNodes().get(currentNode.getParentIndex().get());
-      }
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    snapshot.processHashesInChainWhile(head, nodeProcessor);
   }
 
   @Override
   public void processAllInOrder(final NodeProcessor nodeProcessor) {
-    protoArrayLock.readLock().lock();
-    try {
-      final Object2IntMap<Bytes32> indices = protoArray.getRootIndices();
-      protoArray.getNodes().stream()
-          // Filter out nodes that could be pruned but are still in the protoarray
-          .filter(node -> indices.containsKey(node.getBlockRoot()))
-          .forEach(
-              node ->
-                  nodeProcessor.process(
-                      node.getBlockRoot(), node.getBlockSlot(), node.getParentRoot()));
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    snapshot.processAllInOrder(nodeProcessor);
   }
 
   @Override
   public List<ProtoNodeData> getBlockData() {
-    protoArrayLock.readLock().lock();
-    try {
-      return protoArray.getNodes().stream()
-          .map(ProtoNode::getBlockData)
-          .collect(Collectors.toList());
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.getBlockData();
   }
 
   @Override
@@ -473,6 +382,7 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
       removedBlockRoots.forEach((root, uInt64) -> protoArray.removeBlockRoot(root));
       pulledUpBlocks.forEach(protoArray::pullUpBlockCheckpoints);
       protoArray.maybePrune(finalizedCheckpoint.getRoot());
+      publishSnapshot();
     } finally {
       protoArrayLock.writeLock().unlock();
     }
@@ -480,34 +390,7 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
 
   @Override
   public Optional<SlotAndBlockRoot> findCommonAncestor(final Bytes32 root1, final Bytes32 root2) {
-    protoArrayLock.readLock().lock();
-    try {
-      Optional<ProtoNode> chainHead1 = protoArray.getProtoNode(root1);
-      Optional<ProtoNode> chainHead2 = protoArray.getProtoNode(root2);
-      while (chainHead1.isPresent() && chainHead2.isPresent()) {
-        final ProtoNode node1 = chainHead1.get();
-        final ProtoNode node2 = chainHead2.get();
-        if (node1.getBlockSlot().isGreaterThan(node2.getBlockSlot())) {
-          // Chain 1 is longer than chain 2 so need to move further up chain 2
-          chainHead1 = node1.getParentIndex().map(protoArray::getNodeByIndex);
-        } else if (node2.getBlockSlot().isGreaterThan(node1.getBlockSlot())) {
-          // Chain 2 is longer than chain 1 so need to move further up chain 1
-          chainHead2 = node2.getParentIndex().map(protoArray::getNodeByIndex);
-        } else {
-          // At the same slot, check if this is the common ancestor
-          if (node1.getBlockRoot().equals(node2.getBlockRoot())) {
-            return Optional.of(new SlotAndBlockRoot(node1.getBlockSlot(), node1.getBlockRoot()));
-          }
-          // Nope, need to move further up both chains
-          chainHead1 = node1.getParentIndex().map(protoArray::getNodeByIndex);
-          chainHead2 = node2.getParentIndex().map(protoArray::getNodeByIndex);
-        }
-      }
-      // Reached the start of protoarray without finding a common ancestor
-      return Optional.empty();
-    } finally {
-      protoArrayLock.readLock().unlock();
-    }
+    return snapshot.findCommonAncestor(root1, root2);
   }
 
   @VisibleForTesting
@@ -528,10 +411,6 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
         spec.isBlockProcessorOptimistic(blockSlot));
   }
 
-  private Optional<ProtoNode> getProtoNode(Bytes32 blockRoot) {
-    return protoArray.getProtoNode(blockRoot);
-  }
-
   public void onExecutionPayloadResult(
       final Bytes32 blockRoot,
       final PayloadStatus result,
@@ -564,8 +443,17 @@ public class ForkChoiceStrategy implements BlockMetadataStore, ReadOnlyForkChoic
       } else {
         throw new IllegalArgumentException("Unknown payload validity status: " + status);
       }
+      publishSnapshot();
     } finally {
       protoArrayLock.writeLock().unlock();
     }
   }
+
+  /** Records the time taken by {@code phase} and returns the current time. */
+  private long recordPhase(final String phase, final long startTime) {
+    final long now = System.nanoTime();
+    updateTimeHistogram.ifPresent(
+        histogram -> histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(now - startTime), phase));
+    return now;
+  }
 }
@@ -14,19 +14,16 @@
 package tech.pegasys.teku.storage.protoarray;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Preconditions.checkState;
 import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.INVALID;
 import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.OPTIMISTIC;
 import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.VALID;
+import static tech.pegasys.teku.storage.protoarray.ProtoNodeArrays.NO_INDEX;
 
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
-import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -55,14 +52,14 @@ public class ProtoArray {
   private final StatusLogger statusLog;
 
   /**
-   * Lists all the known nodes. It is guaranteed that a node will be after its parent in the list.
+   * Stores all the known nodes. It is guaranteed that a node will be after its parent.
    *
-   * <p>The list may contain nodes which have been removed from the indices collection either
+   * <p>The nodes may include nodes which have been removed from the indices collection either
    * because they are now before the finalized checkpoint but pruning has not yet occurred or
    * because they extended from a now-invalid chain and were removed. This avoids having to update
    * the indices to entries in the list too often.
    */
-  private final List<ProtoNode> nodes = new ArrayList<>();
+  private final ProtoNodeArrays nodes;
 
   /**
    * protoArrayIndices allows root lookup to retrieve indices of protoNodes without looking through
@@ -70,7 +67,7 @@ public class ProtoArray {
    *
    * <p>Needs to be Maintained when nodes are added or removed from the nodes list.
    */
-  private final ProtoArrayIndices indices = new ProtoArrayIndices();
+  private final ProtoArrayIndices indices;
 
   ProtoArray(
       final int pruneThreshold,
@@ -80,6 +77,28 @@ public class ProtoArray {
       final UInt64 initialEpoch,
       final ProgressiveBalancesMode progressiveBalancesMode,
       final StatusLogger statusLog) {
+    this(
+        pruneThreshold,
+        currentEpoch,
+        justifiedCheckpoint,
+        finalizedCheckpoint,
+        initialEpoch,
+        progressiveBalancesMode,
+        statusLog,
+        new ProtoNodeArrays(),
+        new ProtoArrayIndices());
+  }
+
+  private ProtoArray(
+      final int pruneThreshold,
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint,
+      final UInt64 initialEpoch,
+      final ProgressiveBalancesMode progressiveBalancesMode,
+      final StatusLogger statusLog,
+      final ProtoNodeArrays nodes,
+      final ProtoArrayIndices indices) {
     this.pruneThreshold = pruneThreshold;
     this.currentEpoch = currentEpoch;
     this.justifiedCheckpoint = justifiedCheckpoint;
@@ -87,6 +106,8 @@ public class ProtoArray {
     this.initialEpoch = initialEpoch;
     this.progressiveBalancesMode = progressiveBalancesMode;
     this.statusLog = statusLog;
+    this.nodes = nodes;
+    this.indices = indices;
   }
 
   public static ProtoArrayBuilder builder() {
@@ -102,19 +123,40 @@ public class ProtoArray {
   }
 
   public Optional<ProtoNode> getProtoNode(final Bytes32 root) {
-    return indices
-        .get(root)
-        .flatMap(
-            blockIndex -> {
-              if (blockIndex < getTotalTrackedNodeCount()) {
-                return Optional.of(getNodeByIndex(blockIndex));
-              }
-              return Optional.empty();
-            });
+    final int index = getNodeIndex(root);
+    return index == NO_INDEX ? Optional.empty() : Optional.of(nodes.getNode(index));
   }
 
+  /** Returns a view of all nodes, which is only valid until the array is next pruned. */
   public List<ProtoNode> getNodes() {
-    return nodes;
+    return new AbstractList<>() {
+      @Override
+      public ProtoNode get(final int index) {
+        return getNodeByIndex(index);
+      }
+
+      @Override
+      public int size() {
+        return getTotalTrackedNodeCount();
+      }
+    };
+  }
+
+  /**
+   * Returns a copy of this protoarray which is unaffected by later changes to the original. Node
+   * fields which never change and most of the root to index map are shared rather than copied.
+   */
+  ProtoArray copy() {
+    return new ProtoArray(
+        pruneThreshold,
+        currentEpoch,
+        justifiedCheckpoint,
+        finalizedCheckpoint,
+        initialEpoch,
+        progressiveBalancesMode,
+        statusLog,
+        nodes.copy(),
+        indices.copy());
   }
 
   public void setPruneThreshold(int pruneThreshold) {
@@ -137,26 +179,20 @@ public class ProtoArray {
       return;
     }
 
-    int nodeIndex = getTotalTrackedNodeCount();
-
-    ProtoNode node =
-        new ProtoNode(
+    final int nodeIndex =
+        nodes.add(
             blockSlot,
-            stateRoot,
             blockRoot,
             parentRoot,
-            indices.get(parentRoot),
+            stateRoot,
+            indices.getOrDefault(parentRoot, NO_INDEX),
             checkpoints,
             executionBlockHash,
-            UInt64.ZERO,
-            Optional.empty(),
-            Optional.empty(),
             optimisticallyProcessed && !executionBlockHash.isZero() ? OPTIMISTIC : VALID);
 
     indices.add(blockRoot, nodeIndex);
-    nodes.add(node);
 
-    updateBestDescendantOfParent(node, nodeIndex);
+    updateBestDescendantOfParent(nodeIndex);
   }
 
   /**
@@ -172,30 +208,32 @@ public class ProtoArray {
       final UInt64 currentEpoch,
       final Checkpoint justifiedCheckpoint,
       final Checkpoint finalizedCheckpoint) {
-    return findHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)
-        .orElseThrow(fatalException("Finalized block was found to be invalid."));
+    final int headIndex = findHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+    if (headIndex == NO_INDEX) {
+      throw fatalException("Finalized block was found to be invalid.").get();
+    }
+    return nodes.getNode(headIndex);
   }
 
   public Optional<ProtoNode> findOptimisticallySyncedMergeTransitionBlock(final Bytes32 head) {
-    final Optional<ProtoNode> maybeStartingNode = getProtoNode(head);
-    if (maybeStartingNode.isEmpty()) {
+    int currentIndex = getNodeIndex(head);
+    if (currentIndex == NO_INDEX) {
       return Optional.empty();
     }
-    ProtoNode currentNode = maybeStartingNode.get();
-    if (currentNode.getExecutionBlockHash().isZero()) {
+    if (nodes.isExecutionBlockHashZero(currentIndex)) {
       // Transition not yet reached so no transition block
       return Optional.empty();
     }
-    while (contains(currentNode.getBlockRoot())) {
-      if (currentNode.getParentIndex().isEmpty() || currentNode.isFullyValidated()) {
+    while (contains(nodes.getBlockRoot(currentIndex))) {
+      final int parentIndex = nodes.getParentIndex(currentIndex);
+      if (parentIndex == NO_INDEX || nodes.isFullyValidated(currentIndex)) {
         // Stop searching when we reach fully validated nodes or a node we don't have the parent for
         return Optional.empty();
       }
-      final ProtoNode parentNode = getNodeByIndex(currentNode.getParentIndex().get());
-      if (parentNode.getExecutionBlockHash().isZero()) {
-        return Optional.of(currentNode);
+      if (nodes.isExecutionBlockHashZero(parentIndex)) {
+        return Optional.of(nodes.getNode(currentIndex));
       }
-      currentNode = parentNode;
+      currentIndex = parentIndex;
     }
     return Optional.empty();
   }
@@ -204,80 +242,95 @@ public class ProtoArray {
     return () -> new FatalServiceFailureException("fork choice", message);
   }
 
-  private Optional<ProtoNode> findHead(
+  /** Returns the index of the best node or {@link ProtoNodeArrays#NO_INDEX} if it is invalid. */
+  private int findHead(
       final UInt64 currentEpoch,
       final Checkpoint justifiedCheckpoint,
       final Checkpoint finalizedCheckpoint) {
-    if ((progressiveBalancesMode.isFull() && !this.currentEpoch.equals(currentEpoch))
-        || !this.justifiedCheckpoint.equals(justifiedCheckpoint)
-        || !this.finalizedCheckpoint.equals(finalizedCheckpoint)) {
-      this.currentEpoch = currentEpoch;
-      this.justifiedCheckpoint = justifiedCheckpoint;
-      this.finalizedCheckpoint = finalizedCheckpoint;
-      // Justified or finalized epoch changed so we have to re-evaluate all best descendants.
-      applyToNodes(this::updateBestDescendantOfParent);
+    updateBestDescendants(currentEpoch, justifiedCheckpoint, finalizedCheckpoint);
+    final int justifiedIndex = indices.getOrDefault(justifiedCheckpoint.getRoot(), NO_INDEX);
+    if (justifiedIndex == NO_INDEX) {
+      throw fatalException("Invalid or unknown justified root: " + justifiedCheckpoint.getRoot())
+          .get();
     }
-    int justifiedIndex =
-        indices
-            .get(justifiedCheckpoint.getRoot())
-            .orElseThrow(
-                fatalException(
-                    "Invalid or unknown justified root: " + justifiedCheckpoint.getRoot()));
-
-    ProtoNode justifiedNode = getNodeByIndex(justifiedIndex);
 
-    if (justifiedNode.isInvalid()) {
-      return Optional.empty();
+    if (nodes.isInvalid(justifiedIndex)) {
+      return NO_INDEX;
     }
 
-    int bestDescendantIndex = justifiedNode.getBestDescendantIndex().orElse(justifiedIndex);
-    ProtoNode bestNode = getNodeByIndex(bestDescendantIndex);
+    final int justifiedBestDescendantIndex = nodes.getBestDescendantIndex(justifiedIndex);
+    int bestIndex =
+        justifiedBestDescendantIndex == NO_INDEX ? justifiedIndex : justifiedBestDescendantIndex;
 
     // Normally the best descendant index would point straight to chain head, but onBlock only
     // updates the parent, not all the ancestors. When applyScoreChanges runs it propagates the
     // change back up and everything works, but we run findHead to determine if the new block should
     // become the best head so need to follow down the chain.
-    while (bestNode.getBestDescendantIndex().isPresent() && !bestNode.isInvalid()) {
-      bestDescendantIndex = bestNode.getBestDescendantIndex().get();
-      bestNode = getNodeByIndex(bestDescendantIndex);
+    while (nodes.getBestDescendantIndex(bestIndex) != NO_INDEX && !nodes.isInvalid(bestIndex)) {
+      bestIndex = nodes.getBestDescendantIndex(bestIndex);
     }
 
     // Walk backwards to find the last valid node in the chain
-    while (bestNode.isInvalid()) {
-      final Optional<Integer> maybeParentIndex = bestNode.getParentIndex();
-      if (maybeParentIndex.isEmpty()) {
+    while (nodes.isInvalid(bestIndex)) {
+      final int parentIndex = nodes.getParentIndex(bestIndex);
+      if (parentIndex == NO_INDEX) {
         // No node on this chain with sufficient validity.
-        return Optional.empty();
+        return NO_INDEX;
       }
-      final int parentIndex = maybeParentIndex.get();
-      bestNode = getNodeByIndex(parentIndex);
+      bestIndex = parentIndex;
     }
 
     // Perform a sanity check that the node is indeed valid to be the head.
-    if (!nodeIsViableForHead(bestNode) && !bestNode.equals(justifiedNode)) {
+    if (!nodeIsViableForHead(bestIndex) && bestIndex != justifiedIndex) {
       throw new IllegalStateException(
-          "ProtoArray: Best node " + bestNode.toLogString() + " is not viable for head");
+          "ProtoArray: Best node "
+              + nodes.getNode(bestIndex).toLogString()
+              + " is not viable for head");
+    }
+    return bestIndex;
+  }
+
+  /**
+   * Returns true if the best descendants were selected for the supplied checkpoints, in which case
+   * finding the head does not modify this protoarray.
+   */
+  boolean hasBestDescendantsFor(
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint) {
+    return (!progressiveBalancesMode.isFull() || this.currentEpoch.equals(currentEpoch))
+        && this.justifiedCheckpoint.equals(justifiedCheckpoint)
+        && this.finalizedCheckpoint.equals(finalizedCheckpoint);
+  }
+
+  void updateBestDescendants(
+      final UInt64 currentEpoch,
+      final Checkpoint justifiedCheckpoint,
+      final Checkpoint finalizedCheckpoint) {
+    if (!hasBestDescendantsFor(currentEpoch, justifiedCheckpoint, finalizedCheckpoint)) {
+      this.currentEpoch = currentEpoch;
+      this.justifiedCheckpoint = justifiedCheckpoint;
+      this.finalizedCheckpoint = finalizedCheckpoint;
+      // Justified or finalized epoch changed so we have to re-evaluate all best descendants.
+      applyToNodes(this::updateBestDescendantOfParent);
     }
-    return Optional.of(bestNode);
   }
 
   public void markNodeValid(final Bytes32 blockRoot) {
-    final Optional<ProtoNode> maybeNode = getProtoNode(blockRoot);
-    if (maybeNode.isEmpty()) {
+    final int index = getNodeIndex(blockRoot);
+    if (index == NO_INDEX) {
       // Most likely just pruned prior to the validation result being received.
       LOG.debug("Couldn't mark block {} valid because it was unknown", blockRoot);
       return;
     }
-    final ProtoNode node = maybeNode.get();
-    node.setValidationStatus(VALID);
-    Optional<Integer> parentIndex = node.getParentIndex();
-    while (parentIndex.isPresent()) {
-      final ProtoNode parentNode = getNodeByIndex(parentIndex.get());
-      if (parentNode.isFullyValidated()) {
+    nodes.setValidationStatus(index, VALID);
+    int parentIndex = nodes.getParentIndex(index);
+    while (parentIndex != NO_INDEX) {
+      if (nodes.isFullyValidated(parentIndex)) {
         break;
       }
-      parentNode.setValidationStatus(VALID);
-      parentIndex = parentNode.getParentIndex();
+      nodes.setValidationStatus(parentIndex, VALID);
+      parentIndex = nodes.getParentIndex(parentIndex);
     }
   }
 
@@ -315,62 +368,53 @@ public class ProtoArray {
       // Couldn't find invalid chain segment with lack of data
       return;
     }
-    final Optional<Integer> maybeIndex = indices.get(blockRoot);
-    if (maybeIndex.isEmpty()) {
+    final int blockIndex = indices.getOrDefault(blockRoot, NO_INDEX);
+    if (blockIndex == NO_INDEX) {
       LOG.debug("Couldn't update status for block {} because it was unknown", blockRoot);
       return;
     }
     final int index;
-    final ProtoNode node;
     if (latestValidHash.isPresent()) {
-      final Optional<Integer> maybeFirstInvalidNodeIndex =
-          findFirstInvalidNodeIndex(maybeIndex.get(), latestValidHash.get());
+      final int firstInvalidNodeIndex =
+          findFirstInvalidNodeIndex(blockIndex, latestValidHash.get());
       if (!verifiedInvalidTransition) {
-        if (nodeHasExecutionHash(maybeIndex.get(), latestValidHash.get())) {
+        if (nodes.hasExecutionBlockHash(blockIndex, latestValidHash.get())) {
           // Nothing to do: head blockRoot contains payload with latestValidHash
           return;
         }
-        if (maybeFirstInvalidNodeIndex.isEmpty()) {
+        if (firstInvalidNodeIndex == NO_INDEX) {
           // Nothing to do: latestValidHash was not found, no proof of invalid transition
           return;
         }
       }
 
-      index = maybeFirstInvalidNodeIndex.orElse(maybeIndex.get());
-      node = getNodeByIndex(index);
+      index = firstInvalidNodeIndex == NO_INDEX ? blockIndex : firstInvalidNodeIndex;
     } else {
-      index = maybeIndex.get();
-      node = getNodeByIndex(index);
+      index = blockIndex;
     }
 
-    node.setValidationStatus(INVALID);
-    removeBlockRoot(node.getBlockRoot());
+    nodes.setValidationStatus(index, INVALID);
+    removeBlockRoot(nodes.getBlockRoot(index));
     markDescendantsAsInvalid(index);
     // Applying zero deltas causes the newly marked INVALID nodes to have their weight set to 0
-    applyDeltas(new LongArrayList(Collections.nCopies(getTotalTrackedNodeCount(), 0L)));
-  }
-
-  private boolean nodeHasExecutionHash(final int nodeIndex, final Bytes32 executionHash) {
-    return getNodeByIndex(nodeIndex).getExecutionBlockHash().equals(executionHash);
+    applyDeltas(new long[getTotalTrackedNodeCount()]);
   }
 
-  private Optional<Integer> findFirstInvalidNodeIndex(
-      final int invalidNodeIndex, final Bytes32 latestValidHash) {
+  private int findFirstInvalidNodeIndex(final int invalidNodeIndex, final Bytes32 latestValidHash) {
     int firstInvalidNodeIndex = invalidNodeIndex;
-    Optional<Integer> parentIndex = Optional.of(invalidNodeIndex);
-    while (parentIndex.isPresent()) {
-      final ProtoNode parentNode = getNodeByIndex(parentIndex.get());
-      if (parentNode.getExecutionBlockHash().equals(latestValidHash)) {
-        return Optional.of(firstInvalidNodeIndex);
+    int parentIndex = invalidNodeIndex;
+    while (parentIndex != NO_INDEX) {
+      if (nodes.hasExecutionBlockHash(parentIndex, latestValidHash)) {
+        return firstInvalidNodeIndex;
       }
-      firstInvalidNodeIndex = parentIndex.get();
-      parentIndex = parentNode.getParentIndex();
+      firstInvalidNodeIndex = parentIndex;
+      parentIndex = nodes.getParentIndex(parentIndex);
     }
     // Couldn't find the last valid hash - so can't take advantage of it.
     // Alert this user as it may indicate that invalid payloads have been finalized
     // (or the EL client is malfunctioning somehow).
     statusLog.unknownLatestValidHash(latestValidHash);
-    return Optional.empty();
+    return NO_INDEX;
   }
 
   private void markDescendantsAsInvalid(final int index) {
@@ -379,13 +423,13 @@ public class ProtoArray {
     // Need to mark all nodes extending from this one as invalid
     // Descendant nodes must be later in the array so can start from next index
     for (int i = index + 1; i < nodes.size(); i++) {
-      final ProtoNode possibleDescendant = getNodeByIndex(i);
-      if (possibleDescendant.getParentIndex().isEmpty()) {
+      final int parentIndex = nodes.getParentIndex(i);
+      if (parentIndex == NO_INDEX) {
         continue;
       }
-      if (invalidParents.contains((int) possibleDescendant.getParentIndex().get())) {
-        possibleDescendant.setValidationStatus(INVALID);
-        removeBlockRoot(possibleDescendant.getBlockRoot());
+      if (invalidParents.contains(parentIndex)) {
+        nodes.setValidationStatus(i, INVALID);
+        removeBlockRoot(nodes.getBlockRoot(i));
         invalidParents.add(i);
       }
     }
@@ -424,7 +468,7 @@ public class ProtoArray {
     this.justifiedCheckpoint = justifiedCheckpoint;
     this.finalizedCheckpoint = finalizedCheckpoint;
 
-    applyDeltas(deltas);
+    applyDeltas(deltas.toLongArray());
   }
 
   public int getTotalTrackedNodeCount() {
@@ -456,48 +500,14 @@ public class ProtoArray {
 
     // Remove the `indices` key/values for all the to-be-deleted nodes.
     for (int nodeIndex = 0; nodeIndex < finalizedIndex; nodeIndex++) {
-      Bytes32 root = getNodeByIndex(nodeIndex).getBlockRoot();
-      indices.remove(root);
+      indices.remove(nodes.getBlockRoot(nodeIndex));
     }
 
-    // Drop all the nodes prior to finalization.
-    nodes.subList(0, finalizedIndex).clear();
+    // Drop all the nodes prior to finalization and adjust the links between the remaining nodes
+    // to match the new layout.
+    nodes.removeFirst(finalizedIndex);
 
     indices.offsetIndices(finalizedIndex);
-
-    // Iterate through all the existing nodes and adjust their indices to match the
-    // new layout of nodes.
-    for (ProtoNode node : nodes) {
-      node.getParentIndex()
-          .ifPresent(
-              parentIndex -> {
-                // If node.parentIndex is less than finalizedIndex, set is to None.
-                if (parentIndex < finalizedIndex) {
-                  node.setParentIndex(Optional.empty());
-                } else {
-                  node.setParentIndex(Optional.of(parentIndex - finalizedIndex));
-                }
-              });
-
-      node.getBestChildIndex()
-          .ifPresent(
-              bestChildIndex -> {
-                int newBestChildIndex = bestChildIndex - finalizedIndex;
-                checkState(
-                    newBestChildIndex >= 0, "ProtoArray: New best child index is less than 0");
-                node.setBestChildIndex(Optional.of(newBestChildIndex));
-              });
-
-      node.getBestDescendantIndex()
-          .ifPresent(
-              bestDescendantIndex -> {
-                int newBestDescendantIndex = bestDescendantIndex - finalizedIndex;
-                checkState(
-                    newBestDescendantIndex >= 0,
-                    "ProtoArray: New best descendant index is less than 0");
-                node.setBestDescendantIndex(Optional.of(newBestDescendantIndex));
-              });
-    }
   }
 
   /**
@@ -519,91 +529,76 @@ public class ProtoArray {
    */
   @SuppressWarnings("StatementWithEmptyBody")
   private void maybeUpdateBestChildAndDescendant(int parentIndex, int childIndex) {
-    ProtoNode child = getNodeByIndex(childIndex);
-    ProtoNode parent = getNodeByIndex(parentIndex);
-
-    boolean childLeadsToViableHead = nodeLeadsToViableHead(child);
-
-    parent
-        .getBestChildIndex()
-        .ifPresentOrElse(
-            bestChildIndex -> {
-              if (bestChildIndex.equals(childIndex) && !childLeadsToViableHead) {
-                // If the child is already the best-child of the parent but it's not viable for
-                // the head, remove it.
-                changeToNone(parent);
-              } else if (bestChildIndex.equals(childIndex)) {
-                // If the child is the best-child already, set it again to ensure that the
-                // best-descendant of the parent is updated.
-                changeToChild(parent, childIndex);
-              } else {
-                ProtoNode bestChild = getNodeByIndex(bestChildIndex);
-
-                boolean bestChildLeadsToViableHead = nodeLeadsToViableHead(bestChild);
-
-                if (childLeadsToViableHead && !bestChildLeadsToViableHead) {
-                  // The child leads to a viable head, but the current best-child doesn't.
-                  changeToChild(parent, childIndex);
-                } else if (!childLeadsToViableHead && bestChildLeadsToViableHead) {
-                  // The best child leads to a viable head, but the child doesn't.
-                  // No change.
-                } else if (child.getWeight().equals(bestChild.getWeight())) {
-                  // Tie-breaker of equal weights by root.
-                  if (child
-                          .getBlockRoot()
-                          .toHexString()
-                          .compareTo(bestChild.getBlockRoot().toHexString())
-                      >= 0) {
-                    changeToChild(parent, childIndex);
-                  } else {
-                    // No change.
-                  }
-                } else {
-                  // Choose the winner by weight.
-                  if (child.getWeight().compareTo(bestChild.getWeight()) >= 0) {
-                    changeToChild(parent, childIndex);
-                  } else {
-                    // No change.
-                  }
-                }
-              }
-            },
-            () -> {
-              if (childLeadsToViableHead) {
-                // There is no current best-child and the child is viable.
-                changeToChild(parent, childIndex);
-              } else {
-                // There is no current best-child but the child is not not viable.
-                // No change.
-              }
-            });
+    final boolean childLeadsToViableHead = nodeLeadsToViableHead(childIndex);
+    final int bestChildIndex = nodes.getBestChildIndex(parentIndex);
+
+    if (bestChildIndex == NO_INDEX) {
+      if (childLeadsToViableHead) {
+        // There is no current best-child and the child is viable.
+        changeToChild(parentIndex, childIndex);
+      } else {
+        // There is no current best-child but the child is not not viable.
+        // No change.
+      }
+    } else if (bestChildIndex == childIndex && !childLeadsToViableHead) {
+      // If the child is already the best-child of the parent but it's not viable for
+      // the head, remove it.
+      changeToNone(parentIndex);
+    } else if (bestChildIndex == childIndex) {
+      // If the child is the best-child already, set it again to ensure that the
+      // best-descendant of the parent is updated.
+      changeToChild(parentIndex, childIndex);
+    } else {
+      final boolean bestChildLeadsToViableHead = nodeLeadsToViableHead(bestChildIndex);
+
+      if (childLeadsToViableHead && !bestChildLeadsToViableHead) {
+        // The child leads to a viable head, but the current best-child doesn't.
+        changeToChild(parentIndex, childIndex);
+      } else if (!childLeadsToViableHead && bestChildLeadsToViableHead) {
+        // The best child leads to a viable head, but the child doesn't.
+        // No change.
+      } else if (nodes.getWeight(childIndex) == nodes.getWeight(bestChildIndex)) {
+        // Tie-breaker of equal weights by root.
+        if (nodes.compareBlockRoots(childIndex, bestChildIndex) >= 0) {
+          changeToChild(parentIndex, childIndex);
+        } else {
+          // No change.
+        }
+      } else {
+        // Choose the winner by weight.
+        if (nodes.getWeight(childIndex) > nodes.getWeight(bestChildIndex)) {
+          changeToChild(parentIndex, childIndex);
+        } else {
+          // No change.
+        }
+      }
+    }
   }
 
   /** Helper for maybeUpdateBestChildAndDescendant */
-  private void changeToChild(ProtoNode parent, int childIndex) {
-    ProtoNode child = getNodeByIndex(childIndex);
-    parent.setBestChildIndex(Optional.of(childIndex));
-    parent.setBestDescendantIndex(Optional.of(child.getBestDescendantIndex().orElse(childIndex)));
+  private void changeToChild(int parentIndex, int childIndex) {
+    final int childBestDescendantIndex = nodes.getBestDescendantIndex(childIndex);
+    nodes.setBestChildIndex(parentIndex, childIndex);
+    nodes.setBestDescendantIndex(
+        parentIndex, childBestDescendantIndex == NO_INDEX ? childIndex : childBestDescendantIndex);
   }
 
   /** Helper for maybeUpdateBestChildAndDescendant */
-  private void changeToNone(ProtoNode parent) {
-    parent.setBestChildIndex(Optional.empty());
-    parent.setBestDescendantIndex(Optional.empty());
+  private void changeToNone(int parentIndex) {
+    nodes.setBestChildIndex(parentIndex, NO_INDEX);
+    nodes.setBestDescendantIndex(parentIndex, NO_INDEX);
   }
 
   /**
    * Indicates if the node itself is viable for the head, or if it's best descendant is viable for
    * the head.
    */
-  private boolean nodeLeadsToViableHead(ProtoNode node) {
+  private boolean nodeLeadsToViableHead(int nodeIndex) {
+    final int bestDescendantIndex = nodes.getBestDescendantIndex(nodeIndex);
     boolean bestDescendantIsViableForHead =
-        node.getBestDescendantIndex()
-            .map(this::getNodeByIndex)
-            .map(this::nodeIsViableForHead)
-            .orElse(false);
+        bestDescendantIndex != NO_INDEX && nodeIsViableForHead(bestDescendantIndex);
 
-    return bestDescendantIsViableForHead || nodeIsViableForHead(node);
+    return bestDescendantIsViableForHead || nodeIsViableForHead(nodeIndex);
   }
 
   /**
@@ -615,28 +610,42 @@ public class ProtoArray {
    * head.
    */
   public boolean nodeIsViableForHead(ProtoNode node) {
-    if (node.isInvalid()) {
+    return isViableForHead(
+        node.isInvalid(), node.getJustifiedCheckpoint(), node.getFinalizedCheckpoint());
+  }
+
+  boolean nodeIsViableForHead(int nodeIndex) {
+    final BlockCheckpoints checkpoints = nodes.getCheckpoints(nodeIndex);
+    return isViableForHead(
+        nodes.isInvalid(nodeIndex),
+        checkpoints.getJustifiedCheckpoint(),
+        checkpoints.getFinalizedCheckpoint());
+  }
+
+  private boolean isViableForHead(
+      final boolean invalid,
+      final Checkpoint nodeJustifiedCheckpoint,
+      final Checkpoint nodeFinalizedCheckpoint) {
+    if (invalid) {
       return false;
     }
 
     if (progressiveBalancesMode.isFull()) {
       final boolean correctJustified =
-          node.getJustifiedCheckpoint()
-              .getEpoch()
-              .isGreaterThanOrEqualTo(justifiedCheckpoint.getEpoch());
+          nodeJustifiedCheckpoint.getEpoch().isGreaterThanOrEqualTo(justifiedCheckpoint.getEpoch());
       final boolean correctFinalized;
       if (isPreviousEpochJustified()) {
         correctFinalized =
-            node.getFinalizedCheckpoint()
+            nodeFinalizedCheckpoint
                 .getEpoch()
                 .isGreaterThanOrEqualTo(finalizedCheckpoint.getEpoch());
       } else {
-        correctFinalized = doesCheckpointMatch(node.getFinalizedCheckpoint(), finalizedCheckpoint);
+        correctFinalized = doesCheckpointMatch(nodeFinalizedCheckpoint, finalizedCheckpoint);
       }
       return correctJustified && correctFinalized;
     } else {
-      return doesCheckpointMatch(node.getJustifiedCheckpoint(), justifiedCheckpoint)
-          && doesCheckpointMatch(node.getFinalizedCheckpoint(), finalizedCheckpoint);
+      return doesCheckpointMatch(nodeJustifiedCheckpoint, justifiedCheckpoint)
+          && doesCheckpointMatch(nodeFinalizedCheckpoint, finalizedCheckpoint);
     }
   }
 
@@ -671,39 +680,42 @@ public class ProtoArray {
   }
 
   public void pullUpBlockCheckpoints(final Bytes32 blockRoot) {
-    getProtoNode(blockRoot).ifPresent(ProtoNode::pullUpCheckpoints);
+    final int index = getNodeIndex(blockRoot);
+    if (index != NO_INDEX) {
+      nodes.setCheckpoints(index, nodes.getCheckpoints(index).realizeNextEpoch());
+    }
   }
 
-  private void applyDeltas(final LongList deltas) {
-    applyToNodes((node, nodeIndex) -> applyDelta(deltas, node, nodeIndex));
+  private void applyDeltas(final long[] deltas) {
+    applyToNodes(nodeIndex -> applyDelta(deltas, nodeIndex));
     applyToNodes(this::updateBestDescendantOfParent);
   }
 
-  private void updateBestDescendantOfParent(final ProtoNode node, final int nodeIndex) {
-    node.getParentIndex()
-        .ifPresent(parentIndex -> maybeUpdateBestChildAndDescendant(parentIndex, nodeIndex));
+  private void updateBestDescendantOfParent(final int nodeIndex) {
+    final int parentIndex = nodes.getParentIndex(nodeIndex);
+    if (parentIndex != NO_INDEX) {
+      maybeUpdateBestChildAndDescendant(parentIndex, nodeIndex);
+    }
   }
 
-  private void applyDelta(final LongList deltas, final ProtoNode node, final int nodeIndex) {
+  private void applyDelta(final long[] deltas, final int nodeIndex) {
     // If the node is invalid, remove any existing weight.
-    long nodeDelta = node.isInvalid() ? -node.getWeight().longValue() : deltas.getLong(nodeIndex);
-    node.adjustWeight(nodeDelta);
+    long nodeDelta = nodes.isInvalid(nodeIndex) ? -nodes.getWeight(nodeIndex) : deltas[nodeIndex];
+    nodes.adjustWeight(nodeIndex, nodeDelta);
 
-    if (node.getParentIndex().isPresent()) {
-      int parentIndex = node.getParentIndex().get();
-      deltas.set(parentIndex, deltas.getLong(parentIndex) + nodeDelta);
+    final int parentIndex = nodes.getParentIndex(nodeIndex);
+    if (parentIndex != NO_INDEX) {
+      deltas[parentIndex] += nodeDelta;
     }
   }
 
   private void applyToNodes(final NodeVisitor action) {
     for (int nodeIndex = getTotalTrackedNodeCount() - 1; nodeIndex >= 0; nodeIndex--) {
-      final ProtoNode node = getNodeByIndex(nodeIndex);
-
       // No point processing the genesis block.
-      if (node.getBlockRoot().equals(Bytes32.ZERO)) {
+      if (nodes.isBlockRootZero(nodeIndex)) {
         continue;
       }
-      action.onNode(node, nodeIndex);
+      action.onNode(nodeIndex);
     }
   }
 
@@ -712,10 +724,52 @@ public class ProtoArray {
   }
 
   ProtoNode getNodeByIndex(final int index) {
-    return checkNotNull(nodes.get(index), "Missing node %s", index);
+    return nodes.getNode(index);
+  }
+
+  /**
+   * Returns the index of the node with the given root or {@link ProtoNodeArrays#NO_INDEX} if it
+   * is unknown.
+   */
+  int getNodeIndex(final Bytes32 root) {
+    final int index = indices.getOrDefault(root, NO_INDEX);
+    return index < getTotalTrackedNodeCount() ? index : NO_INDEX;
+  }
+
+  int getParentIndex(final int nodeIndex) {
+    return nodes.getParentIndex(nodeIndex);
+  }
+
+  UInt64 getBlockSlot(final int nodeIndex) {
+    return UInt64.fromLongBits(nodes.getBlockSlot(nodeIndex));
+  }
+
+  /** Compares the slot of the node at {@code nodeIndex} to {@code slot}. */
+  int compareBlockSlot(final int nodeIndex, final UInt64 slot) {
+    return Long.compareUnsigned(nodes.getBlockSlot(nodeIndex), slot.longValue());
+  }
+
+  int compareBlockSlots(final int nodeIndex1, final int nodeIndex2) {
+    return Long.compareUnsigned(nodes.getBlockSlot(nodeIndex1), nodes.getBlockSlot(nodeIndex2));
+  }
+
+  Bytes32 getBlockRoot(final int nodeIndex) {
+    return nodes.getBlockRoot(nodeIndex);
+  }
+
+  Bytes32 getParentRoot(final int nodeIndex) {
+    return nodes.getParentRoot(nodeIndex);
+  }
+
+  Bytes32 getExecutionBlockHash(final int nodeIndex) {
+    return nodes.getExecutionBlockHash(nodeIndex);
+  }
+
+  boolean hasBestChild(final int nodeIndex) {
+    return nodes.getBestChildIndex(nodeIndex) != NO_INDEX;
   }
 
   private interface NodeVisitor {
-    void onNode(ProtoNode node, int nodeIndex);
+    void onNode(int nodeIndex);
   }
 }
@@ -16,31 +16,75 @@ package tech.pegasys.teku.storage.protoarray;
 import static com.google.common.base.Preconditions.checkState;
 
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.Optional;
 import org.apache.tuweni.bytes.Bytes32;
 
+/**
+ * Maps block roots to their index in the protoarray.
+ *
+ * <p>Copies share the bulk of the map. Roots are held in a base map, which may be shared with
+ * copies, and a map of roots added since the base was last rebuilt, which is copied. The base is
+ * only modified once no copy can see it, so taking a copy costs time proportional to the recently
+ * added roots rather than every tracked root. Recent roots are merged into the base once they make
+ * up a significant part of it.
+ */
 public class ProtoArrayIndices {
-  private final Object2IntMap<Bytes32> rootIndices = new Object2IntOpenHashMap<>();
+  private static final int MIN_RECENT_ROOTS_TO_MERGE = 64;
+
+  private Object2IntMap<Bytes32> baseRootIndices;
+  private boolean baseShared;
+  private final Object2IntMap<Bytes32> recentRootIndices;
+
+  public ProtoArrayIndices() {
+    this(new Object2IntOpenHashMap<>(), false, new Object2IntOpenHashMap<>());
+  }
+
+  private ProtoArrayIndices(
+      final Object2IntMap<Bytes32> baseRootIndices,
+      final boolean baseShared,
+      final Object2IntMap<Bytes32> recentRootIndices) {
+    this.baseRootIndices = baseRootIndices;
+    this.baseShared = baseShared;
+    this.recentRootIndices = recentRootIndices;
+  }
 
   public boolean contains(final Bytes32 root) {
-    return rootIndices.containsKey(root);
+    return recentRootIndices.containsKey(root) || baseRootIndices.containsKey(root);
   }
 
   public void add(final Bytes32 blockRoot, final int nodeIndex) {
-    rootIndices.put(blockRoot, nodeIndex);
+    recentRootIndices.put(blockRoot, nodeIndex);
+    if (recentRootIndices.size()
+        > Math.max(MIN_RECENT_ROOTS_TO_MERGE, baseRootIndices.size() / 8)) {
+      mergeRecentRootIndices();
+    }
   }
 
   public Optional<Integer> get(final Bytes32 root) {
-    return Optional.ofNullable(rootIndices.getOrDefault(root, null));
+    final int index = getOrDefault(root, -1);
+    return index == -1 ? Optional.empty() : Optional.of(index);
+  }
+
+  public int getOrDefault(final Bytes32 root, final int defaultIndex) {
+    final int recentIndex = recentRootIndices.getOrDefault(root, -1);
+    if (recentIndex != -1) {
+      return recentIndex;
+    }
+    return baseRootIndices.getOrDefault(root, defaultIndex);
   }
 
   public void remove(final Bytes32 root) {
-    rootIndices.removeInt(root);
+    recentRootIndices.removeInt(root);
+    if (baseRootIndices.containsKey(root)) {
+      getOwnedBaseRootIndices().removeInt(root);
+    }
   }
 
   public void offsetIndices(final int finalizedIndex) {
-    rootIndices.replaceAll(
+    mergeRecentRootIndices();
+    baseRootIndices.replaceAll(
         (key, value) -> {
           int newIndex = value - finalizedIndex;
           checkState(newIndex >= 0, "ProtoArray: New array index less than 0.");
@@ -48,7 +92,33 @@ public class ProtoArrayIndices {
         });
   }
 
+  /** Returns a read-only map of all roots to their index. */
   public Object2IntMap<Bytes32> getRootIndices() {
-    return rootIndices;
+    if (recentRootIndices.isEmpty()) {
+      return Object2IntMaps.unmodifiable(baseRootIndices);
+    }
+    final Object2IntMap<Bytes32> rootIndices = new Object2IntOpenHashMap<>(baseRootIndices);
+    rootIndices.putAll(recentRootIndices);
+    return Object2IntMaps.unmodifiable(rootIndices);
+  }
+
+  /** Returns a copy which is unaffected by later changes to these indices. */
+  public ProtoArrayIndices copy() {
+    baseShared = true;
+    return new ProtoArrayIndices(
+        baseRootIndices, true, new Object2IntOpenHashMap<>(recentRootIndices));
+  }
+
+  private void mergeRecentRootIndices() {
+    getOwnedBaseRootIndices().putAll(recentRootIndices);
+    recentRootIndices.clear();
+  }
+
+  private Object2IntMap<Bytes32> getOwnedBaseRootIndices() {
+    if (baseShared) {
+      baseRootIndices = new Object2IntOpenHashMap<>(baseRootIndices);
+      baseShared = false;
+    }
+    return baseRootIndices;
   }
 }
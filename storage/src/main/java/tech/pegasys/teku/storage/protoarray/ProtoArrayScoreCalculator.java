@@ -17,18 +17,30 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.addExact;
 import static java.lang.Math.subtractExact;
 
+import com.google.common.base.Throwables;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongList;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteUpdater;
 
 class ProtoArrayScoreCalculator {
+  // Below this many validators per task the cost of forking outweighs the parallelism
+  static final int MIN_VALIDATORS_PER_TASK = 16_384;
 
   /**
    * Returns a list of `deltas`, where there is one delta for each of the indices in
@@ -37,6 +49,13 @@ class ProtoArrayScoreCalculator {
    * <p>The deltas are formed by a change between `oldBalances` and `newBalances`, and/or a change
    * of vote in `votes`.
    *
+   * <p>When the balances are unchanged and the vote store tracks which validators have changed
+   * votes, only those validators are visited. Otherwise every validator is checked.
+   *
+   * <p>Large validator sets are split into ranges which are processed in parallel on {@code pool},
+   * each into its own delta array. The partial deltas are then summed and the updated votes stored
+   * on the calling thread, so {@code store} only needs to support concurrent reads.
+   *
    * <p>## Errors
    *
    * <ul>
@@ -55,13 +74,88 @@ class ProtoArrayScoreCalculator {
       Optional<Bytes32> newProposerBoostRoot,
       UInt64 previousBoostAmount,
       UInt64 newBoostAmount) {
-    LongList deltas = new LongArrayList(Collections.nCopies(protoArraySize, 0L));
+    return computeDeltas(
+        ForkJoinPool.commonPool(),
+        store,
+        protoArraySize,
+        getIndexByRoot,
+        oldBalances,
+        newBalances,
+        previousProposerBoostRoot,
+        newProposerBoostRoot,
+        previousBoostAmount,
+        newBoostAmount);
+  }
+
+  static LongList computeDeltas(
+      ForkJoinPool pool,
+      VoteUpdater store,
+      int protoArraySize,
+      Function<Bytes32, Optional<Integer>> getIndexByRoot,
+      List<UInt64> oldBalances,
+      List<UInt64> newBalances,
+      Optional<Bytes32> previousProposerBoostRoot,
+      Optional<Bytes32> newProposerBoostRoot,
+      UInt64 previousBoostAmount,
+      UInt64 newBoostAmount) {
+    LongList deltas = LongArrayList.wrap(new long[protoArraySize]);
 
-    UInt64.rangeClosed(UInt64.ZERO, store.getHighestVotedValidatorIndex())
-        .forEach(
-            validatorIndex ->
-                computeDelta(
-                    store, getIndexByRoot, oldBalances, newBalances, deltas, validatorIndex));
+    // List equality checks identity first and the balances of a justified state are cached, so
+    // this is cheap in the common case where the justified checkpoint hasn't changed.
+    final Optional<IntSet> validatorsWithPendingVotes =
+        oldBalances.equals(newBalances) ? store.getValidatorsWithPendingVotes() : Optional.empty();
+    final int validatorCount;
+    final IntUnaryOperator validatorIndexAt;
+    if (validatorsWithPendingVotes.isPresent()) {
+      final int[] validatorIndices = validatorsWithPendingVotes.get().toIntArray();
+      validatorCount = validatorIndices.length;
+      validatorIndexAt = i -> validatorIndices[i];
+    } else {
+      validatorCount = store.getHighestVotedValidatorIndex().intValue() + 1;
+      validatorIndexAt = i -> i;
+    }
+
+    final int taskCount = Math.min(pool.getParallelism(), validatorCount / MIN_VALIDATORS_PER_TASK);
+    if (taskCount <= 1) {
+      computeDeltas(
+          store,
+          getIndexByRoot,
+          oldBalances,
+          newBalances,
+          deltas,
+          validatorIndexAt,
+          0,
+          validatorCount,
+          store::putVote);
+    } else {
+      final List<Callable<PartialDeltas>> tasks = new ArrayList<>(taskCount);
+      for (int task = 0; task < taskCount; task++) {
+        final int fromIndex = (int) ((long) validatorCount * task / taskCount);
+        final int toIndex = (int) ((long) validatorCount * (task + 1) / taskCount);
+        tasks.add(
+            () -> {
+              final PartialDeltas partialDeltas = new PartialDeltas(protoArraySize);
+              computeDeltas(
+                  store,
+                  getIndexByRoot,
+                  oldBalances,
+                  newBalances,
+                  partialDeltas.deltas,
+                  validatorIndexAt,
+                  fromIndex,
+                  toIndex,
+                  partialDeltas.updatedVotes::put);
+              return partialDeltas;
+            });
+      }
+      for (Future<PartialDeltas> result : invokeAll(pool, tasks)) {
+        final PartialDeltas partialDeltas = getResult(result);
+        for (int i = 0; i < protoArraySize; i++) {
+          deltas.set(i, addExact(deltas.getLong(i), partialDeltas.deltas.getLong(i)));
+        }
+        partialDeltas.updatedVotes.forEach(store::putVote);
+      }
+    }
 
     previousProposerBoostRoot.ifPresent(
         root -> subtractBalance(getIndexByRoot, deltas, root, previousBoostAmount));
@@ -70,13 +164,58 @@ class ProtoArrayScoreCalculator {
     return deltas;
   }
 
+  private static void computeDeltas(
+      final VoteUpdater store,
+      final Function<Bytes32, Optional<Integer>> getIndexByRoot,
+      final List<UInt64> oldBalances,
+      final List<UInt64> newBalances,
+      final LongList deltas,
+      final IntUnaryOperator validatorIndexAt,
+      final int fromIndex,
+      final int toIndex,
+      final BiConsumer<UInt64, VoteTracker> updatedVotes) {
+    for (int i = fromIndex; i < toIndex; i++) {
+      computeDelta(
+          store,
+          getIndexByRoot,
+          oldBalances,
+          newBalances,
+          deltas,
+          UInt64.valueOf(validatorIndexAt.applyAsInt(i)),
+          updatedVotes);
+    }
+  }
+
+  private static List<Future<PartialDeltas>> invokeAll(
+      final ForkJoinPool pool, final List<Callable<PartialDeltas>> tasks) {
+    try {
+      return pool.invokeAll(tasks);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while computing vote deltas", e);
+    }
+  }
+
+  private static PartialDeltas getResult(final Future<PartialDeltas> result) {
+    try {
+      return result.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while computing vote deltas", e);
+    } catch (final ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException("Failed to compute vote deltas", e.getCause());
+    }
+  }
+
   private static void computeDelta(
       final VoteUpdater store,
       final Function<Bytes32, Optional<Integer>> getIndexByRoot,
       final List<UInt64> oldBalances,
       final List<UInt64> newBalances,
       final LongList deltas,
-      final UInt64 validatorIndex) {
+      final UInt64 validatorIndex,
+      final BiConsumer<UInt64, VoteTracker> updatedVotes) {
     VoteTracker vote = store.getVote(validatorIndex);
 
     // There is no need to create a score change if the validator has never voted
@@ -114,7 +253,7 @@ class ProtoArrayScoreCalculator {
               vote.getNextEpoch(),
               vote.isNextEquivocating(),
               vote.isNextEquivocating());
-      store.putVote(validatorIndex, newVote);
+      updatedVotes.accept(validatorIndex, newVote);
     }
   }
 
@@ -156,4 +295,13 @@ class ProtoArrayScoreCalculator {
               deltas.set(currentDeltaIndex.intValue(), delta);
             });
   }
+
+  private static class PartialDeltas {
+    private final LongList deltas;
+    private final Map<UInt64, VoteTracker> updatedVotes = new HashMap<>();
+
+    private PartialDeltas(final int protoArraySize) {
+      this.deltas = LongArrayList.wrap(new long[protoArraySize]);
+    }
+  }
 }
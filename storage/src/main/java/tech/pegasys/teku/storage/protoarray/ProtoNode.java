@@ -13,8 +13,6 @@
 
 package tech.pegasys.teku.storage.protoarray;
 
-import static com.google.common.base.Preconditions.checkState;
-
 import com.google.common.base.MoreObjects;
 import java.util.Objects;
 import java.util.Optional;
@@ -26,176 +24,113 @@ import tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeData;
 import tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus;
 import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
 
+/**
+ * A view of a single node in a {@link ProtoArray}. Values are read from the array when requested,
+ * so a view reflects later weight and validity changes to its node. Views identify nodes by index
+ * and must not be used after the array is pruned.
+ */
 public class ProtoNode {
 
-  private final UInt64 blockSlot;
-  private final Bytes32 stateRoot;
-
-  private final Bytes32 blockRoot;
-  private final Bytes32 parentRoot;
+  private final ProtoNodeArrays nodes;
+  private final int index;
 
-  private BlockCheckpoints checkpoints;
-
-  /**
-   * The block hash from the execution payload.
-   *
-   * <p>{@link Bytes32#ZERO} if the block does not have an execution payload or uses the default
-   * payload.
-   */
-  private final Bytes32 executionBlockHash;
-
-  private UInt64 weight;
-  private Optional<Integer> parentIndex;
-  private Optional<Integer> bestChildIndex;
-  private Optional<Integer> bestDescendantIndex;
-
-  private ProtoNodeValidationStatus validationStatus;
-
-  ProtoNode(
-      final UInt64 blockSlot,
-      final Bytes32 stateRoot,
-      final Bytes32 blockRoot,
-      final Bytes32 parentRoot,
-      final Optional<Integer> parentIndex,
-      final BlockCheckpoints checkpoints,
-      final Bytes32 executionBlockHash,
-      final UInt64 weight,
-      final Optional<Integer> bestChildIndex,
-      final Optional<Integer> bestDescendantIndex,
-      final ProtoNodeValidationStatus validationStatus) {
-    this.blockSlot = blockSlot;
-    this.stateRoot = stateRoot;
-    this.blockRoot = blockRoot;
-    this.parentRoot = parentRoot;
-    this.parentIndex = parentIndex;
-    this.checkpoints = checkpoints;
-    this.executionBlockHash = executionBlockHash;
-    this.weight = weight;
-    this.bestChildIndex = bestChildIndex;
-    this.bestDescendantIndex = bestDescendantIndex;
-    this.validationStatus = validationStatus;
-  }
-
-  public void adjustWeight(long delta) {
-    if (delta < 0) {
-      UInt64 deltaAbsoluteValue = UInt64.valueOf(Math.abs(delta));
-      if (deltaAbsoluteValue.isGreaterThan(weight)) {
-        throw new RuntimeException(
-            "ProtoNode: Delta to be subtracted is greater than node weight for block "
-                + blockRoot
-                + " ("
-                + blockSlot
-                + "). Attempting to subtract "
-                + deltaAbsoluteValue
-                + " from "
-                + weight);
-      }
-      weight = weight.minus(deltaAbsoluteValue);
-    } else {
-      weight = weight.plus(delta);
-    }
+  ProtoNode(final ProtoNodeArrays nodes, final int index) {
+    this.nodes = nodes;
+    this.index = index;
   }
 
   public Bytes32 getParentRoot() {
-    return parentRoot;
+    return nodes.getParentRoot(index);
   }
 
   public UInt64 getWeight() {
-    return weight;
+    return UInt64.fromLongBits(nodes.getWeight(index));
   }
 
   public UInt64 getBlockSlot() {
-    return blockSlot;
+    return UInt64.fromLongBits(nodes.getBlockSlot(index));
   }
 
   public Bytes32 getStateRoot() {
-    return stateRoot;
+    return nodes.getStateRoot(index);
   }
 
   public Bytes32 getBlockRoot() {
-    return blockRoot;
+    return nodes.getBlockRoot(index);
   }
 
   public Optional<Integer> getParentIndex() {
-    return parentIndex;
+    return toOptional(nodes.getParentIndex(index));
   }
 
   public Checkpoint getJustifiedCheckpoint() {
-    return checkpoints.getJustifiedCheckpoint();
+    return getCheckpoints().getJustifiedCheckpoint();
   }
 
   public Checkpoint getFinalizedCheckpoint() {
-    return checkpoints.getFinalizedCheckpoint();
+    return getCheckpoints().getFinalizedCheckpoint();
   }
 
   public Checkpoint getUnrealizedJustifiedCheckpoint() {
-    return checkpoints.getUnrealizedJustifiedCheckpoint();
+    return getCheckpoints().getUnrealizedJustifiedCheckpoint();
   }
 
   public Checkpoint getUnrealizedFinalizedCheckpoint() {
-    return checkpoints.getUnrealizedFinalizedCheckpoint();
+    return getCheckpoints().getUnrealizedFinalizedCheckpoint();
   }
 
+  /**
+   * The block hash from the execution payload.
+   *
+   * <p>{@link Bytes32#ZERO} if the block does not have an execution payload or uses the default
+   * payload.
+   */
   public Bytes32 getExecutionBlockHash() {
-    return executionBlockHash;
-  }
-
-  public void pullUpCheckpoints() {
-    checkpoints = checkpoints.realizeNextEpoch();
-  }
-
-  public void setParentIndex(Optional<Integer> parentIndex) {
-    this.parentIndex = parentIndex;
+    return nodes.getExecutionBlockHash(index);
   }
 
   public Optional<Integer> getBestChildIndex() {
-    return bestChildIndex;
-  }
-
-  public void setBestChildIndex(Optional<Integer> bestChildIndex) {
-    this.bestChildIndex = bestChildIndex;
+    return toOptional(nodes.getBestChildIndex(index));
   }
 
   public Optional<Integer> getBestDescendantIndex() {
-    return bestDescendantIndex;
-  }
-
-  public void setBestDescendantIndex(Optional<Integer> bestDescendantIndex) {
-    this.bestDescendantIndex = bestDescendantIndex;
+    return toOptional(nodes.getBestDescendantIndex(index));
   }
 
   public boolean isFullyValidated() {
-    return validationStatus == ProtoNodeValidationStatus.VALID;
+    return nodes.isFullyValidated(index);
   }
 
   public boolean isInvalid() {
-    return validationStatus == ProtoNodeValidationStatus.INVALID;
+    return nodes.isInvalid(index);
   }
 
   public boolean isOptimistic() {
-    return validationStatus == ProtoNodeValidationStatus.OPTIMISTIC;
-  }
-
-  public void setValidationStatus(final ProtoNodeValidationStatus validationStatus) {
-    checkState(
-        this.validationStatus == ProtoNodeValidationStatus.OPTIMISTIC
-            || this.validationStatus == validationStatus,
-        "Cannot change node validity from %s to %s",
-        this.validationStatus,
-        validationStatus);
-    this.validationStatus = validationStatus;
+    return getValidationStatus() == ProtoNodeValidationStatus.OPTIMISTIC;
   }
 
   public ProtoNodeData getBlockData() {
     return new ProtoNodeData(
-        blockSlot,
-        blockRoot,
-        parentRoot,
-        stateRoot,
-        executionBlockHash,
-        validationStatus,
-        checkpoints,
-        weight);
+        getBlockSlot(),
+        getBlockRoot(),
+        getParentRoot(),
+        getStateRoot(),
+        getExecutionBlockHash(),
+        getValidationStatus(),
+        getCheckpoints(),
+        getWeight());
+  }
+
+  private BlockCheckpoints getCheckpoints() {
+    return nodes.getCheckpoints(index);
+  }
+
+  private ProtoNodeValidationStatus getValidationStatus() {
+    return nodes.getValidationStatus(index);
+  }
+
+  private static Optional<Integer> toOptional(final int nodeIndex) {
+    return nodeIndex == ProtoNodeArrays.NO_INDEX ? Optional.empty() : Optional.of(nodeIndex);
   }
 
   @Override
@@ -207,56 +142,56 @@ public class ProtoNode {
       return false;
     }
     final ProtoNode protoNode = (ProtoNode) o;
-    return Objects.equals(blockSlot, protoNode.blockSlot)
-        && Objects.equals(stateRoot, protoNode.stateRoot)
-        && Objects.equals(blockRoot, protoNode.blockRoot)
-        && Objects.equals(parentRoot, protoNode.parentRoot)
-        && Objects.equals(checkpoints, protoNode.checkpoints)
-        && Objects.equals(executionBlockHash, protoNode.executionBlockHash)
-        && Objects.equals(weight, protoNode.weight)
-        && Objects.equals(parentIndex, protoNode.parentIndex)
-        && Objects.equals(bestChildIndex, protoNode.bestChildIndex)
-        && Objects.equals(bestDescendantIndex, protoNode.bestDescendantIndex)
-        && validationStatus == protoNode.validationStatus;
+    return Objects.equals(getBlockSlot(), protoNode.getBlockSlot())
+        && Objects.equals(getStateRoot(), protoNode.getStateRoot())
+        && Objects.equals(getBlockRoot(), protoNode.getBlockRoot())
+        && Objects.equals(getParentRoot(), protoNode.getParentRoot())
+        && Objects.equals(getCheckpoints(), protoNode.getCheckpoints())
+        && Objects.equals(getExecutionBlockHash(), protoNode.getExecutionBlockHash())
+        && Objects.equals(getWeight(), protoNode.getWeight())
+        && Objects.equals(getParentIndex(), protoNode.getParentIndex())
+        && Objects.equals(getBestChildIndex(), protoNode.getBestChildIndex())
+        && Objects.equals(getBestDescendantIndex(), protoNode.getBestDescendantIndex())
+        && getValidationStatus() == protoNode.getValidationStatus();
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(
-        blockSlot,
-        stateRoot,
-        blockRoot,
-        parentRoot,
-        checkpoints,
-        executionBlockHash,
-        weight,
-        parentIndex,
-        bestChildIndex,
-        bestDescendantIndex,
-        validationStatus);
+        getBlockSlot(),
+        getStateRoot(),
+        getBlockRoot(),
+        getParentRoot(),
+        getCheckpoints(),
+        getExecutionBlockHash(),
+        getWeight(),
+        getParentIndex(),
+        getBestChildIndex(),
+        getBestDescendantIndex(),
+        getValidationStatus());
   }
 
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
-        .add("blockSlot", blockSlot)
-        .add("stateRoot", stateRoot)
-        .add("blockRoot", blockRoot)
-        .add("parentRoot", parentRoot)
+        .add("blockSlot", getBlockSlot())
+        .add("stateRoot", getStateRoot())
+        .add("blockRoot", getBlockRoot())
+        .add("parentRoot", getParentRoot())
         .add("justifiedCheckpoint", getJustifiedCheckpoint())
         .add("finalizedCheckpoint", getFinalizedCheckpoint())
         .add("unrealizedJustifiedCheckpoint", getUnrealizedJustifiedCheckpoint())
         .add("unrealizedFinalizedCheckpoint", getUnrealizedFinalizedCheckpoint())
-        .add("executionBlockHash", executionBlockHash)
-        .add("weight", weight)
-        .add("parentIndex", parentIndex)
-        .add("bestChildIndex", bestChildIndex)
-        .add("bestDescendantIndex", bestDescendantIndex)
-        .add("validationStatus", validationStatus)
+        .add("executionBlockHash", getExecutionBlockHash())
+        .add("weight", getWeight())
+        .add("parentIndex", getParentIndex())
+        .add("bestChildIndex", getBestChildIndex())
+        .add("bestDescendantIndex", getBestDescendantIndex())
+        .add("validationStatus", getValidationStatus())
         .toString();
   }
 
   public String toLogString() {
-    return LogFormatter.formatBlock(blockSlot, blockRoot);
+    return LogFormatter.formatBlock(getBlockSlot(), getBlockRoot());
   }
 }
@@ -0,0 +1,341 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.protoarray;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Arrays;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.BlockCheckpoints;
+import tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus;
+
+/**
+ * Stores the fields of every node in a {@link ProtoArray} in parallel arrays indexed by node
+ * index, so that weight updates and head selection iterate over primitive arrays rather than
+ * following references to boxed values in individual node objects.
+ *
+ * <p>Roots are stored back to back in flat byte arrays. Parent, best child and best descendant
+ * links use {@link #NO_INDEX} when absent. Weights are gwei amounts, which are always well within
+ * the range of a signed long.
+ *
+ * <p>Slots, roots and parent links never change once a node is added, apart from being shifted
+ * down when nodes are removed, which always writes to new arrays. Copies can therefore share
+ * those arrays with the original, reading only the nodes which existed when the copy was taken.
+ * The remaining fields are copied.
+ */
+class ProtoNodeArrays {
+  static final int NO_INDEX = -1;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private int size = 0;
+  // True while this copy shares the arrays of fields which never change with its original
+  private boolean immutableFieldsShared = false;
+  private long[] blockSlots;
+  private byte[] blockRoots;
+  private byte[] parentRoots;
+  private byte[] stateRoots;
+  private byte[] executionBlockHashes;
+  private BlockCheckpoints[] checkpoints;
+  private ProtoNodeValidationStatus[] validationStatuses;
+  private long[] weights;
+  private int[] parentIndices;
+  private int[] bestChildIndices;
+  private int[] bestDescendantIndices;
+
+  ProtoNodeArrays() {
+    this(INITIAL_CAPACITY);
+  }
+
+  private ProtoNodeArrays(final int capacity) {
+    blockSlots = new long[capacity];
+    blockRoots = new byte[capacity * Bytes32.SIZE];
+    parentRoots = new byte[capacity * Bytes32.SIZE];
+    stateRoots = new byte[capacity * Bytes32.SIZE];
+    executionBlockHashes = new byte[capacity * Bytes32.SIZE];
+    checkpoints = new BlockCheckpoints[capacity];
+    validationStatuses = new ProtoNodeValidationStatus[capacity];
+    weights = new long[capacity];
+    parentIndices = new int[capacity];
+    bestChildIndices = new int[capacity];
+    bestDescendantIndices = new int[capacity];
+  }
+
+  int size() {
+    return size;
+  }
+
+  private ProtoNodeArrays(final ProtoNodeArrays original) {
+    size = original.size;
+    immutableFieldsShared = true;
+    blockSlots = original.blockSlots;
+    blockRoots = original.blockRoots;
+    parentRoots = original.parentRoots;
+    stateRoots = original.stateRoots;
+    executionBlockHashes = original.executionBlockHashes;
+    parentIndices = original.parentIndices;
+    checkpoints = Arrays.copyOf(original.checkpoints, size);
+    validationStatuses = Arrays.copyOf(original.validationStatuses, size);
+    weights = Arrays.copyOf(original.weights, size);
+    bestChildIndices = Arrays.copyOf(original.bestChildIndices, size);
+    bestDescendantIndices = Arrays.copyOf(original.bestDescendantIndices, size);
+  }
+
+  /**
+   * Returns a copy of these nodes which is unaffected by later changes to the original. Fields
+   * which never change once a node is added are shared rather than copied.
+   */
+  ProtoNodeArrays copy() {
+    return new ProtoNodeArrays(this);
+  }
+
+  /** Appends a node with no weight and no best child, returning its index. */
+  int add(
+      final UInt64 blockSlot,
+      final Bytes32 blockRoot,
+      final Bytes32 parentRoot,
+      final Bytes32 stateRoot,
+      final int parentIndex,
+      final BlockCheckpoints checkpoints,
+      final Bytes32 executionBlockHash,
+      final ProtoNodeValidationStatus validationStatus) {
+    ensureCapacity(size + 1);
+    final int index = size;
+    blockSlots[index] = blockSlot.longValue();
+    setRoot(blockRoots, index, blockRoot);
+    setRoot(parentRoots, index, parentRoot);
+    setRoot(stateRoots, index, stateRoot);
+    setRoot(executionBlockHashes, index, executionBlockHash);
+    this.checkpoints[index] = checkpoints;
+    validationStatuses[index] = validationStatus;
+    weights[index] = 0;
+    parentIndices[index] = parentIndex;
+    bestChildIndices[index] = NO_INDEX;
+    bestDescendantIndices[index] = NO_INDEX;
+    size++;
+    return index;
+  }
+
+  /**
+   * Removes the first {@code count} nodes, shifting the remaining nodes down and adjusting their
+   * links to match. Links to parents which were removed are cleared.
+   */
+  void removeFirst(final int count) {
+    final int remaining = size - count;
+    final int capacity = checkpoints.length;
+    // Copies may still be reading these arrays so the shifted nodes are written to new arrays
+    blockSlots = Arrays.copyOfRange(blockSlots, count, count + capacity);
+    blockRoots = shiftRoots(blockRoots, count, capacity);
+    parentRoots = shiftRoots(parentRoots, count, capacity);
+    stateRoots = shiftRoots(stateRoots, count, capacity);
+    executionBlockHashes = shiftRoots(executionBlockHashes, count, capacity);
+    parentIndices = Arrays.copyOfRange(parentIndices, count, count + capacity);
+    immutableFieldsShared = false;
+    System.arraycopy(checkpoints, count, checkpoints, 0, remaining);
+    Arrays.fill(checkpoints, remaining, size, null);
+    System.arraycopy(validationStatuses, count, validationStatuses, 0, remaining);
+    Arrays.fill(validationStatuses, remaining, size, null);
+    System.arraycopy(weights, count, weights, 0, remaining);
+    System.arraycopy(bestChildIndices, count, bestChildIndices, 0, remaining);
+    System.arraycopy(bestDescendantIndices, count, bestDescendantIndices, 0, remaining);
+    size = remaining;
+
+    for (int index = 0; index < size; index++) {
+      final int parentIndex = parentIndices[index];
+      if (parentIndex != NO_INDEX) {
+        parentIndices[index] = parentIndex < count ? NO_INDEX : parentIndex - count;
+      }
+      final int bestChildIndex = bestChildIndices[index];
+      if (bestChildIndex != NO_INDEX) {
+        checkState(bestChildIndex >= count, "ProtoArray: New best child index is less than 0");
+        bestChildIndices[index] = bestChildIndex - count;
+      }
+      final int bestDescendantIndex = bestDescendantIndices[index];
+      if (bestDescendantIndex != NO_INDEX) {
+        checkState(
+            bestDescendantIndex >= count, "ProtoArray: New best descendant index is less than 0");
+        bestDescendantIndices[index] = bestDescendantIndex - count;
+      }
+    }
+  }
+
+  long getBlockSlot(final int index) {
+    return blockSlots[index];
+  }
+
+  Bytes32 getBlockRoot(final int index) {
+    return getRoot(blockRoots, index);
+  }
+
+  Bytes32 getParentRoot(final int index) {
+    return getRoot(parentRoots, index);
+  }
+
+  Bytes32 getStateRoot(final int index) {
+    return getRoot(stateRoots, index);
+  }
+
+  Bytes32 getExecutionBlockHash(final int index) {
+    return getRoot(executionBlockHashes, index);
+  }
+
+  boolean isBlockRootZero(final int index) {
+    return isZero(blockRoots, index);
+  }
+
+  boolean isExecutionBlockHashZero(final int index) {
+    return isZero(executionBlockHashes, index);
+  }
+
+  boolean hasExecutionBlockHash(final int index, final Bytes32 executionBlockHash) {
+    final int offset = index * Bytes32.SIZE;
+    return Arrays.equals(
+        executionBlockHashes,
+        offset,
+        offset + Bytes32.SIZE,
+        executionBlockHash.toArrayUnsafe(),
+        0,
+        Bytes32.SIZE);
+  }
+
+  /**
+   * Compares block roots as unsigned big-endian values, matching the order of their hex strings.
+   */
+  int compareBlockRoots(final int index1, final int index2) {
+    final int offset1 = index1 * Bytes32.SIZE;
+    final int offset2 = index2 * Bytes32.SIZE;
+    return Arrays.compareUnsigned(
+        blockRoots, offset1, offset1 + Bytes32.SIZE, blockRoots, offset2, offset2 + Bytes32.SIZE);
+  }
+
+  BlockCheckpoints getCheckpoints(final int index) {
+    return checkpoints[index];
+  }
+
+  void setCheckpoints(final int index, final BlockCheckpoints checkpoints) {
+    this.checkpoints[index] = checkpoints;
+  }
+
+  ProtoNodeValidationStatus getValidationStatus(final int index) {
+    return validationStatuses[index];
+  }
+
+  boolean isInvalid(final int index) {
+    return validationStatuses[index] == ProtoNodeValidationStatus.INVALID;
+  }
+
+  boolean isFullyValidated(final int index) {
+    return validationStatuses[index] == ProtoNodeValidationStatus.VALID;
+  }
+
+  void setValidationStatus(final int index, final ProtoNodeValidationStatus validationStatus) {
+    final ProtoNodeValidationStatus currentStatus = validationStatuses[index];
+    checkState(
+        currentStatus == ProtoNodeValidationStatus.OPTIMISTIC || currentStatus == validationStatus,
+        "Cannot change node validity from %s to %s",
+        currentStatus,
+        validationStatus);
+    validationStatuses[index] = validationStatus;
+  }
+
+  long getWeight(final int index) {
+    return weights[index];
+  }
+
+  void adjustWeight(final int index, final long delta) {
+    final long weight = weights[index];
+    if (delta < 0 && -delta > weight) {
+      throw new RuntimeException(
+          "ProtoNode: Delta to be subtracted is greater than node weight for block "
+              + getBlockRoot(index)
+              + " ("
+              + UInt64.fromLongBits(blockSlots[index])
+              + "). Attempting to subtract "
+              + -delta
+              + " from "
+              + weight);
+    }
+    weights[index] = weight + delta;
+  }
+
+  int getParentIndex(final int index) {
+    return parentIndices[index];
+  }
+
+  int getBestChildIndex(final int index) {
+    return bestChildIndices[index];
+  }
+
+  void setBestChildIndex(final int index, final int bestChildIndex) {
+    bestChildIndices[index] = bestChildIndex;
+  }
+
+  int getBestDescendantIndex(final int index) {
+    return bestDescendantIndices[index];
+  }
+
+  void setBestDescendantIndex(final int index, final int bestDescendantIndex) {
+    bestDescendantIndices[index] = bestDescendantIndex;
+  }
+
+  ProtoNode getNode(final int index) {
+    checkElementIndex(index, size, "Missing node");
+    return new ProtoNode(this, index);
+  }
+
+  private void ensureCapacity(final int requiredCapacity) {
+    if (requiredCapacity <= checkpoints.length && !immutableFieldsShared) {
+      return;
+    }
+    // Arrays shared with the original may already hold its later nodes so are never appended to
+    final int capacity = Math.max(requiredCapacity, checkpoints.length * 2);
+    blockSlots = Arrays.copyOf(blockSlots, capacity);
+    blockRoots = Arrays.copyOf(blockRoots, capacity * Bytes32.SIZE);
+    parentRoots = Arrays.copyOf(parentRoots, capacity * Bytes32.SIZE);
+    stateRoots = Arrays.copyOf(stateRoots, capacity * Bytes32.SIZE);
+    executionBlockHashes = Arrays.copyOf(executionBlockHashes, capacity * Bytes32.SIZE);
+    checkpoints = Arrays.copyOf(checkpoints, capacity);
+    validationStatuses = Arrays.copyOf(validationStatuses, capacity);
+    weights = Arrays.copyOf(weights, capacity);
+    parentIndices = Arrays.copyOf(parentIndices, capacity);
+    bestChildIndices = Arrays.copyOf(bestChildIndices, capacity);
+    bestDescendantIndices = Arrays.copyOf(bestDescendantIndices, capacity);
+    immutableFieldsShared = false;
+  }
+
+  private static byte[] shiftRoots(final byte[] roots, final int count, final int capacity) {
+    return Arrays.copyOfRange(roots, count * Bytes32.SIZE, (count + capacity) * Bytes32.SIZE);
+  }
+
+  private static void setRoot(final byte[] roots, final int index, final Bytes32 root) {
+    System.arraycopy(root.toArrayUnsafe(), 0, roots, index * Bytes32.SIZE, Bytes32.SIZE);
+  }
+
+  private static Bytes32 getRoot(final byte[] roots, final int index) {
+    final int offset = index * Bytes32.SIZE;
+    return Bytes32.wrap(Arrays.copyOfRange(roots, offset, offset + Bytes32.SIZE));
+  }
+
+  private static boolean isZero(final byte[] roots, final int index) {
+    final int offset = index * Bytes32.SIZE;
+    for (int i = offset; i < offset + Bytes32.SIZE; i++) {
+      if (roots[i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
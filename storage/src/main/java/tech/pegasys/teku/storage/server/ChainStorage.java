@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 import tech.pegasys.teku.ethereum.pow.api.DepositTreeSnapshot;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
@@ -59,10 +60,12 @@ public class ChainStorage
     this.finalizedStateCache = finalizedStateCache;
   }
 
-  public static ChainStorage create(final Database database, final Spec spec) {
+  public static ChainStorage create(
+      final Database database, final Spec spec, final MetricsSystem metricsSystem) {
     final int finalizedStateCacheSize = spec.getSlotsPerEpoch(SpecConfig.GENESIS_EPOCH) * 3;
     return new ChainStorage(
-        database, new FinalizedStateCache(spec, database, finalizedStateCacheSize, true));
+        database,
+        new FinalizedStateCache(spec, database, metricsSystem, finalizedStateCacheSize, true));
   }
 
   private synchronized Optional<OnDiskStoreData> getStore() {
@@ -18,9 +18,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.ethereum.pow.api.DepositTreeSnapshot;
 import tech.pegasys.teku.infrastructure.async.AsyncRunner;
+import tech.pegasys.teku.infrastructure.async.ExceptionThrowingFutureSupplier;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
@@ -46,20 +48,32 @@ import tech.pegasys.teku.storage.api.WeakSubjectivityUpdate;
  * synchronously and queries being run asynchronously.
  *
  * <p>This guarantees that queries are only ever processed after the updates that were sent before
- * them but without allowing queries to delay updates.
+ * them but without allowing queries to delay updates. If the update delegate applies updates
+ * asynchronously, {@code updatesApplied} must supply a future which completes once all updates sent
+ * so far have been applied.
  */
 public class CombinedStorageChannelSplitter implements CombinedStorageChannel {
   private final AsyncRunner asyncRunner;
   private final StorageQueryChannel queryDelegate;
   private final StorageUpdateChannel updateDelegate;
+  private final Supplier<SafeFuture<Void>> updatesApplied;
 
   public CombinedStorageChannelSplitter(
       final AsyncRunner asyncRunner,
       final StorageUpdateChannel updateDelegate,
       final StorageQueryChannel queryDelegate) {
+    this(asyncRunner, updateDelegate, queryDelegate, () -> SafeFuture.COMPLETE);
+  }
+
+  public CombinedStorageChannelSplitter(
+      final AsyncRunner asyncRunner,
+      final StorageUpdateChannel updateDelegate,
+      final StorageQueryChannel queryDelegate,
+      final Supplier<SafeFuture<Void>> updatesApplied) {
     this.asyncRunner = asyncRunner;
     this.queryDelegate = queryDelegate;
     this.updateDelegate = updateDelegate;
+    this.updatesApplied = updatesApplied;
   }
 
   @Override
@@ -113,107 +127,111 @@ public class CombinedStorageChannelSplitter implements CombinedStorageChannel {
 
   @Override
   public SafeFuture<Optional<OnDiskStoreData>> onStoreRequest() {
-    return asyncRunner.runAsync(queryDelegate::onStoreRequest);
+    return runQuery(queryDelegate::onStoreRequest);
   }
 
   @Override
   public SafeFuture<WeakSubjectivityState> getWeakSubjectivityState() {
-    return asyncRunner.runAsync(queryDelegate::getWeakSubjectivityState);
+    return runQuery(queryDelegate::getWeakSubjectivityState);
   }
 
   @Override
   public SafeFuture<Optional<UInt64>> getEarliestAvailableBlockSlot() {
-    return asyncRunner.runAsync(queryDelegate::getEarliestAvailableBlockSlot);
+    return runQuery(queryDelegate::getEarliestAvailableBlockSlot);
   }
 
   @Override
   public SafeFuture<Optional<SignedBeaconBlock>> getEarliestAvailableBlock() {
-    return asyncRunner.runAsync(queryDelegate::getEarliestAvailableBlock);
+    return runQuery(queryDelegate::getEarliestAvailableBlock);
   }
 
   @Override
   public SafeFuture<Optional<SignedBeaconBlock>> getFinalizedBlockAtSlot(final UInt64 slot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getFinalizedBlockAtSlot(slot));
+    return runQuery(() -> queryDelegate.getFinalizedBlockAtSlot(slot));
   }
 
   @Override
   public SafeFuture<Optional<SignedBeaconBlock>> getLatestFinalizedBlockAtSlot(final UInt64 slot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getLatestFinalizedBlockAtSlot(slot));
+    return runQuery(() -> queryDelegate.getLatestFinalizedBlockAtSlot(slot));
   }
 
   @Override
   public SafeFuture<Optional<SignedBeaconBlock>> getBlockByBlockRoot(final Bytes32 blockRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getBlockByBlockRoot(blockRoot));
+    return runQuery(() -> queryDelegate.getBlockByBlockRoot(blockRoot));
   }
 
   @Override
   public SafeFuture<Optional<SignedBlockAndState>> getHotBlockAndStateByBlockRoot(
       final Bytes32 blockRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getHotBlockAndStateByBlockRoot(blockRoot));
+    return runQuery(() -> queryDelegate.getHotBlockAndStateByBlockRoot(blockRoot));
   }
 
   @Override
   public SafeFuture<Optional<StateAndBlockSummary>> getHotStateAndBlockSummaryByBlockRoot(
       final Bytes32 blockRoot) {
-    return asyncRunner.runAsync(
+    return runQuery(
         () -> queryDelegate.getHotStateAndBlockSummaryByBlockRoot(blockRoot));
   }
 
   @Override
   public SafeFuture<Map<Bytes32, SignedBeaconBlock>> getHotBlocksByRoot(
       final Set<Bytes32> blockRoots) {
-    return asyncRunner.runAsync(() -> queryDelegate.getHotBlocksByRoot(blockRoots));
+    return runQuery(() -> queryDelegate.getHotBlocksByRoot(blockRoots));
   }
 
   @Override
   public SafeFuture<Optional<SlotAndBlockRoot>> getSlotAndBlockRootByStateRoot(
       final Bytes32 stateRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getSlotAndBlockRootByStateRoot(stateRoot));
+    return runQuery(() -> queryDelegate.getSlotAndBlockRootByStateRoot(stateRoot));
   }
 
   @Override
   public SafeFuture<Optional<BeaconState>> getLatestFinalizedStateAtSlot(final UInt64 slot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getLatestFinalizedStateAtSlot(slot));
+    return runQuery(() -> queryDelegate.getLatestFinalizedStateAtSlot(slot));
   }
 
   @Override
   public SafeFuture<Optional<BeaconState>> getLatestAvailableFinalizedState(final UInt64 slot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getLatestAvailableFinalizedState(slot));
+    return runQuery(() -> queryDelegate.getLatestAvailableFinalizedState(slot));
   }
 
   @Override
   public SafeFuture<Optional<BeaconState>> getFinalizedStateByBlockRoot(final Bytes32 blockRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getFinalizedStateByBlockRoot(blockRoot));
+    return runQuery(() -> queryDelegate.getFinalizedStateByBlockRoot(blockRoot));
   }
 
   @Override
   public SafeFuture<Optional<UInt64>> getFinalizedSlotByStateRoot(final Bytes32 stateRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getFinalizedSlotByStateRoot(stateRoot));
+    return runQuery(() -> queryDelegate.getFinalizedSlotByStateRoot(stateRoot));
   }
 
   @Override
   public SafeFuture<List<SignedBeaconBlock>> getNonCanonicalBlocksBySlot(final UInt64 slot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getNonCanonicalBlocksBySlot(slot));
+    return runQuery(() -> queryDelegate.getNonCanonicalBlocksBySlot(slot));
   }
 
   @Override
   public SafeFuture<Optional<Checkpoint>> getAnchor() {
-    return asyncRunner.runAsync(queryDelegate::getAnchor);
+    return runQuery(queryDelegate::getAnchor);
   }
 
   @Override
   public SafeFuture<Optional<DepositTreeSnapshot>> getFinalizedDepositSnapshot() {
-    return asyncRunner.runAsync(queryDelegate::getFinalizedDepositSnapshot);
+    return runQuery(queryDelegate::getFinalizedDepositSnapshot);
   }
 
   @Override
   public SafeFuture<Optional<UInt64>> getEarliestAvailableBlobsSidecarSlot() {
-    return asyncRunner.runAsync(queryDelegate::getEarliestAvailableBlobsSidecarSlot);
+    return runQuery(queryDelegate::getEarliestAvailableBlobsSidecarSlot);
   }
 
   @Override
   public SafeFuture<Optional<BlobsSidecar>> getBlobsSidecar(
       final SlotAndBlockRoot slotAndBlockRoot) {
-    return asyncRunner.runAsync(() -> queryDelegate.getBlobsSidecar(slotAndBlockRoot));
+    return runQuery(() -> queryDelegate.getBlobsSidecar(slotAndBlockRoot));
+  }
+
+  private <T> SafeFuture<T> runQuery(final ExceptionThrowingFutureSupplier<T> query) {
+    return updatesApplied.get().thenCompose(__ -> asyncRunner.runAsync(query));
   }
 }
@@ -48,6 +48,12 @@ public interface Database extends AutoCloseable {
 
   UpdateResult update(StorageUpdate event);
 
+  /**
+   * Performs work for a later {@link #update(StorageUpdate)} call, such as serialization, which
+   * doesn't depend on the current database contents. May be called from any thread.
+   */
+  default void prepareUpdate(StorageUpdate event) {}
+
   void storeFinalizedBlocks(Collection<SignedBeaconBlock> blocks);
 
   void storeFinalizedState(BeaconState state, Bytes32 blockRoot);
@@ -213,4 +219,16 @@ public interface Database extends AutoCloseable {
   void setFinalizedDepositSnapshot(DepositTreeSnapshot finalizedDepositSnapshot);
 
   void pruneFinalizedBlocks(UInt64 lastSlotToPrune);
+
+  /**
+   * Moves older finalized state snapshots to the cold storage tier, keeping only the most recent
+   * snapshots in the hot tier. Does nothing unless state tiering is enabled.
+   */
+  void retierFinalizedStates();
+
+  /**
+   * Makes data written by the primary process visible when this database was opened as a read-only
+   * secondary instance. Does nothing for databases opened normally.
+   */
+  void catchUpWithPrimary();
 }
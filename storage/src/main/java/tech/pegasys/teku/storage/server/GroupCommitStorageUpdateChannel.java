@@ -0,0 +1,388 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import tech.pegasys.teku.ethereum.pow.api.DepositTreeSnapshot;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
+import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.infrastructure.async.eventthread.EventThread;
+import tech.pegasys.teku.infrastructure.metrics.MetricsHistogram;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.time.TimeProvider;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.BlockAndCheckpoints;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
+import tech.pegasys.teku.spec.datastructures.execution.versions.eip4844.BlobsSidecar;
+import tech.pegasys.teku.spec.datastructures.state.AnchorPoint;
+import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.storage.api.StorageUpdate;
+import tech.pegasys.teku.storage.api.StorageUpdateChannel;
+import tech.pegasys.teku.storage.api.UpdateResult;
+import tech.pegasys.teku.storage.api.WeakSubjectivityUpdate;
+
+/**
+ * Decouples storage writes from the thread delivering storage events.
+ *
+ * <p>Updates are queued and applied in order by a single write thread. While an update waits in
+ * the queue, its blocks and states are serialized on a separate pool via {@code updatePreparer}.
+ * Consecutive updates which only touch hot data are merged and written in a single transaction, so
+ * a burst of block imports costs one commit rather than one per block. Each returned future
+ * completes only once the transaction containing its update has been committed.
+ *
+ * <p>Updates which finalize a new checkpoint and all other event types are never merged. They act
+ * as barriers, applied on their own after everything queued before them, because finalization
+ * reads hot data back from the database.
+ *
+ * <p>The queue is bounded. When it is full, callers block until the write thread catches up.
+ */
+public class GroupCommitStorageUpdateChannel implements StorageUpdateChannel {
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 64;
+  public static final int DEFAULT_MAX_GROUP_SIZE = 16;
+
+  private final StorageUpdateChannel delegate;
+  private final Consumer<StorageUpdate> updatePreparer;
+  private final AsyncRunner preparationRunner;
+  private final EventThread writeThread;
+  private final TimeProvider timeProvider;
+  private final int maxGroupSize;
+  private final BlockingQueue<PendingWrite<?>> queue;
+  private final MetricsHistogram groupSizeHistogram;
+  private final MetricsHistogram commitTimeHistogram;
+
+  private boolean processingScheduled = false;
+  private volatile SafeFuture<?> lastQueuedWrite = SafeFuture.COMPLETE;
+
+  public GroupCommitStorageUpdateChannel(
+      final StorageUpdateChannel delegate,
+      final Consumer<StorageUpdate> updatePreparer,
+      final AsyncRunner preparationRunner,
+      final EventThread writeThread,
+      final MetricsSystem metricsSystem,
+      final TimeProvider timeProvider) {
+    this(
+        delegate,
+        updatePreparer,
+        preparationRunner,
+        writeThread,
+        metricsSystem,
+        timeProvider,
+        DEFAULT_MAX_QUEUE_SIZE,
+        DEFAULT_MAX_GROUP_SIZE);
+  }
+
+  @VisibleForTesting
+  GroupCommitStorageUpdateChannel(
+      final StorageUpdateChannel delegate,
+      final Consumer<StorageUpdate> updatePreparer,
+      final AsyncRunner preparationRunner,
+      final EventThread writeThread,
+      final MetricsSystem metricsSystem,
+      final TimeProvider timeProvider,
+      final int maxQueueSize,
+      final int maxGroupSize) {
+    checkArgument(maxGroupSize > 0, "Max group size must be positive");
+    this.delegate = delegate;
+    this.updatePreparer = updatePreparer;
+    this.preparationRunner = preparationRunner;
+    this.writeThread = writeThread;
+    this.timeProvider = timeProvider;
+    this.maxGroupSize = maxGroupSize;
+    this.queue = new ArrayBlockingQueue<>(maxQueueSize);
+
+    metricsSystem.createIntegerGauge(
+        TekuMetricCategory.STORAGE,
+        "write_queue_size",
+        "Number of storage writes waiting to be applied",
+        queue::size);
+    groupSizeHistogram =
+        MetricsHistogram.create(
+            TekuMetricCategory.STORAGE,
+            metricsSystem,
+            "write_group_size",
+            "Number of storage updates combined into a single database commit",
+            2,
+            List.of());
+    commitTimeHistogram =
+        MetricsHistogram.create(
+            TekuMetricCategory.STORAGE,
+            metricsSystem,
+            "write_commit_time",
+            "Time taken to apply a group of storage updates in milliseconds",
+            3,
+            List.of());
+  }
+
+  @Override
+  public SafeFuture<UpdateResult> onStorageUpdate(final StorageUpdate event) {
+    final SafeFuture<Void> prepared =
+        preparationRunner.runAsync(() -> updatePreparer.accept(event));
+    return enqueue(new PendingUpdate(event, prepared));
+  }
+
+  @Override
+  public SafeFuture<Void> onFinalizedBlocks(final Collection<SignedBeaconBlock> finalizedBlocks) {
+    return enqueueBarrier(() -> delegate.onFinalizedBlocks(finalizedBlocks));
+  }
+
+  @Override
+  public SafeFuture<Void> onFinalizedState(
+      final BeaconState finalizedState, final Bytes32 blockRoot) {
+    return enqueueBarrier(() -> delegate.onFinalizedState(finalizedState, blockRoot));
+  }
+
+  @Override
+  public SafeFuture<Void> onReconstructedFinalizedState(
+      final BeaconState finalizedState, final Bytes32 blockRoot) {
+    return enqueueBarrier(() -> delegate.onReconstructedFinalizedState(finalizedState, blockRoot));
+  }
+
+  @Override
+  public SafeFuture<Void> onWeakSubjectivityUpdate(
+      final WeakSubjectivityUpdate weakSubjectivityUpdate) {
+    return enqueueBarrier(() -> delegate.onWeakSubjectivityUpdate(weakSubjectivityUpdate));
+  }
+
+  @Override
+  public SafeFuture<Void> onFinalizedDepositSnapshot(
+      final DepositTreeSnapshot depositTreeSnapshot) {
+    return enqueueBarrier(() -> delegate.onFinalizedDepositSnapshot(depositTreeSnapshot));
+  }
+
+  @Override
+  public void onChainInitialized(final AnchorPoint initialAnchor) {
+    enqueueBarrier(
+            () -> {
+              delegate.onChainInitialized(initialAnchor);
+              return SafeFuture.COMPLETE;
+            })
+        .join();
+  }
+
+  @Override
+  public SafeFuture<Void> onBlobsSidecar(final BlobsSidecar blobsSidecar) {
+    return enqueueBarrier(() -> delegate.onBlobsSidecar(blobsSidecar));
+  }
+
+  @Override
+  public SafeFuture<Void> onBlobsSidecarRemoval(final SlotAndBlockRoot blobsSidecarKey) {
+    return enqueueBarrier(() -> delegate.onBlobsSidecarRemoval(blobsSidecarKey));
+  }
+
+  /**
+   * Returns a future which completes once every write queued before this call has been applied,
+   * successfully or not. Used to ensure queries observe the updates sent before them.
+   */
+  public SafeFuture<Void> awaitQueuedWrites() {
+    return lastQueuedWrite.handle((__, error) -> null);
+  }
+
+  /** Waits for all queued writes to be applied */
+  public void awaitCompletion() {
+    awaitQueuedWrites().join();
+    writeThread.executeFuture(() -> SafeFuture.COMPLETE).join();
+  }
+
+  private <T> SafeFuture<T> enqueueBarrier(final Supplier<SafeFuture<T>> write) {
+    return enqueue(new PendingBarrier<>(write));
+  }
+
+  private <T> SafeFuture<T> enqueue(final PendingWrite<T> write) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        queue.put(write);
+        break;
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      lastQueuedWrite = write.result;
+      if (!processingScheduled) {
+        processingScheduled = true;
+        writeThread.execute(this::processQueue);
+      }
+    }
+    return write.result;
+  }
+
+  private void processQueue() {
+    writeThread.checkOnEventThread();
+    while (true) {
+      final PendingWrite<?> next;
+      synchronized (this) {
+        next = queue.poll();
+        if (next == null) {
+          processingScheduled = false;
+          return;
+        }
+      }
+      if (next instanceof PendingUpdate) {
+        applyGroup(collectGroup((PendingUpdate) next));
+      } else {
+        ((PendingBarrier<?>) next).apply();
+      }
+    }
+  }
+
+  private List<PendingUpdate> collectGroup(final PendingUpdate first) {
+    final List<PendingUpdate> group = new ArrayList<>();
+    group.add(first);
+    if (!isGroupable(first.update)) {
+      return group;
+    }
+    while (group.size() < maxGroupSize) {
+      final PendingWrite<?> next = queue.peek();
+      if (!(next instanceof PendingUpdate) || !canJoin(group, ((PendingUpdate) next).update)) {
+        break;
+      }
+      group.add((PendingUpdate) queue.poll());
+    }
+    return group;
+  }
+
+  private static boolean isGroupable(final StorageUpdate update) {
+    return update.getGenesisTime().isEmpty()
+        && update.getFinalizedCheckpoint().isEmpty()
+        && !update.isFinalizedOptimisticTransitionBlockRootSet();
+  }
+
+  private static boolean canJoin(final List<PendingUpdate> group, final StorageUpdate candidate) {
+    if (!isGroupable(candidate)
+        || candidate.isBlobsSidecarEnabled() != group.get(0).update.isBlobsSidecarEnabled()) {
+      return false;
+    }
+    // Avoid relying on the order puts and deletes are applied within a single transaction
+    for (PendingUpdate pending : group) {
+      final StorageUpdate member = pending.update;
+      final Set<Bytes32> candidateDeletes = candidate.getDeletedHotBlocks().keySet();
+      final Set<Bytes32> memberDeletes = member.getDeletedHotBlocks().keySet();
+      if (!Collections.disjoint(candidateDeletes, member.getHotBlocks().keySet())
+          || !Collections.disjoint(candidateDeletes, member.getHotStates().keySet())
+          || !Collections.disjoint(candidate.getHotBlocks().keySet(), memberDeletes)
+          || !Collections.disjoint(candidate.getHotStates().keySet(), memberDeletes)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void applyGroup(final List<PendingUpdate> group) {
+    // Serialization failures are ignored here, the write serializes those values itself
+    group.forEach(pending -> pending.prepared.handle((__, error) -> null).join());
+    final StorageUpdate update = group.size() == 1 ? group.get(0).update : merge(group);
+    final UInt64 startTime = timeProvider.getTimeInMillis();
+    final SafeFuture<UpdateResult> result = applyWrite(() -> delegate.onStorageUpdate(update));
+    commitTimeHistogram.recordValue(
+        timeProvider.getTimeInMillis().minusMinZero(startTime).longValue());
+    groupSizeHistogram.recordValue(group.size());
+    for (PendingUpdate pending : group) {
+      result.propagateTo(pending.result);
+    }
+  }
+
+  private static <T> SafeFuture<T> applyWrite(final Supplier<SafeFuture<T>> write) {
+    SafeFuture<T> result;
+    try {
+      result = write.get();
+    } catch (final Throwable t) {
+      result = SafeFuture.failedFuture(t);
+    }
+    // Writes must be applied one at a time so wait for completion before moving on
+    result.handle((__, error) -> null).join();
+    return result;
+  }
+
+  private static StorageUpdate merge(final List<PendingUpdate> group) {
+    Optional<Checkpoint> justifiedCheckpoint = Optional.empty();
+    Optional<Checkpoint> bestJustifiedCheckpoint = Optional.empty();
+    final Map<Bytes32, BlockAndCheckpoints> hotBlocks = new HashMap<>();
+    final Map<Bytes32, BeaconState> hotStates = new HashMap<>();
+    final Map<Bytes32, UInt64> deletedHotBlocks = new HashMap<>();
+    final Map<Bytes32, SlotAndBlockRoot> stateRoots = new HashMap<>();
+    for (PendingUpdate pending : group) {
+      final StorageUpdate update = pending.update;
+      if (update.getJustifiedCheckpoint().isPresent()) {
+        justifiedCheckpoint = update.getJustifiedCheckpoint();
+      }
+      if (update.getBestJustifiedCheckpoint().isPresent()) {
+        bestJustifiedCheckpoint = update.getBestJustifiedCheckpoint();
+      }
+      hotBlocks.putAll(update.getHotBlocks());
+      hotStates.putAll(update.getHotStates());
+      deletedHotBlocks.putAll(update.getDeletedHotBlocks());
+      stateRoots.putAll(update.getStateRoots());
+    }
+    return new StorageUpdate(
+        Optional.empty(),
+        Optional.empty(),
+        justifiedCheckpoint,
+        bestJustifiedCheckpoint,
+        hotBlocks,
+        hotStates,
+        deletedHotBlocks,
+        stateRoots,
+        false,
+        Optional.empty(),
+        group.get(0).update.isBlobsSidecarEnabled());
+  }
+
+  private abstract static class PendingWrite<T> {
+    protected final SafeFuture<T> result = new SafeFuture<>();
+  }
+
+  private static class PendingUpdate extends PendingWrite<UpdateResult> {
+    private final StorageUpdate update;
+    private final SafeFuture<Void> prepared;
+
+    private PendingUpdate(final StorageUpdate update, final SafeFuture<Void> prepared) {
+      this.update = update;
+      this.prepared = prepared;
+    }
+  }
+
+  private static class PendingBarrier<T> extends PendingWrite<T> {
+    private final Supplier<SafeFuture<T>> write;
+
+    private PendingBarrier(final Supplier<SafeFuture<T>> write) {
+      this.write = write;
+    }
+
+    private void apply() {
+      applyWrite(write).propagateTo(result);
+    }
+  }
+}
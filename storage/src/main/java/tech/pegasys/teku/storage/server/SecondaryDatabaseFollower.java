@@ -0,0 +1,69 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
+import tech.pegasys.teku.infrastructure.async.Cancellable;
+import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.service.serviceutils.Service;
+
+/** Periodically catches a read-only secondary database up with writes made by the primary. */
+public class SecondaryDatabaseFollower extends Service {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Database database;
+  private final AsyncRunner asyncRunner;
+  private final Duration catchUpInterval;
+
+  private Optional<Cancellable> scheduledCatchUp = Optional.empty();
+
+  public SecondaryDatabaseFollower(
+      final Database database, final AsyncRunner asyncRunner, final Duration catchUpInterval) {
+    this.database = database;
+    this.asyncRunner = asyncRunner;
+    this.catchUpInterval = catchUpInterval;
+  }
+
+  @Override
+  protected synchronized SafeFuture<?> doStart() {
+    scheduledCatchUp =
+        Optional.of(
+            asyncRunner.runWithFixedDelay(
+                this::catchUp,
+                catchUpInterval,
+                catchUpInterval,
+                error -> LOG.error("Failed to catch up with primary database", error)));
+    return SafeFuture.COMPLETE;
+  }
+
+  @Override
+  protected synchronized SafeFuture<?> doStop() {
+    scheduledCatchUp.ifPresent(Cancellable::cancel);
+    return SafeFuture.COMPLETE;
+  }
+
+  private void catchUp() {
+    LOG.trace("Catching up with primary database");
+    try {
+      database.catchUpWithPrimary();
+    } catch (ShuttingDownException | RejectedExecutionException ex) {
+      LOG.debug("Shutting down", ex);
+    }
+  }
+}
@@ -13,7 +13,10 @@
 
 package tech.pegasys.teku.storage.server;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import tech.pegasys.teku.ethereum.execution.types.Eth1Address;
 import tech.pegasys.teku.infrastructure.exceptions.InvalidConfigurationException;
 import tech.pegasys.teku.spec.Spec;
@@ -21,12 +24,18 @@ import tech.pegasys.teku.spec.Spec;
 public class StorageConfiguration {
 
   public static final boolean DEFAULT_STORE_NON_CANONICAL_BLOCKS_ENABLED = false;
+  public static final boolean DEFAULT_BLOCK_ARCHIVE_ENABLED = false;
+  public static final boolean DEFAULT_GROUP_COMMIT_ENABLED = true;
+  public static final boolean DEFAULT_STATE_TIERING_ENABLED = false;
 
   public static final long DEFAULT_STORAGE_FREQUENCY = 2048L;
   public static final int DEFAULT_MAX_KNOWN_NODE_CACHE_SIZE = 100_000;
   public static final Duration DEFAULT_BLOCK_PRUNING_INTERVAL = Duration.ofHours(1);
   public static final Duration DEFAULT_BLOBS_PRUNING_INTERVAL = Duration.ofMinutes(1);
   public static final int DEFAULT_BLOBS_PRUNING_LIMIT = 32;
+  public static final Duration DEFAULT_STATE_RETIERING_INTERVAL = Duration.ofHours(1);
+  public static final Duration DEFAULT_SECONDARY_CATCH_UP_INTERVAL = Duration.ofSeconds(12);
+  public static final List<String> DEFAULT_HOT_LOG_COLUMNS = List.of();
 
   private final Eth1Address eth1DepositContract;
 
@@ -39,6 +48,12 @@ public class StorageConfiguration {
   private final Duration blockPruningInterval;
   private final Duration blobsPruningInterval;
   private final int blobsPruningLimit;
+  private final boolean blockArchiveEnabled;
+  private final boolean groupCommitEnabled;
+  private final boolean stateTieringEnabled;
+  private final Optional<Path> primaryBeaconDataPath;
+  private final Duration secondaryCatchUpInterval;
+  private final List<String> hotLogColumns;
 
   private StorageConfiguration(
       final Eth1Address eth1DepositContract,
@@ -50,6 +65,12 @@ public class StorageConfiguration {
       final Duration blockPruningInterval,
       final Duration blobsPruningInterval,
       final int blobsPruningLimit,
+      final boolean blockArchiveEnabled,
+      final boolean groupCommitEnabled,
+      final boolean stateTieringEnabled,
+      final Optional<Path> primaryBeaconDataPath,
+      final Duration secondaryCatchUpInterval,
+      final List<String> hotLogColumns,
       final Spec spec) {
     this.eth1DepositContract = eth1DepositContract;
     this.dataStorageMode = dataStorageMode;
@@ -60,6 +81,12 @@ public class StorageConfiguration {
     this.blockPruningInterval = blockPruningInterval;
     this.blobsPruningInterval = blobsPruningInterval;
     this.blobsPruningLimit = blobsPruningLimit;
+    this.blockArchiveEnabled = blockArchiveEnabled;
+    this.groupCommitEnabled = groupCommitEnabled;
+    this.stateTieringEnabled = stateTieringEnabled;
+    this.primaryBeaconDataPath = primaryBeaconDataPath;
+    this.secondaryCatchUpInterval = secondaryCatchUpInterval;
+    this.hotLogColumns = hotLogColumns;
     this.spec = spec;
   }
 
@@ -103,6 +130,39 @@ public class StorageConfiguration {
     return blobsPruningLimit;
   }
 
+  public boolean isBlockArchiveEnabled() {
+    return blockArchiveEnabled;
+  }
+
+  public boolean isGroupCommitEnabled() {
+    return groupCommitEnabled;
+  }
+
+  public boolean isStateTieringEnabled() {
+    return stateTieringEnabled;
+  }
+
+  /**
+   * The beacon data path of the node that owns the database, when this node opens it as a
+   * read-only secondary instance.
+   */
+  public Optional<Path> getPrimaryBeaconDataPath() {
+    return primaryBeaconDataPath;
+  }
+
+  public boolean isSecondary() {
+    return primaryBeaconDataPath.isPresent();
+  }
+
+  public Duration getSecondaryCatchUpInterval() {
+    return secondaryCatchUpInterval;
+  }
+
+  /** Names of hot database columns to store in the hot log instead of the database */
+  public List<String> getHotLogColumns() {
+    return hotLogColumns;
+  }
+
   public Spec getSpec() {
     return spec;
   }
@@ -119,6 +179,12 @@ public class StorageConfiguration {
     private Duration blockPruningInterval = DEFAULT_BLOCK_PRUNING_INTERVAL;
     private Duration blobsPruningInterval = DEFAULT_BLOBS_PRUNING_INTERVAL;
     private int blobsPruningLimit = DEFAULT_BLOBS_PRUNING_LIMIT;
+    private boolean blockArchiveEnabled = DEFAULT_BLOCK_ARCHIVE_ENABLED;
+    private boolean groupCommitEnabled = DEFAULT_GROUP_COMMIT_ENABLED;
+    private boolean stateTieringEnabled = DEFAULT_STATE_TIERING_ENABLED;
+    private Optional<Path> primaryBeaconDataPath = Optional.empty();
+    private Duration secondaryCatchUpInterval = DEFAULT_SECONDARY_CATCH_UP_INTERVAL;
+    private List<String> hotLogColumns = DEFAULT_HOT_LOG_COLUMNS;
 
     private Builder() {}
 
@@ -197,6 +263,39 @@ public class StorageConfiguration {
       return this;
     }
 
+    public Builder blockArchiveEnabled(final boolean blockArchiveEnabled) {
+      this.blockArchiveEnabled = blockArchiveEnabled;
+      return this;
+    }
+
+    public Builder groupCommitEnabled(final boolean groupCommitEnabled) {
+      this.groupCommitEnabled = groupCommitEnabled;
+      return this;
+    }
+
+    public Builder stateTieringEnabled(final boolean stateTieringEnabled) {
+      this.stateTieringEnabled = stateTieringEnabled;
+      return this;
+    }
+
+    public Builder primaryBeaconDataPath(final Optional<Path> primaryBeaconDataPath) {
+      this.primaryBeaconDataPath = primaryBeaconDataPath;
+      return this;
+    }
+
+    public Builder secondaryCatchUpInterval(final Duration secondaryCatchUpInterval) {
+      if (secondaryCatchUpInterval.isNegative() || secondaryCatchUpInterval.isZero()) {
+        throw new InvalidConfigurationException("Secondary catch up interval must be positive");
+      }
+      this.secondaryCatchUpInterval = secondaryCatchUpInterval;
+      return this;
+    }
+
+    public Builder hotLogColumns(final List<String> hotLogColumns) {
+      this.hotLogColumns = List.copyOf(hotLogColumns);
+      return this;
+    }
+
     public StorageConfiguration build() {
       return new StorageConfiguration(
           eth1DepositContract,
@@ -208,6 +307,12 @@ public class StorageConfiguration {
           blockPruningInterval,
           blobsPruningInterval,
           blobsPruningLimit,
+          blockArchiveEnabled,
+          groupCommitEnabled,
+          stateTieringEnabled,
+          primaryBeaconDataPath,
+          secondaryCatchUpInterval,
+          hotLogColumns,
           spec);
     }
   }
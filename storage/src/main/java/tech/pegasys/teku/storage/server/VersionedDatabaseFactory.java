@@ -19,11 +19,16 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import tech.pegasys.teku.ethereum.execution.types.Eth1Address;
 import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.storage.server.blockarchive.BlockArchive;
+import tech.pegasys.teku.storage.server.hotlog.HotLogConfiguration;
+import tech.pegasys.teku.storage.server.hotlog.HotLogKvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
 import tech.pegasys.teku.storage.server.leveldb.LevelDbDatabaseFactory;
@@ -38,6 +43,8 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
 
   @VisibleForTesting static final String DB_PATH = "db";
   @VisibleForTesting static final String ARCHIVE_PATH = "archive";
+  @VisibleForTesting static final String BLOCK_ARCHIVE_PATH = "block-archive";
+  @VisibleForTesting static final String HOT_LOG_PATH = "hot-log";
   @VisibleForTesting static final String DB_VERSION_PATH = "db.version";
   @VisibleForTesting static final String METADATA_FILENAME = "metadata.yml";
   @VisibleForTesting static final String NETWORK_FILENAME = "network.yml";
@@ -47,13 +54,19 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
   private final int maxKnownNodeCacheSize;
   private final File dbDirectory;
   private final File v5ArchiveDirectory;
+  private final File blockArchiveDirectory;
+  private final File hotLogDirectory;
   private final File dbVersionFile;
   private final StateStorageMode stateStorageMode;
   private final DatabaseVersion createDatabaseVersion;
   private final long stateStorageFrequency;
+  private final boolean stateTieringEnabled;
   private final Eth1Address eth1Address;
   private final Spec spec;
   private final boolean storeNonCanonicalBlocks;
+  private final boolean blockArchiveEnabled;
+  private final List<String> hotLogColumns;
+  private final Optional<File> primaryDataDirectory;
 
   public VersionedDatabaseFactory(
       final MetricsSystem metricsSystem, final Path dataPath, final StorageConfiguration config) {
@@ -65,18 +78,27 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
     this.createDatabaseVersion = config.getDataStorageCreateDbVersion();
     this.maxKnownNodeCacheSize = config.getMaxKnownNodeCacheSize();
     this.stateStorageFrequency = config.getDataStorageFrequency();
+    this.stateTieringEnabled = config.isStateTieringEnabled();
     this.eth1Address = config.getEth1DepositContract();
     this.storeNonCanonicalBlocks = config.isStoreNonCanonicalBlocksEnabled();
+    this.blockArchiveEnabled = config.isBlockArchiveEnabled();
+    this.hotLogColumns = config.getHotLogColumns();
+    this.primaryDataDirectory = config.getPrimaryBeaconDataPath().map(Path::toFile);
     this.spec = config.getSpec();
 
     this.dbDirectory = this.dataDirectory.toPath().resolve(DB_PATH).toFile();
     this.v5ArchiveDirectory = this.dataDirectory.toPath().resolve(ARCHIVE_PATH).toFile();
+    this.blockArchiveDirectory = this.dataDirectory.toPath().resolve(BLOCK_ARCHIVE_PATH).toFile();
+    this.hotLogDirectory = this.dataDirectory.toPath().resolve(HOT_LOG_PATH).toFile();
     this.dbVersionFile = this.dataDirectory.toPath().resolve(DB_VERSION_PATH).toFile();
   }
 
   @Override
   public Database createDatabase() {
     LOG.info("Beacon data directory set to: {}", dataDirectory.getAbsolutePath());
+    if (primaryDataDirectory.isPresent()) {
+      return createSecondaryDatabase(primaryDataDirectory.get());
+    }
     validateDataPaths();
     final DatabaseVersion dbVersion = getDatabaseVersion();
     createDirectories(dbVersion);
@@ -201,7 +223,10 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
           schema,
           stateStorageMode,
           stateStorageFrequency,
+          stateTieringEnabled,
           storeNonCanonicalBlocks,
+          getBlockArchiveDirectory(),
+          getHotLogConfiguration(),
           spec);
     } catch (final IOException e) {
       throw DatabaseStorageException.unrecoverable("Failed to read metadata", e);
@@ -241,7 +266,10 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
           dbConfiguration.withDatabaseDir(dbDirectory.toPath()),
           stateStorageMode,
           stateStorageFrequency,
+          stateTieringEnabled,
           storeNonCanonicalBlocks,
+          getBlockArchiveDirectory(),
+          getHotLogConfiguration(),
           spec);
     } catch (final IOException e) {
       throw DatabaseStorageException.unrecoverable("Failed to read metadata", e);
@@ -258,12 +286,143 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
           stateStorageMode,
           storeNonCanonicalBlocks,
           maxKnownNodeCacheSize,
+          getBlockArchiveDirectory(),
+          getHotLogConfiguration(),
           spec);
     } catch (final IOException e) {
       throw DatabaseStorageException.unrecoverable("Failed to read metadata", e);
     }
   }
 
+  /**
+   * Opens the database owned by another node as a read-only secondary instance. The secondary
+   * instance keeps its own files under this node's data directory, using the same layout as the
+   * primary. Only RocksDB databases support secondary instances and finalized blocks must be stored
+   * in the database rather than the block archive.
+   *
+   * @param primaryDirectory the beacon data directory of the node that owns the database
+   * @return the read-only database
+   */
+  private Database createSecondaryDatabase(final File primaryDirectory) {
+    final File primaryVersionFile = primaryDirectory.toPath().resolve(DB_VERSION_PATH).toFile();
+    if (!primaryVersionFile.exists()) {
+      throw DatabaseStorageException.unrecoverable(
+          String.format(
+              "No database version file was found in primary data path %s",
+              primaryDirectory.getAbsolutePath()));
+    }
+    if (BlockArchive.exists(primaryDirectory.toPath().resolve(BLOCK_ARCHIVE_PATH))) {
+      throw DatabaseStorageException.unrecoverable(
+          "Read-only secondary databases do not support finalized blocks in the block archive");
+    }
+    if (HotLogKvStoreAccessor.exists(primaryDirectory.toPath().resolve(HOT_LOG_PATH))) {
+      throw DatabaseStorageException.unrecoverable(
+          "Read-only secondary databases do not support hot columns stored in the hot log");
+    }
+    final DatabaseVersion dbVersion = readDatabaseVersion(primaryVersionFile);
+    createDirectories(dbVersion);
+
+    final Path primaryDbDirectory = primaryDirectory.toPath().resolve(DB_PATH);
+    final Path primaryArchiveDirectory = primaryDirectory.toPath().resolve(ARCHIVE_PATH);
+    final File primaryMetadataFile = primaryDirectory.toPath().resolve(METADATA_FILENAME).toFile();
+    final Database database;
+    try {
+      switch (dbVersion) {
+        case V4:
+          database =
+              RocksDbDatabaseFactory.createV4(
+                  metricsSystem,
+                  KvStoreConfiguration.v4Settings(primaryDbDirectory)
+                      .withSecondaryDir(dbDirectory.toPath()),
+                  KvStoreConfiguration.v4Settings(primaryArchiveDirectory)
+                      .withSecondaryDir(v5ArchiveDirectory.toPath()),
+                  stateStorageMode,
+                  stateStorageFrequency,
+                  storeNonCanonicalBlocks,
+                  spec);
+          break;
+        case V5:
+          final V5DatabaseMetadata v5MetaData =
+              V5DatabaseMetadata.init(primaryMetadataFile, V5DatabaseMetadata.v5Defaults());
+          database =
+              RocksDbDatabaseFactory.createV4(
+                  metricsSystem,
+                  v5MetaData
+                      .getHotDbConfiguration()
+                      .withDatabaseDir(primaryDbDirectory)
+                      .withSecondaryDir(dbDirectory.toPath()),
+                  v5MetaData
+                      .getArchiveDbConfiguration()
+                      .withDatabaseDir(primaryArchiveDirectory)
+                      .withSecondaryDir(v5ArchiveDirectory.toPath()),
+                  stateStorageMode,
+                  stateStorageFrequency,
+                  storeNonCanonicalBlocks,
+                  spec);
+          break;
+        case V6:
+          final V6DatabaseMetadata v6MetaData =
+              V6DatabaseMetadata.init(primaryMetadataFile, V6DatabaseMetadata.singleDBDefault());
+          database =
+              RocksDbDatabaseFactory.createV6(
+                  metricsSystem,
+                  v6MetaData
+                      .getSingleDbConfiguration()
+                      .getConfiguration()
+                      .withDatabaseDir(primaryDbDirectory)
+                      .withSecondaryDir(dbDirectory.toPath()),
+                  V6SchemaCombinedSnapshot.createV6(spec),
+                  stateStorageMode,
+                  stateStorageFrequency,
+                  stateTieringEnabled,
+                  storeNonCanonicalBlocks,
+                  Optional.empty(),
+                  Optional.empty(),
+                  spec);
+          break;
+        default:
+          throw DatabaseStorageException.unrecoverable(
+              "Database version "
+                  + dbVersion.getValue()
+                  + " does not support read-only secondary instances");
+      }
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to read metadata", e);
+    }
+    LOG.info(
+        "Opened database ({}) at {} as a read-only secondary instance",
+        dbVersion.getValue(),
+        primaryDirectory.getAbsolutePath());
+    return database;
+  }
+
+  /**
+   * Only databases combining hot and finalized data support storing finalized blocks in the block
+   * archive.
+   *
+   * @return the block archive directory if enabled
+   */
+  private Optional<Path> getBlockArchiveDirectory() {
+    if (!blockArchiveEnabled) {
+      return Optional.empty();
+    }
+    LOG.info("Finalized blocks stored in block archive at {}", blockArchiveDirectory);
+    return Optional.of(blockArchiveDirectory.toPath());
+  }
+
+  /**
+   * An existing hot log is always opened, even if no columns are selected, so that any entries it
+   * holds are moved back to the main database.
+   *
+   * @return the hot log configuration if hot columns are, or have been, stored in the hot log
+   */
+  private Optional<HotLogConfiguration> getHotLogConfiguration() {
+    if (hotLogColumns.isEmpty() && !HotLogKvStoreAccessor.exists(hotLogDirectory.toPath())) {
+      return Optional.empty();
+    }
+    return Optional.of(new HotLogConfiguration(hotLogDirectory.toPath(), hotLogColumns));
+  }
+
   private KvStoreConfiguration initV6Configuration() throws IOException {
     final V6DatabaseMetadata metaData =
         V6DatabaseMetadata.init(getMetadataFile(), V6DatabaseMetadata.singleDBDefault());
@@ -289,6 +448,13 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
               "No database version file was found, and the database path %s exists.",
               dataDirectory.getAbsolutePath()));
     }
+    if (!blockArchiveEnabled && BlockArchive.exists(blockArchiveDirectory.toPath())) {
+      throw DatabaseStorageException.unrecoverable(
+          String.format(
+              "Finalized blocks are stored in the block archive at %s but the block archive is"
+                  + " not enabled.",
+              blockArchiveDirectory.getAbsolutePath()));
+    }
   }
 
   private void createDirectories(DatabaseVersion dbVersion) {
@@ -309,6 +475,18 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
                   "Unable to create the path to store archive files at %s",
                   v5ArchiveDirectory.getAbsolutePath()));
         }
+        if (blockArchiveEnabled) {
+          LOG.warn(
+              "Block archive is not supported by database version {}, finalized blocks will be"
+                  + " stored in the database",
+              dbVersion.getValue());
+        }
+        if (!hotLogColumns.isEmpty()) {
+          LOG.warn(
+              "Hot log is not supported by database version {}, hot columns will be stored in the"
+                  + " database",
+              dbVersion.getValue());
+        }
         break;
       default:
         // do nothing
@@ -318,23 +496,27 @@ public class VersionedDatabaseFactory implements DatabaseFactory {
   @VisibleForTesting
   DatabaseVersion getDatabaseVersion() {
     if (dbVersionFile.exists()) {
-      try {
-        final String versionValue = Files.readString(dbVersionFile.toPath()).trim();
-        return DatabaseVersion.fromString(versionValue)
-            .orElseThrow(
-                () ->
-                    DatabaseStorageException.unrecoverable(
-                        "Unrecognized database version: " + versionValue));
-      } catch (IOException e) {
-        throw DatabaseStorageException.unrecoverable(
-            String.format(
-                "Unable to read database version from file %s", dbVersionFile.getAbsolutePath()),
-            e);
-      }
+      return readDatabaseVersion(dbVersionFile);
     }
     return this.createDatabaseVersion;
   }
 
+  private static DatabaseVersion readDatabaseVersion(final File versionFile) {
+    try {
+      final String versionValue = Files.readString(versionFile.toPath()).trim();
+      return DatabaseVersion.fromString(versionValue)
+          .orElseThrow(
+              () ->
+                  DatabaseStorageException.unrecoverable(
+                      "Unrecognized database version: " + versionValue));
+    } catch (IOException e) {
+      throw DatabaseStorageException.unrecoverable(
+          String.format(
+              "Unable to read database version from file %s", versionFile.getAbsolutePath()),
+          e);
+    }
+  }
+
   private void saveDatabaseVersion(final DatabaseVersion version) {
     if (!dbVersionFile.exists()) {
       try {
@@ -0,0 +1,350 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.blockarchive;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+
+/**
+ * Append-only storage for immutable, slot indexed data such as finalized blocks.
+ *
+ * <p>Slots are grouped into fixed size segments, each backed by an append-only data file and a
+ * compact slot to offset index (see {@link BlockArchiveSegment}). Unlike a LSM based key value
+ * store, data is written exactly once and is never rewritten by compaction. Pruning clears index
+ * entries and deletes whole segments once they are empty.
+ *
+ * <p>Reads may run concurrently with each other and with the data append phase of a commit.
+ * Commits are serialized.
+ */
+public class BlockArchive implements AutoCloseable {
+  private static final Logger LOG = LogManager.getLogger();
+
+  // 256 epochs on mainnet
+  public static final int DEFAULT_SLOTS_PER_SEGMENT = 8192;
+  private static final UInt64 MAX_SLOT = UInt64.valueOf(Long.MAX_VALUE);
+
+  private final Path directory;
+  private final int slotsPerSegment;
+  private final NavigableMap<Long, BlockArchiveSegment> segments = new TreeMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean closed = false;
+
+  private BlockArchive(final Path directory, final int slotsPerSegment) {
+    this.directory = directory;
+    this.slotsPerSegment = slotsPerSegment;
+  }
+
+  public static BlockArchive open(final Path directory) {
+    return open(directory, DEFAULT_SLOTS_PER_SEGMENT);
+  }
+
+  public static BlockArchive open(final Path directory, final int slotsPerSegment) {
+    checkArgument(slotsPerSegment > 0, "Slots per segment must be positive");
+    final BlockArchive archive = new BlockArchive(directory, slotsPerSegment);
+    try {
+      Files.createDirectories(directory);
+      try (final Stream<Path> files = Files.list(directory)) {
+        files
+            .map(file -> file.getFileName().toString())
+            .filter(name -> name.endsWith(BlockArchiveSegment.INDEX_FILE_SUFFIX))
+            .map(
+                name ->
+                    Long.parseLong(
+                        name.substring(
+                            0, name.length() - BlockArchiveSegment.INDEX_FILE_SUFFIX.length())))
+            .forEach(
+                segmentIndex ->
+                    archive.segments.put(
+                        segmentIndex,
+                        BlockArchiveSegment.open(directory, segmentIndex, slotsPerSegment)));
+      }
+    } catch (final IOException | NumberFormatException e) {
+      archive.close();
+      throw DatabaseStorageException.unrecoverable(
+          "Failed to open block archive at " + directory, e);
+    }
+    LOG.debug("Opened block archive at {} with {} segments", directory, archive.segments.size());
+    return archive;
+  }
+
+  /** Returns true if the directory contains archived data */
+  public static boolean exists(final Path directory) {
+    if (!Files.isDirectory(directory)) {
+      return false;
+    }
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files.anyMatch(
+          file -> file.getFileName().toString().endsWith(BlockArchiveSegment.INDEX_FILE_SUFFIX));
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable(
+          "Failed to read block archive at " + directory, e);
+    }
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public Optional<Bytes> get(final UInt64 slot) {
+    lock.readLock().lock();
+    try {
+      return getSegment(slot.longValue()).flatMap(segment -> segment.get(slot.longValue()));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<Map.Entry<UInt64, Bytes>> getFirstEntry() {
+    return getCeilingEntry(0);
+  }
+
+  /** Returns the entry with the greatest slot less than or equal to {@code slot} */
+  public Optional<Map.Entry<UInt64, Bytes>> getFloorEntry(final UInt64 slot) {
+    lock.readLock().lock();
+    try {
+      final long maxSlot = toLongSlot(slot);
+      for (BlockArchiveSegment segment :
+          segments.headMap(maxSlot / slotsPerSegment, true).descendingMap().values()) {
+        final long floorSlot = segment.getFloorSlot(maxSlot);
+        if (floorSlot != BlockArchiveSegment.NO_SLOT) {
+          return Optional.of(entry(floorSlot, segment.get(floorSlot).orElseThrow()));
+        }
+      }
+      return Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Streams archived values for slots from {@code startSlot} to {@code endSlot} inclusive in slot
+   * order. Values are read lazily so the stream reflects commits made while it is consumed.
+   */
+  public Stream<Map.Entry<UInt64, Bytes>> stream(final UInt64 startSlot, final UInt64 endSlot) {
+    final long lastSlot = toLongSlot(endSlot);
+    final Iterator<Map.Entry<UInt64, Bytes>> iterator =
+        new AbstractIterator<>() {
+          private long nextSlot = startSlot.longValue();
+
+          @Override
+          protected Map.Entry<UInt64, Bytes> computeNext() {
+            if (nextSlot > lastSlot) {
+              return endOfData();
+            }
+            final Optional<Map.Entry<UInt64, Bytes>> next = getCeilingEntry(nextSlot);
+            if (next.isEmpty() || next.get().getKey().longValue() > lastSlot) {
+              return endOfData();
+            }
+            nextSlot = next.get().getKey().longValue() + 1;
+            return next.get();
+          }
+        };
+    return Streams.stream(iterator);
+  }
+
+  public Updater updater() {
+    return new Updater();
+  }
+
+  @Override
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      closed = true;
+      for (BlockArchiveSegment segment : segments.values()) {
+        segment.close();
+      }
+      segments.clear();
+    } catch (final IOException e) {
+      LOG.warn("Failed to close block archive at {}", directory, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Optional<Map.Entry<UInt64, Bytes>> getCeilingEntry(final long minSlot) {
+    lock.readLock().lock();
+    try {
+      for (BlockArchiveSegment segment :
+          segments.tailMap(minSlot / slotsPerSegment, true).values()) {
+        final long ceilingSlot = segment.getCeilingSlot(minSlot);
+        if (ceilingSlot != BlockArchiveSegment.NO_SLOT) {
+          return Optional.of(entry(ceilingSlot, segment.get(ceilingSlot).orElseThrow()));
+        }
+      }
+      return Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Optional<BlockArchiveSegment> getSegment(final long slot) {
+    return Optional.ofNullable(segments.get(slot / slotsPerSegment));
+  }
+
+  private static long toLongSlot(final UInt64 slot) {
+    return slot.min(MAX_SLOT).longValue();
+  }
+
+  private static Map.Entry<UInt64, Bytes> entry(final long slot, final Bytes value) {
+    return new AbstractMap.SimpleImmutableEntry<>(UInt64.valueOf(slot), value);
+  }
+
+  private synchronized void commit(
+      final NavigableMap<Long, Bytes> puts, final Set<Long> deletes) {
+    checkState(!closed, "Block archive is closed");
+    try {
+      // Append and sync the data first, readers don't see it until the index is updated
+      final Map<Long, Long> offsets = new HashMap<>();
+      final Set<BlockArchiveSegment> updatedSegments = new HashSet<>();
+      for (Map.Entry<Long, Bytes> put : puts.entrySet()) {
+        final BlockArchiveSegment segment = getOrCreateSegment(put.getKey());
+        offsets.put(put.getKey(), segment.append(put.getValue()));
+        updatedSegments.add(segment);
+      }
+      for (BlockArchiveSegment segment : updatedSegments) {
+        segment.forceData();
+      }
+
+      final List<BlockArchiveSegment> emptySegments = new ArrayList<>();
+      lock.writeLock().lock();
+      try {
+        for (BlockArchiveSegment segment : updatedSegments) {
+          segment.remapData();
+        }
+        offsets.forEach(
+            (slot, offset) -> getSegment(slot).orElseThrow().setEntry(slot, offset));
+        for (Long slot : deletes) {
+          getSegment(slot)
+              .ifPresent(
+                  segment -> {
+                    segment.clearEntry(slot);
+                    updatedSegments.add(segment);
+                  });
+        }
+        for (BlockArchiveSegment segment : updatedSegments) {
+          if (segment.isEmpty()) {
+            segments.remove(segment.getSegmentIndex());
+            emptySegments.add(segment);
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      for (BlockArchiveSegment segment : updatedSegments) {
+        if (emptySegments.contains(segment)) {
+          segment.delete();
+        } else {
+          segment.forceIndex();
+        }
+      }
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable(
+          "Failed to write to block archive at " + directory, e);
+    }
+  }
+
+  private BlockArchiveSegment getOrCreateSegment(final long slot) {
+    final long segmentIndex = slot / slotsPerSegment;
+    final BlockArchiveSegment existing = segments.get(segmentIndex);
+    if (existing != null) {
+      return existing;
+    }
+    final BlockArchiveSegment segment =
+        BlockArchiveSegment.open(directory, segmentIndex, slotsPerSegment);
+    lock.writeLock().lock();
+    try {
+      segments.put(segmentIndex, segment);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    return segment;
+  }
+
+  /**
+   * Collects changes to apply atomically with respect to readers. Nothing is written until {@link
+   * #commit()} is called.
+   */
+  public class Updater {
+    private final NavigableMap<Long, Bytes> puts = new TreeMap<>();
+    private final Set<Long> deletes = new HashSet<>();
+
+    private Updater() {}
+
+    public void put(final UInt64 slot, final Bytes value) {
+      deletes.remove(slot.longValue());
+      puts.put(slot.longValue(), value);
+    }
+
+    public void delete(final UInt64 slot) {
+      puts.remove(slot.longValue());
+      deletes.add(slot.longValue());
+    }
+
+    public boolean isEmpty() {
+      return puts.isEmpty() && deletes.isEmpty();
+    }
+
+    public void commit() {
+      if (!isEmpty()) {
+        BlockArchive.this.commit(puts, deletes);
+        puts.clear();
+        deletes.clear();
+      }
+    }
+
+    /** Commits only the pending puts, leaving the deletes for {@link #commitDeletes()} */
+    public void commitPuts() {
+      if (!puts.isEmpty()) {
+        BlockArchive.this.commit(puts, Collections.emptySet());
+        puts.clear();
+      }
+    }
+
+    /** Commits only the pending deletes */
+    public void commitDeletes() {
+      if (!deletes.isEmpty()) {
+        BlockArchive.this.commit(Collections.emptyNavigableMap(), deletes);
+        deletes.clear();
+      }
+    }
+  }
+}
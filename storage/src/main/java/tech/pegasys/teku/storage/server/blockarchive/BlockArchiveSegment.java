@@ -0,0 +1,271 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.blockarchive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+
+/**
+ * A fixed range of slots stored as a pair of files:
+ *
+ * <ul>
+ *   <li>the data file with length prefixed records which are only ever appended
+ *   <li>the index file with one 8 byte entry per slot holding the record offset plus one, or zero
+ *       if the slot is empty
+ * </ul>
+ *
+ * <p>Both files are memory mapped for reads. A record becomes visible only once its index entry is
+ * set, so a crash part way through an append leaves unreferenced bytes at the end of the data file
+ * rather than a corrupt entry.
+ */
+class BlockArchiveSegment implements AutoCloseable {
+  static final String DATA_FILE_SUFFIX = ".dat";
+  static final String INDEX_FILE_SUFFIX = ".idx";
+
+  private static final int RECORD_HEADER_SIZE = Integer.BYTES;
+  private static final long NO_ENTRY = 0;
+  static final long NO_SLOT = -1;
+
+  private final long segmentIndex;
+  private final long firstSlot;
+  private final int slotCount;
+  private final Path dataFile;
+  private final Path indexFile;
+  private final FileChannel dataChannel;
+  private final FileChannel indexChannel;
+  private final MappedByteBuffer index;
+
+  private volatile MappedByteBuffer data;
+  private long dataSize;
+  private int entryCount;
+
+  private BlockArchiveSegment(
+      final long segmentIndex,
+      final int slotCount,
+      final Path dataFile,
+      final Path indexFile,
+      final FileChannel dataChannel,
+      final FileChannel indexChannel,
+      final MappedByteBuffer index)
+      throws IOException {
+    this.segmentIndex = segmentIndex;
+    this.firstSlot = segmentIndex * slotCount;
+    this.slotCount = slotCount;
+    this.dataFile = dataFile;
+    this.indexFile = indexFile;
+    this.dataChannel = dataChannel;
+    this.indexChannel = indexChannel;
+    this.index = index;
+    this.dataSize = dataChannel.size();
+    this.entryCount = countEntries();
+    remapData();
+  }
+
+  static BlockArchiveSegment open(
+      final Path directory, final long segmentIndex, final int slotCount) {
+    final String fileName = String.format("%010d", segmentIndex);
+    final Path dataFile = directory.resolve(fileName + DATA_FILE_SUFFIX);
+    final Path indexFile = directory.resolve(fileName + INDEX_FILE_SUFFIX);
+    final long indexSize = (long) slotCount * Long.BYTES;
+    try {
+      if (Files.exists(indexFile) && Files.size(indexFile) != indexSize) {
+        throw DatabaseStorageException.unrecoverable(
+            String.format(
+                "Block archive index %s has size %d but %d was expected for %d slots per segment",
+                indexFile, Files.size(indexFile), indexSize, slotCount));
+      }
+      final FileChannel dataChannel =
+          FileChannel.open(
+              dataFile,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      final FileChannel indexChannel =
+          FileChannel.open(
+              indexFile,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      // Mapping beyond the end of the file extends it with zeros, i.e. empty entries
+      final MappedByteBuffer index = indexChannel.map(MapMode.READ_WRITE, 0, indexSize);
+      return new BlockArchiveSegment(
+          segmentIndex, slotCount, dataFile, indexFile, dataChannel, indexChannel, index);
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable(
+          "Failed to open block archive segment " + dataFile, e);
+    }
+  }
+
+  long getSegmentIndex() {
+    return segmentIndex;
+  }
+
+  boolean isEmpty() {
+    return entryCount == 0;
+  }
+
+  Optional<Bytes> get(final long slot) {
+    final long entry = getEntry(slot);
+    if (entry == NO_ENTRY) {
+      return Optional.empty();
+    }
+    return Optional.of(readRecord(entry - 1));
+  }
+
+  /** Returns the first slot with data in the range [fromSlot, last slot of segment] */
+  long getCeilingSlot(final long fromSlot) {
+    for (long slot = Math.max(fromSlot, firstSlot); slot < firstSlot + slotCount; slot++) {
+      if (getEntry(slot) != NO_ENTRY) {
+        return slot;
+      }
+    }
+    return NO_SLOT;
+  }
+
+  /** Returns the last slot with data in the range [first slot of segment, toSlot] */
+  long getFloorSlot(final long toSlot) {
+    for (long slot = Math.min(toSlot, firstSlot + slotCount - 1); slot >= firstSlot; slot--) {
+      if (getEntry(slot) != NO_ENTRY) {
+        return slot;
+      }
+    }
+    return NO_SLOT;
+  }
+
+  /**
+   * Appends a record to the end of the data file. The record is not visible to readers until
+   * {@link #setEntry(long, long)} is called with the returned offset.
+   */
+  long append(final Bytes value) throws IOException {
+    final long offset = dataSize;
+    final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + value.size());
+    buffer.putInt(value.size());
+    value.appendTo(buffer);
+    buffer.flip();
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      position += dataChannel.write(buffer, position);
+    }
+    dataSize = position;
+    return offset;
+  }
+
+  void forceData() throws IOException {
+    dataChannel.force(false);
+  }
+
+  /** Makes the data appended so far readable through the memory mapping */
+  void remapData() throws IOException {
+    final long mappedSize = Math.min(dataSize, Integer.MAX_VALUE);
+    final MappedByteBuffer current = data;
+    if (current == null || current.capacity() != mappedSize) {
+      data = dataChannel.map(MapMode.READ_ONLY, 0, mappedSize);
+    }
+  }
+
+  void setEntry(final long slot, final long offset) {
+    if (getEntry(slot) == NO_ENTRY) {
+      entryCount++;
+    }
+    index.putLong(entryPosition(slot), offset + 1);
+  }
+
+  void clearEntry(final long slot) {
+    if (getEntry(slot) != NO_ENTRY) {
+      entryCount--;
+      index.putLong(entryPosition(slot), NO_ENTRY);
+    }
+  }
+
+  void forceIndex() {
+    index.force();
+  }
+
+  void delete() throws IOException {
+    close();
+    Files.deleteIfExists(indexFile);
+    Files.deleteIfExists(dataFile);
+  }
+
+  @Override
+  public void close() throws IOException {
+    dataChannel.close();
+    indexChannel.close();
+  }
+
+  private long getEntry(final long slot) {
+    return index.getLong(entryPosition(slot));
+  }
+
+  private int entryPosition(final long slot) {
+    return Math.toIntExact(slot - firstSlot) * Long.BYTES;
+  }
+
+  private int countEntries() {
+    int count = 0;
+    for (int i = 0; i < slotCount; i++) {
+      if (index.getLong(i * Long.BYTES) != NO_ENTRY) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private Bytes readRecord(final long offset) {
+    final MappedByteBuffer mapped = data;
+    if (offset + RECORD_HEADER_SIZE <= mapped.capacity()) {
+      final int length = mapped.getInt((int) offset);
+      final long valueOffset = offset + RECORD_HEADER_SIZE;
+      if (valueOffset + length <= mapped.capacity()) {
+        final byte[] value = new byte[length];
+        mapped.duplicate().position((int) valueOffset).get(value);
+        return Bytes.wrap(value);
+      }
+    }
+    // Records beyond the 2GB mapping limit are read through the channel
+    return readRecordFromChannel(offset);
+  }
+
+  private Bytes readRecordFromChannel(final long offset) {
+    try {
+      final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+      readFully(header, offset);
+      final ByteBuffer value = ByteBuffer.allocate(header.flip().getInt());
+      readFully(value, offset + RECORD_HEADER_SIZE);
+      return Bytes.wrap(value.array());
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to read from " + dataFile, e);
+    }
+  }
+
+  private void readFully(final ByteBuffer buffer, final long offset) throws IOException {
+    long position = offset;
+    while (buffer.hasRemaining()) {
+      final int read = dataChannel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of block archive segment at " + position);
+      }
+      position += read;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.hotlog;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.exceptions.InvalidConfigurationException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.ColumnRoutingKvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+
+/**
+ * Selects which hot columns are stored in the hot log rather than the main database.
+ *
+ * <p>The selection may change between restarts. When the database is opened, entries in a column
+ * that has been added to the selection are moved from the main database to the hot log, and
+ * entries in a column that has been removed are moved back.
+ */
+public class HotLogConfiguration {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int MIGRATION_BATCH_SIZE = 1000;
+
+  private final Path directory;
+  private final Set<String> columnNames;
+
+  public HotLogConfiguration(final Path directory, final Collection<String> columnNames) {
+    this.directory = directory;
+    this.columnNames = Set.copyOf(columnNames);
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public Set<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * Opens the hot log and returns an accessor storing the selected hot columns in it and
+   * everything else in {@code db}.
+   */
+  public KvStoreAccessor createAccessor(final KvStoreAccessor db, final SchemaCombined schema) {
+    final Map<String, KvStoreColumn<?, ?>> hotColumns = schema.asSchemaHot().getColumnMap();
+    final List<String> unknownColumns =
+        columnNames.stream()
+            .filter(name -> !hotColumns.containsKey(name))
+            .sorted()
+            .collect(Collectors.toList());
+    if (!unknownColumns.isEmpty()) {
+      throw new InvalidConfigurationException(
+          "Unknown hot log columns "
+              + unknownColumns
+              + ". Supported columns are "
+              + hotColumns.keySet().stream().sorted().collect(Collectors.toList()));
+    }
+
+    final HotLogKvStoreAccessor hotLog = HotLogKvStoreAccessor.open(directory);
+    final List<KvStoreColumn<?, ?>> routedColumns = new ArrayList<>();
+    hotColumns.forEach(
+        (name, column) -> {
+          if (columnNames.contains(name)) {
+            routedColumns.add(column);
+            migrateColumn(name, column, db, hotLog);
+          } else {
+            migrateColumn(name, column, hotLog, db);
+          }
+        });
+    if (!routedColumns.isEmpty()) {
+      LOG.info("Hot columns {} stored in hot log at {}", columnNames, directory);
+    }
+    return new ColumnRoutingKvStoreAccessor(db, hotLog, routedColumns);
+  }
+
+  private static <K, V> void migrateColumn(
+      final String name,
+      final KvStoreColumn<K, V> column,
+      final KvStoreAccessor source,
+      final KvStoreAccessor target) {
+    long migratedCount = 0;
+    try (final Stream<ColumnEntry<Bytes, Bytes>> entries = source.streamRaw(column)) {
+      final Iterator<ColumnEntry<Bytes, Bytes>> iterator = entries.iterator();
+      if (!iterator.hasNext()) {
+        return;
+      }
+      LOG.info("Migrating hot column {} to its configured storage", name);
+      final Map<K, ColumnEntry<Bytes, Bytes>> batch = new LinkedHashMap<>();
+      while (iterator.hasNext()) {
+        final ColumnEntry<Bytes, Bytes> entry = iterator.next();
+        batch.put(column.getKeySerializer().deserialize(entry.getKey().toArrayUnsafe()), entry);
+        if (batch.size() >= MIGRATION_BATCH_SIZE || !iterator.hasNext()) {
+          // Write to the target before deleting from the source so an interrupted migration is
+          // simply repeated on the next start
+          try (final KvStoreTransaction transaction = target.startTransaction()) {
+            batch.values().forEach(e -> transaction.putRaw(column, e.getKey(), e.getValue()));
+            transaction.commit();
+          }
+          try (final KvStoreTransaction transaction = source.startTransaction()) {
+            batch.keySet().forEach(key -> transaction.delete(column, key));
+            transaction.commit();
+          }
+          migratedCount += batch.size();
+          batch.clear();
+        }
+      }
+    }
+    LOG.info("Migrated {} entries of hot column {}", migratedCount, name);
+  }
+}
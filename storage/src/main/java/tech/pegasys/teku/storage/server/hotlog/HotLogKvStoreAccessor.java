@@ -0,0 +1,647 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.hotlog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+import tech.pegasys.teku.storage.server.ShuttingDownException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+
+/**
+ * Key value storage for short-lived data, such as hot blocks and states, which is written once,
+ * read a few times and deleted when finalized.
+ *
+ * <p>Each committed transaction is appended as a single checksummed frame to the active segment
+ * file and an in-memory index maps keys to the location of their current value. Nothing is ever
+ * rewritten in place, a segment file is deleted as soon as none of its entries are live. Hot data
+ * is written in roughly slot order and deleted in slot order on finalization, so whole segments
+ * become empty and are dropped without the repeated compaction an LSM tree performs. Segments
+ * which keep a few long-lived entries have those entries copied to the active segment once most
+ * of the segment is dead, bounding the space used.
+ *
+ * <p>On startup the index is rebuilt by replaying the segments in order. A frame which was only
+ * partially written when the process stopped is discarded.
+ */
+public class HotLogKvStoreAccessor implements KvStoreAccessor {
+  private static final Logger LOG = LogManager.getLogger();
+
+  public static final long DEFAULT_MAX_SEGMENT_BYTES = 256 * 1024 * 1024;
+  // Segments with less live data than this are rewritten so the file can be deleted
+  private static final int COMPACTION_LIVE_PERCENT = 25;
+
+  private static final Bytes MAGIC = Bytes.wrap("tekuhot1".getBytes(UTF_8));
+  private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final Bytes COLUMN_NAMESPACE = Bytes.of(0);
+  private static final Bytes VARIABLE_NAMESPACE = Bytes.of(1);
+
+  private final Path directory;
+  private final long maxSegmentBytes;
+  private final Map<Bytes, NavigableMap<Bytes, Location>> index = new ConcurrentHashMap<>();
+  private final NavigableMap<Long, HotLogSegment> segments = new TreeMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private HotLogSegment activeSegment;
+  private long bytesWritten = 0;
+  private volatile boolean closed = false;
+
+  private HotLogKvStoreAccessor(final Path directory, final long maxSegmentBytes) {
+    this.directory = directory;
+    this.maxSegmentBytes = maxSegmentBytes;
+  }
+
+  public static HotLogKvStoreAccessor open(final Path directory) {
+    return open(directory, DEFAULT_MAX_SEGMENT_BYTES);
+  }
+
+  public static HotLogKvStoreAccessor open(final Path directory, final long maxSegmentBytes) {
+    checkArgument(maxSegmentBytes > 0, "Max segment bytes must be positive");
+    final HotLogKvStoreAccessor accessor = new HotLogKvStoreAccessor(directory, maxSegmentBytes);
+    try {
+      Files.createDirectories(directory);
+      final List<Path> files = listSegmentFiles(directory);
+      for (int i = 0; i < files.size(); i++) {
+        final long segmentIndex = HotLogSegment.parseSegmentIndex(files.get(i));
+        accessor.replay(HotLogSegment.open(directory, segmentIndex), i == files.size() - 1);
+      }
+      if (accessor.segments.isEmpty()) {
+        accessor.startSegment(0);
+      } else {
+        accessor.activeSegment = accessor.segments.lastEntry().getValue();
+        accessor.dropUnusedSegments();
+      }
+    } catch (final IOException | NumberFormatException e) {
+      accessor.close();
+      throw DatabaseStorageException.unrecoverable("Failed to open hot log at " + directory, e);
+    }
+    LOG.debug("Opened hot log at {} with {} segments", directory, accessor.segments.size());
+    return accessor;
+  }
+
+  /** Returns true if the directory contains hot log data */
+  public static boolean exists(final Path directory) {
+    if (!Files.isDirectory(directory)) {
+      return false;
+    }
+    try {
+      return !listSegmentFiles(directory).isEmpty();
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to read hot log at " + directory, e);
+    }
+  }
+
+  private static List<Path> listSegmentFiles(final Path directory) throws IOException {
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(HotLogSegment.FILE_SUFFIX))
+          .sorted(
+              (a, b) ->
+                  Long.compare(
+                      HotLogSegment.parseSegmentIndex(a), HotLogSegment.parseSegmentIndex(b)))
+          .collect(Collectors.toList());
+    }
+  }
+
+  /** Total bytes appended to segment files since opening, including copied entries */
+  public synchronized long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  @VisibleForTesting
+  int getSegmentCount() {
+    lock.readLock().lock();
+    try {
+      return segments.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public <T> Optional<T> get(final KvStoreVariable<T> variable) {
+    return getRaw(variable).map(data -> variable.getSerializer().deserialize(data.toArrayUnsafe()));
+  }
+
+  @Override
+  public Optional<Bytes> getRaw(final KvStoreVariable<?> variable) {
+    return read(variableNamespace(variable), Bytes.EMPTY);
+  }
+
+  @Override
+  public <K, V> Optional<V> get(final KvStoreColumn<K, V> column, final K key) {
+    return getRaw(column, key).map(data -> deserializeValue(column, data));
+  }
+
+  @Override
+  public <K, V> Optional<Bytes> getRaw(final KvStoreColumn<K, V> column, final K key) {
+    return read(columnNamespace(column), serializeKey(column, key));
+  }
+
+  @Override
+  public long size(final KvStoreColumn<?, ?> column) {
+    assertOpen();
+    return keys(column).size();
+  }
+
+  @Override
+  public <K, V> Map<K, V> getAll(final KvStoreColumn<K, V> column) {
+    try (final Stream<ColumnEntry<K, V>> entries = stream(column)) {
+      return entries.collect(Collectors.toMap(ColumnEntry::getKey, ColumnEntry::getValue));
+    }
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFloorEntry(
+      final KvStoreColumn<K, V> column, final K key) {
+    final Bytes keyBytes = serializeKey(column, key);
+    // The floor entry may be removed between finding and reading it
+    Bytes floorKey = keys(column).floorKey(keyBytes);
+    while (floorKey != null) {
+      final Optional<ColumnEntry<K, V>> entry = readEntry(column, floorKey);
+      if (entry.isPresent()) {
+        return entry;
+      }
+      floorKey = keys(column).lowerKey(floorKey);
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    return Optional.ofNullable(keys(column).floorKey(serializeKey(column, key)))
+        .map(data -> deserializeKey(column, data));
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
+    try (final Stream<ColumnEntry<K, V>> entries = stream(column)) {
+      return entries.findFirst();
+    }
+  }
+
+  @Override
+  public <K, V> Optional<K> getLastKey(final KvStoreColumn<K, V> column) {
+    return Optional.ofNullable(keys(column).lastEntry())
+        .map(entry -> deserializeKey(column, entry.getKey()));
+  }
+
+  @Override
+  public <K, V> Stream<ColumnEntry<K, V>> stream(final KvStoreColumn<K, V> column) {
+    return streamEntries(column, keys(column).keySet().stream());
+  }
+
+  @Override
+  public <K, V> Stream<K> streamKeys(final KvStoreColumn<K, V> column) {
+    return keys(column).keySet().stream().map(key -> deserializeKey(column, key));
+  }
+
+  @Override
+  public Stream<ColumnEntry<Bytes, Bytes>> streamRaw(final KvStoreColumn<?, ?> column) {
+    final Bytes namespace = columnNamespace(column);
+    return keys(column).keySet().stream()
+        .flatMap(key -> read(namespace, key).map(value -> ColumnEntry.create(key, value)).stream());
+  }
+
+  @Override
+  public <K extends Comparable<K>, V> Stream<ColumnEntry<K, V>> stream(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return streamEntries(column, range(column, from, to).stream());
+  }
+
+  @Override
+  public <K extends Comparable<K>, V> Stream<K> streamKeys(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return range(column, from, to).stream().map(key -> deserializeKey(column, key));
+  }
+
+  @Override
+  public KvStoreTransaction startTransaction() {
+    assertOpen();
+    return new HotLogTransaction(this);
+  }
+
+  @Override
+  public boolean isSecondary() {
+    return false;
+  }
+
+  @Override
+  public void catchUpWithPrimary() {}
+
+  @Override
+  public synchronized void close() {
+    lock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      for (HotLogSegment segment : segments.values()) {
+        segment.force();
+        segment.close();
+      }
+      segments.clear();
+      index.clear();
+    } catch (final IOException e) {
+      LOG.warn("Failed to close hot log at {}", directory, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Appends the operations as a single frame and applies them to the index. The frame isn't
+   * forced to disk, matching the default write options used for RocksDB, so a write survives the
+   * process stopping but may be lost if the operating system fails. Segments are forced when they
+   * are filled and when the log is closed.
+   */
+  synchronized void commit(final List<Operation> operations) {
+    assertOpen();
+    if (operations.isEmpty()) {
+      return;
+    }
+    try {
+      write(operations);
+      compactSparseSegment();
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to write to hot log at " + directory, e);
+    }
+  }
+
+  private void write(final List<Operation> operations) throws IOException {
+    final ByteBuffer frame = encodeFrame(operations);
+    if (activeSegment.getSize() + frame.remaining() > maxSegmentBytes
+        && activeSegment.getSize() > MAGIC.size()) {
+      activeSegment.force();
+      startSegment(activeSegment.getSegmentIndex() + 1);
+    }
+    bytesWritten += frame.remaining();
+    final long framePosition = activeSegment.append(frame);
+    lock.writeLock().lock();
+    try {
+      applyFrame(activeSegment, framePosition, frame.flip());
+      dropUnusedSegments();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Copies the live entries of the oldest mostly dead segment to the active segment so the old
+   * segment can be deleted. Only segments which no longer depend on earlier segments are copied,
+   * as otherwise they couldn't be deleted afterwards.
+   */
+  private void compactSparseSegment() throws IOException {
+    final Optional<HotLogSegment> sparseSegment = findSparseSegment();
+    if (sparseSegment.isEmpty()) {
+      return;
+    }
+    final List<Operation> copies = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (Map.Entry<Bytes, NavigableMap<Bytes, Location>> namespace : index.entrySet()) {
+        for (Map.Entry<Bytes, Location> entry : namespace.getValue().entrySet()) {
+          final Location location = entry.getValue();
+          if (location.segment == sparseSegment.get()) {
+            copies.add(Operation.put(namespace.getKey(), entry.getKey(), readValue(location)));
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    LOG.debug(
+        "Copying {} live entries from hot log segment {}",
+        copies.size(),
+        sparseSegment.get().getSegmentIndex());
+    write(copies);
+  }
+
+  private Optional<HotLogSegment> findSparseSegment() {
+    lock.readLock().lock();
+    try {
+      final Set<Long> earlierSegments = new HashSet<>();
+      for (HotLogSegment segment : segments.values()) {
+        if (segment == activeSegment) {
+          break;
+        }
+        if (!segment.dependsOnAny(earlierSegments)
+            && segment.getLiveBytes() * 100 < segment.getSize() * COMPACTION_LIVE_PERCENT) {
+          return Optional.of(segment);
+        }
+        earlierSegments.add(segment.getSegmentIndex());
+      }
+      return Optional.empty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void startSegment(final long segmentIndex) throws IOException {
+    final HotLogSegment segment = HotLogSegment.open(directory, segmentIndex);
+    segment.append(ByteBuffer.wrap(MAGIC.toArrayUnsafe()));
+    lock.writeLock().lock();
+    try {
+      segments.put(segmentIndex, segment);
+      activeSegment = segment;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Deletes segments without live entries that later replays no longer depend on. */
+  private void dropUnusedSegments() throws IOException {
+    final Set<Long> remainingSegments = new HashSet<>(segments.keySet());
+    // Segments only depend on earlier segments so a single pass in order is enough
+    for (HotLogSegment segment : new ArrayList<>(segments.values())) {
+      if (segment != activeSegment
+          && !segment.hasLiveEntries()
+          && !segment.dependsOnAny(remainingSegments)) {
+        LOG.debug("Deleting unused hot log segment {}", segment.getSegmentIndex());
+        segments.remove(segment.getSegmentIndex());
+        remainingSegments.remove(segment.getSegmentIndex());
+        segment.delete();
+      }
+    }
+  }
+
+  private void replay(final HotLogSegment segment, final boolean lastSegment) throws IOException {
+    segments.put(segment.getSegmentIndex(), segment);
+    if (segment.getSize() < MAGIC.size()
+        || !Bytes.wrapByteBuffer(segment.read(0, MAGIC.size())).equals(MAGIC)) {
+      throw new IOException("Invalid hot log segment " + segment.getFile());
+    }
+    long position = MAGIC.size();
+    while (position < segment.getSize()) {
+      final Optional<ByteBuffer> frame = readFrame(segment, position);
+      if (frame.isEmpty()) {
+        if (!lastSegment) {
+          throw new IOException("Corrupt frame in hot log segment " + segment.getFile());
+        }
+        LOG.warn(
+            "Discarding {} bytes of partially written data from hot log segment {}",
+            segment.getSize() - position,
+            segment.getFile());
+        segment.truncate(position);
+        break;
+      }
+      applyFrame(segment, position, frame.get());
+      position += frame.get().limit();
+    }
+  }
+
+  /** Reads a complete frame including its header or empty if it is incomplete or corrupt. */
+  private Optional<ByteBuffer> readFrame(final HotLogSegment segment, final long position)
+      throws IOException {
+    if (segment.getSize() - position < FRAME_HEADER_SIZE) {
+      return Optional.empty();
+    }
+    final ByteBuffer header = segment.read(position, FRAME_HEADER_SIZE);
+    final int payloadSize = header.getInt();
+    final int checksum = header.getInt();
+    if (payloadSize < 0 || segment.getSize() - position - FRAME_HEADER_SIZE < payloadSize) {
+      return Optional.empty();
+    }
+    final ByteBuffer frame = segment.read(position, FRAME_HEADER_SIZE + payloadSize);
+    if (checksum(frame.duplicate().position(FRAME_HEADER_SIZE)) != checksum) {
+      return Optional.empty();
+    }
+    return Optional.of(frame);
+  }
+
+  private static ByteBuffer encodeFrame(final List<Operation> operations) {
+    int payloadSize = 0;
+    for (Operation operation : operations) {
+      payloadSize += operation.getEncodedSize();
+    }
+    final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payloadSize);
+    frame.position(FRAME_HEADER_SIZE);
+    for (Operation operation : operations) {
+      operation.encode(frame);
+    }
+    frame.flip();
+    frame.putInt(0, payloadSize);
+    frame.putInt(Integer.BYTES, checksum(frame.duplicate().position(FRAME_HEADER_SIZE)));
+    return frame;
+  }
+
+  private static int checksum(final ByteBuffer payload) {
+    final CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  private void applyFrame(
+      final HotLogSegment segment, final long framePosition, final ByteBuffer frame) {
+    frame.position(FRAME_HEADER_SIZE);
+    while (frame.hasRemaining()) {
+      final int operationStart = frame.position();
+      final byte type = frame.get();
+      final Bytes namespace = readBytes(frame);
+      final Bytes key = readBytes(frame);
+      final NavigableMap<Bytes, Location> keys =
+          index.computeIfAbsent(namespace, __ -> new ConcurrentSkipListMap<>());
+      final Location previous;
+      if (type == PUT) {
+        final int valueSize = frame.getInt();
+        final long valuePosition = framePosition + frame.position();
+        frame.position(frame.position() + valueSize);
+        final Location location =
+            new Location(segment, valuePosition, valueSize, frame.position() - operationStart);
+        segment.addLiveEntry(location.entrySize);
+        previous = keys.put(key, location);
+      } else if (type == DELETE) {
+        previous = keys.remove(key);
+      } else {
+        throw DatabaseStorageException.unrecoverable(
+            "Unknown operation " + type + " in hot log segment " + segment.getFile());
+      }
+      if (previous != null) {
+        previous.segment.removeLiveEntry(previous.entrySize);
+        if (previous.segment != segment) {
+          segment.addDependency(previous.segment.getSegmentIndex());
+        }
+      }
+    }
+  }
+
+  private static Bytes readBytes(final ByteBuffer buffer) {
+    final byte[] data = new byte[buffer.getInt()];
+    buffer.get(data);
+    return Bytes.wrap(data);
+  }
+
+  private Optional<Bytes> read(final Bytes namespace, final Bytes key) {
+    lock.readLock().lock();
+    try {
+      assertOpen();
+      final NavigableMap<Bytes, Location> keys = index.get(namespace);
+      final Location location = keys == null ? null : keys.get(key);
+      return location == null ? Optional.empty() : Optional.of(readValue(location));
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to read from hot log", e);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Bytes readValue(final Location location) throws IOException {
+    return Bytes.wrapByteBuffer(location.segment.read(location.valuePosition, location.valueSize));
+  }
+
+  private <K, V> Optional<ColumnEntry<K, V>> readEntry(
+      final KvStoreColumn<K, V> column, final Bytes key) {
+    return read(columnNamespace(column), key)
+        .map(
+            value ->
+                ColumnEntry.create(deserializeKey(column, key), deserializeValue(column, value)));
+  }
+
+  private <K, V> Stream<ColumnEntry<K, V>> streamEntries(
+      final KvStoreColumn<K, V> column, final Stream<Bytes> keys) {
+    // Entries removed while streaming are skipped
+    return keys.flatMap(key -> readEntry(column, key).stream());
+  }
+
+  private <K extends Comparable<K>, V> Set<Bytes> range(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return keys(column)
+        .subMap(serializeKey(column, from), true, serializeKey(column, to), true)
+        .keySet();
+  }
+
+  private NavigableMap<Bytes, Location> keys(final KvStoreColumn<?, ?> column) {
+    assertOpen();
+    final NavigableMap<Bytes, Location> keys = index.get(columnNamespace(column));
+    return keys == null ? Collections.emptyNavigableMap() : keys;
+  }
+
+  private void assertOpen() {
+    if (closed) {
+      throw new ShuttingDownException();
+    }
+  }
+
+  static Bytes columnNamespace(final KvStoreColumn<?, ?> column) {
+    return Bytes.concatenate(COLUMN_NAMESPACE, column.getId());
+  }
+
+  static Bytes variableNamespace(final KvStoreVariable<?> variable) {
+    return Bytes.concatenate(VARIABLE_NAMESPACE, variable.getId());
+  }
+
+  private static <K> Bytes serializeKey(final KvStoreColumn<K, ?> column, final K key) {
+    return Bytes.wrap(column.getKeySerializer().serialize(key));
+  }
+
+  private static <K> K deserializeKey(final KvStoreColumn<K, ?> column, final Bytes key) {
+    return column.getKeySerializer().deserialize(key.toArrayUnsafe());
+  }
+
+  private static <V> V deserializeValue(final KvStoreColumn<?, V> column, final Bytes value) {
+    return column.getValueSerializer().deserialize(value.toArrayUnsafe());
+  }
+
+  private static class Location {
+    private final HotLogSegment segment;
+    private final long valuePosition;
+    private final int valueSize;
+    private final long entrySize;
+
+    private Location(
+        final HotLogSegment segment,
+        final long valuePosition,
+        final int valueSize,
+        final long entrySize) {
+      this.segment = segment;
+      this.valuePosition = valuePosition;
+      this.valueSize = valueSize;
+      this.entrySize = entrySize;
+    }
+  }
+
+  /** A put or delete of a key within a column or variable namespace */
+  static class Operation {
+    private final byte type;
+    private final Bytes namespace;
+    private final Bytes key;
+    private final Optional<Bytes> value;
+
+    private Operation(
+        final byte type, final Bytes namespace, final Bytes key, final Optional<Bytes> value) {
+      this.type = type;
+      this.namespace = namespace;
+      this.key = key;
+      this.value = value;
+    }
+
+    static Operation put(final Bytes namespace, final Bytes key, final Bytes value) {
+      return new Operation(PUT, namespace, key, Optional.of(value));
+    }
+
+    static Operation delete(final Bytes namespace, final Bytes key) {
+      return new Operation(DELETE, namespace, key, Optional.empty());
+    }
+
+    private int getEncodedSize() {
+      return 1
+          + Integer.BYTES
+          + namespace.size()
+          + Integer.BYTES
+          + key.size()
+          + value.map(data -> Integer.BYTES + data.size()).orElse(0);
+    }
+
+    private void encode(final ByteBuffer buffer) {
+      buffer.put(type);
+      writeBytes(buffer, namespace);
+      writeBytes(buffer, key);
+      value.ifPresent(data -> writeBytes(buffer, data));
+    }
+
+    private static void writeBytes(final ByteBuffer buffer, final Bytes data) {
+      buffer.putInt(data.size());
+      buffer.put(data.toArrayUnsafe());
+    }
+  }
+}
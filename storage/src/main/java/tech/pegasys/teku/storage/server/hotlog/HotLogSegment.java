@@ -0,0 +1,147 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.hotlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A single append-only file of the hot log.
+ *
+ * <p>The segment tracks how many of the entries written to it are still live. Entries become dead
+ * when they are overwritten or deleted by a later write, at which point nothing needs to be done
+ * to the file. Once no live entries remain the whole file is deleted.
+ *
+ * <p>Replaying the log on startup applies segments in order, so a segment which overwrites or
+ * deletes an entry held by an earlier segment must outlive that segment or the old entry would be
+ * resurrected. These earlier segments are tracked as dependencies.
+ */
+class HotLogSegment implements AutoCloseable {
+  static final String FILE_SUFFIX = ".hotlog";
+
+  private final long segmentIndex;
+  private final Path file;
+  private final FileChannel channel;
+  private final Set<Long> dependencies = new HashSet<>();
+  private long size;
+  private long liveBytes;
+  private int liveEntries;
+
+  private HotLogSegment(final long segmentIndex, final Path file, final FileChannel channel)
+      throws IOException {
+    this.segmentIndex = segmentIndex;
+    this.file = file;
+    this.channel = channel;
+    this.size = channel.size();
+  }
+
+  static HotLogSegment open(final Path directory, final long segmentIndex) throws IOException {
+    final Path file = directory.resolve(String.format("%010d", segmentIndex) + FILE_SUFFIX);
+    final FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    return new HotLogSegment(segmentIndex, file, channel);
+  }
+
+  static long parseSegmentIndex(final Path file) {
+    final String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+  }
+
+  long getSegmentIndex() {
+    return segmentIndex;
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  long getSize() {
+    return size;
+  }
+
+  long getLiveBytes() {
+    return liveBytes;
+  }
+
+  boolean hasLiveEntries() {
+    return liveEntries > 0;
+  }
+
+  /** Appends the buffer's remaining bytes and returns the position they were written at. */
+  long append(final ByteBuffer data) throws IOException {
+    final long position = size;
+    long writePosition = position;
+    while (data.hasRemaining()) {
+      writePosition += channel.write(data, writePosition);
+    }
+    size = writePosition;
+    return position;
+  }
+
+  ByteBuffer read(final long position, final int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of hot log segment " + file);
+      }
+    }
+    return buffer.flip();
+  }
+
+  /** Discards any bytes after {@code newSize}, used to drop a partially written frame. */
+  void truncate(final long newSize) throws IOException {
+    channel.truncate(newSize);
+    size = newSize;
+  }
+
+  void force() throws IOException {
+    channel.force(false);
+  }
+
+  void addLiveEntry(final long bytes) {
+    liveEntries++;
+    liveBytes += bytes;
+  }
+
+  void removeLiveEntry(final long bytes) {
+    liveEntries--;
+    liveBytes -= bytes;
+  }
+
+  void addDependency(final long earlierSegmentIndex) {
+    dependencies.add(earlierSegmentIndex);
+  }
+
+  /** Returns true if this segment must outlive any of the specified segments */
+  boolean dependsOnAny(final Set<Long> segmentIndices) {
+    return dependencies.stream().anyMatch(segmentIndices::contains);
+  }
+
+  void delete() throws IOException {
+    close();
+    Files.deleteIfExists(file);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
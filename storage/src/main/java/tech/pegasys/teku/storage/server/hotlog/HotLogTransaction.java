@@ -0,0 +1,108 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.hotlog;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.storage.server.hotlog.HotLogKvStoreAccessor.Operation;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+
+/** Collects operations in order and appends them to the hot log as a single frame on commit. */
+class HotLogTransaction implements KvStoreTransaction {
+  private final HotLogKvStoreAccessor accessor;
+  private final List<Operation> operations = new ArrayList<>();
+  private boolean closed = false;
+
+  HotLogTransaction(final HotLogKvStoreAccessor accessor) {
+    this.accessor = accessor;
+  }
+
+  @Override
+  public <T> void put(final KvStoreVariable<T> variable, final T value) {
+    putRaw(variable, Bytes.wrap(variable.getSerializer().serialize(value)));
+  }
+
+  @Override
+  public <T> void putRaw(final KvStoreVariable<T> variable, final Bytes value) {
+    add(Operation.put(HotLogKvStoreAccessor.variableNamespace(variable), Bytes.EMPTY, value));
+  }
+
+  @Override
+  public <K, V> void put(final KvStoreColumn<K, V> column, final K key, final V value) {
+    putRaw(
+        column,
+        Bytes.wrap(column.getKeySerializer().serialize(key)),
+        Bytes.wrap(column.getValueSerializer().serialize(value)));
+  }
+
+  @Override
+  public <K, V> void putRaw(final KvStoreColumn<K, V> column, final Bytes key, final Bytes value) {
+    add(Operation.put(HotLogKvStoreAccessor.columnNamespace(column), key, value));
+  }
+
+  @Override
+  public <K, V> void put(final KvStoreColumn<K, V> column, final Map<K, V> data) {
+    data.forEach((key, value) -> put(column, key, value));
+  }
+
+  @Override
+  public <K, V> void delete(final KvStoreColumn<K, V> column, final K key) {
+    add(
+        Operation.delete(
+            HotLogKvStoreAccessor.columnNamespace(column),
+            Bytes.wrap(column.getKeySerializer().serialize(key))));
+  }
+
+  @Override
+  public <T> void delete(final KvStoreVariable<T> variable) {
+    add(Operation.delete(HotLogKvStoreAccessor.variableNamespace(variable), Bytes.EMPTY));
+  }
+
+  @Override
+  public void commit() {
+    assertOpen();
+    try {
+      accessor.commit(operations);
+    } finally {
+      close();
+    }
+  }
+
+  @Override
+  public void rollback() {
+    assertOpen();
+    close();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    operations.clear();
+  }
+
+  private void add(final Operation operation) {
+    assertOpen();
+    operations.add(operation);
+  }
+
+  private void assertOpen() {
+    checkState(!closed, "Attempt to update a closed transaction");
+  }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.errorprone.annotations.MustBeClosed;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+
+/**
+ * Stores a subset of columns in a different {@link KvStoreAccessor} to the rest of the database,
+ * allowing data with a different lifecycle to use a storage engine suited to it. Variables are
+ * always stored in the main accessor.
+ *
+ * <p>Transactions span both accessors but can't be atomic across them. Puts to routed columns are
+ * committed before the main transaction and deletes after it, so if the process stops part way
+ * through a commit the routed columns may hold extra entries but never lose entries the main
+ * accessor's data refers to.
+ */
+public class ColumnRoutingKvStoreAccessor implements KvStoreAccessor {
+  private final KvStoreAccessor mainAccessor;
+  private final KvStoreAccessor routedAccessor;
+  private final Set<Bytes> routedColumnIds;
+
+  public ColumnRoutingKvStoreAccessor(
+      final KvStoreAccessor mainAccessor,
+      final KvStoreAccessor routedAccessor,
+      final Collection<KvStoreColumn<?, ?>> routedColumns) {
+    this.mainAccessor = mainAccessor;
+    this.routedAccessor = routedAccessor;
+    this.routedColumnIds =
+        routedColumns.stream().map(KvStoreColumn::getId).collect(Collectors.toSet());
+  }
+
+  private boolean isRouted(final KvStoreColumn<?, ?> column) {
+    return routedColumnIds.contains(column.getId());
+  }
+
+  private KvStoreAccessor accessorFor(final KvStoreColumn<?, ?> column) {
+    return isRouted(column) ? routedAccessor : mainAccessor;
+  }
+
+  @Override
+  public <T> Optional<T> get(final KvStoreVariable<T> variable) {
+    return mainAccessor.get(variable);
+  }
+
+  @Override
+  public Optional<Bytes> getRaw(final KvStoreVariable<?> variable) {
+    return mainAccessor.getRaw(variable);
+  }
+
+  @Override
+  public <K, V> Optional<V> get(final KvStoreColumn<K, V> column, final K key) {
+    return accessorFor(column).get(column, key);
+  }
+
+  @Override
+  public long size(final KvStoreColumn<?, ?> column) {
+    return accessorFor(column).size(column);
+  }
+
+  @Override
+  public <K, V> Map<K, V> getAll(final KvStoreColumn<K, V> column) {
+    return accessorFor(column).getAll(column);
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFloorEntry(
+      final KvStoreColumn<K, V> column, final K key) {
+    return accessorFor(column).getFloorEntry(column, key);
+  }
+
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    return accessorFor(column).getFloorKey(column, key);
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
+    return accessorFor(column).getFirstEntry(column);
+  }
+
+  @Override
+  public <K, V> Optional<K> getLastKey(final KvStoreColumn<K, V> column) {
+    return accessorFor(column).getLastKey(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K, V> Stream<ColumnEntry<K, V>> stream(final KvStoreColumn<K, V> column) {
+    return accessorFor(column).stream(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K, V> Stream<K> streamKeys(final KvStoreColumn<K, V> column) {
+    return accessorFor(column).streamKeys(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<ColumnEntry<Bytes, Bytes>> streamRaw(final KvStoreColumn<?, ?> column) {
+    return accessorFor(column).streamRaw(column);
+  }
+
+  @Override
+  public <K, V> Optional<Bytes> getRaw(final KvStoreColumn<K, V> column, final K key) {
+    return accessorFor(column).getRaw(column, key);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K extends Comparable<K>, V> Stream<ColumnEntry<K, V>> stream(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return accessorFor(column).stream(column, from, to);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K extends Comparable<K>, V> Stream<K> streamKeys(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return accessorFor(column).streamKeys(column, from, to);
+  }
+
+  @Override
+  public KvStoreTransaction startTransaction() {
+    return new RoutingTransaction(mainAccessor.startTransaction());
+  }
+
+  @Override
+  public void ingestRaw(
+      final KvStoreColumn<?, ?> column, final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    accessorFor(column).ingestRaw(column, sortedEntries);
+  }
+
+  @Override
+  public boolean isSecondary() {
+    return mainAccessor.isSecondary();
+  }
+
+  @Override
+  public void catchUpWithPrimary() {
+    mainAccessor.catchUpWithPrimary();
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      mainAccessor.close();
+    } finally {
+      routedAccessor.close();
+    }
+  }
+
+  /**
+   * Applies operations on unrouted columns and variables directly to the main transaction and
+   * buffers operations on routed columns, keeping the last value written to each key.
+   */
+  private class RoutingTransaction implements KvStoreTransaction {
+    private final KvStoreTransaction mainTransaction;
+    private final Map<RoutedKey, RoutedUpdate> routedUpdates = new LinkedHashMap<>();
+    private boolean closed = false;
+
+    private RoutingTransaction(final KvStoreTransaction mainTransaction) {
+      this.mainTransaction = mainTransaction;
+    }
+
+    @Override
+    public <T> void put(final KvStoreVariable<T> variable, final T value) {
+      mainTransaction.put(variable, value);
+    }
+
+    @Override
+    public <T> void putRaw(final KvStoreVariable<T> variable, final Bytes value) {
+      mainTransaction.putRaw(variable, value);
+    }
+
+    @Override
+    public <K, V> void put(final KvStoreColumn<K, V> column, final K key, final V value) {
+      if (isRouted(column)) {
+        putRaw(
+            column,
+            Bytes.wrap(column.getKeySerializer().serialize(key)),
+            Bytes.wrap(column.getValueSerializer().serialize(value)));
+      } else {
+        mainTransaction.put(column, key, value);
+      }
+    }
+
+    @Override
+    public <K, V> void putRaw(
+        final KvStoreColumn<K, V> column, final Bytes key, final Bytes value) {
+      if (isRouted(column)) {
+        assertOpen();
+        routedUpdates.put(
+            new RoutedKey(column, key),
+            new RoutedUpdate(true, transaction -> transaction.putRaw(column, key, value)));
+      } else {
+        mainTransaction.putRaw(column, key, value);
+      }
+    }
+
+    @Override
+    public <K, V> void put(final KvStoreColumn<K, V> column, final Map<K, V> data) {
+      if (isRouted(column)) {
+        data.forEach((key, value) -> put(column, key, value));
+      } else {
+        mainTransaction.put(column, data);
+      }
+    }
+
+    @Override
+    public <K, V> void delete(final KvStoreColumn<K, V> column, final K key) {
+      if (isRouted(column)) {
+        assertOpen();
+        final Bytes keyBytes = Bytes.wrap(column.getKeySerializer().serialize(key));
+        routedUpdates.put(
+            new RoutedKey(column, keyBytes),
+            new RoutedUpdate(false, transaction -> transaction.delete(column, key)));
+      } else {
+        mainTransaction.delete(column, key);
+      }
+    }
+
+    @Override
+    public <T> void delete(final KvStoreVariable<T> variable) {
+      mainTransaction.delete(variable);
+    }
+
+    @Override
+    public void commit() {
+      assertOpen();
+      try {
+        applyRoutedUpdates(true);
+        mainTransaction.commit();
+        applyRoutedUpdates(false);
+      } finally {
+        close();
+      }
+    }
+
+    private void applyRoutedUpdates(final boolean puts) {
+      if (routedUpdates.values().stream().noneMatch(update -> update.isPut == puts)) {
+        return;
+      }
+      try (final KvStoreTransaction transaction = routedAccessor.startTransaction()) {
+        routedUpdates.values().stream()
+            .filter(update -> update.isPut == puts)
+            .forEach(update -> update.apply.accept(transaction));
+        transaction.commit();
+      }
+    }
+
+    @Override
+    public void rollback() {
+      try {
+        mainTransaction.rollback();
+      } finally {
+        close();
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      routedUpdates.clear();
+      mainTransaction.close();
+    }
+
+    private void assertOpen() {
+      checkState(!closed, "Attempt to update a closed transaction");
+    }
+  }
+
+  private static class RoutedUpdate {
+    private final boolean isPut;
+    private final Consumer<KvStoreTransaction> apply;
+
+    private RoutedUpdate(final boolean isPut, final Consumer<KvStoreTransaction> apply) {
+      this.isPut = isPut;
+      this.apply = apply;
+    }
+  }
+
+  private static class RoutedKey {
+    private final Bytes columnId;
+    private final Bytes key;
+
+    private RoutedKey(final KvStoreColumn<?, ?> column, final Bytes key) {
+      this.columnId = column.getId();
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final RoutedKey that = (RoutedKey) o;
+      return columnId.equals(that.columnId) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(columnId, key);
+    }
+  }
+}
@@ -14,6 +14,7 @@
 package tech.pegasys.teku.storage.server.kvstore;
 
 import com.google.errorprone.annotations.MustBeClosed;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -22,6 +23,7 @@ import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
 
 public interface KvStoreAccessor extends AutoCloseable {
+  long INGEST_BATCH_BYTES = 64 * 1024 * 1024;
 
   <T> Optional<T> get(KvStoreVariable<T> variable);
 
@@ -44,6 +46,17 @@ public interface KvStoreAccessor extends AutoCloseable {
    */
   <K, V> Optional<ColumnEntry<K, V>> getFloorEntry(KvStoreColumn<K, V> column, K key);
 
+  /**
+   * Returns the last key less than or equal to the given key without loading the associated value.
+   *
+   * @param column The column we want to query
+   * @param key The requested key
+   * @param <K> The key type of the column
+   * @param <V> The value type of the column
+   * @return The last key less than or equal to the given {@code key}
+   */
+  <K, V> Optional<K> getFloorKey(KvStoreColumn<K, V> column, K key);
+
   /**
    * Returns the first entry in the given column.
    *
@@ -107,6 +120,42 @@ public interface KvStoreAccessor extends AutoCloseable {
 
   KvStoreTransaction startTransaction();
 
+  /**
+   * Bulk loads raw entries into a column. Implementations may bypass the transaction path, so the
+   * entries only become visible once they have all been loaded and are not applied atomically.
+   *
+   * <p>WARNING: should only be used to import data into a database which isn't otherwise in use
+   *
+   * @param column the column to load the entries into
+   * @param sortedEntries entries in strictly ascending key order
+   */
+  default void ingestRaw(
+      final KvStoreColumn<?, ?> column, final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    while (sortedEntries.hasNext()) {
+      try (final KvStoreTransaction transaction = startTransaction()) {
+        long batchBytes = 0;
+        while (sortedEntries.hasNext() && batchBytes < INGEST_BATCH_BYTES) {
+          final ColumnEntry<Bytes, Bytes> entry = sortedEntries.next();
+          transaction.putRaw(column, entry.getKey(), entry.getValue());
+          batchBytes += entry.getKey().size() + entry.getValue().size();
+        }
+        transaction.commit();
+      }
+    }
+  }
+
+  /**
+   * Returns true if this is a read-only secondary instance following a database that is written to
+   * by another process.
+   */
+  boolean isSecondary();
+
+  /**
+   * Makes changes written by the primary instance since the last catch up visible to this secondary
+   * instance. Has no effect on primary instances.
+   */
+  void catchUpWithPrimary();
+
   interface KvStoreTransaction extends AutoCloseable {
 
     <T> void put(KvStoreVariable<T> variable, T value);
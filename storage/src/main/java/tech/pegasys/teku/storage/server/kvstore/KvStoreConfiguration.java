@@ -19,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.google.common.base.MoreObjects;
 import java.nio.file.Path;
+import java.util.Optional;
 import org.rocksdb.CompressionType;
 
 /**
@@ -54,6 +55,7 @@ public class KvStoreConfiguration {
   public static final long DEFAULT_CACHE_CAPACITY = 8 << 20;
   public static final long DEFAULT_WRITE_BUFFER_CAPACITY = 128 << 20;
   private static final boolean DEFAULT_OPTIMISE_FOR_SMALL_DB = false;
+  public static final boolean DEFAULT_COLUMN_PROFILES_ENABLED = true;
 
   /* --------------- Safe to Change Properties ------------ */
 
@@ -81,6 +83,10 @@ public class KvStoreConfiguration {
   @JsonProperty(value = "writeBufferCapacity", access = Access.WRITE_ONLY)
   private long writeBufferCapacity = DEFAULT_WRITE_BUFFER_CAPACITY;
 
+  // Profiles only affect newly written tables so can be toggled for existing databases
+  @JsonProperty(value = "columnProfilesEnabled", access = Access.WRITE_ONLY)
+  private boolean columnProfilesEnabled = DEFAULT_COLUMN_PROFILES_ENABLED;
+
   // Safe to change but written to file as we need different defaults for hot and finalized
   @JsonProperty(value = "optimizeForSmallDb")
   private boolean optimizeForSmallDb = DEFAULT_OPTIMISE_FOR_SMALL_DB;
@@ -95,6 +101,8 @@ public class KvStoreConfiguration {
 
   @JsonIgnore private Path databaseDir;
 
+  @JsonIgnore private Optional<Path> secondaryDir = Optional.empty();
+
   public static KvStoreConfiguration v4Settings(final Path databaseDir) {
     return new KvStoreConfiguration().withDatabaseDir(databaseDir);
   }
@@ -118,10 +126,28 @@ public class KvStoreConfiguration {
     return this;
   }
 
+  /**
+   * Opens the database at {@link #getDatabaseDir()} as a read-only secondary instance, keeping the
+   * secondary instance's own files in the given directory.
+   */
+  public KvStoreConfiguration withSecondaryDir(final Path secondaryDir) {
+    this.secondaryDir = Optional.of(secondaryDir);
+    return this;
+  }
+
+  public KvStoreConfiguration withColumnProfilesEnabled(final boolean columnProfilesEnabled) {
+    this.columnProfilesEnabled = columnProfilesEnabled;
+    return this;
+  }
+
   public Path getDatabaseDir() {
     return databaseDir;
   }
 
+  public Optional<Path> getSecondaryDir() {
+    return secondaryDir;
+  }
+
   public int getMaxOpenFiles() {
     return maxOpenFiles;
   }
@@ -166,6 +192,10 @@ public class KvStoreConfiguration {
     return optimizeForSmallDb;
   }
 
+  public boolean isColumnProfilesEnabled() {
+    return columnProfilesEnabled;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -174,6 +204,7 @@ public class KvStoreConfiguration {
         .add("backgroundThreadCount", backgroundThreadCount)
         .add("cacheCapacity", cacheCapacity)
         .add("writeBufferCapacity", writeBufferCapacity)
+        .add("columnProfilesEnabled", columnProfilesEnabled)
         .add("compressionType", compressionType)
         .add("bottomMostCompressionType", bottomMostCompressionType)
         .add("databaseDir", databaseDir)
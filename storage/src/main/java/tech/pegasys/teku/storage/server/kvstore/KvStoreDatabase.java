@@ -20,6 +20,7 @@ import static tech.pegasys.teku.infrastructure.unsigned.UInt64.ONE;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.errorprone.annotations.MustBeClosed;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -47,6 +48,7 @@ import tech.pegasys.teku.ethereum.pow.api.MinGenesisTimeBlockEvent;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.config.SpecConfig;
 import tech.pegasys.teku.spec.datastructures.blocks.BeaconBlockHeader;
 import tech.pegasys.teku.spec.datastructures.blocks.BeaconBlockSummary;
 import tech.pegasys.teku.spec.datastructures.blocks.BlockAndCheckpoints;
@@ -70,17 +72,22 @@ import tech.pegasys.teku.storage.api.WeakSubjectivityState;
 import tech.pegasys.teku.storage.api.WeakSubjectivityUpdate;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.StateStorageMode;
+import tech.pegasys.teku.storage.server.blockarchive.BlockArchive;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.ArchiveFinalizedBlockStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.CombinedKvStoreDao;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.FinalizedBlockStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreCombinedDao;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreCombinedDao.CombinedUpdater;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreCombinedDao.FinalizedUpdater;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreCombinedDao.HotUpdater;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreCombinedDaoAdapter;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.KvStoreFinalizedBlockStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedKvStoreDao;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateSnapshotStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateTreeStorageLogic;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4HotKvStoreDao;
+import tech.pegasys.teku.storage.server.kvstore.index.RootIndexedKvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedSnapshotState;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedTreeState;
@@ -91,6 +98,8 @@ import tech.pegasys.teku.storage.server.state.StateRootRecorder;
 public class KvStoreDatabase implements Database {
 
   protected static final int TX_BATCH_SIZE = 500;
+  // States are large so only move a few in each transaction
+  private static final int RETIER_BATCH_SIZE = 8;
   private static final Logger LOG = LogManager.getLogger();
   protected final Spec spec;
   protected final boolean storeNonCanonicalBlocks;
@@ -130,17 +139,33 @@ public class KvStoreDatabase implements Database {
   }
 
   public static Database createWithStateSnapshots(
+      final MetricsSystem metricsSystem,
       final KvStoreAccessor db,
       final SchemaCombinedSnapshotState schema,
       final StateStorageMode stateStorageMode,
       final long stateStorageFrequency,
+      final boolean stateTieringEnabled,
       final boolean storeNonCanonicalBlocks,
+      final Optional<Path> blockArchiveDirectory,
       final Spec spec) {
+    // Tiering only applies to archive nodes which keep states for the whole chain
+    final Optional<UInt64> stateDiffFrequency =
+        stateTieringEnabled && stateStorageMode.storesFinalizedStates()
+            ? Optional.of(UInt64.valueOf(spec.getSlotsPerEpoch(SpecConfig.GENESIS_EPOCH)))
+            : Optional.empty();
     final V4FinalizedStateSnapshotStorageLogic<SchemaCombinedSnapshotState>
         finalizedStateStorageLogic =
-            new V4FinalizedStateSnapshotStorageLogic<>(stateStorageFrequency);
+            new V4FinalizedStateSnapshotStorageLogic<>(
+                metricsSystem, stateStorageFrequency, stateDiffFrequency);
     return create(
-        db, schema, stateStorageMode, storeNonCanonicalBlocks, spec, finalizedStateStorageLogic);
+        metricsSystem,
+        db,
+        schema,
+        stateStorageMode,
+        storeNonCanonicalBlocks,
+        spec,
+        finalizedStateStorageLogic,
+        blockArchiveDirectory);
   }
 
   public static Database createWithStateTree(
@@ -150,22 +175,47 @@ public class KvStoreDatabase implements Database {
       final StateStorageMode stateStorageMode,
       final boolean storeNonCanonicalBlocks,
       final int maxKnownNodeCacheSize,
+      final Optional<Path> blockArchiveDirectory,
       final Spec spec) {
     final V4FinalizedStateStorageLogic<SchemaCombinedTreeState> finalizedStateStorageLogic =
         new V4FinalizedStateTreeStorageLogic(metricsSystem, spec, maxKnownNodeCacheSize);
     return create(
-        db, schema, stateStorageMode, storeNonCanonicalBlocks, spec, finalizedStateStorageLogic);
+        metricsSystem,
+        db,
+        schema,
+        stateStorageMode,
+        storeNonCanonicalBlocks,
+        spec,
+        finalizedStateStorageLogic,
+        blockArchiveDirectory);
   }
 
   private static <S extends SchemaCombined> KvStoreDatabase create(
-      final KvStoreAccessor db,
+      final MetricsSystem metricsSystem,
+      final KvStoreAccessor unindexedDb,
       final S schema,
       final StateStorageMode stateStorageMode,
       final boolean storeNonCanonicalBlocks,
       final Spec spec,
-      final V4FinalizedStateStorageLogic<S> finalizedStateStorageLogic) {
+      final V4FinalizedStateStorageLogic<S> finalizedStateStorageLogic,
+      final Optional<Path> blockArchiveDirectory) {
+    // Secondary instances can't see which roots the primary adds so can't keep an index
+    final KvStoreAccessor db =
+        unindexedDb.isSecondary()
+            ? unindexedDb
+            : RootIndexedKvStoreAccessor.create(unindexedDb, schema, metricsSystem);
+    final FinalizedBlockStorageLogic<S> finalizedBlockStorageLogic;
+    if (blockArchiveDirectory.isPresent()) {
+      final ArchiveFinalizedBlockStorageLogic<S> archiveStorageLogic =
+          new ArchiveFinalizedBlockStorageLogic<>(BlockArchive.open(blockArchiveDirectory.get()));
+      archiveStorageLogic.migrateFromColumn(db, schema);
+      finalizedBlockStorageLogic = archiveStorageLogic;
+    } else {
+      finalizedBlockStorageLogic = new KvStoreFinalizedBlockStorageLogic<>();
+    }
     final CombinedKvStoreDao<S> dao =
-        new CombinedKvStoreDao<>(db, schema, finalizedStateStorageLogic);
+        new CombinedKvStoreDao<>(
+            db, schema, finalizedStateStorageLogic, finalizedBlockStorageLogic);
     return new KvStoreDatabase(dao, stateStorageMode, storeNonCanonicalBlocks, spec);
   }
 
@@ -342,6 +392,22 @@ public class KvStoreDatabase implements Database {
     }
   }
 
+  @Override
+  public void catchUpWithPrimary() {
+    dao.catchUpWithPrimary();
+  }
+
+  @Override
+  public void retierFinalizedStates() {
+    int movedStates;
+    do {
+      try (final FinalizedUpdater updater = finalizedUpdater()) {
+        movedStates = updater.retierFinalizedStates(RETIER_BATCH_SIZE);
+        updater.commit();
+      }
+    } while (movedStates == RETIER_BATCH_SIZE);
+  }
+
   protected void updateHotBlocks(
       final HotUpdater updater,
       final Map<Bytes32, BlockAndCheckpoints> addedBlocks,
@@ -429,7 +495,22 @@ public class KvStoreDatabase implements Database {
     if (event.isEmpty()) {
       return UpdateResult.EMPTY;
     }
-    return doUpdate(event);
+    try {
+      return doUpdate(event);
+    } finally {
+      dao.discardPreSerializedHotData(getHotBlocks(event), event.getHotStates().values());
+    }
+  }
+
+  @Override
+  public void prepareUpdate(final StorageUpdate event) {
+    dao.preSerializeHotData(getHotBlocks(event), event.getHotStates().values());
+  }
+
+  private static List<SignedBeaconBlock> getHotBlocks(final StorageUpdate event) {
+    return event.getHotBlocks().values().stream()
+        .map(BlockAndCheckpoints::getBlock)
+        .collect(Collectors.toList());
   }
 
   public void ingestDatabase(
@@ -437,6 +518,14 @@ public class KvStoreDatabase implements Database {
     dao.ingest(kvStoreDatabase.dao, batchSize, logger);
   }
 
+  public void exportDatabase(final Path directory, final Consumer<String> logger) {
+    dao.exportData(directory, logger);
+  }
+
+  public void importDatabase(final Path directory, final Consumer<String> logger) {
+    dao.importData(directory, logger);
+  }
+
   @Override
   public void storeFinalizedBlocks(final Collection<SignedBeaconBlock> blocks) {
     if (blocks.isEmpty()) {
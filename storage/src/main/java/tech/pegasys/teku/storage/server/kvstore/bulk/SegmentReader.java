@@ -0,0 +1,113 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.bulk;
+
+import com.google.common.collect.AbstractIterator;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import org.xerial.snappy.SnappyFramedInputStream;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+
+/** Reads back the entries of a segment sequence written by {@link SegmentWriter} in order. */
+public class SegmentReader extends AbstractIterator<ColumnEntry<Bytes, Bytes>>
+    implements AutoCloseable {
+
+  private final Iterator<Path> files;
+  private Path currentFile;
+  private DataInputStream in;
+
+  private SegmentReader(final List<Path> files) {
+    this.files = files.iterator();
+  }
+
+  public static SegmentReader open(final Path directory, final String name) {
+    try {
+      return new SegmentReader(Segments.listFiles(directory, name));
+    } catch (IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to list segments in " + directory, e);
+    }
+  }
+
+  @Override
+  protected ColumnEntry<Bytes, Bytes> computeNext() {
+    try {
+      while (true) {
+        if (in == null) {
+          if (!files.hasNext()) {
+            return endOfData();
+          }
+          openNextFile();
+        }
+        // A record can only start at the end of a file, so EOF here is a clean end of segment
+        final int firstByte = in.read();
+        if (firstByte < 0) {
+          close();
+          continue;
+        }
+        final Bytes key = readBytes(firstByte);
+        final Bytes value = readBytes(in.read());
+        return ColumnEntry.create(key, value);
+      }
+    } catch (IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to read segment " + currentFile, e);
+    }
+  }
+
+  private void openNextFile() throws IOException {
+    currentFile = files.next();
+    in =
+        new DataInputStream(
+            new SnappyFramedInputStream(
+                new BufferedInputStream(Files.newInputStream(currentFile))));
+    final byte[] magic = new byte[Segments.MAGIC.length];
+    in.readFully(magic);
+    if (!Arrays.equals(magic, Segments.MAGIC)) {
+      throw DatabaseStorageException.unrecoverable(currentFile + " is not a segment file");
+    }
+  }
+
+  private Bytes readBytes(final int firstLengthByte) throws IOException {
+    if (firstLengthByte < 0) {
+      throw DatabaseStorageException.unrecoverable("Segment " + currentFile + " is truncated");
+    }
+    final byte[] lengthBytes = new byte[Integer.BYTES];
+    lengthBytes[0] = (byte) firstLengthByte;
+    in.readFully(lengthBytes, 1, Integer.BYTES - 1);
+    final int length = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    if (length < 0) {
+      throw DatabaseStorageException.unrecoverable("Segment " + currentFile + " is corrupt");
+    }
+    final byte[] data = new byte[length];
+    in.readFully(data);
+    return Bytes.wrap(data);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+      in = null;
+    }
+  }
+}
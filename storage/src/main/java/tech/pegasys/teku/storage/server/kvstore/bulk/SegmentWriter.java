@@ -0,0 +1,102 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.bulk;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.tuweni.bytes.Bytes;
+import org.xerial.snappy.SnappyFramedOutputStream;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+
+/**
+ * Writes raw key value entries to a sequence of snappy framed segment files.
+ *
+ * <p>Each file starts with {@link Segments#MAGIC}, followed by records made up of a 4 byte little
+ * endian key length, the key, a 4 byte little endian value length and the value. Values are stored
+ * exactly as they are in the database, so blocks and states remain SSZ encoded. A new file is
+ * started once the current one holds {@code maxSegmentBytes} of uncompressed data.
+ */
+public class SegmentWriter implements AutoCloseable {
+  public static final long DEFAULT_MAX_SEGMENT_BYTES = 1024L * 1024 * 1024;
+
+  private final Path directory;
+  private final String name;
+  private final long maxSegmentBytes;
+  private final ByteBuffer lengthBuffer =
+      ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+  private OutputStream out;
+  private int segmentCount = 0;
+  private long segmentBytes = 0;
+  private long entryCount = 0;
+
+  public SegmentWriter(final Path directory, final String name) {
+    this(directory, name, DEFAULT_MAX_SEGMENT_BYTES);
+  }
+
+  public SegmentWriter(final Path directory, final String name, final long maxSegmentBytes) {
+    checkArgument(maxSegmentBytes > 0, "Max segment size must be positive");
+    this.directory = directory;
+    this.name = name;
+    this.maxSegmentBytes = maxSegmentBytes;
+  }
+
+  public void write(final ColumnEntry<Bytes, Bytes> entry) throws IOException {
+    if (out == null || segmentBytes >= maxSegmentBytes) {
+      startSegment();
+    }
+    writeBytes(entry.getKey());
+    writeBytes(entry.getValue());
+    segmentBytes += 2L * Integer.BYTES + entry.getKey().size() + entry.getValue().size();
+    entryCount++;
+  }
+
+  public long getEntryCount() {
+    return entryCount;
+  }
+
+  private void startSegment() throws IOException {
+    close();
+    out =
+        new SnappyFramedOutputStream(
+            new BufferedOutputStream(
+                Files.newOutputStream(
+                    directory.resolve(Segments.getFileName(name, segmentCount)))));
+    out.write(Segments.MAGIC);
+    segmentCount++;
+    segmentBytes = 0;
+  }
+
+  private void writeBytes(final Bytes bytes) throws IOException {
+    lengthBuffer.clear();
+    lengthBuffer.putInt(bytes.size());
+    out.write(lengthBuffer.array());
+    out.write(bytes.toArrayUnsafe());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (out != null) {
+      out.close();
+      out = null;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.bulk;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Naming of the segment files written by {@link SegmentWriter}. */
+public class Segments {
+  static final byte[] MAGIC = "tekuseg1".getBytes(StandardCharsets.US_ASCII);
+  private static final String FILE_SUFFIX = ".ssz_snappy";
+  private static final Pattern FILE_NAME_PATTERN =
+      Pattern.compile("(.+)\\.(\\d{5,})" + Pattern.quote(FILE_SUFFIX));
+
+  private Segments() {}
+
+  static String getFileName(final String name, final int segmentIndex) {
+    return String.format("%s.%05d%s", name, segmentIndex, FILE_SUFFIX);
+  }
+
+  /** Returns the names of all segment sequences in the directory. */
+  public static Set<String> listNames(final Path directory) throws IOException {
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> FILE_NAME_PATTERN.matcher(file.getFileName().toString()))
+          .filter(Matcher::matches)
+          .map(matcher -> matcher.group(1))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  /** Returns the files of a segment sequence in the order they were written. */
+  static List<Path> listFiles(final Path directory, final String name) throws IOException {
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files
+          .map(file -> FILE_NAME_PATTERN.matcher(file.getFileName().toString()))
+          .filter(matcher -> matcher.matches() && matcher.group(1).equals(name))
+          .sorted(Comparator.comparingLong(matcher -> Long.parseLong(matcher.group(2))))
+          .map(matcher -> directory.resolve(matcher.group()))
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright ConsenSys Software Inc., 2020
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import com.google.errorprone.annotations.MustBeClosed;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.storage.server.blockarchive.BlockArchive;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+
+/**
+ * Stores finalized blocks in a {@link BlockArchive} instead of the database, avoiding compaction
+ * of immutable data. Blocks are stored using the same serialization as the finalized blocks by slot
+ * column so they can be migrated without being deserialized.
+ */
+public class ArchiveFinalizedBlockStorageLogic<S extends SchemaCombined>
+    implements FinalizedBlockStorageLogic<S> {
+  private static final Logger LOG = LogManager.getLogger();
+  static final int MIGRATION_BATCH_SIZE = 1024;
+
+  private final BlockArchive archive;
+
+  public ArchiveFinalizedBlockStorageLogic(final BlockArchive archive) {
+    this.archive = archive;
+  }
+
+  @Override
+  public Optional<SignedBeaconBlock> getFinalizedBlockAtSlot(
+      final KvStoreAccessor db, final S schema, final UInt64 slot) {
+    return archive.get(slot).map(data -> deserialize(schema, data));
+  }
+
+  @Override
+  public Optional<UInt64> getEarliestFinalizedBlockSlot(final KvStoreAccessor db, final S schema) {
+    return archive.getFirstEntry().map(Map.Entry::getKey);
+  }
+
+  @Override
+  public Optional<SignedBeaconBlock> getEarliestFinalizedBlock(
+      final KvStoreAccessor db, final S schema) {
+    return archive.getFirstEntry().map(entry -> deserialize(schema, entry.getValue()));
+  }
+
+  @Override
+  public Optional<SignedBeaconBlock> getLatestFinalizedBlockAtSlot(
+      final KvStoreAccessor db, final S schema, final UInt64 slot) {
+    return archive.getFloorEntry(slot).map(entry -> deserialize(schema, entry.getValue()));
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<SignedBeaconBlock> streamFinalizedBlocks(
+      final KvStoreAccessor db, final S schema, final UInt64 startSlot, final UInt64 endSlot) {
+    return archive.stream(startSlot, endSlot).map(entry -> deserialize(schema, entry.getValue()));
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<ColumnEntry<Bytes, Bytes>> streamRawFinalizedBlocks(
+      final KvStoreAccessor db, final S schema) {
+    final KvStoreColumn<UInt64, SignedBeaconBlock> column = schema.getColumnFinalizedBlocksBySlot();
+    return archive.stream(UInt64.ZERO, UInt64.MAX_VALUE)
+        .map(
+            entry ->
+                ColumnEntry.create(
+                    Bytes.wrap(column.getKeySerializer().serialize(entry.getKey())),
+                    entry.getValue()));
+  }
+
+  @Override
+  public void ingestRawFinalizedBlocks(
+      final KvStoreAccessor db,
+      final S schema,
+      final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    // The archive is append only so there is no faster path, just avoid large commits
+    final KvStoreColumn<UInt64, SignedBeaconBlock> column = schema.getColumnFinalizedBlocksBySlot();
+    final BlockArchive.Updater archiveUpdater = archive.updater();
+    int batchSize = 0;
+    while (sortedEntries.hasNext()) {
+      final ColumnEntry<Bytes, Bytes> entry = sortedEntries.next();
+      archiveUpdater.put(
+          column.getKeySerializer().deserialize(entry.getKey().toArrayUnsafe()), entry.getValue());
+      if (++batchSize >= MIGRATION_BATCH_SIZE) {
+        archiveUpdater.commit();
+        batchSize = 0;
+      }
+    }
+    archiveUpdater.commit();
+  }
+
+  @Override
+  public FinalizedBlockUpdater<S> updater() {
+    final BlockArchive.Updater archiveUpdater = archive.updater();
+    return new FinalizedBlockUpdater<>() {
+      @Override
+      public void addFinalizedBlock(
+          final KvStoreTransaction transaction, final S schema, final SignedBeaconBlock block) {
+        archiveUpdater.put(block.getSlot(), serialize(schema, block));
+      }
+
+      @Override
+      public void deleteFinalizedBlock(
+          final KvStoreTransaction transaction, final S schema, final UInt64 slot) {
+        archiveUpdater.delete(slot);
+      }
+
+      @Override
+      public void commitAdditions() {
+        archiveUpdater.commitPuts();
+      }
+
+      @Override
+      public void commitDeletions() {
+        archiveUpdater.commitDeletes();
+      }
+    };
+  }
+
+  /**
+   * Moves any blocks still stored in the finalized blocks by slot column into the archive. Each
+   * batch is committed to the archive before being deleted from the column so the migration can be
+   * safely interrupted and resumed.
+   */
+  public void migrateFromColumn(final KvStoreAccessor db, final S schema) {
+    final KvStoreColumn<UInt64, SignedBeaconBlock> column = schema.getColumnFinalizedBlocksBySlot();
+    long migratedCount = 0;
+    try (final Stream<ColumnEntry<Bytes, Bytes>> entries = db.streamRaw(column)) {
+      final Iterator<ColumnEntry<Bytes, Bytes>> iterator = entries.iterator();
+      if (!iterator.hasNext()) {
+        return;
+      }
+      LOG.info("Migrating finalized blocks to block archive at {}", archive.getDirectory());
+      final List<UInt64> batchSlots = new ArrayList<>(MIGRATION_BATCH_SIZE);
+      final BlockArchive.Updater archiveUpdater = archive.updater();
+      while (iterator.hasNext()) {
+        final ColumnEntry<Bytes, Bytes> entry = iterator.next();
+        final UInt64 slot = column.getKeySerializer().deserialize(entry.getKey().toArrayUnsafe());
+        archiveUpdater.put(slot, entry.getValue());
+        batchSlots.add(slot);
+        if (batchSlots.size() >= MIGRATION_BATCH_SIZE || !iterator.hasNext()) {
+          archiveUpdater.commit();
+          try (final KvStoreTransaction transaction = db.startTransaction()) {
+            batchSlots.forEach(batchSlot -> transaction.delete(column, batchSlot));
+            transaction.commit();
+          }
+          migratedCount += batchSlots.size();
+          batchSlots.clear();
+          LOG.info("Migrated {} finalized blocks, last slot {}", migratedCount, slot);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    archive.close();
+  }
+
+  private Bytes serialize(final S schema, final SignedBeaconBlock block) {
+    return Bytes.wrap(
+        schema.getColumnFinalizedBlocksBySlot().getValueSerializer().serialize(block));
+  }
+
+  private SignedBeaconBlock deserialize(final S schema, final Bytes data) {
+    return schema
+        .getColumnFinalizedBlocksBySlot()
+        .getValueSerializer()
+        .deserialize(data.toArrayUnsafe());
+  }
+}
@@ -14,16 +14,23 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.errorprone.annotations.MustBeClosed;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -41,28 +48,40 @@ import tech.pegasys.teku.spec.datastructures.execution.versions.eip4844.BlobsSid
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
 import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
 import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.bulk.SegmentReader;
+import tech.pegasys.teku.storage.server.kvstore.bulk.SegmentWriter;
+import tech.pegasys.teku.storage.server.kvstore.bulk.Segments;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.FinalizedBlockStorageLogic.FinalizedBlockUpdater;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateStorageLogic.FinalizedStateUpdater;
 import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+import tech.pegasys.teku.storage.server.kvstore.serialization.PreSerializingSerializer;
 
 public class CombinedKvStoreDao<S extends SchemaCombined>
     implements KvStoreCombinedDao, V4MigratableSourceDao {
+  private static final String VARIABLES_SEGMENT_NAME = "VARIABLES";
+
   // Persistent data
   private final KvStoreAccessor db;
   private final S schema;
   private final V4FinalizedStateStorageLogic<S> stateStorageLogic;
+  private final FinalizedBlockStorageLogic<S> blockStorageLogic;
+  private final HotStateStorageLogic<S> hotStateStorageLogic = new HotStateStorageLogic<>();
 
   public CombinedKvStoreDao(
       final KvStoreAccessor db,
       final S schema,
-      final V4FinalizedStateStorageLogic<S> stateStorageLogic) {
+      final V4FinalizedStateStorageLogic<S> stateStorageLogic,
+      final FinalizedBlockStorageLogic<S> blockStorageLogic) {
     this.db = db;
     this.schema = schema;
     this.stateStorageLogic = stateStorageLogic;
+    this.blockStorageLogic = blockStorageLogic;
   }
 
   @Override
@@ -102,7 +121,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
 
   @Override
   public Optional<BeaconState> getHotState(final Bytes32 root) {
-    return db.get(schema.getColumnHotStatesByRoot(), root);
+    return hotStateStorageLogic.getHotState(db, schema, root);
   }
 
   @Override
@@ -180,7 +199,40 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
   @Override
   @MustBeClosed
   public CombinedUpdater combinedUpdater() {
-    return new V4CombinedUpdater<>(db, schema, stateStorageLogic.updater());
+    return new V4CombinedUpdater<>(
+        db,
+        schema,
+        stateStorageLogic.updater(),
+        blockStorageLogic.updater(),
+        hotStateStorageLogic.updater());
+  }
+
+  @Override
+  public void preSerializeHotData(
+      final Collection<SignedBeaconBlock> blocks, final Collection<BeaconState> states) {
+    // Hot states are stored as diffs against the finalized state when written, so only the
+    // blocks are serialized ahead of time
+    forEachPreSerializing(
+        schema.getColumnHotBlocksByRoot(), blocks, PreSerializingSerializer::preSerialize);
+  }
+
+  @Override
+  public void discardPreSerializedHotData(
+      final Collection<SignedBeaconBlock> blocks, final Collection<BeaconState> states) {
+    forEachPreSerializing(
+        schema.getColumnHotBlocksByRoot(), blocks, PreSerializingSerializer::discard);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void forEachPreSerializing(
+      final KvStoreColumn<?, T> column,
+      final Collection<T> values,
+      final BiConsumer<PreSerializingSerializer<T>, T> action) {
+    if (column.getValueSerializer() instanceof PreSerializingSerializer) {
+      final PreSerializingSerializer<T> serializer =
+          (PreSerializingSerializer<T>) column.getValueSerializer();
+      values.forEach(value -> action.accept(serializer, value));
+    }
   }
 
   @Override
@@ -223,6 +275,97 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
     }
   }
 
+  @Override
+  public void exportData(final Path directory, final Consumer<String> logger) {
+    try {
+      Files.createDirectories(directory);
+      try (final SegmentWriter writer = new SegmentWriter(directory, VARIABLES_SEGMENT_NAME)) {
+        for (Map.Entry<String, KvStoreVariable<?>> variable : schema.getVariableMap().entrySet()) {
+          final Optional<Bytes> value = db.getRaw(variable.getValue());
+          if (value.isPresent()) {
+            writer.write(
+                ColumnEntry.create(Bytes.wrap(variable.getKey().getBytes(UTF_8)), value.get()));
+          }
+        }
+      }
+      for (Map.Entry<String, KvStoreColumn<?, ?>> column : schema.getColumnMap().entrySet()) {
+        logger.accept(String.format("Export column %s", column.getKey()));
+        try (final Stream<ColumnEntry<Bytes, Bytes>> entries =
+                streamRawForExport(column.getValue());
+            final SegmentWriter writer = new SegmentWriter(directory, column.getKey())) {
+          final Iterator<ColumnEntry<Bytes, Bytes>> iterator = entries.iterator();
+          while (iterator.hasNext()) {
+            writer.write(iterator.next());
+          }
+          logger.accept(String.format(" => Exported %,d entries", writer.getEntryCount()));
+        }
+      }
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to export database to " + directory, e);
+    }
+  }
+
+  @MustBeClosed
+  private Stream<ColumnEntry<Bytes, Bytes>> streamRawForExport(final KvStoreColumn<?, ?> column) {
+    // Finalized blocks may be stored outside the database
+    return column.equals(schema.getColumnFinalizedBlocksBySlot())
+        ? blockStorageLogic.streamRawFinalizedBlocks(db, schema)
+        : db.streamRaw(column);
+  }
+
+  @Override
+  public void importData(final Path directory, final Consumer<String> logger) {
+    checkState(
+        getGenesisTime().isEmpty() && getAnchor().isEmpty(),
+        "Cannot import into a database which already contains data");
+    try {
+      final Set<String> names = Segments.listNames(directory);
+      checkArgument(
+          names.contains(VARIABLES_SEGMENT_NAME), "No database export found in %s", directory);
+      final Map<String, KvStoreColumn<?, ?>> columns = schema.getColumnMap();
+      for (String name : names) {
+        checkArgument(
+            name.equals(VARIABLES_SEGMENT_NAME) || columns.containsKey(name),
+            "Cannot import column %s as it is not supported by this database format",
+            name);
+      }
+
+      for (Map.Entry<String, KvStoreColumn<?, ?>> column : columns.entrySet()) {
+        if (!names.contains(column.getKey())) {
+          continue;
+        }
+        logger.accept(String.format("Import column %s", column.getKey()));
+        try (final SegmentReader reader = SegmentReader.open(directory, column.getKey())) {
+          if (column.getValue().equals(schema.getColumnFinalizedBlocksBySlot())) {
+            blockStorageLogic.ingestRawFinalizedBlocks(db, schema, reader);
+          } else {
+            db.ingestRaw(column.getValue(), reader);
+          }
+        }
+      }
+
+      // Variables go last so the database isn't usable until all columns are loaded
+      final Map<String, KvStoreVariable<?>> variables = schema.getVariableMap();
+      try (final SegmentReader reader = SegmentReader.open(directory, VARIABLES_SEGMENT_NAME);
+          final KvStoreTransaction transaction = db.startTransaction()) {
+        while (reader.hasNext()) {
+          final ColumnEntry<Bytes, Bytes> entry = reader.next();
+          final String name = new String(entry.getKey().toArrayUnsafe(), UTF_8);
+          final KvStoreVariable<?> variable = variables.get(name);
+          checkArgument(
+              variable != null,
+              "Cannot import variable %s as it is not supported by this database format",
+              name);
+          transaction.putRaw(variable, entry.getValue());
+        }
+        transaction.commit();
+      }
+    } catch (final IOException e) {
+      throw DatabaseStorageException.unrecoverable(
+          "Failed to import database from " + directory, e);
+    }
+  }
+
   @Override
   public Map<String, KvStoreColumn<?, ?>> getColumnMap() {
     return schema.getColumnMap();
@@ -250,30 +393,36 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
     return db.getRaw(kvStoreColumn, key);
   }
 
+  @Override
+  public void catchUpWithPrimary() {
+    db.catchUpWithPrimary();
+  }
+
   @Override
   public void close() throws Exception {
+    stateStorageLogic.close();
+    blockStorageLogic.close();
     db.close();
   }
 
   @Override
   public Optional<SignedBeaconBlock> getFinalizedBlockAtSlot(final UInt64 slot) {
-    return db.get(schema.getColumnFinalizedBlocksBySlot(), slot);
+    return blockStorageLogic.getFinalizedBlockAtSlot(db, schema, slot);
   }
 
   @Override
   public Optional<UInt64> getEarliestFinalizedBlockSlot() {
-    return db.getFirstEntry(schema.getColumnFinalizedBlocksBySlot()).map(ColumnEntry::getKey);
+    return blockStorageLogic.getEarliestFinalizedBlockSlot(db, schema);
   }
 
   @Override
   public Optional<SignedBeaconBlock> getEarliestFinalizedBlock() {
-    return db.getFirstEntry(schema.getColumnFinalizedBlocksBySlot()).map(ColumnEntry::getValue);
+    return blockStorageLogic.getEarliestFinalizedBlock(db, schema);
   }
 
   @Override
   public Optional<SignedBeaconBlock> getLatestFinalizedBlockAtSlot(final UInt64 slot) {
-    return db.getFloorEntry(schema.getColumnFinalizedBlocksBySlot(), slot)
-        .map(ColumnEntry::getValue);
+    return blockStorageLogic.getLatestFinalizedBlockAtSlot(db, schema, slot);
   }
 
   @Override
@@ -300,8 +449,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
   @MustBeClosed
   public Stream<SignedBeaconBlock> streamFinalizedBlocks(
       final UInt64 startSlot, final UInt64 endSlot) {
-    return db.stream(schema.getColumnFinalizedBlocksBySlot(), startSlot, endSlot)
-        .map(ColumnEntry::getValue);
+    return blockStorageLogic.streamFinalizedBlocks(db, schema, startSlot, endSlot);
   }
 
   @Override
@@ -449,13 +597,21 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
     private final KvStoreAccessor db;
     private final S schema;
     private final FinalizedStateUpdater<S> stateStorageUpdater;
+    private final FinalizedBlockUpdater<S> blockStorageUpdater;
+    private final HotStateStorageLogic<S>.HotStateUpdater hotStateUpdater;
 
     V4CombinedUpdater(
-        final KvStoreAccessor db, final S schema, FinalizedStateUpdater<S> stateStorageUpdater) {
+        final KvStoreAccessor db,
+        final S schema,
+        final FinalizedStateUpdater<S> stateStorageUpdater,
+        final FinalizedBlockUpdater<S> blockStorageUpdater,
+        final HotStateStorageLogic<S>.HotStateUpdater hotStateUpdater) {
       this.transaction = db.startTransaction();
       this.db = db;
       this.schema = schema;
       this.stateStorageUpdater = stateStorageUpdater;
+      this.blockStorageUpdater = blockStorageUpdater;
+      this.hotStateUpdater = hotStateUpdater;
     }
 
     @Override
@@ -496,6 +652,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
     @Override
     public void setLatestFinalizedState(final BeaconState state) {
       transaction.put(schema.getVariableLatestFinalizedState(), state);
+      hotStateUpdater.setLatestFinalizedState(state);
     }
 
     @Override
@@ -513,7 +670,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
 
     @Override
     public void addHotState(final Bytes32 blockRoot, final BeaconState state) {
-      transaction.put(schema.getColumnHotStatesByRoot(), blockRoot, state);
+      hotStateUpdater.addHotState(blockRoot, state);
     }
 
     @Override
@@ -551,7 +708,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
 
     @Override
     public void deleteHotState(final Bytes32 blockRoot) {
-      transaction.delete(schema.getColumnHotStatesByRoot(), blockRoot);
+      hotStateUpdater.deleteHotState(blockRoot);
     }
 
     @Override
@@ -571,8 +728,14 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
 
     @Override
     public void commit() {
+      hotStateUpdater.writeChanges(db, transaction, schema);
+      // Blocks must be stored before the db references them
+      blockStorageUpdater.commitAdditions();
       // Commit db updates
       transaction.commit();
+      hotStateUpdater.commit();
+      // and only removed once the db no longer references them
+      blockStorageUpdater.commitDeletions();
       stateStorageUpdater.commit();
       close();
     }
@@ -591,7 +754,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
     @Override
     public void addFinalizedBlock(final SignedBeaconBlock block) {
       transaction.put(schema.getColumnSlotsByFinalizedRoot(), block.getRoot(), block.getSlot());
-      transaction.put(schema.getColumnFinalizedBlocksBySlot(), block.getSlot(), block);
+      blockStorageUpdater.addFinalizedBlock(transaction, schema, block);
     }
 
     @Override
@@ -601,7 +764,7 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
 
     @Override
     public void deleteFinalizedBlock(final UInt64 slot, final Bytes32 blockRoot) {
-      transaction.delete(schema.getColumnFinalizedBlocksBySlot(), slot);
+      blockStorageUpdater.deleteFinalizedBlock(transaction, schema, slot);
       transaction.delete(schema.getColumnSlotsByFinalizedRoot(), blockRoot);
     }
 
@@ -642,6 +805,11 @@ public class CombinedKvStoreDao<S extends SchemaCombined>
       stateStorageUpdater.addReconstructedFinalizedState(db, transaction, schema, state);
     }
 
+    @Override
+    public int retierFinalizedStates(final int maxStates) {
+      return stateStorageUpdater.retierFinalizedStates(db, transaction, schema, maxStates);
+    }
+
     @Override
     public void addFinalizedStateRoot(final Bytes32 stateRoot, final UInt64 slot) {
       transaction.put(schema.getColumnSlotsByFinalizedStateRoot(), stateRoot, slot);
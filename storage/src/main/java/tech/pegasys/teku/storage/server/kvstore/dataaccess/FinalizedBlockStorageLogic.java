@@ -0,0 +1,77 @@
+/*
+ * Copyright ConsenSys Software Inc., 2020
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import com.google.errorprone.annotations.MustBeClosed;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+
+/**
+ * Storage of finalized blocks by slot. The finalized block root to slot index is always kept in the
+ * database, only the blocks themselves are stored by this logic.
+ */
+public interface FinalizedBlockStorageLogic<S> extends AutoCloseable {
+  Optional<SignedBeaconBlock> getFinalizedBlockAtSlot(KvStoreAccessor db, S schema, UInt64 slot);
+
+  Optional<UInt64> getEarliestFinalizedBlockSlot(KvStoreAccessor db, S schema);
+
+  Optional<SignedBeaconBlock> getEarliestFinalizedBlock(KvStoreAccessor db, S schema);
+
+  Optional<SignedBeaconBlock> getLatestFinalizedBlockAtSlot(
+      KvStoreAccessor db, S schema, UInt64 slot);
+
+  @MustBeClosed
+  Stream<SignedBeaconBlock> streamFinalizedBlocks(
+      KvStoreAccessor db, S schema, UInt64 startSlot, UInt64 endSlot);
+
+  /**
+   * Streams all finalized blocks in slot order, serialized as they would be in the finalized blocks
+   * by slot column.
+   */
+  @MustBeClosed
+  Stream<ColumnEntry<Bytes, Bytes>> streamRawFinalizedBlocks(KvStoreAccessor db, S schema);
+
+  /** Bulk loads finalized blocks in the format returned by {@link #streamRawFinalizedBlocks}. */
+  void ingestRawFinalizedBlocks(
+      KvStoreAccessor db, S schema, Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries);
+
+  FinalizedBlockUpdater<S> updater();
+
+  @Override
+  void close();
+
+  interface FinalizedBlockUpdater<S> {
+    void addFinalizedBlock(KvStoreTransaction transaction, S schema, SignedBeaconBlock block);
+
+    void deleteFinalizedBlock(KvStoreTransaction transaction, S schema, UInt64 slot);
+
+    /**
+     * Stores the added blocks. Called before the database transaction is committed so the database
+     * never references blocks that are not yet stored.
+     */
+    void commitAdditions();
+
+    /**
+     * Removes the deleted blocks. Called after the database transaction is committed so blocks are
+     * not lost if that transaction fails.
+     */
+    void commitDeletions();
+  }
+}
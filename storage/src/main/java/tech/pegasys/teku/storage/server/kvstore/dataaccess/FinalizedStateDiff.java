@@ -0,0 +1,129 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+
+/**
+ * A compact encoding of a serialized state as the byte ranges which differ from an earlier
+ * snapshot. Consecutive finalized states share nearly all of their data, so applying a diff to the
+ * base snapshot is much cheaper than regenerating the state by replaying blocks.
+ *
+ * <p>The encoding is the base slot (8 bytes), the target length (4 bytes) then a sequence of runs,
+ * each an offset (4 bytes), a length (4 bytes) and the replacement bytes.
+ */
+class FinalizedStateDiff {
+  private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+  private static final int RUN_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+  // Unchanged gaps shorter than a run header are cheaper to copy than to split the run
+  private static final int MAX_MERGED_GAP = RUN_HEADER_SIZE;
+
+  private FinalizedStateDiff() {}
+
+  static Bytes create(final UInt64 baseSlot, final Bytes base, final Bytes target) {
+    final byte[] baseBytes = base.toArrayUnsafe();
+    final byte[] targetBytes = target.toArrayUnsafe();
+    final int commonLength = Math.min(baseBytes.length, targetBytes.length);
+    final List<int[]> runs = new ArrayList<>();
+    int position = 0;
+    while (position < commonLength) {
+      if (baseBytes[position] == targetBytes[position]) {
+        position++;
+        continue;
+      }
+      final int start = position;
+      int end = position + 1;
+      position = end;
+      while (position < commonLength && position - end < MAX_MERGED_GAP) {
+        if (baseBytes[position] != targetBytes[position]) {
+          end = position + 1;
+        }
+        position++;
+      }
+      runs.add(new int[] {start, end});
+    }
+    if (targetBytes.length > commonLength) {
+      final int[] lastRun = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+      if (lastRun != null && commonLength - lastRun[1] < MAX_MERGED_GAP) {
+        lastRun[1] = targetBytes.length;
+      } else {
+        runs.add(new int[] {commonLength, targetBytes.length});
+      }
+    }
+
+    int size = HEADER_SIZE;
+    for (int[] run : runs) {
+      size += RUN_HEADER_SIZE + run[1] - run[0];
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putLong(baseSlot.longValue()).putInt(targetBytes.length);
+    for (int[] run : runs) {
+      buffer.putInt(run[0]).putInt(run[1] - run[0]).put(targetBytes, run[0], run[1] - run[0]);
+    }
+    return Bytes.wrap(buffer.array());
+  }
+
+  static UInt64 getBaseSlot(final Bytes diff) {
+    checkFormat(diff.size() >= HEADER_SIZE, "Invalid state diff of length %s", diff.size());
+    return UInt64.fromLongBits(diff.getLong(0));
+  }
+
+  /**
+   * Applies the diff to the serialized base state
+   *
+   * @throws DatabaseStorageException if the diff is malformed
+   */
+  static Bytes apply(final Bytes base, final Bytes diff) {
+    checkFormat(diff.size() >= HEADER_SIZE, "Invalid state diff of length %s", diff.size());
+    final ByteBuffer buffer = ByteBuffer.wrap(diff.toArrayUnsafe());
+    buffer.getLong();
+    final int targetLength = buffer.getInt();
+    checkFormat(targetLength >= 0, "Invalid state diff target length %s", targetLength);
+    final byte[] result = new byte[targetLength];
+    System.arraycopy(base.toArrayUnsafe(), 0, result, 0, Math.min(base.size(), targetLength));
+    while (buffer.hasRemaining()) {
+      checkFormat(
+          buffer.remaining() >= RUN_HEADER_SIZE,
+          "Invalid state diff: truncated run header at position %s",
+          buffer.position());
+      final int offset = buffer.getInt();
+      final int length = buffer.getInt();
+      checkFormat(
+          offset >= 0 && length >= 0 && (long) offset + length <= targetLength,
+          "Invalid state diff run at offset %s with length %s",
+          offset,
+          length);
+      checkFormat(
+          buffer.remaining() >= length,
+          "Invalid state diff: run at offset %s has %s bytes but only %s remain",
+          offset,
+          length,
+          buffer.remaining());
+      buffer.get(result, offset, length);
+    }
+    return Bytes.wrap(result);
+  }
+
+  private static void checkFormat(
+      final boolean condition, final String message, final Object... args) {
+    if (!condition) {
+      throw DatabaseStorageException.unrecoverable(String.format(message, args));
+    }
+  }
+}
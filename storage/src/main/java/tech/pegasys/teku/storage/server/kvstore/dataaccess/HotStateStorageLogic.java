@@ -0,0 +1,205 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeDiff;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+
+/**
+ * Stores hot states as a {@link TreeDiff} against the latest finalized state. Hot states descend
+ * from the latest finalized state and share most of its tree, so only the changed nodes are
+ * written. States which can't be diffed (no finalized state yet or a different state schema, e.g.
+ * across a fork) are stored in full.
+ *
+ * <p>When the latest finalized state changes the diffs of the remaining hot states are rebased
+ * onto the new finalized state in the same transaction, so every stored diff is always against the
+ * stored latest finalized state.
+ */
+public class HotStateStorageLogic<S extends SchemaCombined> {
+
+  // The latest finalized state the stored diffs are based on, loaded on first use
+  private volatile Optional<BeaconState> baseState = Optional.empty();
+
+  public Optional<BeaconState> getHotState(
+      final KvStoreAccessor db, final S schema, final Bytes32 root) {
+    final Optional<Bytes> diff = db.get(schema.getColumnHotStateDiffsByRoot(), root);
+    if (diff.isEmpty()) {
+      return db.get(schema.getColumnHotStatesByRoot(), root);
+    }
+    return Optional.of(applyDiff(db, schema, root, diff.get()));
+  }
+
+  public HotStateUpdater updater() {
+    return new HotStateUpdater();
+  }
+
+  private BeaconState applyDiff(
+      final KvStoreAccessor db, final S schema, final Bytes32 root, final Bytes diffData) {
+    final TreeDiff diff = deserializeDiff(root, diffData);
+    Optional<BeaconState> maybeBase = getBaseState(db, schema);
+    if (!maybeBase.map(BeaconState::hashTreeRoot).equals(Optional.of(diff.getBaseRoot()))) {
+      // The finalized state may have been updated since it was cached
+      maybeBase = loadBaseState(db, schema);
+    }
+    final BeaconState base =
+        maybeBase.orElseThrow(
+            () ->
+                DatabaseStorageException.unrecoverable(
+                    "Hot state " + root + " is stored as a diff against missing finalized state"));
+    if (!base.hashTreeRoot().equals(diff.getBaseRoot())) {
+      throw DatabaseStorageException.unrecoverable(
+          String.format(
+              "Hot state %s is stored as a diff against state %s "
+                  + "but the latest finalized state is %s",
+              root, diff.getBaseRoot(), base.hashTreeRoot()));
+    }
+    final BeaconState state =
+        base.getBeaconStateSchema().createFromBackingNode(diff.apply(base.getBackingNode()));
+    if (!state.hashTreeRoot().equals(diff.getTargetRoot())) {
+      throw DatabaseStorageException.unrecoverable(
+          String.format(
+              "Hot state %s diff produced state %s instead of %s",
+              root, state.hashTreeRoot(), diff.getTargetRoot()));
+    }
+    return state;
+  }
+
+  private Optional<BeaconState> getBaseState(final KvStoreAccessor db, final S schema) {
+    final Optional<BeaconState> cachedBase = baseState;
+    return cachedBase.isPresent() ? cachedBase : loadBaseState(db, schema);
+  }
+
+  private Optional<BeaconState> loadBaseState(final KvStoreAccessor db, final S schema) {
+    final Optional<BeaconState> base = db.get(schema.getVariableLatestFinalizedState());
+    baseState = base;
+    return base;
+  }
+
+  private static TreeDiff deserializeDiff(final Bytes32 root, final Bytes diffData) {
+    try {
+      return TreeDiff.deserialize(diffData);
+    } catch (final IllegalArgumentException e) {
+      throw DatabaseStorageException.unrecoverable("Invalid diff stored for hot state " + root, e);
+    }
+  }
+
+  private static Optional<Bytes> createDiff(final BeaconState base, final BeaconState state) {
+    if (!base.getSchema().equals(state.getSchema())) {
+      return Optional.empty();
+    }
+    try {
+      final TreeDiff diff = TreeDiff.create(base.getBackingNode(), state.getBackingNode());
+      return Optional.of(diff.serialize());
+    } catch (final IllegalArgumentException e) {
+      // The trees have different shapes (e.g. a list was populated from empty) so store in full
+      return Optional.empty();
+    }
+  }
+
+  public class HotStateUpdater {
+    private final Map<Bytes32, BeaconState> addedStates = new LinkedHashMap<>();
+    private final Set<Bytes32> deletedStates = new HashSet<>();
+    private Optional<BeaconState> newBaseState = Optional.empty();
+
+    private HotStateUpdater() {}
+
+    public void setLatestFinalizedState(final BeaconState state) {
+      newBaseState = Optional.of(state);
+    }
+
+    public void addHotState(final Bytes32 blockRoot, final BeaconState state) {
+      deletedStates.remove(blockRoot);
+      addedStates.put(blockRoot, state);
+    }
+
+    public void deleteHotState(final Bytes32 blockRoot) {
+      addedStates.remove(blockRoot);
+      deletedStates.add(blockRoot);
+    }
+
+    /** Adds the pending hot state changes to {@code transaction} before it's committed */
+    public void writeChanges(
+        final KvStoreAccessor db, final KvStoreTransaction transaction, final S schema) {
+      deletedStates.forEach(
+          root -> {
+            transaction.delete(schema.getColumnHotStatesByRoot(), root);
+            transaction.delete(schema.getColumnHotStateDiffsByRoot(), root);
+          });
+      if (newBaseState.isPresent()) {
+        rebaseStoredDiffs(db, transaction, schema, newBaseState.get());
+      }
+      if (!addedStates.isEmpty()) {
+        final Optional<BeaconState> base = newBaseState.or(() -> getBaseState(db, schema));
+        addedStates.forEach((root, state) -> writeState(transaction, schema, base, root, state));
+      }
+    }
+
+    /** Called once the transaction with the changes has been committed */
+    public void commit() {
+      newBaseState.ifPresent(state -> baseState = Optional.of(state));
+    }
+
+    private void rebaseStoredDiffs(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final S schema,
+        final BeaconState newBase) {
+      final List<ColumnEntry<Bytes32, Bytes>> storedDiffs;
+      try (final Stream<ColumnEntry<Bytes32, Bytes>> diffs =
+          db.stream(schema.getColumnHotStateDiffsByRoot())) {
+        storedDiffs =
+            diffs
+                .filter(entry -> !deletedStates.contains(entry.getKey()))
+                .filter(entry -> !addedStates.containsKey(entry.getKey()))
+                .collect(Collectors.toList());
+      }
+      for (ColumnEntry<Bytes32, Bytes> entry : storedDiffs) {
+        final BeaconState state = applyDiff(db, schema, entry.getKey(), entry.getValue());
+        writeState(transaction, schema, Optional.of(newBase), entry.getKey(), state);
+      }
+    }
+
+    private void writeState(
+        final KvStoreTransaction transaction,
+        final S schema,
+        final Optional<BeaconState> base,
+        final Bytes32 root,
+        final BeaconState state) {
+      final Optional<Bytes> diff =
+          base.flatMap(finalizedState -> createDiff(finalizedState, state));
+      if (diff.isPresent()) {
+        transaction.put(schema.getColumnHotStateDiffsByRoot(), root, diff.get());
+        transaction.delete(schema.getColumnHotStatesByRoot(), root);
+      } else {
+        transaction.put(schema.getColumnHotStatesByRoot(), root, state);
+        transaction.delete(schema.getColumnHotStateDiffsByRoot(), root);
+      }
+    }
+  }
+}
@@ -14,6 +14,8 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import com.google.errorprone.annotations.MustBeClosed;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -50,6 +52,17 @@ public interface KvStoreCombinedDao extends AutoCloseable {
   @MustBeClosed
   CombinedUpdater combinedUpdater();
 
+  /**
+   * Serializes hot blocks and states ahead of them being written so less work happens on the
+   * thread applying the update. May be called from any thread.
+   */
+  default void preSerializeHotData(
+      final Collection<SignedBeaconBlock> blocks, final Collection<BeaconState> states) {}
+
+  /** Releases values prepared by {@link #preSerializeHotData} which were not written. */
+  default void discardPreSerializedHotData(
+      final Collection<SignedBeaconBlock> blocks, final Collection<BeaconState> states) {}
+
   Optional<SignedBeaconBlock> getHotBlock(Bytes32 root);
 
   @MustBeClosed
@@ -80,6 +93,17 @@ public interface KvStoreCombinedDao extends AutoCloseable {
 
   void ingest(KvStoreCombinedDao dao, int batchSize, Consumer<String> logger);
 
+  /**
+   * Writes the raw contents of every column and variable to segment files in {@code directory}.
+   */
+  void exportData(Path directory, Consumer<String> logger);
+
+  /**
+   * Bulk loads data written by {@link #exportData(Path, Consumer)} into this database, which must
+   * be empty.
+   */
+  void importData(Path directory, Consumer<String> logger);
+
   Optional<UInt64> getGenesisTime();
 
   Optional<Checkpoint> getAnchor();
@@ -144,6 +168,9 @@ public interface KvStoreCombinedDao extends AutoCloseable {
 
   Optional<DepositTreeSnapshot> getFinalizedDepositSnapshot();
 
+  /** Makes writes by the primary visible when the database is a read-only secondary instance. */
+  void catchUpWithPrimary();
+
   interface CombinedUpdater extends HotUpdater, FinalizedUpdater {}
 
   interface HotUpdater extends AutoCloseable {
@@ -219,6 +246,14 @@ public interface KvStoreCombinedDao extends AutoCloseable {
 
     void addReconstructedFinalizedState(final Bytes32 blockRoot, final BeaconState state);
 
+    /**
+     * Moves up to {@code maxStates} of the oldest finalized states to cold storage if state tiering
+     * is enabled.
+     *
+     * @return the number of states moved
+     */
+    int retierFinalizedStates(int maxStates);
+
     void addFinalizedStateRoot(final Bytes32 stateRoot, final UInt64 slot);
 
     void setOptimisticTransitionBlockSlot(final Optional<UInt64> transitionBlockSlot);
@@ -14,6 +14,7 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import com.google.errorprone.annotations.MustBeClosed;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -270,6 +271,16 @@ public class KvStoreCombinedDaoAdapter implements KvStoreCombinedDao, V4Migratab
     throw new UnsupportedOperationException("Cannot migrate to a split database format");
   }
 
+  @Override
+  public void exportData(final Path directory, final Consumer<String> logger) {
+    throw new UnsupportedOperationException("Cannot export a split database format");
+  }
+
+  @Override
+  public void importData(final Path directory, final Consumer<String> logger) {
+    throw new UnsupportedOperationException("Cannot import to a split database format");
+  }
+
   @Override
   @MustBeClosed
   public Stream<DepositsFromBlockEvent> streamDepositsFromBlocks() {
@@ -292,6 +303,12 @@ public class KvStoreCombinedDaoAdapter implements KvStoreCombinedDao, V4Migratab
     return hotDao.getFinalizedDepositSnapshot();
   }
 
+  @Override
+  public void catchUpWithPrimary() {
+    hotDao.catchUpWithPrimary();
+    finalizedDao.catchUpWithPrimary();
+  }
+
   @Override
   public void close() throws Exception {
     hotDao.close();
@@ -507,6 +524,11 @@ public class KvStoreCombinedDaoAdapter implements KvStoreCombinedDao, V4Migratab
       finalizedUpdater.addFinalizedState(blockRoot, state);
     }
 
+    @Override
+    public int retierFinalizedStates(final int maxStates) {
+      return finalizedUpdater.retierFinalizedStates(maxStates);
+    }
+
     @Override
     public void addReconstructedFinalizedState(Bytes32 blockRoot, BeaconState state) {
       finalizedUpdater.addReconstructedFinalizedState(blockRoot, state);
@@ -0,0 +1,109 @@
+/*
+ * Copyright ConsenSys Software Inc., 2020
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import com.google.errorprone.annotations.MustBeClosed;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+
+/** Stores finalized blocks in the finalized blocks by slot column */
+public class KvStoreFinalizedBlockStorageLogic<S extends SchemaCombined>
+    implements FinalizedBlockStorageLogic<S> {
+
+  @Override
+  public Optional<SignedBeaconBlock> getFinalizedBlockAtSlot(
+      final KvStoreAccessor db, final S schema, final UInt64 slot) {
+    return db.get(schema.getColumnFinalizedBlocksBySlot(), slot);
+  }
+
+  @Override
+  public Optional<UInt64> getEarliestFinalizedBlockSlot(final KvStoreAccessor db, final S schema) {
+    return db.getFirstEntry(schema.getColumnFinalizedBlocksBySlot()).map(ColumnEntry::getKey);
+  }
+
+  @Override
+  public Optional<SignedBeaconBlock> getEarliestFinalizedBlock(
+      final KvStoreAccessor db, final S schema) {
+    return db.getFirstEntry(schema.getColumnFinalizedBlocksBySlot()).map(ColumnEntry::getValue);
+  }
+
+  @Override
+  public Optional<SignedBeaconBlock> getLatestFinalizedBlockAtSlot(
+      final KvStoreAccessor db, final S schema, final UInt64 slot) {
+    return db.getFloorEntry(schema.getColumnFinalizedBlocksBySlot(), slot)
+        .map(ColumnEntry::getValue);
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<SignedBeaconBlock> streamFinalizedBlocks(
+      final KvStoreAccessor db, final S schema, final UInt64 startSlot, final UInt64 endSlot) {
+    return db.stream(schema.getColumnFinalizedBlocksBySlot(), startSlot, endSlot)
+        .map(ColumnEntry::getValue);
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<ColumnEntry<Bytes, Bytes>> streamRawFinalizedBlocks(
+      final KvStoreAccessor db, final S schema) {
+    return db.streamRaw(schema.getColumnFinalizedBlocksBySlot());
+  }
+
+  @Override
+  public void ingestRawFinalizedBlocks(
+      final KvStoreAccessor db,
+      final S schema,
+      final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    db.ingestRaw(schema.getColumnFinalizedBlocksBySlot(), sortedEntries);
+  }
+
+  @Override
+  public FinalizedBlockUpdater<S> updater() {
+    return new FinalizedBlockUpdater<>() {
+      @Override
+      public void addFinalizedBlock(
+          final KvStoreTransaction transaction, final S schema, final SignedBeaconBlock block) {
+        transaction.put(schema.getColumnFinalizedBlocksBySlot(), block.getSlot(), block);
+      }
+
+      @Override
+      public void deleteFinalizedBlock(
+          final KvStoreTransaction transaction, final S schema, final UInt64 slot) {
+        transaction.delete(schema.getColumnFinalizedBlocksBySlot(), slot);
+      }
+
+      @Override
+      public void commitAdditions() {
+        // Blocks are committed as part of the database transaction
+      }
+
+      @Override
+      public void commitDeletions() {
+        // Blocks are committed as part of the database transaction
+      }
+    };
+  }
+
+  @Override
+  public void close() {
+    // Nothing to close, the database is closed by the dao
+  }
+}
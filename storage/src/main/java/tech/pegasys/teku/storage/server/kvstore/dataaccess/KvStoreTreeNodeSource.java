@@ -15,6 +15,8 @@ package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeInterner;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedTreeState;
@@ -23,15 +25,25 @@ class KvStoreTreeNodeSource implements TreeNodeSource {
 
   private final KvStoreAccessor db;
   private final SchemaCombinedTreeState schema;
+  private final TreeNodeInterner nodeInterner;
 
   public KvStoreTreeNodeSource(final KvStoreAccessor db, final SchemaCombinedTreeState schema) {
+    this(db, schema, new TreeNodeInterner());
+  }
+
+  public KvStoreTreeNodeSource(
+      final KvStoreAccessor db,
+      final SchemaCombinedTreeState schema,
+      final TreeNodeInterner nodeInterner) {
     this.db = db;
     this.schema = schema;
+    this.nodeInterner = nodeInterner;
   }
 
   @Override
   public CompressedBranchInfo loadBranchNode(final Bytes32 rootHash, final long gIndex) {
     return db.get(schema.getColumnFinalizedStateMerkleTreeBranches(), rootHash)
+        .map(nodeInterner::internBranch)
         .orElseThrow(
             () ->
                 new IllegalArgumentException("Unknown branch node: " + rootHash + " at " + gIndex));
@@ -41,4 +53,9 @@ class KvStoreTreeNodeSource implements TreeNodeSource {
   public Bytes loadLeafNode(final Bytes32 rootHash, final long gIndex) {
     return db.get(schema.getColumnFinalizedStateMerkleTreeLeaves(), rootHash).orElse(rootHash);
   }
+
+  @Override
+  public LeafNode createLeafNode(final Bytes data) {
+    return nodeInterner.internLeaf(data);
+  }
 }
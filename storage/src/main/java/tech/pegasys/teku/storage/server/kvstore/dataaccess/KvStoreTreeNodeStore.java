@@ -17,39 +17,49 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.infrastructure.ssz.tree.LeafDataNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource.CompressedBranchInfo;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeStore;
-import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
-import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedTreeState;
 
+/**
+ * Collects the branch and leaf nodes of a state tree which need to be stored.
+ *
+ * <p>Nodes are buffered rather than written directly so that separate subtrees can be collected
+ * concurrently with one store per thread and then written to a single transaction.
+ */
 public class KvStoreTreeNodeStore implements TreeNodeStore {
 
   private final Set<Bytes32> knownStoredBranchesCache;
-  private final Set<Bytes32> newlyStoredBranches = new HashSet<>();
-  private final KvStoreTransaction transaction;
-  private final SchemaCombinedTreeState schema;
+  private final Predicate<Bytes32> isStoredBranch;
+  private final Map<Bytes32, CompressedBranchInfo> newBranches = new LinkedHashMap<>();
+  private final Map<Bytes32, Bytes> newLeaves = new LinkedHashMap<>();
+  private final Set<Bytes32> unstoredBranches = new HashSet<>();
 
   private int storedBranchNodes = 0;
   private int skippedBranchNodes = 0;
   private int storedLeafNodes = 0;
 
+  /**
+   * @param knownStoredBranchesCache branch roots known to be stored, updated with any stored
+   *     branches found via {@code isStoredBranch}
+   * @param isStoredBranch checks if a branch not in the cache is already stored
+   */
   public KvStoreTreeNodeStore(
-      final Set<Bytes32> knownStoredBranchesCache,
-      final KvStoreTransaction transaction,
-      final SchemaCombinedTreeState schema) {
+      final Set<Bytes32> knownStoredBranchesCache, final Predicate<Bytes32> isStoredBranch) {
     this.knownStoredBranchesCache = knownStoredBranchesCache;
-    this.transaction = transaction;
-    this.schema = schema;
+    this.isStoredBranch = isStoredBranch;
   }
 
   @Override
   public boolean canSkipBranch(final Bytes32 root, final long gIndex) {
-    final boolean result =
-        newlyStoredBranches.contains(root) || knownStoredBranchesCache.contains(root);
+    final boolean result = newBranches.containsKey(root) || isAlreadyStored(root);
     if (result) {
       skippedBranchNodes++;
     }
@@ -59,14 +69,11 @@ public class KvStoreTreeNodeStore implements TreeNodeStore {
   @Override
   public void storeBranchNode(
       final Bytes32 root, final long gIndex, final int depth, final Bytes32[] children) {
-    if (knownStoredBranchesCache.contains(root) || !newlyStoredBranches.add(root)) {
+    if (newBranches.containsKey(root) || isAlreadyStored(root)) {
       return;
     }
     storedBranchNodes++;
-    transaction.put(
-        schema.getColumnFinalizedStateMerkleTreeBranches(),
-        root,
-        new CompressedBranchInfo(depth, children));
+    newBranches.put(root, new CompressedBranchInfo(depth, children));
   }
 
   @Override
@@ -75,14 +82,38 @@ public class KvStoreTreeNodeStore implements TreeNodeStore {
     final LeafDataNode node = (LeafDataNode) treeNode;
     if (node.getData().size() > Bytes32.SIZE && !node.hashTreeRoot().isZero()) {
       storedLeafNodes++;
-      transaction.put(
-          schema.getColumnFinalizedStateMerkleTreeLeaves(), node.hashTreeRoot(), node.getData());
+      newLeaves.put(node.hashTreeRoot(), node.getData());
+    }
+  }
+
+  private boolean isAlreadyStored(final Bytes32 root) {
+    if (knownStoredBranchesCache.contains(root)) {
+      return true;
+    }
+    if (unstoredBranches.contains(root)) {
+      return false;
     }
+    if (isStoredBranch.test(root)) {
+      knownStoredBranchesCache.add(root);
+      return true;
+    }
+    unstoredBranches.add(root);
+    return false;
+  }
+
+  /** Branch nodes to be stored, in the order they were visited. */
+  public Map<Bytes32, CompressedBranchInfo> getNewBranches() {
+    return newBranches;
+  }
+
+  /** Leaf nodes to be stored, in the order they were visited. */
+  public Map<Bytes32, Bytes> getNewLeaves() {
+    return newLeaves;
   }
 
   @Override
   public Collection<Bytes32> getStoredBranchRoots() {
-    return newlyStoredBranches;
+    return newBranches.keySet();
   }
 
   @Override
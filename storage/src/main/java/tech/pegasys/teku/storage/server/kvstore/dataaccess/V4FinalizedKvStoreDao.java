@@ -55,7 +55,12 @@ public class V4FinalizedKvStoreDao {
     this.stateStorageLogic = stateStorageLogic;
   }
 
+  public void catchUpWithPrimary() {
+    db.catchUpWithPrimary();
+  }
+
   public void close() throws Exception {
+    stateStorageLogic.close();
     db.close();
   }
 
@@ -285,6 +290,11 @@ public class V4FinalizedKvStoreDao {
       stateStorageUpdater.addReconstructedFinalizedState(db, transaction, schema, state);
     }
 
+    @Override
+    public int retierFinalizedStates(final int maxStates) {
+      return stateStorageUpdater.retierFinalizedStates(db, transaction, schema, maxStates);
+    }
+
     @Override
     public void addFinalizedStateRoot(final Bytes32 stateRoot, final UInt64 slot) {
       transaction.put(schema.getColumnSlotsByFinalizedStateRoot(), stateRoot, slot);
@@ -14,34 +14,115 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import com.google.errorprone.annotations.MustBeClosed;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import tech.pegasys.teku.infrastructure.metrics.MetricsHistogram;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
 import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaFinalizedSnapshotState;
 
+/**
+ * Stores a full snapshot of the finalized state every {@code stateStorageFrequency} slots.
+ *
+ * <p>When tiering is enabled, only the most recent {@link #HOT_STATE_COUNT} snapshots are kept in
+ * the hot column. Older snapshots are moved to the cold column, which storage engines that support
+ * it keep heavily compressed. Between snapshots, a {@link FinalizedStateDiff} against the latest
+ * snapshot is stored every {@code stateDiffFrequency} slots, so loading a state replays at most
+ * that many slots of blocks.
+ */
 public class V4FinalizedStateSnapshotStorageLogic<S extends SchemaFinalizedSnapshotState>
     implements V4FinalizedStateStorageLogic<S> {
+  static final int HOT_STATE_COUNT = 4;
+  static final String HOT_TIER = "hot";
+  static final String COLD_TIER = "cold";
+  static final String DIFF_TIER = "diff";
 
   private final UInt64 stateStorageFrequency;
+  private final Optional<UInt64> stateDiffFrequency;
+  private final MetricsHistogram stateLoadTimeHistogram;
 
   public V4FinalizedStateSnapshotStorageLogic(final long stateStorageFrequency) {
+    this(new NoOpMetricsSystem(), stateStorageFrequency, Optional.empty());
+  }
+
+  /**
+   * @param stateDiffFrequency the number of slots between stored state diffs. Tiering is enabled
+   *     only if present.
+   */
+  public V4FinalizedStateSnapshotStorageLogic(
+      final MetricsSystem metricsSystem,
+      final long stateStorageFrequency,
+      final Optional<UInt64> stateDiffFrequency) {
     this.stateStorageFrequency = UInt64.valueOf(stateStorageFrequency);
+    this.stateDiffFrequency = stateDiffFrequency;
+    this.stateLoadTimeHistogram =
+        MetricsHistogram.create(
+            TekuMetricCategory.STORAGE_FINALIZED_DB,
+            metricsSystem,
+            "state_load_time",
+            "Time taken to load a stored finalized state in milliseconds by storage tier",
+            3,
+            List.of("tier"));
   }
 
   @Override
   public Optional<BeaconState> getLatestAvailableFinalizedState(
       final KvStoreAccessor db, final SchemaFinalizedSnapshotState schema, final UInt64 maxSlot) {
-    return db.getFloorEntry(schema.getColumnFinalizedStatesBySlot(), maxSlot)
-        .map(ColumnEntry::getValue);
+    final long startTime = System.nanoTime();
+    if (stateDiffFrequency.isEmpty()) {
+      final Optional<BeaconState> state =
+          db.getFloorEntry(schema.getColumnFinalizedStatesBySlot(), maxSlot)
+              .map(ColumnEntry::getValue);
+      state.ifPresent(__ -> recordLoadTime(HOT_TIER, startTime));
+      return state;
+    }
+
+    // Loading the stored state closest to maxSlot minimizes the blocks to replay, so pick the
+    // greatest available slot, preferring a full snapshot when a diff is at the same slot
+    final Optional<UInt64> hotSlot =
+        db.getFloorKey(schema.getColumnFinalizedStatesBySlot(), maxSlot);
+    final Optional<UInt64> coldSlot =
+        db.getFloorKey(schema.getColumnColdFinalizedStatesBySlot(), maxSlot);
+    final Optional<UInt64> diffSlot =
+        db.getFloorKey(schema.getColumnFinalizedStateDiffsBySlot(), maxSlot);
+    final Optional<UInt64> snapshotSlot = max(hotSlot, coldSlot);
+
+    if (diffSlot.isPresent()
+        && (snapshotSlot.isEmpty() || diffSlot.get().isGreaterThan(snapshotSlot.get()))) {
+      final Optional<BeaconState> state = loadFromDiff(db, schema, diffSlot.get());
+      if (state.isPresent()) {
+        recordLoadTime(DIFF_TIER, startTime);
+        return state;
+      }
+    }
+    if (snapshotSlot.isEmpty()) {
+      return Optional.empty();
+    }
+    final boolean isHot = snapshotSlot.equals(hotSlot);
+    final Optional<BeaconState> state =
+        db.get(
+            isHot
+                ? schema.getColumnFinalizedStatesBySlot()
+                : schema.getColumnColdFinalizedStatesBySlot(),
+            snapshotSlot.get());
+    state.ifPresent(__ -> recordLoadTime(isHot ? HOT_TIER : COLD_TIER, startTime));
+    return state;
   }
 
   @Override
   public FinalizedStateUpdater<S> updater() {
-    return new FinalizedStateSnapshotUpdater<>(stateStorageFrequency);
+    return new FinalizedStateSnapshotUpdater<>(stateStorageFrequency, stateDiffFrequency);
   }
 
   @Override
@@ -51,22 +132,76 @@ public class V4FinalizedStateSnapshotStorageLogic<S extends SchemaFinalizedSnaps
       final SchemaFinalizedSnapshotState schema,
       final UInt64 startSlot,
       final UInt64 endSlot) {
-    return db.stream(schema.getColumnFinalizedStatesBySlot(), startSlot, endSlot)
-        .map(ColumnEntry::getKey);
+    if (stateDiffFrequency.isEmpty()) {
+      return db.streamKeys(schema.getColumnFinalizedStatesBySlot(), startSlot, endSlot);
+    }
+    return Stream.concat(
+            db.streamKeys(schema.getColumnColdFinalizedStatesBySlot(), startSlot, endSlot),
+            db.streamKeys(schema.getColumnFinalizedStatesBySlot(), startSlot, endSlot))
+        .sorted();
+  }
+
+  @Override
+  public void close() {
+    // Nothing to close, the database is closed by the dao
+  }
+
+  private Optional<BeaconState> loadFromDiff(
+      final KvStoreAccessor db, final SchemaFinalizedSnapshotState schema, final UInt64 slot) {
+    final Optional<Bytes> diff = db.get(schema.getColumnFinalizedStateDiffsBySlot(), slot);
+    if (diff.isEmpty()) {
+      return Optional.empty();
+    }
+    final UInt64 baseSlot = FinalizedStateDiff.getBaseSlot(diff.get());
+    return getSnapshotBytes(db, schema, baseSlot)
+        .map(base -> FinalizedStateDiff.apply(base, diff.get()))
+        .map(
+            state ->
+                schema
+                    .getColumnFinalizedStatesBySlot()
+                    .getValueSerializer()
+                    .deserialize(state.toArrayUnsafe()));
+  }
+
+  private static Optional<Bytes> getSnapshotBytes(
+      final KvStoreAccessor db, final SchemaFinalizedSnapshotState schema, final UInt64 slot) {
+    return db.getRaw(schema.getColumnFinalizedStatesBySlot(), slot)
+        .or(() -> db.getRaw(schema.getColumnColdFinalizedStatesBySlot(), slot));
+  }
+
+  private static Optional<UInt64> max(final Optional<UInt64> a, final Optional<UInt64> b) {
+    if (a.isEmpty()) {
+      return b;
+    }
+    if (b.isEmpty()) {
+      return a;
+    }
+    return Optional.of(a.get().max(b.get()));
+  }
+
+  private void recordLoadTime(final String tier, final long startTime) {
+    stateLoadTimeHistogram.recordValue(
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), tier);
   }
 
   private static class FinalizedStateSnapshotUpdater<S extends SchemaFinalizedSnapshotState>
       implements V4FinalizedStateStorageLogic.FinalizedStateUpdater<S> {
 
     private final UInt64 stateStorageFrequency;
+    private final Optional<UInt64> stateDiffFrequency;
     private Optional<UInt64> lastStateStoredSlot = Optional.empty();
     private boolean loadedLastStoreState = false;
+    // The serialized snapshot at lastStateStoredSlot, if it has been loaded or stored
+    private Optional<Bytes> lastStoredSnapshot = Optional.empty();
+    private Optional<UInt64> lastDiffStoredSlot = Optional.empty();
 
     private Optional<UInt64> lastReconstructedStateStoredSlot = Optional.empty();
     private boolean loadedLastReconstructedStoreState = false;
 
-    private FinalizedStateSnapshotUpdater(final UInt64 stateStorageFrequency) {
+    private FinalizedStateSnapshotUpdater(
+        final UInt64 stateStorageFrequency, final Optional<UInt64> stateDiffFrequency) {
       this.stateStorageFrequency = stateStorageFrequency;
+      this.stateDiffFrequency = stateDiffFrequency;
     }
 
     @Override
@@ -77,12 +212,17 @@ public class V4FinalizedStateSnapshotStorageLogic<S extends SchemaFinalizedSnaps
         final BeaconState state) {
       if (!loadedLastStoreState) {
         lastStateStoredSlot = db.getLastKey(schema.getColumnFinalizedStatesBySlot());
+        if (stateDiffFrequency.isPresent()) {
+          lastDiffStoredSlot = db.getLastKey(schema.getColumnFinalizedStateDiffsBySlot());
+        }
         loadedLastStoreState = true;
       }
       if (lastStateStoredSlot.isPresent()) {
         UInt64 nextStorageSlot = lastStateStoredSlot.get().plus(stateStorageFrequency);
         if (state.getSlot().compareTo(nextStorageSlot) >= 0) {
           addFinalizedState(transaction, schema, state);
+        } else if (stateDiffFrequency.isPresent() && isDiffDue(state.getSlot())) {
+          addFinalizedStateDiff(db, transaction, schema, state);
         }
       } else {
         addFinalizedState(transaction, schema, state);
@@ -93,9 +233,7 @@ public class V4FinalizedStateSnapshotStorageLogic<S extends SchemaFinalizedSnaps
     public void addReconstructedFinalizedState(
         KvStoreAccessor db, KvStoreTransaction transaction, S schema, BeaconState state) {
       if (!loadedLastReconstructedStoreState) {
-        lastReconstructedStateStoredSlot =
-            db.getFloorEntry(schema.getColumnFinalizedStatesBySlot(), state.getSlot())
-                .map(ColumnEntry::getKey);
+        lastReconstructedStateStoredSlot = getFloorStoredSlot(db, schema, state.getSlot());
         loadedLastReconstructedStoreState = true;
       }
       if (lastReconstructedStateStoredSlot.isPresent()) {
@@ -108,17 +246,114 @@ public class V4FinalizedStateSnapshotStorageLogic<S extends SchemaFinalizedSnaps
       }
     }
 
+    @Override
+    public void deleteFinalizedState(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final S schema,
+        final UInt64 slot) {
+      transaction.delete(schema.getColumnFinalizedStatesBySlot(), slot);
+      if (stateDiffFrequency.isPresent()) {
+        transaction.delete(schema.getColumnColdFinalizedStatesBySlot(), slot);
+        transaction.delete(schema.getColumnFinalizedStateDiffsBySlot(), slot);
+      }
+    }
+
+    @Override
+    public int retierFinalizedStates(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final S schema,
+        final int maxStates) {
+      if (stateDiffFrequency.isEmpty()) {
+        return 0;
+      }
+      final KvStoreColumn<UInt64, BeaconState> hotColumn = schema.getColumnFinalizedStatesBySlot();
+      final KvStoreColumn<UInt64, BeaconState> coldColumn =
+          schema.getColumnColdFinalizedStatesBySlot();
+      final List<UInt64> hotSlots;
+      try (final Stream<UInt64> keys = db.streamKeys(hotColumn)) {
+        hotSlots = keys.collect(Collectors.toList());
+      }
+      final int statesToMove = Math.min(maxStates, hotSlots.size() - HOT_STATE_COUNT);
+      for (int i = 0; i < statesToMove; i++) {
+        final UInt64 slot = hotSlots.get(i);
+        // Move the serialized state as is, it's only deserialized if it is loaded again
+        db.getRaw(hotColumn, slot)
+            .ifPresent(
+                state ->
+                    transaction.putRaw(
+                        coldColumn,
+                        Bytes.wrap(coldColumn.getKeySerializer().serialize(slot)),
+                        state));
+        transaction.delete(hotColumn, slot);
+      }
+      return Math.max(0, statesToMove);
+    }
+
     @Override
     public void commit() {}
 
+    /** Finds the greatest slot at or before {@code slot} that a state can be loaded from */
+    private Optional<UInt64> getFloorStoredSlot(
+        final KvStoreAccessor db, final SchemaFinalizedSnapshotState schema, final UInt64 slot) {
+      final Optional<UInt64> hotSlot =
+          db.getFloorKey(schema.getColumnFinalizedStatesBySlot(), slot);
+      if (stateDiffFrequency.isEmpty()) {
+        return hotSlot;
+      }
+      final Optional<UInt64> coldSlot =
+          db.getFloorKey(schema.getColumnColdFinalizedStatesBySlot(), slot);
+      final Optional<UInt64> diffSlot =
+          db.getFloorKey(schema.getColumnFinalizedStateDiffsBySlot(), slot);
+      return max(max(hotSlot, coldSlot), diffSlot);
+    }
+
+    private boolean isDiffDue(final UInt64 slot) {
+      final UInt64 lastStoredSlot =
+          lastDiffStoredSlot
+              .filter(diffSlot -> diffSlot.isGreaterThan(lastStateStoredSlot.orElseThrow()))
+              .orElse(lastStateStoredSlot.orElseThrow());
+      return slot.isGreaterThanOrEqualTo(lastStoredSlot.plus(stateDiffFrequency.orElseThrow()));
+    }
+
     private void addFinalizedState(
         final KvStoreTransaction transaction,
         final SchemaFinalizedSnapshotState schema,
         final BeaconState state) {
-      transaction.put(schema.getColumnFinalizedStatesBySlot(), state.getSlot(), state);
+      final KvStoreColumn<UInt64, BeaconState> column = schema.getColumnFinalizedStatesBySlot();
+      if (stateDiffFrequency.isPresent()) {
+        // Keep the serialized state as the base for the following diffs
+        final Bytes serializedState = state.sszSerialize();
+        transaction.putRaw(
+            column,
+            Bytes.wrap(column.getKeySerializer().serialize(state.getSlot())),
+            serializedState);
+        lastStoredSnapshot = Optional.of(serializedState);
+      } else {
+        transaction.put(column, state.getSlot(), state);
+      }
       lastStateStoredSlot = Optional.of(state.getSlot());
     }
 
+    private void addFinalizedStateDiff(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final SchemaFinalizedSnapshotState schema,
+        final BeaconState state) {
+      final UInt64 baseSlot = lastStateStoredSlot.orElseThrow();
+      if (lastStoredSnapshot.isEmpty()) {
+        lastStoredSnapshot = getSnapshotBytes(db, schema, baseSlot);
+        if (lastStoredSnapshot.isEmpty()) {
+          return;
+        }
+      }
+      final Bytes diff =
+          FinalizedStateDiff.create(baseSlot, lastStoredSnapshot.get(), state.sszSerialize());
+      transaction.put(schema.getColumnFinalizedStateDiffsBySlot(), state.getSlot(), diff);
+      lastDiffStoredSlot = Optional.of(state.getSlot());
+    }
+
     private void addReconstructedFinalizedState(
         final KvStoreTransaction transaction,
         final SchemaFinalizedSnapshotState schema,
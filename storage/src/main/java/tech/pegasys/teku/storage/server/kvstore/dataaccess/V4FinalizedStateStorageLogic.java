@@ -21,7 +21,7 @@ import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
 
-public interface V4FinalizedStateStorageLogic<S> {
+public interface V4FinalizedStateStorageLogic<S> extends AutoCloseable {
   Optional<BeaconState> getLatestAvailableFinalizedState(
       KvStoreAccessor db, S schema, UInt64 maxSlot);
 
@@ -31,6 +31,9 @@ public interface V4FinalizedStateStorageLogic<S> {
   Stream<UInt64> streamFinalizedStateSlots(
       KvStoreAccessor db, final S schema, UInt64 startSlot, UInt64 endSlot);
 
+  @Override
+  void close();
+
   interface FinalizedStateUpdater<S> {
     void addFinalizedState(
         KvStoreAccessor db, KvStoreTransaction transaction, S schema, BeaconState state);
@@ -38,6 +41,17 @@ public interface V4FinalizedStateStorageLogic<S> {
     void addReconstructedFinalizedState(
         KvStoreAccessor db, KvStoreTransaction transaction, S schema, BeaconState state);
 
+    void deleteFinalizedState(
+        KvStoreAccessor db, KvStoreTransaction transaction, S schema, UInt64 slot);
+
+    /**
+     * Moves up to {@code maxStates} of the oldest stored states to cold storage, if supported.
+     *
+     * @return the number of states moved
+     */
+    int retierFinalizedStates(
+        KvStoreAccessor db, KvStoreTransaction transaction, S schema, int maxStates);
+
     void commit();
   }
 }
@@ -13,39 +13,93 @@
 
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.errorprone.annotations.MustBeClosed;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes32;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
 import tech.pegasys.teku.infrastructure.collections.LimitedSet;
+import tech.pegasys.teku.infrastructure.metrics.MetricsHistogram;
 import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.ssz.schema.SszSchema;
 import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil;
+import tech.pegasys.teku.infrastructure.ssz.tree.GIndexUtil.NodeRelation;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeInterner;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource.CompressedBranchInfo;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeStore;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconStateSchema;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
 import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedTreeState;
 
+/**
+ * Stores finalized states as merkle trees, sharing nodes which are unchanged between states.
+ *
+ * <p>The top level fields of each state are collected in parallel and then written to a single
+ * transaction. Branches are skipped if they are in the known branch cache or already in the
+ * database, so work is not repeated for subtrees stored before a restart.
+ */
 public class V4FinalizedStateTreeStorageLogic
     implements V4FinalizedStateStorageLogic<SchemaCombinedTreeState> {
   private static final int MAX_BRANCH_LEVELS_SKIPPED = 5;
+  static final int DEFAULT_STORAGE_THREADS =
+      Math.min(4, Runtime.getRuntime().availableProcessors());
+
   private final LabelledMetric<Counter> branchNodeStoredCounter;
   private final Counter statesStoredCounter;
   private final Set<Bytes32> knownStoredBranchesCache;
   private final Spec spec;
   private final Counter leafNodeStoredCounter;
+  private final MetricsHistogram stateStoreTimeHistogram;
+  private final ExecutorService storageExecutor;
+  // Shared between loaded states so identical leaves and branch hashes are held only once
+  private final TreeNodeInterner nodeInterner = new TreeNodeInterner();
 
   public V4FinalizedStateTreeStorageLogic(
       final MetricsSystem metricsSystem, final Spec spec, final int maxKnownNodeCacheSize) {
+    this(metricsSystem, spec, maxKnownNodeCacheSize, DEFAULT_STORAGE_THREADS);
+  }
+
+  public V4FinalizedStateTreeStorageLogic(
+      final MetricsSystem metricsSystem,
+      final Spec spec,
+      final int maxKnownNodeCacheSize,
+      final int storageThreads) {
     this.spec = spec;
     this.knownStoredBranchesCache = LimitedSet.createSynchronized(maxKnownNodeCacheSize);
+    this.storageExecutor =
+        storageThreads > 1
+            ? Executors.newFixedThreadPool(
+                storageThreads,
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("state-tree-storage-%d")
+                    .build())
+            : MoreExecutors.newDirectExecutorService();
     this.branchNodeStoredCounter =
         metricsSystem.createLabelledCounter(
             TekuMetricCategory.STORAGE_FINALIZED_DB,
@@ -62,6 +116,34 @@ public class V4FinalizedStateTreeStorageLogic
             TekuMetricCategory.STORAGE_FINALIZED_DB,
             "states_stored",
             "Number of finalized states stored");
+    stateStoreTimeHistogram =
+        MetricsHistogram.create(
+            TekuMetricCategory.STORAGE_FINALIZED_DB,
+            metricsSystem,
+            "state_tree_store_time",
+            "Time taken to collect and write the tree nodes of a finalized state in milliseconds",
+            3,
+            List.of());
+    metricsSystem.createGauge(
+        TekuMetricCategory.STORAGE_FINALIZED_DB,
+        "state_leaf_nodes_loaded",
+        "Number of finalized state tree leaf nodes loaded",
+        nodeInterner::getInternedCount);
+    metricsSystem.createGauge(
+        TekuMetricCategory.STORAGE_FINALIZED_DB,
+        "state_leaf_nodes_deduplicated",
+        "Number of loaded finalized state tree leaf nodes shared with an identical leaf in memory",
+        nodeInterner::getReusedCount);
+    metricsSystem.createGauge(
+        TekuMetricCategory.STORAGE_FINALIZED_DB,
+        "state_branch_nodes_loaded",
+        "Number of finalized state tree branch nodes loaded",
+        nodeInterner::getInternedBranchCount);
+    metricsSystem.createGauge(
+        TekuMetricCategory.STORAGE_FINALIZED_DB,
+        "state_branch_hashes_deduplicated",
+        "Number of loaded finalized state tree branch child hashes shared with an identical hash",
+        nodeInterner::getReusedBranchHashCount);
   }
 
   @Override
@@ -74,18 +156,14 @@ public class V4FinalizedStateTreeStorageLogic
                     .getSchemaDefinitions()
                     .getBeaconStateSchema()
                     .load(
-                        new KvStoreTreeNodeSource(db, dbSchema),
+                        new KvStoreTreeNodeSource(db, dbSchema, nodeInterner),
                         entry.getValue(),
                         GIndexUtil.SELF_G_INDEX));
   }
 
   @Override
   public FinalizedStateUpdater<SchemaCombinedTreeState> updater() {
-    return new StateTreeUpdater(
-        knownStoredBranchesCache,
-        branchNodeStoredCounter,
-        statesStoredCounter,
-        leafNodeStoredCounter);
+    return new StateTreeUpdater();
   }
 
   @Override
@@ -99,25 +177,20 @@ public class V4FinalizedStateTreeStorageLogic
         .map(ColumnEntry::getKey);
   }
 
-  private static class StateTreeUpdater implements FinalizedStateUpdater<SchemaCombinedTreeState> {
+  @Override
+  public void close() {
+    storageExecutor.shutdown();
+  }
+
+  private class StateTreeUpdater implements FinalizedStateUpdater<SchemaCombinedTreeState> {
 
-    private final Set<Bytes32> knownStoredBranchesCache;
-    private final LabelledMetric<Counter> branchNodeStoredCounter;
-    private final Counter statesStoredCounter;
-    private final Counter leafNodeStoredCounter;
-    private TreeNodeStore nodeStore;
+    // Nodes written by this updater which aren't yet visible in the database
+    private final Map<Bytes32, CompressedBranchInfo> storedBranches = new HashMap<>();
+    private final Set<Bytes32> storedLeaves = new HashSet<>();
     private int statesStored = 0;
-
-    private StateTreeUpdater(
-        final Set<Bytes32> knownStoredBranchesCache,
-        final LabelledMetric<Counter> branchNodeStoredCounter,
-        final Counter statesStoredCounter,
-        final Counter leafNodeStoredCounter) {
-      this.knownStoredBranchesCache = knownStoredBranchesCache;
-      this.branchNodeStoredCounter = branchNodeStoredCounter;
-      this.statesStoredCounter = statesStoredCounter;
-      this.leafNodeStoredCounter = leafNodeStoredCounter;
-    }
+    private int storedBranchNodes = 0;
+    private int skippedBranchNodes = 0;
+    private int storedLeafNodes = 0;
 
     @Override
     public void addFinalizedState(
@@ -125,19 +198,15 @@ public class V4FinalizedStateTreeStorageLogic
         final KvStoreTransaction transaction,
         final SchemaCombinedTreeState schema,
         final BeaconState state) {
-      if (nodeStore == null) {
-        nodeStore = new KvStoreTreeNodeStore(knownStoredBranchesCache, transaction, schema);
+      final long startTime = System.nanoTime();
+      final Bytes32 stateRoot = state.hashTreeRoot();
+      transaction.put(schema.getColumnFinalizedStateRootsBySlot(), state.getSlot(), stateRoot);
+      if (!isStoredBranch(db, schema, stateRoot)) {
+        storeNodes(transaction, schema, collectNodes(db, schema, state));
       }
-      transaction.put(
-          schema.getColumnFinalizedStateRootsBySlot(), state.getSlot(), state.hashTreeRoot());
-      state
-          .getSchema()
-          .storeBackingNodes(
-              nodeStore,
-              MAX_BRANCH_LEVELS_SKIPPED,
-              GIndexUtil.SELF_G_INDEX,
-              state.getBackingNode());
       statesStored++;
+      stateStoreTimeHistogram.recordValue(
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
     }
 
     @Override
@@ -149,15 +218,200 @@ public class V4FinalizedStateTreeStorageLogic
       addFinalizedState(db, transaction, schema, state);
     }
 
+    @Override
+    public void deleteFinalizedState(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final SchemaCombinedTreeState schema,
+        final UInt64 slot) {
+      // Nodes may be shared with other states so are retained
+      transaction.delete(schema.getColumnFinalizedStateRootsBySlot(), slot);
+    }
+
+    @Override
+    public int retierFinalizedStates(
+        final KvStoreAccessor db,
+        final KvStoreTransaction transaction,
+        final SchemaCombinedTreeState schema,
+        final int maxStates) {
+      // Nodes are shared between states so there is no per state data to move
+      return 0;
+    }
+
     @Override
     public void commit() {
-      if (nodeStore != null) {
-        knownStoredBranchesCache.addAll(nodeStore.getStoredBranchRoots());
-        branchNodeStoredCounter.labels("stored").inc(nodeStore.getStoredBranchNodeCount());
-        branchNodeStoredCounter.labels("skipped").inc(nodeStore.getSkippedBranchNodeCount());
-        leafNodeStoredCounter.inc(nodeStore.getStoredLeafNodeCount());
-        statesStoredCounter.inc(statesStored);
+      knownStoredBranchesCache.addAll(storedBranches.keySet());
+      branchNodeStoredCounter.labels("stored").inc(storedBranchNodes);
+      branchNodeStoredCounter.labels("skipped").inc(skippedBranchNodes);
+      leafNodeStoredCounter.inc(storedLeafNodes);
+      statesStoredCounter.inc(statesStored);
+    }
+
+    private boolean isStoredBranch(
+        final KvStoreAccessor db, final SchemaCombinedTreeState schema, final Bytes32 root) {
+      return storedBranches.containsKey(root)
+          || knownStoredBranchesCache.contains(root)
+          || db.getRaw(schema.getColumnFinalizedStateMerkleTreeBranches(), root).isPresent();
+    }
+
+    /**
+     * Collects the nodes to store for each non-primitive top level field in parallel, with the
+     * branches above those fields collected on the calling thread.
+     */
+    private List<KvStoreTreeNodeStore> collectNodes(
+        final KvStoreAccessor db, final SchemaCombinedTreeState schema, final BeaconState state) {
+      // storedBranches is only modified once all node stores are complete
+      final Predicate<Bytes32> isStoredBranch =
+          root ->
+              storedBranches.containsKey(root)
+                  || db.getRaw(schema.getColumnFinalizedStateMerkleTreeBranches(), root)
+                      .isPresent();
+      final BeaconStateSchema<?, ?> stateSchema = state.getBeaconStateSchema();
+      final TreeNode rootNode = state.getBackingNode();
+      final List<Long> fieldGIndices = new ArrayList<>();
+      final List<Future<KvStoreTreeNodeStore>> fieldNodeStores = new ArrayList<>();
+      for (int i = 0; i < stateSchema.getFieldsCount(); i++) {
+        final SszSchema<?> fieldSchema = stateSchema.getChildSchema(i);
+        if (fieldSchema.isPrimitive()) {
+          continue;
+        }
+        final long fieldGIndex =
+            GIndexUtil.gIdxChildGIndex(GIndexUtil.SELF_G_INDEX, i, stateSchema.treeDepth());
+        final TreeNode fieldNode = rootNode.get(fieldGIndex);
+        fieldGIndices.add(fieldGIndex);
+        fieldNodeStores.add(
+            storageExecutor.submit(
+                () -> {
+                  final KvStoreTreeNodeStore nodeStore =
+                      new KvStoreTreeNodeStore(knownStoredBranchesCache, isStoredBranch);
+                  fieldSchema.storeBackingNodes(
+                      nodeStore, MAX_BRANCH_LEVELS_SKIPPED, fieldGIndex, fieldNode);
+                  return nodeStore;
+                }));
+      }
+
+      final KvStoreTreeNodeStore topLevelNodeStore =
+          new KvStoreTreeNodeStore(knownStoredBranchesCache, isStoredBranch);
+      stateSchema.storeBackingNodes(
+          new ExcludingTreeNodeStore(topLevelNodeStore, fieldGIndices),
+          MAX_BRANCH_LEVELS_SKIPPED,
+          GIndexUtil.SELF_G_INDEX,
+          rootNode);
+
+      final List<KvStoreTreeNodeStore> nodeStores = new ArrayList<>();
+      nodeStores.add(topLevelNodeStore);
+      for (Future<KvStoreTreeNodeStore> fieldNodeStore : fieldNodeStores) {
+        nodeStores.add(getNodeStore(fieldNodeStore));
       }
+      return nodeStores;
+    }
+
+    private KvStoreTreeNodeStore getNodeStore(final Future<KvStoreTreeNodeStore> future) {
+      try {
+        return future.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw DatabaseStorageException.unrecoverable(
+            "Interrupted while storing finalized state", e);
+      } catch (final ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw DatabaseStorageException.unrecoverable(
+            "Failed to store finalized state", e.getCause());
+      }
+    }
+
+    private void storeNodes(
+        final KvStoreTransaction transaction,
+        final SchemaCombinedTreeState schema,
+        final List<KvStoreTreeNodeStore> nodeStores) {
+      for (KvStoreTreeNodeStore nodeStore : nodeStores) {
+        skippedBranchNodes += nodeStore.getSkippedBranchNodeCount();
+        nodeStore
+            .getNewBranches()
+            .forEach(
+                (root, branch) -> {
+                  // The same subtree may have been collected by more than one node store
+                  if (storedBranches.putIfAbsent(root, branch) == null) {
+                    transaction.put(
+                        schema.getColumnFinalizedStateMerkleTreeBranches(), root, branch);
+                    storedBranchNodes++;
+                  }
+                });
+        nodeStore
+            .getNewLeaves()
+            .forEach(
+                (root, data) -> {
+                  if (storedLeaves.add(root)) {
+                    transaction.put(schema.getColumnFinalizedStateMerkleTreeLeaves(), root, data);
+                    storedLeafNodes++;
+                  }
+                });
+      }
+    }
+  }
+
+  /**
+   * Passes through nodes other than those at or below the excluded generalized indices, which are
+   * stored separately.
+   */
+  private static class ExcludingTreeNodeStore implements TreeNodeStore {
+    private final TreeNodeStore delegate;
+    private final List<Long> excludedGIndices;
+
+    private ExcludingTreeNodeStore(
+        final TreeNodeStore delegate, final List<Long> excludedGIndices) {
+      this.delegate = delegate;
+      this.excludedGIndices = excludedGIndices;
+    }
+
+    @Override
+    public boolean canSkipBranch(final Bytes32 root, final long gIndex) {
+      return isExcluded(gIndex) || delegate.canSkipBranch(root, gIndex);
+    }
+
+    @Override
+    public void storeBranchNode(
+        final Bytes32 root, final long gIndex, final int depth, final Bytes32[] children) {
+      if (!isExcluded(gIndex)) {
+        delegate.storeBranchNode(root, gIndex, depth, children);
+      }
+    }
+
+    @Override
+    public void storeLeafNode(final TreeNode node, final long gIndex) {
+      if (!isExcluded(gIndex)) {
+        delegate.storeLeafNode(node, gIndex);
+      }
+    }
+
+    private boolean isExcluded(final long gIndex) {
+      for (long excludedGIndex : excludedGIndices) {
+        final NodeRelation relation = GIndexUtil.gIdxCompare(gIndex, excludedGIndex);
+        if (relation == NodeRelation.SAME || relation == NodeRelation.SUCCESSOR) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Collection<? extends Bytes32> getStoredBranchRoots() {
+      return delegate.getStoredBranchRoots();
+    }
+
+    @Override
+    public int getStoredBranchNodeCount() {
+      return delegate.getStoredBranchNodeCount();
+    }
+
+    @Override
+    public int getSkippedBranchNodeCount() {
+      return delegate.getSkippedBranchNodeCount();
+    }
+
+    @Override
+    public int getStoredLeafNodeCount() {
+      return delegate.getStoredLeafNodeCount();
     }
   }
 }
@@ -152,6 +152,10 @@ public class V4HotKvStoreDao {
     return db.get(schema.getVariableFinalizedDepositSnapshot());
   }
 
+  public void catchUpWithPrimary() {
+    db.catchUpWithPrimary();
+  }
+
   public void close() throws Exception {
     db.close();
   }
@@ -0,0 +1,297 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.index;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+
+/**
+ * In-memory front for a column keyed by block or state root.
+ *
+ * <p>A bloom filter covering every key in the column lets lookups for unknown roots return
+ * without reading from disk. Columns mapping roots to slots can also keep recently used entries in
+ * a {@link RootSlotCache}.
+ *
+ * <p>The filter is built in the background by streaming the column keys and rebuilt with more
+ * capacity once it fills up. Roots written during a build are recorded and added to the new filter
+ * before it replaces the old one. All lookups go to disk until the first build completes. Bloom
+ * filters don't support removal so deleted roots stay in the filter until the next rebuild, which
+ * only costs an extra disk read.
+ */
+class RootIndex<V> {
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+  static final long MIN_EXPECTED_ROOTS = 1 << 18;
+
+  private static final Funnel<Bytes32> ROOT_FUNNEL =
+      (root, into) -> into.putBytes(root.toArrayUnsafe());
+
+  private final String name;
+  private final KvStoreAccessor db;
+  private final KvStoreColumn<Bytes32, V> column;
+  private final Optional<SlotCache<V>> slotCache;
+  private final Executor rebuildExecutor;
+  private final AtomicBoolean rebuildScheduled = new AtomicBoolean(false);
+
+  private final Counter filteredCounter;
+  private final Counter cachedCounter;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  // Guards updates to the filter so that no write is lost while a new filter is published
+  private final Object filterLock = new Object();
+  // Null until the first build completes
+  private volatile BloomFilter<Bytes32> filter;
+  // Roots written while a build is in progress, replayed into the new filter before publishing it.
+  // Null when no build is in progress. Guarded by filterLock
+  private Set<Bytes32> rootsWrittenDuringBuild;
+  private volatile long expectedRoots;
+
+  private RootIndex(
+      final String name,
+      final KvStoreAccessor db,
+      final KvStoreColumn<Bytes32, V> column,
+      final Optional<SlotCache<V>> slotCache,
+      final Executor rebuildExecutor,
+      final LabelledMetric<Counter> lookupCounter) {
+    this.name = name;
+    this.db = db;
+    this.column = column;
+    this.slotCache = slotCache;
+    this.rebuildExecutor = rebuildExecutor;
+    this.filteredCounter = lookupCounter.labels(name, "filtered");
+    this.cachedCounter = lookupCounter.labels(name, "cached");
+    this.hitCounter = lookupCounter.labels(name, "hit");
+    this.missCounter = lookupCounter.labels(name, "miss");
+  }
+
+  static RootIndex<UInt64> forSlots(
+      final String name,
+      final KvStoreAccessor db,
+      final KvStoreColumn<Bytes32, UInt64> column,
+      final int slotCacheSize,
+      final Executor rebuildExecutor,
+      final LabelledMetric<Counter> lookupCounter) {
+    return new RootIndex<>(
+        name,
+        db,
+        column,
+        Optional.of(
+            new SlotCache<>(
+                new RootSlotCache(slotCacheSize), Function.identity(), Function.identity())),
+        rebuildExecutor,
+        lookupCounter);
+  }
+
+  static <V> RootIndex<V> forRoots(
+      final String name,
+      final KvStoreAccessor db,
+      final KvStoreColumn<Bytes32, V> column,
+      final Executor rebuildExecutor,
+      final LabelledMetric<Counter> lookupCounter) {
+    return new RootIndex<>(
+        name,
+        db,
+        column,
+        Optional.empty(),
+        rebuildExecutor,
+        lookupCounter);
+  }
+
+  void start() {
+    scheduleRebuild();
+  }
+
+  boolean isReady() {
+    return filter != null;
+  }
+
+  Optional<V> get(final Bytes32 root) {
+    final BloomFilter<Bytes32> currentFilter = filter;
+    if (currentFilter != null && !currentFilter.mightContain(root)) {
+      filteredCounter.inc();
+      return Optional.empty();
+    }
+    if (slotCache.isEmpty()) {
+      return load(root);
+    }
+    final SlotCache<V> cache = slotCache.get();
+    final Optional<V> cachedValue = cache.get(root);
+    if (cachedValue.isPresent()) {
+      cachedCounter.inc();
+      return cachedValue;
+    }
+    final long invalidations = cache.getInvalidationCount();
+    final Optional<V> value = load(root);
+    value.ifPresent(present -> cache.putIfNotInvalidated(root, present, invalidations));
+    return value;
+  }
+
+  /** Called when a root is written, before the write is committed */
+  void onWrite(final Bytes32 root) {
+    addToFilters(root);
+  }
+
+  /** Called after a write is committed */
+  void onCommittedWrite(final Bytes32 root, final Optional<V> value) {
+    // Add again in case a rebuild started streaming keys before the write was committed
+    addToFilters(root);
+    slotCache.ifPresent(
+        cache ->
+            value.ifPresentOrElse(
+                present -> cache.put(root, present), () -> cache.invalidate(root)));
+  }
+
+  /** Called after a delete is committed */
+  void onCommittedDelete(final Bytes32 root) {
+    slotCache.ifPresent(cache -> cache.invalidate(root));
+  }
+
+  /** Called after entries have been bulk loaded without going through a transaction */
+  void onCommittedBulkWrite() {
+    slotCache.ifPresent(SlotCache::invalidateAll);
+  }
+
+  private Optional<V> load(final Bytes32 root) {
+    final Optional<V> value = db.get(column, root);
+    if (value.isPresent()) {
+      hitCounter.inc();
+    } else {
+      missCounter.inc();
+    }
+    return value;
+  }
+
+  private void addToFilters(final Bytes32 root) {
+    final BloomFilter<Bytes32> current;
+    synchronized (filterLock) {
+      if (rootsWrittenDuringBuild != null) {
+        rootsWrittenDuringBuild.add(root);
+      }
+      current = filter;
+      if (current != null) {
+        current.put(root);
+      }
+    }
+    if (current != null && current.approximateElementCount() > expectedRoots) {
+      scheduleRebuild();
+    }
+  }
+
+  private void scheduleRebuild() {
+    if (!rebuildScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      rebuildExecutor.execute(this::rebuild);
+    } catch (final RejectedExecutionException e) {
+      rebuildScheduled.set(false);
+      LOG.debug("Not rebuilding {} index as executor is shutting down", name);
+    }
+  }
+
+  private void rebuild() {
+    try {
+      // Start recording before streaming so writes the stream doesn't see are still included
+      synchronized (filterLock) {
+        rootsWrittenDuringBuild = new HashSet<>();
+      }
+      final long expected = Math.max(MIN_EXPECTED_ROOTS, db.size(column) * 3 / 2);
+      final BloomFilter<Bytes32> newFilter =
+          BloomFilter.create(ROOT_FUNNEL, expected, FALSE_POSITIVE_PROBABILITY);
+      try (final Stream<Bytes32> roots = db.streamKeys(column)) {
+        roots.forEach(newFilter::put);
+      }
+      synchronized (filterLock) {
+        rootsWrittenDuringBuild.forEach(newFilter::put);
+        expectedRoots = expected;
+        filter = newFilter;
+      }
+      LOG.debug("Built {} index with {} roots", name, newFilter.approximateElementCount());
+    } catch (final RuntimeException e) {
+      // The previous filter, if any, is still valid so lookups remain correct
+      LOG.warn("Failed to build {} index", name, e);
+    } finally {
+      synchronized (filterLock) {
+        rootsWrittenDuringBuild = null;
+      }
+      rebuildScheduled.set(false);
+    }
+  }
+
+  private static class SlotCache<V> {
+    private final RootSlotCache cache;
+    private final Function<V, UInt64> toSlot;
+    private final Function<UInt64, V> fromSlot;
+
+    private SlotCache(
+        final RootSlotCache cache,
+        final Function<V, UInt64> toSlot,
+        final Function<UInt64, V> fromSlot) {
+      this.cache = cache;
+      this.toSlot = toSlot;
+      this.fromSlot = fromSlot;
+    }
+
+    private Optional<V> get(final Bytes32 root) {
+      final long slot = cache.get(root);
+      return slot == RootSlotCache.NO_SLOT
+          ? Optional.empty()
+          : Optional.of(fromSlot.apply(UInt64.valueOf(slot)));
+    }
+
+    private long getInvalidationCount() {
+      return cache.getInvalidationCount();
+    }
+
+    private void invalidate(final Bytes32 root) {
+      cache.invalidate(root);
+    }
+
+    private void invalidateAll() {
+      cache.invalidateAll();
+    }
+
+    private void put(final Bytes32 root, final V value) {
+      cache.put(root, slotOf(value));
+    }
+
+    private void putIfNotInvalidated(
+        final Bytes32 root, final V value, final long expectedInvalidations) {
+      cache.putIfNotInvalidated(root, slotOf(value), expectedInvalidations);
+    }
+
+    private long slotOf(final V value) {
+      final UInt64 slot = toSlot.apply(value);
+      return slot.isGreaterThan(Long.MAX_VALUE) ? RootSlotCache.NO_SLOT : slot.longValue();
+    }
+  }
+}
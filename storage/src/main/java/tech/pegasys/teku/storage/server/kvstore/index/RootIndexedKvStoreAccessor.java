@@ -0,0 +1,341 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.index;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.MustBeClosed;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombined;
+
+/**
+ * Wraps a {@link KvStoreAccessor} to serve lookups by block and state root from a {@link
+ * RootIndex}, so that requests for unknown roots don't need to read from disk.
+ *
+ * <p>The indices are updated by every transaction started from this accessor, so all writes to the
+ * indexed columns must go through it.
+ */
+public class RootIndexedKvStoreAccessor implements KvStoreAccessor {
+  static final int SLOT_CACHE_SIZE = 1 << 16;
+
+  private final KvStoreAccessor delegate;
+  private final ExecutorService rebuildExecutor;
+  private final Map<KvStoreColumn<?, ?>, RootIndex<?>> indices = new HashMap<>();
+
+  @VisibleForTesting
+  RootIndexedKvStoreAccessor(
+      final KvStoreAccessor delegate,
+      final SchemaCombined schema,
+      final MetricsSystem metricsSystem,
+      final ExecutorService rebuildExecutor) {
+    this.delegate = delegate;
+    this.rebuildExecutor = rebuildExecutor;
+    final LabelledMetric<Counter> lookupCounter =
+        metricsSystem.createLabelledCounter(
+            TekuMetricCategory.STORAGE,
+            "root_index_lookups",
+            "Number of lookups by root, by whether they were filtered, cached or read from disk",
+            "index",
+            "result");
+    addIndex(
+        schema.getColumnSlotsByFinalizedRoot(),
+        RootIndex.forSlots(
+            "finalized_block_root",
+            delegate,
+            schema.getColumnSlotsByFinalizedRoot(),
+            SLOT_CACHE_SIZE,
+            rebuildExecutor,
+            lookupCounter));
+    addIndex(
+        schema.getColumnSlotsByFinalizedStateRoot(),
+        RootIndex.forSlots(
+            "finalized_state_root",
+            delegate,
+            schema.getColumnSlotsByFinalizedStateRoot(),
+            SLOT_CACHE_SIZE,
+            rebuildExecutor,
+            lookupCounter));
+    addIndex(
+        schema.getColumnStateRootToSlotAndBlockRoot(),
+        RootIndex.forRoots(
+            "hot_state_root",
+            delegate,
+            schema.getColumnStateRootToSlotAndBlockRoot(),
+            rebuildExecutor,
+            lookupCounter));
+  }
+
+  /** Wraps the database and starts building the indices in the background. */
+  public static RootIndexedKvStoreAccessor create(
+      final KvStoreAccessor delegate,
+      final SchemaCombined schema,
+      final MetricsSystem metricsSystem) {
+    // Threads are only needed while building so let them exit once idle
+    final ExecutorService rebuildExecutor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("root-index-%d").build());
+    final RootIndexedKvStoreAccessor accessor =
+        new RootIndexedKvStoreAccessor(delegate, schema, metricsSystem, rebuildExecutor);
+    accessor.start();
+    return accessor;
+  }
+
+  @VisibleForTesting
+  void start() {
+    indices.values().forEach(RootIndex::start);
+  }
+
+  @VisibleForTesting
+  boolean isReady() {
+    return indices.values().stream().allMatch(RootIndex::isReady);
+  }
+
+  private void addIndex(final KvStoreColumn<?, ?> column, final RootIndex<?> index) {
+    indices.put(column, index);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <K, V> Optional<RootIndex<V>> getIndex(final KvStoreColumn<K, V> column) {
+    return Optional.ofNullable((RootIndex<V>) indices.get(column));
+  }
+
+  @Override
+  public <T> Optional<T> get(final KvStoreVariable<T> variable) {
+    return delegate.get(variable);
+  }
+
+  @Override
+  public Optional<Bytes> getRaw(final KvStoreVariable<?> variable) {
+    return delegate.getRaw(variable);
+  }
+
+  @Override
+  public <K, V> Optional<V> get(final KvStoreColumn<K, V> column, final K key) {
+    final Optional<RootIndex<V>> index = getIndex(column);
+    if (index.isEmpty()) {
+      return delegate.get(column, key);
+    }
+    return index.get().get((Bytes32) key);
+  }
+
+  @Override
+  public long size(final KvStoreColumn<?, ?> column) {
+    return delegate.size(column);
+  }
+
+  @Override
+  public <K, V> Map<K, V> getAll(final KvStoreColumn<K, V> column) {
+    return delegate.getAll(column);
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFloorEntry(
+      final KvStoreColumn<K, V> column, final K key) {
+    return delegate.getFloorEntry(column, key);
+  }
+
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    return delegate.getFloorKey(column, key);
+  }
+
+  @Override
+  public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
+    return delegate.getFirstEntry(column);
+  }
+
+  @Override
+  public <K, V> Optional<K> getLastKey(final KvStoreColumn<K, V> column) {
+    return delegate.getLastKey(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K, V> Stream<ColumnEntry<K, V>> stream(final KvStoreColumn<K, V> column) {
+    return delegate.stream(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K, V> Stream<K> streamKeys(final KvStoreColumn<K, V> column) {
+    return delegate.streamKeys(column);
+  }
+
+  @Override
+  @MustBeClosed
+  public Stream<ColumnEntry<Bytes, Bytes>> streamRaw(final KvStoreColumn<?, ?> column) {
+    return delegate.streamRaw(column);
+  }
+
+  @Override
+  public <K, V> Optional<Bytes> getRaw(final KvStoreColumn<K, V> column, final K key) {
+    return delegate.getRaw(column, key);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K extends Comparable<K>, V> Stream<ColumnEntry<K, V>> stream(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return delegate.stream(column, from, to);
+  }
+
+  @Override
+  @MustBeClosed
+  public <K extends Comparable<K>, V> Stream<K> streamKeys(
+      final KvStoreColumn<K, V> column, final K from, final K to) {
+    return delegate.streamKeys(column, from, to);
+  }
+
+  @Override
+  public KvStoreTransaction startTransaction() {
+    return new IndexedTransaction(delegate.startTransaction());
+  }
+
+  @Override
+  public void ingestRaw(
+      final KvStoreColumn<?, ?> column, final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    final Optional<? extends RootIndex<?>> index = getIndex(column);
+    if (index.isEmpty()) {
+      delegate.ingestRaw(column, sortedEntries);
+      return;
+    }
+    // Add roots to the filter as they are read, before any of them can become visible
+    delegate.ingestRaw(
+        column,
+        Iterators.transform(
+            sortedEntries,
+            entry -> {
+              index.get().onWrite(Bytes32.wrap(entry.getKey()));
+              return entry;
+            }));
+    index.get().onCommittedBulkWrite();
+  }
+
+  @Override
+  public boolean isSecondary() {
+    return delegate.isSecondary();
+  }
+
+  @Override
+  public void catchUpWithPrimary() {
+    delegate.catchUpWithPrimary();
+  }
+
+  @Override
+  public void close() throws Exception {
+    rebuildExecutor.shutdownNow();
+    delegate.close();
+  }
+
+  private class IndexedTransaction implements KvStoreTransaction {
+    private final KvStoreTransaction delegate;
+    // Applied to the indices once the transaction is committed
+    private final List<Runnable> committedUpdates = new ArrayList<>();
+
+    private IndexedTransaction(final KvStoreTransaction delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public <T> void put(final KvStoreVariable<T> variable, final T value) {
+      delegate.put(variable, value);
+    }
+
+    @Override
+    public <T> void putRaw(final KvStoreVariable<T> variable, final Bytes value) {
+      delegate.putRaw(variable, value);
+    }
+
+    @Override
+    public <K, V> void put(final KvStoreColumn<K, V> column, final K key, final V value) {
+      delegate.put(column, key, value);
+      getIndex(column).ifPresent(index -> recordWrite(index, (Bytes32) key, Optional.of(value)));
+    }
+
+    @Override
+    public <K, V> void putRaw(
+        final KvStoreColumn<K, V> column, final Bytes key, final Bytes value) {
+      delegate.putRaw(column, key, value);
+      // Raw values aren't decoded so just make sure nothing stale is cached
+      getIndex(column)
+          .ifPresent(index -> recordWrite(index, Bytes32.wrap(key), Optional.empty()));
+    }
+
+    @Override
+    public <K, V> void put(final KvStoreColumn<K, V> column, final Map<K, V> data) {
+      delegate.put(column, data);
+      getIndex(column)
+          .ifPresent(
+              index ->
+                  data.forEach(
+                      (key, value) -> recordWrite(index, (Bytes32) key, Optional.of(value))));
+    }
+
+    @Override
+    public <K, V> void delete(final KvStoreColumn<K, V> column, final K key) {
+      delegate.delete(column, key);
+      getIndex(column)
+          .ifPresent(index -> committedUpdates.add(() -> index.onCommittedDelete((Bytes32) key)));
+    }
+
+    @Override
+    public <T> void delete(final KvStoreVariable<T> variable) {
+      delegate.delete(variable);
+    }
+
+    @Override
+    public void commit() {
+      delegate.commit();
+      committedUpdates.forEach(Runnable::run);
+      committedUpdates.clear();
+    }
+
+    @Override
+    public void rollback() {
+      delegate.rollback();
+      committedUpdates.clear();
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+
+    private <V> void recordWrite(
+        final RootIndex<V> index, final Bytes32 root, final Optional<V> value) {
+      // Add to the filter straight away so the root is never filtered out once it is visible
+      index.onWrite(root);
+      committedUpdates.add(() -> index.onCommittedWrite(root, value));
+    }
+  }
+}
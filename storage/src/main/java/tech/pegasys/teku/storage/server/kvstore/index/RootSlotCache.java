@@ -0,0 +1,138 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Fixed size cache of root to slot mappings stored in primitive arrays.
+ *
+ * <p>Uses open addressing with a bounded probe window. When every entry in the window is taken,
+ * one of them is overwritten so the cache never grows and never needs resizing. Lookups always
+ * check the whole window, which means entries can be removed without leaving tombstones.
+ */
+class RootSlotCache {
+  static final long NO_SLOT = -1;
+  private static final int MAX_PROBES = 8;
+  private static final int LONGS_PER_ROOT = Bytes32.SIZE / Long.BYTES;
+
+  private final long[] roots;
+  private final long[] slots;
+  private final int mask;
+  private long invalidations = 0;
+
+  RootSlotCache(final int capacity) {
+    checkArgument(
+        capacity >= MAX_PROBES && Integer.bitCount(capacity) == 1,
+        "Capacity must be a power of two of at least %s",
+        MAX_PROBES);
+    this.roots = new long[capacity * LONGS_PER_ROOT];
+    this.slots = new long[capacity];
+    this.mask = capacity - 1;
+    Arrays.fill(slots, NO_SLOT);
+  }
+
+  synchronized long get(final Bytes32 root) {
+    final int index = find(root);
+    return index < 0 ? NO_SLOT : slots[index];
+  }
+
+  /**
+   * Returns a token which must be passed to {@link #putIfNotInvalidated(Bytes32, long, long)} when
+   * caching a value read from disk, so that values read before a concurrent delete aren't cached.
+   */
+  synchronized long getInvalidationCount() {
+    return invalidations;
+  }
+
+  synchronized void put(final Bytes32 root, final long slot) {
+    if (slot < 0) {
+      // Can't be represented, the value will just be read from disk
+      invalidate(root);
+      return;
+    }
+    int index = find(root);
+    if (index < 0) {
+      index = findFreeOrVictim(root);
+    }
+    for (int i = 0; i < LONGS_PER_ROOT; i++) {
+      roots[index * LONGS_PER_ROOT + i] = root.getLong(i * Long.BYTES);
+    }
+    slots[index] = slot;
+  }
+
+  synchronized void putIfNotInvalidated(
+      final Bytes32 root, final long slot, final long expectedInvalidations) {
+    if (invalidations == expectedInvalidations) {
+      put(root, slot);
+    }
+  }
+
+  synchronized void invalidate(final Bytes32 root) {
+    invalidations++;
+    final int index = find(root);
+    if (index >= 0) {
+      slots[index] = NO_SLOT;
+    }
+  }
+
+  synchronized void invalidateAll() {
+    invalidations++;
+    Arrays.fill(slots, NO_SLOT);
+  }
+
+  private int find(final Bytes32 root) {
+    final int start = hash(root);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      final int index = (start + probe) & mask;
+      if (slots[index] != NO_SLOT && matches(index, root)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  private int findFreeOrVictim(final Bytes32 root) {
+    final int start = hash(root);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      final int index = (start + probe) & mask;
+      if (slots[index] == NO_SLOT) {
+        return index;
+      }
+    }
+    // Window is full, pick an entry to replace using bits of the root not used by the hash
+    return (start + (int) (root.getLong(Long.BYTES) & (MAX_PROBES - 1))) & mask;
+  }
+
+  private boolean matches(final int index, final Bytes32 root) {
+    for (int i = 0; i < LONGS_PER_ROOT; i++) {
+      if (roots[index * LONGS_PER_ROOT + i] != root.getLong(i * Long.BYTES)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int hash(final Bytes32 root) {
+    // Roots are usually hashes already but mix all the words in case they aren't
+    long value = 0;
+    for (int i = 0; i < LONGS_PER_ROOT; i++) {
+      value = value * 31 + root.getLong(i * Long.BYTES);
+    }
+    return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+}
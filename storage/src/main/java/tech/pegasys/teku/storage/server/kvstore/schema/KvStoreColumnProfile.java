@@ -0,0 +1,32 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.schema;
+
+/**
+ * Describes how a column is accessed so that storage engines which support it can tune each
+ * column separately. Profiles are hints only; data written under one profile remains readable if
+ * the profile of a column is later changed.
+ */
+public enum KvStoreColumnProfile {
+  /** Mixed or unknown access pattern. */
+  DEFAULT,
+  /** Random point lookups, typically by a Bytes32 root, where most reads are for a single key. */
+  POINT_LOOKUP,
+  /** Keys which increase with slot or index and are mostly written and read in order. */
+  SEQUENTIAL,
+  /** Large values such as states and blob sidecars which are rarely read after being written. */
+  LARGE_VALUE,
+  /** Large values which are kept for archival purposes and read only occasionally. */
+  COLD
+}
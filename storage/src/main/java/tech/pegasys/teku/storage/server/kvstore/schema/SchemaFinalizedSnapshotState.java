@@ -13,10 +13,17 @@
 
 package tech.pegasys.teku.storage.server.kvstore.schema;
 
+import org.apache.tuweni.bytes.Bytes;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
 
 public interface SchemaFinalizedSnapshotState {
 
   KvStoreColumn<UInt64, BeaconState> getColumnFinalizedStatesBySlot();
+
+  /** Older snapshots moved out of {@link #getColumnFinalizedStatesBySlot()} by state tiering. */
+  KvStoreColumn<UInt64, BeaconState> getColumnColdFinalizedStatesBySlot();
+
+  /** Diffs of the serialized state against an earlier snapshot, see {@code FinalizedStateDiff}. */
+  KvStoreColumn<UInt64, Bytes> getColumnFinalizedStateDiffsBySlot();
 }
@@ -39,6 +39,16 @@ public class SchemaFinalizedSnapshotStateAdapter implements SchemaFinalizedSnaps
     return snapshotDelegate.getColumnFinalizedStatesBySlot();
   }
 
+  @Override
+  public KvStoreColumn<UInt64, BeaconState> getColumnColdFinalizedStatesBySlot() {
+    return snapshotDelegate.getColumnColdFinalizedStatesBySlot();
+  }
+
+  @Override
+  public KvStoreColumn<UInt64, Bytes> getColumnFinalizedStateDiffsBySlot() {
+    return snapshotDelegate.getColumnFinalizedStateDiffsBySlot();
+  }
+
   public KvStoreColumn<SlotAndBlockRoot, Bytes> getColumnBlobsSidecarBySlotAndBlockRoot() {
     return delegate.getColumnBlobsSidecarBySlotAndBlockRoot();
   }
@@ -60,6 +70,8 @@ public class SchemaFinalizedSnapshotStateAdapter implements SchemaFinalizedSnaps
         .put(
             "UNCONFIRMED_BLOBS_SIDECAR_BY_SLOT_AND_BLOCK_ROOT",
             getColumnUnconfirmedBlobsSidecarBySlotAndBlockRoot())
+        .put("COLD_FINALIZED_STATES_BY_SLOT", getColumnColdFinalizedStatesBySlot())
+        .put("FINALIZED_STATE_DIFFS_BY_SLOT", getColumnFinalizedStateDiffsBySlot())
         .build();
   }
 
@@ -64,6 +64,10 @@ public class SchemaHotAdapter implements Schema {
     return delegate.getColumnHotStatesByRoot();
   }
 
+  public KvStoreColumn<Bytes32, Bytes> getColumnHotStateDiffsByRoot() {
+    return delegate.getColumnHotStateDiffsByRoot();
+  }
+
   public KvStoreVariable<UInt64> getVariableGenesisTime() {
     return delegate.getVariableGenesisTime();
   }
@@ -108,6 +112,7 @@ public class SchemaHotAdapter implements Schema {
         "DEPOSITS_FROM_BLOCK_EVENTS", getColumnDepositsFromBlockEvents(),
         "STATE_ROOT_TO_SLOT_AND_BLOCK_ROOT", getColumnStateRootToSlotAndBlockRoot(),
         "HOT_STATES_BY_ROOT", getColumnHotStatesByRoot(),
+        "HOT_STATE_DIFFS_BY_ROOT", getColumnHotStateDiffsByRoot(),
         "HOT_BLOCK_CHECKPOINT_EPOCHS_BY_ROOT", getColumnHotBlockCheckpointEpochsByRoot());
   }
 
@@ -14,6 +14,7 @@
 package tech.pegasys.teku.storage.server.kvstore.schema;
 
 import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES32_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
 import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.CHECKPOINT_EPOCHS_SERIALIZER;
 import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.CHECKPOINT_SERIALIZER;
 import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.DEPOSITS_FROM_BLOCK_EVENT_SERIALIZER;
@@ -25,6 +26,7 @@ import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSeri
 
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import tech.pegasys.teku.ethereum.pow.api.DepositTreeSnapshot;
 import tech.pegasys.teku.ethereum.pow.api.DepositsFromBlockEvent;
@@ -38,6 +40,7 @@ import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
 import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
 import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
 import tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer;
+import tech.pegasys.teku.storage.server.kvstore.serialization.PreSerializingSerializer;
 
 public abstract class V6SchemaCombined implements SchemaCombined {
 
@@ -54,13 +57,29 @@ public abstract class V6SchemaCombined implements SchemaCombined {
   private final KvStoreColumn<Checkpoint, BeaconState> checkpointStates;
   private final KvStoreColumn<UInt64, VoteTracker> votes;
   private static final KvStoreColumn<UInt64, DepositsFromBlockEvent> DEPOSITS_FROM_BLOCK_EVENTS =
-      KvStoreColumn.create(4, UINT64_SERIALIZER, DEPOSITS_FROM_BLOCK_EVENT_SERIALIZER);
+      KvStoreColumn.create(
+          4,
+          UINT64_SERIALIZER,
+          DEPOSITS_FROM_BLOCK_EVENT_SERIALIZER,
+          KvStoreColumnProfile.SEQUENTIAL);
   private static final KvStoreColumn<Bytes32, SlotAndBlockRoot> STATE_ROOT_TO_SLOT_AND_BLOCK_ROOT =
-      KvStoreColumn.create(5, BYTES32_SERIALIZER, SLOT_AND_BLOCK_ROOT_SERIALIZER);
+      KvStoreColumn.create(
+          5,
+          BYTES32_SERIALIZER,
+          SLOT_AND_BLOCK_ROOT_SERIALIZER,
+          KvStoreColumnProfile.POINT_LOOKUP);
   private final KvStoreColumn<Bytes32, BeaconState> hotStatesByRoot;
   private static final KvStoreColumn<Bytes32, BlockCheckpoints>
       HOT_BLOCK_CHECKPOINT_EPOCHS_BY_ROOT =
-          KvStoreColumn.create(7, BYTES32_SERIALIZER, CHECKPOINT_EPOCHS_SERIALIZER);
+          KvStoreColumn.create(
+              7,
+              BYTES32_SERIALIZER,
+              CHECKPOINT_EPOCHS_SERIALIZER,
+              KvStoreColumnProfile.POINT_LOOKUP);
+  // Hot states serialized as a TreeDiff against the latest finalized state
+  private static final KvStoreColumn<Bytes32, Bytes> HOT_STATE_DIFFS_BY_ROOT =
+      KvStoreColumn.create(
+          8, BYTES32_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.LARGE_VALUE);
 
   // Variables
   private static final KvStoreVariable<UInt64> GENESIS_TIME =
@@ -88,14 +107,28 @@ public abstract class V6SchemaCombined implements SchemaCombined {
     this.finalizedOffset = finalizedOffset;
     final KvStoreSerializer<SignedBeaconBlock> signedBlockSerializer =
         KvStoreSerializer.createSignedBlockSerializer(spec);
-    hotBlocksByRoot = KvStoreColumn.create(1, BYTES32_SERIALIZER, signedBlockSerializer);
+    hotBlocksByRoot =
+        KvStoreColumn.create(
+            1,
+            BYTES32_SERIALIZER,
+            new PreSerializingSerializer<>(signedBlockSerializer),
+            KvStoreColumnProfile.POINT_LOOKUP);
     final KvStoreSerializer<BeaconState> stateSerializer =
         KvStoreSerializer.createStateSerializer(spec);
-    checkpointStates = KvStoreColumn.create(2, CHECKPOINT_SERIALIZER, stateSerializer);
-    hotStatesByRoot = KvStoreColumn.create(6, BYTES32_SERIALIZER, stateSerializer);
+    checkpointStates =
+        KvStoreColumn.create(
+            2, CHECKPOINT_SERIALIZER, stateSerializer, KvStoreColumnProfile.LARGE_VALUE);
+    hotStatesByRoot =
+        KvStoreColumn.create(
+            6,
+            BYTES32_SERIALIZER,
+            new PreSerializingSerializer<>(stateSerializer),
+            KvStoreColumnProfile.LARGE_VALUE);
     latestFinalizedState = KvStoreVariable.create(5, stateSerializer);
 
-    votes = KvStoreColumn.create(3, UINT64_SERIALIZER, VOTE_TRACKER_SERIALIZER);
+    votes =
+        KvStoreColumn.create(
+            3, UINT64_SERIALIZER, VOTE_TRACKER_SERIALIZER, KvStoreColumnProfile.SEQUENTIAL);
 
     optimisticTransitionBlockSlot = KvStoreVariable.create(finalizedOffset + 1, UINT64_SERIALIZER);
   }
@@ -135,6 +168,11 @@ public abstract class V6SchemaCombined implements SchemaCombined {
     return hotStatesByRoot;
   }
 
+  @Override
+  public KvStoreColumn<Bytes32, Bytes> getColumnHotStateDiffsByRoot() {
+    return HOT_STATE_DIFFS_BY_ROOT;
+  }
+
   @Override
   public KvStoreVariable<UInt64> getVariableGenesisTime() {
     return GENESIS_TIME;
@@ -194,6 +232,7 @@ public abstract class V6SchemaCombined implements SchemaCombined {
         .put("DEPOSITS_FROM_BLOCK_EVENTS", getColumnDepositsFromBlockEvents())
         .put("STATE_ROOT_TO_SLOT_AND_BLOCK_ROOT", getColumnStateRootToSlotAndBlockRoot())
         .put("HOT_STATES_BY_ROOT", getColumnHotStatesByRoot())
+        .put("HOT_STATE_DIFFS_BY_ROOT", getColumnHotStateDiffsByRoot())
         .put("HOT_BLOCK_CHECKPOINT_EPOCHS_BY_ROOT", getColumnHotBlockCheckpointEpochsByRoot())
         .put("SLOTS_BY_FINALIZED_ROOT", getColumnSlotsByFinalizedRoot())
         .put("FINALIZED_BLOCKS_BY_SLOT", getColumnFinalizedBlocksBySlot())
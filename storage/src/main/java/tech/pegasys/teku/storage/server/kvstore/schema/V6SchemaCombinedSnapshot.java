@@ -44,6 +44,8 @@ public class V6SchemaCombinedSnapshot extends V6SchemaCombined
   private final KvStoreColumn<Bytes32, UInt64> slotsByFinalizedStateRoot;
   private final KvStoreColumn<UInt64, Set<Bytes32>> nonCanonicalBlockRootsBySlot;
   private final KvStoreColumn<UInt64, BeaconState> finalizedStatesBySlot;
+  private final KvStoreColumn<UInt64, BeaconState> coldFinalizedStatesBySlot;
+  private final KvStoreColumn<UInt64, Bytes> finalizedStateDiffsBySlot;
 
   private final KvStoreColumn<SlotAndBlockRoot, Bytes> blobsSidecarBySlotAndBlockRoot;
   private final KvStoreColumn<SlotAndBlockRoot, Void> unconfirmedBlobsSidecarBySlotAndBlockRoot;
@@ -52,31 +54,63 @@ public class V6SchemaCombinedSnapshot extends V6SchemaCombined
   private V6SchemaCombinedSnapshot(final Spec spec, final int finalizedOffset) {
     super(spec, finalizedOffset);
     slotsByFinalizedRoot =
-        KvStoreColumn.create(finalizedOffset + 1, BYTES32_SERIALIZER, UINT64_SERIALIZER);
+        KvStoreColumn.create(
+            finalizedOffset + 1,
+            BYTES32_SERIALIZER,
+            UINT64_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     finalizedBlocksBySlot =
         KvStoreColumn.create(
             finalizedOffset + 2,
             UINT64_SERIALIZER,
-            KvStoreSerializer.createSignedBlockSerializer(spec));
+            KvStoreSerializer.createSignedBlockSerializer(spec),
+            KvStoreColumnProfile.SEQUENTIAL);
     finalizedStatesBySlot =
         KvStoreColumn.create(
-            finalizedOffset + 3, UINT64_SERIALIZER, KvStoreSerializer.createStateSerializer(spec));
+            finalizedOffset + 3,
+            UINT64_SERIALIZER,
+            KvStoreSerializer.createStateSerializer(spec),
+            KvStoreColumnProfile.LARGE_VALUE);
     slotsByFinalizedStateRoot =
-        KvStoreColumn.create(finalizedOffset + 4, BYTES32_SERIALIZER, UINT64_SERIALIZER);
+        KvStoreColumn.create(
+            finalizedOffset + 4,
+            BYTES32_SERIALIZER,
+            UINT64_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     nonCanonicalBlocksByRoot =
         KvStoreColumn.create(
             finalizedOffset + 5,
             BYTES32_SERIALIZER,
-            KvStoreSerializer.createSignedBlockSerializer(spec));
+            KvStoreSerializer.createSignedBlockSerializer(spec),
+            KvStoreColumnProfile.POINT_LOOKUP);
     nonCanonicalBlockRootsBySlot =
-        KvStoreColumn.create(finalizedOffset + 6, UINT64_SERIALIZER, BLOCK_ROOTS_SERIALIZER);
+        KvStoreColumn.create(
+            finalizedOffset + 6,
+            UINT64_SERIALIZER,
+            BLOCK_ROOTS_SERIALIZER,
+            KvStoreColumnProfile.SEQUENTIAL);
 
     blobsSidecarBySlotAndBlockRoot =
         KvStoreColumn.create(
-            finalizedOffset + 10, SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER, BYTES_SERIALIZER);
+            finalizedOffset + 10,
+            SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER,
+            BYTES_SERIALIZER,
+            KvStoreColumnProfile.LARGE_VALUE);
     unconfirmedBlobsSidecarBySlotAndBlockRoot =
         KvStoreColumn.create(
-            finalizedOffset + 11, SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER, VOID_SERIALIZER);
+            finalizedOffset + 11,
+            SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER,
+            VOID_SERIALIZER,
+            KvStoreColumnProfile.SEQUENTIAL);
+    coldFinalizedStatesBySlot =
+        KvStoreColumn.create(
+            finalizedOffset + 12,
+            UINT64_SERIALIZER,
+            KvStoreSerializer.createStateSerializer(spec),
+            KvStoreColumnProfile.COLD);
+    finalizedStateDiffsBySlot =
+        KvStoreColumn.create(
+            finalizedOffset + 13, UINT64_SERIALIZER, BYTES_SERIALIZER, KvStoreColumnProfile.COLD);
 
     deletedColumnIds =
         List.of(
@@ -98,6 +132,16 @@ public class V6SchemaCombinedSnapshot extends V6SchemaCombined
     return finalizedStatesBySlot;
   }
 
+  @Override
+  public KvStoreColumn<UInt64, BeaconState> getColumnColdFinalizedStatesBySlot() {
+    return coldFinalizedStatesBySlot;
+  }
+
+  @Override
+  public KvStoreColumn<UInt64, Bytes> getColumnFinalizedStateDiffsBySlot() {
+    return finalizedStateDiffsBySlot;
+  }
+
   @Override
   public KvStoreColumn<Bytes32, UInt64> getColumnSlotsByFinalizedRoot() {
     return slotsByFinalizedRoot;
@@ -143,6 +187,7 @@ public class V6SchemaCombinedSnapshot extends V6SchemaCombined
         .put("DEPOSITS_FROM_BLOCK_EVENTS", getColumnDepositsFromBlockEvents())
         .put("STATE_ROOT_TO_SLOT_AND_BLOCK_ROOT", getColumnStateRootToSlotAndBlockRoot())
         .put("HOT_STATES_BY_ROOT", getColumnHotStatesByRoot())
+        .put("HOT_STATE_DIFFS_BY_ROOT", getColumnHotStateDiffsByRoot())
         .put("HOT_BLOCK_CHECKPOINT_EPOCHS_BY_ROOT", getColumnHotBlockCheckpointEpochsByRoot())
         .put("SLOTS_BY_FINALIZED_ROOT", getColumnSlotsByFinalizedRoot())
         .put("FINALIZED_BLOCKS_BY_SLOT", getColumnFinalizedBlocksBySlot())
@@ -154,6 +199,8 @@ public class V6SchemaCombinedSnapshot extends V6SchemaCombined
         .put(
             "UNCONFIRMED_BLOBS_SIDECAR_BY_SLOT_AND_BLOCK_ROOT",
             getColumnUnconfirmedBlobsSidecarBySlotAndBlockRoot())
+        .put("COLD_FINALIZED_STATES_BY_SLOT", getColumnColdFinalizedStatesBySlot())
+        .put("FINALIZED_STATE_DIFFS_BY_SLOT", getColumnFinalizedStateDiffsBySlot())
         .build();
   }
 
@@ -54,37 +54,66 @@ public class V6SchemaCombinedTreeState extends V6SchemaCombined implements Schem
   public V6SchemaCombinedTreeState(final Spec spec) {
     super(spec, V6_FINALIZED_OFFSET);
     slotsByFinalizedRoot =
-        KvStoreColumn.create(V6_FINALIZED_OFFSET + 1, BYTES32_SERIALIZER, UINT64_SERIALIZER);
+        KvStoreColumn.create(
+            V6_FINALIZED_OFFSET + 1,
+            BYTES32_SERIALIZER,
+            UINT64_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     slotsByFinalizedStateRoot =
-        KvStoreColumn.create(V6_FINALIZED_OFFSET + 2, BYTES32_SERIALIZER, UINT64_SERIALIZER);
+        KvStoreColumn.create(
+            V6_FINALIZED_OFFSET + 2,
+            BYTES32_SERIALIZER,
+            UINT64_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     nonCanonicalBlockRootsBySlot =
-        KvStoreColumn.create(V6_FINALIZED_OFFSET + 3, UINT64_SERIALIZER, BLOCK_ROOTS_SERIALIZER);
+        KvStoreColumn.create(
+            V6_FINALIZED_OFFSET + 3,
+            UINT64_SERIALIZER,
+            BLOCK_ROOTS_SERIALIZER,
+            KvStoreColumnProfile.SEQUENTIAL);
     finalizedStateRootsBySlot =
-        KvStoreColumn.create(V6_FINALIZED_OFFSET + 4, UINT64_SERIALIZER, BYTES32_SERIALIZER);
+        KvStoreColumn.create(
+            V6_FINALIZED_OFFSET + 4,
+            UINT64_SERIALIZER,
+            BYTES32_SERIALIZER,
+            KvStoreColumnProfile.SEQUENTIAL);
     finalizedStateTreeLeavesByRoot =
-        KvStoreColumn.create(V6_FINALIZED_OFFSET + 5, BYTES32_SERIALIZER, BYTES_SERIALIZER);
+        KvStoreColumn.create(
+            V6_FINALIZED_OFFSET + 5,
+            BYTES32_SERIALIZER,
+            BYTES_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     finalizedStateTreeBranchesByRoot =
         KvStoreColumn.create(
             V6_FINALIZED_OFFSET + 6,
             BYTES32_SERIALIZER,
-            COMPRESSED_BRANCH_INFO_KV_STORE_SERIALIZER);
+            COMPRESSED_BRANCH_INFO_KV_STORE_SERIALIZER,
+            KvStoreColumnProfile.POINT_LOOKUP);
     finalizedBlocksBySlot =
         KvStoreColumn.create(
             V6_FINALIZED_OFFSET + 7,
             UINT64_SERIALIZER,
-            KvStoreSerializer.createSignedBlockSerializer(spec));
+            KvStoreSerializer.createSignedBlockSerializer(spec),
+            KvStoreColumnProfile.SEQUENTIAL);
     nonCanonicalBlocksByRoot =
         KvStoreColumn.create(
             V6_FINALIZED_OFFSET + 8,
             BYTES32_SERIALIZER,
-            KvStoreSerializer.createSignedBlockSerializer(spec));
+            KvStoreSerializer.createSignedBlockSerializer(spec),
+            KvStoreColumnProfile.POINT_LOOKUP);
 
     blobsSidecarBySlotAndBlockRoot =
         KvStoreColumn.create(
-            finalizedOffset + 12, SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER, BYTES_SERIALIZER);
+            finalizedOffset + 12,
+            SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER,
+            BYTES_SERIALIZER,
+            KvStoreColumnProfile.LARGE_VALUE);
     unconfirmedBlobsSidecarBySlotAndBlockRoot =
         KvStoreColumn.create(
-            finalizedOffset + 13, SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER, VOID_SERIALIZER);
+            finalizedOffset + 13,
+            SLOT_AND_BLOCK_ROOT_KEY_SERIALIZER,
+            VOID_SERIALIZER,
+            KvStoreColumnProfile.SEQUENTIAL);
     deletedColumnIds =
         List.of(
             asColumnId(finalizedOffset + 9),
@@ -167,6 +196,7 @@ public class V6SchemaCombinedTreeState extends V6SchemaCombined implements Schem
         .put("DEPOSITS_FROM_BLOCK_EVENTS", getColumnDepositsFromBlockEvents())
         .put("STATE_ROOT_TO_SLOT_AND_BLOCK_ROOT", getColumnStateRootToSlotAndBlockRoot())
         .put("HOT_STATES_BY_ROOT", getColumnHotStatesByRoot())
+        .put("HOT_STATE_DIFFS_BY_ROOT", getColumnHotStateDiffsByRoot())
         .put("HOT_BLOCK_CHECKPOINT_EPOCHS_BY_ROOT", getColumnHotBlockCheckpointEpochsByRoot())
         .put("SLOTS_BY_FINALIZED_ROOT", getColumnSlotsByFinalizedRoot())
         .put("FINALIZED_BLOCKS_BY_SLOT", getColumnFinalizedBlocksBySlot())
@@ -0,0 +1,54 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.serialization;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Serializer which allows values to be serialized ahead of time, off the thread that writes them
+ * to the database.
+ *
+ * <p>Pre-serialized values are matched by identity and used at most once. Values which are never
+ * written are released once the value itself is garbage collected or {@link #discard(Object)} is
+ * called.
+ */
+public class PreSerializingSerializer<T> implements KvStoreSerializer<T> {
+  private final KvStoreSerializer<T> delegate;
+  // Weak keys are compared by identity
+  private final Cache<T, byte[]> preSerialized = CacheBuilder.newBuilder().weakKeys().build();
+
+  public PreSerializingSerializer(final KvStoreSerializer<T> delegate) {
+    this.delegate = delegate;
+  }
+
+  public void preSerialize(final T value) {
+    preSerialized.put(value, delegate.serialize(value));
+  }
+
+  public void discard(final T value) {
+    preSerialized.invalidate(value);
+  }
+
+  @Override
+  public T deserialize(final byte[] data) {
+    return delegate.deserialize(data);
+  }
+
+  @Override
+  public byte[] serialize(final T value) {
+    final byte[] serialized = preSerialized.asMap().remove(value);
+    return serialized != null ? serialized : delegate.serialize(value);
+  }
+}
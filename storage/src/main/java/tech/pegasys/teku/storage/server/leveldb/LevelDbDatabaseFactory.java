@@ -17,10 +17,13 @@ import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAG
 import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAGE_FINALIZED_DB;
 import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAGE_HOT_DB;
 
+import java.nio.file.Path;
+import java.util.Optional;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.StateStorageMode;
+import tech.pegasys.teku.storage.server.hotlog.HotLogConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreDatabase;
@@ -67,15 +70,28 @@ public class LevelDbDatabaseFactory {
       final KvStoreConfiguration hotConfiguration,
       final StateStorageMode stateStorageMode,
       final long stateStorageFrequency,
+      final boolean stateTieringEnabled,
       final boolean storeNonCanonicalBlocks,
+      final Optional<Path> blockArchiveDirectory,
+      final Optional<HotLogConfiguration> hotLog,
       final Spec spec) {
     final V6SchemaCombinedSnapshot schema = V6SchemaCombinedSnapshot.createV6(spec);
-    final KvStoreAccessor db =
+    final KvStoreAccessor levelDb =
         LevelDbInstanceFactory.create(
             metricsSystem, STORAGE, hotConfiguration, schema.getAllColumns());
+    final KvStoreAccessor db =
+        hotLog.map(config -> config.createAccessor(levelDb, schema)).orElse(levelDb);
 
     return KvStoreDatabase.createWithStateSnapshots(
-        db, schema, stateStorageMode, stateStorageFrequency, storeNonCanonicalBlocks, spec);
+        metricsSystem,
+        db,
+        schema,
+        stateStorageMode,
+        stateStorageFrequency,
+        stateTieringEnabled,
+        storeNonCanonicalBlocks,
+        blockArchiveDirectory,
+        spec);
   }
 
   public static Database createLevelDbTree(
@@ -84,12 +100,16 @@ public class LevelDbDatabaseFactory {
       final StateStorageMode stateStorageMode,
       final boolean storeNonCanonicalBlocks,
       final int maxKnownNodeCacheSize,
+      final Optional<Path> blockArchiveDirectory,
+      final Optional<HotLogConfiguration> hotLog,
       final Spec spec) {
 
     final V6SchemaCombinedTreeState schema = new V6SchemaCombinedTreeState(spec);
-    final KvStoreAccessor db =
+    final KvStoreAccessor levelDb =
         LevelDbInstanceFactory.create(
             metricsSystem, STORAGE, hotConfiguration, schema.getAllColumns());
+    final KvStoreAccessor db =
+        hotLog.map(config -> config.createAccessor(levelDb, schema)).orElse(levelDb);
     return KvStoreDatabase.createWithStateTree(
         metricsSystem,
         db,
@@ -97,6 +117,7 @@ public class LevelDbDatabaseFactory {
         stateStorageMode,
         storeNonCanonicalBlocks,
         maxKnownNodeCacheSize,
+        blockArchiveDirectory,
         spec);
   }
 }
@@ -168,6 +168,30 @@ public class LevelDbInstance implements KvStoreAccessor {
         });
   }
 
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    return withIterator(
+        iterator -> {
+          final byte[] matchingKey = getColumnKey(column, key);
+          iterator.seek(matchingKey);
+          if (!iterator.hasNext()) {
+            return getLastDatabaseEntryIfFromColumn(column, iterator)
+                .map(entry -> deserializeKey(column, entry.getKey()));
+          }
+
+          if (Arrays.equals(iterator.peekNext().getKey(), matchingKey)) {
+            return Optional.of(key);
+          }
+
+          if (iterator.hasPrev()) {
+            return Optional.of(iterator.peekPrev())
+                .filter(entry -> isFromColumn(column, entry.getKey()))
+                .map(entry -> deserializeKey(column, entry.getKey()));
+          }
+          return Optional.empty();
+        });
+  }
+
   @Override
   public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
     return withIterator(
@@ -307,6 +331,14 @@ public class LevelDbInstance implements KvStoreAccessor {
         .onClose(() -> closeIterator(iterator));
   }
 
+  @Override
+  public boolean isSecondary() {
+    return false;
+  }
+
+  @Override
+  public void catchUpWithPrimary() {}
+
   @Override
   @MustBeClosed
   public synchronized KvStoreTransaction startTransaction() {
@@ -226,6 +226,12 @@ public class NoOpDatabase implements Database {
   @Override
   public void pruneFinalizedBlocks(final UInt64 lastSlotToPrune) {}
 
+  @Override
+  public void retierFinalizedStates() {}
+
+  @Override
+  public void catchUpWithPrimary() {}
+
   @Override
   public void addMinGenesisTimeBlock(final MinGenesisTimeBlockEvent event) {}
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.pruner;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import tech.pegasys.teku.infrastructure.async.AsyncRunner;
+import tech.pegasys.teku.infrastructure.async.Cancellable;
+import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.service.serviceutils.Service;
+import tech.pegasys.teku.storage.server.Database;
+import tech.pegasys.teku.storage.server.ShuttingDownException;
+
+/** Periodically moves older finalized state snapshots to the cold storage tier. */
+public class FinalizedStateRetierer extends Service {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Database database;
+  private final AsyncRunner asyncRunner;
+  private final Duration retierInterval;
+
+  private Optional<Cancellable> scheduledRetierer = Optional.empty();
+
+  public FinalizedStateRetierer(
+      final Database database, final AsyncRunner asyncRunner, final Duration retierInterval) {
+    this.database = database;
+    this.asyncRunner = asyncRunner;
+    this.retierInterval = retierInterval;
+  }
+
+  @Override
+  protected synchronized SafeFuture<?> doStart() {
+    scheduledRetierer =
+        Optional.of(
+            asyncRunner.runWithFixedDelay(
+                this::retierStates,
+                Duration.ZERO,
+                retierInterval,
+                error -> LOG.error("Failed to move finalized states to cold storage", error)));
+    return SafeFuture.COMPLETE;
+  }
+
+  @Override
+  protected synchronized SafeFuture<?> doStop() {
+    scheduledRetierer.ifPresent(Cancellable::cancel);
+    return SafeFuture.COMPLETE;
+  }
+
+  private void retierStates() {
+    LOG.debug("Moving older finalized states to cold storage");
+    try {
+      database.retierFinalizedStates();
+    } catch (ShuttingDownException | RejectedExecutionException ex) {
+      LOG.debug("Shutting down", ex);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.rocksdb;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.LRUCache;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumnProfile;
+
+/**
+ * Creates the {@link ColumnFamilyOptions} for each {@link KvStoreColumnProfile}.
+ *
+ * <p>Each profile gets its own share of the configured block cache so that range scans over
+ * finalized data can't evict the blocks used by point lookups of hot data. When column profiles are
+ * disabled all columns share the same options and cache.
+ */
+class RocksDbColumnOptions implements AutoCloseable {
+  private static final double BLOOM_FILTER_BITS_PER_KEY = 10;
+  private static final long SEQUENTIAL_BLOCK_SIZE = 16 * 1024;
+  private static final long MIN_BLOB_SIZE = 4 * 1024;
+  private static final long BLOB_FILE_SIZE = 256 * 1024 * 1024;
+
+  private final Map<KvStoreColumnProfile, ColumnFamilyOptions> optionsByProfile =
+      new EnumMap<>(KvStoreColumnProfile.class);
+  private final List<AutoCloseable> resources = new ArrayList<>();
+
+  private RocksDbColumnOptions() {}
+
+  static RocksDbColumnOptions create(final KvStoreConfiguration configuration) {
+    final RocksDbColumnOptions columnOptions = new RocksDbColumnOptions();
+    if (!configuration.isColumnProfilesEnabled()) {
+      final ColumnFamilyOptions options =
+          columnOptions.createOptions(
+              configuration, KvStoreColumnProfile.DEFAULT, configuration.getCacheCapacity());
+      for (KvStoreColumnProfile profile : KvStoreColumnProfile.values()) {
+        columnOptions.optionsByProfile.put(profile, options);
+      }
+      return columnOptions;
+    }
+
+    for (KvStoreColumnProfile profile : KvStoreColumnProfile.values()) {
+      final long cacheCapacity = (long) (configuration.getCacheCapacity() * getCacheShare(profile));
+      columnOptions.optionsByProfile.put(
+          profile, columnOptions.createOptions(configuration, profile, cacheCapacity));
+    }
+    return columnOptions;
+  }
+
+  ColumnFamilyOptions getOptions(final KvStoreColumnProfile profile) {
+    return optionsByProfile.get(profile);
+  }
+
+  @Override
+  public void close() throws Exception {
+    // Options must be closed before the caches and filters they reference
+    for (AutoCloseable resource : resources) {
+      resource.close();
+    }
+  }
+
+  @VisibleForTesting
+  static double getCacheShare(final KvStoreColumnProfile profile) {
+    switch (profile) {
+      case POINT_LOOKUP:
+        return 0.6;
+      case SEQUENTIAL:
+        return 0.28;
+      case LARGE_VALUE:
+        // Values are mostly stored in blob files which bypass the block cache
+        return 0.05;
+      case COLD:
+        return 0.05;
+      case DEFAULT:
+      default:
+        // Only the default and deleted column families use this profile and neither holds data
+        return 0.02;
+    }
+  }
+
+  private ColumnFamilyOptions createOptions(
+      final KvStoreConfiguration configuration,
+      final KvStoreColumnProfile profile,
+      final long cacheCapacity) {
+    final Cache cache = new LRUCache(cacheCapacity);
+    final BlockBasedTableConfig tableConfig =
+        new BlockBasedTableConfig()
+            .setBlockCache(cache)
+            .setCacheIndexAndFilterBlocks(true)
+            .setFormatVersion(4); // Use the latest format version (only applies to new tables)
+    final ColumnFamilyOptions options =
+        new ColumnFamilyOptions()
+            .setCompressionType(configuration.getCompressionType())
+            .setBottommostCompressionType(configuration.getBottomMostCompressionType());
+
+    switch (profile) {
+      case POINT_LOOKUP:
+        final BloomFilter filter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
+        tableConfig.setFilterPolicy(filter).setPinL0FilterAndIndexBlocksInCache(true);
+        resources.add(filter);
+        break;
+      case SEQUENTIAL:
+        // Iterators never consult filters so none are built. Larger blocks reduce the index size
+        // and the per block overhead of scans.
+        tableConfig.setBlockSize(SEQUENTIAL_BLOCK_SIZE);
+        break;
+      case LARGE_VALUE:
+        // Keep large values out of the LSM tree so compaction doesn't rewrite them
+        options
+            .setEnableBlobFiles(true)
+            .setMinBlobSize(MIN_BLOB_SIZE)
+            .setBlobFileSize(BLOB_FILE_SIZE)
+            .setBlobCompressionType(configuration.getCompressionType())
+            .setEnableBlobGarbageCollection(true);
+        break;
+      case COLD:
+        // Trade CPU on the rare reads for a much smaller footprint, regardless of the configured
+        // compression for the rest of the database
+        options
+            .setCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setEnableBlobFiles(true)
+            .setMinBlobSize(MIN_BLOB_SIZE)
+            .setBlobFileSize(BLOB_FILE_SIZE)
+            .setBlobCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setEnableBlobGarbageCollection(true);
+        break;
+      case DEFAULT:
+      default:
+        break;
+    }
+    options.setTableFormatConfig(tableConfig);
+    resources.add(0, options);
+    resources.add(cache);
+    return options;
+  }
+}
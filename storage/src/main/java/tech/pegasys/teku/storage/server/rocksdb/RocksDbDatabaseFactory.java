@@ -17,10 +17,13 @@ import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAG
 import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAGE_FINALIZED_DB;
 import static tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory.STORAGE_HOT_DB;
 
+import java.nio.file.Path;
+import java.util.Optional;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.StateStorageMode;
+import tech.pegasys.teku.storage.server.hotlog.HotLogConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreDatabase;
@@ -74,18 +77,31 @@ public class RocksDbDatabaseFactory {
       final SchemaCombinedSnapshotState schema,
       final StateStorageMode stateStorageMode,
       final long stateStorageFrequency,
+      final boolean stateTieringEnabled,
       final boolean storeNonCanonicalBlocks,
+      final Optional<Path> blockArchiveDirectory,
+      final Optional<HotLogConfiguration> hotLog,
       final Spec spec) {
 
-    final KvStoreAccessor db =
+    final KvStoreAccessor rocksDb =
         RocksDbInstanceFactory.create(
             metricsSystem,
             STORAGE,
             hotConfiguration,
             schema.getAllColumns(),
             schema.getDeletedColumnIds());
+    final KvStoreAccessor db =
+        hotLog.map(config -> config.createAccessor(rocksDb, schema)).orElse(rocksDb);
 
     return KvStoreDatabase.createWithStateSnapshots(
-        db, schema, stateStorageMode, stateStorageFrequency, storeNonCanonicalBlocks, spec);
+        metricsSystem,
+        db,
+        schema,
+        stateStorageMode,
+        stateStorageFrequency,
+        stateTieringEnabled,
+        storeNonCanonicalBlocks,
+        blockArchiveDirectory,
+        spec);
   }
 }
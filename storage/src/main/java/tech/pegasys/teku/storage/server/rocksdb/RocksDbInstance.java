@@ -15,7 +15,12 @@ package tech.pegasys.teku.storage.server.rocksdb;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.MustBeClosed;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,12 +30,20 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 import org.rocksdb.AbstractRocksIterator;
 import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.SstFileWriter;
 import org.rocksdb.TransactionDB;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
 import tech.pegasys.teku.storage.server.ShuttingDownException;
 import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
@@ -38,8 +51,14 @@ import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
 
 public class RocksDbInstance implements KvStoreAccessor {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String INGEST_DIR_NAME = "ingest";
+  private static final long MAX_INGEST_FILE_BYTES = 256 * 1024 * 1024;
 
-  private final TransactionDB db;
+  private final Path databaseDir;
+  private final RocksDB db;
+  // Empty when opened as a read-only secondary instance
+  private final Optional<TransactionDB> transactionDb;
   private final ColumnFamilyHandle defaultHandle;
   private final ImmutableMap<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandles;
   private final List<AutoCloseable> resources;
@@ -48,16 +67,39 @@ public class RocksDbInstance implements KvStoreAccessor {
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   RocksDbInstance(
+      final Path databaseDir,
       final TransactionDB db,
       final ColumnFamilyHandle defaultHandle,
       final ImmutableMap<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandles,
       final List<AutoCloseable> resources) {
+    this(databaseDir, db, Optional.of(db), defaultHandle, columnHandles, resources);
+  }
+
+  private RocksDbInstance(
+      final Path databaseDir,
+      final RocksDB db,
+      final Optional<TransactionDB> transactionDb,
+      final ColumnFamilyHandle defaultHandle,
+      final ImmutableMap<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandles,
+      final List<AutoCloseable> resources) {
+    this.databaseDir = databaseDir;
     this.db = db;
+    this.transactionDb = transactionDb;
     this.defaultHandle = defaultHandle;
     this.columnHandles = columnHandles;
     this.resources = resources;
   }
 
+  static RocksDbInstance createSecondary(
+      final Path databaseDir,
+      final RocksDB db,
+      final ColumnFamilyHandle defaultHandle,
+      final ImmutableMap<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandles,
+      final List<AutoCloseable> resources) {
+    return new RocksDbInstance(
+        databaseDir, db, Optional.empty(), defaultHandle, columnHandles, resources);
+  }
+
   @Override
   public <T> Optional<T> get(KvStoreVariable<T> variable) {
     return getRaw(variable).map(data -> variable.getSerializer().deserialize(data.toArrayUnsafe()));
@@ -113,6 +155,18 @@ public class RocksDbInstance implements KvStoreAccessor {
     }
   }
 
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    assertOpen();
+    final ColumnFamilyHandle handle = columnHandles.get(column);
+    try (final RocksIterator rocksDbIterator = db.newIterator(handle)) {
+      rocksDbIterator.seekForPrev(column.getKeySerializer().serialize(key));
+      return rocksDbIterator.isValid()
+          ? Optional.of(column.getKeySerializer().deserialize(rocksDbIterator.key()))
+          : Optional.empty();
+    }
+  }
+
   @Override
   public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
     assertOpen();
@@ -194,12 +248,105 @@ public class RocksDbInstance implements KvStoreAccessor {
   @MustBeClosed
   public synchronized KvStoreTransaction startTransaction() {
     assertOpen();
+    final TransactionDB writableDb =
+        transactionDb.orElseThrow(
+            () ->
+                DatabaseStorageException.unrecoverable(
+                    "Unable to write to a read-only secondary database"));
     RocksDbTransaction tx =
-        new RocksDbTransaction(db, defaultHandle, columnHandles, openTransactions::remove);
+        new RocksDbTransaction(writableDb, defaultHandle, columnHandles, openTransactions::remove);
     openTransactions.add(tx);
     return tx;
   }
 
+  /**
+   * Writes the entries to SST files alongside the database and ingests them directly into the
+   * column, which avoids the write ahead log, memtables and most of the compaction that writing
+   * through transactions would cause.
+   */
+  @Override
+  public synchronized void ingestRaw(
+      final KvStoreColumn<?, ?> column, final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries) {
+    assertOpen();
+    if (transactionDb.isEmpty()) {
+      throw DatabaseStorageException.unrecoverable(
+          "Unable to write to a read-only secondary database");
+    }
+    final ColumnFamilyHandle handle = columnHandles.get(column);
+    final Path ingestDir = databaseDir.resolve(INGEST_DIR_NAME);
+    final List<String> files = new ArrayList<>();
+    try (final EnvOptions envOptions = new EnvOptions();
+        final Options options = new Options()) {
+      Files.createDirectories(ingestDir);
+      while (sortedEntries.hasNext()) {
+        final Path file =
+            ingestDir.resolve(column.getId().toUnprefixedHexString() + "-" + files.size() + ".sst");
+        files.add(file.toString());
+        writeIngestFile(file, envOptions, options, sortedEntries);
+      }
+      if (!files.isEmpty()) {
+        try (final IngestExternalFileOptions ingestOptions =
+            new IngestExternalFileOptions().setMoveFiles(true)) {
+          db.ingestExternalFile(handle, files, ingestOptions);
+        }
+      }
+    } catch (IOException e) {
+      throw DatabaseStorageException.unrecoverable("Failed to create " + ingestDir, e);
+    } catch (RocksDBException e) {
+      throw RocksDbExceptionUtil.wrapException("Failed to ingest data", e);
+    } finally {
+      deleteIngestFiles(files);
+    }
+  }
+
+  private static void writeIngestFile(
+      final Path file,
+      final EnvOptions envOptions,
+      final Options options,
+      final Iterator<ColumnEntry<Bytes, Bytes>> sortedEntries)
+      throws RocksDBException {
+    try (final SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+      writer.open(file.toString());
+      long fileBytes = 0;
+      while (sortedEntries.hasNext() && fileBytes < MAX_INGEST_FILE_BYTES) {
+        final ColumnEntry<Bytes, Bytes> entry = sortedEntries.next();
+        // Fails if the keys are not in strictly ascending order
+        writer.put(entry.getKey().toArrayUnsafe(), entry.getValue().toArrayUnsafe());
+        fileBytes += entry.getKey().size() + entry.getValue().size();
+      }
+      writer.finish();
+    }
+  }
+
+  private static void deleteIngestFiles(final List<String> files) {
+    // Ingested files are moved into the database so only remain if ingestion failed
+    for (String file : files) {
+      try {
+        Files.deleteIfExists(Path.of(file));
+      } catch (IOException e) {
+        LOG.warn("Failed to delete ingest file {}", file, e);
+      }
+    }
+  }
+
+  @Override
+  public boolean isSecondary() {
+    return transactionDb.isEmpty();
+  }
+
+  @Override
+  public synchronized void catchUpWithPrimary() {
+    assertOpen();
+    if (transactionDb.isPresent()) {
+      return;
+    }
+    try {
+      db.tryCatchUpWithPrimary();
+    } catch (RocksDBException e) {
+      throw RocksDbExceptionUtil.wrapException("Failed to catch up with primary database", e);
+    }
+  }
+
   @MustBeClosed
   private <K, V> Stream<ColumnEntry<K, V>> createStream(
       KvStoreColumn<K, V> column, Consumer<RocksIterator> setupIterator) {
@@ -266,7 +413,9 @@ public class RocksDbInstance implements KvStoreAccessor {
       for (RocksDbTransaction openTransaction : openTransactions) {
         openTransaction.closeViaDatabase();
       }
-      db.syncWal();
+      if (transactionDb.isPresent()) {
+        db.syncWal();
+      }
       for (final AutoCloseable resource : resources) {
         resource.close();
       }
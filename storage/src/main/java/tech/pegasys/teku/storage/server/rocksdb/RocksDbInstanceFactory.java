@@ -20,20 +20,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.metrics.MetricCategory;
-import org.rocksdb.BlockBasedTableConfig;
-import org.rocksdb.Cache;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
 import org.rocksdb.Env;
-import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.Statistics;
 import org.rocksdb.TransactionDB;
@@ -42,6 +42,7 @@ import tech.pegasys.teku.storage.server.DatabaseStorageException;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumnProfile;
 import tech.pegasys.teku.storage.server.kvstore.schema.Schema;
 
 public class RocksDbInstanceFactory {
@@ -63,20 +64,20 @@ public class RocksDbInstanceFactory {
                 .count()
             == columns.size() + deletedColumns.size(),
         "Column IDs are not distinct");
+    if (configuration.getSecondaryDir().isPresent()) {
+      return createSecondary(metricsSystem, metricCategory, configuration, columns);
+    }
 
     // Create options
     final TransactionDBOptions txOptions = new TransactionDBOptions();
     final RocksDbStats rocksDbStats = new RocksDbStats(metricsSystem, metricCategory);
     final DBOptions dbOptions = createDBOptions(configuration, rocksDbStats.getStats());
-    final LRUCache blockCache = new LRUCache(configuration.getCacheCapacity());
-    final ColumnFamilyOptions columnFamilyOptions =
-        createColumnFamilyOptions(configuration, blockCache);
+    final RocksDbColumnOptions columnOptions = RocksDbColumnOptions.create(configuration);
     final List<AutoCloseable> resources =
-        new ArrayList<>(
-            List.of(txOptions, dbOptions, columnFamilyOptions, rocksDbStats, blockCache));
+        new ArrayList<>(List.of(txOptions, dbOptions, columnOptions, rocksDbStats));
 
     List<ColumnFamilyDescriptor> columnDescriptors =
-        createColumnFamilyDescriptors(columns, deletedColumns, columnFamilyOptions);
+        createColumnFamilyDescriptors(columns, deletedColumns, columnOptions);
     Map<Bytes, KvStoreColumn<?, ?>> columnsById =
         columns.stream().collect(Collectors.toMap(KvStoreColumn::getId, Function.identity()));
 
@@ -108,14 +109,85 @@ public class RocksDbInstanceFactory {
       resources.add(db);
 
       rocksDbStats.registerMetrics(db);
+      rocksDbStats.registerColumnMetrics(db, columnHandlesMap);
 
-      return new RocksDbInstance(db, defaultHandle, columnHandlesMap, resources);
+      return new RocksDbInstance(
+          configuration.getDatabaseDir(), db, defaultHandle, columnHandlesMap, resources);
     } catch (RocksDBException e) {
       throw RocksDbExceptionUtil.wrapException(
           "Failed to open database at path: " + configuration.getDatabaseDir(), e);
     }
   }
 
+  /**
+   * Opens an existing database as a read-only secondary instance. Only column families which
+   * already exist in the primary can be opened, so any that haven't been created yet are skipped.
+   */
+  private static KvStoreAccessor createSecondary(
+      final MetricsSystem metricsSystem,
+      final MetricCategory metricCategory,
+      final KvStoreConfiguration configuration,
+      final Collection<KvStoreColumn<?, ?>> columns) {
+    final String primaryPath = configuration.getDatabaseDir().toString();
+    final String secondaryPath = configuration.getSecondaryDir().orElseThrow().toString();
+    final RocksDbStats rocksDbStats = new RocksDbStats(metricsSystem, metricCategory);
+    // Secondary instances must keep all files open to follow the primary's compactions
+    final DBOptions dbOptions =
+        createDBOptions(configuration, rocksDbStats.getStats())
+            .setCreateIfMissing(false)
+            .setCreateMissingColumnFamilies(false)
+            .setMaxOpenFiles(-1);
+    final RocksDbColumnOptions columnOptions = RocksDbColumnOptions.create(configuration);
+    final List<AutoCloseable> resources =
+        new ArrayList<>(List.of(dbOptions, columnOptions, rocksDbStats));
+
+    try {
+      final Set<Bytes> existingColumnIds = listColumnIds(primaryPath);
+      final List<ColumnFamilyDescriptor> columnDescriptors =
+          createColumnFamilyDescriptors(columns, List.of(), columnOptions).stream()
+              .filter(descriptor -> existingColumnIds.contains(Bytes.wrap(descriptor.getName())))
+              .collect(Collectors.toList());
+      final Map<Bytes, KvStoreColumn<?, ?>> columnsById =
+          columns.stream().collect(Collectors.toMap(KvStoreColumn::getId, Function.identity()));
+
+      final List<ColumnFamilyHandle> columnHandles = new ArrayList<>(columnDescriptors.size());
+      final RocksDB db =
+          RocksDB.openAsSecondary(
+              dbOptions, primaryPath, secondaryPath, columnDescriptors, columnHandles);
+
+      final ImmutableMap.Builder<KvStoreColumn<?, ?>, ColumnFamilyHandle> builder =
+          ImmutableMap.builder();
+      for (ColumnFamilyHandle columnHandle : columnHandles) {
+        final KvStoreColumn<?, ?> column = columnsById.get(Bytes.wrap(columnHandle.getName()));
+        if (column != null) {
+          builder.put(column, columnHandle);
+        }
+        resources.add(columnHandle);
+      }
+      final ImmutableMap<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandlesMap =
+          builder.build();
+      final ColumnFamilyHandle defaultHandle = getDefaultHandle(columnHandles);
+      resources.add(db);
+
+      rocksDbStats.registerMetrics(db);
+      rocksDbStats.registerColumnMetrics(db, columnHandlesMap);
+
+      return RocksDbInstance.createSecondary(
+          configuration.getDatabaseDir(), db, defaultHandle, columnHandlesMap, resources);
+    } catch (RocksDBException e) {
+      throw RocksDbExceptionUtil.wrapException(
+          "Failed to open database at path: " + primaryPath + " as a secondary instance", e);
+    }
+  }
+
+  private static Set<Bytes> listColumnIds(final String path) throws RocksDBException {
+    try (final Options options = new Options()) {
+      return RocksDB.listColumnFamilies(options, path).stream()
+          .map(Bytes::wrap)
+          .collect(Collectors.toSet());
+    }
+  }
+
   private static ColumnFamilyHandle getDefaultHandle(List<ColumnFamilyHandle> columnHandles) {
     return columnHandles.stream()
         .filter(
@@ -151,31 +223,26 @@ public class RocksDbInstanceFactory {
     return options;
   }
 
-  private static ColumnFamilyOptions createColumnFamilyOptions(
-      final KvStoreConfiguration configuration, final Cache cache) {
-    return new ColumnFamilyOptions()
-        .setCompressionType(configuration.getCompressionType())
-        .setBottommostCompressionType(configuration.getBottomMostCompressionType())
-        .setTableFormatConfig(createBlockBasedTableConfig(cache));
-  }
-
   private static List<ColumnFamilyDescriptor> createColumnFamilyDescriptors(
       final Collection<KvStoreColumn<?, ?>> columns,
       final Collection<Bytes> deletedColumns,
-      final ColumnFamilyOptions columnFamilyOptions) {
+      final RocksDbColumnOptions columnOptions) {
+    final ColumnFamilyOptions defaultOptions =
+        columnOptions.getOptions(KvStoreColumnProfile.DEFAULT);
     List<ColumnFamilyDescriptor> columnDescriptors =
-        Stream.concat(columns.stream().map(KvStoreColumn::getId), deletedColumns.stream())
-            .map(id -> new ColumnFamilyDescriptor(id.toArrayUnsafe(), columnFamilyOptions))
+        columns.stream()
+            .map(
+                column ->
+                    new ColumnFamilyDescriptor(
+                        column.getId().toArrayUnsafe(),
+                        columnOptions.getOptions(column.getProfile())))
             .collect(Collectors.toList());
+    for (Bytes deletedColumn : deletedColumns) {
+      columnDescriptors.add(
+          new ColumnFamilyDescriptor(deletedColumn.toArrayUnsafe(), defaultOptions));
+    }
     columnDescriptors.add(
-        new ColumnFamilyDescriptor(Schema.DEFAULT_COLUMN_ID.toArrayUnsafe(), columnFamilyOptions));
+        new ColumnFamilyDescriptor(Schema.DEFAULT_COLUMN_ID.toArrayUnsafe(), defaultOptions));
     return columnDescriptors;
   }
-
-  private static BlockBasedTableConfig createBlockBasedTableConfig(final Cache cache) {
-    return new BlockBasedTableConfig()
-        .setBlockCache(cache)
-        .setCacheIndexAndFilterBlocks(true)
-        .setFormatVersion(4); // Use the latest format version (only applies to new tables)
-  }
 }
@@ -17,18 +17,22 @@ import io.prometheus.client.Collector;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hyperledger.besu.metrics.prometheus.PrometheusMetricsSystem;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.LabelledGauge;
 import org.hyperledger.besu.plugin.services.metrics.MetricCategory;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.HistogramData;
 import org.rocksdb.HistogramType;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.Statistics;
 import org.rocksdb.TickerType;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 
 /**
  * Taken from
@@ -175,6 +179,17 @@ public class RocksDbStats implements AutoCloseable {
     HistogramType.READ_NUM_MERGE_OPERANDS,
   };
 
+  // Column family properties - RocksDB statistics are per database so per column figures come
+  // from properties instead
+  static final String[][] COLUMN_PROPERTIES = {
+    {"rocksdb.estimate-num-keys", "Estimated number of keys"},
+    {"rocksdb.total-sst-files-size", "Total size of all SST files"},
+    {"rocksdb.live-blob-file-size", "Total size of all live blob files"},
+    {"rocksdb.cur-size-all-mem-tables", "Current size of all mem tables"},
+    {"rocksdb.block-cache-usage", "Memory used by entries in the block cache"},
+    {"rocksdb.estimate-pending-compaction-bytes", "Estimated bytes awaiting compaction"},
+  };
+
   private boolean closed = false;
   private final Statistics stats;
   private final MetricsSystem metricsSystem;
@@ -219,6 +234,39 @@ public class RocksDbStats implements AutoCloseable {
     }
   }
 
+  public void registerColumnMetrics(
+      final RocksDB database, final Map<KvStoreColumn<?, ?>, ColumnFamilyHandle> columnHandles) {
+    for (final String[] property : COLUMN_PROPERTIES) {
+      final LabelledGauge gauge =
+          metricsSystem.createLabelledGauge(
+              category,
+              "column_" + property[0].substring("rocksdb.".length()).replace('-', '_'),
+              property[1] + " per column",
+              "column",
+              "profile");
+      columnHandles.forEach(
+          (column, handle) ->
+              gauge.labels(
+                  () -> getLongProperty(database, handle, property[0]),
+                  column.getId().toHexString(),
+                  column.getProfile().name().toLowerCase()));
+    }
+  }
+
+  private long getLongProperty(
+      final RocksDB database, final ColumnFamilyHandle handle, final String name) {
+    return ifOpen(
+        () -> {
+          try {
+            return database.getLongProperty(handle, name);
+          } catch (RocksDBException e) {
+            LOG.warn("Failed to load " + name + " column property for RocksDB metrics");
+            return 0L;
+          }
+        },
+        0L);
+  }
+
   private long getLongProperty(final RocksDB database, final String name) {
     return ifOpen(
         () -> {
@@ -22,11 +22,17 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Stream;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 import tech.pegasys.teku.dataproviders.generators.StreamingStateRegenerator;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeMemoryAccountant;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
@@ -41,6 +47,12 @@ public class FinalizedStateCache {
    */
   private final NavigableSet<UInt64> availableSlots = new ConcurrentSkipListSet<>();
 
+  /**
+   * Estimated memory retained by each cached state, measured when the state is cached so metrics
+   * requests don't have to walk the cached states.
+   */
+  private final Map<UInt64, Long> retainedBytesBySlot = new ConcurrentHashMap<>();
+
   private final LoadingCache<UInt64, BeaconState> stateCache;
   private final Spec spec;
   private final Database database;
@@ -48,6 +60,7 @@ public class FinalizedStateCache {
   public FinalizedStateCache(
       final Spec spec,
       final Database database,
+      final MetricsSystem metricsSystem,
       final int maximumCacheSize,
       final boolean useSoftReferences) {
     this.spec = spec;
@@ -60,15 +73,25 @@ public class FinalizedStateCache {
       cacheBuilder.softValues();
     }
     this.stateCache = cacheBuilder.build(new StateCacheLoader());
+    metricsSystem.createGauge(
+        TekuMetricCategory.STORAGE,
+        "finalized_state_cache_retained_bytes",
+        "Estimated memory retained by cached finalized states",
+        this::getRetainedBytes);
   }
 
   private void onRemovedFromCache(
       final RemovalNotification<UInt64, BeaconState> removalNotification) {
     if (removalNotification.getCause() != RemovalCause.REPLACED) {
       availableSlots.remove(removalNotification.getKey());
+      retainedBytesBySlot.remove(removalNotification.getKey());
     }
   }
 
+  private double getRetainedBytes() {
+    return retainedBytesBySlot.values().stream().mapToLong(Long::longValue).sum();
+  }
+
   public Optional<BeaconState> getFinalizedState(final UInt64 slot) {
     try {
       return Optional.of(stateCache.getUnchecked(slot));
@@ -98,23 +121,46 @@ public class FinalizedStateCache {
     }
 
     private BeaconState regenerateState(final UInt64 slot, final BeaconState stateFromDisk) {
-      final Optional<BeaconState> latestStateFromCache = getLatestStateFromCache(slot);
-      final BeaconState preState =
-          latestStateFromCache
+      final Optional<BeaconState> latestStateFromCache =
+          getLatestStateFromCache(slot)
               .filter(
                   stateFromCache ->
-                      stateFromCache.getSlot().compareTo(stateFromDisk.getSlot()) >= 0)
-              .orElse(stateFromDisk);
+                      stateFromCache.getSlot().compareTo(stateFromDisk.getSlot()) >= 0);
+      final BeaconState preState = latestStateFromCache.orElse(stateFromDisk);
       if (preState.getSlot().equals(slot)) {
+        if (latestStateFromCache.isEmpty()) {
+          recordRetainedBytes(slot, preState, Optional.empty());
+        }
         return preState;
       }
       try (final Stream<SignedBeaconBlock> blocks =
           database.streamFinalizedBlocks(preState.getSlot().plus(ONE), slot)) {
         final BeaconState state = StreamingStateRegenerator.regenerate(spec, preState, blocks);
         availableSlots.add(state.getSlot());
+        recordRetainedBytes(slot, state, latestStateFromCache);
         return state;
       }
     }
+
+    /**
+     * States regenerated from a cached state are measured by the nodes they don't share with it.
+     * Otherwise the whole state is measured, which only counts the nodes loaded so far for states
+     * read from disk.
+     */
+    private void recordRetainedBytes(
+        final UInt64 slot, final BeaconState state, final Optional<BeaconState> baseState) {
+      final long retainedBytes =
+          baseState
+              .map(
+                  base ->
+                      TreeMemoryAccountant.measureAdditional(
+                          state.getBackingNode(), base.getBackingNode()))
+              .orElseGet(
+                  () ->
+                      TreeMemoryAccountant.measure(List.of(state.getBackingNode()))
+                          .getTotalBytes());
+      retainedBytesBySlot.put(slot, retainedBytes);
+    }
   }
 
   /**
@@ -19,6 +19,7 @@ import static tech.pegasys.teku.dataproviders.lookup.BlockProvider.fromDynamicMa
 import static tech.pegasys.teku.dataproviders.lookup.BlockProvider.fromMap;
 import static tech.pegasys.teku.infrastructure.time.TimeUtilities.secondsToMillis;
 
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -42,7 +43,6 @@ import tech.pegasys.teku.dataproviders.lookup.BlockProvider;
 import tech.pegasys.teku.dataproviders.lookup.StateAndBlockSummaryProvider;
 import tech.pegasys.teku.infrastructure.async.AsyncRunner;
 import tech.pegasys.teku.infrastructure.async.SafeFuture;
-import tech.pegasys.teku.infrastructure.collections.LimitedMap;
 import tech.pegasys.teku.infrastructure.metrics.SettableGauge;
 import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
@@ -97,8 +97,8 @@ class Store implements UpdatableStore {
   final CachingTaskQueue<Bytes32, StateAndBlockSummary> states;
   final Map<Bytes32, SignedBeaconBlock> blocks;
   final CachingTaskQueue<SlotAndBlockRoot, BeaconState> checkpointStates;
-  VoteTracker[] votes;
-  UInt64 highestVotedValidatorIndex;
+  final StoreCaches caches;
+  final VoteTrackerColumns votes;
 
   private Store(
       final MetricsSystem metricsSystem,
@@ -116,7 +116,7 @@ class Store implements UpdatableStore {
       final Checkpoint bestJustifiedCheckpoint,
       final ForkChoiceStrategy forkChoiceStrategy,
       final Map<UInt64, VoteTracker> votes,
-      final Map<Bytes32, SignedBeaconBlock> blocks,
+      final StoreCaches caches,
       final CachingTaskQueue<SlotAndBlockRoot, BeaconState> checkpointStates) {
     checkArgument(
         time.isGreaterThanOrEqualTo(genesisTime),
@@ -140,16 +140,18 @@ class Store implements UpdatableStore {
     this.genesisTime = genesisTime;
     this.justifiedCheckpoint = justifiedCheckpoint;
     this.bestJustifiedCheckpoint = bestJustifiedCheckpoint;
-    this.blocks = blocks;
-    this.highestVotedValidatorIndex =
+    this.caches = caches;
+    this.blocks = caches.getBlocks();
+    final UInt64 highestVotedValidatorIndex =
         votes.keySet().stream().max(Comparator.naturalOrder()).orElse(UInt64.ZERO);
     this.votes =
-        new VoteTracker[this.highestVotedValidatorIndex.intValue() + VOTE_TRACKER_SPARE_CAPACITY];
-    votes.forEach((key, value) -> this.votes[key.intValue()] = value);
+        new VoteTrackerColumns(highestVotedValidatorIndex.intValue() + VOTE_TRACKER_SPARE_CAPACITY);
+    votes.forEach(this.votes::put);
 
     // Track latest finalized block
     this.finalizedAnchor = finalizedAnchor;
     states.cache(finalizedAnchor.getRoot(), finalizedAnchor);
+    caches.setLatestFinalizedState(finalizedAnchor.getState());
     this.finalizedOptimisticTransitionPayload = finalizedOptimisticTransitionPayload;
 
     // Set up block provider to draw from in-memory blocks
@@ -183,17 +185,12 @@ class Store implements UpdatableStore {
       final StoreConfig config) {
 
     // Create limited collections for non-final data
-    final Map<Bytes32, SignedBeaconBlock> blocks =
-        LimitedMap.createSynchronized(config.getBlockCacheSize());
+    final StoreCaches caches = StoreCaches.create(config);
     final CachingTaskQueue<SlotAndBlockRoot, BeaconState> checkpointStateTaskQueue =
         CachingTaskQueue.create(
-            asyncRunner,
-            metricsSystem,
-            "memory_checkpoint_states",
-            config.getCheckpointStateCacheSize());
+            asyncRunner, metricsSystem, "memory_checkpoint_states", caches.getCheckpointStates());
     final CachingTaskQueue<Bytes32, StateAndBlockSummary> stateTaskQueue =
-        CachingTaskQueue.create(
-            asyncRunner, metricsSystem, "memory_states", config.getStateCacheSize());
+        CachingTaskQueue.create(asyncRunner, metricsSystem, "memory_states", caches.getStates());
     final UInt64 currentEpoch = spec.computeEpochAtSlot(spec.getCurrentSlot(time, genesisTime));
     final ForkChoiceStrategy forkChoiceStrategy =
         ForkChoiceStrategy.initialize(
@@ -222,7 +219,7 @@ class Store implements UpdatableStore {
         bestJustifiedCheckpoint,
         forkChoiceStrategy,
         votes,
-        blocks,
+        caches,
         checkpointStateTaskQueue);
   }
 
@@ -280,6 +277,8 @@ class Store implements UpdatableStore {
                   "Number of beacon blocks held in the in-memory store"));
       states.startMetrics();
       checkpointStates.startMetrics();
+      caches.startMetrics(metricsSystem);
+      forkChoiceStrategy.startMetrics(metricsSystem);
     } finally {
       votesLock.writeLock().unlock();
       lock.writeLock().unlock();
@@ -532,7 +531,7 @@ class Store implements UpdatableStore {
   UInt64 getHighestVotedValidatorIndex() {
     readVotesLock.lock();
     try {
-      return highestVotedValidatorIndex;
+      return votes.getHighestVotedValidatorIndex();
     } finally {
       readVotesLock.unlock();
     }
@@ -541,10 +540,16 @@ class Store implements UpdatableStore {
   VoteTracker getVote(UInt64 validatorIndex) {
     readVotesLock.lock();
     try {
-      if (validatorIndex.intValue() >= votes.length) {
-        return null;
-      }
-      return votes[validatorIndex.intValue()];
+      return votes.get(validatorIndex);
+    } finally {
+      readVotesLock.unlock();
+    }
+  }
+
+  IntSet getValidatorsWithPendingVotes() {
+    readVotesLock.lock();
+    try {
+      return votes.getValidatorsWithPendingVotes();
     } finally {
       readVotesLock.unlock();
     }
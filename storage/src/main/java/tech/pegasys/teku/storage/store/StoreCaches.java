@@ -0,0 +1,141 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.store;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.LabelledGauge;
+import tech.pegasys.teku.infrastructure.collections.LimitedMap;
+import tech.pegasys.teku.infrastructure.collections.WeightedLimitedMap;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeMemoryAccountant;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeNode;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
+import tech.pegasys.teku.spec.datastructures.blocks.StateAndBlockSummary;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+
+/**
+ * Creates the maps backing the store's block and state caches.
+ *
+ * <p>Caches with a byte budget configured are limited by the estimated memory their values retain
+ * rather than by the number of values. States share most of their tree with the state they were
+ * processed from, so a state is weighed by the nodes it doesn't share with its parent's state (or
+ * the block's state for checkpoint states) when that is cached, or otherwise by the nodes it
+ * doesn't share with the latest finalized state. The estimate is made when the state is cached and
+ * isn't revised if the related state is later evicted.
+ */
+class StoreCaches {
+  private final Map<Bytes32, SignedBeaconBlock> blocks;
+  private final Map<Bytes32, StateAndBlockSummary> states;
+  private final Map<SlotAndBlockRoot, BeaconState> checkpointStates;
+  private volatile BeaconState latestFinalizedState;
+
+  private StoreCaches(final StoreConfig config) {
+    blocks =
+        config.getBlockCacheMaxBytes() > 0
+            ? WeightedLimitedMap.create(config.getBlockCacheMaxBytes(), StoreCaches::weighBlock)
+            : LimitedMap.createSynchronized(config.getBlockCacheSize());
+    states =
+        config.getStateCacheMaxBytes() > 0
+            ? WeightedLimitedMap.create(config.getStateCacheMaxBytes(), this::weighState)
+            : LimitedMap.createSoft(config.getStateCacheSize());
+    checkpointStates =
+        config.getCheckpointStateCacheMaxBytes() > 0
+            ? WeightedLimitedMap.create(
+                config.getCheckpointStateCacheMaxBytes(), this::weighCheckpointState)
+            : LimitedMap.createSoft(config.getCheckpointStateCacheSize());
+  }
+
+  static StoreCaches create(final StoreConfig config) {
+    return new StoreCaches(config);
+  }
+
+  Map<Bytes32, SignedBeaconBlock> getBlocks() {
+    return blocks;
+  }
+
+  Map<Bytes32, StateAndBlockSummary> getStates() {
+    return states;
+  }
+
+  Map<SlotAndBlockRoot, BeaconState> getCheckpointStates() {
+    return checkpointStates;
+  }
+
+  /**
+   * Sets the state to weigh cached states against when the state they were processed from isn't
+   * cached, avoiding a walk of the whole state tree when importing.
+   */
+  void setLatestFinalizedState(final BeaconState state) {
+    latestFinalizedState = state;
+  }
+
+  /** Reports the hit ratio and retained bytes of the caches which are limited by weight. */
+  void startMetrics(final MetricsSystem metricsSystem) {
+    final LabelledGauge retainedBytes =
+        metricsSystem.createLabelledGauge(
+            TekuMetricCategory.STORAGE,
+            "memory_cache_retained_bytes",
+            "Estimated memory retained by values in size limited caches",
+            "cache");
+    final LabelledGauge hitRatio =
+        metricsSystem.createLabelledGauge(
+            TekuMetricCategory.STORAGE,
+            "memory_cache_hit_ratio",
+            "Proportion of lookups in size limited caches which found a value",
+            "cache");
+    final Map<String, Map<?, ?>> caches =
+        Map.of("blocks", blocks, "states", states, "checkpoint_states", checkpointStates);
+    caches.forEach(
+        (name, cache) -> {
+          if (cache instanceof WeightedLimitedMap) {
+            final WeightedLimitedMap<?, ?> weightedCache = (WeightedLimitedMap<?, ?>) cache;
+            retainedBytes.labels(weightedCache::getWeight, name);
+            hitRatio.labels(weightedCache::getHitRatio, name);
+          }
+        });
+  }
+
+  private static long weighBlock(final Bytes32 root, final SignedBeaconBlock block) {
+    return measure(block.getBackingNode());
+  }
+
+  private long weighState(final Bytes32 root, final StateAndBlockSummary summary) {
+    return weighRelativeTo(summary.getState(), summary.getParentRoot());
+  }
+
+  private long weighCheckpointState(final SlotAndBlockRoot key, final BeaconState state) {
+    return weighRelativeTo(state, key.getBlockRoot());
+  }
+
+  private long weighRelativeTo(final BeaconState state, final Bytes32 baseRoot) {
+    final StateAndBlockSummary base =
+        states instanceof WeightedLimitedMap
+            ? ((WeightedLimitedMap<Bytes32, StateAndBlockSummary>) states).peek(baseRoot)
+            : null;
+    final BeaconState baseState = base != null ? base.getState() : latestFinalizedState;
+    if (baseState == null || baseState == state) {
+      return measure(state.getBackingNode());
+    }
+    return TreeMemoryAccountant.measureAdditional(
+        state.getBackingNode(), baseState.getBackingNode());
+  }
+
+  private static long measure(final TreeNode root) {
+    return TreeMemoryAccountant.measure(List.of(root)).getTotalBytes();
+  }
+}
@@ -25,21 +25,34 @@ public class StoreConfig {
   public static final int DEFAULT_BLOCK_CACHE_SIZE = 32;
   public static final int DEFAULT_CHECKPOINT_STATE_CACHE_SIZE = 20;
   public static final int DEFAULT_HOT_STATE_PERSISTENCE_FREQUENCY_IN_EPOCHS = 2;
+  // Byte budgets of 0 leave the corresponding cache limited by entry count
+  public static final long DEFAULT_STATE_CACHE_MAX_BYTES = 0;
+  public static final long DEFAULT_BLOCK_CACHE_MAX_BYTES = 0;
+  public static final long DEFAULT_CHECKPOINT_STATE_CACHE_MAX_BYTES = 0;
 
   private final int stateCacheSize;
   private final int blockCacheSize;
   private final int checkpointStateCacheSize;
   private final int hotStatePersistenceFrequencyInEpochs;
+  private final long stateCacheMaxBytes;
+  private final long blockCacheMaxBytes;
+  private final long checkpointStateCacheMaxBytes;
 
   private StoreConfig(
       final int stateCacheSize,
       final int blockCacheSize,
       final int checkpointStateCacheSize,
-      final int hotStatePersistenceFrequencyInEpochs) {
+      final int hotStatePersistenceFrequencyInEpochs,
+      final long stateCacheMaxBytes,
+      final long blockCacheMaxBytes,
+      final long checkpointStateCacheMaxBytes) {
     this.stateCacheSize = stateCacheSize;
     this.blockCacheSize = blockCacheSize;
     this.checkpointStateCacheSize = checkpointStateCacheSize;
     this.hotStatePersistenceFrequencyInEpochs = hotStatePersistenceFrequencyInEpochs;
+    this.stateCacheMaxBytes = stateCacheMaxBytes;
+    this.blockCacheMaxBytes = blockCacheMaxBytes;
+    this.checkpointStateCacheMaxBytes = checkpointStateCacheMaxBytes;
   }
 
   public static Builder builder() {
@@ -66,6 +79,23 @@ public class StoreConfig {
     return hotStatePersistenceFrequencyInEpochs;
   }
 
+  public long getStateCacheMaxBytes() {
+    return stateCacheMaxBytes;
+  }
+
+  public long getBlockCacheMaxBytes() {
+    return blockCacheMaxBytes;
+  }
+
+  public long getCheckpointStateCacheMaxBytes() {
+    return checkpointStateCacheMaxBytes;
+  }
+
+  /** Returns true if any of the caches is limited by its estimated size in bytes */
+  public boolean hasCacheByteBudgets() {
+    return stateCacheMaxBytes > 0 || blockCacheMaxBytes > 0 || checkpointStateCacheMaxBytes > 0;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
@@ -78,7 +108,10 @@ public class StoreConfig {
     return stateCacheSize == that.stateCacheSize
         && blockCacheSize == that.blockCacheSize
         && checkpointStateCacheSize == that.checkpointStateCacheSize
-        && hotStatePersistenceFrequencyInEpochs == that.hotStatePersistenceFrequencyInEpochs;
+        && hotStatePersistenceFrequencyInEpochs == that.hotStatePersistenceFrequencyInEpochs
+        && stateCacheMaxBytes == that.stateCacheMaxBytes
+        && blockCacheMaxBytes == that.blockCacheMaxBytes
+        && checkpointStateCacheMaxBytes == that.checkpointStateCacheMaxBytes;
   }
 
   @Override
@@ -87,7 +120,10 @@ public class StoreConfig {
         stateCacheSize,
         blockCacheSize,
         checkpointStateCacheSize,
-        hotStatePersistenceFrequencyInEpochs);
+        hotStatePersistenceFrequencyInEpochs,
+        stateCacheMaxBytes,
+        blockCacheMaxBytes,
+        checkpointStateCacheMaxBytes);
   }
 
   public static class Builder {
@@ -96,6 +132,9 @@ public class StoreConfig {
     private int checkpointStateCacheSize = DEFAULT_CHECKPOINT_STATE_CACHE_SIZE;
     private int hotStatePersistenceFrequencyInEpochs =
         DEFAULT_HOT_STATE_PERSISTENCE_FREQUENCY_IN_EPOCHS;
+    private long stateCacheMaxBytes = DEFAULT_STATE_CACHE_MAX_BYTES;
+    private long blockCacheMaxBytes = DEFAULT_BLOCK_CACHE_MAX_BYTES;
+    private long checkpointStateCacheMaxBytes = DEFAULT_CHECKPOINT_STATE_CACHE_MAX_BYTES;
 
     private Builder() {}
 
@@ -104,7 +143,10 @@ public class StoreConfig {
           stateCacheSize,
           blockCacheSize,
           checkpointStateCacheSize,
-          hotStatePersistenceFrequencyInEpochs);
+          hotStatePersistenceFrequencyInEpochs,
+          stateCacheMaxBytes,
+          blockCacheMaxBytes,
+          checkpointStateCacheMaxBytes);
     }
 
     public Builder stateCacheSize(final int stateCacheSize) {
@@ -137,6 +179,28 @@ public class StoreConfig {
       return this;
     }
 
+    public Builder stateCacheMaxBytes(final long stateCacheMaxBytes) {
+      validateCacheMaxBytes(stateCacheMaxBytes);
+      this.stateCacheMaxBytes = stateCacheMaxBytes;
+      return this;
+    }
+
+    public Builder blockCacheMaxBytes(final long blockCacheMaxBytes) {
+      validateCacheMaxBytes(blockCacheMaxBytes);
+      this.blockCacheMaxBytes = blockCacheMaxBytes;
+      return this;
+    }
+
+    public Builder checkpointStateCacheMaxBytes(final long checkpointStateCacheMaxBytes) {
+      validateCacheMaxBytes(checkpointStateCacheMaxBytes);
+      this.checkpointStateCacheMaxBytes = checkpointStateCacheMaxBytes;
+      return this;
+    }
+
+    private void validateCacheMaxBytes(final long maxBytes) {
+      checkArgument(maxBytes >= 0, "Cache max bytes cannot be negative");
+    }
+
     private void validateCacheSize(final int cacheSize) {
       checkArgument(cacheSize >= 0, "Cache size cannot be negative");
       checkArgument(
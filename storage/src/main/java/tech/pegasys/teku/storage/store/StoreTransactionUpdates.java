@@ -106,7 +106,10 @@ class StoreTransactionUpdates {
 
     // Update finalized data
     finalizedChainData.ifPresent(
-        finalizedData -> store.finalizedAnchor = finalizedData.getLatestFinalized());
+        finalizedData -> {
+          store.finalizedAnchor = finalizedData.getLatestFinalized();
+          store.caches.setLatestFinalizedState(store.finalizedAnchor.getState());
+        });
 
     // Prune blocks and states
     prunedHotBlockRoots
@@ -13,7 +13,7 @@
 
 package tech.pegasys.teku.storage.store;
 
-import java.util.Arrays;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +33,7 @@ public class StoreVoteUpdater implements VoteUpdater {
   private final VoteUpdateChannel voteUpdateChannel;
   private final Map<UInt64, VoteTracker> votes = new HashMap<>();
   private UInt64 highestVotedValidatorIndex = UInt64.ZERO;
+  private volatile boolean applyingScoreChanges = false;
 
   StoreVoteUpdater(
       final Store store, final ReadWriteLock lock, final VoteUpdateChannel voteUpdateChannel) {
@@ -46,9 +47,12 @@ public class StoreVoteUpdater implements VoteUpdater {
     VoteTracker txVote = votes.get(validatorIndex);
     if (txVote != null) {
       return txVote;
+    } else if (applyingScoreChanges) {
+      // The write lock is already held while score changes are applied, but votes may be read
+      // from other threads when deltas are computed in parallel so can't take the read lock.
+      return store.votes.get(validatorIndex);
     } else {
-      VoteTracker storeVote = store.getVote(validatorIndex);
-      return storeVote != null ? storeVote : VoteTracker.DEFAULT;
+      return store.getVote(validatorIndex);
     }
   }
 
@@ -63,6 +67,20 @@ public class StoreVoteUpdater implements VoteUpdater {
     highestVotedValidatorIndex = highestVotedValidatorIndex.max(validatorIndex);
   }
 
+  @Override
+  public Optional<IntSet> getValidatorsWithPendingVotes() {
+    final IntSet validators = store.getValidatorsWithPendingVotes();
+    votes.forEach(
+        (validatorIndex, vote) -> {
+          if (VoteTrackerColumns.hasPendingChange(vote)) {
+            validators.add(validatorIndex.intValue());
+          } else {
+            validators.remove(validatorIndex.intValue());
+          }
+        });
+    return Optional.of(validators);
+  }
+
   @Override
   public Bytes32 applyForkChoiceScoreChanges(
       final UInt64 currentEpoch,
@@ -76,6 +94,7 @@ public class StoreVoteUpdater implements VoteUpdater {
     // protoArray lock first, and may deadlock when it later needs to get votes which requires the
     // store lock.
     lock.writeLock().lock();
+    applyingScoreChanges = true;
     try {
       return store
           .getForkChoiceStrategy()
@@ -88,6 +107,7 @@ public class StoreVoteUpdater implements VoteUpdater {
               justifiedCheckpointEffectiveBalances,
               proposerBoostAmount);
     } finally {
+      applyingScoreChanges = false;
       lock.writeLock().unlock();
     }
   }
@@ -97,17 +117,13 @@ public class StoreVoteUpdater implements VoteUpdater {
     // Votes are applied to the store immediately since the changes to the in-memory ProtoArray
     // can't be rolled back.
 
-    store.highestVotedValidatorIndex = getHighestVotedValidatorIndex();
-
-    if (store.highestVotedValidatorIndex.intValue() >= store.votes.length) {
-      store.votes =
-          Arrays.copyOf(
-              store.votes,
-              store.highestVotedValidatorIndex.intValue() + Store.VOTE_TRACKER_SPARE_CAPACITY);
+    lock.writeLock().lock();
+    try {
+      votes.forEach(store.votes::put);
+    } finally {
+      lock.writeLock().unlock();
     }
 
-    votes.forEach((key, value) -> store.votes[key.intValue()] = value);
-
     voteUpdateChannel.onVotesUpdated(votes);
   }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.store;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
+import org.apache.tuweni.bytes.Bytes32;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
+
+/**
+ * Stores the latest vote of every validator in primitive columns indexed by validator index.
+ *
+ * <p>Most validators vote for one of a handful of recent blocks so vote roots are interned and
+ * referenced by a reference counted root id. Root id 0 is always {@link Bytes32#ZERO} so
+ * validators that have never voted need no explicit entry.
+ *
+ * <p>Validators whose vote has not yet been applied to fork choice are tracked so that fork
+ * choice only needs to visit validators that changed since the last head computation.
+ *
+ * <p>This class is not thread safe.
+ */
+public class VoteTrackerColumns {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int ZERO_ROOT_ID = 0;
+  private static final byte NEXT_EQUIVOCATING = 1;
+  private static final byte CURRENT_EQUIVOCATING = 2;
+
+  private int[] currentRootIds;
+  private int[] nextRootIds;
+  private long[] nextEpochs;
+  private byte[] equivocationFlags;
+  private int highestVotedValidatorIndex = 0;
+
+  private final Object2IntMap<Bytes32> rootIds = new Object2IntOpenHashMap<>();
+  private Bytes32[] roots = new Bytes32[16];
+  private int[] rootReferenceCounts = new int[16];
+  private int nextRootId = ZERO_ROOT_ID + 1;
+  private final IntArrayList freeRootIds = new IntArrayList();
+
+  private final IntSet validatorsWithPendingVotes = new IntOpenHashSet();
+
+  public VoteTrackerColumns() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public VoteTrackerColumns(final int initialCapacity) {
+    final int capacity = Math.max(initialCapacity, 1);
+    currentRootIds = new int[capacity];
+    nextRootIds = new int[capacity];
+    nextEpochs = new long[capacity];
+    equivocationFlags = new byte[capacity];
+    rootIds.defaultReturnValue(-1);
+    roots[ZERO_ROOT_ID] = Bytes32.ZERO;
+  }
+
+  public VoteTracker get(final UInt64 validatorIndex) {
+    if (validatorIndex.isGreaterThanOrEqualTo(currentRootIds.length)) {
+      return VoteTracker.DEFAULT;
+    }
+    final int index = validatorIndex.intValue();
+    final int currentRootId = currentRootIds[index];
+    final int nextRootId = nextRootIds[index];
+    final long nextEpoch = nextEpochs[index];
+    final byte flags = equivocationFlags[index];
+    if (currentRootId == ZERO_ROOT_ID
+        && nextRootId == ZERO_ROOT_ID
+        && nextEpoch == 0
+        && flags == 0) {
+      return VoteTracker.DEFAULT;
+    }
+    return new VoteTracker(
+        roots[currentRootId],
+        roots[nextRootId],
+        UInt64.fromLongBits(nextEpoch),
+        (flags & NEXT_EQUIVOCATING) != 0,
+        (flags & CURRENT_EQUIVOCATING) != 0);
+  }
+
+  public void put(final UInt64 validatorIndex, final VoteTracker vote) {
+    final int index = validatorIndex.intValue();
+    ensureCapacity(index + 1);
+    final int oldCurrentRootId = currentRootIds[index];
+    final int oldNextRootId = nextRootIds[index];
+    currentRootIds[index] = acquireRootId(vote.getCurrentRoot());
+    nextRootIds[index] = acquireRootId(vote.getNextRoot());
+    releaseRootId(oldCurrentRootId);
+    releaseRootId(oldNextRootId);
+    nextEpochs[index] = vote.getNextEpoch().longValue();
+    equivocationFlags[index] =
+        (byte)
+            ((vote.isNextEquivocating() ? NEXT_EQUIVOCATING : 0)
+                | (vote.isCurrentEquivocating() ? CURRENT_EQUIVOCATING : 0));
+    highestVotedValidatorIndex = Math.max(highestVotedValidatorIndex, index);
+
+    if (hasPendingChange(vote)) {
+      validatorsWithPendingVotes.add(index);
+    } else {
+      validatorsWithPendingVotes.remove(index);
+    }
+  }
+
+  public UInt64 getHighestVotedValidatorIndex() {
+    return UInt64.valueOf(highestVotedValidatorIndex);
+  }
+
+  /**
+   * Returns a copy of the indices of validators whose vote has changed but has not yet been
+   * applied to fork choice, either because they voted for a different block or because they were
+   * found to be equivocating.
+   */
+  public IntSet getValidatorsWithPendingVotes() {
+    return new IntOpenHashSet(validatorsWithPendingVotes);
+  }
+
+  /** Returns the number of distinct roots currently referenced by votes, including zero. */
+  int getRootCount() {
+    return rootIds.size() + 1;
+  }
+
+  /**
+   * Returns true if applying this vote to fork choice would change any weights. Votes from
+   * validators already counted as equivocating are ignored by fork choice.
+   */
+  static boolean hasPendingChange(final VoteTracker vote) {
+    return !vote.isCurrentEquivocating()
+        && (vote.isNextEquivocating() || !vote.getCurrentRoot().equals(vote.getNextRoot()));
+  }
+
+  private int acquireRootId(final Bytes32 root) {
+    if (root.isZero()) {
+      return ZERO_ROOT_ID;
+    }
+    int rootId = rootIds.getInt(root);
+    if (rootId < 0) {
+      rootId = freeRootIds.isEmpty() ? nextRootId++ : freeRootIds.popInt();
+      if (rootId >= roots.length) {
+        roots = Arrays.copyOf(roots, roots.length * 2);
+        rootReferenceCounts = Arrays.copyOf(rootReferenceCounts, roots.length);
+      }
+      roots[rootId] = root;
+      rootIds.put(root, rootId);
+    }
+    rootReferenceCounts[rootId]++;
+    return rootId;
+  }
+
+  private void releaseRootId(final int rootId) {
+    if (rootId == ZERO_ROOT_ID) {
+      return;
+    }
+    if (--rootReferenceCounts[rootId] == 0) {
+      rootIds.removeInt(roots[rootId]);
+      roots[rootId] = null;
+      freeRootIds.add(rootId);
+    }
+  }
+
+  private void ensureCapacity(final int requiredCapacity) {
+    if (requiredCapacity <= currentRootIds.length) {
+      return;
+    }
+    final int newCapacity = Math.max(requiredCapacity, currentRootIds.length * 2);
+    currentRootIds = Arrays.copyOf(currentRootIds, newCapacity);
+    nextRootIds = Arrays.copyOf(nextRootIds, newCapacity);
+    nextEpochs = Arrays.copyOf(nextEpochs, newCapacity);
+    equivocationFlags = Arrays.copyOf(equivocationFlags, newCapacity);
+  }
+}
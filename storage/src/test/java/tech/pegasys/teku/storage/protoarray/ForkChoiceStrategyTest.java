@@ -390,6 +390,38 @@ public class ForkChoiceStrategyTest extends AbstractBlockMetadataStoreTest {
     assertThat(bestHead).isEqualTo(block4.getRoot());
   }
 
+  @Test
+  void findHead_shouldReflectBlocksAddedAfterHeadWasFound() {
+    final StorageSystem storageSystem = initStorageSystem();
+    final RecentChainData recentChainData = storageSystem.recentChainData();
+    final ForkChoiceStrategy strategy = getProtoArray(storageSystem);
+    final UInt64 currentEpoch = recentChainData.getCurrentEpoch().orElseThrow();
+    final Checkpoint justifiedCheckpoint = recentChainData.getJustifiedCheckpoint().orElseThrow();
+    final Checkpoint finalizedCheckpoint = recentChainData.getFinalizedCheckpoint().orElseThrow();
+    final SignedBlockAndState genesis = storageSystem.chainBuilder().getLatestBlockAndState();
+
+    assertThat(strategy.findHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint))
+        .isEqualTo(new SlotAndBlockRoot(genesis.getSlot(), genesis.getRoot()));
+
+    final SignedBlockAndState block = storageSystem.chainUpdater().addNewBestBlock();
+
+    assertThat(strategy.findHead(currentEpoch, justifiedCheckpoint, finalizedCheckpoint))
+        .isEqualTo(new SlotAndBlockRoot(block.getSlot(), block.getRoot()));
+  }
+
+  @Test
+  void getSnapshot_shouldNotReflectLaterUpdates() {
+    final StorageSystem storageSystem = initStorageSystem();
+    final ForkChoiceStrategy strategy = getProtoArray(storageSystem);
+    final ForkChoiceSnapshot snapshot = strategy.getSnapshot();
+
+    final SignedBlockAndState block = storageSystem.chainUpdater().addNewBestBlock();
+
+    assertThat(snapshot.contains(block.getRoot())).isFalse();
+    assertThat(strategy.contains(block.getRoot())).isTrue();
+    assertThat(strategy.getSnapshot().blockSlot(block.getRoot())).contains(block.getSlot());
+  }
+
   @Test
   void executionBlockHash_shouldBeEmptyForUnknownBlock() {
     final StorageSystem storageSystem = initStorageSystem(TestSpecFactory.createMinimalBellatrix());
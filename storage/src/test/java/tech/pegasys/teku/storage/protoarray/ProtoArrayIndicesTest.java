@@ -15,6 +15,8 @@ package tech.pegasys.teku.storage.protoarray;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.spec.Spec;
@@ -48,6 +50,47 @@ public class ProtoArrayIndicesTest {
     assertThat(indices.contains(root1)).isFalse();
   }
 
+  @Test
+  void copy_shouldNotBeAffectedByLaterChanges() {
+    indices.add(root1, 1);
+    indices.add(root2, 2);
+
+    final ProtoArrayIndices copy = indices.copy();
+    indices.add(root3, 3);
+    indices.remove(root2);
+    indices.offsetIndices(1);
+
+    assertThat(copy.getRootIndices()).containsOnlyKeys(root1, root2);
+    assertThat(copy.get(root1)).contains(1);
+    assertThat(copy.get(root2)).contains(2);
+    assertThat(copy.contains(root3)).isFalse();
+    assertThat(indices.getRootIndices()).containsOnlyKeys(root1, root3);
+    assertThat(indices.get(root1)).contains(0);
+    assertThat(indices.get(root3)).contains(2);
+  }
+
+  @Test
+  void copy_shouldNotBeAffectedByChangesOnceRecentRootsMerged() {
+    final List<Bytes32> roots = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      roots.add(dataStructureUtil.randomBytes32());
+      indices.add(roots.get(i), i);
+    }
+
+    final ProtoArrayIndices copy = indices.copy();
+    for (int i = 0; i < 200; i++) {
+      indices.remove(roots.get(i));
+      indices.add(dataStructureUtil.randomBytes32(), 200 + i);
+    }
+
+    for (int i = 0; i < 200; i++) {
+      assertThat(copy.get(roots.get(i))).contains(i);
+      assertThat(indices.contains(roots.get(i))).isFalse();
+    }
+    assertThat(copy.getRootIndices()).hasSize(200);
+    assertThat(indices.getRootIndices()).hasSize(200);
+  }
+
   @Test
   void shouldGetFirstItemSuccessfully() {
     indices.add(root1, 1);
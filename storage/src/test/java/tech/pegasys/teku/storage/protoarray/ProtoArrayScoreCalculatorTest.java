@@ -19,15 +19,20 @@ import static tech.pegasys.teku.storage.protoarray.ProtoArrayScoreCalculator.com
 import static tech.pegasys.teku.storage.protoarray.ProtoArrayTestUtil.createStoreToManipulateVotes;
 import static tech.pegasys.teku.storage.protoarray.ProtoArrayTestUtil.getHash;
 
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.datastructures.forkchoice.StubVoteUpdater;
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
 import tech.pegasys.teku.spec.datastructures.forkchoice.VoteUpdater;
 
@@ -581,6 +586,110 @@ public class ProtoArrayScoreCalculatorTest {
     }
   }
 
+  @Test
+  void computeDeltas_onlyVisitsValidatorsWithPendingVotesWhenBalancesUnchanged() {
+    final UInt64 balance = UInt64.valueOf(42);
+    final IntSet validatorsWithPendingVotes = new IntOpenHashSet();
+    store = new PendingVotesTrackingVoteUpdater(validatorsWithPendingVotes);
+    for (int i = 0; i < 2; i++) {
+      indices.put(getHash(i), i);
+      store.putVote(UInt64.valueOf(i), new VoteTracker(Bytes32.ZERO, getHash(i), ZERO));
+      oldBalances.add(balance);
+      newBalances.add(balance);
+    }
+    // Only validator 1 is reported as changed so validator 0 must not be visited
+    validatorsWithPendingVotes.add(1);
+
+    List<Long> deltas =
+        computeDeltas(
+            store,
+            indices.size(),
+            this::getIndex,
+            oldBalances,
+            newBalances,
+            oldProposerBoostRoot,
+            newProposerBoostRoot,
+            oldProposerBoostAmount,
+            newProposerBoostAmount);
+
+    assertThat(deltas).containsExactly(0L, balance.longValue());
+    assertThat(store.getVote(ZERO).getCurrentRoot()).isEqualTo(Bytes32.ZERO);
+    assertThat(store.getVote(UInt64.ONE).getCurrentRoot()).isEqualTo(getHash(1));
+  }
+
+  @Test
+  void computeDeltas_visitsAllValidatorsWhenBalancesChange() {
+    final IntSet validatorsWithPendingVotes = new IntOpenHashSet();
+    store = new PendingVotesTrackingVoteUpdater(validatorsWithPendingVotes);
+    for (int i = 0; i < 2; i++) {
+      indices.put(getHash(i), i);
+      store.putVote(UInt64.valueOf(i), new VoteTracker(getHash(i), getHash(i), ZERO));
+      oldBalances.add(UInt64.valueOf(42));
+      newBalances.add(UInt64.valueOf(50));
+    }
+
+    List<Long> deltas =
+        computeDeltas(
+            store,
+            indices.size(),
+            this::getIndex,
+            oldBalances,
+            newBalances,
+            oldProposerBoostRoot,
+            newProposerBoostRoot,
+            oldProposerBoostAmount,
+            newProposerBoostAmount);
+
+    assertThat(deltas).containsExactly(8L, 8L);
+  }
+
+  @Test
+  void computeDeltas_splitsValidatorsAcrossWorkers() {
+    final UInt64 balance = UInt64.valueOf(42);
+    final int validatorCount = ProtoArrayScoreCalculator.MIN_VALIDATORS_PER_TASK * 4 + 3;
+    final int rootCount = 16;
+
+    for (int i = 0; i < rootCount; i++) {
+      indices.put(getHash(i), i);
+    }
+    for (int i = 0; i < validatorCount; i++) {
+      VoteTracker vote = store.getVote(UInt64.valueOf(i));
+      VoteTracker newVote =
+          new VoteTracker(
+              getHash(i % rootCount), getHash((i + 1) % rootCount), vote.getNextEpoch());
+      store.putVote(UInt64.valueOf(i), newVote);
+      oldBalances.add(balance);
+      newBalances.add(balance.plus(i % 3));
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<Long> deltas =
+          computeDeltas(
+              pool,
+              store,
+              indices.size(),
+              this::getIndex,
+              oldBalances,
+              newBalances,
+              oldProposerBoostRoot,
+              newProposerBoostRoot,
+              oldProposerBoostAmount,
+              newProposerBoostAmount);
+
+      final long[] expected = new long[rootCount];
+      for (int i = 0; i < validatorCount; i++) {
+        expected[i % rootCount] -= balance.longValue();
+        expected[(i + 1) % rootCount] += balance.plus(i % 3).longValue();
+      }
+      assertThat(deltas).containsExactly(Arrays.stream(expected).boxed().toArray(Long[]::new));
+    } finally {
+      pool.shutdown();
+    }
+
+    votesShouldBeUpdated(store);
+  }
+
   private void votesShouldBeUpdated(VoteUpdater store) {
     UInt64.rangeClosed(ZERO, store.getHighestVotedValidatorIndex())
         .forEach(
@@ -589,4 +698,17 @@ public class ProtoArrayScoreCalculatorTest {
               assertThat(vote.getCurrentRoot()).isEqualTo(vote.getNextRoot());
             });
   }
+
+  private static class PendingVotesTrackingVoteUpdater extends StubVoteUpdater {
+    private final IntSet validatorsWithPendingVotes;
+
+    private PendingVotesTrackingVoteUpdater(final IntSet validatorsWithPendingVotes) {
+      this.validatorsWithPendingVotes = validatorsWithPendingVotes;
+    }
+
+    @Override
+    public Optional<IntSet> getValidatorsWithPendingVotes() {
+      return Optional.of(new IntOpenHashSet(validatorsWithPendingVotes));
+    }
+  }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.protoarray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.INVALID;
+import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.OPTIMISTIC;
+import static tech.pegasys.teku.spec.datastructures.forkchoice.ProtoNodeValidationStatus.VALID;
+import static tech.pegasys.teku.storage.protoarray.ProtoNodeArrays.NO_INDEX;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.BlockCheckpoints;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+public class ProtoNodeArraysTest {
+  private final Spec spec = TestSpecFactory.createMinimalPhase0();
+  private final DataStructureUtil dataStructureUtil = new DataStructureUtil(spec);
+  private final BlockCheckpoints checkpoints =
+      new BlockCheckpoints(
+          dataStructureUtil.randomCheckpoint(),
+          dataStructureUtil.randomCheckpoint(),
+          dataStructureUtil.randomCheckpoint(),
+          dataStructureUtil.randomCheckpoint());
+  private final ProtoNodeArrays nodes = new ProtoNodeArrays();
+
+  @Test
+  void shouldStoreNodeFields() {
+    final Bytes32 blockRoot = dataStructureUtil.randomBytes32();
+    final Bytes32 parentRoot = dataStructureUtil.randomBytes32();
+    final Bytes32 stateRoot = dataStructureUtil.randomBytes32();
+    final Bytes32 executionBlockHash = dataStructureUtil.randomBytes32();
+    final int index =
+        nodes.add(
+            UInt64.valueOf(5),
+            blockRoot,
+            parentRoot,
+            stateRoot,
+            NO_INDEX,
+            checkpoints,
+            executionBlockHash,
+            OPTIMISTIC);
+
+    assertThat(index).isZero();
+    final ProtoNode node = nodes.getNode(index);
+    assertThat(node.getBlockSlot()).isEqualTo(UInt64.valueOf(5));
+    assertThat(node.getBlockRoot()).isEqualTo(blockRoot);
+    assertThat(node.getParentRoot()).isEqualTo(parentRoot);
+    assertThat(node.getStateRoot()).isEqualTo(stateRoot);
+    assertThat(node.getExecutionBlockHash()).isEqualTo(executionBlockHash);
+    assertThat(node.getJustifiedCheckpoint()).isEqualTo(checkpoints.getJustifiedCheckpoint());
+    assertThat(node.getParentIndex()).isEmpty();
+    assertThat(node.getWeight()).isEqualTo(UInt64.ZERO);
+    assertThat(node.isOptimistic()).isTrue();
+    assertThat(nodes.hasExecutionBlockHash(index, executionBlockHash)).isTrue();
+  }
+
+  @Test
+  void shouldGrowBeyondInitialCapacity() {
+    int parentIndex = NO_INDEX;
+    for (int i = 0; i < 1000; i++) {
+      parentIndex = addNode(i, parentIndex);
+    }
+
+    assertThat(nodes.size()).isEqualTo(1000);
+    assertThat(nodes.getBlockSlot(999)).isEqualTo(999);
+    assertThat(nodes.getParentIndex(999)).isEqualTo(998);
+  }
+
+  @Test
+  void removeFirst_shouldShiftNodesAndAdjustIndices() {
+    final int node0 = addNode(0, NO_INDEX);
+    final int node1 = addNode(1, node0);
+    final int node2 = addNode(2, node1);
+    final int node3 = addNode(3, node2);
+    nodes.setBestChildIndex(node2, node3);
+    nodes.setBestDescendantIndex(node2, node3);
+    nodes.adjustWeight(node3, 10);
+    final Bytes32 node2Root = nodes.getBlockRoot(node2);
+
+    nodes.removeFirst(2);
+
+    assertThat(nodes.size()).isEqualTo(2);
+    assertThat(nodes.getBlockRoot(0)).isEqualTo(node2Root);
+    assertThat(nodes.getParentIndex(0)).isEqualTo(NO_INDEX);
+    assertThat(nodes.getParentIndex(1)).isZero();
+    assertThat(nodes.getBestChildIndex(0)).isEqualTo(1);
+    assertThat(nodes.getBestDescendantIndex(0)).isEqualTo(1);
+    assertThat(nodes.getWeight(1)).isEqualTo(10);
+  }
+
+  @Test
+  void copy_shouldNotShareStateWithOriginal() {
+    final int node0 = addNode(0, NO_INDEX);
+    final int node1 = addNode(1, node0);
+    nodes.adjustWeight(node1, 10);
+
+    final ProtoNodeArrays copy = nodes.copy();
+    nodes.adjustWeight(node1, 5);
+    nodes.setBestChildIndex(node0, node1);
+    nodes.setValidationStatus(node1, VALID);
+    addNode(2, node1);
+
+    assertThat(copy.size()).isEqualTo(2);
+    assertThat(copy.getBlockRoot(node1)).isEqualTo(nodes.getBlockRoot(node1));
+    assertThat(copy.getParentIndex(node1)).isEqualTo(node0);
+    assertThat(copy.getWeight(node1)).isEqualTo(10);
+    assertThat(copy.getBestChildIndex(node0)).isEqualTo(NO_INDEX);
+    assertThat(copy.getValidationStatus(node1)).isEqualTo(OPTIMISTIC);
+  }
+
+  @Test
+  void copy_shouldNotBeAffectedByRemovingNodesFromOriginal() {
+    final int node0 = addNode(0, NO_INDEX);
+    final int node1 = addNode(1, node0);
+    final int node2 = addNode(2, node1);
+    final Bytes32 node0Root = nodes.getBlockRoot(node0);
+    final Bytes32 node2Root = nodes.getBlockRoot(node2);
+
+    final ProtoNodeArrays copy = nodes.copy();
+    nodes.removeFirst(2);
+    addNode(3, 0);
+
+    assertThat(copy.size()).isEqualTo(3);
+    assertThat(copy.getBlockRoot(node0)).isEqualTo(node0Root);
+    assertThat(copy.getBlockRoot(node2)).isEqualTo(node2Root);
+    assertThat(copy.getBlockSlot(node2)).isEqualTo(2);
+    assertThat(copy.getParentIndex(node2)).isEqualTo(node1);
+  }
+
+  @Test
+  void copy_shouldNotAffectOriginalWhenNodesAddedToCopy() {
+    final int node0 = addNode(0, NO_INDEX);
+    final ProtoNodeArrays copy = nodes.copy();
+
+    final int originalNode1 = addNode(nodes, 1, node0);
+    final Bytes32 originalNode1Root = nodes.getBlockRoot(originalNode1);
+    final int copyNode1 = addNode(copy, 5, NO_INDEX);
+
+    assertThat(copyNode1).isEqualTo(originalNode1);
+    assertThat(nodes.getBlockRoot(originalNode1)).isEqualTo(originalNode1Root);
+    assertThat(nodes.getBlockSlot(originalNode1)).isEqualTo(1);
+    assertThat(nodes.getParentIndex(originalNode1)).isEqualTo(node0);
+    assertThat(copy.getBlockSlot(copyNode1)).isEqualTo(5);
+    assertThat(copy.getParentIndex(copyNode1)).isEqualTo(NO_INDEX);
+  }
+
+  @Test
+  void adjustWeight_shouldRejectNegativeWeight() {
+    final int index = addNode(0, NO_INDEX);
+    nodes.adjustWeight(index, 5);
+
+    assertThatThrownBy(() -> nodes.adjustWeight(index, -6)).isInstanceOf(RuntimeException.class);
+    assertThat(nodes.getWeight(index)).isEqualTo(5);
+  }
+
+  @Test
+  void setValidationStatus_shouldNotAllowValidNodeToBecomeInvalid() {
+    final int index = addNode(0, NO_INDEX);
+    nodes.setValidationStatus(index, VALID);
+
+    assertThatThrownBy(() -> nodes.setValidationStatus(index, INVALID))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void compareBlockRoots_shouldMatchHexOrdering() {
+    final int index1 = addNode(0, NO_INDEX);
+    final int index2 = addNode(1, NO_INDEX);
+    final Bytes32 root1 = nodes.getBlockRoot(index1);
+    final Bytes32 root2 = nodes.getBlockRoot(index2);
+
+    assertThat(Integer.signum(nodes.compareBlockRoots(index1, index2)))
+        .isEqualTo(Integer.signum(root1.toHexString().compareTo(root2.toHexString())));
+  }
+
+  private int addNode(final long slot, final int parentIndex) {
+    return addNode(nodes, slot, parentIndex);
+  }
+
+  private int addNode(final ProtoNodeArrays target, final long slot, final int parentIndex) {
+    return target.add(
+        UInt64.valueOf(slot),
+        dataStructureUtil.randomBytes32(),
+        dataStructureUtil.randomBytes32(),
+        dataStructureUtil.randomBytes32(),
+        parentIndex,
+        checkpoints,
+        Bytes32.ZERO,
+        OPTIMISTIC);
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static tech.pegasys.teku.infrastructure.async.SafeFutureAssert.assertThatSafeFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import tech.pegasys.teku.infrastructure.async.SafeFuture;
+import tech.pegasys.teku.infrastructure.async.StubAsyncRunner;
+import tech.pegasys.teku.infrastructure.async.StubAsyncRunnerFactory;
+import tech.pegasys.teku.infrastructure.async.eventthread.AsyncRunnerEventThread;
+import tech.pegasys.teku.infrastructure.async.eventthread.EventThread;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
+import tech.pegasys.teku.infrastructure.time.StubTimeProvider;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
+import tech.pegasys.teku.spec.datastructures.state.Checkpoint;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+import tech.pegasys.teku.storage.api.StorageUpdate;
+import tech.pegasys.teku.storage.api.StorageUpdateChannel;
+import tech.pegasys.teku.storage.api.UpdateResult;
+
+class GroupCommitStorageUpdateChannelTest {
+  private static final int MAX_GROUP_SIZE = 3;
+
+  private final DataStructureUtil dataStructureUtil =
+      new DataStructureUtil(TestSpecFactory.createMinimalPhase0());
+  private final StorageUpdateChannel delegate = mock(StorageUpdateChannel.class);
+  private final List<StorageUpdate> preparedUpdates = new ArrayList<>();
+  private final StubAsyncRunner preparationRunner = new StubAsyncRunner();
+  private final StubAsyncRunnerFactory asyncRunnerFactory = new StubAsyncRunnerFactory();
+  private final EventThread writeThread =
+      new AsyncRunnerEventThread("group_commit_test", asyncRunnerFactory);
+  private StubAsyncRunner writeRunner;
+
+  private final GroupCommitStorageUpdateChannel channel =
+      new GroupCommitStorageUpdateChannel(
+          delegate,
+          preparedUpdates::add,
+          preparationRunner,
+          writeThread,
+          new StubMetricsSystem(),
+          StubTimeProvider.withTimeInMillis(0),
+          10,
+          MAX_GROUP_SIZE);
+
+  @BeforeEach
+  void setUp() {
+    writeThread.start();
+    writeRunner = asyncRunnerFactory.getStubAsyncRunners().get(0);
+    when(delegate.onStorageUpdate(any()))
+        .thenReturn(SafeFuture.completedFuture(UpdateResult.EMPTY));
+    when(delegate.onFinalizedBlocks(any())).thenReturn(SafeFuture.COMPLETE);
+  }
+
+  @AfterEach
+  void tearDown() {
+    writeThread.stop();
+  }
+
+  @Test
+  void shouldApplyUpdateOnWriteThread() {
+    final StorageUpdate update = hotUpdate(Map.of(), Map.of());
+
+    final SafeFuture<UpdateResult> result = channel.onStorageUpdate(update);
+
+    verifyNoInteractions(delegate);
+    assertThat(result).isNotDone();
+
+    processQueue();
+
+    verify(delegate).onStorageUpdate(update);
+    assertThatSafeFuture(result).isCompletedWithValue(UpdateResult.EMPTY);
+  }
+
+  @Test
+  void shouldPrepareUpdatesBeforeTheyAreWritten() {
+    final StorageUpdate update = hotUpdate(Map.of(), Map.of());
+
+    channel.onStorageUpdate(update);
+    assertThat(preparedUpdates).isEmpty();
+
+    processQueue();
+
+    assertThat(preparedUpdates).containsExactly(update);
+  }
+
+  @Test
+  void shouldMergeQueuedHotUpdates() {
+    final Bytes32 root1 = dataStructureUtil.randomBytes32();
+    final Bytes32 root2 = dataStructureUtil.randomBytes32();
+    final Checkpoint justified1 = dataStructureUtil.randomCheckpoint();
+    final Checkpoint justified2 = dataStructureUtil.randomCheckpoint();
+    final BeaconState state1 = mock(BeaconState.class);
+    final BeaconState state2 = mock(BeaconState.class);
+
+    final SafeFuture<UpdateResult> result1 =
+        channel.onStorageUpdate(
+            hotUpdate(Optional.of(justified1), Map.of(root1, state1), Map.of()));
+    final SafeFuture<UpdateResult> result2 =
+        channel.onStorageUpdate(
+            hotUpdate(Optional.of(justified2), Map.of(root2, state2), Map.of()));
+
+    processQueue();
+
+    final ArgumentCaptor<StorageUpdate> captor = ArgumentCaptor.forClass(StorageUpdate.class);
+    verify(delegate).onStorageUpdate(captor.capture());
+    final StorageUpdate merged = captor.getValue();
+    assertThat(merged.getHotStates()).isEqualTo(Map.of(root1, state1, root2, state2));
+    assertThat(merged.getJustifiedCheckpoint()).contains(justified2);
+    assertThatSafeFuture(result1).isCompletedWithValue(UpdateResult.EMPTY);
+    assertThatSafeFuture(result2).isCompletedWithValue(UpdateResult.EMPTY);
+  }
+
+  @Test
+  void shouldLimitGroupSize() {
+    for (int i = 0; i < MAX_GROUP_SIZE + 1; i++) {
+      channel.onStorageUpdate(hotUpdate(Map.of(), Map.of()));
+    }
+
+    processQueue();
+
+    verify(delegate, times(2)).onStorageUpdate(any());
+  }
+
+  @Test
+  void shouldNotMergeUpdatesWhichDeleteAddedData() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    final StorageUpdate update1 = hotUpdate(Map.of(root, mock(BeaconState.class)), Map.of());
+    final StorageUpdate update2 = hotUpdate(Map.of(), Map.of(root, UInt64.ONE));
+
+    channel.onStorageUpdate(update1);
+    channel.onStorageUpdate(update2);
+
+    processQueue();
+
+    final InOrder inOrder = inOrder(delegate);
+    inOrder.verify(delegate).onStorageUpdate(update1);
+    inOrder.verify(delegate).onStorageUpdate(update2);
+  }
+
+  @Test
+  void shouldNotMergeUpdatesWhichUpdateFinalizedData() {
+    final StorageUpdate update1 = hotUpdate(Map.of(), Map.of());
+    final StorageUpdate update2 = optimisticTransitionUpdate();
+    final StorageUpdate update3 = hotUpdate(Map.of(), Map.of());
+
+    channel.onStorageUpdate(update1);
+    channel.onStorageUpdate(update2);
+    channel.onStorageUpdate(update3);
+
+    processQueue();
+
+    final InOrder inOrder = inOrder(delegate);
+    inOrder.verify(delegate).onStorageUpdate(update1);
+    inOrder.verify(delegate).onStorageUpdate(update2);
+    inOrder.verify(delegate).onStorageUpdate(update3);
+  }
+
+  @Test
+  void shouldApplyOtherEventsInOrderWithUpdates() {
+    final StorageUpdate update1 = hotUpdate(Map.of(), Map.of());
+    final StorageUpdate update2 = hotUpdate(Map.of(), Map.of());
+
+    channel.onStorageUpdate(update1);
+    final SafeFuture<Void> finalizedBlocksResult =
+        channel.onFinalizedBlocks(Collections.emptyList());
+    channel.onStorageUpdate(update2);
+
+    processQueue();
+
+    final InOrder inOrder = inOrder(delegate);
+    inOrder.verify(delegate).onStorageUpdate(update1);
+    inOrder.verify(delegate).onFinalizedBlocks(Collections.emptyList());
+    inOrder.verify(delegate).onStorageUpdate(update2);
+    assertThatSafeFuture(finalizedBlocksResult).isCompleted();
+  }
+
+  @Test
+  void shouldFailAllUpdatesInGroupWhenWriteFails() {
+    final RuntimeException error = new RuntimeException("Nope");
+    when(delegate.onStorageUpdate(any())).thenReturn(SafeFuture.failedFuture(error));
+
+    final SafeFuture<UpdateResult> result1 =
+        channel.onStorageUpdate(hotUpdate(Map.of(), Map.of()));
+    final SafeFuture<UpdateResult> result2 =
+        channel.onStorageUpdate(hotUpdate(Map.of(), Map.of()));
+
+    processQueue();
+
+    assertThatSafeFuture(result1).isCompletedExceptionallyWith(error);
+    assertThatSafeFuture(result2).isCompletedExceptionallyWith(error);
+  }
+
+  @Test
+  void awaitQueuedWrites_shouldCompleteWhenQueuedWritesAreApplied() {
+    channel.onStorageUpdate(hotUpdate(Map.of(), Map.of()));
+
+    final SafeFuture<Void> result = channel.awaitQueuedWrites();
+    assertThat(result).isNotDone();
+
+    processQueue();
+
+    assertThat(result).isCompleted();
+  }
+
+  @Test
+  void awaitQueuedWrites_shouldBeCompleteWhenNothingIsQueued() {
+    assertThat(channel.awaitQueuedWrites()).isCompleted();
+  }
+
+  private void processQueue() {
+    preparationRunner.executeQueuedActions();
+    writeRunner.executeQueuedActions();
+  }
+
+  private StorageUpdate hotUpdate(
+      final Map<Bytes32, BeaconState> hotStates, final Map<Bytes32, UInt64> deletedHotBlocks) {
+    return hotUpdate(Optional.empty(), hotStates, deletedHotBlocks);
+  }
+
+  private StorageUpdate hotUpdate(
+      final Optional<Checkpoint> justifiedCheckpoint,
+      final Map<Bytes32, BeaconState> hotStates,
+      final Map<Bytes32, UInt64> deletedHotBlocks) {
+    final SlotAndBlockRoot slotAndBlockRoot =
+        new SlotAndBlockRoot(dataStructureUtil.randomUInt64(), dataStructureUtil.randomBytes32());
+    final Map<Bytes32, SlotAndBlockRoot> stateRoots =
+        Map.of(dataStructureUtil.randomBytes32(), slotAndBlockRoot);
+    return new StorageUpdate(
+        Optional.empty(),
+        Optional.empty(),
+        justifiedCheckpoint,
+        Optional.empty(),
+        Map.of(),
+        hotStates,
+        deletedHotBlocks,
+        stateRoots,
+        false,
+        Optional.empty(),
+        false);
+  }
+
+  private StorageUpdate optimisticTransitionUpdate() {
+    return new StorageUpdate(
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Map.of(),
+        Map.of(),
+        Map.of(),
+        Map.of(),
+        true,
+        Optional.of(dataStructureUtil.randomBytes32()),
+        false);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.async.StubAsyncRunner;
+import tech.pegasys.teku.infrastructure.time.StubTimeProvider;
+
+class SecondaryDatabaseFollowerTest {
+
+  private static final Duration CATCH_UP_INTERVAL = Duration.ofSeconds(12);
+
+  private final StubTimeProvider timeProvider = StubTimeProvider.withTimeInSeconds(1000);
+  private final StubAsyncRunner asyncRunner = new StubAsyncRunner(timeProvider);
+  private final Database database = mock(Database.class);
+
+  private final SecondaryDatabaseFollower follower =
+      new SecondaryDatabaseFollower(database, asyncRunner, CATCH_UP_INTERVAL);
+
+  @BeforeEach
+  void setUp() {
+    assertThat(follower.start()).isCompleted();
+  }
+
+  @Test
+  void shouldNotCatchUpBeforeFirstInterval() {
+    asyncRunner.executeDueActions();
+    verify(database, never()).catchUpWithPrimary();
+  }
+
+  @Test
+  void shouldCatchUpEachInterval() {
+    triggerNextCatchUp();
+    verify(database).catchUpWithPrimary();
+
+    triggerNextCatchUp();
+    verify(database, times(2)).catchUpWithPrimary();
+  }
+
+  @Test
+  void shouldNotCatchUpAfterStopped() {
+    triggerNextCatchUp();
+    assertThat(follower.stop()).isCompleted();
+
+    triggerNextCatchUp();
+    verify(database).catchUpWithPrimary();
+  }
+
+  @Test
+  void shouldIgnoreShutdown() {
+    doThrow(new ShuttingDownException()).when(database).catchUpWithPrimary();
+
+    triggerNextCatchUp();
+    triggerNextCatchUp();
+
+    verify(database, times(2)).catchUpWithPrimary();
+  }
+
+  private void triggerNextCatchUp() {
+    timeProvider.advanceTimeBy(CATCH_UP_INTERVAL);
+    asyncRunner.executeDueActions();
+  }
+}
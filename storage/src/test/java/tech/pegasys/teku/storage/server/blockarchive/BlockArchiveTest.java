@@ -0,0 +1,160 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.storage.server.blockarchive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+
+class BlockArchiveTest {
+  private static final int SLOTS_PER_SEGMENT = 16;
+
+  @TempDir Path directory;
+
+  private BlockArchive archive;
+
+  @AfterEach
+  void tearDown() {
+    if (archive != null) {
+      archive.close();
+    }
+  }
+
+  @Test
+  void get_shouldReturnCommittedValues() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(3, Bytes.of(1, 2, 3), 40, Bytes.of(4));
+
+    assertThat(archive.get(UInt64.valueOf(3))).contains(Bytes.of(1, 2, 3));
+    assertThat(archive.get(UInt64.valueOf(40))).contains(Bytes.of(4));
+    assertThat(archive.get(UInt64.valueOf(4))).isEmpty();
+    assertThat(archive.get(UInt64.valueOf(100))).isEmpty();
+  }
+
+  @Test
+  void get_shouldNotReturnUncommittedValues() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    final BlockArchive.Updater updater = archive.updater();
+    updater.put(UInt64.valueOf(3), Bytes.of(1));
+
+    assertThat(archive.get(UInt64.valueOf(3))).isEmpty();
+    updater.commit();
+    assertThat(archive.get(UInt64.valueOf(3))).contains(Bytes.of(1));
+  }
+
+  @Test
+  void get_shouldReturnLatestValueWhenSlotIsOverwritten() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(3, Bytes.of(1));
+    put(3, Bytes.of(2));
+
+    assertThat(archive.get(UInt64.valueOf(3))).contains(Bytes.of(2));
+  }
+
+  @Test
+  void open_shouldLoadExistingSegments() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(3, Bytes.of(1), 40, Bytes.of(2));
+    archive.close();
+
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    assertThat(archive.get(UInt64.valueOf(3))).contains(Bytes.of(1));
+    assertThat(archive.get(UInt64.valueOf(40))).contains(Bytes.of(2));
+    assertThat(BlockArchive.exists(directory)).isTrue();
+  }
+
+  @Test
+  void open_shouldRejectDifferentSegmentSize() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(3, Bytes.of(1));
+    archive.close();
+    archive = null;
+
+    assertThatThrownBy(() -> BlockArchive.open(directory, SLOTS_PER_SEGMENT * 2))
+        .isInstanceOf(DatabaseStorageException.class);
+  }
+
+  @Test
+  void getFirstEntry_shouldReturnLowestSlot() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    assertThat(archive.getFirstEntry()).isEmpty();
+
+    put(40, Bytes.of(2), 20, Bytes.of(1));
+
+    assertThat(archive.getFirstEntry()).contains(Map.entry(UInt64.valueOf(20), Bytes.of(1)));
+  }
+
+  @Test
+  void getFloorEntry_shouldSearchPreviousSegments() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(5, Bytes.of(1), 20, Bytes.of(2));
+
+    assertThat(archive.getFloorEntry(UInt64.valueOf(4))).isEmpty();
+    assertThat(archive.getFloorEntry(UInt64.valueOf(5)))
+        .contains(Map.entry(UInt64.valueOf(5), Bytes.of(1)));
+    assertThat(archive.getFloorEntry(UInt64.valueOf(19)))
+        .contains(Map.entry(UInt64.valueOf(5), Bytes.of(1)));
+    assertThat(archive.getFloorEntry(UInt64.valueOf(1000)))
+        .contains(Map.entry(UInt64.valueOf(20), Bytes.of(2)));
+  }
+
+  @Test
+  void stream_shouldReturnValuesInRangeInSlotOrder() {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(50, Bytes.of(4), 2, Bytes.of(1), 15, Bytes.of(2), 16, Bytes.of(3));
+
+    try (final Stream<Map.Entry<UInt64, Bytes>> stream =
+        archive.stream(UInt64.valueOf(2), UInt64.valueOf(49))) {
+      assertThat(stream.map(Map.Entry::getValue).collect(Collectors.toList()))
+          .containsExactly(Bytes.of(1), Bytes.of(2), Bytes.of(3));
+    }
+  }
+
+  @Test
+  void delete_shouldRemoveEmptySegments() throws IOException {
+    archive = BlockArchive.open(directory, SLOTS_PER_SEGMENT);
+    put(3, Bytes.of(1), 4, Bytes.of(2), 40, Bytes.of(3));
+
+    final BlockArchive.Updater updater = archive.updater();
+    updater.delete(UInt64.valueOf(3));
+    updater.delete(UInt64.valueOf(4));
+    updater.commit();
+
+    assertThat(archive.get(UInt64.valueOf(3))).isEmpty();
+    assertThat(archive.getFirstEntry()).contains(Map.entry(UInt64.valueOf(40), Bytes.of(3)));
+    try (final Stream<Path> files = Files.list(directory)) {
+      assertThat(files.map(file -> file.getFileName().toString()))
+          .containsExactlyInAnyOrder("0000000002.dat", "0000000002.idx");
+    }
+  }
+
+  private void put(final Object... slotsAndValues) {
+    final BlockArchive.Updater updater = archive.updater();
+    for (int i = 0; i < slotsAndValues.length; i += 2) {
+      updater.put(UInt64.valueOf((Integer) slotsAndValues[i]), (Bytes) slotsAndValues[i + 1]);
+    }
+    updater.commit();
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.hotlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.UINT64_SERIALIZER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.ShuttingDownException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+
+class HotLogKvStoreAccessorTest {
+  // Seven single entry commits fit in each segment
+  private static final long MAX_SEGMENT_BYTES = 1024;
+  private static final int ENTRIES_PER_SEGMENT = 7;
+
+  private static final KvStoreColumn<UInt64, Bytes> COLUMN =
+      KvStoreColumn.create(1, UINT64_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreColumn<UInt64, Bytes> OTHER_COLUMN =
+      KvStoreColumn.create(2, UINT64_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreVariable<UInt64> VARIABLE =
+      KvStoreVariable.create(1, UINT64_SERIALIZER);
+
+  @TempDir Path directory;
+
+  private HotLogKvStoreAccessor hotLog;
+
+  @AfterEach
+  void tearDown() {
+    if (hotLog != null) {
+      hotLog.close();
+    }
+  }
+
+  @Test
+  void get_shouldReturnCommittedValues() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    final KvStoreTransaction transaction = hotLog.startTransaction();
+    transaction.put(COLUMN, UInt64.ONE, value(1));
+    transaction.put(OTHER_COLUMN, UInt64.ONE, value(2));
+    transaction.put(VARIABLE, UInt64.valueOf(3));
+
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).isEmpty();
+    transaction.commit();
+
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).contains(value(1));
+    assertThat(hotLog.get(OTHER_COLUMN, UInt64.ONE)).contains(value(2));
+    assertThat(hotLog.get(VARIABLE)).contains(UInt64.valueOf(3));
+    assertThat(hotLog.get(COLUMN, UInt64.valueOf(2))).isEmpty();
+  }
+
+  @Test
+  void get_shouldReturnLatestValueWhenKeyIsOverwritten() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    put(1, value(1));
+    put(1, value(2));
+
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).contains(value(2));
+    assertThat(hotLog.size(COLUMN)).isEqualTo(1);
+  }
+
+  @Test
+  void delete_shouldRemoveValue() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    put(1, value(1));
+    delete(1);
+
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).isEmpty();
+    assertThat(hotLog.size(COLUMN)).isZero();
+  }
+
+  @Test
+  void stream_shouldReturnEntriesInKeyOrder() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    put(3, value(3));
+    put(1, value(1));
+    put(2, value(2));
+
+    try (final Stream<ColumnEntry<UInt64, Bytes>> entries =
+        hotLog.stream(COLUMN, UInt64.valueOf(2), UInt64.valueOf(3))) {
+      assertThat(entries.collect(Collectors.toList()))
+          .containsExactly(
+              ColumnEntry.create(UInt64.valueOf(2), value(2)),
+              ColumnEntry.create(UInt64.valueOf(3), value(3)));
+    }
+    assertThat(hotLog.getFirstEntry(COLUMN)).contains(ColumnEntry.create(UInt64.ONE, value(1)));
+    assertThat(hotLog.getLastKey(COLUMN)).contains(UInt64.valueOf(3));
+  }
+
+  @Test
+  void open_shouldReplayExistingSegments() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    for (int i = 0; i < ENTRIES_PER_SEGMENT * 2; i++) {
+      put(i, value(i));
+    }
+    put(0, value(100));
+    delete(1);
+    assertThat(hotLog.getSegmentCount()).isGreaterThan(1);
+    hotLog.close();
+
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(HotLogKvStoreAccessor.exists(directory)).isTrue();
+    assertThat(hotLog.get(COLUMN, UInt64.ZERO)).contains(value(100));
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).isEmpty();
+    assertThat(hotLog.size(COLUMN)).isEqualTo(ENTRIES_PER_SEGMENT * 2 - 1);
+  }
+
+  @Test
+  void open_shouldDiscardPartiallyWrittenFrame() throws IOException {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    put(1, value(1));
+    hotLog.close();
+    Files.write(lastSegmentFile(), new byte[] {0, 0, 1, 0, 5, 6}, StandardOpenOption.APPEND);
+
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).contains(value(1));
+
+    put(2, value(2));
+    hotLog.close();
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(hotLog.get(COLUMN, UInt64.valueOf(2))).contains(value(2));
+  }
+
+  @Test
+  void commit_shouldDeleteSegmentsOnceAllEntriesAreDeleted() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    for (int i = 0; i < ENTRIES_PER_SEGMENT * 3; i++) {
+      put(i, value(i));
+    }
+    final List<Path> initialSegments = segmentFiles();
+    assertThat(initialSegments).hasSize(3);
+
+    final KvStoreTransaction transaction = hotLog.startTransaction();
+    for (int i = 0; i < ENTRIES_PER_SEGMENT * 2; i++) {
+      transaction.delete(COLUMN, UInt64.valueOf(i));
+    }
+    transaction.commit();
+
+    assertThat(initialSegments.get(0)).doesNotExist();
+    assertThat(initialSegments.get(1)).doesNotExist();
+    assertThat(initialSegments.get(2)).exists();
+    hotLog.close();
+
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(hotLog.get(COLUMN, UInt64.ZERO)).isEmpty();
+    assertThat(hotLog.size(COLUMN)).isEqualTo(ENTRIES_PER_SEGMENT);
+  }
+
+  @Test
+  void commit_shouldKeepSegmentsWhichHideEarlierValues() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    for (int i = 0; i < ENTRIES_PER_SEGMENT * 2; i++) {
+      put(i, value(i));
+    }
+    // The second segment holds the only record that the first segment's entry was deleted so must
+    // outlive the first segment even once all of its own entries are deleted
+    delete(0);
+    final KvStoreTransaction transaction = hotLog.startTransaction();
+    for (int i = ENTRIES_PER_SEGMENT; i < ENTRIES_PER_SEGMENT * 2; i++) {
+      transaction.delete(COLUMN, UInt64.valueOf(i));
+    }
+    transaction.commit();
+    assertThat(hotLog.getSegmentCount()).isEqualTo(3);
+    hotLog.close();
+
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(hotLog.get(COLUMN, UInt64.ZERO)).isEmpty();
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).contains(value(1));
+    assertThat(hotLog.size(COLUMN)).isEqualTo(ENTRIES_PER_SEGMENT - 1);
+  }
+
+  @Test
+  void commit_shouldCopyLiveEntriesOutOfSparseSegments() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    for (int i = 0; i < ENTRIES_PER_SEGMENT * 2; i++) {
+      put(i, value(i));
+    }
+    final Path firstSegment = segmentFiles().get(0);
+
+    final KvStoreTransaction transaction = hotLog.startTransaction();
+    for (int i = 1; i < ENTRIES_PER_SEGMENT; i++) {
+      transaction.delete(COLUMN, UInt64.valueOf(i));
+    }
+    transaction.commit();
+
+    assertThat(firstSegment).doesNotExist();
+    assertThat(hotLog.get(COLUMN, UInt64.ZERO)).contains(value(0));
+    hotLog.close();
+
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    assertThat(hotLog.get(COLUMN, UInt64.ZERO)).contains(value(0));
+    assertThat(hotLog.get(COLUMN, UInt64.ONE)).isEmpty();
+    assertThat(hotLog.size(COLUMN)).isEqualTo(ENTRIES_PER_SEGMENT + 1);
+  }
+
+  @Test
+  void get_shouldThrowWhenClosed() {
+    hotLog = HotLogKvStoreAccessor.open(directory, MAX_SEGMENT_BYTES);
+    hotLog.close();
+
+    assertThatThrownBy(() -> hotLog.get(COLUMN, UInt64.ONE))
+        .isInstanceOf(ShuttingDownException.class);
+  }
+
+  private void put(final int key, final Bytes value) {
+    try (final KvStoreTransaction transaction = hotLog.startTransaction()) {
+      transaction.put(COLUMN, UInt64.valueOf(key), value);
+      transaction.commit();
+    }
+  }
+
+  private void delete(final int key) {
+    try (final KvStoreTransaction transaction = hotLog.startTransaction()) {
+      transaction.delete(COLUMN, UInt64.valueOf(key));
+      transaction.commit();
+    }
+  }
+
+  private static Bytes value(final int seed) {
+    return Bytes.concatenate(Bytes.ofUnsignedInt(seed), Bytes.wrap(new byte[96]));
+  }
+
+  private Path lastSegmentFile() {
+    final List<Path> files = segmentFiles();
+    return files.get(files.size() - 1);
+  }
+
+  private List<Path> segmentFiles() {
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files.sorted().collect(Collectors.toList());
+    } catch (final IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
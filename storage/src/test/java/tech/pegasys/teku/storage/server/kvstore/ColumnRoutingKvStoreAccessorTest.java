@@ -0,0 +1,92 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.UINT64_SERIALIZER;
+
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreVariable;
+
+class ColumnRoutingKvStoreAccessorTest {
+  private static final KvStoreColumn<UInt64, Bytes> MAIN_COLUMN =
+      KvStoreColumn.create(1, UINT64_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreColumn<UInt64, Bytes> ROUTED_COLUMN =
+      KvStoreColumn.create(2, UINT64_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreVariable<UInt64> VARIABLE =
+      KvStoreVariable.create(1, UINT64_SERIALIZER);
+
+  private final MockKvStoreInstance mainAccessor =
+      MockKvStoreInstance.createEmpty(List.of(MAIN_COLUMN, ROUTED_COLUMN), List.of(VARIABLE));
+  private final MockKvStoreInstance routedAccessor =
+      MockKvStoreInstance.createEmpty(List.of(MAIN_COLUMN, ROUTED_COLUMN), List.of(VARIABLE));
+  private final ColumnRoutingKvStoreAccessor accessor =
+      new ColumnRoutingKvStoreAccessor(mainAccessor, routedAccessor, List.of(ROUTED_COLUMN));
+
+  @Test
+  void shouldStoreRoutedColumnsInRoutedAccessor() {
+    try (final KvStoreTransaction transaction = accessor.startTransaction()) {
+      transaction.put(MAIN_COLUMN, UInt64.ONE, Bytes.of(1));
+      transaction.put(ROUTED_COLUMN, UInt64.ONE, Bytes.of(2));
+      transaction.put(VARIABLE, UInt64.valueOf(3));
+      transaction.commit();
+    }
+
+    assertThat(accessor.get(MAIN_COLUMN, UInt64.ONE)).contains(Bytes.of(1));
+    assertThat(accessor.get(ROUTED_COLUMN, UInt64.ONE)).contains(Bytes.of(2));
+    assertThat(accessor.get(VARIABLE)).contains(UInt64.valueOf(3));
+
+    assertThat(mainAccessor.get(MAIN_COLUMN, UInt64.ONE)).contains(Bytes.of(1));
+    assertThat(mainAccessor.get(ROUTED_COLUMN, UInt64.ONE)).isEmpty();
+    assertThat(mainAccessor.get(VARIABLE)).contains(UInt64.valueOf(3));
+    assertThat(routedAccessor.get(ROUTED_COLUMN, UInt64.ONE)).contains(Bytes.of(2));
+    assertThat(routedAccessor.get(MAIN_COLUMN, UInt64.ONE)).isEmpty();
+  }
+
+  @Test
+  void shouldApplyLastUpdateToRoutedKeyInTransaction() {
+    try (final KvStoreTransaction transaction = accessor.startTransaction()) {
+      transaction.put(ROUTED_COLUMN, UInt64.ONE, Bytes.of(1));
+      transaction.put(ROUTED_COLUMN, UInt64.valueOf(2), Bytes.of(2));
+      transaction.commit();
+    }
+
+    try (final KvStoreTransaction transaction = accessor.startTransaction()) {
+      transaction.delete(ROUTED_COLUMN, UInt64.ONE);
+      transaction.put(ROUTED_COLUMN, UInt64.ONE, Bytes.of(3));
+      transaction.put(ROUTED_COLUMN, UInt64.valueOf(2), Bytes.of(4));
+      transaction.delete(ROUTED_COLUMN, UInt64.valueOf(2));
+      transaction.commit();
+    }
+
+    assertThat(accessor.get(ROUTED_COLUMN, UInt64.ONE)).contains(Bytes.of(3));
+    assertThat(accessor.get(ROUTED_COLUMN, UInt64.valueOf(2))).isEmpty();
+  }
+
+  @Test
+  void shouldDiscardRoutedUpdatesOnRollback() {
+    try (final KvStoreTransaction transaction = accessor.startTransaction()) {
+      transaction.put(ROUTED_COLUMN, UInt64.ONE, Bytes.of(1));
+      transaction.rollback();
+    }
+
+    assertThat(accessor.get(ROUTED_COLUMN, UInt64.ONE)).isEmpty();
+  }
+}
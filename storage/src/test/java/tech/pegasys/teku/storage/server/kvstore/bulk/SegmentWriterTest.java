@@ -0,0 +1,104 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.bulk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+
+class SegmentWriterTest {
+  @TempDir Path directory;
+
+  @Test
+  void shouldReadBackWrittenEntriesInOrder() throws Exception {
+    final List<ColumnEntry<Bytes, Bytes>> entries = createEntries(10);
+    write("BLOCKS", entries, SegmentWriter.DEFAULT_MAX_SEGMENT_BYTES);
+
+    assertThat(read("BLOCKS")).isEqualTo(entries);
+  }
+
+  @Test
+  void shouldSplitEntriesAcrossSegments() throws Exception {
+    final List<ColumnEntry<Bytes, Bytes>> entries = createEntries(25);
+    write("BLOCKS", entries, 100);
+
+    assertThat(Segments.listFiles(directory, "BLOCKS")).hasSizeGreaterThan(1);
+    assertThat(read("BLOCKS")).isEqualTo(entries);
+  }
+
+  @Test
+  void shouldSupportEmptyValues() throws Exception {
+    final List<ColumnEntry<Bytes, Bytes>> entries =
+        List.of(ColumnEntry.create(Bytes.of(1), Bytes.EMPTY));
+    write("UNCONFIRMED", entries, SegmentWriter.DEFAULT_MAX_SEGMENT_BYTES);
+
+    assertThat(read("UNCONFIRMED")).isEqualTo(entries);
+  }
+
+  @Test
+  void shouldListNamesOfWrittenSegments() throws Exception {
+    write("BLOCKS", createEntries(2), SegmentWriter.DEFAULT_MAX_SEGMENT_BYTES);
+    write("STATES", createEntries(2), SegmentWriter.DEFAULT_MAX_SEGMENT_BYTES);
+    // Nothing is written until there is an entry
+    write("EMPTY", List.of(), SegmentWriter.DEFAULT_MAX_SEGMENT_BYTES);
+    Files.writeString(directory.resolve("README"), "Not a segment");
+
+    assertThat(Segments.listNames(directory)).containsExactlyInAnyOrder("BLOCKS", "STATES");
+    assertThat(read("EMPTY")).isEmpty();
+  }
+
+  @Test
+  void shouldRejectFilesWhichAreNotSegments() throws Exception {
+    Files.write(directory.resolve(Segments.getFileName("BLOCKS", 0)), new byte[] {1, 2, 3});
+
+    assertThatThrownBy(() -> read("BLOCKS")).isInstanceOf(DatabaseStorageException.class);
+  }
+
+  private void write(
+      final String name, final List<ColumnEntry<Bytes, Bytes>> entries, final long maxBytes)
+      throws IOException {
+    try (final SegmentWriter writer = new SegmentWriter(directory, name, maxBytes)) {
+      for (ColumnEntry<Bytes, Bytes> entry : entries) {
+        writer.write(entry);
+      }
+      assertThat(writer.getEntryCount()).isEqualTo(entries.size());
+    }
+  }
+
+  private List<ColumnEntry<Bytes, Bytes>> read(final String name) throws IOException {
+    final List<ColumnEntry<Bytes, Bytes>> entries = new ArrayList<>();
+    try (final SegmentReader reader = SegmentReader.open(directory, name)) {
+      reader.forEachRemaining(entries::add);
+    }
+    return entries;
+  }
+
+  private List<ColumnEntry<Bytes, Bytes>> createEntries(final int count) {
+    final List<ColumnEntry<Bytes, Bytes>> entries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      entries.add(ColumnEntry.create(Bytes.ofUnsignedInt(i), Bytes.random(i * 3 + 1)));
+    }
+    return entries;
+  }
+}
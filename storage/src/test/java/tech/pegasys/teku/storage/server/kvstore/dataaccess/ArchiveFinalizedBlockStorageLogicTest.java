@@ -0,0 +1,144 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.SignedBeaconBlock;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+import tech.pegasys.teku.storage.server.blockarchive.BlockArchive;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.MockKvStoreInstance;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.CombinedKvStoreDao.V4CombinedUpdater;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.FinalizedBlockStorageLogic.FinalizedBlockUpdater;
+import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateStorageLogic.FinalizedStateUpdater;
+import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
+
+class ArchiveFinalizedBlockStorageLogicTest {
+  private final Spec spec = TestSpecFactory.createDefault();
+  private final DataStructureUtil dataStructureUtil = new DataStructureUtil(spec);
+  private final V6SchemaCombinedSnapshot schema = V6SchemaCombinedSnapshot.createV6(spec);
+  private final MockKvStoreInstance db =
+      MockKvStoreInstance.createEmpty(schema.getAllColumns(), schema.getAllVariables());
+
+  @TempDir Path directory;
+
+  private ArchiveFinalizedBlockStorageLogic<V6SchemaCombinedSnapshot> logic;
+
+  @BeforeEach
+  void setUp() {
+    logic = new ArchiveFinalizedBlockStorageLogic<>(BlockArchive.open(directory, 8));
+  }
+
+  @AfterEach
+  void tearDown() {
+    logic.close();
+  }
+
+  @Test
+  void updater_shouldStoreBlocksInArchiveOnly() {
+    final SignedBeaconBlock block1 = dataStructureUtil.randomSignedBeaconBlock(3);
+    final SignedBeaconBlock block2 = dataStructureUtil.randomSignedBeaconBlock(20);
+
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      final FinalizedBlockUpdater<V6SchemaCombinedSnapshot> updater = logic.updater();
+      updater.addFinalizedBlock(transaction, schema, block1);
+      updater.addFinalizedBlock(transaction, schema, block2);
+      updater.commitAdditions();
+      transaction.commit();
+      updater.commitDeletions();
+    }
+
+    assertThat(db.size(schema.getColumnFinalizedBlocksBySlot())).isZero();
+    assertThat(logic.getFinalizedBlockAtSlot(db, schema, UInt64.valueOf(3))).contains(block1);
+    assertThat(logic.getEarliestFinalizedBlock(db, schema)).contains(block1);
+    assertThat(logic.getLatestFinalizedBlockAtSlot(db, schema, UInt64.valueOf(19)))
+        .contains(block1);
+    try (final Stream<SignedBeaconBlock> blocks =
+        logic.streamFinalizedBlocks(db, schema, UInt64.ZERO, UInt64.valueOf(100))) {
+      assertThat(blocks.collect(Collectors.toList())).containsExactly(block1, block2);
+    }
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "MustBeClosedChecker"})
+  void combinedUpdater_shouldKeepPrunedBlocksWhenDatabaseCommitFails() {
+    final SignedBeaconBlock prunedBlock = dataStructureUtil.randomSignedBeaconBlock(3);
+    final SignedBeaconBlock newBlock = dataStructureUtil.randomSignedBeaconBlock(20);
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      final FinalizedBlockUpdater<V6SchemaCombinedSnapshot> updater = logic.updater();
+      updater.addFinalizedBlock(transaction, schema, prunedBlock);
+      updater.commitAdditions();
+      transaction.commit();
+      updater.commitDeletions();
+    }
+
+    final KvStoreAccessor failingDb = mock(KvStoreAccessor.class);
+    final KvStoreTransaction failingTransaction = mock(KvStoreTransaction.class);
+    when(failingDb.startTransaction()).thenReturn(failingTransaction);
+    doThrow(new IllegalStateException("Commit failed")).when(failingTransaction).commit();
+
+    final V4CombinedUpdater<V6SchemaCombinedSnapshot> combinedUpdater =
+        new V4CombinedUpdater<>(
+            failingDb,
+            schema,
+            mock(FinalizedStateUpdater.class),
+            logic.updater(),
+            new HotStateStorageLogic<V6SchemaCombinedSnapshot>().updater());
+    combinedUpdater.deleteFinalizedBlock(prunedBlock.getSlot(), prunedBlock.getRoot());
+    combinedUpdater.addFinalizedBlock(newBlock);
+    assertThatThrownBy(combinedUpdater::commit).isInstanceOf(IllegalStateException.class);
+
+    assertThat(logic.getFinalizedBlockAtSlot(db, schema, prunedBlock.getSlot()))
+        .contains(prunedBlock);
+  }
+
+  @Test
+  void migrateFromColumn_shouldMoveAllBlocksToArchive() {
+    final List<SignedBeaconBlock> blocks =
+        Stream.iterate(0, i -> i + 1)
+            .limit(ArchiveFinalizedBlockStorageLogic.MIGRATION_BATCH_SIZE + 10)
+            .map(i -> dataStructureUtil.randomSignedBeaconBlock(i * 3L))
+            .collect(Collectors.toList());
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      blocks.forEach(
+          block ->
+              transaction.put(schema.getColumnFinalizedBlocksBySlot(), block.getSlot(), block));
+      transaction.commit();
+    }
+
+    logic.migrateFromColumn(db, schema);
+
+    assertThat(db.size(schema.getColumnFinalizedBlocksBySlot())).isZero();
+    try (final Stream<SignedBeaconBlock> migratedBlocks =
+        logic.streamFinalizedBlocks(db, schema, UInt64.ZERO, UInt64.MAX_VALUE)) {
+      assertThat(migratedBlocks.collect(Collectors.toList())).isEqualTo(blocks);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+
+class FinalizedStateDiffTest {
+  private static final UInt64 BASE_SLOT = UInt64.valueOf(64);
+
+  @Test
+  void shouldRoundTripIdenticalValues() {
+    final Bytes base = Bytes.fromHexString("0x0102030405060708");
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, base);
+
+    assertThat(diff.size()).isEqualTo(12);
+    assertThat(FinalizedStateDiff.apply(base, diff)).isEqualTo(base);
+  }
+
+  @Test
+  void shouldRoundTripChangedBytes() {
+    final Bytes base = Bytes.repeat((byte) 1, 100);
+    final Bytes target =
+        Bytes.concatenate(
+            Bytes.repeat((byte) 1, 10),
+            Bytes.fromHexString("0xaabb"),
+            Bytes.repeat((byte) 1, 50),
+            Bytes.fromHexString("0xcc"),
+            Bytes.repeat((byte) 1, 37));
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, target);
+
+    assertThat(FinalizedStateDiff.apply(base, diff)).isEqualTo(target);
+    // Two separate runs
+    assertThat(diff.size()).isEqualTo(12 + 8 + 2 + 8 + 1);
+  }
+
+  @Test
+  void shouldMergeRunsSeparatedBySmallGaps() {
+    final Bytes base = Bytes.repeat((byte) 1, 20);
+    final Bytes target = Bytes.fromHexString("0x01ff010101ff01010101010101010101010101ff");
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, target);
+
+    assertThat(FinalizedStateDiff.apply(base, diff)).isEqualTo(target);
+    // Merged run covering offsets 1 to 5, then a separate run at 19
+    assertThat(diff.size()).isEqualTo(12 + 8 + 5 + 8 + 1);
+  }
+
+  @Test
+  void shouldRoundTripLongerTarget() {
+    final Bytes base = Bytes.fromHexString("0x01020304");
+    final Bytes target = Bytes.fromHexString("0x0102030405060708");
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, target);
+
+    assertThat(FinalizedStateDiff.apply(base, diff)).isEqualTo(target);
+  }
+
+  @Test
+  void shouldRoundTripShorterTarget() {
+    final Bytes base = Bytes.fromHexString("0x0102030405060708");
+    final Bytes target = Bytes.fromHexString("0x010203ff");
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, target);
+
+    assertThat(FinalizedStateDiff.apply(base, diff)).isEqualTo(target);
+  }
+
+  @Test
+  void shouldRoundTripEmptyBase() {
+    final Bytes target = Bytes.fromHexString("0x0102030405060708");
+
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, Bytes.EMPTY, target);
+
+    assertThat(FinalizedStateDiff.apply(Bytes.EMPTY, diff)).isEqualTo(target);
+  }
+
+  @Test
+  void shouldStoreBaseSlot() {
+    final Bytes diff =
+        FinalizedStateDiff.create(BASE_SLOT, Bytes.fromHexString("0x01"), Bytes.EMPTY);
+
+    assertThat(FinalizedStateDiff.getBaseSlot(diff)).isEqualTo(BASE_SLOT);
+  }
+
+  @Test
+  void shouldRejectRunsBeyondTargetLength() {
+    final Bytes diff = Bytes.fromHexString("0x0000000000000040000000020000000100000002aabb");
+
+    assertThatThrownBy(() -> FinalizedStateDiff.apply(Bytes.fromHexString("0x0102"), diff))
+        .isInstanceOf(DatabaseStorageException.class);
+  }
+
+  @Test
+  void shouldRejectTruncatedHeader() {
+    final Bytes diff = Bytes.fromHexString("0x00000000000000400000");
+
+    assertThatThrownBy(() -> FinalizedStateDiff.getBaseSlot(diff))
+        .isInstanceOf(DatabaseStorageException.class);
+    assertThatThrownBy(() -> FinalizedStateDiff.apply(Bytes.fromHexString("0x0102"), diff))
+        .isInstanceOf(DatabaseStorageException.class);
+  }
+
+  @Test
+  void shouldRejectTruncatedRunHeader() {
+    final Bytes diff = Bytes.fromHexString("0x00000000000000400000000200000000");
+
+    assertThatThrownBy(() -> FinalizedStateDiff.apply(Bytes.fromHexString("0x0102"), diff))
+        .isInstanceOf(DatabaseStorageException.class);
+  }
+
+  @Test
+  void shouldRejectTruncatedRunData() {
+    final Bytes base = Bytes.repeat((byte) 1, 100);
+    final Bytes target = Bytes.concatenate(Bytes.repeat((byte) 1, 10), Bytes.repeat((byte) 2, 20));
+    final Bytes diff = FinalizedStateDiff.create(BASE_SLOT, base, target);
+    final Bytes truncated = diff.slice(0, diff.size() - 5);
+
+    assertThatThrownBy(() -> FinalizedStateDiff.apply(base, truncated))
+        .isInstanceOf(DatabaseStorageException.class);
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.dataaccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.ssz.tree.TreeDiff;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.state.beaconstate.BeaconState;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.MockKvStoreInstance;
+import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
+
+class HotStateStorageLogicTest {
+  private final Spec spec = TestSpecFactory.createMinimalAltair();
+  private final DataStructureUtil dataStructureUtil = new DataStructureUtil(spec);
+  private final V6SchemaCombinedSnapshot schema = V6SchemaCombinedSnapshot.createV6(spec);
+  private final MockKvStoreInstance db =
+      MockKvStoreInstance.createEmpty(schema.getAllColumns(), schema.getAllVariables());
+
+  private final HotStateStorageLogic<V6SchemaCombinedSnapshot> logic =
+      new HotStateStorageLogic<>();
+
+  private final Bytes32 blockRoot1 = dataStructureUtil.randomBytes32();
+  private final Bytes32 blockRoot2 = dataStructureUtil.randomBytes32();
+
+  @Test
+  void updater_shouldStoreStateAsDiffAgainstLatestFinalizedState() throws Exception {
+    final BeaconState finalizedState = dataStructureUtil.randomBeaconState(64);
+    final BeaconState state = processToNextEpoch(finalizedState);
+
+    update(finalizedState, updater -> updater.addHotState(blockRoot1, state));
+
+    assertThat(db.size(schema.getColumnHotStatesByRoot())).isZero();
+    final Bytes diff = db.get(schema.getColumnHotStateDiffsByRoot(), blockRoot1).orElseThrow();
+    assertThat(diff.size()).isLessThan(state.sszSerialize().size());
+    assertThat(TreeDiff.deserialize(diff).getBaseRoot()).isEqualTo(finalizedState.hashTreeRoot());
+
+    assertStateRoundtrips(blockRoot1, state);
+  }
+
+  @Test
+  void updater_shouldStoreFullStateWhenNoFinalizedStateIsStored() throws Exception {
+    final BeaconState state = processToNextEpoch(dataStructureUtil.randomBeaconState(64));
+
+    update(updater -> updater.addHotState(blockRoot1, state));
+
+    assertThat(db.size(schema.getColumnHotStateDiffsByRoot())).isZero();
+    assertThat(db.get(schema.getColumnHotStatesByRoot(), blockRoot1)).contains(state);
+    assertStateRoundtrips(blockRoot1, state);
+  }
+
+  @Test
+  void updater_shouldStoreFullStateWhenSchemaDiffersFromFinalizedState() {
+    final BeaconState finalizedState = dataStructureUtil.randomBeaconState(64);
+    final BeaconState phase0State =
+        new DataStructureUtil(TestSpecFactory.createMinimalPhase0()).randomBeaconState(64);
+
+    update(finalizedState, updater -> updater.addHotState(blockRoot1, phase0State));
+
+    assertThat(db.size(schema.getColumnHotStateDiffsByRoot())).isZero();
+    assertThat(db.size(schema.getColumnHotStatesByRoot())).isEqualTo(1);
+  }
+
+  @Test
+  void updater_shouldRebaseStoredDiffsWhenLatestFinalizedStateChanges() throws Exception {
+    final BeaconState finalizedState = dataStructureUtil.randomBeaconState(64);
+    final BeaconState state1 = processToNextEpoch(finalizedState);
+    final BeaconState state2 = processToNextEpoch(state1);
+    update(
+        finalizedState,
+        updater -> {
+          updater.addHotState(blockRoot1, state1);
+          updater.addHotState(blockRoot2, state2);
+        });
+
+    update(state1, updater -> updater.deleteHotState(blockRoot1));
+
+    assertThat(db.get(schema.getColumnHotStateDiffsByRoot(), blockRoot1)).isEmpty();
+    final Bytes diff = db.get(schema.getColumnHotStateDiffsByRoot(), blockRoot2).orElseThrow();
+    assertThat(TreeDiff.deserialize(diff).getBaseRoot()).isEqualTo(state1.hashTreeRoot());
+    assertThat(logic.getHotState(db, schema, blockRoot1)).isEmpty();
+    assertStateRoundtrips(blockRoot2, state2);
+  }
+
+  @Test
+  void updater_shouldDeleteFullStatesAndDiffs() throws Exception {
+    final BeaconState state1 = processToNextEpoch(dataStructureUtil.randomBeaconState(64));
+    final BeaconState state2 = processToNextEpoch(state1);
+    update(updater -> updater.addHotState(blockRoot1, state1));
+    update(state1, updater -> updater.addHotState(blockRoot2, state2));
+
+    update(
+        updater -> {
+          updater.deleteHotState(blockRoot1);
+          updater.deleteHotState(blockRoot2);
+        });
+
+    assertThat(db.size(schema.getColumnHotStatesByRoot())).isZero();
+    assertThat(db.size(schema.getColumnHotStateDiffsByRoot())).isZero();
+  }
+
+  @Test
+  void getHotState_shouldReadFullStatesStoredBeforeDiffs() {
+    final BeaconState state = dataStructureUtil.randomBeaconState(64);
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.put(schema.getColumnHotStatesByRoot(), blockRoot1, state);
+      transaction.commit();
+    }
+
+    assertThat(logic.getHotState(db, schema, blockRoot1)).contains(state);
+  }
+
+  private void assertStateRoundtrips(final Bytes32 blockRoot, final BeaconState expected) {
+    assertThat(logic.getHotState(db, schema, blockRoot)).contains(expected);
+    // And without the finalized state cached
+    final BeaconState loadedState =
+        new HotStateStorageLogic<V6SchemaCombinedSnapshot>()
+            .getHotState(db, schema, blockRoot)
+            .orElseThrow();
+    assertThat(loadedState.hashTreeRoot()).isEqualTo(expected.hashTreeRoot());
+    assertThat(loadedState.sszSerialize()).isEqualTo(expected.sszSerialize());
+  }
+
+  private BeaconState processToNextEpoch(final BeaconState state) throws Exception {
+    final UInt64 nextEpochSlot =
+        spec.computeStartSlotAtEpoch(spec.computeEpochAtSlot(state.getSlot()).plus(1));
+    return spec.processSlots(state, nextEpochSlot);
+  }
+
+  private void update(
+      final Consumer<HotStateStorageLogic<V6SchemaCombinedSnapshot>.HotStateUpdater> changes) {
+    update(Optional.empty(), changes);
+  }
+
+  private void update(
+      final BeaconState latestFinalizedState,
+      final Consumer<HotStateStorageLogic<V6SchemaCombinedSnapshot>.HotStateUpdater> changes) {
+    update(Optional.of(latestFinalizedState), changes);
+  }
+
+  // Mirrors the order of the combined updater: the finalized state is only visible once committed
+  private void update(
+      final Optional<BeaconState> latestFinalizedState,
+      final Consumer<HotStateStorageLogic<V6SchemaCombinedSnapshot>.HotStateUpdater> changes) {
+    final HotStateStorageLogic<V6SchemaCombinedSnapshot>.HotStateUpdater updater =
+        logic.updater();
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      latestFinalizedState.ifPresent(
+          state -> {
+            transaction.put(schema.getVariableLatestFinalizedState(), state);
+            updater.setLatestFinalizedState(state);
+          });
+      changes.accept(updater);
+      updater.writeChanges(db, transaction, schema);
+      transaction.commit();
+    }
+    updater.commit();
+  }
+}
@@ -53,6 +53,19 @@ class KvStoreTreeNodeSourceTest {
     assertThat(nodeSource.loadBranchNode(root, 4298)).isEqualTo(branchInfo);
   }
 
+  @Test
+  void loadBranchNode_shouldShareChildHashesBetweenLoads() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    storeBranch(root, 1, dataStructureUtil.randomBytes32(), dataStructureUtil.randomBytes32());
+
+    final CompressedBranchInfo branch1 = nodeSource.loadBranchNode(root, 4298);
+    final CompressedBranchInfo branch2 = nodeSource.loadBranchNode(root, 4298);
+
+    assertThat(branch2).isEqualTo(branch1);
+    assertThat(branch2.getChildren()[0]).isSameAs(branch1.getChildren()[0]);
+    assertThat(branch2.getChildren()[1]).isSameAs(branch1.getChildren()[1]);
+  }
+
   @Test
   void loadBranchNode_shouldThrowExceptionWhenBranchIsUnknown() {
     assertThatThrownBy(
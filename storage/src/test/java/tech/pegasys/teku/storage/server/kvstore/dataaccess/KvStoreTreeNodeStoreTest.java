@@ -14,33 +14,27 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoInteractions;
+import static org.assertj.core.api.Assertions.entry;
 
 import java.util.HashSet;
 import java.util.Set;
 import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.ssz.tree.LeafNode;
 import tech.pegasys.teku.infrastructure.ssz.tree.TreeNodeSource.CompressedBranchInfo;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
 import tech.pegasys.teku.spec.util.DataStructureUtil;
-import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
-import tech.pegasys.teku.storage.server.kvstore.schema.SchemaCombinedTreeState;
-import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedTreeState;
 
 class KvStoreTreeNodeStoreTest {
 
   private final Spec spec = TestSpecFactory.createDefault();
   private final DataStructureUtil dataStructureUtil = new DataStructureUtil(spec);
   private final Set<Bytes32> knownBranchCache = new HashSet<>();
-  private final KvStoreTransaction transaction = mock(KvStoreTransaction.class);
-  private final SchemaCombinedTreeState schema = new V6SchemaCombinedTreeState(spec);
+  private final Set<Bytes32> storedBranches = new HashSet<>();
 
   private final KvStoreTreeNodeStore store =
-      new KvStoreTreeNodeStore(knownBranchCache, transaction, schema);
+      new KvStoreTreeNodeStore(knownBranchCache, storedBranches::contains);
 
   @Test
   void canSkipBranch_shouldSkipBranchWhenInKnownBranchCache() {
@@ -63,6 +57,16 @@ class KvStoreTreeNodeStoreTest {
     assertThat(store.getStoredLeafNodeCount()).isZero();
   }
 
+  @Test
+  void canSkipBranch_shouldSkipBranchWhenAlreadyStoredAndAddToKnownBranchCache() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    storedBranches.add(root);
+
+    assertThat(store.canSkipBranch(root, 3)).isTrue();
+    assertThat(store.getSkippedBranchNodeCount()).isEqualTo(1);
+    assertThat(knownBranchCache).containsExactly(root);
+  }
+
   @Test
   void canSkipBranch_shouldSkipBranchWhenNewlyStored() {
     final Bytes32 root = dataStructureUtil.randomBytes32();
@@ -84,11 +88,8 @@ class KvStoreTreeNodeStoreTest {
 
     store.storeBranchNode(root, 5, depth, children);
 
-    verify(transaction)
-        .put(
-            schema.getColumnFinalizedStateMerkleTreeBranches(),
-            root,
-            new CompressedBranchInfo(depth, children));
+    assertThat(store.getNewBranches())
+        .containsExactly(entry(root, new CompressedBranchInfo(depth, children)));
     assertThat(store.getStoredBranchNodeCount()).isEqualTo(1);
     assertThat(store.getStoredBranchRoots()).containsExactlyInAnyOrder(root);
   }
@@ -104,11 +105,8 @@ class KvStoreTreeNodeStoreTest {
     store.storeBranchNode(root, 5, depth, children);
     store.storeBranchNode(root, 5, depth, children);
 
-    verify(transaction, times(1))
-        .put(
-            schema.getColumnFinalizedStateMerkleTreeBranches(),
-            root,
-            new CompressedBranchInfo(depth, children));
+    assertThat(store.getNewBranches())
+        .containsExactly(entry(root, new CompressedBranchInfo(depth, children)));
 
     assertThat(store.getStoredBranchNodeCount()).isEqualTo(1);
   }
@@ -124,7 +122,18 @@ class KvStoreTreeNodeStoreTest {
         2,
         new Bytes32[] {dataStructureUtil.randomBytes32(), dataStructureUtil.randomBytes32()});
 
-    verifyNoInteractions(transaction);
+    assertThat(store.getNewBranches()).isEmpty();
+    assertThat(store.getStoredBranchNodeCount()).isZero();
+  }
+
+  @Test
+  void storeBranchNode_shouldNotStoreBranchWhenAlreadyStored() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    storedBranches.add(root);
+
+    store.storeBranchNode(root, 5, 1, new Bytes32[] {dataStructureUtil.randomBytes32()});
+
+    assertThat(store.getNewBranches()).isEmpty();
     assertThat(store.getStoredBranchNodeCount()).isZero();
   }
 
@@ -147,4 +156,12 @@ class KvStoreTreeNodeStoreTest {
     assertThat(store.getStoredBranchNodeCount()).isEqualTo(3);
     assertThat(store.getStoredBranchRoots()).containsExactlyInAnyOrder(root1, root2, root3);
   }
+
+  @Test
+  void storeLeafNode_shouldNotStoreLeafHeldInline() {
+    store.storeLeafNode(LeafNode.create(dataStructureUtil.randomBytes32()), 5);
+
+    assertThat(store.getNewLeaves()).isEmpty();
+    assertThat(store.getStoredLeafNodeCount()).isZero();
+  }
 }
@@ -20,8 +20,13 @@ import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -30,7 +35,9 @@ import tech.pegasys.teku.spec.util.DataStructureUtil;
 import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.MockKvStoreInstance;
 import tech.pegasys.teku.storage.server.kvstore.dataaccess.V4FinalizedStateStorageLogic.FinalizedStateUpdater;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
 import tech.pegasys.teku.storage.server.kvstore.schema.SchemaFinalizedSnapshotStateAdapter;
 import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
 
@@ -49,6 +56,16 @@ class V4FinalizedStateSnapshotStorageLogicTest {
   private final V4FinalizedStateSnapshotStorageLogic<SchemaFinalizedSnapshotStateAdapter> logic =
       new V4FinalizedStateSnapshotStorageLogic<>(STATE_STORAGE_FREQUENCY);
 
+  private static final int STATE_DIFF_FREQUENCY = 10;
+  private final MockKvStoreInstance tieredDb =
+      MockKvStoreInstance.createEmpty(schema.getAllColumns(), schema.getAllVariables());
+  private final V4FinalizedStateSnapshotStorageLogic<SchemaFinalizedSnapshotStateAdapter>
+      tieredLogic =
+          new V4FinalizedStateSnapshotStorageLogic<>(
+              new StubMetricsSystem(),
+              STATE_STORAGE_FREQUENCY,
+              Optional.of(UInt64.valueOf(STATE_DIFF_FREQUENCY)));
+
   @Test
   void getLatestAvailableFinalizedState_shouldGetFloorEntry() {
     final UInt64 maxSlot = UInt64.valueOf(2038);
@@ -161,4 +178,206 @@ class V4FinalizedStateSnapshotStorageLogicTest {
     updater.addFinalizedState(db, invalidTransaction, schema, invalidFinalizedState);
     verifyNoInteractions(invalidTransaction);
   }
+
+  @Test
+  void tiered_shouldStoreDiffsBetweenSnapshots() {
+    final BeaconState snapshot = dataStructureUtil.randomBeaconState(UInt64.valueOf(100));
+    final BeaconState tooSoon = dataStructureUtil.randomBeaconState(UInt64.valueOf(105));
+    final BeaconState diffState = dataStructureUtil.randomBeaconState(UInt64.valueOf(110));
+
+    storeFinalizedStates(snapshot, tooSoon, diffState);
+
+    assertThat(tieredDb.get(schema.getColumnFinalizedStatesBySlot(), snapshot.getSlot()))
+        .contains(snapshot);
+    assertThat(tieredDb.get(schema.getColumnFinalizedStateDiffsBySlot(), tooSoon.getSlot()))
+        .isEmpty();
+    assertThat(tieredDb.get(schema.getColumnFinalizedStateDiffsBySlot(), diffState.getSlot()))
+        .isPresent();
+  }
+
+  @Test
+  void tiered_shouldLoadStateFromClosestDiff() {
+    final BeaconState snapshot = dataStructureUtil.randomBeaconState(UInt64.valueOf(100));
+    final BeaconState diffState1 = dataStructureUtil.randomBeaconState(UInt64.valueOf(110));
+    final BeaconState diffState2 = dataStructureUtil.randomBeaconState(UInt64.valueOf(120));
+    storeFinalizedStates(snapshot, diffState1, diffState2);
+
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(99)))
+        .isEmpty();
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(109)))
+        .contains(snapshot);
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(115)))
+        .contains(diffState1);
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(500)))
+        .contains(diffState2);
+  }
+
+  @Test
+  void tiered_shouldPreferSnapshotAfterLastDiff() {
+    final BeaconState snapshot1 = dataStructureUtil.randomBeaconState(UInt64.valueOf(100));
+    final BeaconState diffState = dataStructureUtil.randomBeaconState(UInt64.valueOf(190));
+    final BeaconState snapshot2 = dataStructureUtil.randomBeaconState(UInt64.valueOf(200));
+    storeFinalizedStates(snapshot1, diffState, snapshot2);
+
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(205)))
+        .contains(snapshot2);
+    assertThat(tieredDb.get(schema.getColumnFinalizedStateDiffsBySlot(), snapshot2.getSlot()))
+        .isEmpty();
+  }
+
+  @Test
+  void tiered_shouldMoveOlderSnapshotsToColdTier() {
+    final int stateCount = V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT + 2;
+    final BeaconState[] states =
+        IntStream.range(0, stateCount)
+            .mapToObj(i -> dataStructureUtil.randomBeaconState(UInt64.valueOf(i * 100L)))
+            .toArray(BeaconState[]::new);
+    storeFinalizedStates(states);
+
+    final FinalizedStateUpdater<SchemaFinalizedSnapshotStateAdapter> updater =
+        tieredLogic.updater();
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    assertThat(updater.retierFinalizedStates(tieredDb, transaction, schema, 10)).isEqualTo(2);
+    transaction.commit();
+
+    assertThat(getKeys(schema.getColumnColdFinalizedStatesBySlot()))
+        .containsExactly(UInt64.ZERO, UInt64.valueOf(100));
+    assertThat(getKeys(schema.getColumnFinalizedStatesBySlot()))
+        .hasSize(V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT);
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(150)))
+        .contains(states[1]);
+  }
+
+  @Test
+  void tiered_shouldLimitStatesMovedToColdTier() {
+    final int stateCount = V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT + 2;
+    storeFinalizedStates(
+        IntStream.range(0, stateCount)
+            .mapToObj(i -> dataStructureUtil.randomBeaconState(UInt64.valueOf(i * 100L)))
+            .toArray(BeaconState[]::new));
+
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    assertThat(tieredLogic.updater().retierFinalizedStates(tieredDb, transaction, schema, 1))
+        .isEqualTo(1);
+    transaction.commit();
+
+    assertThat(getKeys(schema.getColumnColdFinalizedStatesBySlot())).containsExactly(UInt64.ZERO);
+  }
+
+  @Test
+  void tiered_shouldLoadDiffWhenBaseIsInColdTier() {
+    final BeaconState snapshot = dataStructureUtil.randomBeaconState(UInt64.valueOf(0));
+    final BeaconState diffState = dataStructureUtil.randomBeaconState(UInt64.valueOf(10));
+    storeFinalizedStates(snapshot, diffState);
+    // Fill the hot tier so the first snapshot is moved
+    storeFinalizedStates(
+        IntStream.rangeClosed(1, V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT)
+            .mapToObj(i -> dataStructureUtil.randomBeaconState(UInt64.valueOf(i * 100L)))
+            .toArray(BeaconState[]::new));
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    tieredLogic.updater().retierFinalizedStates(tieredDb, transaction, schema, 10);
+    transaction.commit();
+
+    assertThat(getKeys(schema.getColumnColdFinalizedStatesBySlot())).containsExactly(UInt64.ZERO);
+    assertThat(tieredLogic.getLatestAvailableFinalizedState(tieredDb, schema, UInt64.valueOf(50)))
+        .contains(diffState);
+  }
+
+  @Test
+  void tiered_shouldStreamSlotsFromAllSnapshotTiers() {
+    final int stateCount = V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT + 1;
+    storeFinalizedStates(
+        IntStream.range(0, stateCount)
+            .mapToObj(i -> dataStructureUtil.randomBeaconState(UInt64.valueOf(i * 100L)))
+            .toArray(BeaconState[]::new));
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    tieredLogic.updater().retierFinalizedStates(tieredDb, transaction, schema, 10);
+    transaction.commit();
+
+    try (final Stream<UInt64> slots =
+        tieredLogic.streamFinalizedStateSlots(
+            tieredDb, schema, UInt64.ZERO, UInt64.valueOf(1000))) {
+      assertThat(slots)
+          .containsExactlyElementsOf(
+              IntStream.range(0, stateCount)
+                  .mapToObj(i -> UInt64.valueOf(i * 100L))
+                  .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void tiered_deleteFinalizedStateShouldRemoveFromAllTiers() {
+    final BeaconState snapshot = dataStructureUtil.randomBeaconState(UInt64.valueOf(100));
+    final BeaconState diffState = dataStructureUtil.randomBeaconState(UInt64.valueOf(110));
+    storeFinalizedStates(snapshot, diffState);
+
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    final FinalizedStateUpdater<SchemaFinalizedSnapshotStateAdapter> updater =
+        tieredLogic.updater();
+    updater.deleteFinalizedState(tieredDb, transaction, schema, snapshot.getSlot());
+    updater.deleteFinalizedState(tieredDb, transaction, schema, diffState.getSlot());
+    transaction.commit();
+
+    assertThat(getKeys(schema.getColumnFinalizedStatesBySlot())).isEmpty();
+    assertThat(getKeys(schema.getColumnFinalizedStateDiffsBySlot())).isEmpty();
+  }
+
+  @Test
+  void tiered_shouldNotStoreReconstructedStateTooCloseToColdSnapshot() {
+    final int stateCount = V4FinalizedStateSnapshotStorageLogic.HOT_STATE_COUNT + 2;
+    storeFinalizedStates(
+        IntStream.range(0, stateCount)
+            .mapToObj(i -> dataStructureUtil.randomBeaconState(UInt64.valueOf(i * 100L + 1000)))
+            .toArray(BeaconState[]::new));
+    final KvStoreTransaction retierTransaction = tieredDb.startTransaction();
+    tieredLogic.updater().retierFinalizedStates(tieredDb, retierTransaction, schema, 10);
+    retierTransaction.commit();
+    assertThat(getKeys(schema.getColumnColdFinalizedStatesBySlot()))
+        .containsExactly(UInt64.valueOf(1000), UInt64.valueOf(1100));
+
+    // Only 50 slots after the cold snapshot at 1100, with no hot snapshot before it
+    final BeaconState reconstructed = dataStructureUtil.randomBeaconState(UInt64.valueOf(1150));
+    final KvStoreTransaction transaction = mock(KvStoreTransaction.class);
+    tieredLogic
+        .updater()
+        .addReconstructedFinalizedState(tieredDb, transaction, schema, reconstructed);
+    verifyNoInteractions(transaction);
+  }
+
+  @Test
+  void tiered_shouldNotStoreReconstructedStateTooCloseToDiff() {
+    final BeaconState snapshot = dataStructureUtil.randomBeaconState(UInt64.valueOf(100));
+    final BeaconState diffState = dataStructureUtil.randomBeaconState(UInt64.valueOf(190));
+    storeFinalizedStates(snapshot, diffState);
+
+    final BeaconState reconstructed = dataStructureUtil.randomBeaconState(UInt64.valueOf(210));
+    final KvStoreTransaction transaction = mock(KvStoreTransaction.class);
+    tieredLogic
+        .updater()
+        .addReconstructedFinalizedState(tieredDb, transaction, schema, reconstructed);
+    verifyNoInteractions(transaction);
+  }
+
+  @Test
+  void untiered_shouldNotMoveStatesToColdTier() {
+    assertThat(logic.updater().retierFinalizedStates(db, transaction, schema, 10)).isZero();
+    verifyNoInteractions(transaction);
+  }
+
+  private void storeFinalizedStates(final BeaconState... states) {
+    final FinalizedStateUpdater<SchemaFinalizedSnapshotStateAdapter> updater =
+        tieredLogic.updater();
+    final KvStoreTransaction transaction = tieredDb.startTransaction();
+    for (BeaconState state : states) {
+      updater.addFinalizedState(tieredDb, transaction, schema, state);
+    }
+    transaction.commit();
+    updater.commit();
+  }
+
+  private <V> List<UInt64> getKeys(final KvStoreColumn<UInt64, V> column) {
+    try (final Stream<UInt64> keys = tieredDb.streamKeys(column)) {
+      return keys.collect(Collectors.toList());
+    }
+  }
 }
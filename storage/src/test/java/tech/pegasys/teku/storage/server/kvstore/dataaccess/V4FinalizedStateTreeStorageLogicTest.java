@@ -14,10 +14,15 @@
 package tech.pegasys.teku.storage.server.kvstore.dataaccess;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -41,6 +46,11 @@ class V4FinalizedStateTreeStorageLogicTest {
   private final V4FinalizedStateTreeStorageLogic logic =
       new V4FinalizedStateTreeStorageLogic(new NoOpMetricsSystem(), spec, 1000);
 
+  @AfterEach
+  void tearDown() {
+    logic.close();
+  }
+
   @Test
   void shouldRoundTripState() {
     final BeaconState state = dataStructureUtil.randomBeaconState();
@@ -49,6 +59,24 @@ class V4FinalizedStateTreeStorageLogicTest {
     assertStateReloads(state);
   }
 
+  @Test
+  void shouldRoundTripStateWhenStoringOnSingleThread() {
+    final V4FinalizedStateTreeStorageLogic singleThreadLogic =
+        new V4FinalizedStateTreeStorageLogic(new NoOpMetricsSystem(), spec, 1000, 1);
+    final BeaconState state = dataStructureUtil.randomBeaconState();
+
+    storeState(singleThreadLogic, state);
+    assertStateReloads(state);
+  }
+
+  @Test
+  void shouldStopStorageThreadsWhenClosed() {
+    final BeaconState state = dataStructureUtil.randomBeaconState();
+    logic.close();
+
+    assertThatThrownBy(() -> storeState(state)).isInstanceOf(RejectedExecutionException.class);
+  }
+
   @Test
   void shouldGetMostRecentStateBeforeRequestedSlot() {
     final BeaconState state = dataStructureUtil.randomBeaconState();
@@ -78,6 +106,64 @@ class V4FinalizedStateTreeStorageLogicTest {
     assertStateReloads(state4);
   }
 
+  @Test
+  void shouldSkipBranchesStoredBeforeRestart() {
+    final BeaconState state1 = dataStructureUtil.randomBeaconState(UInt64.valueOf(3));
+    final BeaconState state2 = state1.updated(state -> state.setSlot(UInt64.valueOf(5)));
+    final StubMetricsSystem metricsSystem1 = new StubMetricsSystem();
+    storeState(new V4FinalizedStateTreeStorageLogic(metricsSystem1, spec, 1000), state1);
+
+    // New instance has an empty known branch cache
+    final StubMetricsSystem metricsSystem2 = new StubMetricsSystem();
+    storeState(new V4FinalizedStateTreeStorageLogic(metricsSystem2, spec, 1000), state2);
+
+    assertThat(getBranchNodeCount(metricsSystem2, "skipped")).isPositive();
+    assertThat(getBranchNodeCount(metricsSystem2, "stored"))
+        .isLessThan(getBranchNodeCount(metricsSystem1, "stored"));
+    assertStateReloads(state1);
+    assertStateReloads(state2);
+  }
+
+  @Test
+  void shouldNotStoreNodesWhenStateAlreadyStored() {
+    final BeaconState state = dataStructureUtil.randomBeaconState();
+    storeState(state);
+
+    final StubMetricsSystem metricsSystem = new StubMetricsSystem();
+    storeState(new V4FinalizedStateTreeStorageLogic(metricsSystem, spec, 1000), state);
+
+    assertThat(getBranchNodeCount(metricsSystem, "stored")).isZero();
+    assertStateReloads(state);
+  }
+
+  @Test
+  void deleteFinalizedState_shouldRetainNodesSharedWithOtherStates() {
+    final BeaconState state1 = dataStructureUtil.randomBeaconState(UInt64.valueOf(3));
+    final BeaconState state2 = state1.updated(state -> state.setSlot(UInt64.valueOf(5)));
+    storeState(state1);
+    storeState(state2);
+
+    deleteState(state1.getSlot());
+
+    assertThat(logic.getLatestAvailableFinalizedState(db, schema, state1.getSlot())).isEmpty();
+    assertStateReloads(state2);
+  }
+
+  private long getBranchNodeCount(final StubMetricsSystem metricsSystem, final String type) {
+    return metricsSystem
+        .getCounter(TekuMetricCategory.STORAGE_FINALIZED_DB, "state_branch_nodes")
+        .getValue(type);
+  }
+
+  private void deleteState(final UInt64 slot) {
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      final FinalizedStateUpdater<SchemaCombinedTreeState> updater = logic.updater();
+      updater.deleteFinalizedState(db, transaction, schema, slot);
+      transaction.commit();
+      updater.commit();
+    }
+  }
+
   private void assertStateReloads(final BeaconState state) {
     assertStateReloads(state, state.getSlot());
   }
@@ -89,9 +175,16 @@ class V4FinalizedStateTreeStorageLogicTest {
   }
 
   private void storeState(final BeaconState state) {
+    storeState(logic, state);
+  }
+
+  private void storeState(
+      final V4FinalizedStateTreeStorageLogic storageLogic, final BeaconState state) {
     try (final KvStoreTransaction transaction = db.startTransaction()) {
-      logic.updater().addFinalizedState(db, transaction, schema, state);
+      final FinalizedStateUpdater<SchemaCombinedTreeState> updater = storageLogic.updater();
+      updater.addFinalizedState(db, transaction, schema, state);
       transaction.commit();
+      updater.commit();
     }
   }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.Spec;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.blocks.SlotAndBlockRoot;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.MockKvStoreInstance;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
+
+class RootIndexedKvStoreAccessorTest {
+  private static final String INDEX = "finalized_block_root";
+
+  private final Spec spec = TestSpecFactory.createDefault();
+  private final DataStructureUtil dataStructureUtil = new DataStructureUtil(spec);
+  private final V6SchemaCombinedSnapshot schema = V6SchemaCombinedSnapshot.createV6(spec);
+  private final KvStoreColumn<Bytes32, UInt64> column = schema.getColumnSlotsByFinalizedRoot();
+  private final StubMetricsSystem metricsSystem = new StubMetricsSystem();
+  private final MockKvStoreInstance delegate =
+      spy(MockKvStoreInstance.createEmpty(schema.getAllColumns(), schema.getAllVariables()));
+  private final RootIndexedKvStoreAccessor db =
+      new RootIndexedKvStoreAccessor(
+          delegate, schema, metricsSystem, MoreExecutors.newDirectExecutorService());
+
+  @Test
+  void get_shouldReadFromDiskBeforeIndexIsBuilt() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    put(delegate, column, root, UInt64.ONE);
+
+    assertThat(db.isReady()).isFalse();
+    assertThat(db.get(column, root)).contains(UInt64.ONE);
+    assertThat(db.get(column, dataStructureUtil.randomBytes32())).isEmpty();
+    assertThat(getLookups("hit")).isEqualTo(1);
+    assertThat(getLookups("miss")).isEqualTo(1);
+  }
+
+  @Test
+  void get_shouldFilterUnknownRootsWithoutReadingDisk() {
+    db.start();
+    assertThat(db.isReady()).isTrue();
+
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    assertThat(db.get(column, root)).isEmpty();
+
+    verify(delegate, never()).get(column, root);
+    assertThat(getLookups("filtered")).isEqualTo(1);
+  }
+
+  @Test
+  void get_shouldFindRootsStoredBeforeIndexIsBuilt() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    put(delegate, column, root, UInt64.valueOf(10));
+    db.start();
+
+    assertThat(db.get(column, root)).contains(UInt64.valueOf(10));
+    assertThat(getLookups("hit")).isEqualTo(1);
+
+    // Then served from the cache
+    assertThat(db.get(column, root)).contains(UInt64.valueOf(10));
+    assertThat(getLookups("cached")).isEqualTo(1);
+  }
+
+  @Test
+  void get_shouldFindRootsStoredAfterIndexIsBuilt() {
+    db.start();
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    put(db, column, root, UInt64.valueOf(10));
+
+    assertThat(db.get(column, root)).contains(UInt64.valueOf(10));
+    assertThat(getLookups("cached")).isEqualTo(1);
+  }
+
+  @Test
+  @SuppressWarnings({"unchecked", "MustBeClosedChecker"})
+  void get_shouldFindRootsCommittedWhileIndexIsBuilding() throws Exception {
+    final CountDownLatch streamStarted = new CountDownLatch(1);
+    final CountDownLatch writeCommitted = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              // Snapshot the keys when the stream is opened, as a database iterator would
+              final List<Bytes32> keys;
+              try (final Stream<Bytes32> stream = (Stream<Bytes32>) invocation.callRealMethod()) {
+                keys = stream.collect(Collectors.toList());
+              }
+              streamStarted.countDown();
+              writeCommitted.await();
+              return keys.stream();
+            })
+        .when(delegate)
+        .streamKeys(column);
+    final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor();
+    final RootIndexedKvStoreAccessor concurrentDb =
+        new RootIndexedKvStoreAccessor(delegate, schema, metricsSystem, rebuildExecutor);
+    try {
+      concurrentDb.start();
+      assertThat(streamStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+      final Bytes32 root = dataStructureUtil.randomBytes32();
+      put(concurrentDb, column, root, UInt64.valueOf(10));
+      writeCommitted.countDown();
+      rebuildExecutor.shutdown();
+      assertThat(rebuildExecutor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+      assertThat(concurrentDb.isReady()).isTrue();
+      assertThat(concurrentDb.get(column, root)).contains(UInt64.valueOf(10));
+      assertThat(getLookups("filtered")).isZero();
+    } finally {
+      rebuildExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  void get_shouldNotReturnDeletedRoots() {
+    db.start();
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    put(db, column, root, UInt64.valueOf(10));
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.delete(column, root);
+      transaction.commit();
+    }
+
+    assertThat(db.get(column, root)).isEmpty();
+  }
+
+  @Test
+  void get_shouldNotCacheRolledBackWrites() {
+    db.start();
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.put(column, root, UInt64.valueOf(10));
+      transaction.rollback();
+    }
+
+    assertThat(db.get(column, root)).isEmpty();
+  }
+
+  @Test
+  void get_shouldFindRootsWrittenRaw() {
+    db.start();
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.putRaw(
+          column, root, Bytes.wrap(column.getValueSerializer().serialize(UInt64.valueOf(3))));
+      transaction.commit();
+    }
+
+    assertThat(db.get(column, root)).contains(UInt64.valueOf(3));
+    assertThat(getLookups("hit")).isEqualTo(1);
+  }
+
+  @Test
+  void ingestRaw_shouldIndexIngestedRootsAndInvalidateCachedSlots() {
+    db.start();
+    final Bytes32 cachedRoot = Bytes32.fromHexString("0x01");
+    final Bytes32 newRoot = Bytes32.fromHexString("0x02");
+    put(db, column, cachedRoot, UInt64.valueOf(10));
+
+    db.ingestRaw(
+        column,
+        List.of(rawEntry(cachedRoot, UInt64.valueOf(3)), rawEntry(newRoot, UInt64.valueOf(4)))
+            .iterator());
+
+    assertThat(db.get(column, cachedRoot)).contains(UInt64.valueOf(3));
+    assertThat(db.get(column, newRoot)).contains(UInt64.valueOf(4));
+    assertThat(getLookups("hit")).isEqualTo(2);
+  }
+
+  @Test
+  void get_shouldIndexHotStateRoots() {
+    db.start();
+    final KvStoreColumn<Bytes32, SlotAndBlockRoot> stateRoots =
+        schema.getColumnStateRootToSlotAndBlockRoot();
+    final Bytes32 stateRoot = dataStructureUtil.randomBytes32();
+    final SlotAndBlockRoot slotAndBlockRoot =
+        new SlotAndBlockRoot(UInt64.valueOf(5), dataStructureUtil.randomBytes32());
+    put(db, stateRoots, stateRoot, slotAndBlockRoot);
+
+    assertThat(db.get(stateRoots, stateRoot)).contains(slotAndBlockRoot);
+    assertThat(db.get(stateRoots, dataStructureUtil.randomBytes32())).isEmpty();
+    assertThat(getLookups("hot_state_root", "filtered")).isEqualTo(1);
+  }
+
+  private <V> void put(
+      final KvStoreAccessor target,
+      final KvStoreColumn<Bytes32, V> column,
+      final Bytes32 root,
+      final V value) {
+    try (final KvStoreTransaction transaction = target.startTransaction()) {
+      transaction.put(column, root, value);
+      transaction.commit();
+    }
+  }
+
+  private ColumnEntry<Bytes, Bytes> rawEntry(final Bytes32 root, final UInt64 slot) {
+    return ColumnEntry.create(root, Bytes.wrap(column.getValueSerializer().serialize(slot)));
+  }
+
+  private long getLookups(final String result) {
+    return getLookups(INDEX, result);
+  }
+
+  private long getLookups(final String index, final String result) {
+    return metricsSystem
+        .getCounter(TekuMetricCategory.STORAGE, "root_index_lookups")
+        .getValue(index, result);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.pegasys.teku.storage.server.kvstore.index.RootSlotCache.NO_SLOT;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+class RootSlotCacheTest {
+  private final DataStructureUtil dataStructureUtil =
+      new DataStructureUtil(TestSpecFactory.createDefault());
+  private final RootSlotCache cache = new RootSlotCache(16);
+
+  @Test
+  void shouldReturnStoredSlots() {
+    final Bytes32 root1 = dataStructureUtil.randomBytes32();
+    final Bytes32 root2 = dataStructureUtil.randomBytes32();
+    cache.put(root1, 1);
+    cache.put(root2, 2);
+
+    assertThat(cache.get(root1)).isEqualTo(1);
+    assertThat(cache.get(root2)).isEqualTo(2);
+    assertThat(cache.get(dataStructureUtil.randomBytes32())).isEqualTo(NO_SLOT);
+  }
+
+  @Test
+  void shouldUpdateExistingEntry() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    cache.put(root, 1);
+    cache.put(root, 5);
+
+    assertThat(cache.get(root)).isEqualTo(5);
+  }
+
+  @Test
+  void shouldRemoveInvalidatedEntries() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    cache.put(root, 1);
+    cache.invalidate(root);
+
+    assertThat(cache.get(root)).isEqualTo(NO_SLOT);
+  }
+
+  @Test
+  void shouldNotPutValuesReadBeforeInvalidation() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    final long invalidations = cache.getInvalidationCount();
+    cache.invalidate(root);
+
+    cache.putIfNotInvalidated(root, 1, invalidations);
+    assertThat(cache.get(root)).isEqualTo(NO_SLOT);
+
+    cache.putIfNotInvalidated(root, 1, cache.getInvalidationCount());
+    assertThat(cache.get(root)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotStoreUnrepresentableSlots() {
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    cache.put(root, 1);
+    cache.put(root, -5);
+
+    assertThat(cache.get(root)).isEqualTo(NO_SLOT);
+  }
+
+  @Test
+  void shouldOnlyEvictEntriesWhenFull() {
+    final List<Bytes32> roots = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      final Bytes32 root = dataStructureUtil.randomBytes32();
+      roots.add(root);
+      cache.put(root, i);
+    }
+
+    int found = 0;
+    for (int i = 0; i < roots.size(); i++) {
+      final long slot = cache.get(roots.get(i));
+      if (slot != NO_SLOT) {
+        assertThat(slot).isEqualTo(i);
+        found++;
+      }
+    }
+    assertThat(found).isBetween(1, 16);
+    // The most recent entry is always retained
+    assertThat(cache.get(roots.get(roots.size() - 1))).isEqualTo(roots.size() - 1);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.kvstore.serialization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+public class PreSerializingSerializerTest {
+
+  private final KvStoreSerializer<Bytes32> delegate = spy(new BytesSerializer<>(Bytes32::wrap));
+  private final PreSerializingSerializer<Bytes32> serializer =
+      new PreSerializingSerializer<>(delegate);
+
+  private final Bytes32 value = Bytes32.fromHexString("0x123456");
+
+  @Test
+  public void serialize_shouldUsePreSerializedValue() {
+    serializer.preSerialize(value);
+
+    assertThat(serializer.serialize(value)).isEqualTo(value.toArrayUnsafe());
+    verify(delegate, times(1)).serialize(value);
+  }
+
+  @Test
+  public void serialize_shouldOnlyUsePreSerializedValueOnce() {
+    serializer.preSerialize(value);
+    serializer.serialize(value);
+
+    assertThat(serializer.serialize(value)).isEqualTo(value.toArrayUnsafe());
+    verify(delegate, times(2)).serialize(value);
+  }
+
+  @Test
+  public void serialize_shouldMatchPreSerializedValuesByIdentity() {
+    final Bytes32 equalValue = Bytes32.fromHexString("0x123456");
+    serializer.preSerialize(value);
+
+    serializer.serialize(equalValue);
+    verify(delegate, times(2)).serialize(value);
+
+    serializer.serialize(value);
+    verify(delegate, times(2)).serialize(value);
+  }
+
+  @Test
+  public void discard_shouldRemovePreSerializedValue() {
+    serializer.preSerialize(value);
+    serializer.discard(value);
+
+    serializer.serialize(value);
+
+    verify(delegate, times(2)).serialize(value);
+  }
+
+  @Test
+  public void roundTrip() {
+    serializer.preSerialize(value);
+
+    assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.pruner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.async.StubAsyncRunner;
+import tech.pegasys.teku.infrastructure.time.StubTimeProvider;
+import tech.pegasys.teku.storage.server.Database;
+import tech.pegasys.teku.storage.server.ShuttingDownException;
+
+class FinalizedStateRetiererTest {
+
+  private static final Duration RETIER_INTERVAL = Duration.ofMinutes(10);
+
+  private final StubTimeProvider timeProvider = StubTimeProvider.withTimeInSeconds(1000);
+  private final StubAsyncRunner asyncRunner = new StubAsyncRunner(timeProvider);
+  private final Database database = mock(Database.class);
+
+  private final FinalizedStateRetierer retierer =
+      new FinalizedStateRetierer(database, asyncRunner, RETIER_INTERVAL);
+
+  @BeforeEach
+  void setUp() {
+    assertThat(retierer.start()).isCompleted();
+  }
+
+  @Test
+  void shouldRetierWhenFirstStarted() {
+    asyncRunner.executeDueActions();
+    verify(database).retierFinalizedStates();
+  }
+
+  @Test
+  void shouldRetierAfterInterval() {
+    asyncRunner.executeDueActions();
+    verify(database).retierFinalizedStates();
+
+    triggerNextRetiering();
+    verify(database, times(2)).retierFinalizedStates();
+  }
+
+  @Test
+  void shouldNotRetierAfterStopped() {
+    asyncRunner.executeDueActions();
+    assertThat(retierer.stop()).isCompleted();
+
+    triggerNextRetiering();
+    verify(database).retierFinalizedStates();
+    verifyNoMoreInteractions(database);
+  }
+
+  @Test
+  void shouldIgnoreShutdown() {
+    doThrow(new ShuttingDownException()).when(database).retierFinalizedStates();
+
+    asyncRunner.executeDueActions();
+    triggerNextRetiering();
+
+    verify(database, times(2)).retierFinalizedStates();
+  }
+
+  private void triggerNextRetiering() {
+    timeProvider.advanceTimeBy(RETIER_INTERVAL);
+    asyncRunner.executeDueActions();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.rocksdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumnProfile;
+
+class RocksDbColumnOptionsTest {
+
+  @Test
+  void cacheSharesShouldAllocateWholeCache() {
+    final double total =
+        Arrays.stream(KvStoreColumnProfile.values())
+            .mapToDouble(RocksDbColumnOptions::getCacheShare)
+            .sum();
+    assertThat(total).isCloseTo(1.0, within(1e-9));
+  }
+
+  @Test
+  void defaultProfileShouldOnlyGetSmallCacheShare() {
+    final double defaultShare = RocksDbColumnOptions.getCacheShare(KvStoreColumnProfile.DEFAULT);
+    assertThat(defaultShare)
+        .isLessThan(RocksDbColumnOptions.getCacheShare(KvStoreColumnProfile.POINT_LOOKUP))
+        .isLessThan(RocksDbColumnOptions.getCacheShare(KvStoreColumnProfile.SEQUENTIAL))
+        .isLessThanOrEqualTo(0.05);
+  }
+}
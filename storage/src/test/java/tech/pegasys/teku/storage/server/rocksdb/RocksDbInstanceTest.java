@@ -0,0 +1,131 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.server.rocksdb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.UINT64_SERIALIZER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.storage.server.DatabaseStorageException;
+import tech.pegasys.teku.storage.server.DatabaseVersion;
+import tech.pegasys.teku.storage.server.kvstore.ColumnEntry;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreAccessor.KvStoreTransaction;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+
+class RocksDbInstanceTest {
+  private static final KvStoreColumn<UInt64, Bytes> COLUMN =
+      KvStoreColumn.create(1, UINT64_SERIALIZER, BYTES_SERIALIZER);
+  private static final KvStoreColumn<UInt64, Bytes> OTHER_COLUMN =
+      KvStoreColumn.create(2, UINT64_SERIALIZER, BYTES_SERIALIZER);
+
+  @TempDir Path directory;
+
+  private KvStoreAccessor db;
+
+  @BeforeAll
+  static void setUp() {
+    assumeThat(DatabaseVersion.isRocksDbSupported())
+        .describedAs("RocksDB support required")
+        .isTrue();
+  }
+
+  @BeforeEach
+  void open() {
+    db =
+        RocksDbInstanceFactory.create(
+            new NoOpMetricsSystem(),
+            TekuMetricCategory.STORAGE,
+            KvStoreConfiguration.v6SingleDefaults().withDatabaseDir(directory),
+            List.of(COLUMN, OTHER_COLUMN),
+            Collections.emptyList());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    db.close();
+  }
+
+  @Test
+  void ingestRaw_shouldLoadEntriesIntoTheSpecifiedColumn() throws IOException {
+    try (final KvStoreTransaction transaction = db.startTransaction()) {
+      transaction.put(OTHER_COLUMN, UInt64.ONE, Bytes.of(9));
+      transaction.commit();
+    }
+
+    db.ingestRaw(
+        COLUMN,
+        List.of(entry(UInt64.ONE, Bytes.of(1)), entry(UInt64.valueOf(2), Bytes.of(2, 2)))
+            .iterator());
+
+    assertThat(db.getAll(COLUMN))
+        .isEqualTo(Map.of(UInt64.ONE, Bytes.of(1), UInt64.valueOf(2), Bytes.of(2, 2)));
+    assertThat(db.getAll(OTHER_COLUMN)).isEqualTo(Map.of(UInt64.ONE, Bytes.of(9)));
+    assertIngestFilesRemoved();
+  }
+
+  @Test
+  void ingestRaw_shouldDoNothingWhenNoEntriesProvided() throws IOException {
+    db.ingestRaw(COLUMN, Collections.emptyIterator());
+
+    assertThat(db.getAll(COLUMN)).isEmpty();
+    assertIngestFilesRemoved();
+  }
+
+  @Test
+  void ingestRaw_shouldFailWhenKeysAreNotSorted() throws IOException {
+    assertThatThrownBy(
+            () ->
+                db.ingestRaw(
+                    COLUMN,
+                    List.of(entry(UInt64.valueOf(2), Bytes.of(2)), entry(UInt64.ONE, Bytes.of(1)))
+                        .iterator()))
+        .isInstanceOf(DatabaseStorageException.class);
+
+    assertThat(db.getAll(COLUMN)).isEmpty();
+    assertIngestFilesRemoved();
+  }
+
+  private void assertIngestFilesRemoved() throws IOException {
+    final Path ingestDir = directory.resolve("ingest");
+    if (Files.exists(ingestDir)) {
+      try (final Stream<Path> files = Files.list(ingestDir)) {
+        assertThat(files).isEmpty();
+      }
+    }
+  }
+
+  private static ColumnEntry<Bytes, Bytes> entry(final UInt64 key, final Bytes value) {
+    return ColumnEntry.create(Bytes.wrap(UINT64_SERIALIZER.serialize(key)), value);
+  }
+}
@@ -18,18 +18,27 @@ import static org.assertj.core.api.Assumptions.assumeThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.BYTES32_SERIALIZER;
+import static tech.pegasys.teku.storage.server.kvstore.serialization.KvStoreSerializer.UINT64_SERIALIZER;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.apache.tuweni.bytes.Bytes32;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
 import org.hyperledger.besu.metrics.Observation;
 import org.hyperledger.besu.metrics.prometheus.PrometheusMetricsSystem;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.RocksDB;
 import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.storage.server.DatabaseVersion;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumn;
+import tech.pegasys.teku.storage.server.kvstore.schema.KvStoreColumnProfile;
 
 class RocksDbStatsTest {
 
@@ -55,4 +64,28 @@ class RocksDbStatsTest {
         metricsSystem.streamObservations().collect(Collectors.toList());
     assertThat(metrics).isNotEmpty();
   }
+
+  @Test
+  void shouldReportPropertiesPerColumn() throws Exception {
+    final ObservableMetricsSystem metricsSystem =
+        new PrometheusMetricsSystem(Set.of(TekuMetricCategory.STORAGE_HOT_DB), true);
+    final KvStoreColumn<Bytes32, UInt64> column =
+        KvStoreColumn.create(
+            5, BYTES32_SERIALIZER, UINT64_SERIALIZER, KvStoreColumnProfile.POINT_LOOKUP);
+    final ColumnFamilyHandle handle = mock(ColumnFamilyHandle.class);
+    when(database.getLongProperty(handle, "rocksdb.estimate-num-keys")).thenReturn(42L);
+
+    try (RocksDbStats stats = new RocksDbStats(metricsSystem, TekuMetricCategory.STORAGE_HOT_DB)) {
+      stats.registerColumnMetrics(database, Map.of(column, handle));
+
+      final Optional<Observation> observation =
+          metricsSystem
+              .streamObservations(TekuMetricCategory.STORAGE_HOT_DB)
+              .filter(metric -> metric.getMetricName().equals("column_estimate_num_keys"))
+              .findFirst();
+      assertThat(observation).isPresent();
+      assertThat(observation.get().getLabels()).containsExactly("0x05", "point_lookup");
+      assertThat(observation.get().getValue()).isEqualTo(42d);
+    }
+  }
 }
@@ -28,6 +28,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.bls.BLSKeyGenerator;
 import tech.pegasys.teku.bls.BLSKeyPair;
+import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
+import tech.pegasys.teku.infrastructure.metrics.TekuMetricCategory;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -42,9 +44,10 @@ class FinalizedStateCacheTest {
   private final Spec spec = TestSpecFactory.createMinimalPhase0();
   private final ChainBuilder chainBuilder = ChainBuilder.create(spec, VALIDATOR_KEYS);
   private final Database database = mock(Database.class);
+  private final StubMetricsSystem metricsSystem = new StubMetricsSystem();
   // We don't use soft references in unit tests to avoid intermittency
   private final FinalizedStateCache cache =
-      new FinalizedStateCache(spec, database, MAXIMUM_CACHE_SIZE, false);
+      new FinalizedStateCache(spec, database, metricsSystem, MAXIMUM_CACHE_SIZE, false);
 
   @BeforeEach
   public void setUp() {
@@ -105,6 +108,25 @@ class FinalizedStateCacheTest {
     verify(database, times(2)).streamFinalizedBlocks(ONE, ONE);
   }
 
+  @Test
+  void shouldReportRetainedBytesOfCachedStates() throws Exception {
+    chainBuilder.generateBlocksUpToSlot(MAXIMUM_CACHE_SIZE + 1);
+    when(database.getLatestAvailableFinalizedState(any()))
+        .thenReturn(Optional.of(chainBuilder.getGenesis().getState()));
+    allowStreamingBlocks();
+    assertThat(getRetainedBytes()).isZero();
+
+    cache.getFinalizedState(ONE);
+    final double firstStateRetainedBytes = getRetainedBytes();
+    assertThat(firstStateRetainedBytes).isPositive();
+
+    // Regenerated from the cached state so only the nodes it doesn't share are added
+    cache.getFinalizedState(UInt64.valueOf(2));
+    assertThat(getRetainedBytes())
+        .isGreaterThan(firstStateRetainedBytes)
+        .isLessThan(firstStateRetainedBytes * 2);
+  }
+
   @Test
   void shouldReturnEmptyWhenStateIsNotAvailable() {
     when(database.getLatestAvailableFinalizedState(any())).thenReturn(Optional.empty());
@@ -112,6 +134,12 @@ class FinalizedStateCacheTest {
     assertThat(cache.getFinalizedState(ONE)).isEmpty();
   }
 
+  private double getRetainedBytes() {
+    return metricsSystem
+        .getGauge(TekuMetricCategory.STORAGE, "finalized_state_cache_retained_bytes")
+        .getValue();
+  }
+
   private void allowStreamingBlocks() {
     when(database.streamFinalizedBlocks(any(), any()))
         .thenAnswer(
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.util.Map;
+import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.Test;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.spec.TestSpecFactory;
@@ -69,6 +70,20 @@ class StoreVoteUpdaterTest extends AbstractStoreTest {
     assertThat(voteUpdater.getHighestVotedValidatorIndex()).isEqualTo(UInt64.valueOf(2));
   }
 
+  @Test
+  void shouldIncludeUncommittedVotesInValidatorsWithPendingVotes() {
+    setVote(UInt64.ZERO, dataStructureUtil.randomVoteTracker());
+    setVote(UInt64.ONE, dataStructureUtil.randomVoteTracker());
+
+    final VoteUpdater voteUpdater = store.startVoteUpdate(voteUpdateChannel);
+    final Bytes32 root = dataStructureUtil.randomBytes32();
+    voteUpdater.putVote(UInt64.ZERO, new VoteTracker(root, root, UInt64.ONE));
+    voteUpdater.putVote(UInt64.valueOf(2), dataStructureUtil.randomVoteTracker());
+
+    assertThat(voteUpdater.getValidatorsWithPendingVotes().orElseThrow())
+        .containsExactlyInAnyOrder(1, 2);
+  }
+
   private void setVote(final UInt64 validatorIndex, final VoteTracker vote) {
     final VoteUpdater voteUpdater = store.startVoteUpdate(voteUpdateChannel);
     voteUpdater.putVote(validatorIndex, vote);
@@ -0,0 +1,73 @@
+/*
+ * Copyright ConsenSys Software Inc., 2022
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package tech.pegasys.teku.storage.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import tech.pegasys.teku.infrastructure.unsigned.UInt64;
+import tech.pegasys.teku.spec.TestSpecFactory;
+import tech.pegasys.teku.spec.datastructures.forkchoice.VoteTracker;
+import tech.pegasys.teku.spec.util.DataStructureUtil;
+
+class VoteTrackerColumnsTest {
+  private final DataStructureUtil dataStructureUtil =
+      new DataStructureUtil(TestSpecFactory.createDefault());
+  private final Bytes32 root1 = dataStructureUtil.randomBytes32();
+  private final Bytes32 root2 = dataStructureUtil.randomBytes32();
+  private final VoteTrackerColumns votes = new VoteTrackerColumns(2);
+
+  @Test
+  void shouldReturnDefaultForUnknownValidators() {
+    assertThat(votes.get(UInt64.valueOf(1000))).isSameAs(VoteTracker.DEFAULT);
+    assertThat(votes.get(UInt64.ZERO)).isSameAs(VoteTracker.DEFAULT);
+  }
+
+  @Test
+  void shouldStoreVotes() {
+    final VoteTracker vote = new VoteTracker(root1, root2, UInt64.valueOf(3), true, false);
+    votes.put(UInt64.valueOf(10), vote);
+
+    assertThat(votes.get(UInt64.valueOf(10))).isEqualTo(vote);
+    assertThat(votes.getHighestVotedValidatorIndex()).isEqualTo(UInt64.valueOf(10));
+  }
+
+  @Test
+  void shouldReleaseRootsNoLongerReferenced() {
+    votes.put(UInt64.ZERO, new VoteTracker(root1, root1, UInt64.ONE));
+    votes.put(UInt64.ONE, new VoteTracker(root1, root2, UInt64.ONE));
+    assertThat(votes.getRootCount()).isEqualTo(3);
+
+    votes.put(UInt64.ZERO, new VoteTracker(root2, root2, UInt64.ONE));
+    assertThat(votes.getRootCount()).isEqualTo(3);
+
+    votes.put(UInt64.ONE, new VoteTracker(root2, root2, UInt64.ONE));
+    assertThat(votes.getRootCount()).isEqualTo(2);
+    assertThat(votes.get(UInt64.ZERO).getCurrentRoot()).isEqualTo(root2);
+  }
+
+  @Test
+  void shouldTrackValidatorsWithPendingVotes() {
+    votes.put(UInt64.ZERO, new VoteTracker(root1, root2, UInt64.ONE));
+    votes.put(UInt64.ONE, new VoteTracker(root1, root1, UInt64.ONE));
+    votes.put(UInt64.valueOf(2), new VoteTracker(root1, root1, UInt64.ONE, true, false));
+    votes.put(UInt64.valueOf(3), new VoteTracker(root1, root2, UInt64.ONE, true, true));
+    assertThat(votes.getValidatorsWithPendingVotes()).containsExactlyInAnyOrder(0, 2);
+
+    // Once fork choice applies the vote it is no longer pending
+    votes.put(UInt64.ZERO, new VoteTracker(root2, root2, UInt64.ONE));
+    assertThat(votes.getValidatorsWithPendingVotes()).containsExactly(2);
+  }
+}
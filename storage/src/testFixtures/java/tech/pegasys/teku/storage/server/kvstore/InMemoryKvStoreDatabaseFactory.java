@@ -13,6 +13,7 @@
 
 package tech.pegasys.teku.storage.server.kvstore;
 
+import java.util.Optional;
 import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.storage.server.Database;
@@ -53,7 +54,15 @@ public class InMemoryKvStoreDatabaseFactory {
       final Spec spec) {
     final V6SchemaCombinedSnapshot combinedSchema = V6SchemaCombinedSnapshot.createV6(spec);
     return KvStoreDatabase.createWithStateSnapshots(
-        db, combinedSchema, storageMode, stateStorageFrequency, storeNonCanonicalBlocks, spec);
+        new StubMetricsSystem(),
+        db,
+        combinedSchema,
+        storageMode,
+        stateStorageFrequency,
+        false,
+        storeNonCanonicalBlocks,
+        Optional.empty(),
+        spec);
   }
 
   public static Database createTree(
@@ -63,6 +72,13 @@ public class InMemoryKvStoreDatabaseFactory {
       final Spec spec) {
     final V6SchemaCombinedTreeState schema = new V6SchemaCombinedTreeState(spec);
     return KvStoreDatabase.createWithStateTree(
-        new StubMetricsSystem(), db, schema, storageMode, storeNonCanonicalBlocks, 1000, spec);
+        new StubMetricsSystem(),
+        db,
+        schema,
+        storageMode,
+        storeNonCanonicalBlocks,
+        1000,
+        Optional.empty(),
+        spec);
   }
 }
@@ -117,6 +117,15 @@ public class MockKvStoreInstance implements KvStoreAccessor {
         .map(e -> columnEntry(column, e));
   }
 
+  @Override
+  public <K, V> Optional<K> getFloorKey(final KvStoreColumn<K, V> column, final K key) {
+    assertOpen();
+    assertValidColumn(column);
+    final Bytes keyBytes = keyToBytes(column, key);
+    return Optional.ofNullable(columnData.get(column).floorKey(keyBytes))
+        .map(data -> columnKey(column, data));
+  }
+
   @Override
   public <K, V> Optional<ColumnEntry<K, V>> getFirstEntry(final KvStoreColumn<K, V> column) {
     assertOpen();
@@ -200,6 +209,14 @@ public class MockKvStoreInstance implements KvStoreAccessor {
         .map(e -> columnKey(column, e));
   }
 
+  @Override
+  public boolean isSecondary() {
+    return false;
+  }
+
+  @Override
+  public void catchUpWithPrimary() {}
+
   @Override
   public KvStoreTransaction startTransaction() {
     assertOpen();
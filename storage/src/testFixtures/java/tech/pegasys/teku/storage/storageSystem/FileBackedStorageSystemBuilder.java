@@ -17,12 +17,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 import tech.pegasys.teku.infrastructure.metrics.StubMetricsSystem;
 import tech.pegasys.teku.spec.Spec;
 import tech.pegasys.teku.spec.generator.ChainBuilder;
 import tech.pegasys.teku.storage.server.Database;
 import tech.pegasys.teku.storage.server.DatabaseVersion;
 import tech.pegasys.teku.storage.server.StateStorageMode;
+import tech.pegasys.teku.storage.server.hotlog.HotLogConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.KvStoreConfiguration;
 import tech.pegasys.teku.storage.server.kvstore.schema.V6SchemaCombinedSnapshot;
 import tech.pegasys.teku.storage.server.leveldb.LevelDbDatabaseFactory;
@@ -43,6 +46,8 @@ public class FileBackedStorageSystemBuilder {
   private Path archiveDir;
   private long stateStorageFrequency = 1L;
   private boolean storeNonCanonicalBlocks = false;
+  private boolean blockArchiveEnabled = false;
+  private List<String> hotLogColumns = List.of();
 
   private FileBackedStorageSystemBuilder() {}
 
@@ -97,6 +102,8 @@ public class FileBackedStorageSystemBuilder {
         .dataDir(dataDir)
         .storageMode(storageMode)
         .stateStorageFrequency(stateStorageFrequency)
+        .blockArchiveEnabled(blockArchiveEnabled)
+        .hotLogColumns(hotLogColumns)
         .storeConfig(storeConfig);
   }
 
@@ -117,6 +124,16 @@ public class FileBackedStorageSystemBuilder {
     return this;
   }
 
+  public FileBackedStorageSystemBuilder blockArchiveEnabled(final boolean blockArchiveEnabled) {
+    this.blockArchiveEnabled = blockArchiveEnabled;
+    return this;
+  }
+
+  public FileBackedStorageSystemBuilder hotLogColumns(final List<String> hotLogColumns) {
+    this.hotLogColumns = hotLogColumns;
+    return this;
+  }
+
   public FileBackedStorageSystemBuilder specProvider(final Spec spec) {
     this.spec = spec;
     return this;
@@ -147,6 +164,16 @@ public class FileBackedStorageSystemBuilder {
     return this;
   }
 
+  private Optional<Path> getBlockArchiveDir() {
+    return blockArchiveEnabled ? Optional.of(dataDir.resolve("block-archive")) : Optional.empty();
+  }
+
+  private Optional<HotLogConfiguration> getHotLogConfiguration() {
+    return hotLogColumns.isEmpty()
+        ? Optional.empty()
+        : Optional.of(new HotLogConfiguration(dataDir.resolve("hot-log"), hotLogColumns));
+  }
+
   private StorageSystem.RestartedStorageSupplier createRestartSupplier() {
     return (mode) -> copy().storageMode(mode).build();
   }
@@ -172,7 +199,10 @@ public class FileBackedStorageSystemBuilder {
         schema,
         storageMode,
         stateStorageFrequency,
+        false,
         storeNonCanonicalBlocks,
+        getBlockArchiveDir(),
+        getHotLogConfiguration(),
         spec);
   }
 
@@ -183,7 +213,10 @@ public class FileBackedStorageSystemBuilder {
         configDefault.withDatabaseDir(hotDir),
         storageMode,
         stateStorageFrequency,
+        false,
         storeNonCanonicalBlocks,
+        getBlockArchiveDir(),
+        getHotLogConfiguration(),
         spec);
   }
 
@@ -195,6 +228,8 @@ public class FileBackedStorageSystemBuilder {
         storageMode,
         storeNonCanonicalBlocks,
         10_000,
+        getBlockArchiveDir(),
+        getHotLogConfiguration(),
         spec);
   }
 
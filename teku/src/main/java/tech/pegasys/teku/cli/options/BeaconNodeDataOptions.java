@@ -15,6 +15,8 @@ package tech.pegasys.teku.cli.options;
 
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import picocli.CommandLine;
 import picocli.CommandLine.Help.Visibility;
 import picocli.CommandLine.Option;
@@ -128,6 +130,76 @@ public class BeaconNodeDataOptions extends ValidatorClientDataOptions {
       arity = "0..1")
   private int blobsSidecarsPruningLimit = StorageConfiguration.DEFAULT_BLOBS_PRUNING_LIMIT;
 
+  @CommandLine.Option(
+      names = {"--Xdata-storage-block-archive-enabled"},
+      hidden = true,
+      paramLabel = "<BOOLEAN>",
+      description =
+          "Store finalized blocks in append-only segment files instead of the database. "
+              + "Existing finalized blocks are migrated on startup",
+      fallbackValue = "true",
+      showDefaultValue = Visibility.ALWAYS,
+      arity = "0..1")
+  private boolean blockArchiveEnabled = StorageConfiguration.DEFAULT_BLOCK_ARCHIVE_ENABLED;
+
+  @CommandLine.Option(
+      names = {"--Xdata-storage-group-commit-enabled"},
+      hidden = true,
+      paramLabel = "<BOOLEAN>",
+      description =
+          "Apply storage updates on a dedicated thread, combining consecutive block imports "
+              + "into a single database commit",
+      fallbackValue = "true",
+      showDefaultValue = Visibility.ALWAYS,
+      arity = "0..1")
+  private boolean groupCommitEnabled = StorageConfiguration.DEFAULT_GROUP_COMMIT_ENABLED;
+
+  @CommandLine.Option(
+      names = {"--Xdata-storage-archive-state-tiering-enabled"},
+      hidden = true,
+      paramLabel = "<BOOLEAN>",
+      description =
+          "In archive mode, move older finalized state snapshots to compressed cold storage and "
+              + "store per-epoch diffs between snapshots",
+      fallbackValue = "true",
+      showDefaultValue = Visibility.ALWAYS,
+      arity = "0..1")
+  private boolean stateTieringEnabled = StorageConfiguration.DEFAULT_STATE_TIERING_ENABLED;
+
+  @CommandLine.Option(
+      names = {"--Xdata-storage-primary-beacon-path"},
+      hidden = true,
+      paramLabel = "<FILENAME>",
+      description =
+          "Beacon data path of another node on this host. Its RocksDB database is opened as a "
+              + "read-only secondary instance which periodically catches up with the other node",
+      arity = "1")
+  private Path primaryBeaconDataPath;
+
+  @CommandLine.Option(
+      names = {"--Xdata-storage-secondary-catch-up-interval"},
+      hidden = true,
+      paramLabel = "<INTEGER>",
+      description =
+          "Interval in seconds between catching up with the primary database when opened as a "
+              + "read-only secondary instance",
+      showDefaultValue = Visibility.ALWAYS,
+      arity = "1")
+  private long secondaryCatchUpIntervalSeconds =
+      StorageConfiguration.DEFAULT_SECONDARY_CATCH_UP_INTERVAL.toSeconds();
+
+  @CommandLine.Option(
+      names = {"--Xdata-storage-hot-log-columns"},
+      hidden = true,
+      paramLabel = "<COLUMN>",
+      description =
+          "Comma separated list of hot database columns, such as HOT_BLOCKS_BY_ROOT and "
+              + "HOT_STATES_BY_ROOT, to store in append-only segment files which are deleted "
+              + "once finalized instead of the database",
+      split = ",",
+      arity = "0..*")
+  private List<String> hotLogColumns = StorageConfiguration.DEFAULT_HOT_LOG_COLUMNS;
+
   @Override
   protected DataConfig.Builder configureDataConfig(final DataConfig.Builder config) {
     return super.configureDataConfig(config).beaconDataPath(dataBeaconPath);
@@ -145,7 +217,13 @@ public class BeaconNodeDataOptions extends ValidatorClientDataOptions {
                 .maxKnownNodeCacheSize(maxKnownNodeCacheSize)
                 .blockPruningInterval(Duration.ofSeconds(blockPruningIntervalSeconds))
                 .blobsPruningInterval(Duration.ofSeconds(blobsSidecarsPruningIntervalSeconds))
-                .blobsPruningLimit(blobsSidecarsPruningLimit));
+                .blobsPruningLimit(blobsSidecarsPruningLimit)
+                .blockArchiveEnabled(blockArchiveEnabled)
+                .groupCommitEnabled(groupCommitEnabled)
+                .stateTieringEnabled(stateTieringEnabled)
+                .primaryBeaconDataPath(Optional.ofNullable(primaryBeaconDataPath))
+                .secondaryCatchUpInterval(Duration.ofSeconds(secondaryCatchUpIntervalSeconds))
+                .hotLogColumns(hotLogColumns));
     builder.sync(
         b ->
             b.fetchAllHistoricBlocks(dataStorageMode.storesAllBlocks())
@@ -162,6 +162,18 @@ public class Eth2NetworkOptions {
       hidden = true)
   private ProgressiveBalancesMode progressiveBalancesMode = null;
 
+  @Option(
+      names = {"--Xparallel-hashing-enabled"},
+      paramLabel = "<BOOLEAN>",
+      description =
+          "Split hashing of modified state subtrees across threads when calculating state roots.",
+      arity = "0..1",
+      fallbackValue = "true",
+      showDefaultValue = Visibility.ALWAYS,
+      hidden = true)
+  private boolean parallelHashingEnabled =
+      Eth2NetworkConfiguration.DEFAULT_PARALLEL_HASHING_ENABLED;
+
   // can be removed after investigating the consequences of not doing it anymore
   @Option(
       names = {"--Xfork-choice-update-head-on-block-import-enabled"},
@@ -233,6 +245,7 @@ public class Eth2NetworkOptions {
       builder.trustedSetup(trustedSetup);
     }
     builder
+        .parallelHashingEnabled(parallelHashingEnabled)
         .safeSlotsToImportOptimistically(safeSlotsToImportOptimistically)
         .forkChoiceUpdateHeadOnBlockImportEnabled(forkChoiceUpdateHeadOnBlockImportEnabled);
   }
@@ -52,12 +52,42 @@ public class StoreOptions {
       arity = "1")
   private int checkpointStateCacheSize = StoreConfig.DEFAULT_CHECKPOINT_STATE_CACHE_SIZE;
 
+  @Option(
+      hidden = true,
+      names = {"--Xstore-block-cache-max-bytes"},
+      paramLabel = "<INTEGER>",
+      description =
+          "Estimated memory in bytes to use for cached blocks. Zero limits the cache by number of blocks instead.",
+      arity = "1")
+  private long blockCacheMaxBytes = StoreConfig.DEFAULT_BLOCK_CACHE_MAX_BYTES;
+
+  @Option(
+      hidden = true,
+      names = {"--Xstore-state-cache-max-bytes"},
+      paramLabel = "<INTEGER>",
+      description =
+          "Estimated memory in bytes to use for cached states. Zero limits the cache by number of states instead.",
+      arity = "1")
+  private long stateCacheMaxBytes = StoreConfig.DEFAULT_STATE_CACHE_MAX_BYTES;
+
+  @Option(
+      hidden = true,
+      names = {"--Xstore-checkpoint-state-cache-max-bytes"},
+      paramLabel = "<INTEGER>",
+      description =
+          "Estimated memory in bytes to use for cached checkpoint states. Zero limits the cache by number of states instead.",
+      arity = "1")
+  private long checkpointStateCacheMaxBytes = StoreConfig.DEFAULT_CHECKPOINT_STATE_CACHE_MAX_BYTES;
+
   public void configure(final TekuConfiguration.Builder builder) {
     builder.store(
         b ->
             b.hotStatePersistenceFrequencyInEpochs(hotStatePersistenceFrequencyInEpochs)
                 .blockCacheSize(blockCacheSize)
                 .stateCacheSize(stateCacheSize)
-                .checkpointStateCacheSize(checkpointStateCacheSize));
+                .checkpointStateCacheSize(checkpointStateCacheSize)
+                .blockCacheMaxBytes(blockCacheMaxBytes)
+                .stateCacheMaxBytes(stateCacheMaxBytes)
+                .checkpointStateCacheMaxBytes(checkpointStateCacheMaxBytes));
   }
 }
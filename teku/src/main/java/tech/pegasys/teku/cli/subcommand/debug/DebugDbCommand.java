@@ -14,6 +14,8 @@
 package tech.pegasys.teku.cli.subcommand.debug;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -41,6 +43,7 @@ import tech.pegasys.teku.dataproviders.lookup.StateAndBlockSummaryProvider;
 import tech.pegasys.teku.infrastructure.async.AsyncRunner;
 import tech.pegasys.teku.infrastructure.async.AsyncRunnerFactory;
 import tech.pegasys.teku.infrastructure.async.MetricTrackingExecutorFactory;
+import tech.pegasys.teku.infrastructure.ssz.SszData;
 import tech.pegasys.teku.infrastructure.unsigned.UInt64;
 import tech.pegasys.teku.service.serviceutils.layout.DataDirLayout;
 import tech.pegasys.teku.spec.Spec;
@@ -54,6 +57,7 @@ import tech.pegasys.teku.storage.server.DatabaseStorageException;
 import tech.pegasys.teku.storage.server.DepositStorage;
 import tech.pegasys.teku.storage.server.StorageConfiguration;
 import tech.pegasys.teku.storage.server.VersionedDatabaseFactory;
+import tech.pegasys.teku.storage.server.kvstore.KvStoreDatabase;
 import tech.pegasys.teku.storage.store.StoreBuilder;
 import tech.pegasys.teku.storage.store.UpdatableStore;
 
@@ -430,6 +434,75 @@ public class DebugDbCommand implements Runnable {
     return 0;
   }
 
+  @Command(
+      name = "export",
+      description = "Writes the raw database contents as segment files to import into a new node",
+      mixinStandardHelpOptions = true,
+      showDefaultValues = true,
+      abbreviateSynopsis = true,
+      versionProvider = PicoCliVersionProvider.class,
+      synopsisHeading = "%n",
+      descriptionHeading = "%nDescription:%n%n",
+      optionListHeading = "%nOptions:%n",
+      footerHeading = "%n",
+      footer = "Teku is licensed under the Apache License 2.0")
+  public int export(
+      @Mixin final BeaconNodeDataOptions beaconNodeDataOptions,
+      @Mixin final Eth2NetworkOptions eth2NetworkOptions,
+      @Option(
+              required = true,
+              names = {"--output", "-o"},
+              description = "Directory to write the segment files to")
+          final Path outputDirectory)
+      throws Exception {
+    try (final Database database = createDatabase(beaconNodeDataOptions, eth2NetworkOptions)) {
+      if (!(database instanceof KvStoreDatabase)) {
+        System.err.println("Only KV store databases can be exported");
+        return 1;
+      }
+      ((KvStoreDatabase) database).exportDatabase(outputDirectory, System.out::println);
+    }
+    System.out.println("Exported database to " + outputDirectory.toAbsolutePath());
+    return 0;
+  }
+
+  @Command(
+      name = "import",
+      description =
+          "Bulk loads segment files written by the export command into a new, empty database",
+      mixinStandardHelpOptions = true,
+      showDefaultValues = true,
+      abbreviateSynopsis = true,
+      versionProvider = PicoCliVersionProvider.class,
+      synopsisHeading = "%n",
+      descriptionHeading = "%nDescription:%n%n",
+      optionListHeading = "%nOptions:%n",
+      footerHeading = "%n",
+      footer = "Teku is licensed under the Apache License 2.0")
+  public int importDatabase(
+      @Mixin final BeaconNodeDataOptions beaconNodeDataOptions,
+      @Mixin final Eth2NetworkOptions eth2NetworkOptions,
+      @Option(
+              required = true,
+              names = {"--input", "-i"},
+              description = "Directory containing the exported segment files")
+          final Path inputDirectory)
+      throws Exception {
+    try (final Database database = createDatabase(beaconNodeDataOptions, eth2NetworkOptions)) {
+      if (!(database instanceof KvStoreDatabase)) {
+        System.err.println("Only KV store databases can be imported into");
+        return 1;
+      }
+      if (database.getAnchor().isPresent() || database.getGenesisTime().isPresent()) {
+        System.err.println("Unable to import into a database which already contains data");
+        return 1;
+      }
+      ((KvStoreDatabase) database).importDatabase(inputDirectory, System.out::println);
+    }
+    System.out.println("Imported database from " + inputDirectory.toAbsolutePath());
+    return 0;
+  }
+
   private boolean canParseBlock(final Spec spec, final Bytes blockData) {
     try {
       spec.deserializeSignedBeaconBlock(blockData);
@@ -502,7 +575,7 @@ public class DebugDbCommand implements Runnable {
       return 2;
     }
     try {
-      Files.write(outputFile, state.get().sszSerialize().toArrayUnsafe());
+      writeSsz(outputFile, state.get());
     } catch (IOException e) {
       System.err.println("Unable to write state to " + outputFile + ": " + e.getMessage());
       return 1;
@@ -516,11 +589,25 @@ public class DebugDbCommand implements Runnable {
       return 2;
     }
     try {
-      Files.write(outputFile, block.get().sszSerialize().toArrayUnsafe());
+      writeSsz(outputFile, block.get());
     } catch (IOException e) {
       System.err.println("Unable to write block to " + outputFile + ": " + e.getMessage());
       return 1;
     }
     return 0;
   }
+
+  /** Streams the SSZ to the file without materializing the whole serialization in memory */
+  private void writeSsz(final Path outputFile, final SszData data) throws IOException {
+    try (final FileChannel channel =
+        FileChannel.open(
+            outputFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      data.sszSerialize(channel);
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
 }
@@ -238,6 +238,81 @@ public class BeaconNodeDataOptionsTest extends AbstractBeaconNodeCommandTest {
         .isEqualTo(config);
   }
 
+  @Test
+  void shouldSetBlockArchiveEnabled() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments("--Xdata-storage-block-archive-enabled");
+    assertThat(config.storageConfiguration().isBlockArchiveEnabled()).isTrue();
+  }
+
+  @Test
+  void shouldDisableBlockArchiveByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    assertThat(config.storageConfiguration().isBlockArchiveEnabled()).isFalse();
+  }
+
+  @Test
+  void shouldEnableGroupCommitByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    assertThat(config.storageConfiguration().isGroupCommitEnabled()).isTrue();
+  }
+
+  @Test
+  void shouldDisableGroupCommit() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments("--Xdata-storage-group-commit-enabled=false");
+    assertThat(config.storageConfiguration().isGroupCommitEnabled()).isFalse();
+  }
+
+  @Test
+  void shouldSetStateTieringEnabled() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments("--Xdata-storage-archive-state-tiering-enabled");
+    assertThat(config.storageConfiguration().isStateTieringEnabled()).isTrue();
+  }
+
+  @Test
+  void shouldDisableStateTieringByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    assertThat(config.storageConfiguration().isStateTieringEnabled()).isFalse();
+  }
+
+  @Test
+  void shouldSetPrimaryBeaconDataPath() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments(
+            "--Xdata-storage-primary-beacon-path",
+            "/primary/beacon",
+            "--Xdata-storage-secondary-catch-up-interval",
+            "30");
+    assertThat(config.storageConfiguration().getPrimaryBeaconDataPath())
+        .contains(Path.of("/primary/beacon"));
+    assertThat(config.storageConfiguration().isSecondary()).isTrue();
+    assertThat(config.storageConfiguration().getSecondaryCatchUpInterval())
+        .isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  void shouldNotBeSecondaryByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    assertThat(config.storageConfiguration().isSecondary()).isFalse();
+  }
+
+  @Test
+  void shouldSetHotLogColumns() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments(
+            "--Xdata-storage-hot-log-columns", "HOT_BLOCKS_BY_ROOT,HOT_STATES_BY_ROOT");
+    assertThat(config.storageConfiguration().getHotLogColumns())
+        .containsExactly("HOT_BLOCKS_BY_ROOT", "HOT_STATES_BY_ROOT");
+  }
+
+  @Test
+  void shouldNotUseHotLogByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    assertThat(config.storageConfiguration().getHotLogColumns()).isEmpty();
+  }
+
   @Test
   void shouldNotAllowPruningBlocksAndReconstructingStates() {
     assertThatThrownBy(
@@ -104,6 +104,21 @@ class Eth2NetworkOptionsTest extends AbstractBeaconNodeCommandTest {
     assertThat(spec.getGenesisSpecConfig().getProgressiveBalancesMode()).isEqualTo(mode);
   }
 
+  @Test
+  void shouldDisableParallelHashingByDefault() {
+    final TekuConfiguration config = getTekuConfigurationFromArguments();
+    final Spec spec = config.eth2NetworkConfiguration().getSpec();
+    assertThat(spec.getGenesisSpecConfig().isParallelHashingEnabled()).isFalse();
+  }
+
+  @Test
+  void shouldEnableParallelHashing() {
+    final TekuConfiguration config =
+        getTekuConfigurationFromArguments("--Xparallel-hashing-enabled");
+    final Spec spec = config.eth2NetworkConfiguration().getSpec();
+    assertThat(spec.getGenesisSpecConfig().isParallelHashingEnabled()).isTrue();
+  }
+
   @ParameterizedTest
   @ValueSource(strings = {"true", "false"})
   void shouldSetFirstDescendentAsHead(final String value) {
@@ -66,4 +66,25 @@ public class StoreOptionsTest extends AbstractBeaconNodeCommandTest {
     assertThat(output).isNotEmpty();
     assertThat(output).contains("Invalid value");
   }
+
+  @Test
+  public void cacheMaxBytes_shouldRespectCLIArgs() {
+    final String[] args = {
+      "--Xstore-block-cache-max-bytes", "1000",
+      "--Xstore-state-cache-max-bytes", "2000",
+      "--Xstore-checkpoint-state-cache-max-bytes", "3000"
+    };
+    final StoreConfig storeConfig =
+        getTekuConfigurationFromArguments(args).beaconChain().storeConfig();
+    assertThat(storeConfig.getBlockCacheMaxBytes()).isEqualTo(1000);
+    assertThat(storeConfig.getStateCacheMaxBytes()).isEqualTo(2000);
+    assertThat(storeConfig.getCheckpointStateCacheMaxBytes()).isEqualTo(3000);
+    assertThat(storeConfig.hasCacheByteBudgets()).isTrue();
+  }
+
+  @Test
+  public void cacheMaxBytes_shouldBeDisabledByDefault() {
+    final StoreConfig storeConfig = getTekuConfigurationFromArguments().beaconChain().storeConfig();
+    assertThat(storeConfig.hasCacheByteBudgets()).isFalse();
+  }
 }